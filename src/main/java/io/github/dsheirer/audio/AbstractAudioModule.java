@@ -21,9 +21,17 @@
 package io.github.dsheirer.audio;
 
 import io.github.dsheirer.alias.AliasList;
+import io.github.dsheirer.identifier.Form;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierClass;
+import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.identifier.IdentifierUpdateListener;
 import io.github.dsheirer.identifier.IdentifierUpdateNotification;
 import io.github.dsheirer.identifier.MutableIdentifierCollection;
+import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.identifier.configuration.ChannelNameConfigurationIdentifier;
+import io.github.dsheirer.identifier.configuration.FrequencyConfigurationIdentifier;
+import io.github.dsheirer.log.jfr.AudioSegmentEvent;
 import io.github.dsheirer.module.Module;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
@@ -89,6 +97,7 @@ public abstract class AbstractAudioModule extends Module implements IAudioSegmen
             if(mAudioSegment != null)
             {
                 mAudioSegment.completeProperty().set(true);
+                commitAudioSegmentEvent(mAudioSegment);
                 mIdentifierUpdateNotificationBroadcaster.removeListener(mAudioSegment);
                 mAudioSegment.decrementConsumerCount();
                 mAudioSegment = null;
@@ -96,6 +105,37 @@ public abstract class AbstractAudioModule extends Module implements IAudioSegmen
         }
     }
 
+    /**
+     * Records a flight recorder event for the completed audio segment when the event type is enabled.
+     */
+    private void commitAudioSegmentEvent(AudioSegment audioSegment)
+    {
+        AudioSegmentEvent event = new AudioSegmentEvent();
+
+        if(event.shouldCommit())
+        {
+            IdentifierCollection identifiers = audioSegment.getIdentifierCollection();
+
+            Identifier channel = identifiers.getIdentifier(IdentifierClass.CONFIGURATION, Form.CHANNEL, Role.ANY);
+            if(channel instanceof ChannelNameConfigurationIdentifier)
+            {
+                event.channel = ((ChannelNameConfigurationIdentifier)channel).getValue();
+            }
+
+            Identifier frequency = identifiers.getIdentifier(IdentifierClass.CONFIGURATION, Form.CHANNEL_FREQUENCY,
+                Role.ANY);
+            if(frequency instanceof FrequencyConfigurationIdentifier)
+            {
+                event.frequency = ((FrequencyConfigurationIdentifier)frequency).getValue();
+            }
+
+            event.timeslot = audioSegment.getTimeslot();
+            event.bufferCount = audioSegment.getAudioBufferCount();
+            event.audioDuration = audioSegment.getDuration();
+            event.commit();
+        }
+    }
+
     @Override
     public void stop()
     {
@@ -20,6 +20,7 @@ import io.github.dsheirer.alias.Alias;
 import io.github.dsheirer.alias.AliasList;
 import io.github.dsheirer.alias.id.broadcast.BroadcastChannel;
 import io.github.dsheirer.alias.id.priority.Priority;
+import io.github.dsheirer.audio.convert.MP3StreamingEncoder;
 import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.identifier.IdentifierUpdateNotification;
@@ -64,6 +65,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class AudioSegment implements Listener<IdentifierUpdateNotification>
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioSegment.class);
+    public static final int MP3_BIT_RATE = 16;
+    public static final boolean MP3_VARIABLE_BIT_RATE = false;
     private BooleanProperty mComplete = new SimpleBooleanProperty(false);
     private BooleanProperty mDuplicate = new SimpleBooleanProperty(false);
     private BooleanProperty mRecordAudio = new SimpleBooleanProperty(false);
@@ -79,6 +82,10 @@ public class AudioSegment implements Listener<IdentifierUpdateNotification>
     private boolean mDisposing = false;
     private AudioSegment mLinkedAudioSegment;
     private int mTimeslot;
+    private final Object mMP3EncoderLock = new Object();
+    private MP3StreamingEncoder mMP3Encoder;
+    private int mMP3EncodedBufferCount;
+    private volatile boolean mMP3EncodingRequested;
 
     /**
      * Constructs an instance
@@ -316,13 +323,124 @@ public class AudioSegment implements Listener<IdentifierUpdateNotification>
         return !mAudioBuffers.isEmpty();
     }
 
+    /**
+     * Requests incremental MP3 encoding of this segment's audio.  The audio is not encoded by this method, or by the
+     * producer as it adds audio.  Instead, consumers that require MP3 audio should invoke this method as soon as they
+     * know that they'll need the MP3 audio and then periodically invoke encodeMP3() from their own processing thread,
+     * so that the MP3 audio is available without a full encode once the segment is complete.
+     */
+    public void startMP3Encoding()
+    {
+        mMP3EncodingRequested = true;
+    }
+
+    /**
+     * Encodes any audio buffers that have been added since the previous invocation, once MP3 encoding is started.
+     * This method should only be invoked by consumer threads and never by the audio producer.  Concurrent invocations
+     * by multiple consumers are serialized and each audio buffer is only encoded once.
+     */
+    public void encodeMP3()
+    {
+        if(!mMP3EncodingRequested)
+        {
+            return;
+        }
+
+        synchronized(mMP3EncoderLock)
+        {
+            if(mDisposing)
+            {
+                return;
+            }
+
+            if(mMP3Encoder == null)
+            {
+                mMP3Encoder = new MP3StreamingEncoder(MP3_BIT_RATE, MP3_VARIABLE_BIT_RATE);
+            }
+
+            if(!mMP3Encoder.isFinished())
+            {
+                int bufferCount = mAudioBuffers.size();
+
+                while(mMP3EncodedBufferCount < bufferCount)
+                {
+                    mMP3Encoder.encode(mAudioBuffers.get(mMP3EncodedBufferCount++));
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of MP3 encoded bytes currently available for this segment.
+     */
+    public int getMP3AudioLength()
+    {
+        synchronized(mMP3EncoderLock)
+        {
+            return mMP3Encoder != null ? mMP3Encoder.getEncodedLength() : 0;
+        }
+    }
+
+    /**
+     * Partial MP3 encoded audio for this segment, for streaming the segment while it is in progress.  Only the audio
+     * encoded by the most recent encodeMP3() invocation is available.
+     *
+     * @param offset into the encoded audio
+     * @param maximumLength of bytes to return
+     * @return encoded audio or an empty array if no encoded audio is available beyond the offset
+     */
+    public byte[] getMP3Audio(int offset, int maximumLength)
+    {
+        synchronized(mMP3EncoderLock)
+        {
+            if(mMP3Encoder == null)
+            {
+                return new byte[0];
+            }
+
+            return mMP3Encoder.getEncodedAudio(offset, maximumLength);
+        }
+    }
+
+    /**
+     * MP3 encoded audio for this segment.  This method should only be invoked once the segment is complete.  Any
+     * audio that was not yet incrementally encoded is encoded on the calling thread.
+     *
+     * The encoded audio is shared across all consumers and must not be modified.
+     *
+     * @return MP3 encoded audio
+     */
+    public byte[] getMP3Audio()
+    {
+        startMP3Encoding();
+        encodeMP3();
+
+        synchronized(mMP3EncoderLock)
+        {
+            if(mMP3Encoder == null)
+            {
+                return new byte[0];
+            }
+
+            return mMP3Encoder.finish();
+        }
+    }
+
     /**
      * Removes all audio buffers and decrements the user count on each so that the audio buffer can be reclaimed.
      */
     private void dispose()
     {
         mDisposing = true;
+
+        //Wait for any consumer that is currently encoding before the audio buffers are cleared
+        synchronized(mMP3EncoderLock)
+        {
+            mMP3Encoder = null;
+        }
+
         mAudioBuffers.clear();
+
         mIdentifierCollection.clear();
         mIdentifierUpdateNotificationBroadcaster.clear();
         mLinkedAudioSegment = null;
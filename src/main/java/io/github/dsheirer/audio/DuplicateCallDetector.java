@@ -22,6 +22,7 @@ package io.github.dsheirer.audio;
 import io.github.dsheirer.identifier.Form;
 import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.IdentifierClass;
+import io.github.dsheirer.identifier.IdentifierUpdateNotification;
 import io.github.dsheirer.identifier.Role;
 import io.github.dsheirer.identifier.configuration.SystemConfigurationIdentifier;
 import io.github.dsheirer.identifier.patch.PatchGroupIdentifier;
@@ -30,7 +31,8 @@ import io.github.dsheirer.identifier.talkgroup.TalkgroupIdentifier;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.duplicate.DuplicateCallDetectionPreference;
 import io.github.dsheirer.sample.Listener;
-import io.github.dsheirer.util.ThreadPool;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,22 +40,28 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Detects duplicate calls that occur within the same system.  This detector is thread safe for the receive() method.
  *
+ * Each in-progress audio segment is indexed by its TO talkgroup/patch group and radio identifiers and by its FROM
+ * radio identifiers.  When a newly received segment, or a segment that receives a new identifier, shares an
+ * identifier with another in-progress segment in the same system, the segment that started later is flagged as a
+ * duplicate.  Index entries are removed when the owning segment completes or is flagged as a duplicate, so there is
+ * no periodic processing.
+ *
  * Note: system in this context refers to the system name value that is used in channel configurations.  All decoder
  * channels must share the same system name for call duplication detection.
  */
 public class DuplicateCallDetector implements Listener<AudioSegment>
 {
     private final static Logger mLog = LoggerFactory.getLogger(DuplicateCallDetector.class);
+    private static final long KEY_GROUP = 0x100000000l;
+    private static final long KEY_RADIO = 0x200000000l;
+    private static final long KEY_FROM = 0x400000000l;
     private DuplicateCallDetectionPreference mDuplicateCallDetectionPreference;
-    private Map<String,SystemDuplicateCallDetector> mDetectorMap = new HashMap();
+    private Map<String,SystemDuplicateCallDetector> mDetectorMap = new ConcurrentHashMap<>();
 
     public DuplicateCallDetector(UserPreferences userPreferences)
     {
@@ -63,6 +71,8 @@ public class DuplicateCallDetector implements Listener<AudioSegment>
     @Override
     public void receive(AudioSegment audioSegment)
     {
+        boolean tracked = false;
+
         if(mDuplicateCallDetectionPreference.isDuplicateCallDetectionEnabled())
         {
             Identifier identifier = audioSegment.getIdentifierCollection()
@@ -71,248 +81,285 @@ public class DuplicateCallDetector implements Listener<AudioSegment>
             if(identifier instanceof SystemConfigurationIdentifier)
             {
                 String system = ((SystemConfigurationIdentifier)identifier).getValue();
-
-                synchronized(mDetectorMap)
-                {
-                    SystemDuplicateCallDetector detector = mDetectorMap.get(system);
-
-                    if(detector == null)
-                    {
-                        detector = new SystemDuplicateCallDetector();
-                        mDetectorMap.put(system, detector);
-                    }
-
-                    detector.add(audioSegment);
-                }
+                mDetectorMap.computeIfAbsent(system, key -> new SystemDuplicateCallDetector()).add(audioSegment);
+                tracked = true;
             }
         }
+
+        //Release the audio segment when we're not monitoring it
+        if(!tracked)
+        {
+            audioSegment.decrementConsumerCount();
+        }
     }
 
-    public class SystemDuplicateCallDetector
+    /**
+     * Creates an index key for the identifier, or returns null if the identifier is not used for duplicate detection.
+     * Talkgroups and patch groups share the same group key space so that a talkgroup call is detected as a duplicate
+     * of a patch group call for the same talkgroup value.
+     *
+     * @param identifier to index
+     * @return index key or null
+     */
+    private static Long getKey(Identifier identifier)
     {
-        private LinkedTransferQueue<AudioSegment> mAudioSegmentQueue = new LinkedTransferQueue<>();
-        private List<AudioSegment> mAudioSegments = new ArrayList<>();
-        private AtomicBoolean mMonitoring = new AtomicBoolean();
-        private ScheduledFuture<?> mProcessorFuture;
+        long role;
 
-        public SystemDuplicateCallDetector()
+        if(identifier.getRole() == Role.TO)
+        {
+            role = 0;
+        }
+        else if(identifier.getRole() == Role.FROM)
+        {
+            role = KEY_FROM;
+        }
+        else
         {
+            return null;
         }
 
-        public void add(AudioSegment audioSegment)
+        if(identifier instanceof TalkgroupIdentifier)
         {
-            //Block on audio segment queue so that we don't interfere with monitoring shutdown
-            synchronized(mAudioSegmentQueue)
-            {
-                mAudioSegmentQueue.add(audioSegment);
-                startMonitoring();
-            }
+            return role | KEY_GROUP | (((TalkgroupIdentifier)identifier).getValue() & 0xFFFFFFFFl);
+        }
+        else if(identifier instanceof PatchGroupIdentifier)
+        {
+            return role | KEY_GROUP |
+                (((PatchGroupIdentifier)identifier).getValue().getPatchGroup().getValue() & 0xFFFFFFFFl);
         }
+        else if(identifier instanceof RadioIdentifier)
+        {
+            return role | KEY_RADIO | (((RadioIdentifier)identifier).getValue() & 0xFFFFFFFFl);
+        }
+
+        return null;
+    }
+
+    /**
+     * Duplicate call detector for a single system.  All index operations are O(1) and are synchronized on the detector
+     * so that segments from different systems don't contend with each other.
+     */
+    public class SystemDuplicateCallDetector
+    {
+        private Map<Long,TrackedAudioSegment> mOwnerMap = new HashMap<>();
 
-        private void startMonitoring()
+        public SystemDuplicateCallDetector()
         {
-            if(mMonitoring.compareAndSet(false, true))
-            {
-                mProcessorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(() -> process(),
-                    0, 25, TimeUnit.MILLISECONDS);
-            }
         }
 
-        private void stopMonitoring()
+        /**
+         * Adds the audio segment and checks all of its current identifiers for duplicates.
+         */
+        public void add(AudioSegment audioSegment)
         {
-            if(mMonitoring.compareAndSet(true, false))
+            TrackedAudioSegment tracked = new TrackedAudioSegment(audioSegment);
+
+            synchronized(this)
             {
-                if(mProcessorFuture != null)
+                for(Identifier identifier: audioSegment.getIdentifierCollection().getIdentifiers())
                 {
-                    mProcessorFuture.cancel(true);
+                    if(check(tracked, identifier))
+                    {
+                        break;
+                    }
                 }
             }
+
+            tracked.start();
         }
 
         /**
-         * Checks if either the TO or FROM integer identifiers for the audio segments are the same
-         * @param segment1 to compare
-         * @param segment2 to compare
-         * @return true if integer identifiers are the same
+         * Checks the identifier against the index.  When another in-progress segment owns the identifier, the newer of
+         * the two segments (by start time) is flagged as a duplicate and removed, and the older segment owns the
+         * identifier.  This holds when an older segment picks up an identifier after a newer segment claimed it.
+         *
+         * @param tracked audio segment
+         * @param identifier to check
+         * @return true if the tracked audio segment was flagged as a duplicate
          */
-        private boolean isDuplicate(AudioSegment segment1, AudioSegment segment2)
+        private boolean check(TrackedAudioSegment tracked, Identifier identifier)
         {
-            if(mDuplicateCallDetectionPreference.isDuplicateCallDetectionByTalkgroupEnabled())
+            if(tracked.isReleased() || identifier == null)
             {
-                //Step 1 check for duplicate TO values
-                List<Identifier> to1 = segment1.getIdentifierCollection().getIdentifiers(Role.TO);
-                List<Identifier> to2 = segment2.getIdentifierCollection().getIdentifiers(Role.TO);
-
-                if(isDuplicate(to1, to2))
-                {
-                    return true;
-                }
+                return false;
             }
 
-            if(mDuplicateCallDetectionPreference.isDuplicateCallDetectionByRadioEnabled())
+            Long key = getKey(identifier);
+
+            if(key == null || !isEnabled(key))
             {
-                //Step 2 check for duplicate FROM values
-                List<Identifier> from1 = segment1.getIdentifierCollection().getIdentifiers(Role.FROM);
-                List<Identifier> from2 = segment2.getIdentifierCollection().getIdentifiers(Role.FROM);
+                return false;
+            }
 
-                return isDuplicate(from1, from2);
+            TrackedAudioSegment owner = mOwnerMap.get(key);
+
+            if(owner == null)
+            {
+                mOwnerMap.put(key, tracked);
+                tracked.mKeys.add(key);
+            }
+            else if(owner != tracked)
+            {
+                if(tracked.getStartTimestamp() < owner.getStartTimestamp())
+                {
+                    owner.mAudioSegment.setDuplicate(true);
+                    remove(owner);
+                    mOwnerMap.put(key, tracked);
+                    tracked.mKeys.add(key);
+                }
+                else
+                {
+                    tracked.mAudioSegment.setDuplicate(true);
+                    remove(tracked);
+                    return true;
+                }
             }
 
             return false;
         }
 
         /**
-         * Checks both lists of identifiers to determine if there are talkgroups or radio identifiers that are
-         * the same in both lists.  Note: talkgroup check compares both talkgroups and patch groups.
-         *
-         * @param identifiers1
-         * @param identifiers2
-         * @return
+         * Indicates if duplicate detection is enabled for the key type.  TO identifiers are checked when detection by
+         * talkgroup is enabled and FROM identifiers are checked when detection by radio is enabled.
          */
-        private boolean isDuplicate(List<Identifier> identifiers1, List<Identifier> identifiers2)
+        private boolean isEnabled(long key)
         {
-            for(Identifier identifier1: identifiers1)
+            if((key & KEY_FROM) == KEY_FROM)
             {
-                if(identifier1 instanceof TalkgroupIdentifier)
-                {
-                    int talkgroup1 = ((TalkgroupIdentifier)identifier1).getValue();
+                return mDuplicateCallDetectionPreference.isDuplicateCallDetectionByRadioEnabled();
+            }
 
-                    for(Identifier identifier2: identifiers2)
-                    {
-                        if(identifier2 instanceof TalkgroupIdentifier &&
-                           ((TalkgroupIdentifier)identifier2).getValue() == talkgroup1)
-                        {
-                            return true;
-                        }
-                        else if(identifier2 instanceof PatchGroupIdentifier &&
-                            ((PatchGroupIdentifier)identifier2).getValue().getPatchGroup().getValue() == talkgroup1)
-                        {
-                            return true;
-                        }
-                    }
-                }
-                else if(identifier1 instanceof PatchGroupIdentifier)
-                {
-                    int talkgroup1 = ((PatchGroupIdentifier)identifier1).getValue().getPatchGroup().getValue();
+            return mDuplicateCallDetectionPreference.isDuplicateCallDetectionByTalkgroupEnabled();
+        }
 
-                    for(Identifier identifier2: identifiers2)
-                    {
-                        if(identifier2 instanceof TalkgroupIdentifier &&
-                            ((TalkgroupIdentifier)identifier2).getValue() == talkgroup1)
-                        {
-                            return true;
-                        }
-                        else if(identifier2 instanceof PatchGroupIdentifier &&
-                            ((PatchGroupIdentifier)identifier2).getValue().getPatchGroup().getValue() == talkgroup1)
-                        {
-                            return true;
-                        }
-                    }
-                }
-                else if(identifier1 instanceof RadioIdentifier)
+        /**
+         * Removes the tracked audio segment's index entries and releases the audio segment
+         */
+        private void remove(TrackedAudioSegment tracked)
+        {
+            for(Long key: tracked.mKeys)
+            {
+                if(mOwnerMap.get(key) == tracked)
                 {
-                    int radio1 = ((RadioIdentifier)identifier1).getValue();
-
-                    for(Identifier identifier2: identifiers2)
-                    {
-                        if(identifier2 instanceof RadioIdentifier && ((RadioIdentifier)identifier2).getValue() == radio1)
-                        {
-                            return true;
-                        }
-                    }
+                    mOwnerMap.remove(key);
                 }
             }
 
-            return false;
+            tracked.mKeys.clear();
+            tracked.release();
         }
 
         /**
-         * Processes audio segments to detect duplicates
+         * Audio segment tracked by this detector.  Monitors the audio segment for new identifiers and for completion.
          */
-        private void process()
+        private class TrackedAudioSegment implements ChangeListener<Boolean>, Listener<IdentifierUpdateNotification>
         {
-            try
-            {
-                //Transfer in newly arrived audio segments
-                mAudioSegmentQueue.drainTo(mAudioSegments);
+            private AudioSegment mAudioSegment;
+            private List<Long> mKeys = new ArrayList<>();
+            private boolean mStarted;
+            private boolean mReleased;
 
-                //Remove any completed audio segments.
-                mAudioSegments.removeIf(audioSegment -> {
-                    boolean complete = audioSegment.completeProperty().get();
+            public TrackedAudioSegment(AudioSegment audioSegment)
+            {
+                mAudioSegment = audioSegment;
+            }
 
-                    if(complete)
+            /**
+             * Starts monitoring the audio segment, or releases it if it was already flagged as a duplicate.
+             */
+            private void start()
+            {
+                synchronized(SystemDuplicateCallDetector.this)
+                {
+                    if(mReleased)
                     {
-                        audioSegment.decrementConsumerCount();
+                        mAudioSegment.decrementConsumerCount();
+                        return;
                     }
 
-                    return complete;
-                });
+                    mStarted = true;
+                }
+
+                mAudioSegment.addIdentifierUpdateNotificationListener(this);
+                mAudioSegment.completeProperty().addListener(this);
 
-                //Only check for duplicates if there is more than one call
-                if(mAudioSegments.size() > 1)
+                //The audio segment may have completed before we started listening
+                if(mAudioSegment.completeProperty().get())
                 {
-                    List<AudioSegment> duplicates = new ArrayList<>();
+                    completed();
+                }
+            }
 
-                    int currentIndex = 0;
-                    while(currentIndex < mAudioSegments.size() - 1)
-                    {
-                        AudioSegment current = mAudioSegments.get(currentIndex);
+            /**
+             * Start time of the audio segment
+             */
+            private long getStartTimestamp()
+            {
+                return mAudioSegment.getStartTimestamp();
+            }
 
-                        if(!current.isDuplicate())
-                        {
-                            int checkIndex = currentIndex + 1;
-
-                            while(checkIndex < mAudioSegments.size())
-                            {
-                                AudioSegment toCheck = mAudioSegments.get(checkIndex);
-
-                                if(!toCheck.isDuplicate())
-                                {
-                                    if(isDuplicate(current, toCheck))
-                                    {
-                                        toCheck.setDuplicate(true);
-                                        toCheck.decrementConsumerCount();
-                                        duplicates.add(toCheck);
-                                    }
-                                }
-
-                                checkIndex++;
-                            }
-                        }
+            private boolean isReleased()
+            {
+                return mReleased;
+            }
 
-                        currentIndex++;
+            /**
+             * Stops monitoring the audio segment and releases it once monitoring has started.
+             */
+            private void release()
+            {
+                if(!mReleased)
+                {
+                    mReleased = true;
+
+                    if(mStarted)
+                    {
+                        mAudioSegment.removeIdentifierUpdateNotificationListener(this);
+                        mAudioSegment.completeProperty().removeListener(this);
+                        mAudioSegment.decrementConsumerCount();
                     }
+                }
+            }
 
-                    mAudioSegments.removeAll(duplicates);
+            /**
+             * Removes the audio segment from the index
+             */
+            private void completed()
+            {
+                synchronized(SystemDuplicateCallDetector.this)
+                {
+                    remove(this);
                 }
+            }
 
-                //Finally, if the audio segment queue is empty, shutdown montitoring until a new segment arrives
-                if(mAudioSegments.isEmpty())
+            @Override
+            public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue)
+            {
+                if(newValue)
                 {
-                    //Block on the audio segment queue so that we can shutdown before any new segments are added, and
-                    //allow the add(segment) to restart monitoring as soon as needed.
-                    synchronized(mAudioSegmentQueue)
+                    completed();
+                }
+            }
+
+            @Override
+            public void receive(IdentifierUpdateNotification notification)
+            {
+                if(notification.isAdd() || notification.isSilentAdd())
+                {
+                    try
                     {
-                        if(mAudioSegmentQueue.isEmpty())
+                        synchronized(SystemDuplicateCallDetector.this)
                         {
-                            try
-                            {
-                                stopMonitoring();
-                            }
-                            catch(Exception e)
-                            {
-                                mLog.error("Unexpected error during duplicate audio segment monitoring shutdown", e);
-                                //Do nothing, we got interrupted
-                            }
+                            check(this, notification.getIdentifier());
                         }
                     }
+                    catch(Throwable t)
+                    {
+                        mLog.error("Unknown error while checking audio segment for duplicate call detection.  Please " +
+                            "report this to the developer.", t);
+                    }
                 }
             }
-            catch(Throwable t)
-            {
-                mLog.error("Unknown error while processing audio segments for duplicate call detection.  Please report " +
-                    "this to the developer.", t);
-            }
         }
     }
 }
@@ -159,6 +159,15 @@ public abstract class AbstractAudioBroadcaster<T extends BroadcastConfiguration>
      */
     public abstract int getAudioQueueSize();
 
+    /**
+     * Indicates if this broadcaster can stream live audio recordings while the recording is still in progress.
+     * Broadcasters that don't support live recordings only receive completed recordings.
+     */
+    public boolean isLiveRecordingSupported()
+    {
+        return false;
+    }
+
     /**
      * Total audio upload/stream error count
      */
@@ -19,12 +19,16 @@
 package io.github.dsheirer.audio.broadcast;
 
 import io.github.dsheirer.alias.id.broadcast.BroadcastChannel;
+import io.github.dsheirer.audio.AudioSegment;
 import io.github.dsheirer.identifier.IdentifierCollection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class AudioRecording implements Comparable<AudioRecording>
@@ -37,6 +41,10 @@ public class AudioRecording implements Comparable<AudioRecording>
     private AtomicInteger mPendingReplayCount = new AtomicInteger();
     private IdentifierCollection mIdentifierCollection;
     private Collection<BroadcastChannel> mBroadcastChannels;
+    private volatile AudioSegment mAudioSegment;
+    private volatile boolean mComplete;
+    private int mMP3AudioLength;
+    private Set<AbstractAudioBroadcaster> mBroadcasters = Collections.newSetFromMap(new IdentityHashMap<>());
 
     /**
      * Audio recording that is ready to be streamed
@@ -54,10 +62,126 @@ public class AudioRecording implements Comparable<AudioRecording>
         mIdentifierCollection = identifierCollection;
         mStartTime = start;
         mRecordingLength = recordingLength;
+        mComplete = true;
     }
 
     /**
-     * Path to the completed audio recording
+     * Live audio recording for an audio segment that is still in progress.  The MP3 audio is streamed from the audio
+     * segment as it is encoded and the recording is completed via the complete() method once the segment is complete.
+     *
+     * Note: the audio segment consumer count should be incremented for this recording and it is decremented once the
+     * recording is disposed.
+     *
+     * @param audioSegment that is in progress, with MP3 encoding started
+     */
+    public AudioRecording(AudioSegment audioSegment)
+    {
+        mAudioSegment = audioSegment;
+        mBroadcastChannels = audioSegment.getBroadcastChannels();
+        mStartTime = audioSegment.getStartTimestamp();
+    }
+
+    /**
+     * Indicates if this is a live recording that streams audio from an in-progress audio segment.
+     */
+    public boolean isLive()
+    {
+        return mAudioSegment != null;
+    }
+
+    /**
+     * Indicates if this recording is complete.  Live recordings are incomplete until the audio segment is complete.
+     */
+    public boolean isComplete()
+    {
+        return mComplete;
+    }
+
+    /**
+     * Completes a live recording once the audio segment is complete and the MP3 encoding is finished, or cuts a live
+     * recording short at the MP3 audio that is currently encoded.
+     *
+     * @param path to the completed audio recording file, or null if the recording was cut short and not saved
+     * @param broadcastChannels for the completed audio segment
+     * @param identifierCollection for the completed audio segment
+     * @param recordingLength in milliseconds
+     */
+    public void complete(Path path, Collection<BroadcastChannel> broadcastChannels,
+                         IdentifierCollection identifierCollection, long recordingLength)
+    {
+        mPath = path;
+        mBroadcastChannels = broadcastChannels;
+        mIdentifierCollection = identifierCollection;
+        mRecordingLength = recordingLength;
+        mMP3AudioLength = mAudioSegment != null ? mAudioSegment.getMP3AudioLength() : 0;
+        mComplete = true;
+    }
+
+    /**
+     * Number of MP3 audio bytes currently available from a live recording.  Once the live recording is complete, this
+     * is the final length of the MP3 audio.
+     */
+    public int getMP3AudioLength()
+    {
+        if(mComplete)
+        {
+            return mMP3AudioLength;
+        }
+
+        AudioSegment audioSegment = mAudioSegment;
+        return audioSegment != null ? audioSegment.getMP3AudioLength() : 0;
+    }
+
+    /**
+     * MP3 audio currently available from a live recording.
+     *
+     * @param offset into the MP3 audio
+     * @param maximumLength of bytes to return
+     * @return MP3 audio or an empty array if no audio is available beyond the offset
+     */
+    public byte[] getMP3Audio(int offset, int maximumLength)
+    {
+        AudioSegment audioSegment = mAudioSegment;
+
+        if(audioSegment == null)
+        {
+            return new byte[0];
+        }
+
+        //A completed live recording may have been cut short while other consumers continue to encode the segment
+        if(mComplete)
+        {
+            maximumLength = Math.min(maximumLength, mMP3AudioLength - offset);
+        }
+
+        return audioSegment.getMP3Audio(offset, maximumLength);
+    }
+
+    /**
+     * Registers the broadcaster as a recipient of this recording.
+     *
+     * @param broadcaster to register
+     * @return true if the broadcaster was not already registered
+     */
+    public synchronized boolean addBroadcaster(AbstractAudioBroadcaster broadcaster)
+    {
+        return mBroadcasters.add(broadcaster);
+    }
+
+    /**
+     * Releases the audio segment for a live recording.  Invoke once the recording has no pending replays.
+     */
+    public void dispose()
+    {
+        if(mAudioSegment != null)
+        {
+            mAudioSegment.decrementConsumerCount();
+            mAudioSegment = null;
+        }
+    }
+
+    /**
+     * Path to the completed audio recording, or null for a live recording that is not yet complete.
      */
     public Path getPath()
     {
@@ -73,10 +197,18 @@ public class AudioRecording implements Comparable<AudioRecording>
     }
 
     /**
-     * Optional audio metadata/identifiers for the recording.
+     * Optional audio metadata/identifiers for the recording.  A live recording that is not yet complete provides a
+     * copy of the audio segment's current identifiers.
      */
     public IdentifierCollection getIdentifierCollection()
     {
+        AudioSegment audioSegment = mAudioSegment;
+
+        if(!mComplete && audioSegment != null)
+        {
+            return new IdentifierCollection(audioSegment.getIdentifierCollection().getIdentifiers());
+        }
+
         return mIdentifierCollection;
     }
 
@@ -85,7 +217,7 @@ public class AudioRecording implements Comparable<AudioRecording>
      */
     public boolean hasIdentifierCollection()
     {
-        return mIdentifierCollection != null;
+        return getIdentifierCollection() != null;
     }
 
     /**
@@ -30,18 +30,37 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.ByteBuffer;
+import java.nio.channels.UnresolvedAddressException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration> extends AbstractAudioBroadcaster<T>
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioStreamingBroadcaster.class);
 
     public static final int PROCESSOR_RUN_INTERVAL_MS = 1000;
+
+    /**
+     * Streaming data rate: 2000 bytes per second for 16 kbps MP3 audio
+     */
+    public static final int STREAMING_BYTES_PER_SECOND = 2000;
+
+    /**
+     * Audio send buffer capacity, in seconds of audio, before back-pressure is applied to the recording queue
+     */
+    public static final int AUDIO_SEND_BUFFER_SECONDS = 10;
+    private static final long RECONNECT_INTERVAL_MILLISECONDS = 30000; //30 seconds
+
     private ScheduledFuture mRecordingQueueProcessorFuture;
 
     private RecordingQueueProcessor mRecordingQueueProcessor = new RecordingQueueProcessor();
@@ -51,6 +70,7 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     private long mDelay;
     private long mMaximumRecordingAge;
     private AtomicBoolean mStreaming = new AtomicBoolean();
+    private StreamingConnection mStreamingConnection;
 
     /**
      * AudioBroadcaster for streaming audio recordings to a remote streaming audio server.  Audio recordings are
@@ -90,6 +110,80 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
      */
     protected abstract void broadcastAudio(byte[] audio);
 
+    /**
+     * Indicates if the broadcaster can accept another interval of audio for broadcast.  Audio is held in the
+     * recording queue while the streaming connection's audio send buffer is full (back-pressure) so that the remote
+     * server isn't flooded with a backlog of audio once it catches up.
+     */
+    protected boolean canBroadcastAudio()
+    {
+        StreamingConnection connection = mStreamingConnection;
+
+        return connection == null || !connection.isOpen() || connection.hasAudioCapacity(STREAMING_BYTES_PER_SECOND);
+    }
+
+    /**
+     * Protocol-specific handler for the streaming connection.  The handler sends the protocol handshake when the
+     * connection opens and updates the broadcast state from the server responses.
+     */
+    protected abstract ConnectionHandler getConnectionHandler();
+
+    /**
+     * Delay before reconnecting to the remote server after a connection failure or a remote closure.
+     */
+    protected long getReconnectInterval()
+    {
+        return RECONNECT_INTERVAL_MILLISECONDS;
+    }
+
+    /**
+     * Current streaming connection or null if the broadcaster is not connected or connecting.
+     */
+    protected StreamingConnection getStreamingConnection()
+    {
+        return mStreamingConnection;
+    }
+
+    /**
+     * Opens a connection to the remote server if the broadcaster is not already connected or connecting and indicates
+     * if the broadcaster is currently connected to the remote server.  Connection attempts are non-blocking and are
+     * managed, along with any reconnects, by the shared streaming transport.
+     *
+     * Attempts to connect via this method when the broadcast state indicates an error condition will be ignored.
+     *
+     * @return true if the broadcaster can stream audio
+     */
+    protected boolean connect()
+    {
+        if(mStreamingConnection == null && mStreaming.get() && canConnect())
+        {
+            setBroadcastState(BroadcastState.CONNECTING);
+
+            BroadcastConfiguration config = getBroadcastConfiguration();
+
+            //Pace audio slightly faster than real time so that the server can recover from network jitter
+            mStreamingConnection = new StreamingConnection(getStreamName(), config.getHost(), config.getPort(),
+                STREAMING_BYTES_PER_SECOND * 5 / 4, STREAMING_BYTES_PER_SECOND * AUDIO_SEND_BUFFER_SECONDS,
+                getReconnectInterval(), getConnectionHandler());
+            mStreamingConnection.open();
+        }
+
+        return connected();
+    }
+
+    /**
+     * Closes the current connection to the remote server and reconnects after the reconnect interval.
+     */
+    protected void reconnect()
+    {
+        StreamingConnection connection = mStreamingConnection;
+
+        if(connection != null)
+        {
+            connection.reset();
+        }
+    }
+
     /**
      * Protocol-specific metadata updater
      */
@@ -111,9 +205,24 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     }
 
     /**
-     * Disconnects the broadcaster from the remote server for a reset or final stop.
+     * Disconnects the broadcaster from the remote server for a final stop.
      */
-    protected abstract void disconnect();
+    protected void disconnect()
+    {
+        StreamingConnection connection = mStreamingConnection;
+        mStreamingConnection = null;
+
+        if(connection != null)
+        {
+            connection.close();
+        }
+
+        //If there is already an error state, don't override it.  Otherwise, set state to disconnected
+        if(!isErrorState())
+        {
+            setBroadcastState(BroadcastState.DISCONNECTED);
+        }
+    }
 
     /**
      * Connects to the remote server specified by the broadcast configuration and starts audio streaming.
@@ -143,6 +252,7 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
                 mRecordingQueueProcessorFuture = null;
             }
 
+            mRecordingQueueProcessor.releaseLiveRecording();
             disconnect();
         }
     }
@@ -164,6 +274,15 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
         return null;
     }
 
+    /**
+     * Streaming broadcasters stream live recordings as the audio is encoded.
+     */
+    @Override
+    public boolean isLiveRecordingSupported()
+    {
+        return true;
+    }
+
     /**
      * Size of recording queue for recordings awaiting streaming
      */
@@ -256,14 +375,93 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
     }
 
 
+    /**
+     * Base streaming connection handler.  Maps connection failures to broadcast states and allows the transport to
+     * reconnect while the broadcaster is streaming and is not in an error state.  Subclasses implement the protocol
+     * handshake and server response processing.
+     */
+    public abstract class ConnectionHandler implements IStreamingConnectionListener
+    {
+        private StringBuilder mLineBuffer = new StringBuilder();
+
+        @Override
+        public void connectionOpened(StreamingConnection connection)
+        {
+            mLineBuffer.setLength(0);
+        }
+
+        @Override
+        public void connectionClosed(StreamingConnection connection, IOException cause)
+        {
+            //Ignore events from a connection that was closed locally
+            if(connection != mStreamingConnection || isErrorState())
+            {
+                return;
+            }
+
+            if(cause instanceof ConnectException)
+            {
+                setBroadcastState(BroadcastState.NO_SERVER);
+            }
+            else if(cause != null && cause.getCause() instanceof UnresolvedAddressException)
+            {
+                setBroadcastState(BroadcastState.NETWORK_UNAVAILABLE);
+            }
+            else
+            {
+                setBroadcastState(BroadcastState.DISCONNECTED);
+            }
+        }
+
+        @Override
+        public boolean isReconnectAllowed()
+        {
+            return mStreaming.get() && !isErrorState();
+        }
+
+        /**
+         * Decodes the received data and extracts any complete, non-empty text lines.  Partial lines are retained until
+         * the line terminator is received.
+         *
+         * @param data received from the server
+         * @return complete lines, with line terminators removed
+         */
+        protected String[] getLines(ByteBuffer data)
+        {
+            mLineBuffer.append(StandardCharsets.UTF_8.decode(data));
+
+            List<String> lines = new ArrayList<>();
+            int index = mLineBuffer.indexOf("\n");
+
+            while(index >= 0)
+            {
+                String line = mLineBuffer.substring(0, index).trim();
+                mLineBuffer.delete(0, index + 1);
+
+                if(!line.isEmpty())
+                {
+                    lines.add(line);
+                }
+
+                index = mLineBuffer.indexOf("\n");
+            }
+
+            return lines.toArray(new String[0]);
+        }
+    }
+
     /**
      * Audio recording queue processor.  Fetches recordings from the queue and chunks the recording byte content
-     * to subclass implementations for broadcast in the appropriate manner.
+     * to subclass implementations for broadcast in the appropriate manner.  Live recordings are streamed from the
+     * in-progress audio segment as the audio is encoded.
      */
     public class RecordingQueueProcessor implements Runnable
     {
         private AtomicBoolean mProcessing = new AtomicBoolean();
         private ByteArrayInputStream mInputStream;
+        private AtomicReference<AudioRecording> mLiveRecording = new AtomicReference<>();
+        private int mLiveRecordingOffset = 0;
+        private boolean mStreamingRecording = false;
         private long mFinalSilencePadding = 0;
         private int mBytesStreamedActual = 0;
         private int mBytesStreamedRequired = 0;
@@ -275,52 +473,147 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
             {
                 try
                 {
-                    if(mInputStream == null || mInputStream.available() <= 0)
+                    //When the connection can't accept more audio, hold the audio until the server catches up
+                    if(canBroadcastAudio())
                     {
-                        if(mFinalSilencePadding > 0)
-                        {
-                            broadcastAudio(mSilenceGenerator.generate(mFinalSilencePadding));
-                            mFinalSilencePadding = 0;
-                        }
-
-                        nextRecording();
+                        processRecordingQueue();
                     }
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error while processing audio streaming queue", t);
+                }
 
-                    if(mInputStream != null)
-                    {
-                        //We need to stream at 13.888 fps (144 byte frame) to achieve 2000 Bps or 16 kbps
-                        mBytesStreamedRequired += 2000;  //2000 bytes per second for 16 kbps data rate
-                        int bytesToStream = mBytesStreamedRequired - mBytesStreamedActual;
+                mProcessing.set(false);
+            }
+        }
+
+        /**
+         * Streams the next interval of audio from the current recording, or silence when there is no recording.
+         */
+        private void processRecordingQueue()
+        {
+            if(!connected())
+            {
+                releaseLiveRecording();
+            }
+
+            if(mLiveRecording.get() == null && (mInputStream == null || mInputStream.available() <= 0))
+            {
+                if(mFinalSilencePadding > 0)
+                {
+                    broadcastAudio(mSilenceGenerator.generate(mFinalSilencePadding));
+                    mFinalSilencePadding = 0;
+                }
 
-                        //Trim length to whole-frame intervals (144 byte frame)
-                        bytesToStream -= (bytesToStream % 144);
+                nextRecording();
+            }
 
-                        int length = FastMath.min(bytesToStream, mInputStream.available());
+            AudioRecording liveRecording = mLiveRecording.get();
 
-                        byte[] audio = new byte[length];
+            if(liveRecording != null)
+            {
+                streamLiveRecording(liveRecording);
+            }
+            else if(mInputStream != null)
+            {
+                //We need to stream at 13.888 fps (144 byte frame) to achieve 2000 Bps or 16 kbps
+                mBytesStreamedRequired += STREAMING_BYTES_PER_SECOND;
+                int bytesToStream = mBytesStreamedRequired - mBytesStreamedActual;
 
-                        try
-                        {
-                            mBytesStreamedActual += mInputStream.read(audio);
+                //Trim length to whole-frame intervals (144 byte frame)
+                bytesToStream -= (bytesToStream % 144);
 
-                            broadcastAudio(audio);
-                        }
-                        catch(IOException ioe)
-                        {
-                            mLog.error("Error reading from in-memory audio recording input stream", ioe);
-                        }
-                    }
-                    else
-                    {
-                        broadcastAudio(mSilenceGenerator.generate(PROCESSOR_RUN_INTERVAL_MS));
-                    }
+                int length = FastMath.min(bytesToStream, mInputStream.available());
+
+                byte[] audio = new byte[length];
+
+                try
+                {
+                    mBytesStreamedActual += mInputStream.read(audio);
+
+                    broadcastAudio(audio);
                 }
-                catch(Throwable t)
+                catch(IOException ioe)
                 {
-                    mLog.error("Error while processing audio streaming queue", t);
+                    mLog.error("Error reading from in-memory audio recording input stream", ioe);
                 }
+            }
+            else
+            {
+                broadcastAudio(mSilenceGenerator.generate(PROCESSOR_RUN_INTERVAL_MS));
+            }
+        }
 
-                mProcessing.set(false);
+        /**
+         * Streams the next interval of audio that is currently encoded for the live recording.  When the encoder hasn't
+         * caught up with the call audio, the remainder of the interval is streamed as silence to maintain the
+         * streaming rate.  The live recording is finished once it is complete and all of its audio is streamed.
+         *
+         * @param liveRecording to stream
+         */
+        private void streamLiveRecording(AudioRecording liveRecording)
+        {
+            mBytesStreamedRequired += STREAMING_BYTES_PER_SECOND;
+            int bytesToStream = mBytesStreamedRequired - mBytesStreamedActual;
+
+            //Trim length to whole-frame intervals (144 byte frame)
+            bytesToStream -= (bytesToStream % 144);
+
+            //Check for completion before fetching the audio so that the final audio length is settled
+            boolean complete = liveRecording.isComplete();
+            byte[] audio = liveRecording.getMP3Audio(mLiveRecordingOffset, bytesToStream);
+
+            if(audio.length > 0)
+            {
+                mLiveRecordingOffset += audio.length;
+                mBytesStreamedActual += audio.length;
+                broadcastAudio(audio);
+            }
+
+            if(complete && mLiveRecordingOffset >= liveRecording.getMP3AudioLength())
+            {
+                setFinalSilencePadding(liveRecording.getRecordingLength());
+                releaseLiveRecording();
+            }
+            else if(!complete && audio.length < bytesToStream)
+            {
+                long silence = (bytesToStream - audio.length) * 1000L / STREAMING_BYTES_PER_SECOND;
+
+                if(silence > 0)
+                {
+                    broadcastAudio(mSilenceGenerator.generate(silence));
+                }
+
+                //Don't carry the shortfall forward, otherwise the encoded audio would be burst to the server later
+                mBytesStreamedRequired = mBytesStreamedActual;
+            }
+        }
+
+        /**
+         * Releases the live recording that is currently streaming, if any, so that it can be deleted.
+         */
+        private void releaseLiveRecording()
+        {
+            AudioRecording liveRecording = mLiveRecording.getAndSet(null);
+
+            if(liveRecording != null)
+            {
+                liveRecording.removePendingReplay();
+            }
+        }
+
+        /**
+         * Sets the silence padding that follows the recording to fill out the final processing interval.
+         * @param recordingLength in milliseconds
+         */
+        private void setFinalSilencePadding(long recordingLength)
+        {
+            mFinalSilencePadding = PROCESSOR_RUN_INTERVAL_MS - (recordingLength % PROCESSOR_RUN_INTERVAL_MS);
+
+            while(mFinalSilencePadding >= PROCESSOR_RUN_INTERVAL_MS)
+            {
+                mFinalSilencePadding -= PROCESSOR_RUN_INTERVAL_MS;
             }
         }
 
@@ -334,8 +627,9 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
 
             boolean metadataUpdateRequired = false;
 
-            if(mInputStream != null)
+            if(mStreamingRecording)
             {
+                mStreamingRecording = false;
                 mStreamedAudioCount++;
                 broadcast(new BroadcastEvent(AudioStreamingBroadcaster.this,
                     BroadcastEvent.Event.BROADCASTER_STREAMED_COUNT_CHANGE));
@@ -364,6 +658,24 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
             {
                 nextRecording = mAudioRecordingQueue.remove();
 
+                if(nextRecording.isLive())
+                {
+                    //The pending replay is released once the live recording is streamed
+                    mLiveRecordingOffset = 0;
+                    mLiveRecording.set(nextRecording);
+                    mStreamingRecording = true;
+
+                    if(connected())
+                    {
+                        broadcastMetadata(nextRecording.getIdentifierCollection());
+                    }
+
+                    metadataUpdateRequired = false;
+                    broadcast(new BroadcastEvent(AudioStreamingBroadcaster.this,
+                        BroadcastEvent.Event.BROADCASTER_QUEUE_CHANGE));
+                    return;
+                }
+
                 try
                 {
                     if(Files.exists(nextRecording.getPath()))
@@ -373,14 +685,8 @@ public abstract class AudioStreamingBroadcaster<T extends BroadcastConfiguration
                         if(audio != null && audio.length > 0)
                         {
                             mInputStream = new ByteArrayInputStream(audio);
-
-                            mFinalSilencePadding = PROCESSOR_RUN_INTERVAL_MS -
-                                (nextRecording.getRecordingLength() % PROCESSOR_RUN_INTERVAL_MS);
-
-                            while(mFinalSilencePadding >= PROCESSOR_RUN_INTERVAL_MS)
-                            {
-                                mFinalSilencePadding -= PROCESSOR_RUN_INTERVAL_MS;
-                            }
+                            mStreamingRecording = true;
+                            setFinalSilencePadding(nextRecording.getRecordingLength());
 
                             if(connected())
                             {
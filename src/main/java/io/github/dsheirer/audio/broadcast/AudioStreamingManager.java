@@ -33,8 +33,10 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -42,12 +44,17 @@ import java.util.concurrent.TimeUnit;
 /**
  * Audio streaming manager monitors audio segments through completion and creates temporary streaming recordings on
  * disk and enqueues the temporary recording for streaming.
+ *
+ * In-progress audio segments that have broadcast channels are MP3 encoded on this manager's processing thread and are
+ * nominated as live recordings, so that streaming broadcasters can stream the encoded frames while the call is in
+ * progress.  The live recording is completed with the temporary recording once the audio segment is complete.
  */
 public class AudioStreamingManager implements Listener<AudioSegment>
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioStreamingManager.class);
     private LinkedTransferQueue<AudioSegment> mNewAudioSegments = new LinkedTransferQueue<>();
     private List<AudioSegment> mAudioSegments = new ArrayList<>();
+    private Map<AudioSegment,AudioRecording> mLiveRecordings = new HashMap<>();
     private Listener<AudioRecording> mAudioRecordingListener;
     private BroadcastFormat mBroadcastFormat;
     private UserPreferences mUserPreferences;
@@ -108,12 +115,33 @@ public class AudioStreamingManager implements Listener<AudioSegment>
 
         for(AudioSegment audioSegment: mAudioSegments)
         {
+            completeLiveRecording(audioSegment, null);
             audioSegment.decrementConsumerCount();
         }
 
         mAudioSegments.clear();
     }
 
+    /**
+     * Completes the live recording for the audio segment, if there is one.
+     * @param audioSegment for the live recording
+     * @param path to the temporary recording, or null when the live recording is cut short
+     * @return completed live recording or null if the audio segment didn't have a live recording
+     */
+    private AudioRecording completeLiveRecording(AudioSegment audioSegment, Path path)
+    {
+        AudioRecording liveRecording = mLiveRecordings.remove(audioSegment);
+
+        if(liveRecording != null)
+        {
+            liveRecording.complete(path, audioSegment.getBroadcastChannels(),
+                new IdentifierCollection(audioSegment.getIdentifierCollection().getIdentifiers()),
+                audioSegment.getDuration());
+        }
+
+        return liveRecording;
+    }
+
     /**
      * Main processing method to process audio segments
      */
@@ -130,6 +158,7 @@ public class AudioStreamingManager implements Listener<AudioSegment>
             if(audioSegment.isDuplicate() && mUserPreferences.getDuplicateCallDetectionPreference().isDuplicateStreamingSuppressionEnabled())
             {
                 it.remove();
+                completeLiveRecording(audioSegment, null);
                 audioSegment.decrementConsumerCount();
             }
             else if(audioSegment.completeProperty().get())
@@ -151,21 +180,47 @@ public class AudioStreamingManager implements Listener<AudioSegment>
                     try
                     {
                         AudioSegmentRecorder.record(audioSegment, path, RecordFormat.MP3);
-                        IdentifierCollection identifierCollectionCopy =
-                            new IdentifierCollection(audioSegment.getIdentifierCollection().getIdentifiers());
 
-                        AudioRecording audioRecording = new AudioRecording(path, audioSegment.getBroadcastChannels(),
-                            identifierCollectionCopy, audioSegment.getStartTimestamp(), length);
+                        AudioRecording audioRecording = completeLiveRecording(audioSegment, path);
+
+                        if(audioRecording == null)
+                        {
+                            IdentifierCollection identifierCollectionCopy =
+                                new IdentifierCollection(audioSegment.getIdentifierCollection().getIdentifiers());
+                            audioRecording = new AudioRecording(path, audioSegment.getBroadcastChannels(),
+                                identifierCollectionCopy, audioSegment.getStartTimestamp(), length);
+                        }
+
                         mAudioRecordingListener.receive(audioRecording);
                     }
                     catch(IOException ioe)
                     {
                         mLog.error("Error recording temporary stream MP3");
+                        completeLiveRecording(audioSegment, null);
                     }
                 }
+                else
+                {
+                    completeLiveRecording(audioSegment, null);
+                }
 
                 audioSegment.decrementConsumerCount();
             }
+            else if(audioSegment.hasBroadcastChannels())
+            {
+                //Encode the in-progress call on this thread as audio arrives so that the encoded frames can be
+                //streamed while the call is in progress and the stream recording is ready once it completes
+                audioSegment.startMP3Encoding();
+                audioSegment.encodeMP3();
+
+                if(mAudioRecordingListener != null && !mLiveRecordings.containsKey(audioSegment))
+                {
+                    AudioRecording liveRecording = new AudioRecording(audioSegment);
+                    audioSegment.incrementConsumerCount();
+                    mLiveRecordings.put(audioSegment, liveRecording);
+                    mAudioRecordingListener.receive(liveRecording);
+                }
+            }
         }
     }
 
@@ -307,10 +307,21 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
         return null;
     }
 
+    /**
+     * Receives audio recordings and distributes them to the broadcasters for each of the recording's broadcast
+     * channels.  A live recording is received once when it is started and is distributed to the broadcasters that
+     * support live recordings.  It is received again once it is complete and is then distributed to the remaining
+     * broadcasters.
+     */
     @Override
     public void receive(AudioRecording audioRecording)
     {
-        if(audioRecording != null && !audioRecording.getBroadcastChannels().isEmpty())
+        if(audioRecording == null)
+        {
+            return;
+        }
+
+        if(!audioRecording.getBroadcastChannels().isEmpty())
         {
             for(BroadcastChannel broadcastChannel : audioRecording.getBroadcastChannels())
             {
@@ -320,7 +331,9 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
                 {
                     AbstractAudioBroadcaster audioBroadcaster = getBroadcaster(channelName);
 
-                    if(audioBroadcaster != null)
+                    if(audioBroadcaster != null &&
+                        (audioRecording.isComplete() || audioBroadcaster.isLiveRecordingSupported()) &&
+                        audioRecording.addBroadcaster(audioBroadcaster))
                     {
                         audioRecording.addPendingReplay();
                         audioBroadcaster.receive(audioRecording);
@@ -329,7 +342,11 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
             }
         }
 
-        mRecordingQueue.add(audioRecording);
+        //A completed live recording is already queued from when it was started
+        if(!audioRecording.isLive() || !audioRecording.isComplete())
+        {
+            mRecordingQueue.add(audioRecording);
+        }
     }
 
     /**
@@ -679,6 +696,13 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
      */
     private void removeRecording(AudioRecording recording)
     {
+        recording.dispose();
+
+        if(recording.getPath() == null)
+        {
+            return;
+        }
+
         try
         {
             Files.delete(recording.getPath());
@@ -766,7 +790,8 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
     }
 
     /**
-     * Monitors the recording queue and removes any recordings that have no pending replays by audio broadcasters
+     * Monitors the recording queue and removes any completed recordings that have no pending replays by audio
+     * broadcasters
      */
     public class RecordingDeletionMonitor implements Runnable
     {
@@ -785,7 +810,7 @@ public class BroadcastModel extends AbstractTableModel implements Listener<Audio
                 {
                     recording = it.next();
 
-                    if(!recording.hasPendingReplays())
+                    if(recording.isComplete() && !recording.hasPendingReplays())
                     {
                         recordingsToDelete.add(recording);
                     }
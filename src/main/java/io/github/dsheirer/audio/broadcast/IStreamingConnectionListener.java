@@ -0,0 +1,54 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Listener for streaming connection events.  All methods are invoked on the streaming transport selector thread
+ * and implementations must not block.
+ */
+public interface IStreamingConnectionListener
+{
+    /**
+     * Invoked once the socket connection is established so that the listener can send the protocol handshake.
+     * @param connection that opened
+     */
+    void connectionOpened(StreamingConnection connection);
+
+    /**
+     * Invoked with bytes received from the remote server.  The buffer is only valid for the duration of the call.
+     * @param connection that received the data
+     * @param data received
+     */
+    void dataReceived(StreamingConnection connection, ByteBuffer data);
+
+    /**
+     * Invoked when the connection closes or a connection attempt fails.
+     * @param connection that closed
+     * @param cause of the closure or null if the connection was closed locally
+     */
+    void connectionClosed(StreamingConnection connection, IOException cause);
+
+    /**
+     * Indicates if the transport should reconnect after the connection closes or a connection attempt fails.
+     */
+    boolean isReconnectAllowed();
+}
@@ -0,0 +1,593 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking socket connection to a remote streaming server.  All connections are multiplexed on the single
+ * StreamingTransport selector thread.  Host names are resolved on a separate resolver thread so that a slow DNS
+ * lookup doesn't stall the other connections.
+ *
+ * Protocol (control) messages are sent as soon as the socket can accept them.  Audio is queued in a bounded send
+ * buffer and written at a paced byte rate so that a backlog is not dumped onto the server in one burst.  When the
+ * audio send buffer is full, sendAudio() rejects the audio so that the producer can hold off (back-pressure).  A
+ * connection that doesn't accept any bytes for the write stall timeout period is closed.
+ *
+ * Connection failures and remote closures are reported to the listener and the transport reconnects after the
+ * reconnect interval when the listener allows it.  A connection that is closed locally via close() is not
+ * reconnected.
+ */
+public class StreamingConnection
+{
+    private final static Logger mLog = LoggerFactory.getLogger(StreamingConnection.class);
+    public static final long CONNECT_TIMEOUT_MS = 5000;
+    public static final long WRITE_STALL_TIMEOUT_MS = 20000;
+
+    /**
+     * Connection states.  The state is only changed by the transport selector thread.
+     */
+    public enum State {IDLE, CONNECTING, OPEN, RECONNECT_WAIT, CLOSED}
+
+    private String mName;
+    private String mHost;
+    private int mPort;
+    private IStreamingConnectionListener mListener;
+    private int mBytesPerSecond;
+    private int mAudioBufferCapacity;
+    private long mReconnectInterval;
+    private Queue<ByteBuffer> mControlQueue = new ConcurrentLinkedQueue<>();
+    private Queue<ByteBuffer> mAudioQueue = new ConcurrentLinkedQueue<>();
+    private AtomicInteger mQueuedAudioBytes = new AtomicInteger();
+    private volatile State mState = State.IDLE;
+    private AtomicBoolean mResolving = new AtomicBoolean();
+
+    //Selector thread state
+    private SocketChannel mChannel;
+    private SelectionKey mSelectionKey;
+    private ByteBuffer mPendingWrite;
+    private boolean mPendingWriteIsAudio;
+    private double mAllowance;
+    private long mLastRefill;
+    private long mConnectStart;
+    private long mWriteBlockedSince;
+    private long mReconnectTime;
+
+    /**
+     * Constructs an instance.  Use open() to connect.
+     *
+     * @param name of the stream for logging
+     * @param host of the remote server
+     * @param port of the remote server
+     * @param bytesPerSecond pacing rate for audio writes
+     * @param audioBufferCapacity maximum number of queued audio bytes
+     * @param reconnectInterval delay in milliseconds before reconnecting after a failure or remote closure
+     * @param listener to receive connection events
+     */
+    public StreamingConnection(String name, String host, int port, int bytesPerSecond, int audioBufferCapacity,
+                               long reconnectInterval, IStreamingConnectionListener listener)
+    {
+        mName = name;
+        mHost = host;
+        mPort = port;
+        mBytesPerSecond = bytesPerSecond;
+        mAudioBufferCapacity = audioBufferCapacity;
+        mReconnectInterval = reconnectInterval;
+        mListener = listener;
+    }
+
+    /**
+     * Stream name
+     */
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * Current connection state
+     */
+    public State getState()
+    {
+        return mState;
+    }
+
+    /**
+     * Indicates if the socket is connected
+     */
+    public boolean isOpen()
+    {
+        return mState == State.OPEN;
+    }
+
+    /**
+     * Registers this connection with the shared transport and starts connecting
+     */
+    public void open()
+    {
+        StreamingTransport.getInstance().open(this);
+    }
+
+    /**
+     * Closes this connection.  The connection will not be reconnected.
+     */
+    public void close()
+    {
+        StreamingTransport.getInstance().close(this);
+    }
+
+    /**
+     * Closes the socket and reconnects after the reconnect interval, when the listener allows it.
+     */
+    public void reset()
+    {
+        StreamingTransport.getInstance().reset(this);
+    }
+
+    /**
+     * Queues a protocol message for sending ahead of any queued audio.
+     * @param data to send
+     * @return true if the message was queued or false if the connection is not open
+     */
+    public boolean send(byte[] data)
+    {
+        if(isOpen() && data != null && data.length > 0)
+        {
+            mControlQueue.add(ByteBuffer.wrap(data));
+            StreamingTransport.getInstance().wakeup();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Queues audio for paced sending.  Each audio buffer is sent in its entirety before any subsequent message.
+     * @param audio to send
+     * @return true if the audio was queued or false if the connection is not open or the audio send buffer doesn't
+     * have enough remaining capacity.
+     */
+    public boolean sendAudio(byte[] audio)
+    {
+        if(isOpen() && audio != null && audio.length > 0 && hasAudioCapacity(audio.length))
+        {
+            mQueuedAudioBytes.addAndGet(audio.length);
+            mAudioQueue.add(ByteBuffer.wrap(audio));
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Indicates if the audio send buffer has capacity for the number of bytes
+     */
+    public boolean hasAudioCapacity(int length)
+    {
+        return mQueuedAudioBytes.get() + length <= mAudioBufferCapacity;
+    }
+
+    /**
+     * Number of audio bytes queued for sending
+     */
+    public int getQueuedAudioBytes()
+    {
+        return mQueuedAudioBytes.get();
+    }
+
+    /**
+     * Starts a non-blocking connection attempt.  The host address is resolved on a resolver thread and the socket
+     * connection is started once the address is resolved.  The connect timeout includes the address resolution.
+     * Invoked on the transport thread.
+     */
+    void connect(Selector selector, long now)
+    {
+        mState = State.CONNECTING;
+        mConnectStart = now;
+        StreamingTransport.getInstance().resolve(this, mHost, mPort);
+    }
+
+    /**
+     * Claims the host address lookup for this connection.  Only one lookup runs at a time for a connection, so a
+     * host whose lookup hangs can only tie up one resolver thread.  A connection attempt that starts while a lookup
+     * is still running uses the result of that lookup.
+     * @return true if the caller should run the lookup, or false if a lookup is already running
+     */
+    boolean startResolving()
+    {
+        return mResolving.compareAndSet(false, true);
+    }
+
+    /**
+     * Releases the host address lookup claimed via startResolving()
+     */
+    void resolvingFinished()
+    {
+        mResolving.set(false);
+    }
+
+    /**
+     * Indicates if a connection attempt is waiting for the host address
+     */
+    boolean isConnecting()
+    {
+        return mState == State.CONNECTING;
+    }
+
+    /**
+     * Starts the non-blocking socket connection once the host address is resolved.  Invoked on the transport thread.
+     * @param selector for the transport
+     * @param address of the remote server, which is unresolved if the host lookup failed
+     * @param now current timestamp
+     */
+    void resolved(Selector selector, InetSocketAddress address, long now)
+    {
+        //Ignore a late resolution when the connection has since timed out, been reset or closed, or already has a
+        //socket from an earlier resolution
+        if(mState != State.CONNECTING || mChannel != null)
+        {
+            return;
+        }
+
+        try
+        {
+            mChannel = SocketChannel.open();
+            mChannel.configureBlocking(false);
+            mChannel.socket().setTcpNoDelay(true);
+
+            if(mChannel.connect(address))
+            {
+                mSelectionKey = mChannel.register(selector, SelectionKey.OP_READ, this);
+                opened(now);
+            }
+            else
+            {
+                mSelectionKey = mChannel.register(selector, SelectionKey.OP_CONNECT, this);
+            }
+        }
+        catch(UnresolvedAddressException uae)
+        {
+            closed(new IOException("Unresolved address [" + mHost + "]", uae), now);
+        }
+        catch(IOException ioe)
+        {
+            closed(ioe, now);
+        }
+    }
+
+    /**
+     * Completes a pending connection.  Invoked on the transport thread.
+     */
+    void finishConnect(long now)
+    {
+        try
+        {
+            if(mChannel.finishConnect())
+            {
+                mSelectionKey.interestOps(SelectionKey.OP_READ);
+                opened(now);
+            }
+        }
+        catch(IOException ioe)
+        {
+            closed(ioe, now);
+        }
+    }
+
+    /**
+     * Socket connection established
+     */
+    private void opened(long now)
+    {
+        mPendingWrite = null;
+        mControlQueue.clear();
+        mAudioQueue.clear();
+        mQueuedAudioBytes.set(0);
+        mState = State.OPEN;
+        mLastRefill = now;
+        mAllowance = mBytesPerSecond;
+        mWriteBlockedSince = 0;
+
+        try
+        {
+            mListener.connectionOpened(this);
+        }
+        catch(Throwable t)
+        {
+            mLog.error("[" + mName + "] error processing streaming connection opened", t);
+        }
+    }
+
+    /**
+     * Reads available bytes from the socket.  Invoked on the transport thread.
+     * @param buffer to use for reading
+     */
+    void read(ByteBuffer buffer, long now)
+    {
+        try
+        {
+            buffer.clear();
+            int read = mChannel.read(buffer);
+
+            if(read < 0)
+            {
+                closed(new EOFException("Connection closed by remote server"), now);
+            }
+            else if(read > 0)
+            {
+                buffer.flip();
+                mListener.dataReceived(this, buffer);
+            }
+        }
+        catch(IOException ioe)
+        {
+            closed(ioe, now);
+        }
+        catch(Throwable t)
+        {
+            mLog.error("[" + mName + "] error processing data received from streaming server", t);
+        }
+    }
+
+    /**
+     * Writes queued control messages and paced audio to the socket.  Invoked on the transport thread.
+     */
+    void write(long now)
+    {
+        if(mState != State.OPEN)
+        {
+            return;
+        }
+
+        //Refill the audio pacing allowance, capped at one second of audio
+        mAllowance = Math.min(mBytesPerSecond, mAllowance + (mBytesPerSecond * (now - mLastRefill) / 1000.0));
+        mLastRefill = now;
+
+        try
+        {
+            boolean blocked = false;
+
+            while(!blocked)
+            {
+                if(mPendingWrite == null)
+                {
+                    mPendingWrite = mControlQueue.poll();
+                    mPendingWriteIsAudio = false;
+
+                    if(mPendingWrite == null)
+                    {
+                        mPendingWrite = mAudioQueue.poll();
+                        mPendingWriteIsAudio = true;
+                    }
+
+                    if(mPendingWrite == null)
+                    {
+                        break;
+                    }
+                }
+
+                int allowed = mPendingWrite.remaining();
+
+                if(mPendingWriteIsAudio)
+                {
+                    allowed = (int)Math.min(allowed, mAllowance);
+
+                    if(allowed <= 0)
+                    {
+                        break;
+                    }
+                }
+
+                int limit = mPendingWrite.limit();
+                mPendingWrite.limit(mPendingWrite.position() + allowed);
+                int written = mChannel.write(mPendingWrite);
+                mPendingWrite.limit(limit);
+
+                if(mPendingWriteIsAudio)
+                {
+                    mAllowance -= written;
+                    mQueuedAudioBytes.addAndGet(-written);
+                }
+
+                if(written > 0)
+                {
+                    mWriteBlockedSince = 0;
+                }
+
+                if(written < allowed)
+                {
+                    //Socket send buffer is full
+                    blocked = true;
+                }
+                else if(!mPendingWrite.hasRemaining())
+                {
+                    mPendingWrite = null;
+                }
+                else
+                {
+                    //Pacing allowance exhausted
+                    break;
+                }
+            }
+
+            if(blocked)
+            {
+                if(mWriteBlockedSince == 0)
+                {
+                    mWriteBlockedSince = now;
+                }
+                else if(now - mWriteBlockedSince > WRITE_STALL_TIMEOUT_MS)
+                {
+                    closed(new SocketTimeoutException("Streaming server stopped accepting audio"), now);
+                    return;
+                }
+
+                mSelectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+            else
+            {
+                mSelectionKey.interestOps(SelectionKey.OP_READ);
+            }
+        }
+        catch(IOException ioe)
+        {
+            closed(ioe, now);
+        }
+    }
+
+    /**
+     * Periodic timeout and reconnect processing.  Invoked on the transport thread.
+     * @return true if the connection should be removed from the transport
+     */
+    boolean service(Selector selector, long now)
+    {
+        switch(mState)
+        {
+            case CONNECTING:
+                if(now - mConnectStart > CONNECT_TIMEOUT_MS)
+                {
+                    closed(new SocketTimeoutException("Connection attempt timed out"), now);
+                }
+                break;
+            case OPEN:
+                write(now);
+                break;
+            case RECONNECT_WAIT:
+                if(now >= mReconnectTime)
+                {
+                    if(mListener.isReconnectAllowed())
+                    {
+                        connect(selector, now);
+                    }
+                    else
+                    {
+                        mState = State.CLOSED;
+                    }
+                }
+                break;
+        }
+
+        return mState == State.CLOSED;
+    }
+
+    /**
+     * Closes an open or connecting socket following a local reset request.  Invoked on the transport thread.
+     */
+    void reset(long now)
+    {
+        if(mState == State.OPEN || mState == State.CONNECTING)
+        {
+            closed(new IOException("Connection reset"), now);
+        }
+    }
+
+    /**
+     * Closes the socket following a local close request.  Invoked on the transport thread.
+     */
+    void closeLocal()
+    {
+        mState = State.CLOSED;
+        release();
+
+        try
+        {
+            mListener.connectionClosed(this, null);
+        }
+        catch(Throwable t)
+        {
+            mLog.error("[" + mName + "] error processing streaming connection closed", t);
+        }
+    }
+
+    /**
+     * Closes the socket following a failure or remote closure and schedules a reconnect when allowed.
+     */
+    private void closed(IOException cause, long now)
+    {
+        mState = State.RECONNECT_WAIT;
+        release();
+        mReconnectTime = now + mReconnectInterval;
+
+        try
+        {
+            mListener.connectionClosed(this, cause);
+        }
+        catch(Throwable t)
+        {
+            mLog.error("[" + mName + "] error processing streaming connection closed", t);
+        }
+
+        if(!mListener.isReconnectAllowed())
+        {
+            mState = State.CLOSED;
+        }
+    }
+
+    /**
+     * Releases the socket and discards any queued messages and audio
+     */
+    private void release()
+    {
+        if(mSelectionKey != null)
+        {
+            mSelectionKey.cancel();
+            mSelectionKey = null;
+        }
+
+        if(mChannel != null)
+        {
+            try
+            {
+                mChannel.close();
+            }
+            catch(IOException ioe)
+            {
+                //Ignore
+            }
+
+            mChannel = null;
+        }
+
+        mPendingWrite = null;
+        mControlQueue.clear();
+        mAudioQueue.clear();
+        mQueuedAudioBytes.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return mName + " [" + mHost + ":" + mPort + "] " + mState;
+    }
+}
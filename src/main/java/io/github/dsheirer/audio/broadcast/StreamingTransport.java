@@ -0,0 +1,293 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.broadcast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared non-blocking transport for all audio streaming broadcaster connections.  A single selector thread
+ * multiplexes every streaming connection, performs paced audio writes and handles connection timeouts and
+ * reconnects, so that a stalled or unreachable streaming server can't tie up threads in the shared thread pool.
+ */
+public class StreamingTransport implements Runnable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(StreamingTransport.class);
+    private static final long SERVICE_INTERVAL_MS = 50;
+    private static final int RESOLVER_THREAD_COUNT = 2;
+    private static StreamingTransport sInstance;
+
+    private Selector mSelector;
+    private Queue<Runnable> mTasks = new ConcurrentLinkedQueue<>();
+    private List<StreamingConnection> mConnections = new ArrayList<>();
+    private ByteBuffer mReadBuffer = ByteBuffer.allocate(8192);
+    private ExecutorService mResolver = Executors.newFixedThreadPool(RESOLVER_THREAD_COUNT, runnable ->
+    {
+        Thread thread = new Thread(runnable);
+        thread.setName("sdrtrunk streaming resolver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs an instance and starts the selector thread
+     */
+    private StreamingTransport() throws IOException
+    {
+        mSelector = Selector.open();
+        Thread thread = new Thread(this);
+        thread.setName("sdrtrunk streaming transport");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Shared transport instance
+     */
+    public static synchronized StreamingTransport getInstance()
+    {
+        if(sInstance == null)
+        {
+            try
+            {
+                sInstance = new StreamingTransport();
+            }
+            catch(IOException ioe)
+            {
+                throw new IllegalStateException("Unable to open streaming transport selector", ioe);
+            }
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Registers the connection and starts connecting
+     */
+    void open(StreamingConnection connection)
+    {
+        execute(() ->
+        {
+            if(connection.getState() == StreamingConnection.State.IDLE ||
+                connection.getState() == StreamingConnection.State.CLOSED)
+            {
+                if(!mConnections.contains(connection))
+                {
+                    mConnections.add(connection);
+                }
+
+                connection.connect(mSelector, System.currentTimeMillis());
+            }
+        });
+    }
+
+    /**
+     * Closes and removes the connection
+     */
+    void close(StreamingConnection connection)
+    {
+        execute(() ->
+        {
+            if(mConnections.remove(connection))
+            {
+                connection.closeLocal();
+            }
+        });
+    }
+
+    /**
+     * Closes the connection and schedules a reconnect
+     */
+    void reset(StreamingConnection connection)
+    {
+        execute(() ->
+        {
+            if(mConnections.contains(connection))
+            {
+                connection.reset(System.currentTimeMillis());
+            }
+        });
+    }
+
+    /**
+     * Resolves the host address on one of the resolver threads, so that a slow DNS lookup doesn't stall the selector
+     * thread, and then completes the connection attempt on the selector thread.
+     *
+     * Each connection has at most one lookup queued or running.  A lookup that reaches a resolver thread after its
+     * connection stopped connecting (timed out, reset or closed) is dropped without resolving the host.
+     *
+     * @param connection that is connecting
+     * @param host to resolve
+     * @param port of the remote server
+     */
+    void resolve(StreamingConnection connection, String host, int port)
+    {
+        if(!connection.startResolving())
+        {
+            return;
+        }
+
+        mResolver.execute(() ->
+        {
+            InetSocketAddress address = null;
+
+            try
+            {
+                if(connection.isConnecting())
+                {
+                    address = new InetSocketAddress(host, port);
+                }
+            }
+            finally
+            {
+                connection.resolvingFinished();
+            }
+
+            if(address != null)
+            {
+                InetSocketAddress resolved = address;
+                execute(() -> connection.resolved(mSelector, resolved, System.currentTimeMillis()));
+            }
+        });
+    }
+
+    /**
+     * Wakes the selector thread so that newly queued messages are sent without waiting for the next service interval
+     */
+    void wakeup()
+    {
+        mSelector.wakeup();
+    }
+
+    /**
+     * Executes the task on the selector thread
+     */
+    private void execute(Runnable task)
+    {
+        mTasks.add(task);
+        mSelector.wakeup();
+    }
+
+    @Override
+    public void run()
+    {
+        long lastService = 0;
+
+        while(true)
+        {
+            try
+            {
+                if(mConnections.isEmpty() && mTasks.isEmpty())
+                {
+                    mSelector.select();
+                }
+                else
+                {
+                    mSelector.select(SERVICE_INTERVAL_MS);
+                }
+
+                long now = System.currentTimeMillis();
+
+                Runnable task = mTasks.poll();
+
+                while(task != null)
+                {
+                    task.run();
+                    task = mTasks.poll();
+                }
+
+                Iterator<SelectionKey> it = mSelector.selectedKeys().iterator();
+
+                while(it.hasNext())
+                {
+                    SelectionKey key = it.next();
+                    it.remove();
+
+                    if(!key.isValid())
+                    {
+                        continue;
+                    }
+
+                    StreamingConnection connection = (StreamingConnection)key.attachment();
+
+                    if(key.isConnectable())
+                    {
+                        connection.finishConnect(now);
+                    }
+                    else
+                    {
+                        if(key.isReadable())
+                        {
+                            connection.read(mReadBuffer, now);
+                        }
+
+                        if(key.isValid() && key.isWritable())
+                        {
+                            connection.write(now);
+                        }
+                    }
+                }
+
+                //Write newly queued protocol messages immediately and service pacing, timeouts and reconnects
+                boolean service = now - lastService >= SERVICE_INTERVAL_MS;
+
+                if(service)
+                {
+                    lastService = now;
+                }
+
+                Iterator<StreamingConnection> connections = mConnections.iterator();
+
+                while(connections.hasNext())
+                {
+                    StreamingConnection connection = connections.next();
+
+                    if(service)
+                    {
+                        if(connection.service(mSelector, now))
+                        {
+                            connections.remove();
+                        }
+                    }
+                    else
+                    {
+                        connection.write(now);
+                    }
+                }
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error in streaming transport selector loop", t);
+            }
+        }
+    }
+}
@@ -30,11 +30,13 @@ import io.github.dsheirer.identifier.Form;
 import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.IdentifierClass;
 import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.identifier.configuration.ChannelNameConfigurationIdentifier;
 import io.github.dsheirer.identifier.configuration.ConfigurationLongIdentifier;
 import io.github.dsheirer.identifier.patch.PatchGroup;
 import io.github.dsheirer.identifier.patch.PatchGroupIdentifier;
 import io.github.dsheirer.identifier.radio.RadioIdentifier;
 import io.github.dsheirer.identifier.talkgroup.TalkgroupIdentifier;
+import io.github.dsheirer.log.jfr.BroadcastUploadEvent;
 import io.github.dsheirer.util.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -227,6 +229,10 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
                     .addPart(FormField.FREQUENCY, frequency)
                     .addPart(FormField.ENCODING, ENCODING_TYPE_MP3);
 
+                //Upload spans the URL request and the file transfer and completes on the http client thread
+                final BroadcastUploadEvent uploadEvent = new BroadcastUploadEvent();
+                uploadEvent.begin();
+
                 try
                 {
                     HttpRequest request = HttpRequest.newBuilder()
@@ -301,12 +307,14 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
                                                     incrementErrorAudioCount();
                                                     broadcast(new BroadcastEvent(BroadcastifyCallBroadcaster.this,
                                                         BroadcastEvent.Event.BROADCASTER_ERROR_COUNT_CHANGE));
+                                                    commit(uploadEvent, audioRecording, false);
                                                 }
                                                 else
                                                 {
                                                     incrementStreamedAudioCount();
                                                     broadcast(new BroadcastEvent(BroadcastifyCallBroadcaster.this,
                                                         BroadcastEvent.Event.BROADCASTER_STREAMED_COUNT_CHANGE));
+                                                    commit(uploadEvent, audioRecording, true);
                                                 }
 
                                                 audioRecording.removePendingReplay();
@@ -373,6 +381,40 @@ public class BroadcastifyCallBroadcaster extends AbstractAudioBroadcaster<Broadc
         }
     }
 
+    /**
+     * Records a flight recorder event for a completed audio recording upload when the event type is enabled.
+     * @param event that was started when the upload began
+     * @param audioRecording that was uploaded
+     * @param success of the upload
+     */
+    private void commit(BroadcastUploadEvent event, AudioRecording audioRecording, boolean success)
+    {
+        if(event.shouldCommit())
+        {
+            event.broadcaster = getBroadcastConfiguration().getName();
+
+            Identifier channel = audioRecording.getIdentifierCollection().getIdentifier(IdentifierClass.CONFIGURATION,
+                Form.CHANNEL, Role.ANY);
+
+            if(channel instanceof ChannelNameConfigurationIdentifier)
+            {
+                event.channel = ((ChannelNameConfigurationIdentifier)channel).getValue();
+            }
+
+            Identifier frequency = audioRecording.getIdentifierCollection()
+                .getIdentifier(IdentifierClass.CONFIGURATION, Form.CHANNEL_FREQUENCY, Role.ANY);
+
+            if(frequency instanceof ConfigurationLongIdentifier && ((ConfigurationLongIdentifier)frequency).getValue() != null)
+            {
+                event.frequency = ((ConfigurationLongIdentifier)frequency).getValue();
+            }
+
+            event.bytes = audioRecording.getPath().toFile().length();
+            event.success = success;
+            event.commit();
+        }
+    }
+
     /**
      * Creates a frequency value from the audio recording identifier collection.
      */
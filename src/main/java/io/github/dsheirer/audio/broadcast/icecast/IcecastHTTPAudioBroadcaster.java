@@ -23,52 +23,34 @@ package io.github.dsheirer.audio.broadcast.icecast;
 
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.audio.broadcast.BroadcastState;
+import io.github.dsheirer.audio.broadcast.StreamingConnection;
 import io.github.dsheirer.audio.convert.MP3AudioConverter;
 import io.github.dsheirer.properties.SystemProperties;
-import io.github.dsheirer.util.ThreadPool;
-import org.apache.mina.core.RuntimeIoException;
-import org.apache.mina.core.buffer.IoBuffer;
-import org.apache.mina.core.future.ConnectFuture;
-import org.apache.mina.core.service.IoHandlerAdapter;
-import org.apache.mina.core.session.IoSession;
-import org.apache.mina.filter.codec.ProtocolDecoderException;
-import org.apache.mina.http.HttpClientCodec;
-import org.apache.mina.http.HttpRequestImpl;
-import org.apache.mina.http.api.DefaultHttpResponse;
-import org.apache.mina.http.api.HttpMethod;
-import org.apache.mina.http.api.HttpVersion;
-import org.apache.mina.transport.socket.nio.NioSocketConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.ConnectException;
-import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 public class IcecastHTTPAudioBroadcaster extends IcecastAudioBroadcaster
 {
     private static final Logger mLog = LoggerFactory.getLogger(IcecastHTTPAudioBroadcaster.class);
-    private static final long RECONNECT_INTERVAL_MILLISECONDS = 30000; //30 seconds
-    private static final String HTTP_1_0_OK_HEX_DUMP = "48 54 54 50 2F 31 2E 30 20 32 30 30 20 4F 4B";
+    private static final String TERMINATOR = "\r\n";
+    private static final String HTTP_STATUS_PREFIX = "HTTP/";
 
-    private NioSocketConnector mSocketConnector;
-    private IoSession mStreamingSession = null;
     private Map<String,String> mHTTPHeaders;
 
-    private long mLastConnectionAttempt = 0;
-    private AtomicBoolean mConnecting = new AtomicBoolean();
-
     /**
      * Creates an Icecast 2.4.x compatible broadcaster using HTTP 1.1 protocol.  This broadcaster is
      * compatible with Icecast version 2.4.x and newer versions of the server software.
      *
      * Note: use @see IcecastTCPAudioBroadcaster for Icecast version 2.3.x and older.
      *
-     * This broadcaster uses the Apache Mina library for the streaming socket connection and for metadata updates.  The
-     * IcecastHTTPIOHandler manages all interaction with the Icecast server and manages the overall broadcast state.
+     * This broadcaster uses the shared streaming transport for the streaming socket connection and the Apache Mina
+     * library for metadata updates.  The IcecastHTTPConnectionHandler manages all interaction with the Icecast server
+     * and manages the overall broadcast state.
      *
      * @param configuration for the Icecast stream
      */
@@ -83,119 +65,47 @@ public class IcecastHTTPAudioBroadcaster extends IcecastAudioBroadcaster
     @Override
     protected void broadcastAudio(byte[] audio)
     {
-        if(audio != null && audio.length > 0 && connect() && mStreamingSession != null && mStreamingSession.isConnected())
-        {
-            IoBuffer buffer = IoBuffer.allocate(audio.length);
-            buffer.put(audio);
-            buffer.flip();
-
-            mStreamingSession.write(buffer);
-        }
-    }
-
-    /**
-     * (Re)Connects the broadcaster to the remote server if it currently is disconnected and indicates if the broadcaster
-     * is currently connected to the remote server following any connection attempts.
-     *
-     * Attempts to connect via this method when the broadcast state indicates an error condition will be ignored.
-     *
-     * @return true if the audio handler can stream audio
-     */
-    private boolean connect()
-    {
-        if(!connected() && canConnect() &&
-            (mLastConnectionAttempt + RECONNECT_INTERVAL_MILLISECONDS < System.currentTimeMillis()) &&
-            mConnecting.compareAndSet(false, true))
+        if(audio != null && audio.length > 0 && connect())
         {
-            mLastConnectionAttempt = System.currentTimeMillis();
+            StreamingConnection connection = getStreamingConnection();
 
-            if(mSocketConnector == null)
+            if(connection != null)
             {
-                mSocketConnector = new NioSocketConnector();
-                mSocketConnector.setConnectTimeoutCheckInterval(10000);
-
-//                mSocketConnector.getFilterChain().addLast("logger",
-//                    new LoggingFilter(IcecastHTTPAudioBroadcaster.class));
-
-                mSocketConnector.getFilterChain().addLast("codec", new HttpClientCodec());
-                mSocketConnector.setHandler(new IcecastHTTPIOHandler());
+                connection.sendAudio(audio);
             }
-
-            mStreamingSession = null;
-
-            Runnable runnable = new Runnable()
-            {
-                @Override
-                public void run()
-                {
-                    setBroadcastState(BroadcastState.CONNECTING);
-
-                    try
-                    {
-                        ConnectFuture future = mSocketConnector
-                            .connect(new InetSocketAddress(getBroadcastConfiguration().getHost(),
-                                getBroadcastConfiguration().getPort()));
-                        future.awaitUninterruptibly();
-                        mStreamingSession = future.getSession();
-                    }
-                    catch(RuntimeIoException rie)
-                    {
-                        Throwable throwableCause = rie.getCause();
-
-                        if(throwableCause instanceof ConnectException)
-                        {
-                            setBroadcastState(BroadcastState.NO_SERVER);
-                        }
-                        else if(throwableCause != null)
-                        {
-                            setBroadcastState(BroadcastState.DISCONNECTED);
-                            mLog.debug("Failed to connect", rie);
-                        }
-                        else
-                        {
-                            setBroadcastState(BroadcastState.DISCONNECTED);
-                            mLog.debug("Failed to connect - no exception is available");
-                        }
-
-                        disconnect();
-                    }
-
-                    mConnecting.set(false);
-                }
-            };
-
-            ThreadPool.SCHEDULED.schedule(runnable, 0l, TimeUnit.SECONDS);
-
         }
-
-        return connected();
     }
 
-
-    /**
-     * Disconnect from the remote broadcast server and cleanup input/output streams and socket connection
-     */
-    public void disconnect()
+    @Override
+    protected ConnectionHandler getConnectionHandler()
     {
-        if(mStreamingSession != null)
-        {
-            mStreamingSession.closeNow();
-        }
+        return new IcecastHTTPConnectionHandler();
     }
 
     /**
-     * IO Handler for managing Icecast HTTP connection and credentials
+     * Connection handler for managing Icecast HTTP connection and credentials
      */
-    public class IcecastHTTPIOHandler extends IoHandlerAdapter
+    public class IcecastHTTPConnectionHandler extends ConnectionHandler
     {
         @Override
-        public void sessionOpened(IoSession session) throws Exception
+        public void connectionOpened(StreamingConnection connection)
         {
+            super.connectionOpened(connection);
+
             //Send stream configuration and user credentials upon connecting to remote server
-            HttpRequestImpl request = new HttpRequestImpl(HttpVersion.HTTP_1_1, HttpMethod.PUT,
-                getConfiguration().getMountPoint(), "", getHTTPHeaders());
+            StringBuilder sb = new StringBuilder();
+            sb.append("PUT ").append(getConfiguration().getMountPoint()).append(" HTTP/1.1").append(TERMINATOR);
+            sb.append("Host: ").append(getConfiguration().getHost()).append(":")
+                .append(getConfiguration().getPort()).append(TERMINATOR);
+
+            for(Map.Entry<String,String> entry: getHTTPHeaders().entrySet())
+            {
+                sb.append(entry.getKey()).append(": ").append(entry.getValue()).append(TERMINATOR);
+            }
 
-            session.write(request);
+            sb.append(TERMINATOR);
+
+            connection.send(sb.toString().getBytes(StandardCharsets.UTF_8));
         }
 
         private Map<String,String> getHTTPHeaders()
@@ -245,94 +155,54 @@ public class IcecastHTTPAudioBroadcaster extends IcecastAudioBroadcaster
             return mHTTPHeaders;
         }
 
+        /**
+         * Processes the HTTP status line of the server response.  Icecast 2.4.2+ may send an HTTP/1.0 OK status line
+         * without any following headers, so header lines are ignored.
+         */
         @Override
-        public void sessionClosed(IoSession session) throws Exception
+        public void dataReceived(StreamingConnection connection, ByteBuffer data)
         {
-            //If there is already an error state, don't override it.  Otherwise, set state to disconnected
-            if(!getBroadcastState().isErrorState())
+            for(String line: getLines(data))
             {
-                setBroadcastState(BroadcastState.DISCONNECTED);
-            }
-
-            mSocketConnector.dispose();
-            mStreamingSession = null;
-            mSocketConnector = null;
-
-            mConnecting.set(false);
-
-            super.sessionClosed(session);
-        }
-
-        @Override
-        public void exceptionCaught(IoSession session, Throwable throwable) throws Exception
-        {
-            if(throwable instanceof ProtocolDecoderException)
-            {
-                Throwable cause = throwable.getCause();
-
-                /**
-                 * Warning: Hack.  Icecast 2.4.2+ doesn't like to send HTTP headers along with their HTTP/1.0 OK
-                 * message which causes Apache Mina to think that it hasn't received the full HTTP response.  So, we
-                 * intercept the out of bounds exception and then inspect the message hex dump to see if it's an
-                 * OK response and then play like everything is well and good.
-                 */
-                if(cause instanceof ArrayIndexOutOfBoundsException &&
-                    ((ProtocolDecoderException)throwable).getHexdump().startsWith(HTTP_1_0_OK_HEX_DUMP))
-                {
-                    setBroadcastState(BroadcastState.CONNECTED);
-                }
-                else
+                if(!line.startsWith(HTTP_STATUS_PREFIX))
                 {
-                    mLog.error("HTTP protocol decoder error", throwable);
-                    setBroadcastState(BroadcastState.DISCONNECTED);
-                    disconnect();
+                    continue;
                 }
-            }
-            else
-            {
-                mLog.error("Broadcast error", throwable);
-                setBroadcastState(BroadcastState.DISCONNECTED);
-                disconnect();
-            }
 
-            mConnecting.set(false);
-        }
+                String[] parts = line.split(" ");
+                int status = 0;
 
-        @Override
-        public void messageReceived(IoSession session, Object object) throws Exception
-        {
-            if(object instanceof DefaultHttpResponse)
-            {
-                DefaultHttpResponse response = (DefaultHttpResponse) object;
+                if(parts.length > 1)
+                {
+                    try
+                    {
+                        status = Integer.parseInt(parts[1]);
+                    }
+                    catch(NumberFormatException nfe)
+                    {
+                        //Handled as an unspecified error
+                    }
+                }
 
-                switch(response.getStatus())
+                switch(status)
                 {
-                    case INFORMATIONAL_CONTINUE:
+                    case 100: //Continue
                         break;
-                    case SUCCESS_OK:
+                    case 200: //OK
                         setBroadcastState(BroadcastState.CONNECTED);
-                        mConnecting.set(false);
                         break;
-                    case CLIENT_ERROR_UNAUTHORIZED:
+                    case 401: //Unauthorized
                         setBroadcastState(BroadcastState.INVALID_CREDENTIALS);
-                        disconnect();
                         break;
-                    case CLIENT_ERROR_FORBIDDEN:
+                    case 403: //Forbidden
                         setBroadcastState(BroadcastState.CONFIGURATION_ERROR);
-                        disconnect();
                         break;
                     default:
+                        mLog.debug("[" + getStreamName() + "] Unspecified error: " + line);
                         setBroadcastState(BroadcastState.ERROR);
-                        disconnect();
-                        mLog.debug("Unspecified error: " + response.toString() + " Class:" + object.getClass());
                         break;
                 }
             }
-            else
-            {
-                mLog.error("Icecast HTTP broadcaster - unrecognized message [ " + object.getClass() +
-                    "] received:" + object.toString());
-            }
         }
     }
 }
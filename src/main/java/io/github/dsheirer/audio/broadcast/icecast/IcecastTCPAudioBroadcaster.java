@@ -20,25 +20,14 @@ package io.github.dsheirer.audio.broadcast.icecast;
 
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.audio.broadcast.BroadcastState;
-import io.github.dsheirer.audio.broadcast.icecast.codec.IcecastCodecFactory;
+import io.github.dsheirer.audio.broadcast.StreamingConnection;
 import io.github.dsheirer.audio.convert.MP3AudioConverter;
 import io.github.dsheirer.properties.SystemProperties;
-import io.github.dsheirer.util.ThreadPool;
-import org.apache.mina.core.RuntimeIoException;
-import org.apache.mina.core.future.ConnectFuture;
-import org.apache.mina.core.service.IoHandlerAdapter;
-import org.apache.mina.core.session.IoSession;
-import org.apache.mina.filter.codec.ProtocolCodecFilter;
-import org.apache.mina.transport.socket.nio.NioSocketConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.SocketException;
-import java.nio.channels.UnresolvedAddressException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 public class IcecastTCPAudioBroadcaster extends IcecastAudioBroadcaster
 {
@@ -46,14 +35,6 @@ public class IcecastTCPAudioBroadcaster extends IcecastAudioBroadcaster
     private final static String TERMINATOR = "\r\n";
     private final static String SEPARATOR = ":";
     private static final long RECONNECT_INTERVAL_MILLISECONDS = 3000; //3 seconds
-    private static final long CONNECTION_ATTEMPT_TIMEOUT_MILLISECONDS = 5000; //5 seconds
-    private static final int WRITE_TIMEOUT_SECONDS = 5;
-
-    private NioSocketConnector mSocketConnector;
-    private IoSession mStreamingSession = null;
-
-    private long mLastConnectionAttempt = 0;
-    private AtomicBoolean mConnecting = new AtomicBoolean();
 
     /**
      * Creates an Icecast 2.3.2 compatible broadcaster using TCP and a pseudo HTTP 1.0 protocol.  This broadcaster is
@@ -61,8 +42,9 @@ public class IcecastTCPAudioBroadcaster extends IcecastAudioBroadcaster
      *
      * Note: use @see IcecastHTTPAudioBroadcaster for Icecast version 2.4.x and newer.
      *
-     * This broadcaster uses the Apache Mina library for the streaming socket connection and for metadata updates.  The
-     * ShoutcastV2IOHandler manages all interaction with the Icecast server and manages the overall broadcast state.
+     * This broadcaster uses the shared streaming transport for the streaming socket connection and the Apache Mina
+     * library for metadata updates.  The IcecastTCPConnectionHandler manages all interaction with the Icecast server
+     * and manages the overall broadcast state.
      *
      * @param configuration for the Icecast stream
      */
@@ -77,130 +59,42 @@ public class IcecastTCPAudioBroadcaster extends IcecastAudioBroadcaster
     @Override
     protected void broadcastAudio(byte[] audio)
     {
-        if(audio != null && audio.length > 0 && connect() && mStreamingSession != null && mStreamingSession.isConnected())
+        if(audio != null && audio.length > 0 && connect())
         {
-            mStreamingSession.write(audio);
-        }
-    }
+            StreamingConnection connection = getStreamingConnection();
 
-    /**
-     * (Re)Connects the broadcaster to the remote server if it currently is disconnected and indicates if the broadcaster
-     * is currently connected to the remote server following any connection attempts.
-     *
-     * Attempts to connect via this method when the broadcast state indicates an error condition will be ignored.
-     *
-     * @return true if the audio handler can stream audio
-     */
-    private boolean connect()
-    {
-        if(!connected() && canConnect() &&
-            (mLastConnectionAttempt + RECONNECT_INTERVAL_MILLISECONDS < System.currentTimeMillis()) &&
-            mConnecting.compareAndSet(false, true))
-        {
-            mLastConnectionAttempt = System.currentTimeMillis();
-
-            if(mSocketConnector == null)
+            if(connection != null)
             {
-                mSocketConnector = new NioSocketConnector();
-                mSocketConnector.getSessionConfig().setWriteTimeout(WRITE_TIMEOUT_SECONDS);
-
-//                LoggingFilter loggingFilter = new LoggingFilter(IcecastTCPAudioBroadcaster.class);
-//                loggingFilter.setMessageSentLogLevel(LogLevel.NONE);
-//                mSocketConnector.getFilterChain().addLast("logger", loggingFilter);
-
-                mSocketConnector.getFilterChain().addLast("codec",
-                    new ProtocolCodecFilter(new IcecastCodecFactory()));
-                mSocketConnector.setHandler(new IcecastTCPIOHandler());
+                connection.sendAudio(audio);
             }
-
-            mStreamingSession = null;
-
-            Runnable runnable = new Runnable()
-            {
-                @Override
-                public void run()
-                {
-                    setBroadcastState(BroadcastState.CONNECTING);
-
-                    try
-                    {
-                        ConnectFuture future = mSocketConnector
-                            .connect(new InetSocketAddress(getBroadcastConfiguration().getHost(),
-                                getBroadcastConfiguration().getPort()));
-
-                        boolean connected = future.await(CONNECTION_ATTEMPT_TIMEOUT_MILLISECONDS, TimeUnit.MILLISECONDS);
-
-                        if(connected)
-                        {
-                            mStreamingSession = future.getSession();
-                            mConnecting.set(false);
-                            return;
-                        }
-                    }
-                    catch(RuntimeIoException rioe)
-                    {
-                        if(rioe.getCause() instanceof SocketException)
-                        {
-                            setBroadcastState(BroadcastState.NETWORK_UNAVAILABLE);
-                            mConnecting.set(false);
-                            return;
-                        }
-                    }
-                    catch(UnresolvedAddressException uae)
-                    {
-                        setBroadcastState(BroadcastState.NETWORK_UNAVAILABLE);
-                        mConnecting.set(false);
-                        return;
-                    }
-                    catch(Exception e)
-                    {
-                        mLog.error("Error", e);
-                        //Disregard ... we'll disconnect and try again
-                    }
-                    catch(Throwable t)
-                    {
-                        mLog.error("Throwable error caught", t);
-                    }
-
-                    disconnect();
-                    mConnecting.set(false);
-                }
-            };
-
-            ThreadPool.SCHEDULED.schedule(runnable, 0l, TimeUnit.SECONDS);
         }
-
-        return connected();
     }
 
+    @Override
+    protected long getReconnectInterval()
+    {
+        return RECONNECT_INTERVAL_MILLISECONDS;
+    }
 
-    /**
-     * Disconnect from the remote broadcast server and cleanup input/output streams and socket connection
-     */
-    public void disconnect()
+    @Override
+    protected ConnectionHandler getConnectionHandler()
     {
-        if(connected() && mStreamingSession != null)
-        {
-            mStreamingSession.closeNow();
-        }
-        else
-        {
-            setBroadcastState(BroadcastState.DISCONNECTED);
-            mLastConnectionAttempt = System.currentTimeMillis();
-        }
+        return new IcecastTCPConnectionHandler();
     }
 
     /**
-     * IO Handler for managing Icecast TCP connection and credentials
+     * Connection handler for managing Icecast TCP connection and credentials
      */
-    public class IcecastTCPIOHandler extends IoHandlerAdapter
+    public class IcecastTCPConnectionHandler extends ConnectionHandler
     {
         /**
          * Sends stream configuration and user credentials upon connecting to remote server
          */
         @Override
-        public void sessionOpened(IoSession session) throws Exception
+        public void connectionOpened(StreamingConnection connection)
         {
+            super.connectionOpened(connection);
+
             StringBuilder sb = new StringBuilder();
             sb.append("SOURCE ").append(getConfiguration().getMountPoint());
             sb.append(" HTTP/1.0").append(TERMINATOR);
@@ -237,79 +131,40 @@ public class IcecastTCPAudioBroadcaster extends IcecastAudioBroadcaster
 
             sb.append(TERMINATOR).append(TERMINATOR);
 
-            session.write(sb.toString());
-        }
-
-        @Override
-        public void sessionClosed(IoSession session) throws Exception
-        {
-            mLastConnectionAttempt = System.currentTimeMillis();
-
-            //If there is already an error state, don't override it.  Otherwise, set state to disconnected
-            if(!getBroadcastState().isErrorState())
-            {
-                setBroadcastState(BroadcastState.DISCONNECTED);
-            }
-
-            mStreamingSession = null;
-
-            mConnecting.set(false);
-
-            super.sessionClosed(session);
-        }
-
-        @Override
-        public void exceptionCaught(IoSession session, Throwable cause) throws Exception
-        {
-            if(!(cause instanceof IOException))
-            {
-                mLog.error("[" + getStreamName() + "] Broadcast error", cause);
-            }
-
-            disconnect();
+            connection.send(sb.toString().getBytes(StandardCharsets.UTF_8));
         }
 
         @Override
-        public void messageReceived(IoSession session, Object object) throws Exception
+        public void dataReceived(StreamingConnection connection, ByteBuffer data)
         {
-            if(object instanceof String)
+            for(String message: getLines(data))
             {
-                String message = (String) object;
-
-                if(message != null && !message.trim().isEmpty())
+                if(message.startsWith("HTTP/1.0 200 OK"))
                 {
-                    if(message.startsWith("HTTP/1.0 200 OK"))
-                    {
-                        setBroadcastState(BroadcastState.CONNECTED);
-                    }
-                    else if(message.startsWith("HTTP/1.0 403 Mountpoint in use"))
-                    {
-                        setBroadcastState(BroadcastState.MOUNT_POINT_IN_USE);
-                    }
-                    else if(message.contains("Content-Type: text/html"))
-                    {
-                        //Disregard ... this normally follows the mount point in use error
-                    }
-                    else if(message.contains("Invalid Password") ||
-                        message.contains("Authentication Required"))
-                    {
-                        setBroadcastState(BroadcastState.INVALID_CREDENTIALS);
-                    }
-                    else if(message.contains("HTTP/1.1 501"))
-                    {
-                        disconnect(); //So that we can reconnect later
-                    }
-                    else
-                    {
-                        mLog.error("Unrecognized server response:" + message);
-                        setBroadcastState(BroadcastState.ERROR);
-                    }
+                    setBroadcastState(BroadcastState.CONNECTED);
+                }
+                else if(message.startsWith("HTTP/1.0 403 Mountpoint in use"))
+                {
+                    setBroadcastState(BroadcastState.MOUNT_POINT_IN_USE);
+                }
+                else if(message.contains("Content-Type: text/html"))
+                {
+                    //Disregard ... this normally follows the mount point in use error
+                }
+                else if(message.contains("Invalid Password") ||
+                    message.contains("Authentication Required"))
+                {
+                    setBroadcastState(BroadcastState.INVALID_CREDENTIALS);
+                }
+                else if(message.contains("HTTP/1.1 501"))
+                {
+                    reconnect(); //So that we can reconnect later
+                }
+                else
+                {
+                    mLog.error("[" + getStreamName() + "] Unrecognized server response:" + message);
+                    setBroadcastState(BroadcastState.ERROR);
                 }
-            }
-            else
-            {
-                mLog.error("[" + getStreamName() + "]Icecast TCP broadcaster - unrecognized message [ " + object.getClass() +
-                    "] received:" + object.toString());
             }
         }
     }
@@ -28,6 +28,7 @@ import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.audio.broadcast.AudioStreamingBroadcaster;
 import io.github.dsheirer.audio.broadcast.BroadcastState;
 import io.github.dsheirer.audio.broadcast.IBroadcastMetadataUpdater;
+import io.github.dsheirer.audio.broadcast.StreamingConnection;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.AuthenticateBroadcast;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.CacheableXMLMetadata;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.ConfigureIcyName;
@@ -42,45 +43,31 @@ import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessage;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessageFactory;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMessageType;
 import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxMetadata;
-import io.github.dsheirer.audio.broadcast.shoutcast.v2.ultravox.UltravoxProtocolFactory;
 import io.github.dsheirer.identifier.Form;
 import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.IdentifierClass;
 import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.identifier.Role;
 import io.github.dsheirer.properties.SystemProperties;
-import io.github.dsheirer.util.ThreadPool;
 import org.apache.commons.math3.util.FastMath;
-import org.apache.mina.core.RuntimeIoException;
-import org.apache.mina.core.future.ConnectFuture;
-import org.apache.mina.core.service.IoHandlerAdapter;
-import org.apache.mina.core.session.IoSession;
-import org.apache.mina.filter.codec.ProtocolCodecFilter;
-import org.apache.mina.transport.socket.nio.NioSocketConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.io.UnsupportedEncodingException;
-import java.net.ConnectException;
-import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcaster implements IBroadcastMetadataUpdater
 {
     private final static Logger mLog = LoggerFactory.getLogger(ShoutcastV2AudioStreamingBroadcaster.class);
-    private static final long RECONNECT_INTERVAL_MILLISECONDS = 30000; //30 seconds
+    private static final int ULTRAVOX_SYNC = 0x5A;
+    private static final int ULTRAVOX_HEADER_LENGTH = 6;
     private int mMaxPayloadSize = 16377;
 
-    private NioSocketConnector mSocketConnector;
-    private IoSession mStreamingSession = null;
     private AliasModel mAliasModel;
-    private long mLastConnectionAttempt = 0;
-    private AtomicBoolean mConnecting = new AtomicBoolean();
     private LinkedTransferQueue<UltravoxMessage> mMetadataMessageQueue = new LinkedTransferQueue<>();
 
 
@@ -90,8 +77,8 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
      *
      * Note: use @see ShoutcastV1AudioBroadcaster for Shoutcast version 1.x and older.
      *
-     * This broadcaster uses the Apache Mina library for the streaming socket connection.  The
-     * ShoutcastV2IOHandler manages all interaction with the Shoutcast server and manages the overall broadcast state.
+     * This broadcaster uses the shared streaming transport for the streaming socket connection.  The
+     * ShoutcastV2ConnectionHandler manages all interaction with the Shoutcast server and manages the overall broadcast state.
      *
      * @param configuration for the Shoutcast V2 stream
      */
@@ -112,22 +99,27 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
     @Override
     protected void broadcastAudio(byte[] audio)
     {
-        //Dispatch any queued metadata messages
-        UltravoxMessage metadataMessage = mMetadataMessageQueue.poll();
-
-        while(metadataMessage != null)
+        if(audio != null && audio.length > 0 && connect())
         {
-            mStreamingSession.write(metadataMessage);
-            metadataMessage = mMetadataMessageQueue.poll();
-        }
+            StreamingConnection connection = getStreamingConnection();
 
-        //Dispatch audio message
-        if(audio != null && audio.length > 0 && connect() && mStreamingSession != null && mStreamingSession.isConnected())
-        {
-            MP3Audio mp3Audio = new MP3Audio();
-            mp3Audio.setPayload(audio);
+            if(connection != null)
+            {
+                //Dispatch any queued metadata messages in sequence with the audio stream
+                UltravoxMessage metadataMessage = mMetadataMessageQueue.poll();
+
+                while(metadataMessage != null)
+                {
+                    connection.sendAudio(metadataMessage.getMessage());
+                    metadataMessage = mMetadataMessageQueue.poll();
+                }
+
+                //Dispatch audio message
+                MP3Audio mp3Audio = new MP3Audio();
+                mp3Audio.setPayload(audio);
 
-            mStreamingSession.write(mp3Audio);
+                connection.sendAudio(mp3Audio.getMessage());
+            }
         }
     }
 
@@ -148,103 +140,10 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
         return this;
     }
 
-    /**
-     * (Re)Connects the broadcaster to the remote server if it currently is disconnected and indicates if the broadcaster
-     * is currently connected to the remote server following any connection attempts.
-     *
-     * Attempts to connect via this method when the broadcast state indicates an error condition will be ignored.
-     *
-     * @return true if the audio handler can stream audio
-     */
-    private boolean connect()
-    {
-        if(!connected() && canConnect() &&
-            (mLastConnectionAttempt + RECONNECT_INTERVAL_MILLISECONDS < System.currentTimeMillis()) &&
-            mConnecting.compareAndSet(false, true))
-        {
-            mLastConnectionAttempt = System.currentTimeMillis();
-
-            if(mSocketConnector == null)
-            {
-                mSocketConnector = new NioSocketConnector();
-                mSocketConnector.setConnectTimeoutCheckInterval(10000);
-
-//                mSocketConnector.getFilterChain().addLast("logger",
-//                    new LoggingFilter(ShoutcastV2AudioBroadcaster.class));
-
-                mSocketConnector.getFilterChain().addLast("codec",
-                    new ProtocolCodecFilter(new UltravoxProtocolFactory()));
-
-                mSocketConnector.setHandler(new ShoutcastV2IOHandler());
-            }
-
-            mStreamingSession = null;
-
-            Runnable runnable = new Runnable()
-            {
-                @Override
-                public void run()
-                {
-                    setBroadcastState(BroadcastState.CONNECTING);
-
-                    try
-                    {
-                        ConnectFuture future = mSocketConnector
-                            .connect(new InetSocketAddress(getBroadcastConfiguration().getHost(),
-                                getBroadcastConfiguration().getPort()));
-                        future.awaitUninterruptibly();
-                        mStreamingSession = future.getSession();
-                    }
-                    catch(RuntimeIoException rie)
-                    {
-                        Throwable throwableCause = rie.getCause();
-
-                        if(throwableCause instanceof ConnectException)
-                        {
-                            setBroadcastState(BroadcastState.NO_SERVER);
-                        }
-                        else if(throwableCause != null)
-                        {
-                            setBroadcastState(BroadcastState.ERROR);
-                            mLog.error("Failed to connect", rie);
-                        }
-                        else
-                        {
-                            setBroadcastState(BroadcastState.ERROR);
-                            mLog.error("Failed to connect - no exception is available");
-                        }
-
-                        disconnect();
-                    }
-                    catch(Throwable t)
-                    {
-                        disconnect();
-                    }
-
-                    mConnecting.set(false);
-                }
-            };
-
-            ThreadPool.SCHEDULED.schedule(runnable, 0l, TimeUnit.SECONDS);
-        }
-
-        return connected();
-    }
-
-
-    /**
-     * Disconnect from the remote broadcast server and cleanup input/output streams and socket connection
-     */
-    public void disconnect()
+    @Override
+    protected ConnectionHandler getConnectionHandler()
     {
-        if(connected() && mStreamingSession != null)
-        {
-            mStreamingSession.closeNow();
-        }
-        else
-        {
-            mLastConnectionAttempt = System.currentTimeMillis();
-        }
+        return new ShoutcastV2ConnectionHandler();
     }
 
     /**
@@ -398,88 +297,83 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
 
 
     /**
-     * IO Handler for managing Shoutcast V2 connection and credentials
+     * Connection handler for managing Shoutcast V2 connection and credentials
      */
-    public class ShoutcastV2IOHandler extends IoHandlerAdapter
+    public class ShoutcastV2ConnectionHandler extends ConnectionHandler
     {
+        private ByteArrayOutputStream mReceived = new ByteArrayOutputStream();
+
         /**
          * Sends stream configuration and user credentials upon connecting to remote server
          */
         @Override
-        public void sessionOpened(IoSession session) throws Exception
+        public void connectionOpened(StreamingConnection connection)
         {
-            session.write(UltravoxMessageFactory.getMessage(UltravoxMessageType.REQUEST_CIPHER));
+            super.connectionOpened(connection);
+            mReceived.reset();
+            send(connection, UltravoxMessageFactory.getMessage(UltravoxMessageType.REQUEST_CIPHER));
         }
 
-        @Override
-        public void sessionClosed(IoSession session) throws Exception
+        /**
+         * Sends the ultravox message to the server
+         */
+        private void send(StreamingConnection connection, UltravoxMessage message)
         {
-            mLastConnectionAttempt = System.currentTimeMillis();
-
-            //If there is already an error state, don't override it.  Otherwise, set state to disconnected
-            if(!getBroadcastState().isErrorState())
-            {
-                setBroadcastState(BroadcastState.DISCONNECTED);
-            }
-
-            mStreamingSession = null;
-
-            mConnecting.set(false);
-            super.sessionClosed(session);
+            connection.send(message.getMessage());
         }
 
+        /**
+         * Reassembles the received bytes into ultravox messages.  Each message is a sync byte, a reserved byte, a
+         * message class and type, a payload length, the payload and a trailing zero byte.
+         */
         @Override
-        public void exceptionCaught(IoSession session, Throwable cause) throws Exception
+        public void dataReceived(StreamingConnection connection, ByteBuffer data)
         {
-            if(cause instanceof IOException)
-            {
-                IOException ioe = (IOException)cause;
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            mReceived.write(bytes, 0, bytes.length);
 
-                if(ioe.getMessage() != null)
-                {
-                    String reason = ioe.getMessage();
+            byte[] received = mReceived.toByteArray();
+            int offset = 0;
 
-                    if(reason.startsWith("Connection reset"))
-                    {
-                        mLog.info("Streaming connection reset by remote server - reestablishing connection");
-                        disconnect();
-                    }
-                    else if(reason.startsWith("Operation timed out"))
-                    {
-                        mLog.info("Streaming connection timed out - resetting connection");
-                        disconnect();
-                    }
-                    else
-                    {
-                        setBroadcastState(BroadcastState.ERROR);
-                        disconnect();
-                        mLog.error("Unrecognized IO error: " + reason + ". Streaming halted.");
-                    }
-                }
-                else
+            while(received.length - offset > ULTRAVOX_HEADER_LENGTH)
+            {
+                if((received[offset] & 0xFF) != ULTRAVOX_SYNC)
                 {
+                    mLog.debug("Unrecognized message received from shoutcast v2 server - invalid sync");
                     setBroadcastState(BroadcastState.ERROR);
-                    disconnect();
-                    mLog.error("Unspecified IO error - streaming halted.");
+                    mReceived.reset();
+                    return;
                 }
-            }
-            else
-            {
-                mLog.error("Broadcast error", cause);
-                setBroadcastState(BroadcastState.ERROR);
-                disconnect();
+
+                int payloadLength = ((received[offset + 4] & 0xFF) << 8) + (received[offset + 5] & 0xFF);
+                int messageLength = ULTRAVOX_HEADER_LENGTH + payloadLength + 1;
+
+                if(received.length - offset < messageLength)
+                {
+                    break;
+                }
+
+                byte[] message = new byte[messageLength];
+                System.arraycopy(received, offset, message, 0, messageLength);
+                offset += messageLength;
+
+                messageReceived(connection, message);
             }
 
-            mConnecting.set(false);
+            mReceived.reset();
+            mReceived.write(received, offset, received.length - offset);
         }
 
-        @Override
-        public void messageReceived(IoSession session, Object object) throws Exception
+        /**
+         * Processes a complete ultravox message received from the server
+         */
+        private void messageReceived(StreamingConnection connection, byte[] message)
         {
-            if(object instanceof UltravoxMessage)
-            {
-                UltravoxMessage ultravoxMessage = (UltravoxMessage) object;
+            UltravoxMessage ultravoxMessage = UltravoxMessageFactory.getMessage(message);
 
+            if(ultravoxMessage != null)
+            {
                 switch(ultravoxMessage.getMessageType())
                 {
                     case REQUEST_CIPHER:
@@ -490,7 +384,7 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
                         authenticateBroadcast.setCredentials(cipherKey, getConfiguration().getStreamID(),
                             getConfiguration().getUserID(), getConfiguration().getPassword());
 
-                        session.write(authenticateBroadcast);
+                        send(connection, authenticateBroadcast);
                         break;
                     case AUTHENTICATE_BROADCAST:
                         if(ultravoxMessage.isErrorResponse())
@@ -511,7 +405,7 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
                         {
                             StreamMimeType streamMimeType = new StreamMimeType();
                             streamMimeType.setFormat(getConfiguration().getBroadcastFormat());
-                            session.write(streamMimeType);
+                            send(connection, streamMimeType);
                         }
                         break;
                     case STREAM_MIME_TYPE:
@@ -528,7 +422,7 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
                             //Use the same value for average and minimum bit rates
                             setupBroadcast.setBitRate(getConfiguration().getBitRate(), getConfiguration().getBitRate());
 
-                            session.write(setupBroadcast);
+                            send(connection, setupBroadcast);
                         }
                         break;
                     case SETUP_BROADCAST:
@@ -544,7 +438,7 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
 
                             negotiateMaxPayloadSize.setMaximumPayloadSize(16377, 4192);
 
-                            session.write(negotiateMaxPayloadSize);
+                            send(connection, negotiateMaxPayloadSize);
                         }
                         break;
                     case NEGOTIATE_MAX_PAYLOAD_SIZE:
@@ -560,7 +454,7 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
 
                             ConfigureIcyPublic configureIcyPublic = new ConfigureIcyPublic();
                             configureIcyPublic.setPublic(getConfiguration().isPublic());
-                            session.write(configureIcyPublic);
+                            send(connection, configureIcyPublic);
                         }
                         break;
                     case CONFIGURE_ICY_PUBLIC:
@@ -573,7 +467,7 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
                         {
                             ConfigureIcyName configureIcyName = new ConfigureIcyName();
                             configureIcyName.setName(getConfiguration().getName());
-                            session.write(configureIcyName);
+                            send(connection, configureIcyName);
                         }
                         break;
                     case CONFIGURE_ICY_NAME:
@@ -584,7 +478,7 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
                         }
                         else
                         {
-                            session.write(new Standby());
+                            send(connection, new Standby());
                         }
                         break;
                     case STANDBY:
@@ -608,7 +502,7 @@ public class ShoutcastV2AudioStreamingBroadcaster extends AudioStreamingBroadcas
             }
             else
             {
-                mLog.debug("Unrecognized message received from shoutcast v2 server:" + object.toString());
+                mLog.debug("Unrecognized message received from shoutcast v2 server");
 
                 setBroadcastState(BroadcastState.ERROR);
             }
@@ -0,0 +1,162 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.audio.convert;
+
+import io.github.dsheirer.audio.AudioFormats;
+import io.github.dsheirer.sample.ConversionUtils;
+import net.sourceforge.lame.lowlevel.LameEncoder;
+import net.sourceforge.lame.mp3.MPEGMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * MP3 encoder session that incrementally encodes 8 kHz audio buffers as they are produced, so that the encoded audio
+ * is available with a roughly constant delay once the audio stream is finished, regardless of the stream length.
+ * The encoded frames are also available while the session is in progress, for streaming partial audio.
+ *
+ * This class is thread safe.
+ */
+public class MP3StreamingEncoder
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MP3StreamingEncoder.class);
+    private LameEncoder mEncoder;
+    private byte[] mMP3Buffer;
+    private byte[] mMP3Audio = new byte[4096];
+    private int mMP3AudioLength;
+    private boolean mFinished;
+
+    /**
+     * Constructs an instance to convert PCM 8kHz 16-bit audio to Mono, Low Quality MP3 compressed audio.
+     *
+     * @param bitRate for converted MP3 audio
+     * @param variableBitRate (VBR) true or false for constant bit rate (CBR)
+     */
+    public MP3StreamingEncoder(int bitRate, boolean variableBitRate)
+    {
+        mEncoder = new LameEncoder(AudioFormats.PCM_SIGNED_8KHZ_16BITS_MONO, bitRate, MPEGMode.MONO,
+            MP3AudioConverter.AUDIO_QUALITY, variableBitRate);
+        mMP3Buffer = new byte[mEncoder.getMP3BufferSize()];
+    }
+
+    /**
+     * Encodes the audio buffer and appends the encoded frames to the MP3 audio.
+     * @param audioBuffer of 8 kHz samples
+     * @throws IllegalStateException if this encoder is already finished
+     */
+    public synchronized void encode(float[] audioBuffer)
+    {
+        if(mFinished)
+        {
+            throw new IllegalStateException("Can't encode audio after the encoder is finished");
+        }
+
+        byte[] pcm = ConversionUtils.convertToSigned16BitSamples(audioBuffer).array();
+        int pcmBufferSize = mEncoder.getPCMBufferSize();
+        int offset = 0;
+
+        try
+        {
+            while(offset < pcm.length)
+            {
+                int length = Math.min(pcmBufferSize, pcm.length - offset);
+                int encoded = mEncoder.encodeBuffer(pcm, offset, length, mMP3Buffer);
+
+                append(encoded);
+                offset += length;
+            }
+        }
+        catch(Exception e)
+        {
+            mLog.error("There was an error converting audio to MP3: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the encoded bytes from the MP3 buffer to the encoded audio, growing the encoded audio array as needed.
+     * @param length of encoded bytes in the MP3 buffer
+     */
+    private void append(int length)
+    {
+        if(length > 0)
+        {
+            if(mMP3AudioLength + length > mMP3Audio.length)
+            {
+                mMP3Audio = Arrays.copyOf(mMP3Audio, Math.max(mMP3Audio.length * 2, mMP3AudioLength + length));
+            }
+
+            System.arraycopy(mMP3Buffer, 0, mMP3Audio, mMP3AudioLength, length);
+            mMP3AudioLength += length;
+        }
+    }
+
+    /**
+     * Indicates if this encoder session is finished.
+     */
+    public synchronized boolean isFinished()
+    {
+        return mFinished;
+    }
+
+    /**
+     * Number of encoded MP3 bytes currently available.
+     */
+    public synchronized int getEncodedLength()
+    {
+        return mMP3AudioLength;
+    }
+
+    /**
+     * Copy of the encoded MP3 bytes currently available, starting at the offset.
+     * @param offset into the encoded audio
+     * @param maximumLength of bytes to return
+     * @return encoded audio, or an empty array if no encoded audio is available beyond the offset
+     */
+    public synchronized byte[] getEncodedAudio(int offset, int maximumLength)
+    {
+        int length = Math.min(maximumLength, mMP3AudioLength - offset);
+
+        if(offset < 0 || length <= 0)
+        {
+            return new byte[0];
+        }
+
+        return Arrays.copyOfRange(mMP3Audio, offset, offset + length);
+    }
+
+    /**
+     * Finishes the encoder session by flushing the final partial frame.  Subsequent invocations return the same
+     * encoded audio.
+     * @return complete MP3 encoded audio
+     */
+    public synchronized byte[] finish()
+    {
+        if(!mFinished)
+        {
+            append(mEncoder.encodeFinish(mMP3Buffer));
+            mMP3Audio = Arrays.copyOf(mMP3Audio, mMP3AudioLength);
+            mMP3Buffer = null;
+            mEncoder = null;
+            mFinished = true;
+        }
+
+        return mMP3Audio;
+    }
+}
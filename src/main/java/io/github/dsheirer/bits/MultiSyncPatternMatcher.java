@@ -71,23 +71,15 @@ public class MultiSyncPatternMatcher
      */
     public void receive(boolean bit1, boolean bit2)
     {
-        mBits = Long.rotateLeft(mBits, 1);
-
-        mBits &= mMask;
-
-        if(bit1)
-        {
-            mBits += 1;
-        }
-
-        mBits = Long.rotateLeft(mBits, 1);
-
-        mBits &= mMask;
+        receive((bit1 ? 2 : 0) + (bit2 ? 1 : 0));
+    }
 
-        if(bit2)
-        {
-            mBits += 1;
-        }
+    /**
+     * Processes a dibit value (0 - 3) before checking sync processors for a match.
+     */
+    public void receive(int dibit)
+    {
+        mBits = ((mBits << 2) | (dibit & 0x3)) & mMask;
 
         mBitCount += 2;
 
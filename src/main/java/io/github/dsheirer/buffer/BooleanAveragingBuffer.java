@@ -54,6 +54,17 @@ public class BooleanAveragingBuffer
      */
     private void put(boolean newValue)
     {
+        //Update the running count of true values for the value leaving and entering the buffer
+        if(mBuffer[mBufferPointer])
+        {
+            mTrueCount--;
+        }
+
+        if(newValue)
+        {
+            mTrueCount++;
+        }
+
         //Store the new value to the buffer
         mBuffer[mBufferPointer] = newValue;
 
@@ -74,14 +85,6 @@ public class BooleanAveragingBuffer
         //Load the new value into the buffer
         put(newValue);
 
-        mTrueCount = 0;
-
-        for (boolean b : mBuffer) {
-            if (b) {
-                mTrueCount++;
-            }
-        }
-
         return mTrueCount > mThreshold;
     }
 }
@@ -17,41 +17,29 @@
  ******************************************************************************/
 package io.github.dsheirer.buffer;
 
+/**
+ * Moving average of the most recent window of float values.  Infinite and NaN values are averaged as zero.
+ */
 public class FloatAveragingBuffer
 {
-	private float[] mBuffer;
-	private float mAverage = 0.0f;
-	private int mBufferSize;
-	private int mBufferPointer;
+	private SlidingWindowSum mSum;
 	
 	public FloatAveragingBuffer( int size )
 	{
-		mBufferSize = size;
-		mBuffer = new float[ size ];
+		mSum = new SlidingWindowSum( size );
 	}
 	
 	public float get( float newValue )
 	{
-		float oldValue = mBuffer[ mBufferPointer ];
-
 		if( Float.isInfinite( newValue ) || Float.isNaN( newValue ) )
 		{
-			mAverage = mAverage - ( oldValue / mBufferSize );
-
-			mBuffer[ mBufferPointer++ ] = 0.0f;
+			mSum.put( 0.0 );
 		}
 		else
 		{
-			mAverage = mAverage - ( oldValue / mBufferSize ) + ( newValue / mBufferSize );
-
-			mBuffer[ mBufferPointer++ ] = newValue;
-		}
-
-		if( mBufferPointer >= mBufferSize )
-		{
-			mBufferPointer = 0;
+			mSum.put( newValue );
 		}
 
-		return mAverage;
+		return (float)mSum.getAverage();
 	}
 }
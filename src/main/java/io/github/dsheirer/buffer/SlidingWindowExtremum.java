@@ -0,0 +1,154 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.buffer;
+
+/**
+ * Tracks the maximum (or minimum) of the most recent window of values in constant amortized time per value.
+ *
+ * Uses a monotonic deque of (value, sample index) entries where each new value removes all entries from the tail
+ * that it dominates and expired entries are removed from the head.  The head of the deque is always the extreme
+ * value of the window.  Each value is added to and removed from the deque at most once, so a full window rescan is
+ * never needed when the extreme value leaves the window.
+ */
+public class SlidingWindowExtremum
+{
+    private boolean mMaximum;
+    private int mWindow;
+    private double[] mValues;
+    private long[] mIndices;
+    private int mHead;
+    private int mSize;
+    private long mIndex;
+
+    /**
+     * Constructs an instance where the window is initially filled with the initial fill value.
+     *
+     * @param window size in values
+     * @param maximum true to track the maximum value or false to track the minimum value
+     * @param initialFillValue that initially occupies each position of the window
+     */
+    public SlidingWindowExtremum(int window, boolean maximum, double initialFillValue)
+    {
+        if(window < 1)
+        {
+            throw new IllegalArgumentException("Window size must be greater than zero");
+        }
+
+        mWindow = window;
+        mMaximum = maximum;
+        mValues = new double[window];
+        mIndices = new long[window];
+        reset(initialFillValue);
+    }
+
+    /**
+     * Creates a sliding window maximum tracker with the window initially filled with zeros.
+     * @param window size in values
+     */
+    public static SlidingWindowExtremum maximum(int window)
+    {
+        return new SlidingWindowExtremum(window, true, 0.0);
+    }
+
+    /**
+     * Creates a sliding window minimum tracker with the window initially filled with zeros.
+     * @param window size in values
+     */
+    public static SlidingWindowExtremum minimum(int window)
+    {
+        return new SlidingWindowExtremum(window, false, 0.0);
+    }
+
+    /**
+     * Resets this tracker so that the window contains only the fill value.
+     * @param fillValue for each position of the window
+     */
+    public void reset(double fillValue)
+    {
+        mHead = 0;
+        mSize = 1;
+        mIndex = 0;
+
+        //A single entry for the newest fill value at index -1 represents the full window of fill values
+        mValues[0] = fillValue;
+        mIndices[0] = -1;
+    }
+
+    /**
+     * Adds the value to the window, removing the oldest value, and returns the extreme value of the updated window.
+     *
+     * @param value to add
+     * @return maximum or minimum value of the window, including the new value
+     */
+    public double put(double value)
+    {
+        //Remove the head entry when it falls outside of the window
+        if(mSize > 0 && mIndices[mHead] <= mIndex - mWindow)
+        {
+            mHead = (mHead + 1) % mWindow;
+            mSize--;
+        }
+
+        //Remove tail entries that can never be the extreme value while the new value is in the window
+        while(mSize > 0)
+        {
+            int tail = (mHead + mSize - 1) % mWindow;
+
+            if(mMaximum ? mValues[tail] <= value : mValues[tail] >= value)
+            {
+                mSize--;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        int tail = (mHead + mSize) % mWindow;
+        mValues[tail] = value;
+        mIndices[tail] = mIndex++;
+        mSize++;
+
+        return mValues[mHead];
+    }
+
+    /**
+     * Current maximum or minimum value of the window
+     */
+    public double get()
+    {
+        return mValues[mHead];
+    }
+
+    /**
+     * Window size
+     */
+    public int getWindow()
+    {
+        return mWindow;
+    }
+
+    /**
+     * Indicates if this instance tracks the maximum (true) or the minimum (false) value
+     */
+    public boolean isMaximum()
+    {
+        return mMaximum;
+    }
+}
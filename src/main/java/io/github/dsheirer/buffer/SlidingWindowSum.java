@@ -0,0 +1,111 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.buffer;
+
+import java.util.Arrays;
+
+/**
+ * Running sum of the most recent window of values in constant amortized time per value.
+ *
+ * The running sum is updated incrementally by adding the new value and subtracting the value that leaves the window.
+ * To prevent the rounding error of repeated add/subtract operations from accumulating indefinitely, the sum is
+ * recalculated from the window contents each time the window wraps, which costs one addition per value on average.
+ */
+public class SlidingWindowSum
+{
+    private double[] mBuffer;
+    private int mBufferPointer;
+    private double mSum;
+
+    /**
+     * Constructs an instance with the window initially filled with zeros.
+     * @param window size in values
+     */
+    public SlidingWindowSum(int window)
+    {
+        if(window < 1)
+        {
+            throw new IllegalArgumentException("Window size must be greater than zero");
+        }
+
+        mBuffer = new double[window];
+    }
+
+    /**
+     * Adds the value to the window, removing the oldest value, and returns the sum of the updated window.
+     *
+     * @param value to add
+     * @return sum of the values in the window
+     */
+    public double put(double value)
+    {
+        mSum += value - mBuffer[mBufferPointer];
+        mBuffer[mBufferPointer++] = value;
+
+        if(mBufferPointer >= mBuffer.length)
+        {
+            mBufferPointer = 0;
+
+            double sum = 0.0;
+
+            for(double windowValue: mBuffer)
+            {
+                sum += windowValue;
+            }
+
+            mSum = sum;
+        }
+
+        return mSum;
+    }
+
+    /**
+     * Sum of the values in the window
+     */
+    public double getSum()
+    {
+        return mSum;
+    }
+
+    /**
+     * Average of the values in the window
+     */
+    public double getAverage()
+    {
+        return mSum / mBuffer.length;
+    }
+
+    /**
+     * Window size
+     */
+    public int getWindow()
+    {
+        return mBuffer.length;
+    }
+
+    /**
+     * Resets the window contents and sum to zero
+     */
+    public void reset()
+    {
+        Arrays.fill(mBuffer, 0.0);
+        mBufferPointer = 0;
+        mSum = 0.0;
+    }
+}
@@ -25,6 +25,7 @@ import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.alias.Alias;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.eventbus.MyEventBus;
+import io.github.dsheirer.gui.ModelUpdateScheduler;
 import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.decoder.DecoderLogicalChannelNameIdentifier;
 import io.github.dsheirer.preference.PreferenceType;
@@ -36,10 +37,17 @@ import javax.swing.table.AbstractTableModel;
 import java.awt.EventQueue;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Channel metadata table model.  Row additions, removals and metadata field updates are collected off of the Swing
+ * event dispatch thread and applied in batches at the UI frame rate.  Multiple updates to the same channel metadata
+ * field within a frame are coalesced into a single cell update.
+ */
 public class ChannelMetadataModel extends AbstractTableModel implements IChannelMetadataUpdateListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(ChannelMetadataModel.class);
@@ -57,8 +65,13 @@ public class ChannelMetadataModel extends AbstractTableModel implements IChannel
     private static final String[] COLUMNS = {"Status", "Decoder", "From", "Alias", "To", "Alias", "Channel", "Frequency", "Channel Name"};
 
     private List<ChannelMetadata> mChannelMetadata = new ArrayList();
+    private Map<ChannelMetadata,Integer> mRowIndexMap = new IdentityHashMap<>();
     private Map<ChannelMetadata,Channel> mMetadataChannelMap = new HashMap();
     private Listener<ChannelAndMetadata> mChannelAddListener;
+    private final Object mPendingLock = new Object();
+    private List<Runnable> mPendingOperations = new ArrayList<>();
+    private Map<ChannelMetadata,EnumSet<ChannelMetadataField>> mPendingUpdates = new IdentityHashMap<>();
+    private ModelUpdateScheduler mModelUpdateScheduler = new ModelUpdateScheduler(this::applyPendingChanges);
 
     public ChannelMetadataModel()
     {
@@ -87,6 +100,7 @@ public class ChannelMetadataModel extends AbstractTableModel implements IChannel
     public void dispose()
     {
         MyEventBus.getGlobalEventBus().unregister(this);
+        mModelUpdateScheduler.dispose();
     }
 
     /**
@@ -94,12 +108,8 @@ public class ChannelMetadataModel extends AbstractTableModel implements IChannel
      */
     public int getRow(ChannelMetadata channelMetadata)
     {
-        if(mChannelMetadata.contains(channelMetadata))
-        {
-            return mChannelMetadata.indexOf(channelMetadata);
-        }
-
-        return -1;
+        Integer row = mRowIndexMap.get(channelMetadata);
+        return row != null ? row : -1;
     }
 
     /**
@@ -114,14 +124,18 @@ public class ChannelMetadataModel extends AbstractTableModel implements IChannel
     public void add(ChannelAndMetadata channelAndMetadata)
     {
         //Execute on the swing thread to avoid threading issues
-        EventQueue.invokeLater(() -> {
+        addPendingOperation(() -> {
             for(ChannelMetadata channelMetadata: channelAndMetadata.getChannelMetadata())
             {
-                mChannelMetadata.add(channelMetadata);
-                mMetadataChannelMap.put(channelMetadata, channelAndMetadata.getChannel());
-                int index = mChannelMetadata.indexOf(channelMetadata);
-                fireTableRowsInserted(index, index);
-                channelMetadata.setUpdateEventListener(ChannelMetadataModel.this);
+                if(!mRowIndexMap.containsKey(channelMetadata))
+                {
+                    int index = mChannelMetadata.size();
+                    mChannelMetadata.add(channelMetadata);
+                    mRowIndexMap.put(channelMetadata, index);
+                    mMetadataChannelMap.put(channelMetadata, channelAndMetadata.getChannel());
+                    fireTableRowsInserted(index, index);
+                    channelMetadata.setUpdateEventListener(ChannelMetadataModel.this);
+                }
             }
 
             if(mChannelAddListener != null)
@@ -147,19 +161,76 @@ public class ChannelMetadataModel extends AbstractTableModel implements IChannel
     public void remove(ChannelMetadata channelMetadata)
     {
         //Execute on the swing thread to avoid threading issues
-        EventQueue.invokeLater(() -> {
+        addPendingOperation(() -> {
             channelMetadata.removeUpdateEventListener();
-            int index = mChannelMetadata.indexOf(channelMetadata);
-            mChannelMetadata.remove(channelMetadata);
             mMetadataChannelMap.remove(channelMetadata);
+            Integer index = mRowIndexMap.remove(channelMetadata);
 
-            if(index >= 0)
+            if(index != null)
             {
+                mChannelMetadata.remove((int)index);
+
+                //Update the row index for the rows that follow the removed row
+                for(int row = index; row < mChannelMetadata.size(); row++)
+                {
+                    mRowIndexMap.put(mChannelMetadata.get(row), row);
+                }
+
                 fireTableRowsDeleted(index, index);
             }
         });
     }
 
+    /**
+     * Queues a row addition or removal operation to be applied, in order, on the event dispatch thread at the next
+     * UI frame.
+     */
+    private void addPendingOperation(Runnable operation)
+    {
+        synchronized(mPendingLock)
+        {
+            mPendingOperations.add(operation);
+        }
+
+        mModelUpdateScheduler.requestUpdate();
+    }
+
+    /**
+     * Applies the pending row operations and the coalesced channel metadata field updates.  Invoked on the Swing event
+     * dispatch thread by the model update scheduler.
+     */
+    private void applyPendingChanges()
+    {
+        List<Runnable> operations;
+        Map<ChannelMetadata,EnumSet<ChannelMetadataField>> updates;
+
+        synchronized(mPendingLock)
+        {
+            operations = mPendingOperations;
+            updates = mPendingUpdates;
+            mPendingOperations = new ArrayList<>();
+            mPendingUpdates = new IdentityHashMap<>();
+        }
+
+        for(Runnable operation: operations)
+        {
+            operation.run();
+        }
+
+        for(Map.Entry<ChannelMetadata,EnumSet<ChannelMetadataField>> entry: updates.entrySet())
+        {
+            Integer row = mRowIndexMap.get(entry.getKey());
+
+            if(row != null)
+            {
+                for(ChannelMetadataField field: entry.getValue())
+                {
+                    fireTableCellsUpdated(row, field);
+                }
+            }
+        }
+    }
+
     /**
      * Get the channel metadata at the specified model row index
      */
@@ -274,47 +345,59 @@ public class ChannelMetadataModel extends AbstractTableModel implements IChannel
         return null;
     }
 
+    /**
+     * Fires cell updated events for the table columns that display the channel metadata field
+     */
+    private void fireTableCellsUpdated(int row, ChannelMetadataField channelMetadataField)
+    {
+        switch(channelMetadataField)
+        {
+            case CONFIGURATION_CHANNEL:
+                fireTableCellUpdated(row, COLUMN_CONFIGURATION_CHANNEL);
+                break;
+            case CONFIGURATION_FREQUENCY:
+                fireTableCellUpdated(row, COLUMN_CONFIGURATION_FREQUENCY);
+                break;
+            case DECODER_CHANNEL_NAME:
+                fireTableCellUpdated(row, COLUMN_DECODER_LOGICAL_CHANNEL_NAME);
+                break;
+            case DECODER_TYPE:
+                fireTableCellUpdated(row, COLUMN_DECODER_TYPE);
+                break;
+            case DECODER_STATE:
+                fireTableCellUpdated(row, COLUMN_DECODER_STATE);
+                break;
+            case USER_FROM:
+                fireTableCellUpdated(row, COLUMN_USER_FROM);
+                fireTableCellUpdated(row, COLUMN_USER_FROM_ALIAS);
+                break;
+            case USER_TO:
+                fireTableCellUpdated(row, COLUMN_USER_TO);
+                fireTableCellUpdated(row, COLUMN_USER_TO_ALIAS);
+                break;
+        }
+    }
+
+    /**
+     * Queues the channel metadata field update to be applied at the next UI frame.  Repeated updates to the same
+     * field before the next frame are coalesced.
+     */
     @Override
     public void updated(ChannelMetadata channelMetadata, ChannelMetadataField channelMetadataField)
     {
-        final int rowIndex = mChannelMetadata.indexOf(channelMetadata);
-
-        if(rowIndex >= 0)
+        synchronized(mPendingLock)
         {
-            //Execute on the swing thread to avoid threading issues
-            EventQueue.invokeLater(new Runnable()
+            EnumSet<ChannelMetadataField> fields = mPendingUpdates.get(channelMetadata);
+
+            if(fields == null)
             {
-                @Override
-                public void run()
-                {
-                    switch(channelMetadataField)
-                    {
-                        case CONFIGURATION_CHANNEL:
-                            fireTableCellUpdated(rowIndex, COLUMN_CONFIGURATION_CHANNEL);
-                            break;
-                        case CONFIGURATION_FREQUENCY:
-                            fireTableCellUpdated(rowIndex, COLUMN_CONFIGURATION_FREQUENCY);
-                            break;
-                        case DECODER_CHANNEL_NAME:
-                            fireTableCellUpdated(rowIndex, COLUMN_DECODER_LOGICAL_CHANNEL_NAME);
-                            break;
-                        case DECODER_TYPE:
-                            fireTableCellUpdated(rowIndex, COLUMN_DECODER_TYPE);
-                            break;
-                        case DECODER_STATE:
-                            fireTableCellUpdated(rowIndex, COLUMN_DECODER_STATE);
-                            break;
-                        case USER_FROM:
-                            fireTableCellUpdated(rowIndex, COLUMN_USER_FROM);
-                            fireTableCellUpdated(rowIndex, COLUMN_USER_FROM_ALIAS);
-                            break;
-                        case USER_TO:
-                            fireTableCellUpdated(rowIndex, COLUMN_USER_TO);
-                            fireTableCellUpdated(rowIndex, COLUMN_USER_TO_ALIAS);
-                            break;
-                    }
-                }
-            });
+                fields = EnumSet.noneOf(ChannelMetadataField.class);
+                mPendingUpdates.put(channelMetadata, fields);
+            }
+
+            fields.add(channelMetadataField);
         }
+
+        mModelUpdateScheduler.requestUpdate();
     }
 }
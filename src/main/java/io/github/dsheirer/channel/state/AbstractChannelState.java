@@ -89,6 +89,11 @@ public abstract class AbstractChannelState extends Module implements IChannelEve
      */
     protected abstract void checkState();
 
+    /**
+     * Indicates if the channel is idle, meaning that the state machine for each timeslot is in the IDLE state.
+     */
+    public abstract boolean isIdle();
+
     public abstract List<ChannelMetadata> getChannelMetadata();
 
     public abstract void updateChannelStateIdentifiers(IdentifierUpdateNotification notification);
@@ -0,0 +1,359 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.channel.state;
+
+import io.github.dsheirer.buffer.SlidingWindowExtremum;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.decode.config.DecodeConfiguration;
+import io.github.dsheirer.module.decode.dmr.DecodeConfigDMR;
+import io.github.dsheirer.module.decode.p25.phase1.DecodeConfigP25Phase1;
+import io.github.dsheirer.record.RecorderType;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.source.config.SourceConfigTuner;
+import io.github.dsheirer.source.heartbeat.Heartbeat;
+import io.github.dsheirer.source.heartbeat.IHeartbeatListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Idle channel hibernation monitor.  Gates the complex sample buffers from the channel source to the processing chain
+ * modules and suspends buffer delivery to the demodulator and decoder modules once the channel state has been idle
+ * for the hibernation delay period.
+ *
+ * While hibernating, the monitor measures the average power of each channel buffer and compares it to the channel
+ * noise floor, measured as the sliding minimum of the buffer powers.  When a buffer exceeds the noise floor by the
+ * threshold, the monitor resumes buffer delivery starting with the preceding buffer so that the decoder modules
+ * receive the signal onset.  The chain resumes within the buffer period that carries the energy.
+ *
+ * The noise floor keeps learning while the channel hibernates, so a weak carrier that stays below the wake threshold
+ * would slowly raise the floor.  The floor that is used for waking is capped at a quiet reference, the noise floor
+ * that was measured when the channel started hibernating, plus a small drift allowance.  The quiet reference is
+ * relearned when the channel wakes and returns to hibernation without becoming active.
+ *
+ * All modules that consume complex sample buffers, and the demodulated audio buffers produced from them, stop
+ * receiving buffers while the channel hibernates.  The channel is held awake while the processing chain has external
+ * demodulated audio listeners, such as the channel spectrum display.
+ *
+ * The idle state is checked on each source heartbeat, which is produced on the same thread as the sample buffers.
+ */
+public class ChannelHibernationMonitor extends Module implements IHeartbeatListener, Listener<ReusableComplexBuffer>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ChannelHibernationMonitor.class);
+
+    //Noise floor window size in buffers
+    private static final int NOISE_FLOOR_WINDOW = 1000;
+    //Minimum number of measured buffers before the noise floor is considered valid
+    private static final int NOISE_FLOOR_MINIMUM_BUFFERS = 50;
+    private static final double MINIMUM_POWER = 1E-12;
+    //Maximum rise in decibels of the wake noise floor above the quiet reference
+    private static final double NOISE_FLOOR_MAXIMUM_DRIFT = 3.0;
+
+    private AbstractChannelState mChannelState;
+    private long mHibernationDelay;
+    private float mThreshold;
+    private Listener<ReusableComplexBuffer> mListener;
+    private Listener<Heartbeat> mHeartbeatListener = heartbeat -> checkIdle();
+    private SlidingWindowExtremum mNoiseFloor = SlidingWindowExtremum.minimum(NOISE_FLOOR_WINDOW);
+    private ReusableComplexBuffer mPreviousBuffer;
+    private int mMeasuredBufferCount;
+    private long mIdleTimestamp;
+    private double mQuietReference = Double.NaN;
+    private boolean mActiveSinceWake = true;
+    private volatile boolean mIdle;
+    private volatile boolean mHibernating;
+    private volatile boolean mHeldAwake;
+
+    /**
+     * Constructs an instance
+     *
+     * @param channelState to monitor for the idle state
+     * @param hibernationDelay in milliseconds of continuous idle state before hibernating
+     * @param threshold in decibels above the noise floor that wakes the channel
+     */
+    public ChannelHibernationMonitor(AbstractChannelState channelState, long hibernationDelay, float threshold)
+    {
+        mChannelState = channelState;
+        mHibernationDelay = hibernationDelay;
+        mThreshold = threshold;
+    }
+
+    /**
+     * Indicates if hibernation is supported for the channel.  Hibernation is limited to standard (non-traffic)
+     * conventional NBFM, DMR and P25 channels with a single tuner frequency that are not recording baseband samples.
+     * Trunked control channels and DMR repeater rest channels are excluded since they allocate traffic channels.
+     */
+    public static boolean isSupported(Channel channel)
+    {
+        if(!channel.isStandardChannel() || !(channel.getSourceConfiguration() instanceof SourceConfigTuner) ||
+            channel.getRecordConfiguration().getRecorders().contains(RecorderType.BASEBAND))
+        {
+            return false;
+        }
+
+        DecodeConfiguration decodeConfiguration = channel.getDecodeConfiguration();
+
+        switch(decodeConfiguration.getDecoderType())
+        {
+            case NBFM:
+            case P25_PHASE2:
+                return true;
+            case P25_PHASE1:
+                return ((DecodeConfigP25Phase1)decodeConfiguration).getTrafficChannelPoolSize() == 0;
+            case DMR:
+                DecodeConfigDMR decodeConfigDMR = (DecodeConfigDMR)decodeConfiguration;
+                return decodeConfigDMR.getTrafficChannelPoolSize() == 0 && decodeConfigDMR.getTimeslotMap().isEmpty();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Sets the listener to receive sample buffers while the channel is not hibernating.
+     */
+    public void setListener(Listener<ReusableComplexBuffer> listener)
+    {
+        mListener = listener;
+    }
+
+    /**
+     * Holds the channel awake while an external listener needs the demodulated output of the channel.  A hibernating
+     * channel wakes on the next source heartbeat.
+     *
+     * @param heldAwake true to prevent hibernation
+     */
+    public void setHeldAwake(boolean heldAwake)
+    {
+        mHeldAwake = heldAwake;
+    }
+
+    /**
+     * Indicates if the channel is currently hibernating.
+     */
+    public boolean isHibernating()
+    {
+        return mHibernating;
+    }
+
+    @Override
+    public Listener<Heartbeat> getHeartbeatListener()
+    {
+        return mHeartbeatListener;
+    }
+
+    /**
+     * Checks the channel state and starts hibernating once the channel has been continuously idle for the
+     * hibernation delay period.
+     */
+    private void checkIdle()
+    {
+        if(mHeldAwake)
+        {
+            mIdle = false;
+
+            if(mHibernating)
+            {
+                wake();
+            }
+        }
+        else if(mChannelState.isIdle())
+        {
+            long now = System.currentTimeMillis();
+
+            if(!mIdle)
+            {
+                mIdle = true;
+                mIdleTimestamp = now;
+            }
+            else if(!mHibernating && mMeasuredBufferCount >= NOISE_FLOOR_MINIMUM_BUFFERS &&
+                (mIdleTimestamp + mHibernationDelay) < now)
+            {
+                hibernate();
+            }
+        }
+        else
+        {
+            mIdle = false;
+            mActiveSinceWake = true;
+
+            if(mHibernating)
+            {
+                wake();
+            }
+        }
+    }
+
+    /**
+     * Suspends delivery of sample buffers to the listener and updates the quiet reference.  The quiet reference is
+     * relearned from the current noise floor when the channel didn't become active since it last woke, otherwise the
+     * lowest noise floor is retained.
+     */
+    private void hibernate()
+    {
+        double noiseFloor = mNoiseFloor.get();
+
+        if(Double.isNaN(mQuietReference) || !mActiveSinceWake)
+        {
+            mQuietReference = noiseFloor;
+        }
+        else
+        {
+            mQuietReference = Math.min(mQuietReference, noiseFloor);
+        }
+
+        mActiveSinceWake = false;
+        mHibernating = true;
+        mLog.debug("Channel [" + mChannelState.getChannel().getName() + "] hibernating - noise floor " +
+            noiseFloor + " dB quiet reference " + mQuietReference + " dB");
+    }
+
+    /**
+     * Noise floor for detecting channel activity while hibernating, capped at the quiet reference plus the maximum
+     * drift so that a persistent signal below the wake threshold can't raise the floor.
+     */
+    private double getWakeNoiseFloor()
+    {
+        return Math.min(mNoiseFloor.get(), mQuietReference + NOISE_FLOOR_MAXIMUM_DRIFT);
+    }
+
+    /**
+     * Resumes delivery of sample buffers to the listener.
+     */
+    private void wake()
+    {
+        mHibernating = false;
+        mIdleTimestamp = System.currentTimeMillis();
+
+        ReusableComplexBuffer previous = mPreviousBuffer;
+        mPreviousBuffer = null;
+
+        if(previous != null)
+        {
+            dispatch(previous);
+        }
+    }
+
+    @Override
+    public void receive(ReusableComplexBuffer buffer)
+    {
+        if(mHibernating)
+        {
+            double power = getPower(buffer);
+
+            if(power > getWakeNoiseFloor() + mThreshold)
+            {
+                wake();
+                dispatch(buffer);
+            }
+            else
+            {
+                mNoiseFloor.put(power);
+
+                if(mPreviousBuffer != null)
+                {
+                    mPreviousBuffer.decrementUserCount();
+                }
+
+                mPreviousBuffer = buffer;
+            }
+        }
+        else
+        {
+            //Only measure the noise floor while the channel is idle
+            if(mIdle)
+            {
+                double power = getPower(buffer);
+
+                if(mMeasuredBufferCount == 0)
+                {
+                    mNoiseFloor.reset(power);
+                }
+
+                mNoiseFloor.put(power);
+                mMeasuredBufferCount++;
+            }
+
+            dispatch(buffer);
+        }
+    }
+
+    /**
+     * Sends the buffer to the listener or disposes of the buffer if there is no listener.
+     */
+    private void dispatch(ReusableComplexBuffer buffer)
+    {
+        Listener<ReusableComplexBuffer> listener = mListener;
+
+        if(listener != null)
+        {
+            listener.receive(buffer);
+        }
+        else
+        {
+            buffer.decrementUserCount();
+        }
+    }
+
+    /**
+     * Calculates the average power of the complex samples in the buffer.
+     * @return power in decibels
+     */
+    public static double getPower(ReusableComplexBuffer buffer)
+    {
+        float[] samples = buffer.getSamples();
+        double accumulator = 0.0;
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            accumulator += samples[x] * samples[x];
+        }
+
+        int sampleCount = buffer.getSampleCount();
+
+        return 10.0 * Math.log10(Math.max(sampleCount > 0 ? accumulator / sampleCount : 0.0, MINIMUM_POWER));
+    }
+
+    @Override
+    public void reset()
+    {
+        mHibernating = false;
+        mIdle = false;
+        mMeasuredBufferCount = 0;
+        mQuietReference = Double.NaN;
+        mActiveSinceWake = true;
+
+        if(mPreviousBuffer != null)
+        {
+            mPreviousBuffer.decrementUserCount();
+            mPreviousBuffer = null;
+        }
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    @Override
+    public void stop()
+    {
+    }
+}
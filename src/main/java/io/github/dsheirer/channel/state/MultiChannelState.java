@@ -21,7 +21,6 @@
  */
 package io.github.dsheirer.channel.state;
 
-import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.audio.squelch.SquelchStateEvent;
 import io.github.dsheirer.channel.metadata.ChannelMetadata;
@@ -40,6 +39,7 @@ import io.github.dsheirer.identifier.configuration.FrequencyConfigurationIdentif
 import io.github.dsheirer.identifier.configuration.SiteConfigurationIdentifier;
 import io.github.dsheirer.identifier.configuration.SystemConfigurationIdentifier;
 import io.github.dsheirer.identifier.decoder.ChannelStateIdentifier;
+import io.github.dsheirer.module.InterModuleEventBus;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.ISourceEventListener;
@@ -143,11 +143,19 @@ public class MultiChannelState extends AbstractChannelState implements IDecoderS
         }
     }
 
+    /**
+     * Subscribes to channel configuration change notifications received over the processing chain event bus.
+     */
+    @Override
+    protected void subscribe(InterModuleEventBus eventBus)
+    {
+        eventBus.subscribe(this, ChannelConfigurationChangeNotification.class, this::channelConfigurationChanged);
+    }
+
     /**
      * Receive notification that the underlying channel configuration has changed.
      * @param notification
      */
-    @Subscribe
     public void channelConfigurationChanged(ChannelConfigurationChangeNotification notification)
     {
         updateChannelConfiguration(notification.getChannel());
@@ -241,6 +249,20 @@ public class MultiChannelState extends AbstractChannelState implements IDecoderS
         }
     }
 
+    @Override
+    public boolean isIdle()
+    {
+        for(StateMachine stateMachine: mStateMachineMap.values())
+        {
+            if(stateMachine.getState() != State.IDLE)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Creates configuration identifiers for the channel name, system, site and alias list name.
      */
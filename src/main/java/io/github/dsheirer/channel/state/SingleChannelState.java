@@ -21,7 +21,6 @@
  */
 package io.github.dsheirer.channel.state;
 
-import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.audio.squelch.SquelchStateEvent;
 import io.github.dsheirer.channel.metadata.ChannelMetadata;
@@ -40,6 +39,7 @@ import io.github.dsheirer.identifier.configuration.FrequencyConfigurationIdentif
 import io.github.dsheirer.identifier.configuration.SiteConfigurationIdentifier;
 import io.github.dsheirer.identifier.configuration.SystemConfigurationIdentifier;
 import io.github.dsheirer.identifier.decoder.ChannelStateIdentifier;
+import io.github.dsheirer.module.InterModuleEventBus;
 import io.github.dsheirer.module.decode.config.DecodeConfiguration;
 import io.github.dsheirer.module.decode.config.WithCallTimeout;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
@@ -137,11 +137,19 @@ public class SingleChannelState extends AbstractChannelState implements IDecoder
         }
     }
 
+    /**
+     * Subscribes to channel configuration change notifications received over the processing chain event bus.
+     */
+    @Override
+    protected void subscribe(InterModuleEventBus eventBus)
+    {
+        eventBus.subscribe(this, ChannelConfigurationChangeNotification.class, this::channelConfigurationChanged);
+    }
+
     /**
      * Receive notification that the underlying channel configuration has changed.
      * @param notification
      */
-    @Subscribe
     public void channelConfigurationChanged(ChannelConfigurationChangeNotification notification)
     {
         updateChannelConfiguration(notification.getChannel());
@@ -184,6 +192,12 @@ public class SingleChannelState extends AbstractChannelState implements IDecoder
         mStateMachine.checkState();
     }
 
+    @Override
+    public boolean isIdle()
+    {
+        return mStateMachine.getState() == State.IDLE;
+    }
+
     @Override
     public void setIdentifierUpdateListener(Listener<IdentifierUpdateNotification> listener)
     {
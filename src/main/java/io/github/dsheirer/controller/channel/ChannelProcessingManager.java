@@ -21,9 +21,9 @@
  */
 package io.github.dsheirer.controller.channel;
 
-import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.channel.state.ChannelHibernationMonitor;
 import io.github.dsheirer.channel.metadata.ChannelAndMetadata;
 import io.github.dsheirer.channel.metadata.ChannelMetadata;
 import io.github.dsheirer.channel.metadata.ChannelMetadataModel;
@@ -35,15 +35,19 @@ import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.IdentifierClass;
 import io.github.dsheirer.identifier.IdentifierUpdateNotification;
 import io.github.dsheirer.identifier.decoder.DecoderLogicalChannelNameIdentifier;
+import io.github.dsheirer.log.jfr.TrafficChannelStartEvent;
 import io.github.dsheirer.module.Module;
 import io.github.dsheirer.module.ProcessingChain;
 import io.github.dsheirer.module.decode.DecoderFactory;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.module.decode.traffic.TrafficChannelManager;
 import io.github.dsheirer.module.log.EventLogManager;
 import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.source.TunerPreference;
 import io.github.dsheirer.record.RecorderFactory;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.SampleType;
 import io.github.dsheirer.source.Source;
 import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.SourceException;
@@ -56,24 +60,43 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Channel processing manager handles all starting and stopping of channel decoding.  A processing chain is created
  * for each channel that is enabled.  The processing chain contains all of the components needed to decode a specific
  * channel and protocol along with all logging and baseband or bitstream recording.  Audio recording is handled outside
  * of this class by the RecorderManager.
+ *
+ * Traffic channels that are managed by a traffic channel manager (e.g. P25 or DMR) are reused for each channel grant.
+ * When a control channel with a traffic channel manager starts, processing chains for the first
+ * MAX_POOLED_TRAFFIC_CHANNELS managed traffic channels are pre-built on a background thread and added to a pool.  When
+ * a managed traffic channel stops, its processing chain is returned to the pool along with its paused tuner channel
+ * source.  The pool holds at most MAX_POOLED_TRAFFIC_CHANNELS chains for each traffic channel manager.  Starting a
+ * pooled traffic channel retunes the paused source to the granted frequency, when the tuner can provide it, and only
+ * wires the per-start loggers and recorders.  Pooled processing chains are disposed when the parent control channel
+ * is stopped.
+ *
+ * Traffic channel start and first audio latency is measured for each channel grant and summarized against the
+ * grant latency target by the traffic channel start statistics.
  */
 public class ChannelProcessingManager implements Listener<ChannelEvent>
 {
     private final static Logger mLog = LoggerFactory.getLogger(ChannelProcessingManager.class);
     private static final String TUNER_UNAVAILABLE_DESCRIPTION = "TUNER UNAVAILABLE";
+    private static final int MAX_POOLED_TRAFFIC_CHANNELS = 4;
     private Map<Channel,ProcessingChain> mProcessingChains = new ConcurrentHashMap<>();
+    private Map<Channel,ProcessingChain> mTrafficChannelChainPool = new LinkedHashMap<>();
+    private Map<Channel,TrafficChannelStartMonitor> mTrafficChannelStartMonitors = new ConcurrentHashMap<>();
+    private TrafficChannelStartStatistics mTrafficChannelStartStatistics = new TrafficChannelStartStatistics();
 
     private List<Listener<AudioSegment>> mAudioSegmentListeners = new CopyOnWriteArrayList<>();
     private List<Listener<IDecodeEvent>> mDecodeEventListeners = new CopyOnWriteArrayList<>();
@@ -116,6 +139,14 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         return mChannelMetadataModel;
     }
 
+    /**
+     * Traffic channel start and first audio latency statistics for the channel grants processed by this manager.
+     */
+    public TrafficChannelStartStatistics getTrafficChannelStartStatistics()
+    {
+        return mTrafficChannelStartStatistics;
+    }
+
     /**
      * Indicates if a processing chain is constructed for the channel and that
      * the processing chain is currently processing.
@@ -247,11 +278,10 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
     }
 
     /**
-     * Request to start processing a channel received over the Guava event bus.
+     * Request to start processing a channel received over a processing chain event bus.
      *
      * Note: since this is received over the event bus, we handle any channel exceptions inside this method.
      */
-    @Subscribe
     public void startChannelRequest(ChannelStartProcessingRequest request)
     {
         if(!isProcessing(request.getChannel()))
@@ -295,21 +325,54 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             return;
         }
 
-        //Ensure that we can get a source before we construct a new processing chain
+        //Reuse a pooled processing chain for managed traffic channels
+        ProcessingChain processingChain = null;
+
+        if(request.getTrafficChannelManager() == null)
+        {
+            processingChain = removePooledTrafficChannel(channel);
+        }
+
+        boolean pooled = processingChain != null;
+        boolean retuned = false;
         Source source = null;
 
-        try
+        //Retune the pooled processing chain's paused tuner channel source to the granted frequency
+        if(pooled && processingChain.getPausedSource() != null)
         {
-            source = mSourceManager.getSource(channel.getSourceConfiguration(),
-                channel.getDecodeConfiguration().getChannelSpecification());
+            if(mSourceManager.retune(processingChain.getPausedSource(), channel.getSourceConfiguration(),
+                channel.getDecodeConfiguration().getChannelSpecification()))
+            {
+                source = processingChain.getPausedSource();
+                retuned = true;
+            }
+            else
+            {
+                processingChain.releasePausedSource();
+            }
         }
-        catch(SourceException se)
+
+        //Ensure that we can get a source before we construct a new processing chain
+        if(source == null)
         {
-            mLog.debug("Error obtaining source for channel [" + channel.getName() + "]", se);
+            try
+            {
+                source = mSourceManager.getSource(channel.getSourceConfiguration(),
+                    channel.getDecodeConfiguration().getChannelSpecification());
+            }
+            catch(SourceException se)
+            {
+                mLog.debug("Error obtaining source for channel [" + channel.getName() + "]", se);
+            }
         }
 
         if(source == null)
         {
+            if(pooled)
+            {
+                disposeProcessingChain(processingChain);
+            }
+
             //This has to be done on the FX event thread when the playlist editor is constructed
             Platform.runLater(() -> channel.setProcessing(false));
 
@@ -319,7 +382,10 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             throw new ChannelException("No Tuner Available");
         }
 
-        ProcessingChain processingChain = new ProcessingChain(channel, mAliasModel);
+        if(processingChain == null)
+        {
+            processingChain = createProcessingChain(channel, request.getTrafficChannelManager());
+        }
 
         //Certain decoders aggregate the decode events in the parent channel that also includes any events produced
         //by the traffic channels.  Establish listener registration depending on if this channel is a traffic channel
@@ -334,11 +400,140 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             request.getChildDecodeEventHistory().addListener(processingChain.getDecodeEventHistory());
         }
 
-        //Register to receive event bus requests/notifications
-        processingChain.getEventBus().register(ChannelProcessingManager.this);
-
         mChannelEventBroadcaster.addListener(processingChain);
 
+        //Register channel to receive frequency correction events to show in the spectral display (hack!)
+        processingChain.addFrequencyChangeListener(channel);
+
+        //Post preload data from the request to the event bus.  Modules that can handle preload data will subscribe
+        //to receive each specific preload data content class.
+        for(PreloadDataContent preloadDataContent: request.getPreloadDataContents())
+        {
+            processingChain.getEventBus().post(preloadDataContent);
+        }
+
+        //Setup event logging
+        List<Module> loggers = mEventLogManager.getLoggers(channel);
+
+        if(!loggers.isEmpty())
+        {
+            processingChain.addModules(loggers);
+        }
+
+        //Add recorders
+        processingChain.addModules(RecorderFactory.getRecorders(mUserPreferences, channel));
+
+        //Set the samples source
+        processingChain.setSource(source);
+
+        //Hibernate the decoder modules of idle conventional channels while watching the channel power for activity
+        TunerPreference tunerPreference = mUserPreferences.getTunerPreference();
+
+        if(tunerPreference.isHibernationEnabled() && source.getSampleType() == SampleType.COMPLEX &&
+            ChannelHibernationMonitor.isSupported(channel))
+        {
+            processingChain.setHibernationMonitor(new ChannelHibernationMonitor(processingChain.getChannelState(),
+                tunerPreference.getHibernationDelay(), tunerPreference.getHibernationThreshold()));
+        }
+
+        //Inject the channel identifier for traffic channels and preload user identifiers
+        if(channel.isTrafficChannel())
+        {
+            if(request.hasChannelDescriptor() && request.hasIdentifierCollection())
+            {
+                for(int timeslot = 0; timeslot < request.getChannelDescriptor().getTimeslotCount(); timeslot++)
+                {
+                    DecoderLogicalChannelNameIdentifier identifier =
+                        DecoderLogicalChannelNameIdentifier.create(request.getChannelDescriptor().toString(),
+                            request.getChannelDescriptor().getProtocol());
+                    IdentifierUpdateNotification notification = new IdentifierUpdateNotification(identifier,
+                        IdentifierUpdateNotification.Operation.ADD, timeslot);
+                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+
+                    //Inject scramble parameters
+                    for(Identifier scrambleParameters: request.getIdentifierCollection()
+                        .getIdentifiers(Form.SCRAMBLE_PARAMETERS))
+                    {
+                        //Broadcast scramble parameters to both timeslots
+                        IdentifierUpdateNotification scrambleNotification = new IdentifierUpdateNotification(scrambleParameters,
+                            IdentifierUpdateNotification.Operation.ADD, timeslot);
+                        processingChain.getChannelState().updateChannelStateIdentifiers(scrambleNotification);
+                    }
+                }
+            }
+
+            for(Identifier userIdentifier : request.getIdentifierCollection().getIdentifiers(IdentifierClass.USER))
+            {
+                if(request.getChannelDescriptor().getTimeslotCount() > 1)
+                {
+                    //Only broadcast an identifier update for the timeslot specified in the originating collection
+                    IdentifierUpdateNotification notification = new IdentifierUpdateNotification(userIdentifier,
+                        IdentifierUpdateNotification.Operation.ADD, request.getIdentifierCollection().getTimeslot());
+                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                }
+                else
+                {
+                    //Only broadcast an identifier update for the timeslot specified in the originating collection
+                    IdentifierUpdateNotification notification = new IdentifierUpdateNotification(userIdentifier,
+                        IdentifierUpdateNotification.Operation.ADD, 0);
+                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                }
+            }
+
+        }
+
+        //Register the start monitor before starting so that it can't miss the first audio segment
+        TrafficChannelStartMonitor monitor = null;
+
+        if(channel.isTrafficChannel())
+        {
+            monitor = new TrafficChannelStartMonitor(channel, request.getCreationTime(), pooled, retuned);
+            mTrafficChannelStartMonitors.put(channel, monitor);
+            processingChain.addAudioSegmentListener(monitor);
+        }
+
+        mProcessingChains.put(channel, processingChain);
+        processingChain.start();
+
+        if(monitor != null)
+        {
+            monitor.started();
+        }
+        else
+        {
+            for(Module module: processingChain.getModules())
+            {
+                if(module instanceof TrafficChannelManager)
+                {
+                    prebuildTrafficChannels(channel, processingChain, (TrafficChannelManager)module);
+                }
+            }
+        }
+
+        //This has to be done on the FX event thread when the playlist editor is constructed
+        Platform.runLater(() -> channel.setProcessing(true));
+
+        getChannelMetadataModel().add(new ChannelAndMetadata(channel, processingChain.getChannelState().getChannelMetadata()));
+
+        mChannelEventBroadcaster.broadcast(new ChannelEvent(channel, ChannelEvent.Event.NOTIFICATION_PROCESSING_START));
+    }
+
+    /**
+     * Constructs a processing chain for the channel with the decoder modules and the global listeners.  Per-start
+     * details, like the sample source, event loggers and recorders are added when the channel is started.
+     *
+     * @param channel for the processing chain
+     * @param trafficChannelManager (optional) to use for the processing chain
+     * @return constructed processing chain
+     */
+    private ProcessingChain createProcessingChain(Channel channel, TrafficChannelManager trafficChannelManager)
+    {
+        ProcessingChain processingChain = new ProcessingChain(channel, mAliasModel);
+
+        //Register to receive event bus requests/notifications
+        processingChain.getEventBus().subscribe(this, ChannelStartProcessingRequest.class, this::startChannelRequest);
+        processingChain.getEventBus().subscribe(this, ChannelConversionRequest.class, this::convertToTrafficChannel);
+
         /* Register global listeners */
         for(Listener<AudioSegment> listener : mAudioSegmentListeners)
         {
@@ -387,90 +582,209 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         //the processing chain
         processingChain.addChannelEventListener(this);
 
-        //Register channel to receive frequency correction events to show in the spectral display (hack!)
-        processingChain.addFrequencyChangeListener(channel);
-
         /* Processing Modules */
         List<Module> modules = DecoderFactory.getModules(mChannelMapModel, channel, mAliasModel, mUserPreferences,
-            request.getTrafficChannelManager());
+            trafficChannelManager);
         processingChain.addModules(modules);
 
-        //Post preload data from the request to the event bus.  Modules that can handle preload data will annotate
-        //their processor method with @Subscribe to receive each specific preload data content class.
-        for(PreloadDataContent preloadDataContent: request.getPreloadDataContents())
+        return processingChain;
+    }
+
+    /**
+     * Removes the pooled processing chain for the traffic channel.
+     * @param channel for the traffic channel
+     * @return pooled processing chain or null
+     */
+    private ProcessingChain removePooledTrafficChannel(Channel channel)
+    {
+        synchronized(mTrafficChannelChainPool)
         {
-            processingChain.getEventBus().post(preloadDataContent);
+            return mTrafficChannelChainPool.remove(channel);
         }
+    }
 
-        //Setup event logging
-        List<Module> loggers = mEventLogManager.getLoggers(channel);
+    /**
+     * Returns the stopped processing chain for a managed traffic channel to the pool.  When the pool already holds the
+     * maximum number of processing chains for the traffic channel manager, the longest pooled chain is disposed.
+     *
+     * @param channel for the traffic channel
+     * @param processingChain that was stopped
+     * @param trafficChannelManager that manages the traffic channel
+     * @return true if the processing chain was pooled
+     */
+    private boolean poolTrafficChannel(Channel channel, ProcessingChain processingChain,
+                                       TrafficChannelManager trafficChannelManager)
+    {
+        List<Channel> managedChannels = trafficChannelManager.getManagedTrafficChannels();
+        List<ProcessingChain> evicted = new ArrayList<>();
 
-        if(!loggers.isEmpty())
+        synchronized(mTrafficChannelChainPool)
         {
-            processingChain.addModules(loggers);
+            if(mTrafficChannelChainPool.containsKey(channel))
+            {
+                return false;
+            }
+
+            int count = 0;
+
+            for(Channel pooledChannel: mTrafficChannelChainPool.keySet())
+            {
+                if(managedChannels.contains(pooledChannel))
+                {
+                    count++;
+                }
+            }
+
+            Iterator<Map.Entry<Channel,ProcessingChain>> it = mTrafficChannelChainPool.entrySet().iterator();
+
+            while(count >= MAX_POOLED_TRAFFIC_CHANNELS && it.hasNext())
+            {
+                Map.Entry<Channel,ProcessingChain> entry = it.next();
+
+                if(managedChannels.contains(entry.getKey()))
+                {
+                    evicted.add(entry.getValue());
+                    it.remove();
+                    count--;
+                }
+            }
+
+            mTrafficChannelChainPool.put(channel, processingChain);
         }
 
-        //Add recorders
-        processingChain.addModules(RecorderFactory.getRecorders(mUserPreferences, channel));
+        for(ProcessingChain evictedChain: evicted)
+        {
+            disposeProcessingChain(evictedChain);
+        }
 
-        //Set the samples source
-        processingChain.setSource(source);
+        return true;
+    }
 
-        //Inject the channel identifier for traffic channels and preload user identifiers
-        if(channel.isTrafficChannel())
+    /**
+     * Pre-builds processing chains for up to MAX_POOLED_TRAFFIC_CHANNELS of the traffic channels managed by the
+     * traffic channel manager so that the first channel grants don't incur the cost of constructing the processing
+     * chain.  Processing chains are constructed on a background thread and only added to the pool while the parent
+     * control channel is still processing.  The traffic channel managers allocate traffic channels in managed order
+     * and reuse the most recently returned channel first, so the pre-built channels are the first to be allocated.
+     *
+     * @param parentChannel for the control channel
+     * @param parentProcessingChain that contains the traffic channel manager
+     * @param trafficChannelManager with managed traffic channels
+     */
+    private void prebuildTrafficChannels(Channel parentChannel, ProcessingChain parentProcessingChain,
+                                         TrafficChannelManager trafficChannelManager)
+    {
+        List<Channel> trafficChannels = trafficChannelManager.getManagedTrafficChannels();
+
+        if(trafficChannels.isEmpty())
         {
-            if(request.hasChannelDescriptor() && request.hasIdentifierCollection())
+            return;
+        }
+
+        ThreadPool.SCHEDULED.submit(() -> {
+            int count = 0;
+
+            for(Channel trafficChannel: trafficChannels)
             {
-                for(int timeslot = 0; timeslot < request.getChannelDescriptor().getTimeslotCount(); timeslot++)
+                if(count >= MAX_POOLED_TRAFFIC_CHANNELS || mProcessingChains.get(parentChannel) != parentProcessingChain)
                 {
-                    DecoderLogicalChannelNameIdentifier identifier =
-                        DecoderLogicalChannelNameIdentifier.create(request.getChannelDescriptor().toString(),
-                            request.getChannelDescriptor().getProtocol());
-                    IdentifierUpdateNotification notification = new IdentifierUpdateNotification(identifier,
-                        IdentifierUpdateNotification.Operation.ADD, timeslot);
-                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                    return;
+                }
 
-                    //Inject scramble parameters
-                    for(Identifier scrambleParameters: request.getIdentifierCollection()
-                        .getIdentifiers(Form.SCRAMBLE_PARAMETERS))
+                try
+                {
+                    ProcessingChain processingChain = createProcessingChain(trafficChannel, null);
+                    boolean pooled = false;
+
+                    //The parent control channel removes its processing chain before it releases the pooled chains,
+                    //so checking the parent under the pool lock can't leave a pre-built chain behind
+                    synchronized(mTrafficChannelChainPool)
                     {
-                        //Broadcast scramble parameters to both timeslots
-                        IdentifierUpdateNotification scrambleNotification = new IdentifierUpdateNotification(scrambleParameters,
-                            IdentifierUpdateNotification.Operation.ADD, timeslot);
-                        processingChain.getChannelState().updateChannelStateIdentifiers(scrambleNotification);
+                        if(mProcessingChains.get(parentChannel) == parentProcessingChain &&
+                            !mProcessingChains.containsKey(trafficChannel) &&
+                            !mTrafficChannelChainPool.containsKey(trafficChannel))
+                        {
+                            mTrafficChannelChainPool.put(trafficChannel, processingChain);
+                            pooled = true;
+                        }
                     }
-                }
-            }
 
-            for(Identifier userIdentifier : request.getIdentifierCollection().getIdentifiers(IdentifierClass.USER))
-            {
-                if(request.getChannelDescriptor().getTimeslotCount() > 1)
-                {
-                    //Only broadcast an identifier update for the timeslot specified in the originating collection
-                    IdentifierUpdateNotification notification = new IdentifierUpdateNotification(userIdentifier,
-                        IdentifierUpdateNotification.Operation.ADD, request.getIdentifierCollection().getTimeslot());
-                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                    if(!pooled)
+                    {
+                        disposeProcessingChain(processingChain);
+                    }
                 }
-                else
+                catch(Exception e)
                 {
-                    //Only broadcast an identifier update for the timeslot specified in the originating collection
-                    IdentifierUpdateNotification notification = new IdentifierUpdateNotification(userIdentifier,
-                        IdentifierUpdateNotification.Operation.ADD, 0);
-                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                    mLog.error("Error pre-building processing chain for traffic channel", e);
                 }
+
+                count++;
             }
+        });
+    }
+
+    /**
+     * Removes and disposes any pooled processing chains for the traffic channels managed by the traffic channel manager.
+     * @param trafficChannelManager with managed traffic channels
+     */
+    private void releasePooledTrafficChannels(TrafficChannelManager trafficChannelManager)
+    {
+        for(Channel trafficChannel: trafficChannelManager.getManagedTrafficChannels())
+        {
+            ProcessingChain processingChain = removePooledTrafficChannel(trafficChannel);
 
+            if(processingChain != null)
+            {
+                disposeProcessingChain(processingChain);
+            }
         }
+    }
 
-        mProcessingChains.put(channel, processingChain);
-        processingChain.start();
+    /**
+     * Identifies the traffic channel manager that can reuse the processing chain for the channel.  The channel must be a
+     * traffic channel that is managed by a currently processing traffic channel manager and the processing chain must
+     * have been constructed for that channel, excluding standard channels that were converted to a traffic channel.
+     *
+     * @return traffic channel manager or null if the processing chain can't be pooled
+     */
+    private TrafficChannelManager getPoolingTrafficChannelManager(Channel channel, ProcessingChain processingChain)
+    {
+        if(!channel.isTrafficChannel() || !channel.equals(processingChain.getChannel()))
+        {
+            return null;
+        }
 
-        //This has to be done on the FX event thread when the playlist editor is constructed
-        Platform.runLater(() -> channel.setProcessing(true));
+        for(Module module: processingChain.getModules())
+        {
+            if(module instanceof TrafficChannelManager)
+            {
+                return null;
+            }
+        }
 
-        getChannelMetadataModel().add(new ChannelAndMetadata(channel, processingChain.getChannelState().getChannelMetadata()));
+        for(ProcessingChain parent: mProcessingChains.values())
+        {
+            for(Module module: parent.getModules())
+            {
+                if(module instanceof TrafficChannelManager &&
+                    ((TrafficChannelManager)module).getManagedTrafficChannels().contains(channel))
+                {
+                    return (TrafficChannelManager)module;
+                }
+            }
+        }
 
-        mChannelEventBroadcaster.broadcast(new ChannelEvent(channel, ChannelEvent.Event.NOTIFICATION_PROCESSING_START));
+        return null;
+    }
+
+    /**
+     * Unregisters this manager from the processing chain and disposes the processing chain.
+     */
+    private void disposeProcessingChain(ProcessingChain processingChain)
+    {
+        processingChain.getEventBus().unsubscribe(this);
+        processingChain.dispose();
     }
 
     /**
@@ -492,7 +806,27 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
                 getChannelMetadataModel().remove(channelMetadata);
             }
 
-            processingChain.stop();
+            TrafficChannelStartMonitor monitor = mTrafficChannelStartMonitors.remove(channel);
+
+            if(monitor != null)
+            {
+                processingChain.removeAudioSegmentListener(monitor);
+                monitor.commit(false, 0);
+            }
+
+            //Managed traffic channels pause their tuner channel source so that it can be retuned for the next grant
+            TrafficChannelManager poolingManager = getPoolingTrafficChannelManager(channel, processingChain);
+
+            processingChain.stop(poolingManager != null);
+
+            //Release pooled traffic channel processing chains that are managed by this channel
+            for(Module module: processingChain.getModules())
+            {
+                if(module instanceof TrafficChannelManager)
+                {
+                    releasePooledTrafficChannels((TrafficChannelManager)module);
+                }
+            }
 
             processingChain.removeEventLoggingModules();
             processingChain.removeRecordingModules();
@@ -501,12 +835,18 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             processingChain.removeFrequencyChangeListener(channel);
             channel.resetFrequencyCorrection();
 
+            //Return managed traffic channel processing chains to the pool for reuse before the traffic channel
+            //manager is notified that the channel is available
+            boolean pooled = poolingManager != null && poolTrafficChannel(channel, processingChain, poolingManager);
+
             mChannelEventBroadcaster.broadcast(new ChannelEvent(channel, ChannelEvent.Event.NOTIFICATION_PROCESSING_STOP));
             mChannelEventBroadcaster.removeListener(processingChain);
 
-            //Unregister for event bus requests and notifications
-            processingChain.getEventBus().unregister(ChannelProcessingManager.this);
-            processingChain.dispose();
+            if(!pooled)
+            {
+                //Unregister for event bus requests and notifications
+                disposeProcessingChain(processingChain);
+            }
         }
         else
         {
@@ -540,13 +880,30 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
                 mLog.error("Error stopping channel [" + channel.getName() + "] - " + ce.getMessage());
             }
         }
+
+        List<ProcessingChain> pooledChains;
+
+        synchronized(mTrafficChannelChainPool)
+        {
+            pooledChains = new ArrayList<>(mTrafficChannelChainPool.values());
+            mTrafficChannelChainPool.clear();
+        }
+
+        for(ProcessingChain processingChain: pooledChains)
+        {
+            disposeProcessingChain(processingChain);
+        }
+
+        if(mTrafficChannelStartStatistics.getCount() > 0)
+        {
+            mLog.info(mTrafficChannelStartStatistics.toString());
+        }
     }
 
     /**
      * Process a request to convert a currently processing standard channel type to a traffic channel type.
      * @param request from the currently processing channel's processing chain event bus
      */
-    @Subscribe
     public void convertToTrafficChannel(ChannelConversionRequest request)
     {
         //Update the channel to processing chain map.
@@ -653,4 +1010,94 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             }
         }
     }
+
+    /**
+     * Monitors a started traffic channel for the first audio segment to measure the elapsed time from the channel
+     * start request (ie channel grant) until the channel produces audio.  Latency is recorded as a flight recorder
+     * event, logged at debug level and added to the traffic channel start statistics.
+     */
+    public class TrafficChannelStartMonitor implements Listener<AudioSegment>
+    {
+        private Channel mChannel;
+        private long mRequestTime;
+        private long mStartLatency;
+        private boolean mPooled;
+        private boolean mRetuned;
+        private AtomicBoolean mCommitted = new AtomicBoolean();
+
+        /**
+         * Constructs an instance
+         * @param channel that was started
+         * @param requestTime for the channel start request in nanoseconds
+         * @param pooled indicates if the channel was started with a pooled processing chain
+         * @param retuned indicates if the pooled processing chain's tuner channel source was retuned
+         */
+        public TrafficChannelStartMonitor(Channel channel, long requestTime, boolean pooled, boolean retuned)
+        {
+            mChannel = channel;
+            mRequestTime = requestTime;
+            mPooled = pooled;
+            mRetuned = retuned;
+        }
+
+        /**
+         * Records the start latency once the processing chain has started.
+         */
+        public void started()
+        {
+            mStartLatency = System.nanoTime() - mRequestTime;
+        }
+
+        @Override
+        public void receive(AudioSegment audioSegment)
+        {
+            audioSegment.decrementConsumerCount();
+
+            if(!mCommitted.get())
+            {
+                commit(true, System.nanoTime() - mRequestTime);
+            }
+        }
+
+        /**
+         * Records the traffic channel start latency.  Only the first invocation is recorded.
+         * @param audio indicates if the channel produced audio
+         * @param firstAudioLatency in nanoseconds
+         */
+        public void commit(boolean audio, long firstAudioLatency)
+        {
+            if(mCommitted.compareAndSet(false, true))
+            {
+                long frequency = 0;
+
+                if(mChannel.getSourceConfiguration() instanceof SourceConfigTuner)
+                {
+                    frequency = ((SourceConfigTuner)mChannel.getSourceConfiguration()).getFrequency();
+                }
+
+                mTrafficChannelStartStatistics.add(mPooled, mStartLatency, audio, firstAudioLatency);
+
+                TrafficChannelStartEvent event = new TrafficChannelStartEvent();
+
+                if(event.shouldCommit())
+                {
+                    event.channel = mChannel.getName();
+                    event.frequency = frequency;
+                    event.pooled = mPooled;
+                    event.retuned = mRetuned;
+                    event.startLatency = mStartLatency;
+                    event.audio = audio;
+                    event.firstAudioLatency = firstAudioLatency;
+                    event.commit();
+                }
+
+                if(audio && mLog.isDebugEnabled())
+                {
+                    mLog.debug("Traffic channel [" + frequency + "] " + (mPooled ? (mRetuned ? "pooled/retuned" : "pooled") : "new") +
+                        " processing chain - start latency [" + TimeUnit.NANOSECONDS.toMillis(mStartLatency) +
+                        " ms] first audio latency [" + TimeUnit.NANOSECONDS.toMillis(firstAudioLatency) + " ms]");
+                }
+            }
+        }
+    }
 }
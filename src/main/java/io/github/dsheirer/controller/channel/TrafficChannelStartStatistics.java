@@ -0,0 +1,141 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.controller.channel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates traffic channel start latency statistics, measured from the channel start request (ie channel grant)
+ * until the traffic channel processing chain is started and until the traffic channel produces the first audio
+ * segment.  Start latency is compared against the START_LATENCY_TARGET_MS target.  First audio latency also includes
+ * the time required to receive and decode the first voice frames from the air interface.
+ */
+public class TrafficChannelStartStatistics
+{
+    public static final long START_LATENCY_TARGET_MS = 50;
+    private static final long START_LATENCY_TARGET_NS = TimeUnit.MILLISECONDS.toNanos(START_LATENCY_TARGET_MS);
+
+    private int mCount;
+    private int mPooledCount;
+    private int mOverTargetCount;
+    private long mStartLatencyTotal;
+    private long mStartLatencyMax;
+    private long mPooledStartLatencyTotal;
+    private int mAudioCount;
+    private long mFirstAudioLatencyTotal;
+    private long mFirstAudioLatencyMax;
+
+    /**
+     * Adds a traffic channel start measurement
+     * @param pooled indicates if the channel was started with a pooled processing chain
+     * @param startLatency in nanoseconds from the channel start request until the processing chain was started
+     * @param audio indicates if the channel produced audio
+     * @param firstAudioLatency in nanoseconds from the channel start request until the first audio segment
+     */
+    public synchronized void add(boolean pooled, long startLatency, boolean audio, long firstAudioLatency)
+    {
+        mCount++;
+        mStartLatencyTotal += startLatency;
+        mStartLatencyMax = Math.max(mStartLatencyMax, startLatency);
+
+        if(pooled)
+        {
+            mPooledCount++;
+            mPooledStartLatencyTotal += startLatency;
+        }
+
+        if(startLatency > START_LATENCY_TARGET_NS)
+        {
+            mOverTargetCount++;
+        }
+
+        if(audio)
+        {
+            mAudioCount++;
+            mFirstAudioLatencyTotal += firstAudioLatency;
+            mFirstAudioLatencyMax = Math.max(mFirstAudioLatencyMax, firstAudioLatency);
+        }
+    }
+
+    /**
+     * Number of traffic channel starts
+     */
+    public synchronized int getCount()
+    {
+        return mCount;
+    }
+
+    /**
+     * Number of traffic channel starts that used a pooled processing chain
+     */
+    public synchronized int getPooledCount()
+    {
+        return mPooledCount;
+    }
+
+    /**
+     * Number of traffic channel starts where the start latency exceeded the START_LATENCY_TARGET_MS target
+     */
+    public synchronized int getOverTargetCount()
+    {
+        return mOverTargetCount;
+    }
+
+    /**
+     * Average start latency in milliseconds for traffic channels started with a pooled processing chain
+     */
+    public synchronized double getPooledStartLatencyAverage()
+    {
+        return average(mPooledStartLatencyTotal, mPooledCount);
+    }
+
+    /**
+     * Average start latency in milliseconds for traffic channels started with a new processing chain
+     */
+    public synchronized double getNewStartLatencyAverage()
+    {
+        return average(mStartLatencyTotal - mPooledStartLatencyTotal, mCount - mPooledCount);
+    }
+
+    /**
+     * Average first audio latency in milliseconds for traffic channels that produced audio
+     */
+    public synchronized double getFirstAudioLatencyAverage()
+    {
+        return average(mFirstAudioLatencyTotal, mAudioCount);
+    }
+
+    /**
+     * Average of the nanosecond total in milliseconds
+     */
+    private static double average(long total, int count)
+    {
+        return count > 0 ? total / (double)count / 1E6 : 0.0;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return String.format("Traffic channel starts [%d] pooled [%d] - start latency avg new [%.1f ms] " +
+                "avg pooled [%.1f ms] max [%.1f ms] over %d ms target [%d] - first audio [%d] latency avg [%.1f ms] " +
+                "max [%.1f ms]", mCount, mPooledCount, getNewStartLatencyAverage(), getPooledStartLatencyAverage(),
+            mStartLatencyMax / 1E6, START_LATENCY_TARGET_MS, mOverTargetCount, mAudioCount,
+            getFirstAudioLatencyAverage(), mFirstAudioLatencyMax / 1E6);
+    }
+}
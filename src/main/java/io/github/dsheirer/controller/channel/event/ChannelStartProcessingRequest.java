@@ -42,6 +42,7 @@ public class ChannelStartProcessingRequest extends ModuleEventBusMessage
     private DecodeEventHistory mParentDecodeEventHistory;
     private DecodeEventHistory mChildDecodeEventHistory;
     private boolean mPersistentAttempt;
+    private final long mCreationTime = System.nanoTime();
 
     /**
      * Constructs an instance
@@ -109,6 +110,15 @@ public class ChannelStartProcessingRequest extends ModuleEventBusMessage
         return mPersistentAttempt;
     }
 
+    /**
+     * Creation time of this request, used to measure channel start latency.
+     * @return creation timestamp in nanoseconds from System.nanoTime().
+     */
+    public long getCreationTime()
+    {
+        return mCreationTime;
+    }
+
     /**
      * Channel to start processing
      * @return channel to start
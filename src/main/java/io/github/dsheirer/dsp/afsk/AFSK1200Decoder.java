@@ -21,7 +21,7 @@ package io.github.dsheirer.dsp.afsk;
 
 import io.github.dsheirer.bits.IBinarySymbolProcessor;
 import io.github.dsheirer.buffer.FloatAveragingBuffer;
-import io.github.dsheirer.dsp.filter.resample.RealResampler;
+import io.github.dsheirer.dsp.filter.resample.PolyphaseResampler;
 import io.github.dsheirer.dsp.mixer.IOscillator;
 import io.github.dsheirer.dsp.mixer.Oscillator;
 import io.github.dsheirer.sample.Listener;
@@ -71,7 +71,7 @@ public class AFSK1200Decoder implements Listener<ReusableFloatBuffer>
     private boolean mSampleDecision;
 
     //Resample to an integral of the baud rate 1200 baud * 6 samples per symbol = 7200.0 Hertz
-    private RealResampler mResampler = new RealResampler(8000.0, SAMPLE_RATE, 2000, 1);
+    private PolyphaseResampler mResampler = new PolyphaseResampler(8000.0, SAMPLE_RATE);
 
     /**
      * Constructs a decoder using the provided arguments.
@@ -0,0 +1,99 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.afsk;
+
+import io.github.dsheirer.bits.IBinarySymbolProcessor;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * AFSK 1200-baud decoder that is shared by several protocol decoders processing the same demodulated audio.  The
+ * incoming audio is resampled, correlated and symbol timed once and each decoded symbol is distributed to all of the
+ * registered symbol processors, in normal or inverted form as requested by each processor.
+ */
+public class SharedAFSK1200Decoder extends AFSK1200Decoder
+{
+    private CopyOnWriteArrayList<SymbolOutput> mSymbolOutputs = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs an instance
+     */
+    public SharedAFSK1200Decoder()
+    {
+        super(Output.NORMAL);
+    }
+
+    /**
+     * Adds the symbol processor to receive decoded symbols.
+     *
+     * @param binarySymbolProcessor to receive symbols
+     * @param output NORMAL: 1200Hz = Mark(1) and 1800Hz = Space(0), or INVERTED (vice-versa)
+     */
+    public void addSymbolProcessor(IBinarySymbolProcessor binarySymbolProcessor, Output output)
+    {
+        mSymbolOutputs.add(new SymbolOutput(binarySymbolProcessor, output == Output.NORMAL));
+    }
+
+    /**
+     * Removes the symbol processor from receiving decoded symbols
+     */
+    public void removeSymbolProcessor(IBinarySymbolProcessor binarySymbolProcessor)
+    {
+        mSymbolOutputs.removeIf(symbolOutput -> symbolOutput.mBinarySymbolProcessor == binarySymbolProcessor);
+    }
+
+    /**
+     * Number of registered symbol processors
+     */
+    public int getSymbolProcessorCount()
+    {
+        return mSymbolOutputs.size();
+    }
+
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+        mSymbolOutputs.clear();
+    }
+
+    @Override
+    protected void dispatch(boolean symbol)
+    {
+        for(SymbolOutput symbolOutput: mSymbolOutputs)
+        {
+            symbolOutput.mBinarySymbolProcessor.process(symbolOutput.mNormalOutput ? symbol : !symbol);
+        }
+    }
+
+    /**
+     * Symbol processor and the output mode requested by the processor
+     */
+    private static class SymbolOutput
+    {
+        private IBinarySymbolProcessor mBinarySymbolProcessor;
+        private boolean mNormalOutput;
+
+        public SymbolOutput(IBinarySymbolProcessor binarySymbolProcessor, boolean normalOutput)
+        {
+            mBinarySymbolProcessor = binarySymbolProcessor;
+            mNormalOutput = normalOutput;
+        }
+    }
+}
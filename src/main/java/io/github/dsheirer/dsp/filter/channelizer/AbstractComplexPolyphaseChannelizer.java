@@ -28,6 +28,7 @@ import io.github.dsheirer.source.SourceEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -37,10 +38,15 @@ public abstract class AbstractComplexPolyphaseChannelizer implements Listener<Re
     private ReusableChannelResultsBufferQueue mBufferQueue = new ReusableChannelResultsBufferQueue("AbstractComplexPolyphaseChannelizer");
     private Broadcaster<SourceEvent> mSourceChangeBroadcaster = new Broadcaster();
     private List<PolyphaseChannelSource> mChannels = new CopyOnWriteArrayList<>();
+    private List<ChannelPowerMonitor> mPowerMonitors = new CopyOnWriteArrayList<>();
     private double mSampleRate;
     private int mChannelCount;
     private int mSubChannelCount;
     private double mChannelSampleRate;
+    private Listener<float[]> mSpectrumListener;
+    private int mSpectrumFrameRate;
+    private float[] mSpectrumAccumulator;
+    private int mSpectrumBlockCount;
 
     /**
      * Complex sample polyphase channelizer
@@ -116,6 +122,75 @@ public abstract class AbstractComplexPolyphaseChannelizer implements Listener<Re
         channelResultsBuffer.decrementUserCount();
     }
 
+    /**
+     * Dispatches the processed channel samples to the registered polyphase channel outputs whose polyphase channel
+     * indices were all calculated for the buffer.  Channels that require an index that was not calculated, for example
+     * a channel that was added or moved while the buffer was being processed, do not receive the buffer.
+     *
+     * @param channelResultsBuffer containing an array of an array of I/Q samples per channel
+     * @param calculated flags indexed by polyphase channel index indicating which channels were calculated
+     */
+    protected void dispatch(ReusableChannelResultsBuffer channelResultsBuffer, boolean[] calculated)
+    {
+        for(PolyphaseChannelSource channel : mChannels)
+        {
+            if(isCalculated(channel.getPolyphaseChannelIndices(), calculated))
+            {
+                channelResultsBuffer.incrementUserCount();
+                channel.receiveChannelResults(channelResultsBuffer);
+            }
+        }
+
+        channelResultsBuffer.decrementUserCount();
+    }
+
+    /**
+     * Indicates if all of the indices are flagged as calculated
+     */
+    private static boolean isCalculated(int[] indices, boolean[] calculated)
+    {
+        for(int index: indices)
+        {
+            if(index < 0 || index >= calculated.length || !calculated[index])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Flags the polyphase channel indices that are used by the currently registered channels and power monitors.
+     *
+     * @param active array sized to the channel count that is cleared and then flagged for each active index
+     * @return number of distinct active polyphase channel indices
+     */
+    protected int getActiveChannelIndices(boolean[] active)
+    {
+        Arrays.fill(active, false);
+        int count = 0;
+
+        for(PolyphaseChannelSource channel : mChannels)
+        {
+            for(int index: channel.getPolyphaseChannelIndices())
+            {
+                if(index >= 0 && index < active.length && !active[index])
+                {
+                    active[index] = true;
+                    count++;
+                }
+            }
+        }
+
+        for(ChannelPowerMonitor powerMonitor: mPowerMonitors)
+        {
+            count += powerMonitor.flagActiveIndexes(active);
+        }
+
+        return count;
+    }
+
     /**
      * Adds the polyphase channel source to receive processed output channel samples
      *
@@ -152,6 +227,53 @@ public abstract class AbstractComplexPolyphaseChannelizer implements Listener<Re
         return mChannels.size();
     }
 
+    /**
+     * Adds the power monitor to receive the power of its monitored frequencies from the channelizer outputs.  The
+     * monitor's polyphase channel indexes should be updated for this channelizer before it is added.
+     *
+     * @param powerMonitor to add
+     */
+    public void addPowerMonitor(ChannelPowerMonitor powerMonitor)
+    {
+        if(powerMonitor != null && !mPowerMonitors.contains(powerMonitor))
+        {
+            mPowerMonitors.add(powerMonitor);
+        }
+    }
+
+    /**
+     * Removes the power monitor
+     *
+     * @param powerMonitor to remove
+     */
+    public void removePowerMonitor(ChannelPowerMonitor powerMonitor)
+    {
+        mPowerMonitors.remove(powerMonitor);
+    }
+
+    /**
+     * Number of registered power monitors
+     */
+    public int getPowerMonitorCount()
+    {
+        return mPowerMonitors.size();
+    }
+
+    /**
+     * Updates each of the registered power monitors with a calculated channel results array.  The polyphase channels
+     * used by the power monitors are included in the active channel indices, so the monitored channels are calculated
+     * by both the full and the pruned transforms.
+     *
+     * @param channelResults interleaved I/Q sample for each polyphase channel after the IFFT
+     */
+    protected void updatePowerMonitors(float[] channelResults)
+    {
+        for(ChannelPowerMonitor powerMonitor: mPowerMonitors)
+        {
+            powerMonitor.process(channelResults);
+        }
+    }
+
     /**
      * Creates or reuses a channel results buffer for subclass implementations to use for temporary
      * storage of channel results through distribution and consumption of channel results by
@@ -162,6 +284,89 @@ public abstract class AbstractComplexPolyphaseChannelizer implements Listener<Re
         return mBufferQueue.getBuffer();
     }
 
+    /**
+     * Rate that channel results arrays are produced by this channelizer
+     * @return blocks per second
+     */
+    protected double getOutputBlockRate()
+    {
+        return getChannelSampleRate();
+    }
+
+    /**
+     * Registers a listener to receive a reduced resolution power spectrum that is derived from the (full) channelizer
+     * outputs, with one bin per polyphase channel.  Spectra are produced only while the channelizer is running and
+     * calculating all of the polyphase channels.
+     *
+     * Each spectrum is an interleaved complex array in the same bin order as a forward FFT (DC bin first, followed by
+     * the positive and then the negative frequency channels), where the real component of each bin is scaled so that
+     * the magnitude squared divided by the channel count is the average channel power multiplied by the channel count,
+     * to match the scaling of a forward FFT of the same length.  The imaginary component is zero.
+     *
+     * @param listener to receive spectra, or null to stop producing spectra
+     * @param frameRate spectra per second
+     */
+    public void setSpectrumListener(Listener<float[]> listener, int frameRate)
+    {
+        mSpectrumFrameRate = Math.max(frameRate, 1);
+        mSpectrumListener = listener;
+    }
+
+    /**
+     * Indicates if a spectrum listener is registered
+     */
+    public boolean hasSpectrumListener()
+    {
+        return mSpectrumListener != null;
+    }
+
+    /**
+     * Accumulates the power of each polyphase channel from a fully calculated channel results array and dispatches
+     * the average channel powers as a spectrum to the registered spectrum listener at the requested frame rate.
+     *
+     * @param channelResults interleaved I/Q sample for each polyphase channel after the IFFT
+     */
+    protected void updateSpectrum(float[] channelResults)
+    {
+        Listener<float[]> listener = mSpectrumListener;
+
+        if(listener == null)
+        {
+            return;
+        }
+
+        if(mSpectrumAccumulator == null || mSpectrumAccumulator.length != channelResults.length / 2)
+        {
+            mSpectrumAccumulator = new float[channelResults.length / 2];
+            mSpectrumBlockCount = 0;
+        }
+
+        for(int x = 0; x < mSpectrumAccumulator.length; x++)
+        {
+            float i = channelResults[2 * x];
+            float q = channelResults[2 * x + 1];
+            mSpectrumAccumulator[x] += (i * i) + (q * q);
+        }
+
+        mSpectrumBlockCount++;
+
+        if(mSpectrumBlockCount >= getOutputBlockRate() / mSpectrumFrameRate)
+        {
+            int channelCount = mSpectrumAccumulator.length;
+            float[] spectrum = new float[channelCount * 2];
+
+            for(int x = 0; x < channelCount; x++)
+            {
+                spectrum[2 * x] = channelCount * (float)Math.sqrt(mSpectrumAccumulator[x] / mSpectrumBlockCount);
+            }
+
+            Arrays.fill(mSpectrumAccumulator, 0.0f);
+            mSpectrumBlockCount = 0;
+
+            listener.receive(spectrum);
+        }
+    }
+
     @Override
     public Listener<SourceEvent> getSourceEventListener()
     {
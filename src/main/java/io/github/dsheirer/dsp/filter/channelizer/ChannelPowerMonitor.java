@@ -0,0 +1,188 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the power of a set of channel frequencies from the polyphase channelizer outputs, without creating a
+ * channel source for each frequency.
+ *
+ * The polyphase channel manager maps each frequency to the polyphase channel index(es) that cover the channel
+ * bandwidth and the channelizer includes those indexes in the set of channels that it calculates.  For each channel
+ * results array, the monitor accumulates the power of the mapped indexes and dispatches the average power of each
+ * frequency in decibels to the registered listener at the update rate.  Frequencies that are outside of the current
+ * channelizer spectrum are reported as NaN.
+ */
+public class ChannelPowerMonitor
+{
+    private long[] mFrequencies;
+    private double mBandwidth;
+    private int mUpdateRate;
+    private Listener<float[]> mListener;
+    private volatile int[][] mIndexes;
+    private double[] mAccumulators;
+    private int mBlockCount;
+    private int mBlocksPerUpdate = 1;
+
+    /**
+     * Constructs an instance
+     *
+     * @param frequencies to monitor
+     * @param bandwidth of each monitored channel in hertz
+     * @param updateRate power updates per second
+     * @param listener to receive an array of power values in decibels, indexed to match the frequencies array
+     */
+    public ChannelPowerMonitor(long[] frequencies, double bandwidth, int updateRate, Listener<float[]> listener)
+    {
+        mFrequencies = frequencies;
+        mBandwidth = bandwidth;
+        mUpdateRate = Math.max(updateRate, 1);
+        mListener = listener;
+        mAccumulators = new double[frequencies.length];
+        mIndexes = new int[frequencies.length][0];
+    }
+
+    /**
+     * Monitored frequencies
+     */
+    public long[] getFrequencies()
+    {
+        return mFrequencies;
+    }
+
+    /**
+     * Updates the polyphase channel indexes for each monitored frequency after a change in the channelizer center
+     * frequency or sample rate.
+     *
+     * @param channelCalculator for the current channelizer configuration
+     * @param blockRate channel results arrays per second produced by the channelizer
+     */
+    void update(ChannelCalculator channelCalculator, double blockRate)
+    {
+        int[][] indexes = new int[mFrequencies.length][];
+
+        for(int x = 0; x < mFrequencies.length; x++)
+        {
+            try
+            {
+                List<Integer> channelIndexes =
+                    channelCalculator.getChannelIndexes(new TunerChannel(mFrequencies[x], (int)mBandwidth));
+                indexes[x] = channelIndexes.stream().mapToInt(Integer::intValue).toArray();
+            }
+            catch(IllegalArgumentException iae)
+            {
+                //Frequency is outside of the current channelizer spectrum
+                indexes[x] = new int[0];
+            }
+        }
+
+        mBlocksPerUpdate = Math.max((int)(blockRate / mUpdateRate), 1);
+        mIndexes = indexes;
+    }
+
+    /**
+     * Number of monitored frequencies that are within the current channelizer spectrum
+     */
+    public int getMonitoredCount()
+    {
+        int count = 0;
+
+        for(int[] indexes: mIndexes)
+        {
+            if(indexes.length > 0)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Flags the polyphase channel indexes that are required by this monitor.
+     *
+     * @param active flags indexed by polyphase channel index
+     * @return number of indexes that were newly flagged
+     */
+    int flagActiveIndexes(boolean[] active)
+    {
+        int count = 0;
+
+        for(int[] indexes: mIndexes)
+        {
+            for(int index: indexes)
+            {
+                if(index >= 0 && index < active.length && !active[index])
+                {
+                    active[index] = true;
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Accumulates the power of each monitored frequency from a calculated channel results array and dispatches the
+     * average power values once per update interval.
+     *
+     * @param channelResults interleaved I/Q sample for each polyphase channel after the IFFT
+     */
+    void process(float[] channelResults)
+    {
+        int[][] indexes = mIndexes;
+
+        for(int x = 0; x < indexes.length; x++)
+        {
+            for(int index: indexes[x])
+            {
+                int offset = 2 * index;
+
+                if(offset + 1 < channelResults.length)
+                {
+                    float i = channelResults[offset];
+                    float q = channelResults[offset + 1];
+                    mAccumulators[x] += (i * i) + (q * q);
+                }
+            }
+        }
+
+        if(++mBlockCount >= mBlocksPerUpdate)
+        {
+            float[] powers = new float[indexes.length];
+
+            for(int x = 0; x < indexes.length; x++)
+            {
+                powers[x] = indexes[x].length > 0 ? (float)(10.0 * Math.log10(mAccumulators[x] / mBlockCount)) :
+                    Float.NaN;
+            }
+
+            Arrays.fill(mAccumulators, 0.0);
+            mBlockCount = 0;
+
+            mListener.receive(powers);
+        }
+    }
+}
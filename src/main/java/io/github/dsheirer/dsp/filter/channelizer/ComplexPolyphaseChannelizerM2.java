@@ -20,6 +20,7 @@ package io.github.dsheirer.dsp.filter.channelizer;
 
 import io.github.dsheirer.dsp.filter.FilterFactory;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+import io.github.dsheirer.log.jfr.ChannelizerBlockEvent;
 import io.github.dsheirer.sample.IOverflowListener;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableChannelResultsBuffer;
@@ -183,12 +184,25 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
         }
     }
 
+    /**
+     * Channel results are produced at twice the channel spacing, since each block consumes half of the channel
+     * count in new samples.
+     */
+    @Override
+    protected double getOutputBlockRate()
+    {
+        return getChannelSampleRate() * 2.0;
+    }
+
     /**
      * Receives the complex sample buffer and processes the results through the channelizer.
      */
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
+        ChannelizerBlockEvent event = new ChannelizerBlockEvent();
+        event.begin();
+
         ReusableChannelResultsBuffer channelResultsBuffer = getChannelResultsBuffer();
         channelResultsBuffer.setTimestamp(reusableComplexBuffer.getTimestamp());
 
@@ -227,6 +241,15 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
             }
         }
 
+        if(event.shouldCommit())
+        {
+            event.sampleRate = (long)getSampleRate();
+            event.channelCount = getChannelCount();
+            event.bufferSize = reusableComplexBuffer.getSampleCount();
+            event.blockCount = channelResultsBuffer.getChannelResults().size();
+            event.commit();
+        }
+
         //Enqueue the channel results buffer for IFFT processing and distribution on a different thread
         mIFFTProcessor.receive(channelResultsBuffer);
 
@@ -403,9 +426,33 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
      * Separate threaded processor to receive and enqueue filtered channel results buffers, perform IFFT on each array
      * as required to align the phase of each polyphase channel, and then dispatch the results to any registered
      * sample consumer channels.
+     *
+     * When only a few polyphase channels are used by the registered channel sources, the processor calculates only
+     * those channel outputs with a pruned (Goertzel) inverse DFT instead of the full IFFT.  The processor measures the
+     * per-block cost of the full IFFT and the per-block, per-channel cost of the pruned transform and uses the
+     * measured crossover to select the cheaper transform for each batch of buffers.  The transform that is not in use
+     * is periodically re-measured so that the crossover tracks JIT compilation and processor load.
+     *
+     * Fully calculated channel outputs are also accumulated into a reduced resolution spectrum when a spectrum
+     * listener is registered, and the outputs of both transforms are provided to any registered power monitors.
      */
     public class IFFTProcessor extends ContinuousBufferProcessor<ReusableChannelResultsBuffer>
     {
+        //Re-measure the transform that is not in use once per this many batches
+        private static final int TRANSFORM_PROBE_INTERVAL = 500;
+        private static final double TRANSFORM_COST_SMOOTHING = 0.1;
+        //Switch hysteresis to avoid alternating between transforms near the crossover
+        private static final double TRANSFORM_HYSTERESIS = 0.1;
+        //Maximum fraction of the polyphase channels that can be calculated with the pruned transform
+        private static final int MAXIMUM_PRUNED_FRACTION = 4;
+
+        private PrunedInverseDFT mPrunedInverseDFT;
+        private boolean[] mActiveChannels;
+        private double mFullTransformCost;
+        private double mPrunedTransformCost;
+        private boolean mPruned;
+        private int mBatchCount;
+
         public IFFTProcessor(int maximumSize, int resetThreshold)
         {
             super(maximumSize, resetThreshold);
@@ -415,21 +462,136 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
             //channel results array contained in each results buffer and then dispatch the buffer
             //so that it can be distributed to each channel listener.
             setListener(buffers -> {
+                if(mPrunedInverseDFT == null || mPrunedInverseDFT.getSize() != getChannelCount())
+                {
+                    mPrunedInverseDFT = new PrunedInverseDFT(getChannelCount());
+                    mActiveChannels = new boolean[getChannelCount()];
+                    mFullTransformCost = 0.0;
+                    mPrunedTransformCost = 0.0;
+                }
+
+                int activeCount = getActiveChannelIndices(mActiveChannels);
+                boolean pruned = isPrunedTransform(activeCount);
+                long elapsed = 0;
+                int blocks = 0;
+
                 for(ReusableChannelResultsBuffer buffer: buffers)
                 {
+                    long start = System.nanoTime();
+
                     for(float[] channelResults: buffer.getChannelResults())
                     {
                         //Rotate each of the channels to the correct phase using the IFFT
-                        mFFT.complexInverse(channelResults, true);
+                        if(pruned)
+                        {
+                            mPrunedInverseDFT.inverse(channelResults, mActiveChannels);
+                        }
+                        else
+                        {
+                            mFFT.complexInverse(channelResults, true);
+                            updateSpectrum(channelResults);
+                        }
+
+                        updatePowerMonitors(channelResults);
+
+                        blocks++;
                     }
 
-                    dispatch(buffer);
+                    elapsed += System.nanoTime() - start;
+
+                    if(pruned)
+                    {
+                        dispatch(buffer, mActiveChannels);
+                    }
+                    else
+                    {
+                        dispatch(buffer);
+                    }
                 }
+
+                updateTransformCost(pruned, activeCount, elapsed, blocks);
             });
 
             setOverflowListener(overflow -> mLog.debug("IFFTProcessor overflow changed - overflow:" + overflow));
         }
 
+        /**
+         * Selects the transform for the next batch of buffers.
+         * @param activeCount number of polyphase channels used by the registered channel sources
+         * @return true to use the pruned transform or false to use the full IFFT
+         */
+        private boolean isPrunedTransform(int activeCount)
+        {
+            if(activeCount == 0)
+            {
+                return true;
+            }
+
+            if(activeCount > getChannelCount() / MAXIMUM_PRUNED_FRACTION)
+            {
+                mPruned = false;
+                return false;
+            }
+
+            //Measure both transforms before comparing
+            if(mFullTransformCost == 0.0)
+            {
+                return false;
+            }
+
+            if(mPrunedTransformCost == 0.0)
+            {
+                return true;
+            }
+
+            if(++mBatchCount % TRANSFORM_PROBE_INTERVAL == 0)
+            {
+                return !mPruned;
+            }
+
+            double prunedCost = activeCount * mPrunedTransformCost;
+
+            if(mPruned)
+            {
+                mPruned = prunedCost < mFullTransformCost * (1.0 + TRANSFORM_HYSTERESIS);
+            }
+            else
+            {
+                mPruned = prunedCost < mFullTransformCost * (1.0 - TRANSFORM_HYSTERESIS);
+            }
+
+            return mPruned;
+        }
+
+        /**
+         * Updates the smoothed transform cost measurements.
+         * @param pruned indicates if the pruned transform was used
+         * @param activeCount number of polyphase channels calculated by the pruned transform
+         * @param elapsed nanoseconds spent in the transform
+         * @param blocks number of channel results arrays that were transformed
+         */
+        private void updateTransformCost(boolean pruned, int activeCount, long elapsed, int blocks)
+        {
+            if(blocks == 0 || activeCount == 0)
+            {
+                return;
+            }
+
+            double cost = (double)elapsed / blocks;
+
+            if(pruned)
+            {
+                cost /= activeCount;
+                mPrunedTransformCost = mPrunedTransformCost == 0.0 ? cost :
+                    mPrunedTransformCost + TRANSFORM_COST_SMOOTHING * (cost - mPrunedTransformCost);
+            }
+            else
+            {
+                mFullTransformCost = mFullTransformCost == 0.0 ? cost :
+                    mFullTransformCost + TRANSFORM_COST_SMOOTHING * (cost - mFullTransformCost);
+            }
+        }
+
         /**
          * Clears any buffers from the dispatch/processing queue.  Overrides the parent method so that we can set
          * the user count to 0 to allow the buffer to be reclaimed.
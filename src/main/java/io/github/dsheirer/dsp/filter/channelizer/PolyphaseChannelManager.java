@@ -46,8 +46,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -78,12 +80,16 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
     private Broadcaster<SourceEvent> mSourceEventBroadcaster = new Broadcaster<>();
     private IReusableComplexBufferProvider mReusableBufferProvider;
     private List<PolyphaseChannelSource> mChannelSources = new CopyOnWriteArrayList<>();
+    private Set<PolyphaseChannelSource> mPausedChannelSources = ConcurrentHashMap.newKeySet();
+    private List<ChannelPowerMonitor> mPowerMonitors = new CopyOnWriteArrayList<>();
     private ChannelCalculator mChannelCalculator;
     private ComplexPolyphaseChannelizerM2 mPolyphaseChannelizer;
     private ChannelSourceEventListener mChannelSourceEventListener = new ChannelSourceEventListener();
     private BufferSourceEventMonitor mBufferSourceEventMonitor = new BufferSourceEventMonitor();
     private ContinuousBufferProcessor<ReusableComplexBuffer> mBufferProcessor;
     private Map<Integer,float[]> mOutputProcessorFilters = new HashMap<>();
+    private Listener<float[]> mSpectrumListener;
+    private int mSpectrumFrameRate;
 
     /**
      * Creates a polyphase channel manager instance.
@@ -155,6 +161,111 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
         return mChannelCalculator.getChannelBandwidth();
     }
 
+    /**
+     * Registers a listener to receive reduced resolution spectra derived from the polyphase channelizer outputs.
+     * Spectra are only produced while the channelizer is sourcing channels and calculating all polyphase channels.
+     *
+     * @param listener to receive spectra or null to stop producing spectra
+     * @param frameRate spectra per second
+     */
+    public void setSpectrumListener(Listener<float[]> listener, int frameRate)
+    {
+        mSpectrumListener = listener;
+        mSpectrumFrameRate = frameRate;
+
+        if(mPolyphaseChannelizer != null)
+        {
+            mPolyphaseChannelizer.setSpectrumListener(listener, frameRate);
+        }
+    }
+
+    /**
+     * Adds a power monitor to measure the power of its frequencies from the polyphase channelizer outputs.  The
+     * channelizer runs while there are sourced channels or power monitors.
+     *
+     * @param powerMonitor to add
+     */
+    public void addPowerMonitor(ChannelPowerMonitor powerMonitor)
+    {
+        synchronized(mBufferProcessor)
+        {
+            if(powerMonitor == null || mPowerMonitors.contains(powerMonitor))
+            {
+                return;
+            }
+
+            checkChannelizerConfiguration();
+
+            if(mPolyphaseChannelizer == null)
+            {
+                return;
+            }
+
+            powerMonitor.update(mChannelCalculator, mPolyphaseChannelizer.getOutputBlockRate());
+            mPowerMonitors.add(powerMonitor);
+            mPolyphaseChannelizer.addPowerMonitor(powerMonitor);
+
+            if(getConsumerCount() == 1)
+            {
+                startChannelizer();
+            }
+        }
+    }
+
+    /**
+     * Removes the power monitor and stops the channelizer when there are no other consumers.
+     *
+     * @param powerMonitor to remove
+     */
+    public void removePowerMonitor(ChannelPowerMonitor powerMonitor)
+    {
+        synchronized(mBufferProcessor)
+        {
+            if(mPowerMonitors.remove(powerMonitor) && mPolyphaseChannelizer != null)
+            {
+                mPolyphaseChannelizer.removePowerMonitor(powerMonitor);
+
+                if(getConsumerCount() == 0)
+                {
+                    stopChannelizer();
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of sourced channels and power monitors that consume the channelizer outputs
+     */
+    private int getConsumerCount()
+    {
+        if(mPolyphaseChannelizer == null)
+        {
+            return 0;
+        }
+
+        return mPolyphaseChannelizer.getRegisteredChannelCount() + mPolyphaseChannelizer.getPowerMonitorCount();
+    }
+
+    /**
+     * Registers with the tuner to start the sample buffers flowing to the channelizer
+     */
+    private void startChannelizer()
+    {
+        mReusableBufferProvider.addBufferListener(mBufferProcessor);
+        mPolyphaseChannelizer.start();
+        mBufferProcessor.start();
+    }
+
+    /**
+     * Deregisters from the tuner to stop the sample buffers flowing to the channelizer
+     */
+    private void stopChannelizer()
+    {
+        mReusableBufferProvider.removeBufferListener(mBufferProcessor);
+        mBufferProcessor.stop();
+        mPolyphaseChannelizer.stop();
+    }
+
     /**
      * Provides a Digital Drop Channel (DDC) for the specified tuner channel or returns null if the channel can't be
      * sourced due to the current center frequency and/or sample rate.
@@ -189,6 +300,47 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
         return channelSource;
     }
 
+    /**
+     * Retunes a paused channel source that was provided by this channel manager to the tuner channel frequency so
+     * that the source can be restarted without allocating a new channel source.  The tuner center frequency must
+     * already support the tuner channel.
+     *
+     * @param source that was paused
+     * @param tunerChannel with the new frequency
+     * @return true if the source was retuned, or false if the source was not provided by this channel manager or
+     * can't be retuned at the current sample rate.
+     */
+    public boolean retune(TunerChannelSource source, TunerChannel tunerChannel)
+    {
+        synchronized(mBufferProcessor)
+        {
+            if(source instanceof PolyphaseChannelSource && mPausedChannelSources.contains(source) &&
+                source.getSampleRate() == mChannelCalculator.getChannelSampleRate())
+            {
+                PolyphaseChannelSource channelSource = (PolyphaseChannelSource)source;
+
+                try
+                {
+                    //Throws an exception if the channel can't be provided at the current center frequency
+                    mChannelCalculator.getChannelIndexes(tunerChannel);
+                }
+                catch(IllegalArgumentException iae)
+                {
+                    return false;
+                }
+
+                mPausedChannelSources.remove(channelSource);
+                channelSource.getTunerChannel().setFrequency(tunerChannel.getFrequency());
+                channelSource.getTunerChannel().setBandwidth(tunerChannel.getBandwidth());
+                mChannelSources.add(channelSource);
+                updateOutputProcessor(channelSource);
+                return mChannelSources.contains(channelSource);
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Creates a processor to process the channelizer channel indexes into a composite output stream providing
      * channelized complex sample buffers to a registered source listener.
@@ -238,12 +390,10 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
             mPolyphaseChannelizer.addChannel(channelSource);
             mSourceEventBroadcaster.broadcast(SourceEvent.channelCountChange(getTunerChannelCount()));
 
-            //If this is the first channel, register to start the sample buffers flowing
-            if(mPolyphaseChannelizer.getRegisteredChannelCount() == 1)
+            //If this is the first channelizer consumer, register to start the sample buffers flowing
+            if(getConsumerCount() == 1)
             {
-                mReusableBufferProvider.addBufferListener(mBufferProcessor);
-                mPolyphaseChannelizer.start();
-                mBufferProcessor.start();
+                startChannelizer();
             }
         }
     }
@@ -258,16 +408,20 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
     {
         synchronized(mBufferProcessor)
         {
-            mChannelSources.remove(channelSource);
+            //A paused channel source was already removed when it was paused
+            if(!mChannelSources.remove(channelSource))
+            {
+                return;
+            }
+
+            mPausedChannelSources.add(channelSource);
             mPolyphaseChannelizer.removeChannel(channelSource);
             mSourceEventBroadcaster.broadcast(SourceEvent.channelCountChange(getTunerChannelCount()));
 
-            //If this is the last/only channel, deregister to stop the sample buffers
-            if(mPolyphaseChannelizer.getRegisteredChannelCount() == 0)
+            //If this is the last/only channelizer consumer, deregister to stop the sample buffers
+            if(getConsumerCount() == 0)
             {
-                mReusableBufferProvider.removeBufferListener(mBufferProcessor);
-                mBufferProcessor.stop();
-                mPolyphaseChannelizer.stop();
+                stopChannelizer();
             }
         }
 
@@ -305,6 +459,12 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
                 double sampleRate = sourceEvent.getValue().doubleValue();
                 int channelCount = ComplexPolyphaseChannelizerM2.getChannelCount(sampleRate);
                 mChannelCalculator.setRates(sampleRate, channelCount);
+
+                //Power monitors are updated on the buffer processor thread
+                if(!mPowerMonitors.isEmpty())
+                {
+                    mBufferSourceEventMonitor.receive(sourceEvent);
+                }
                 break;
             case NOTIFICATION_FREQUENCY_AND_SAMPLE_RATE_LOCKED:
             case NOTIFICATION_FREQUENCY_AND_SAMPLE_RATE_UNLOCKED:
@@ -343,8 +503,29 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
 
             try
             {
+                ComplexPolyphaseChannelizerM2 previous = mPolyphaseChannelizer;
                 mPolyphaseChannelizer = new ComplexPolyphaseChannelizerM2(tunerSampleRate,
                     POLYPHASE_CHANNELIZER_TAPS_PER_CHANNEL);
+                mPolyphaseChannelizer.setSpectrumListener(mSpectrumListener, mSpectrumFrameRate);
+
+                //Transfer any power monitors to the new channelizer
+                for(ChannelPowerMonitor powerMonitor: mPowerMonitors)
+                {
+                    if(previous != null)
+                    {
+                        previous.removePowerMonitor(powerMonitor);
+                    }
+
+                    powerMonitor.update(mChannelCalculator, mPolyphaseChannelizer.getOutputBlockRate());
+                    mPolyphaseChannelizer.addPowerMonitor(powerMonitor);
+                }
+
+                //The previous channelizer was running for the power monitors
+                if(previous != null && !mPowerMonitors.isEmpty())
+                {
+                    previous.stop();
+                    mPolyphaseChannelizer.start();
+                }
             }
             catch(IllegalArgumentException iae)
             {
@@ -440,6 +621,21 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
         }
     }
 
+    /**
+     * Updates the polyphase channel indexes of each power monitor for a change in the tuner's center frequency or
+     * sample rate.
+     */
+    private void updatePowerMonitors()
+    {
+        if(mPolyphaseChannelizer != null)
+        {
+            for(ChannelPowerMonitor powerMonitor: mPowerMonitors)
+            {
+                powerMonitor.update(mChannelCalculator, mPolyphaseChannelizer.getOutputBlockRate());
+            }
+        }
+    }
+
     /**
      * Sorted set of currently sourced tuner channels being provided by this channel manager.  The set is ordered by
      * frequency (low to high).
@@ -540,6 +736,7 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
 
                     if(source instanceof PolyphaseChannelSource)
                     {
+                        mPausedChannelSources.remove(source);
                         source.dispose();
                     }
                     break;
@@ -593,6 +790,20 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
                         case NOTIFICATION_FREQUENCY_CHANGE:
                             //Don't send the tuner's frequency change event down to the channels - it would cause chaos
                             updateOutputProcessors(null);
+                            updatePowerMonitors();
+                            break;
+                        case NOTIFICATION_SAMPLE_RATE_CHANGE:
+                            //Channels are removed before a sample rate change, but power monitors are retained, so
+                            //recreate the channelizer for the new sample rate when only power monitors remain
+                            synchronized(mBufferProcessor)
+                            {
+                                if(mPolyphaseChannelizer != null &&
+                                    mPolyphaseChannelizer.getRegisteredChannelCount() == 0)
+                                {
+                                    checkChannelizerConfiguration();
+                                }
+                            }
+                            updatePowerMonitors();
                             break;
                     }
 
@@ -107,6 +107,23 @@ public class PolyphaseChannelSource extends TunerChannelSource
         return mPolyphaseChannelOutputProcessor;
     }
 
+    /**
+     * Polyphase channel indices that the next channel results buffer will be processed against.  When a replacement
+     * output processor is pending, these are the indices of the replacement processor.
+     */
+    public int[] getPolyphaseChannelIndices()
+    {
+        IPolyphaseChannelOutputProcessor replacement = mReplacementPolyphaseChannelOutputProcessor;
+
+        if(replacement != null)
+        {
+            return replacement.getPolyphaseChannelIndices();
+        }
+
+        IPolyphaseChannelOutputProcessor processor = mPolyphaseChannelOutputProcessor;
+        return processor != null ? processor.getPolyphaseChannelIndices() : new int[0];
+    }
+
     /**
      * Sets/updates the output processor for this channel source, replacing the existing output processor.
      *
@@ -209,6 +226,15 @@ public class PolyphaseChannelSource extends TunerChannelSource
         }
     }
 
+    /**
+     * Polyphase channel sources can be paused and retuned by the polyphase channel manager.
+     */
+    @Override
+    public boolean isRetunable()
+    {
+        return true;
+    }
+
     @Override
     public long getChannelFrequencyCorrection()
     {
@@ -0,0 +1,129 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.channelizer;
+
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Pruned inverse DFT that calculates only a subset of the output bins of an interleaved complex inverse DFT, using
+ * a second order Goertzel recursion per output bin.  Output is scaled by 1/N to match the scaled complex inverse
+ * FFT used by the polyphase channelizer.
+ *
+ * Each output bin costs O(N) with two real multiplies per complex input sample, versus O(N log N) for all N bins
+ * with the FFT, so this is only cheaper when a small number of bins are required.
+ *
+ * The inverse DFT output for bin k is the polynomial X(z) = x[0] + x[1]z + ... + x[N-1]z^(N-1) evaluated at
+ * z = e^(j2pi k/N).  The Goertzel recursion s[n] = x[n] + 2cos(w)s[n+1] - s[n+2], run from n = N-1 down to 0,
+ * reduces the polynomial by the real quadratic with roots z and z* so that X(z) = s[0] - z* s[1].
+ *
+ * This class is not thread safe.
+ */
+public class PrunedInverseDFT
+{
+    private int mSize;
+    private double mScale;
+    private double[] mCoefficients;
+    private double[] mCosines;
+    private double[] mSines;
+    private float[] mResults;
+
+    /**
+     * Constructs an instance
+     * @param size of the transform (N) in complex samples
+     */
+    public PrunedInverseDFT(int size)
+    {
+        mSize = size;
+        mScale = 1.0 / size;
+        mCoefficients = new double[size];
+        mCosines = new double[size];
+        mSines = new double[size];
+        mResults = new float[size * 2];
+
+        for(int bin = 0; bin < size; bin++)
+        {
+            double w = 2.0 * FastMath.PI * bin / size;
+            mCosines[bin] = FastMath.cos(w);
+            mSines[bin] = FastMath.sin(w);
+            mCoefficients[bin] = 2.0 * mCosines[bin];
+        }
+    }
+
+    /**
+     * Size of the transform in complex samples
+     */
+    public int getSize()
+    {
+        return mSize;
+    }
+
+    /**
+     * Calculates the scaled inverse DFT for the flagged bins in-place.  Bins that are not flagged are left unchanged
+     * and contain stale time-domain input values.
+     *
+     * @param samples interleaved complex samples (I0,Q0,I1,Q1...) with length 2 x size
+     * @param bins flags indexed by bin number indicating which bins to calculate
+     */
+    public void inverse(float[] samples, boolean[] bins)
+    {
+        //Calculate all requested bins before writing any results, since the results overwrite the input samples
+        for(int bin = 0; bin < mSize; bin++)
+        {
+            if(bins[bin])
+            {
+                calculate(samples, bin);
+            }
+        }
+
+        for(int bin = 0; bin < mSize; bin++)
+        {
+            if(bins[bin])
+            {
+                samples[2 * bin] = mResults[2 * bin];
+                samples[2 * bin + 1] = mResults[2 * bin + 1];
+            }
+        }
+    }
+
+    /**
+     * Calculates a single scaled inverse DFT output bin and stores the result in the results array.
+     */
+    private void calculate(float[] samples, int bin)
+    {
+        double coefficient = mCoefficients[bin];
+        double s1i = 0.0, s1q = 0.0, s2i = 0.0, s2q = 0.0, s0i, s0q;
+
+        for(int x = 2 * (mSize - 1); x >= 0; x -= 2)
+        {
+            s0i = samples[x] + coefficient * s1i - s2i;
+            s0q = samples[x + 1] + coefficient * s1q - s2q;
+            s2i = s1i;
+            s2q = s1q;
+            s1i = s0i;
+            s1q = s0q;
+        }
+
+        //s1 now holds s[0] and s2 holds s[1]: X = s[0] - (cos - jsin) * s[1]
+        double cos = mCosines[bin];
+        double sin = mSines[bin];
+
+        mResults[2 * bin] = (float)((s1i - cos * s2i - sin * s2q) * mScale);
+        mResults[2 * bin + 1] = (float)((s1q - cos * s2q + sin * s2i) * mScale);
+    }
+}
@@ -20,6 +20,7 @@ package io.github.dsheirer.dsp.filter.channelizer.output;
 
 import io.github.dsheirer.dsp.mixer.IOscillator;
 import io.github.dsheirer.dsp.mixer.Oscillator;
+import io.github.dsheirer.log.jfr.ChannelOutputEvent;
 import io.github.dsheirer.sample.IOverflowListener;
 import io.github.dsheirer.sample.buffer.OverflowableReusableBufferTransferQueue;
 import io.github.dsheirer.sample.buffer.ReusableChannelResultsBuffer;
@@ -38,6 +39,8 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
     private OverflowableReusableBufferTransferQueue<ReusableChannelResultsBuffer> mChannelResultsQueue;
     private List<ReusableChannelResultsBuffer> mChannelResultsToProcess = new ArrayList<>();
     private int mMaxResultsToProcess;
+    private double mSampleRate;
+    private long mFrequencyOffset;
 
     private int mInputChannelCount;
     private IOscillator mFrequencyCorrectionMixer;
@@ -56,6 +59,7 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
     {
         mInputChannelCount = inputChannelCount;
         mGain = gain;
+        mSampleRate = sampleRate;
 
 //TODO: swap this out and use the LowPhaseNoiseOscillator
         mFrequencyCorrectionMixer = new Oscillator(0, sampleRate);
@@ -91,6 +95,7 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
     public void setFrequencyOffset(long frequencyOffset)
     {
         mFrequencyCorrectionMixer.setFrequency(frequencyOffset);
+        mFrequencyOffset = frequencyOffset;
         mFrequencyCorrectionEnabled = (frequencyOffset != 0);
     }
 
@@ -115,6 +120,9 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
     @Override
     public void processChannelResults(ReusableComplexBufferAssembler reusableComplexBufferAssembler)
     {
+        ChannelOutputEvent event = new ChannelOutputEvent();
+        event.begin();
+
         try
         {
             int toProcess = mChannelResultsQueue.drainTo(mChannelResultsToProcess, mMaxResultsToProcess);
@@ -122,6 +130,15 @@ public abstract class ChannelOutputProcessor implements IPolyphaseChannelOutputP
             if(toProcess > 0)
             {
                 process(mChannelResultsToProcess, reusableComplexBufferAssembler);
+
+                if(event.shouldCommit())
+                {
+                    event.sampleRate = (long)mSampleRate;
+                    event.inputChannelCount = mInputChannelCount;
+                    event.bufferCount = toProcess;
+                    event.frequencyOffset = mFrequencyOffset;
+                    event.commit();
+                }
             }
         }
         catch(Throwable throwable)
@@ -59,6 +59,11 @@ public interface IPolyphaseChannelOutputProcessor
      */
     void setPolyphaseChannelIndices(List<Integer> indexes);
 
+    /**
+     * Current polyphase channel indices used by this output processor
+     */
+    int[] getPolyphaseChannelIndices();
+
     /**
      * List of current polyphase channel indices for the output processor
      */
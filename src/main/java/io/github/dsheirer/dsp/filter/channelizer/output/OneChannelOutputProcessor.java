@@ -70,6 +70,12 @@ public class OneChannelOutputProcessor extends ChannelOutputProcessor
         mChannelOffset = indexes.get(0) * 2;
     }
 
+    @Override
+    public int[] getPolyphaseChannelIndices()
+    {
+        return new int[]{mChannelOffset / 2};
+    }
+
     /**
      * Extract the channel from the channel results array, apply frequency translation, and deliver the
      * extracted frequency-corrected channel I/Q sample set to the complex sample listener.
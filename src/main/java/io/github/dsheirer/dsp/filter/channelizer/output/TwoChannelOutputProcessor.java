@@ -87,6 +87,12 @@ public class TwoChannelOutputProcessor extends ChannelOutputProcessor
         mChannelOffset2 = indexes.get(1) * 2;
     }
 
+    @Override
+    public int[] getPolyphaseChannelIndices()
+    {
+        return new int[]{mChannelOffset1 / 2, mChannelOffset2 / 2};
+    }
+
     /**
      * Extract the channel from the channel results array, apply frequency translation, and deliver the
      * extracted frequency-corrected channel I/Q sample set to the complex sample listener.
@@ -0,0 +1,556 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.filter.resample;
+
+import io.github.dsheirer.dsp.filter.FilterFactory;
+import io.github.dsheirer.dsp.filter.design.FilterDesignException;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableBufferQueue;
+import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.DecimalFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Polyphase resampler for real sample buffers.
+ *
+ * When the input and output sample rates are integral and form a rational ratio L/M with a modest interpolation
+ * factor L, the resampler steps exactly through the L phases of a polyphase filter bank, calculating only the
+ * output samples (e.g. 25 kHz to 8 kHz uses L=8, M=25).  Otherwise, the resampler uses a fixed bank of phases and
+ * linearly interpolates between the outputs of the two phases that are adjacent to the fractional sample time.
+ *
+ * Filter banks are designed with a Kaiser windowed sinc prototype filter and are cached and shared by all resampler
+ * instances that use the same input and output sample rates.
+ */
+public class PolyphaseResampler
+{
+    private final static Logger mLog = LoggerFactory.getLogger(PolyphaseResampler.class);
+    private static final Map<String,FilterBank> FILTER_BANK_CACHE = new ConcurrentHashMap<>();
+
+    //Maximum interpolation factor for exact rational resampling - higher factors use interpolated phases
+    private static final int MAXIMUM_RATIONAL_PHASES = 512;
+    private static final int INTERPOLATED_PHASES = 64;
+    private static final double ATTENUATION_DB = 60.0;
+    //Pass band and stop band edges as a fraction of the lower of the input or output sample rate
+    private static final double PASS_BAND = 0.4;
+    private static final double STOP_BAND = 0.5;
+    private static final int MINIMUM_TAPS_PER_PHASE = 8;
+    private static final int MAXIMUM_TAPS_PER_PHASE = 256;
+
+    private ReusableBufferQueue mReusableBufferQueue = new ReusableBufferQueue("PolyphaseResampler");
+    private Listener<ReusableFloatBuffer> mResampledListener;
+    private FilterBank mFilterBank;
+    private int mOutputBufferSize;
+    private float[] mOutputBuffer;
+    private int mOutputPointer;
+
+    //Input samples with the trailing (taps per phase - 1) samples of the previous buffer at the start
+    private float[] mInput;
+    private float[] mOutput = new float[0];
+    //Index of the oldest history sample under the filter for the next output sample
+    private int mInputIndex;
+    //Rational: phase numerator (0 <> L-1).  Interpolated: fractional sample time (0.0 <> 1.0)
+    private int mPhase;
+    private double mFraction;
+
+    /**
+     * Constructs a resampler that dispatches the resampled output for each input buffer.
+     *
+     * @param inputRate sample rate
+     * @param outputRate sample rate
+     */
+    public PolyphaseResampler(double inputRate, double outputRate)
+    {
+        this(inputRate, outputRate, 0);
+    }
+
+    /**
+     * Constructs a resampler that dispatches output buffers of a fixed size.
+     *
+     * @param inputRate sample rate
+     * @param outputRate sample rate
+     * @param outputBufferSize number of samples per output buffer, or 0 to dispatch the resampled output for each
+     * input buffer
+     */
+    public PolyphaseResampler(double inputRate, double outputRate, int outputBufferSize)
+    {
+        if(inputRate <= 0 || outputRate <= 0)
+        {
+            throw new IllegalArgumentException("Input and output sample rates must be positive");
+        }
+
+        mFilterBank = getFilterBank(inputRate, outputRate);
+        mOutputBufferSize = outputBufferSize;
+
+        if(mOutputBufferSize > 0)
+        {
+            mOutputBuffer = new float[mOutputBufferSize];
+        }
+
+        mInput = new float[mFilterBank.getTapsPerPhase() - 1];
+    }
+
+    /**
+     * Registers the listener to receive the resampled buffer output
+     * @param resampledBufferListener to receive buffers
+     */
+    public void setListener(Listener<ReusableFloatBuffer> resampledBufferListener)
+    {
+        mResampledListener = resampledBufferListener;
+    }
+
+    /**
+     * Primary input method to the resampler.  The user count of the buffer is decremented once the samples are
+     * consumed.
+     *
+     * @param reusableFloatBuffer to resample
+     */
+    public void resample(ReusableFloatBuffer reusableFloatBuffer)
+    {
+        float[] samples = reusableFloatBuffer.getSamples();
+        int sampleCount = reusableFloatBuffer.getSampleCount();
+        int historyLength = mFilterBank.getTapsPerPhase() - 1;
+
+        //Move the trailing samples of the previous buffer to the start of the input array and append the new samples
+        if(mInput.length != historyLength + sampleCount)
+        {
+            float[] input = new float[historyLength + sampleCount];
+            System.arraycopy(mInput, mInput.length - historyLength, input, 0, historyLength);
+            mInput = input;
+        }
+        else
+        {
+            System.arraycopy(mInput, sampleCount, mInput, 0, historyLength);
+        }
+
+        System.arraycopy(samples, 0, mInput, historyLength, sampleCount);
+        reusableFloatBuffer.decrementUserCount();
+
+        int maximumOutputCount = mFilterBank.getMaximumOutputCount(sampleCount);
+
+        if(mOutput.length < maximumOutputCount)
+        {
+            mOutput = new float[maximumOutputCount];
+        }
+
+        int outputCount = mFilterBank.isRational() ? resampleRational(mInput, sampleCount, mOutput) :
+            resampleInterpolated(mInput, sampleCount, mOutput);
+
+        mInputIndex -= sampleCount;
+
+        dispatch(mOutput, outputCount);
+    }
+
+    /**
+     * Resamples by stepping through the phases of the rational filter bank.
+     * @return number of output samples
+     */
+    private int resampleRational(float[] input, int sampleCount, float[] output)
+    {
+        float[][] phases = mFilterBank.getPhases();
+        int interpolation = mFilterBank.getInterpolation();
+        int decimation = mFilterBank.getDecimation();
+        int outputCount = 0;
+
+        while(mInputIndex < sampleCount)
+        {
+            output[outputCount++] = dot(phases[mPhase], input, mInputIndex);
+
+            mPhase += decimation;
+            mInputIndex += mPhase / interpolation;
+            mPhase %= interpolation;
+        }
+
+        return outputCount;
+    }
+
+    /**
+     * Resamples using the interpolated filter bank where each output is linearly interpolated from the outputs of the
+     * two phases that are adjacent to the fractional sample time.
+     * @return number of output samples
+     */
+    private int resampleInterpolated(float[] input, int sampleCount, float[] output)
+    {
+        float[][] phases = mFilterBank.getPhases();
+        int phaseCount = phases.length - 1;
+        double step = mFilterBank.getStep();
+        int outputCount = 0;
+
+        while(mInputIndex < sampleCount)
+        {
+            double position = mFraction * phaseCount;
+            int phase = (int)position;
+            float mu = (float)(position - phase);
+
+            float a = dot(phases[phase], input, mInputIndex);
+            float b = dot(phases[phase + 1], input, mInputIndex);
+            output[outputCount++] = a + (b - a) * mu;
+
+            mFraction += step;
+            int whole = (int)mFraction;
+            mInputIndex += whole;
+            mFraction -= whole;
+        }
+
+        return outputCount;
+    }
+
+    /**
+     * Dot product of the coefficients and the input samples starting at the offset.
+     */
+    private static float dot(float[] coefficients, float[] input, int offset)
+    {
+        float accumulator = 0.0f;
+
+        for(int x = 0; x < coefficients.length; x++)
+        {
+            accumulator += coefficients[x] * input[offset + x];
+        }
+
+        return accumulator;
+    }
+
+    /**
+     * Dispatches the resampled output either as a single buffer or as fixed size buffers.
+     */
+    private void dispatch(float[] output, int outputCount)
+    {
+        if(mOutputBufferSize <= 0)
+        {
+            if(outputCount > 0)
+            {
+                ReusableFloatBuffer buffer = mReusableBufferQueue.getBuffer(outputCount);
+                System.arraycopy(output, 0, buffer.getSamples(), 0, outputCount);
+                dispatch(buffer);
+            }
+
+            return;
+        }
+
+        int pointer = 0;
+
+        while(pointer < outputCount)
+        {
+            int toCopy = Math.min(outputCount - pointer, mOutputBufferSize - mOutputPointer);
+            System.arraycopy(output, pointer, mOutputBuffer, mOutputPointer, toCopy);
+            pointer += toCopy;
+            mOutputPointer += toCopy;
+
+            if(mOutputPointer == mOutputBufferSize)
+            {
+                ReusableFloatBuffer buffer = mReusableBufferQueue.getBuffer(mOutputBufferSize);
+                System.arraycopy(mOutputBuffer, 0, buffer.getSamples(), 0, mOutputBufferSize);
+                mOutputPointer = 0;
+                dispatch(buffer);
+            }
+        }
+    }
+
+    private void dispatch(ReusableFloatBuffer buffer)
+    {
+        if(mResampledListener != null)
+        {
+            mResampledListener.receive(buffer);
+        }
+        else
+        {
+            buffer.decrementUserCount();
+        }
+    }
+
+    /**
+     * Provides a cached filter bank for the input and output sample rates, or designs a new filter bank.
+     */
+    private static FilterBank getFilterBank(double inputRate, double outputRate)
+    {
+        String key = inputRate + ":" + outputRate;
+
+        return FILTER_BANK_CACHE.computeIfAbsent(key, k -> new FilterBank(inputRate, outputRate));
+    }
+
+    /**
+     * Greatest common divisor
+     */
+    private static long gcd(long a, long b)
+    {
+        while(b != 0)
+        {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+
+        return a;
+    }
+
+    /**
+     * Immutable polyphase filter bank for a pair of input and output sample rates.
+     */
+    public static class FilterBank
+    {
+        private float[][] mPhases;
+        private int mInterpolation;
+        private int mDecimation;
+        private double mStep;
+        private boolean mRational;
+
+        public FilterBank(double inputRate, double outputRate)
+        {
+            long input = Math.round(inputRate);
+            long output = Math.round(outputRate);
+
+            if(Math.abs(inputRate - input) < 1E-6 && Math.abs(outputRate - output) < 1E-6)
+            {
+                long gcd = gcd(input, output);
+
+                if(output / gcd <= MAXIMUM_RATIONAL_PHASES)
+                {
+                    mRational = true;
+                    mInterpolation = (int)(output / gcd);
+                    mDecimation = (int)(input / gcd);
+                }
+            }
+
+            mStep = inputRate / outputRate;
+
+            int phaseCount = mRational ? mInterpolation : INTERPOLATED_PHASES;
+
+            //Kaiser filter length estimate for the transition band, relative to the input sample rate
+            double lowerRate = Math.min(inputRate, outputRate);
+            double transition = (STOP_BAND - PASS_BAND) * lowerRate / inputRate;
+            int tapsPerPhase = (int)Math.ceil((ATTENUATION_DB - 7.95) / (14.36 * transition));
+            tapsPerPhase = Math.max(MINIMUM_TAPS_PER_PHASE, Math.min(MAXIMUM_TAPS_PER_PHASE, tapsPerPhase));
+
+            //Prototype cutoff at the midpoint of the transition band, normalized to the upsampled rate
+            double cutoff = (PASS_BAND + STOP_BAND) / 2.0 * lowerRate / (inputRate * phaseCount);
+
+            //Interpolated banks have an extra phase that is the first phase advanced by one sample.  Sinc filters
+            //must be odd-length.
+            int prototypeLength = phaseCount * tapsPerPhase + 1;
+
+            if(prototypeLength % 2 == 0)
+            {
+                prototypeLength++;
+            }
+
+            float[] prototype;
+
+            try
+            {
+                prototype = FilterFactory.getKaiserSinc(prototypeLength, cutoff, ATTENUATION_DB);
+            }
+            catch(FilterDesignException fde)
+            {
+                throw new IllegalArgumentException("Unable to design resampler filter for input rate [" + inputRate +
+                    "] and output rate [" + outputRate + "]", fde);
+            }
+
+            int bankSize = mRational ? phaseCount : phaseCount + 1;
+            mPhases = new float[bankSize][tapsPerPhase];
+
+            //Each phase is reversed so that the oldest sample under the filter is multiplied by the first coefficient
+            //and the phase is scaled by the interpolation factor to restore unity gain
+            for(int phase = 0; phase < bankSize; phase++)
+            {
+                for(int tap = 0; tap < tapsPerPhase; tap++)
+                {
+                    int index = phase + tap * phaseCount;
+                    mPhases[phase][tapsPerPhase - 1 - tap] = index < prototype.length ?
+                        prototype[index] * phaseCount : 0.0f;
+                }
+            }
+
+            mLog.debug("Created " + (mRational ? "rational [" + mInterpolation + "/" + mDecimation + "]" :
+                "interpolated") + " polyphase resampler filter bank for input [" + inputRate + "] output [" +
+                outputRate + "] with [" + bankSize + "] phases of [" + tapsPerPhase + "] taps");
+        }
+
+        /**
+         * Filter phases, each containing taps per phase coefficients.
+         */
+        public float[][] getPhases()
+        {
+            return mPhases;
+        }
+
+        /**
+         * Number of coefficients per phase
+         */
+        public int getTapsPerPhase()
+        {
+            return mPhases[0].length;
+        }
+
+        /**
+         * Indicates if this bank uses exact rational (L/M) stepping
+         */
+        public boolean isRational()
+        {
+            return mRational;
+        }
+
+        /**
+         * Rational interpolation factor (L)
+         */
+        public int getInterpolation()
+        {
+            return mInterpolation;
+        }
+
+        /**
+         * Rational decimation factor (M)
+         */
+        public int getDecimation()
+        {
+            return mDecimation;
+        }
+
+        /**
+         * Input samples per output sample
+         */
+        public double getStep()
+        {
+            return mStep;
+        }
+
+        /**
+         * Maximum number of output samples that can be produced from the number of input samples
+         */
+        public int getMaximumOutputCount(int inputCount)
+        {
+            return (int)Math.ceil(inputCount / mStep) + 2;
+        }
+    }
+
+    /**
+     * Benchmarks this resampler against the libresample4j based RealResampler and measures the signal to noise and
+     * distortion ratio of a resampled test tone for each resampler.
+     */
+    public static void main(String[] args)
+    {
+        DecimalFormat df = new DecimalFormat("0.0");
+        double[][] rates = {{25000.0, 8000.0}, {50000.0, 8000.0}, {8000.0, 7200.0}, {8000.0, 48000.0},
+            {24987.5, 8000.0}};
+        int bufferSize = 2000;
+        int iterations = 2000;
+
+        for(double[] rate: rates)
+        {
+            double toneFrequency = 1000.0;
+            float[] samples = new float[bufferSize];
+            ReusableBufferQueue queue = new ReusableBufferQueue("PolyphaseResamplerBenchmark");
+
+            ToneAnalyzer polyphaseAnalyzer = new ToneAnalyzer(rate[1], toneFrequency);
+            PolyphaseResampler polyphase = new PolyphaseResampler(rate[0], rate[1], 1000);
+            polyphase.setListener(polyphaseAnalyzer);
+
+            ToneAnalyzer realAnalyzer = new ToneAnalyzer(rate[1], toneFrequency);
+            //RealResampler sizes its input and output buffers from the input buffer size and stops consuming input
+            //when the output buffer is full, so allow for the upsampled output and for the unconsumed input
+            int realBufferSize = (int)Math.ceil(bufferSize * Math.max(1.0, rate[1] / rate[0])) * 2;
+            RealResampler real = new RealResampler(rate[0], rate[1], realBufferSize, 1000);
+            real.setListener(realAnalyzer);
+
+            long polyphaseElapsed = 0;
+            long realElapsed = 0;
+            long sampleIndex = 0;
+
+            for(int iteration = 0; iteration < iterations; iteration++)
+            {
+                for(int x = 0; x < bufferSize; x++)
+                {
+                    samples[x] = (float)(0.5 * Math.sin(2.0 * Math.PI * toneFrequency * sampleIndex++ / rate[0]));
+                }
+
+                ReusableFloatBuffer polyphaseBuffer = queue.getBuffer(bufferSize);
+                System.arraycopy(samples, 0, polyphaseBuffer.getSamples(), 0, bufferSize);
+                long start = System.nanoTime();
+                polyphase.resample(polyphaseBuffer);
+                polyphaseElapsed += System.nanoTime() - start;
+
+                ReusableFloatBuffer realBuffer = queue.getBuffer(bufferSize);
+                System.arraycopy(samples, 0, realBuffer.getSamples(), 0, bufferSize);
+                start = System.nanoTime();
+                real.resample(realBuffer);
+                realElapsed += System.nanoTime() - start;
+            }
+
+            double inputSamples = (double)bufferSize * iterations;
+
+            mLog.info("Resample [" + rate[0] + " > " + rate[1] + "] ns/input sample - polyphase [" +
+                df.format(polyphaseElapsed / inputSamples) + "] libresample4j [" + df.format(realElapsed / inputSamples) +
+                "] SINAD dB - polyphase [" + df.format(polyphaseAnalyzer.getSINAD()) + "] libresample4j [" +
+                df.format(realAnalyzer.getSINAD()) + "]");
+        }
+    }
+
+    /**
+     * Measures the signal to noise and distortion ratio of a resampled tone by least squares fitting the tone
+     * amplitude and phase and comparing the fitted tone power to the residual power.
+     */
+    private static class ToneAnalyzer implements Listener<ReusableFloatBuffer>
+    {
+        private static final int SETTLING_SAMPLES = 4000;
+        private double mSampleRate;
+        private double mFrequency;
+        private long mIndex;
+        private double mSS, mCC, mSC, mXS, mXC, mXX;
+
+        public ToneAnalyzer(double sampleRate, double frequency)
+        {
+            mSampleRate = sampleRate;
+            mFrequency = frequency;
+        }
+
+        @Override
+        public void receive(ReusableFloatBuffer buffer)
+        {
+            for(float sample: buffer.getSamples())
+            {
+                if(mIndex++ >= SETTLING_SAMPLES)
+                {
+                    double angle = 2.0 * Math.PI * mFrequency * mIndex / mSampleRate;
+                    double s = Math.sin(angle);
+                    double c = Math.cos(angle);
+                    mSS += s * s;
+                    mCC += c * c;
+                    mSC += s * c;
+                    mXS += sample * s;
+                    mXC += sample * c;
+                    mXX += (double)sample * sample;
+                }
+            }
+
+            buffer.decrementUserCount();
+        }
+
+        public double getSINAD()
+        {
+            double determinant = mSS * mCC - mSC * mSC;
+            double a = (mXS * mCC - mXC * mSC) / determinant;
+            double b = (mXC * mSS - mXS * mSC) / determinant;
+            double tonePower = a * mXS + b * mXC;
+            double residual = Math.max(mXX - tonePower, 1E-20);
+            return 10.0 * Math.log10(tonePower / residual);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package io.github.dsheirer.dsp.gain;
 
-import io.github.dsheirer.buffer.DoubleCircularBuffer;
 import io.github.dsheirer.buffer.RealCircularBuffer;
+import io.github.dsheirer.buffer.SlidingWindowExtremum;
 import io.github.dsheirer.sample.buffer.ReusableBufferQueue;
 import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
 import org.apache.commons.math3.util.FastMath;
@@ -133,7 +133,8 @@ public class AutomaticGainControl
     private double mDecayAverage = 0.0;
 
     private RealCircularBuffer mDelayBuffer = new RealCircularBuffer((int)(SAMPLE_RATE * DELAY_TIME_CONSTANT));
-    private DoubleCircularBuffer mMagnitudeBuffer = new DoubleCircularBuffer((int)(SAMPLE_RATE * WINDOW_TIME_CONSTANT));
+    private SlidingWindowExtremum mMagnitudeBuffer =
+        SlidingWindowExtremum.maximum((int)(SAMPLE_RATE * WINDOW_TIME_CONSTANT));
 
     private ReusableBufferQueue mReusableBufferQueue = new ReusableBufferQueue("AutomaticGainControl");
 
@@ -181,18 +182,8 @@ public class AutomaticGainControl
         {
             double currentMagnitude = FastMath.log10(FastMath.abs(currentSample) + MIN_CONSTANT) - FastMath.log10(MAX_AMPLITUDE);
 
-            double delayedMagnitude = mMagnitudeBuffer.get(currentMagnitude);
-
-            if(currentMagnitude > mPeakMagnitude)
-            {
-                /* Use current magnitude as peak if it's larger */
-                mPeakMagnitude = currentMagnitude;
-            }
-            else if(delayedMagnitude == mPeakMagnitude)
-            {
-                /* If delayed magnitude is the current peak, then find a new peak */
-                mPeakMagnitude = mMagnitudeBuffer.max();
-            }
+            /* Peak magnitude of the window history, updated in constant time per sample */
+            mPeakMagnitude = mMagnitudeBuffer.put(currentMagnitude);
 
             /* Exponential decay mode */
             if(mPeakMagnitude > mAttackAverage)
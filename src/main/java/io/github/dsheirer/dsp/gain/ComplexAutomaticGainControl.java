@@ -1,7 +1,7 @@
 package io.github.dsheirer.dsp.gain;
 
 import io.github.dsheirer.buffer.ComplexCircularBuffer;
-import io.github.dsheirer.buffer.DoubleCircularBuffer;
+import io.github.dsheirer.buffer.SlidingWindowExtremum;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.Provider;
 import io.github.dsheirer.sample.complex.Complex;
@@ -137,8 +137,8 @@ public class ComplexAutomaticGainControl implements Listener<Complex>,
 	
 	private ComplexCircularBuffer mDelayBuffer = 
 		new ComplexCircularBuffer( (int)( SAMPLE_RATE * DELAY_TIME_CONSTANT ) );
-	private DoubleCircularBuffer mMagnitudeBuffer = 
-		new DoubleCircularBuffer( (int)( SAMPLE_RATE * WINDOW_TIME_CONSTANT ) );
+	private SlidingWindowExtremum mMagnitudeBuffer =
+		SlidingWindowExtremum.maximum((int)(SAMPLE_RATE * WINDOW_TIME_CONSTANT));
 	
 	private Listener<Complex> mListener;
 	
@@ -160,18 +160,8 @@ public class ComplexAutomaticGainControl implements Listener<Complex>,
 			double currentMagnitude = FastMath.log10( max + MIN_CONSTANT ) -
 							   FastMath.log10( MAX_AMPLITUDE );
 
-			double delayedMagnitude = mMagnitudeBuffer.get( currentMagnitude );
-			
-			if( currentMagnitude > mPeakMagnitude )
-			{
-				/* Use current magnitude as peak if it's larger */
-				mPeakMagnitude = currentMagnitude;
-			}
-			else if( delayedMagnitude == mPeakMagnitude )
-			{
-				/* If delayed magnitude is the current peak, then find a new peak */
-				mPeakMagnitude = mMagnitudeBuffer.max();
-			}
+			/* Peak magnitude of the window history, updated in constant time per sample */
+			mPeakMagnitude = mMagnitudeBuffer.put(currentMagnitude);
 
 			/* Exponential decay mode */
 			if( mPeakMagnitude > mAttackAverage )
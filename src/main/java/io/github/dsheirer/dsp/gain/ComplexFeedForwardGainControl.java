@@ -18,7 +18,7 @@
  */
 package io.github.dsheirer.dsp.gain;
 
-import io.github.dsheirer.buffer.FloatCircularBuffer;
+import io.github.dsheirer.buffer.SlidingWindowExtremum;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
 import io.github.dsheirer.sample.complex.Complex;
@@ -30,7 +30,7 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
     public static final float MINIMUM_ENVELOPE = 0.0001f;
 
     private ComplexSampleListener mListener;
-    private FloatCircularBuffer mEnvelopeHistory;
+    private SlidingWindowExtremum mEnvelopeHistory;
     private ReusableComplexBufferQueue mReusableComplexBufferQueue = new ReusableComplexBufferQueue("ComplexFeedForwardGainControl");
 
     private float mMaxEnvelope = 0.0f;
@@ -49,7 +49,7 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
      */
     public ComplexFeedForwardGainControl(int window)
     {
-        mEnvelopeHistory = new FloatCircularBuffer(window);
+        mEnvelopeHistory = SlidingWindowExtremum.maximum(window);
     }
 
     public void dispose()
@@ -71,32 +71,17 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
 
     private void process(float inphase, float quadrature)
     {
-        float envelope = Complex.envelope(inphase, quadrature);
+        /* Sliding window maximum of the envelope history, updated in constant time per sample */
+        float maxEnvelope = (float)mEnvelopeHistory.put(Complex.envelope(inphase, quadrature));
 
-        if(envelope > mMaxEnvelope)
+        if(maxEnvelope < MINIMUM_ENVELOPE)
         {
-            mMaxEnvelope = envelope;
-
-            adjustGain();
+            maxEnvelope = MINIMUM_ENVELOPE;
         }
 
-        /* Replace oldest envelope value with current envelope value */
-        float oldestEnvelope = mEnvelopeHistory.getAndPut(envelope);
-
-        /* If the oldest envelope value was the max envelope value, then we
-         * have to rediscover the max value from the envelope history */
-        if(mMaxEnvelope == oldestEnvelope && mMaxEnvelope != envelope)
+        if(maxEnvelope != mMaxEnvelope)
         {
-            mMaxEnvelope = MINIMUM_ENVELOPE;
-
-            for(float value : mEnvelopeHistory.getBuffer())
-            {
-                if(value > mMaxEnvelope)
-                {
-                    mMaxEnvelope = value;
-                }
-            }
-
+            mMaxEnvelope = maxEnvelope;
             adjustGain();
         }
     }
@@ -111,14 +96,20 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
         mListener = listener;
     }
 
-    public float[] filter(float[] complesSamples)
+    /**
+     * Applies gain to the interleaved complex samples in place, using the maximum envelope of the samples.
+     *
+     * @param complexSamples to apply gain
+     * @return the same complex sample array with gain applied
+     */
+    public float[] filter(float[] complexSamples)
     {
         mMaxEnvelope = MINIMUM_ENVELOPE;
         float currentEnvelope;
 
-        for(int x = 0; x < complesSamples.length; x += 2)
+        for(int x = 0; x < complexSamples.length; x += 2)
         {
-            currentEnvelope = Complex.envelope(complesSamples[x], complesSamples[x + 1]);
+            currentEnvelope = Complex.envelope(complexSamples[x], complexSamples[x + 1]);
 
             if(currentEnvelope > mMaxEnvelope)
             {
@@ -128,15 +119,12 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
 
         adjustGain();
 
-        float[] processed = new float[complesSamples.length];
-
-        for(int x = 0; x < complesSamples.length; x += 2)
+        for(int x = 0; x < complexSamples.length; x++)
         {
-            processed[x] = complesSamples[x] * mGain;
-            processed[x + 1] = complesSamples[x + 1] * mGain;
+            complexSamples[x] *= mGain;
         }
 
-        return processed;
+        return complexSamples;
     }
 
     /**
@@ -16,10 +16,10 @@
 package io.github.dsheirer.dsp.psk;
 
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.PackedDibitBuffer;
 import io.github.dsheirer.sample.complex.Complex;
 
-public class DQPSKDecisionDirectedDemodulator extends PSKDemodulator<Dibit>
+public class DQPSKDecisionDirectedDemodulator extends PSKDemodulator<PackedDibitBuffer>
 {
     protected DQPSKDecisionDirectedSymbolEvaluator mSymbolEvaluator = new DQPSKDecisionDirectedSymbolEvaluator();
     private Complex mPreviousPrecedingSample = new Complex(0, 0);
@@ -28,6 +28,7 @@ public class DQPSKDecisionDirectedDemodulator extends PSKDemodulator<Dibit>
     private Complex mCurrentSample = new Complex(0, 0);
     private Complex mPrecedingSymbol = new Complex(0, 0);
     protected Complex mCurrentSymbol = new Complex(0, 0);
+    private PackedDibitBuffer mDibits = new PackedDibitBuffer(512);
 
     /**
      * Decoder for Differential Quaternary Phase Shift Keying (DQPSK).  This decoder uses both a Costas Loop (PLL) and
@@ -85,6 +86,19 @@ public class DQPSKDecisionDirectedDemodulator extends PSKDemodulator<Dibit>
         mPreviousPrecedingSample.setValues(mPrecedingSample);
         mPreviousCurrentSample.setValues(mCurrentSample);
 
-        broadcast(mSymbolEvaluator.getSymbolDecision());
+        mDibits.add(mSymbolEvaluator.getSymbolDecision().getValue());
+    }
+
+    /**
+     * Dispatches the symbol decisions accumulated from the sample buffer as a single block.
+     */
+    @Override
+    protected void bufferProcessed()
+    {
+        if(mDibits.size() > 0)
+        {
+            broadcast(mDibits);
+            mDibits.clear();
+        }
     }
 }
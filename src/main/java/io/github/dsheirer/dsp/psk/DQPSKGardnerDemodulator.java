@@ -16,16 +16,17 @@
 package io.github.dsheirer.dsp.psk;
 
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.PackedDibitBuffer;
 import io.github.dsheirer.sample.complex.Complex;
 
-public class DQPSKGardnerDemodulator extends PSKDemodulator<Dibit>
+public class DQPSKGardnerDemodulator extends PSKDemodulator<PackedDibitBuffer>
 {
     protected DQPSKGardnerSymbolEvaluator mSymbolEvaluator = new DQPSKGardnerSymbolEvaluator();
     private Complex mPreviousCurrentSample = new Complex(0, 0);
     private Complex mPreviousMiddleSample = new Complex(0, 0);
     private Complex mMiddleSymbol = new Complex(0, 0);
     protected Complex mCurrentSymbol = new Complex(0, 0);
+    private PackedDibitBuffer mDibits = new PackedDibitBuffer(512);
 
     /**
      * Implements a Differential QPSK demodulator using a Costas Loop (PLL) and a Gardner timing error detector.
@@ -85,6 +86,19 @@ public class DQPSKGardnerDemodulator extends PSKDemodulator<Dibit>
         mPreviousMiddleSample.setValues(middleSample);
         mPreviousCurrentSample.setValues(currentSample);
 
-        broadcast(mSymbolEvaluator.getSymbolDecision());
+        mDibits.add(mSymbolEvaluator.getSymbolDecision().getValue());
+    }
+
+    /**
+     * Dispatches the symbol decisions accumulated from the sample buffer as a single block.
+     */
+    @Override
+    protected void bufferProcessed()
+    {
+        if(mDibits.size() > 0)
+        {
+            broadcast(mDibits);
+            mDibits.clear();
+        }
     }
 }
@@ -90,6 +90,17 @@ public abstract class PSKDemodulator<T> implements ComplexSampleListener
         }
 
         reusableComplexBuffer.decrementUserCount();
+
+        bufferProcessed();
+    }
+
+    /**
+     * Invoked once all samples from a complex sample buffer have been processed.  Sub-classes that accumulate
+     * symbol decisions into blocks can override this method to dispatch the accumulated block.
+     */
+    protected void bufferProcessed()
+    {
+        //No-op by default
     }
 
     /**
@@ -22,21 +22,26 @@
 
 package io.github.dsheirer.dsp.symbol;
 
-import io.github.dsheirer.bits.BitSetFullException;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import org.apache.commons.lang3.Validate;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
 
 /**
  * Circular buffer for storing and accessing dibits.
+ *
+ * Dibit values (0 - 3) are packed 2 bits per symbol into long words and each dibit is written twice, at its
+ * circular buffer position and again one buffer length later, so that any run of dibits starting from the oldest
+ * dibit is stored contiguously.  This allows sync fields and message bits to be extracted a word at a time by
+ * shifting and masking instead of walking the buffer one symbol at a time.
  */
 public class DibitDelayBuffer
 {
-    private final static Logger mLog = LoggerFactory.getLogger(DibitDelayBuffer.class);
+    private static final int MAX_BITS_DIBIT_COUNT = 32;
 
-    protected Dibit[] mBuffer;
-    protected int mPointer;
+    private long[] mWords;
+    private int mLength;
+    private int mPointer;
 
     /**
      * Constructs a dibit delay buffer of the specified length
@@ -44,7 +49,10 @@ public class DibitDelayBuffer
     public DibitDelayBuffer(int length)
     {
         Validate.isTrue(length > 0, "Dibit buffer length must be greater than 0");
-        mBuffer = new Dibit[length];
+        mLength = length;
+
+        //Two copies of the buffer plus one spare word so that two-word reads never run past the end of the array
+        mWords = new long[(length * 2 + 31) / 32 + 1];
         reset();
     }
 
@@ -53,10 +61,8 @@ public class DibitDelayBuffer
      */
     public void reset()
     {
-        for(int x = 0; x < mBuffer.length; x++)
-        {
-            mBuffer[x] = Dibit.D00_PLUS_1;
-        }
+        Arrays.fill(mWords, 0);
+        mPointer = 0;
     }
 
     /**
@@ -64,87 +70,88 @@ public class DibitDelayBuffer
      */
     public int length()
     {
-        return mBuffer.length;
+        return mLength;
     }
 
     /**
-     * Returns the dibit at the specified index
-     * @param index to get
-     * @return dibit at the specified index
+     * Returns the dibit value at the specified index
+     * @param index to get where 0 is the oldest dibit and the newest dibit is buffer length - 1
+     * @return dibit value 0 - 3 at the specified index
      */
-    public Dibit get(int index)
+    public int get(int index)
     {
-        if(index < 0 || index >= mBuffer.length)
-        {
-            throw new IllegalArgumentException("Index argument must be between 0 and buffer length [" + mBuffer.length + "]");
-        }
-
-        return mBuffer[index];
+        checkIndex(index);
+        return getPhysical(mPointer + index);
     }
 
     /**
-     * Sets the dibit at the specified index
-     * @param index of the dibit
-     * @param dibit to load at the specified index
+     * Sets the dibit value at the specified index
+     * @param index of the dibit where 0 is the oldest dibit and the newest dibit is buffer length - 1
+     * @param dibit value 0 - 3 to load at the specified index
      */
-    public void set(int index, Dibit dibit)
+    public void set(int index, int dibit)
     {
-        if(index < 0 || index >= mBuffer.length)
-        {
-            throw new IllegalArgumentException("Index argument must be between 0 and buffer length [" + mBuffer.length + "]");
-        }
-
-        mBuffer[index] = dibit;
+        checkIndex(index);
+        setPhysical(mPointer + index, dibit);
     }
 
     /**
-     * Returns an ordered view of the internal circular buffer contents.
+     * Places the dibit into the internal circular buffer, overwriting the oldest dibit.
+     * @param dibit value 0 - 3
      */
-    public Dibit[] getBuffer()
+    public void put(int dibit)
     {
-        Dibit[] transferBuffer = new Dibit[mBuffer.length];
+        setPhysical(mPointer, dibit);
 
-        int transferBufferPointer = 0;
-        int bufferPointer = mPointer;
+        mPointer++;
 
-        while(transferBufferPointer < transferBuffer.length)
+        if(mPointer >= mLength)
         {
-            transferBuffer[transferBufferPointer++] = mBuffer[bufferPointer++];
-
-            if(bufferPointer >= mBuffer.length)
-            {
-                bufferPointer = 0;
-            }
+            mPointer = 0;
         }
+    }
 
-        return transferBuffer;
+    /**
+     * Places the dibit into the internal circular buffer, overwriting and returning the oldest dibit.
+     * @param dibit value 0 - 3
+     * @return oldest dibit value that was removed from the buffer
+     */
+    public int getAndPut(int dibit)
+    {
+        int toReturn = getPhysical(mPointer);
+        put(dibit);
+        return toReturn;
     }
 
     /**
-     * Retrieves a view of the buffer from the starting index to the specified length.  Note: if the requested
-     * length exceeds the length of this buffer, the contents will be unwrapped from the circular buffer and repeated.
-     * @param start of the view where 0 is the first element.
-     * @param length of the dibit view
-     * @return an array of dibits
+     * Extracts a run of dibits as a right-aligned value where the first dibit occupies the most significant bit
+     * positions.
+     *
+     * @param start dibit index where 0 is the oldest dibit and the newest dibit is buffer length - 1
+     * @param dibitCount number of dibits to extract, 1 - 32
+     * @return packed value containing dibitCount * 2 bits
      */
-    public Dibit[] getBuffer(int start, int length)
+    public long getBits(int start, int dibitCount)
     {
-        Dibit[] transferBuffer = new Dibit[length];
+        if(dibitCount < 1 || dibitCount > MAX_BITS_DIBIT_COUNT || start < 0 || start + dibitCount > mLength)
+        {
+            throw new IllegalArgumentException("Requested dibits [" + start + "-" + (start + dibitCount) +
+                "] must be 1-32 dibits within the buffer length [" + mLength + "]");
+        }
 
-        int transferBufferPointer = 0;
-        int bufferPointer = (mPointer + start) % mBuffer.length;
+        int bitPosition = (mPointer + start) << 1;
+        int word = bitPosition >>> 6;
+        int offset = bitPosition & 63;
+        int bitCount = dibitCount << 1;
 
-        while(transferBufferPointer < transferBuffer.length)
-        {
-            transferBuffer[transferBufferPointer++] = mBuffer[bufferPointer++];
+        long value = mWords[word] << offset;
 
-            if(bufferPointer >= mBuffer.length)
-            {
-                bufferPointer = 0;
-            }
+        if(offset + bitCount > 64)
+        {
+            value |= mWords[word + 1] >>> (64 - offset);
         }
 
-        return transferBuffer;
+        return value >>> (64 - bitCount);
     }
 
     /**
@@ -158,103 +165,98 @@ public class DibitDelayBuffer
     {
         CorrectedBinaryMessage message = new CorrectedBinaryMessage(dibitLength * 2);
 
-        int dibitCount = 0;
-        int bufferPointer = (mPointer + start) % mBuffer.length;
+        int offset = 0;
 
-        try
+        while(offset < dibitLength)
         {
-            while(dibitCount < dibitLength)
+            int dibitCount = Math.min(MAX_BITS_DIBIT_COUNT, dibitLength - offset);
+            long bits = getBits(start + offset, dibitCount);
+            int messageIndex = (offset << 1) - (64 - (dibitCount << 1));
+
+            //Only the set bits have to be transferred since the message starts out cleared
+            while(bits != 0)
             {
-                Dibit dibit = mBuffer[bufferPointer++];
-                message.add(dibit.getBit1());
-                message.add(dibit.getBit2());
-                dibitCount++;
-
-                if(bufferPointer >= mBuffer.length)
-                {
-                    bufferPointer = 0;
-                }
+                int leadingZeros = Long.numberOfLeadingZeros(bits);
+                message.set(messageIndex + leadingZeros);
+                bits &= ~(Long.MIN_VALUE >>> leadingZeros);
             }
-        }
-        catch(BitSetFullException e)
-        {
-            //This shouldn't happen
-            mLog.error("Bit set full ??", e);
+
+            offset += dibitCount;
         }
 
+        message.setPointer(dibitLength * 2);
         return message;
     }
 
     /**
-     * Utility method to view the buffer contents with the dibits decoded as an array of zeros and ones.
+     * Corrects a run of dibits in this buffer that were produced by a QPSK phase locked loop with a carrier lock
+     * misalignment.
+     *
+     * @param start dibit index where 0 is the oldest dibit and the newest dibit is buffer length - 1
+     * @param dibitLength number of dibits to correct
+     * @param carrierLock that indicates the misalignment
      */
-    public int[] getBufferAsArray()
+    public void correct(int start, int dibitLength, QPSKCarrierLock carrierLock)
     {
-        Dibit[] dibits = getBuffer();
+        if(carrierLock == QPSKCarrierLock.NORMAL)
+        {
+            return;
+        }
 
-        int[] bits = new int[dibits.length * 2];
+        int offset = 0;
 
-        for(int x = 0; x < dibits.length; x++)
+        while(offset < dibitLength)
         {
-            if(dibits[x].getBit1())
-            {
-                bits[x * 2] = 1;
-            }
-            if(dibits[x].getBit2())
+            int dibitCount = Math.min(MAX_BITS_DIBIT_COUNT, dibitLength - offset);
+            long corrected = carrierLock.correct(getBits(start + offset, dibitCount));
+            int physical = mPointer + start + offset;
+
+            for(int x = 0; x < dibitCount; x++)
             {
-                bits[x * 2 + 1] = 1;
+                setPhysical(physical + x, (int)(corrected >>> ((dibitCount - x - 1) << 1)) & 0x3);
             }
-        }
 
-        return bits;
+            offset += dibitCount;
+        }
     }
 
     /**
-     * Places the dibit into the internal circular buffer, overwriting the oldest dibit.
+     * Validates that the logical index is within the bounds of this buffer
      */
-    public void put(Dibit dibit)
+    private void checkIndex(int index)
     {
-        mBuffer[mPointer++] = dibit;
-
-        if(mPointer >= mBuffer.length)
+        if(index < 0 || index >= mLength)
         {
-            mPointer = 0;
+            throw new IllegalArgumentException("Index argument must be between 0 and buffer length [" + mLength + "]");
         }
     }
 
     /**
-     * Places the dibit into the internal circular buffer, overwriting and returning the
-     * oldest dibit.
+     * Dibit value at the physical dibit position in the packed words
      */
-    public Dibit getAndPut(Dibit dibit)
+    private int getPhysical(int position)
     {
-        Dibit toReturn = mBuffer[mPointer];
-        put(dibit);
-        return toReturn;
+        return (int)(mWords[position >>> 5] >>> (62 - ((position & 31) << 1))) & 0x3;
     }
 
     /**
-     * Logs the contents of the buffer
+     * Writes the dibit value at the physical position and at the mirrored position in the other copy of the buffer.
+     * @param position physical position 0 to (2 * length) - 1
+     * @param dibit value 0 - 3
      */
-    public void log()
+    private void setPhysical(int position, int dibit)
     {
-        StringBuilder sb = new StringBuilder();
-
-        int counter = 0;
-        int pointer = mPointer;
-
-        while(counter < mBuffer.length)
-        {
-            sb.append(mBuffer[pointer].getBit1() ? "1" : "0");
-            sb.append(mBuffer[pointer++].getBit2() ? "1" : "0");
-
-            if(pointer >= mBuffer.length)
-            {
-                pointer = 0;
-            }
+        write(position, dibit);
+        write(position < mLength ? position + mLength : position - mLength, dibit);
+    }
 
-            counter++;
-        }
-        mLog.debug("BUFFER: " + sb + " Length:" + mBuffer.length);
+    /**
+     * Writes the dibit value into the packed words at the physical position
+     */
+    private void write(int position, int dibit)
+    {
+        int shift = 62 - ((position & 31) << 1);
+        int word = position >>> 5;
+        mWords[word] = (mWords[word] & ~(0x3L << shift)) | ((long)(dibit & 0x3) << shift);
     }
 }
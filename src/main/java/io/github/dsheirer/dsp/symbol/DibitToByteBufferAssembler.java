@@ -23,9 +23,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Assembles reusable byte buffers from an incoming stream of Dibits.
+ * Assembles reusable byte buffers from an incoming stream of packed dibit blocks.
  */
-public class DibitToByteBufferAssembler implements Listener<Dibit>, IReusableByteBufferProvider
+public class DibitToByteBufferAssembler implements Listener<PackedDibitBuffer>, IReusableByteBufferProvider
 {
     private final static Logger mLog = LoggerFactory.getLogger(DibitToByteBufferAssembler.class);
 
@@ -64,37 +64,23 @@ public class DibitToByteBufferAssembler implements Listener<Dibit>, IReusableByt
     }
 
     @Override
-    public void receive(Dibit dibit)
+    public void receive(PackedDibitBuffer dibits)
     {
-        mCurrentByte <<= 2;
-
-        switch(dibit)
-        {
-            case D01_PLUS_3:
-                mCurrentByte |= 0x01;
-                break;
-            case D00_PLUS_1:
-                //no-op - value is already 00
-                break;
-            case D10_MINUS_1:
-                mCurrentByte |= 0x02;
-                break;
-            case D11_MINUS_3:
-                mCurrentByte |= 0x03;
-                break;
-        }
-
-        mDibitCount++;
-
-        if(mDibitCount >= 4)
+        for(int x = 0; x < dibits.size(); x++)
         {
-            mCurrentBuffer.getBytes()[mBufferPointer++] = mCurrentByte;
-            mCurrentByte = 0x00;
-            mDibitCount = 0;
+            mCurrentByte = (byte)((mCurrentByte << 2) | dibits.get(x));
+            mDibitCount++;
 
-            if(mBufferPointer >= mBufferSize)
+            if(mDibitCount >= 4)
             {
-                getNextBuffer();
+                mCurrentBuffer.getBytes()[mBufferPointer++] = mCurrentByte;
+                mCurrentByte = 0x00;
+                mDibitCount = 0;
+
+                if(mBufferPointer >= mBufferSize)
+                {
+                    getNextBuffer();
+                }
             }
         }
     }
@@ -0,0 +1,100 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.dsp.symbol;
+
+import java.util.Arrays;
+
+/**
+ * Block of dibit symbol values (0 - 3) packed 2 bits per symbol into long words, 32 symbols per word.  The first
+ * symbol in each word occupies the two most significant bits.
+ *
+ * Symbol producers (demodulators) accumulate symbol decisions into a block and deliver the block to listeners once
+ * per processed sample buffer.  Listeners must consume the block contents during the receive() call and must not
+ * retain a reference to the block since the producer clears and reuses it for the next sample buffer.
+ */
+public class PackedDibitBuffer
+{
+    private static final int DIBITS_PER_WORD = 32;
+
+    private long[] mWords;
+    private int mSize;
+
+    /**
+     * Constructs an instance
+     * @param capacity initial capacity in dibits.  The buffer will grow as needed.
+     */
+    public PackedDibitBuffer(int capacity)
+    {
+        mWords = new long[Math.max(1, (capacity + DIBITS_PER_WORD - 1) / DIBITS_PER_WORD)];
+    }
+
+    /**
+     * Appends the dibit value to the end of this buffer
+     * @param dibit value 0 - 3
+     */
+    public void add(int dibit)
+    {
+        int word = mSize >>> 5;
+
+        if(word >= mWords.length)
+        {
+            mWords = Arrays.copyOf(mWords, mWords.length * 2);
+        }
+
+        int shift = 62 - ((mSize & 31) << 1);
+
+        if(shift == 62)
+        {
+            mWords[word] = (long)(dibit & 0x3) << 62;
+        }
+        else
+        {
+            mWords[word] |= (long)(dibit & 0x3) << shift;
+        }
+
+        mSize++;
+    }
+
+    /**
+     * Dibit value at the specified index
+     * @param index of the dibit where 0 is the first (oldest) dibit in the buffer
+     * @return dibit value 0 - 3
+     */
+    public int get(int index)
+    {
+        return (int)(mWords[index >>> 5] >>> (62 - ((index & 31) << 1))) & 0x3;
+    }
+
+    /**
+     * Number of dibits in this buffer
+     */
+    public int size()
+    {
+        return mSize;
+    }
+
+    /**
+     * Resets this buffer to empty.  The backing words are overwritten as new dibits are added.
+     */
+    public void clear()
+    {
+        mSize = 0;
+    }
+}
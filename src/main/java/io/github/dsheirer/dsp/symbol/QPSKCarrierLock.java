@@ -40,6 +40,12 @@ public enum QPSKCarrierLock
             //No correction needed
             return dibit;
         }
+
+        @Override
+        public long correct(long dibits)
+        {
+            return dibits;
+        }
     },
 
     /**
@@ -63,6 +69,13 @@ public enum QPSKCarrierLock
                     return Dibit.D01_PLUS_3;
             }
         }
+
+        @Override
+        public long correct(long dibits)
+        {
+            //Bit 1 = inverted bit 2 and bit 2 = bit 1
+            return ((~dibits << 1) & BIT_1_MASK) | ((dibits >>> 1) & BIT_2_MASK);
+        }
     },
 
     /**
@@ -86,6 +99,13 @@ public enum QPSKCarrierLock
                     return Dibit.D10_MINUS_1;
             }
         }
+
+        @Override
+        public long correct(long dibits)
+        {
+            //Bit 1 = bit 2 and bit 2 = inverted bit 1
+            return ((dibits << 1) & BIT_1_MASK) | ((~dibits >>> 1) & BIT_2_MASK);
+        }
     },
 
     /**
@@ -109,6 +129,12 @@ public enum QPSKCarrierLock
                     return Dibit.D00_PLUS_1;
             }
         }
+
+        @Override
+        public long correct(long dibits)
+        {
+            return ~dibits;
+        }
     };
 
     /**
@@ -117,4 +143,16 @@ public enum QPSKCarrierLock
      * @return dibit that is corrected to the dibit for a correctly aligned QPSK Phase Locked Loop
      */
     public abstract Dibit correct(Dibit dibit);
+
+    /**
+     * Corrects a packed run of dibit values (2 bits per dibit) that were generated by a misaligned QPSK phase locked
+     * loop.  The returned value may contain set bits outside of the run and the caller should mask the value to
+     * the run length.
+     * @param dibits packed dibit values
+     * @return corrected packed dibit values
+     */
+    public abstract long correct(long dibits);
+
+    private static final long BIT_1_MASK = 0xAAAAAAAAAAAAAAAAl;
+    private static final long BIT_2_MASK = 0x5555555555555555l;
 }
@@ -102,6 +102,56 @@ public class BPTC_196_96
         return extracted;
     }
 
+    /**
+     * Creates the interleaved (transmitted) DMR BPTC(196,96) protected message for a 96-bit message.  This is the
+     * inverse of the extract() method: the message bits are loaded into the first nine rows, each row is protected
+     * by a Hamming(15,11,3) checksum and each column is protected by a Hamming(13,9,3) checksum in the last four rows.
+     *
+     * @param payload containing the 96-bit message
+     * @return interleaved 196-bit BPTC protected message
+     */
+    public static CorrectedBinaryMessage encode(BinaryMessage payload)
+    {
+        CorrectedBinaryMessage message = new CorrectedBinaryMessage(BPTC_LENGTH);
+
+        int index = MESSAGE_START_INDEX;
+
+        for(int x = 0; x < EXTRACTED_LENGTH; x++)
+        {
+            if((index % COLUMN_COUNT) >= MESSAGE_COLUMN_COUNT)
+            {
+                index += CHECKSUM_COLUMN_COUNT;
+            }
+
+            message.set(index++, payload.get(x));
+        }
+
+        for(int row = 0; row < 9; row++)
+        {
+            int offset = (row * 15) + 1;
+            message.load(offset + 11, 4, Hamming15.calculateChecksum(message, offset));
+        }
+
+        for(int[] column: COLUMN_INDEXES)
+        {
+            int checksum = Hamming13.calculateChecksum(message, column);
+
+            for(int x = 0; x < 4; x++)
+            {
+                message.set(column[9 + x], ((checksum >> (3 - x)) & 0x1) == 1);
+            }
+        }
+
+        CorrectedBinaryMessage interleaved = new CorrectedBinaryMessage(BPTC_LENGTH);
+
+        for(int x = 0; x < BPTC_DEINTERLEAVE.length; x++)
+        {
+            interleaved.set(BPTC_DEINTERLEAVE[x], message.get(x));
+        }
+
+        return interleaved;
+    }
+
     /**
      * De-interleaves the transmitted bits of a DMR BPTC(196,96) protected message
      * @param message that contains interleaved (transmitted) message
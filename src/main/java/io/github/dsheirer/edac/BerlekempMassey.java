@@ -191,6 +191,53 @@ public class BerlekempMassey
         }
     }
 
+    /**
+     * Systematic encoder.  Calculates the parity symbols for the message symbols in the codeword using the same
+     * symbol order as the decode() method: message symbols occupy codeword indexes NN-KK to NN-1 and parity symbols
+     * are placed in codeword indexes 0 to NN-KK-1.  Shortened codes are encoded by leaving the unused (highest index)
+     * message symbols set to zero.
+     *
+     * @param codeword in polynomial form containing the message symbols, updated with the parity symbols
+     */
+    public void encode(int[] codeword)
+    {
+        int parityLength = NN - KK;
+        int[] bb = new int[parityLength];
+
+        for(int i = KK - 1; i >= 0; i--)
+        {
+            int feedback = index_of[codeword[i + parityLength] ^ bb[parityLength - 1]];
+
+            if(feedback != -1)
+            {
+                for(int j = parityLength - 1; j > 0; j--)
+                {
+                    if(gg[j] != -1)
+                    {
+                        bb[j] = bb[j - 1] ^ alpha_to[(gg[j] + feedback) % NN];
+                    }
+                    else
+                    {
+                        bb[j] = bb[j - 1];
+                    }
+                }
+
+                bb[0] = alpha_to[(gg[0] + feedback) % NN];
+            }
+            else
+            {
+                for(int j = parityLength - 1; j > 0; j--)
+                {
+                    bb[j] = bb[j - 1];
+                }
+
+                bb[0] = 0;
+            }
+        }
+
+        System.arraycopy(bb, 0, codeword, 0, parityLength);
+    }
+
     /**
      * Decodes
      *
@@ -94,7 +94,7 @@ public class Hamming10
      * @param startIndex - start bit index of the hamming protected word
      * @return parity value, 0 - 15
      */
-    private static int calculateChecksum(BinaryMessage frame, int startIndex)
+    public static int calculateChecksum(BinaryMessage frame, int startIndex)
     {
         int calculated = 0; //Starting value
 
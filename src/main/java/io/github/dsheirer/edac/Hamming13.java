@@ -80,7 +80,14 @@ public class Hamming13
         return calculated;
     }
 
-    private static int calculateChecksum(BinaryMessage message, int[] indices)
+    /**
+     * Calculates the parity checksum (Parity 8,4,2,1) for the data bits at the first 9 of the indices.
+     *
+     * @param message containing the Hamming protected word
+     * @param indices to the word
+     * @return parity value, 0 - 15
+     */
+    public static int calculateChecksum(BinaryMessage message, int[] indices)
     {
         int calculated = 0; //Starting value
 
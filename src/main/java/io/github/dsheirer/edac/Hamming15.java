@@ -38,7 +38,7 @@ public class Hamming15
      * @param offset to the Hamming protected word
      * @return parity value, 0 - 15
      */
-    private static int calculateChecksum(BinaryMessage message, int offset)
+    public static int calculateChecksum(BinaryMessage message, int offset)
     {
         int calculated = 0; //Starting value
 
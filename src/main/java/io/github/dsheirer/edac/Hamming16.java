@@ -86,7 +86,7 @@ public class Hamming16
      * @param startIndex - start bit index of the hamming protected word
      * @return parity value, 0 - 16
      */
-    private static int calculateChecksum(BinaryMessage frame, int startIndex)
+    public static int calculateChecksum(BinaryMessage frame, int startIndex)
     {
         int calculated = 0; //Starting value
 
@@ -0,0 +1,146 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.gui;
+
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.EventQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies batched model updates on the Swing event dispatch thread at a fixed UI frame rate.  Producers collect
+ * their model changes off of the event dispatch thread and request an update.  Each frame, the scheduler posts at
+ * most one update to the event dispatch thread, regardless of how many updates were requested during the frame, and
+ * never posts a new update while a previous update is still queued.
+ */
+public class ModelUpdateScheduler
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ModelUpdateScheduler.class);
+
+    public static final long DEFAULT_FRAME_INTERVAL_MILLISECONDS = 100; //10 frames per second
+
+    private Runnable mUpdate;
+    private long mFrameInterval;
+    private AtomicBoolean mUpdateRequested = new AtomicBoolean();
+    private AtomicBoolean mUpdateQueued = new AtomicBoolean();
+    private volatile ScheduledFuture<?> mFrameTimer;
+    private long mUpdateCount;
+
+    /**
+     * Constructs an instance
+     * @param update to run on the Swing event dispatch thread to apply the pending model changes
+     * @param frameInterval in milliseconds
+     */
+    public ModelUpdateScheduler(Runnable update, long frameInterval)
+    {
+        mUpdate = update;
+        mFrameInterval = frameInterval;
+    }
+
+    /**
+     * Constructs an instance with the default frame interval
+     * @param update to run on the Swing event dispatch thread to apply the pending model changes
+     */
+    public ModelUpdateScheduler(Runnable update)
+    {
+        this(update, DEFAULT_FRAME_INTERVAL_MILLISECONDS);
+    }
+
+    /**
+     * Requests that the pending model changes be applied at the next frame.  Safe to invoke from any thread.
+     */
+    public void requestUpdate()
+    {
+        mUpdateRequested.set(true);
+
+        if(mFrameTimer == null)
+        {
+            start();
+        }
+    }
+
+    /**
+     * Number of updates that have been applied on the event dispatch thread
+     */
+    public long getUpdateCount()
+    {
+        return mUpdateCount;
+    }
+
+    /**
+     * Starts the frame timer
+     */
+    private synchronized void start()
+    {
+        if(mFrameTimer == null)
+        {
+            mFrameTimer = ThreadPool.SCHEDULED.scheduleAtFixedRate(this::frame, mFrameInterval, mFrameInterval,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the frame timer.  Pending changes are applied if another update is requested.
+     */
+    public synchronized void dispose()
+    {
+        if(mFrameTimer != null)
+        {
+            mFrameTimer.cancel(false);
+            mFrameTimer = null;
+        }
+    }
+
+    /**
+     * Frame timer task - posts a single update to the event dispatch thread when changes are pending
+     */
+    private void frame()
+    {
+        if(mUpdateRequested.get() && mUpdateQueued.compareAndSet(false, true))
+        {
+            EventQueue.invokeLater(this::update);
+        }
+    }
+
+    /**
+     * Applies the pending changes on the event dispatch thread
+     */
+    private void update()
+    {
+        //Clear the request flags before applying the changes so that changes that arrive during the update are
+        //applied in the next frame
+        mUpdateRequested.set(false);
+        mUpdateQueued.set(false);
+        mUpdateCount++;
+
+        try
+        {
+            mUpdate.run();
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error applying model updates", t);
+        }
+    }
+}
@@ -25,9 +25,9 @@ import io.github.dsheirer.gui.instrument.decoder.AbstractDecoderPane;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableBufferBroadcaster;
 import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
+import io.github.dsheirer.source.AbstractComplexFileSource;
 import io.github.dsheirer.source.IControllableFileSource;
 import io.github.dsheirer.source.IFrameLocationListener;
-import io.github.dsheirer.source.wave.ComplexWaveSource;
 import io.github.dsheirer.source.wave.RealWaveSource;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
@@ -90,13 +90,13 @@ public class PlaybackController extends HBox implements IFrameLocationListener
     {
         if(file != null && file.isFile())
         {
-            if(ComplexWaveSource.supports(file))
+            if(AbstractComplexFileSource.supports(file))
             {
                 try
                 {
-                    mControllableFileSource = new ComplexWaveSource(file);
+                    mControllableFileSource = AbstractComplexFileSource.getSource(file, false);
                     mControllableFileSource.setListener(this);
-                    ((ComplexWaveSource)mControllableFileSource).setListener(mReusableBufferBroadcaster);
+                    ((AbstractComplexFileSource)mControllableFileSource).setListener(mReusableBufferBroadcaster);
                     mControllableFileSource.open();
 
                     if(mSampleRateListener != null)
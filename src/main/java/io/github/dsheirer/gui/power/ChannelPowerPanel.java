@@ -100,7 +100,7 @@ public class ChannelPowerPanel extends JPanel implements Listener<ProcessingChai
             {
                 ISquelchConfiguration configuration = (ISquelchConfiguration)channel.getDecodeConfiguration();
                 configuration.setSquelchThreshold(threshold);
-                mPlaylistManager.schedulePlaylistSave();
+                mPlaylistManager.schedulePlaylistSave(channel);
             }
         }
     }
@@ -21,12 +21,17 @@ package io.github.dsheirer.gui.preference.record;
 
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.record.RecordPreference;
+import io.github.dsheirer.record.BasebandRecordFormat;
 import io.github.dsheirer.record.RecordFormat;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.geometry.Insets;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.SpinnerValueFactory;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
@@ -43,6 +48,11 @@ public class RecordPreferenceEditor extends HBox
     private RecordPreference mRecordPreference;
     private GridPane mEditorPane;
     private ComboBox<RecordFormat> mRecordFormatComboBox;
+    private ComboBox<BasebandRecordFormat> mBasebandRecordFormatComboBox;
+    private CheckBox mBasebandCompressionCheckBox;
+    private CheckBox mArchiveEnabledCheckBox;
+    private Spinner<Integer> mArchiveRetentionDaysSpinner;
+    private Spinner<Integer> mArchiveSegmentSizeSpinner;
 
     public RecordPreferenceEditor(UserPreferences userPreferences)
     {
@@ -64,6 +74,23 @@ public class RecordPreferenceEditor extends HBox
             mEditorPane.add(label, 0, 0);
 
             mEditorPane.add(getRecordFormatComboBox(), 1, 0);
+
+            Label basebandLabel = new Label("Baseband I/Q Recording Format:");
+            mEditorPane.add(basebandLabel, 0, 1);
+            mEditorPane.add(getBasebandRecordFormatComboBox(), 1, 1);
+            mEditorPane.add(getBasebandCompressionCheckBox(), 1, 2);
+
+            Label archiveLabel = new Label("Call Archive:");
+            mEditorPane.add(archiveLabel, 0, 3);
+            mEditorPane.add(getArchiveEnabledCheckBox(), 1, 3);
+
+            Label retentionLabel = new Label("Call Archive Retention (Days):");
+            mEditorPane.add(retentionLabel, 0, 4);
+            mEditorPane.add(getArchiveRetentionDaysSpinner(), 1, 4);
+
+            Label segmentSizeLabel = new Label("Call Archive Segment Size (MB):");
+            mEditorPane.add(segmentSizeLabel, 0, 5);
+            mEditorPane.add(getArchiveSegmentSizeSpinner(), 1, 5);
         }
 
         return mEditorPane;
@@ -88,4 +115,95 @@ public class RecordPreferenceEditor extends HBox
 
         return mRecordFormatComboBox;
     }
+
+    private ComboBox<BasebandRecordFormat> getBasebandRecordFormatComboBox()
+    {
+        if(mBasebandRecordFormatComboBox == null)
+        {
+            mBasebandRecordFormatComboBox = new ComboBox<>();
+            mBasebandRecordFormatComboBox.getItems().addAll(BasebandRecordFormat.values());
+            mBasebandRecordFormatComboBox.getSelectionModel().select(mRecordPreference.getBasebandRecordFormat());
+            mBasebandRecordFormatComboBox.getSelectionModel().selectedItemProperty()
+                .addListener(new ChangeListener<BasebandRecordFormat>()
+            {
+                @Override
+                public void changed(ObservableValue<? extends BasebandRecordFormat> observable,
+                                    BasebandRecordFormat oldValue, BasebandRecordFormat newValue)
+                {
+                    mRecordPreference.setBasebandRecordFormat(newValue);
+                    getBasebandCompressionCheckBox().setDisable(newValue.getSampleFormat() == null);
+                }
+            });
+        }
+
+        return mBasebandRecordFormatComboBox;
+    }
+
+    private CheckBox getBasebandCompressionCheckBox()
+    {
+        if(mBasebandCompressionCheckBox == null)
+        {
+            mBasebandCompressionCheckBox = new CheckBox("Lossless Compression (.bbr)");
+            mBasebandCompressionCheckBox.setSelected(mRecordPreference.isBasebandCompression());
+            mBasebandCompressionCheckBox.setDisable(mRecordPreference.getBasebandRecordFormat().getSampleFormat() == null);
+            mBasebandCompressionCheckBox.selectedProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setBasebandCompression(newValue));
+        }
+
+        return mBasebandCompressionCheckBox;
+    }
+
+    private CheckBox getArchiveEnabledCheckBox()
+    {
+        if(mArchiveEnabledCheckBox == null)
+        {
+            mArchiveEnabledCheckBox = new CheckBox("Archive Call Audio and Decode Events");
+            mArchiveEnabledCheckBox.setTooltip(new Tooltip("Archives all completed call audio and decode events " +
+                "to the archive directory.  Archived call audio can be exported from the decode event table."));
+            mArchiveEnabledCheckBox.setSelected(mRecordPreference.isArchiveEnabled());
+            mArchiveEnabledCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+                mRecordPreference.setArchiveEnabled(newValue);
+                getArchiveRetentionDaysSpinner().setDisable(!newValue);
+                getArchiveSegmentSizeSpinner().setDisable(!newValue);
+            });
+        }
+
+        return mArchiveEnabledCheckBox;
+    }
+
+    private Spinner<Integer> getArchiveRetentionDaysSpinner()
+    {
+        if(mArchiveRetentionDaysSpinner == null)
+        {
+            mArchiveRetentionDaysSpinner = new Spinner<>();
+            mArchiveRetentionDaysSpinner.setTooltip(new Tooltip("Number of days to retain archived calls and events"));
+            mArchiveRetentionDaysSpinner.getStyleClass().add(Spinner.STYLE_CLASS_SPLIT_ARROWS_HORIZONTAL);
+            SpinnerValueFactory<Integer> svf = new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 365,
+                mRecordPreference.getArchiveRetentionDays());
+            mArchiveRetentionDaysSpinner.setValueFactory(svf);
+            mArchiveRetentionDaysSpinner.setDisable(!mRecordPreference.isArchiveEnabled());
+            mArchiveRetentionDaysSpinner.getValueFactory().valueProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setArchiveRetentionDays(newValue));
+        }
+
+        return mArchiveRetentionDaysSpinner;
+    }
+
+    private Spinner<Integer> getArchiveSegmentSizeSpinner()
+    {
+        if(mArchiveSegmentSizeSpinner == null)
+        {
+            mArchiveSegmentSizeSpinner = new Spinner<>();
+            mArchiveSegmentSizeSpinner.setTooltip(new Tooltip("Maximum size of each call archive segment file"));
+            mArchiveSegmentSizeSpinner.getStyleClass().add(Spinner.STYLE_CLASS_SPLIT_ARROWS_HORIZONTAL);
+            SpinnerValueFactory<Integer> svf = new SpinnerValueFactory.IntegerSpinnerValueFactory(8, 1024,
+                mRecordPreference.getArchiveSegmentSizeMB(), 8);
+            mArchiveSegmentSizeSpinner.setValueFactory(svf);
+            mArchiveSegmentSizeSpinner.setDisable(!mRecordPreference.isArchiveEnabled());
+            mArchiveSegmentSizeSpinner.getValueFactory().valueProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setArchiveSegmentSizeMB(newValue));
+        }
+
+        return mArchiveSegmentSizeSpinner;
+    }
 }
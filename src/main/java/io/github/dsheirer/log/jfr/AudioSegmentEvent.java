@@ -0,0 +1,57 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.log.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for an audio module closing (completing) an audio segment.
+ */
+@Name("io.github.dsheirer.AudioSegmentComplete")
+@Label("Audio Segment Complete")
+@Description("Audio module completion of a call audio segment")
+@Category({"sdrtrunk", "Audio"})
+@Enabled(false)
+@StackTrace(false)
+public class AudioSegmentEvent extends jdk.jfr.Event
+{
+    @Label("Channel")
+    public String channel;
+
+    @Label("Frequency")
+    @Frequency
+    public long frequency;
+
+    @Label("Timeslot")
+    public int timeslot;
+
+    @Label("Audio Buffers")
+    public int bufferCount;
+
+    @Label("Audio Duration")
+    @Timespan(Timespan.MILLISECONDS)
+    public long audioDuration;
+}
@@ -0,0 +1,57 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.log.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for an audio broadcaster sending audio to a remote streaming or call upload server.
+ */
+@Name("io.github.dsheirer.BroadcastUpload")
+@Label("Broadcast Upload")
+@Description("Audio broadcaster transfer of audio to a remote server")
+@Category({"sdrtrunk", "Audio"})
+@Enabled(false)
+@StackTrace(false)
+public class BroadcastUploadEvent extends jdk.jfr.Event
+{
+    @Label("Broadcaster")
+    public String broadcaster;
+
+    @Label("Channel")
+    public String channel;
+
+    @Label("Frequency")
+    @Frequency
+    public long frequency;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,56 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.log.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a polyphase channel output processor draining queued channelizer results and assembling
+ * them into channel sample buffers.
+ */
+@Name("io.github.dsheirer.ChannelOutput")
+@Label("Channel Output Drain")
+@Description("Polyphase channel output processor drain of queued channelizer results")
+@Category({"sdrtrunk", "DSP"})
+@Enabled(false)
+@StackTrace(false)
+public class ChannelOutputEvent extends jdk.jfr.Event
+{
+    @Label("Channel Sample Rate")
+    @Frequency
+    public long sampleRate;
+
+    @Label("Polyphase Channels")
+    @Description("Number of polyphase channels combined by the output processor")
+    public int inputChannelCount;
+
+    @Label("Results Drained")
+    @Description("Number of channelizer result buffers drained from the queue")
+    public int bufferCount;
+
+    @Label("Frequency Offset")
+    @Frequency
+    public long frequencyOffset;
+}
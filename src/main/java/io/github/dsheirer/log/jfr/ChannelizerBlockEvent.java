@@ -0,0 +1,57 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.log.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for the polyphase channelizer filtering of one tuner sample buffer.
+ *
+ * Disabled by default.  Enable with a JFR settings file or -XX:StartFlightRecording:settings=... and the
+ * event name io.github.dsheirer.ChannelizerBlock
+ */
+@Name("io.github.dsheirer.ChannelizerBlock")
+@Label("Channelizer Block")
+@Description("Polyphase channelizer filter processing of one complex sample buffer")
+@Category({"sdrtrunk", "DSP"})
+@Enabled(false)
+@StackTrace(false)
+public class ChannelizerBlockEvent extends jdk.jfr.Event
+{
+    @Label("Tuner Sample Rate")
+    @Frequency
+    public long sampleRate;
+
+    @Label("Channel Count")
+    public int channelCount;
+
+    @Label("Buffer Samples")
+    @Description("Number of complex samples in the tuner buffer")
+    public int bufferSize;
+
+    @Label("Blocks Processed")
+    @Description("Number of channel results produced from the buffer")
+    public int blockCount;
+}
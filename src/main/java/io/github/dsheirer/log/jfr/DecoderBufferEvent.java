@@ -0,0 +1,53 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.log.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a decoder processing one channel sample buffer (filter, AGC, demodulate and frame).
+ */
+@Name("io.github.dsheirer.DecoderBuffer")
+@Label("Decoder Buffer")
+@Description("Decoder processing of one channel complex sample buffer")
+@Category({"sdrtrunk", "Decoder"})
+@Enabled(false)
+@StackTrace(false)
+public class DecoderBufferEvent extends jdk.jfr.Event
+{
+    @Label("Decoder")
+    public String decoder;
+
+    @Label("Channel")
+    public String channel;
+
+    @Label("Frequency")
+    @Frequency
+    public long frequency;
+
+    @Label("Buffer Samples")
+    @Description("Number of complex samples in the channel buffer")
+    public int bufferSize;
+}
@@ -0,0 +1,70 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.log.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for a traffic channel start, measured from the channel start request that is produced by the
+ * traffic channel manager when it processes a channel grant.
+ */
+@Name("io.github.dsheirer.TrafficChannelStart")
+@Label("Traffic Channel Start")
+@Description("Traffic channel start latency from channel grant to processing start and to the first audio segment")
+@Category({"sdrtrunk", "Decoder"})
+@Enabled(false)
+@StackTrace(false)
+public class TrafficChannelStartEvent extends jdk.jfr.Event
+{
+    @Label("Channel")
+    public String channel;
+
+    @Label("Frequency")
+    @Frequency
+    public long frequency;
+
+    @Label("Pooled")
+    @Description("Traffic channel was started with a pooled processing chain")
+    public boolean pooled;
+
+    @Label("Retuned")
+    @Description("Pooled processing chain's tuner channel source was retuned instead of allocating a new source")
+    public boolean retuned;
+
+    @Label("Start Latency")
+    @Description("Elapsed time from the channel start request until the processing chain started")
+    @Timespan(Timespan.NANOSECONDS)
+    public long startLatency;
+
+    @Label("Audio")
+    @Description("Traffic channel produced audio before it was stopped")
+    public boolean audio;
+
+    @Label("First Audio Latency")
+    @Description("Elapsed time from the channel start request until the first audio segment")
+    @Timespan(Timespan.NANOSECONDS)
+    public long firstAudioLatency;
+}
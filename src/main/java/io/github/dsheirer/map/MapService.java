@@ -24,26 +24,50 @@ import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
 import io.github.dsheirer.module.decode.event.PlottableDecodeEvent;
 import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.util.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Receives plottable decode events and maintains a bounded, spatially indexed store of plottable entity histories
+ * for the map display.  Entities that are not updated within the store's maximum age are periodically removed.
+ */
 public class MapService implements Listener<IDecodeEvent>
 {
     private final static Logger mLog = LoggerFactory.getLogger(MapService.class);
+    private static final DecimalFormat MEMORY_FORMAT = new DecimalFormat("0.0");
+    private static final long EXPIRATION_INTERVAL_SECONDS = 60;
 
-    private int mMaxHistory = 2;
-    private List<IPlottableUpdateListener> mListeners = new ArrayList<IPlottableUpdateListener>();
-    private Map<Identifier,PlottableEntityHistory> mEntityHistories = new HashMap<>();
+    private List<IPlottableUpdateListener> mListeners = new CopyOnWriteArrayList<>();
+    private PlottableEntityStore mEntityStore = new PlottableEntityStore();
     private IconModel mIconModel;
+    private ScheduledFuture<?> mExpirationFuture;
 
     public MapService(IconModel resourceManager)
     {
         mIconModel = resourceManager;
+        mExpirationFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(this::removeExpired,
+            EXPIRATION_INTERVAL_SECONDS, EXPIRATION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic entity expiration
+     */
+    public void dispose()
+    {
+        if(mExpirationFuture != null)
+        {
+            mExpirationFuture.cancel(true);
+            mExpirationFuture = null;
+        }
     }
 
     @Override
@@ -56,20 +80,16 @@ public class MapService implements Listener<IDecodeEvent>
 
             if(from != null)
             {
-                PlottableEntityHistory entityHistory = mEntityHistories.get(from);
-
-                if(entityHistory == null)
-                {
-                    entityHistory = new PlottableEntityHistory(from, plottableDecodeEvent);
-                    mEntityHistories.put(from, entityHistory);
-                }
-                else
-                {
-                    entityHistory.add(plottableDecodeEvent);
-                }
+                List<PlottableEntityHistory> evicted = new ArrayList<>();
+                PlottableEntityHistory entityHistory = mEntityStore.update(from, plottableDecodeEvent, evicted);
 
                 for(IPlottableUpdateListener listener : mListeners)
                 {
+                    for(PlottableEntityHistory evictedEntity: evicted)
+                    {
+                        listener.removePlottableEntity(evictedEntity);
+                    }
+
                     listener.addPlottableEntity(entityHistory);
                 }
             }
@@ -80,6 +100,63 @@ public class MapService implements Listener<IDecodeEvent>
         }
     }
 
+    /**
+     * Entities with a location history that may be visible within the bounding box.  When the minimum longitude is
+     * greater than the maximum longitude, the box is treated as crossing the antimeridian.
+     */
+    public Set<PlottableEntityHistory> getEntities(double minLatitude, double maxLatitude, double minLongitude,
+                                                   double maxLongitude)
+    {
+        return mEntityStore.getEntities(minLatitude, maxLatitude, minLongitude, maxLongitude);
+    }
+
+    /**
+     * Entity store used by this service
+     */
+    public PlottableEntityStore getEntityStore()
+    {
+        return mEntityStore;
+    }
+
+    /**
+     * Estimated heap memory used by the plottable entity store
+     */
+    public long getEstimatedMemoryUsage()
+    {
+        return mEntityStore.getEstimatedMemoryUsage();
+    }
+
+    /**
+     * Removes expired entities, notifies listeners and logs the store memory use when entities are removed.
+     */
+    private void removeExpired()
+    {
+        try
+        {
+            List<PlottableEntityHistory> expired = mEntityStore.removeExpired(System.currentTimeMillis());
+
+            if(!expired.isEmpty())
+            {
+                for(IPlottableUpdateListener listener : mListeners)
+                {
+                    for(PlottableEntityHistory entity: expired)
+                    {
+                        listener.removePlottableEntity(entity);
+                    }
+                }
+
+                mLog.info("Map entity store - removed [" + expired.size() + "] expired entities - tracking [" +
+                    mEntityStore.size() + "] entities using approximately [" +
+                    MEMORY_FORMAT.format(mEntityStore.getEstimatedMemoryUsage() / 1024.0) + " KB] - evicted [" +
+                    mEntityStore.getEvictedCount() + "] expired [" + mEntityStore.getExpiredCount() + "] total");
+            }
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error while removing expired map entities", t);
+        }
+    }
+
     public void addListener(IPlottableUpdateListener listener)
     {
         mListeners.add(listener);
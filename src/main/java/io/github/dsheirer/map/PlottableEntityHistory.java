@@ -26,33 +26,100 @@ import io.github.dsheirer.module.decode.event.PlottableDecodeEvent;
 import org.jdesktop.swingx.mapviewer.GeoPosition;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
- * Plottable entity history with location history.
+ * Plottable entity history with location history.  The location history is a fixed capacity ring that retains the
+ * most recent locations, so the memory used by an entity is bounded regardless of how long it is tracked.
  */
 public class PlottableEntityHistory
 {
-    private List<GeoPosition> mLocationHistory = new ArrayList<>();
+    public static final int DEFAULT_LOCATION_HISTORY_CAPACITY = 100;
+
+    private GeoPosition[] mLocationHistory;
+    private int mLocationPointer;
+    private int mLocationCount;
     private PlottableDecodeEvent mCurrentEvent;
     private Identifier mIdentifier;
+    private long mLastUpdated;
 
     /**
      * Constructs a plottable entity history
+     * @param identifier for the entity
+     * @param event containing the first location
+     * @param capacity of the location history ring
      */
-    public PlottableEntityHistory(Identifier identifier, PlottableDecodeEvent event)
+    public PlottableEntityHistory(Identifier identifier, PlottableDecodeEvent event, int capacity)
     {
+        if(capacity < 1)
+        {
+            throw new IllegalArgumentException("Location history capacity must be greater than zero");
+        }
+
         mIdentifier = identifier;
+        mLocationHistory = new GeoPosition[capacity];
         add(event);
     }
 
     /**
-     * Location history for this entity
+     * Constructs a plottable entity history with the default location history capacity
+     */
+    public PlottableEntityHistory(Identifier identifier, PlottableDecodeEvent event)
+    {
+        this(identifier, event, DEFAULT_LOCATION_HISTORY_CAPACITY);
+    }
+
+    /**
+     * Location history for this entity, ordered oldest to latest.
+     *
+     * @return snapshot copy of the location history
+     */
+    public synchronized List<GeoPosition> getLocationHistory()
+    {
+        List<GeoPosition> locations = new ArrayList<>(mLocationCount);
+        int start = mLocationPointer - mLocationCount;
+
+        if(start < 0)
+        {
+            start += mLocationHistory.length;
+        }
+
+        for(int x = 0; x < mLocationCount; x++)
+        {
+            locations.add(mLocationHistory[(start + x) % mLocationHistory.length]);
+        }
+
+        return locations;
+    }
+
+    /**
+     * Most recent location or null
+     */
+    public synchronized GeoPosition getCurrentLocation()
+    {
+        if(mLocationCount == 0)
+        {
+            return null;
+        }
+
+        int index = mLocationPointer - 1;
+        return mLocationHistory[index < 0 ? mLocationHistory.length - 1 : index];
+    }
+
+    /**
+     * Number of locations currently retained in the location history
+     */
+    public synchronized int getLocationCount()
+    {
+        return mLocationCount;
+    }
+
+    /**
+     * Maximum number of locations retained in the location history
      */
-    public List<GeoPosition> getLocationHistory()
+    public int getLocationCapacity()
     {
-        return Collections.unmodifiableList(mLocationHistory);
+        return mLocationHistory.length;
     }
 
     /**
@@ -66,17 +133,41 @@ public class PlottableEntityHistory
     /**
      * Identifier collection from the latest event for this plottable
      */
-    public IdentifierCollection getIdentifierCollection()
+    public synchronized IdentifierCollection getIdentifierCollection()
     {
         return mCurrentEvent.getIdentifierCollection();
     }
 
     /**
-     * Updates the entity history with a location from the latest decode event
+     * System time of the most recent update to this entity
      */
-    public void add(PlottableDecodeEvent event)
+    public synchronized long getLastUpdated()
+    {
+        return mLastUpdated;
+    }
+
+    /**
+     * Updates the entity history with a location from the latest decode event.  When the location history is full,
+     * the oldest location is replaced.
+     */
+    public synchronized void add(PlottableDecodeEvent event)
     {
         mCurrentEvent = event;
-        mLocationHistory.add(event.getLocation());
+        mLastUpdated = System.currentTimeMillis();
+
+        if(event.getLocation() != null)
+        {
+            mLocationHistory[mLocationPointer++] = event.getLocation();
+
+            if(mLocationPointer >= mLocationHistory.length)
+            {
+                mLocationPointer = 0;
+            }
+
+            if(mLocationCount < mLocationHistory.length)
+            {
+                mLocationCount++;
+            }
+        }
     }
 }
@@ -23,44 +23,82 @@ package io.github.dsheirer.map;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.icon.IconModel;
 import org.jdesktop.swingx.JXMapViewer;
+import org.jdesktop.swingx.mapviewer.GeoPosition;
 import org.jdesktop.swingx.painter.AbstractPainter;
 
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.util.Collections;
-import java.util.HashSet;
+import java.awt.geom.Point2D;
 import java.util.Set;
 
+/**
+ * Paints the plottable entities from the map service that may be visible within the map viewport.  The viewport is
+ * padded so that icons and labels for entities just outside of the viewport edges are still painted.
+ */
 public class PlottableEntityPainter extends AbstractPainter<JXMapViewer>
 {
+    private static final int VIEWPORT_PADDING_PIXELS = 64;
     private PlottableEntityRenderer mRenderer;
-    private Set<PlottableEntityHistory> mEntities = new HashSet<>();
+    private MapService mMapService;
 
-    public PlottableEntityPainter(AliasModel aliasModel, IconModel iconModel)
+    public PlottableEntityPainter(MapService mapService, AliasModel aliasModel, IconModel iconModel)
     {
+        mMapService = mapService;
         mRenderer = new PlottableEntityRenderer(aliasModel, iconModel);
         setAntialiasing(true);
         setCacheable(false);
     }
 
-    public void addEntity(PlottableEntityHistory entity)
+    /**
+     * Entities that may be visible in the map viewport
+     */
+    private Set<PlottableEntityHistory> getEntities(JXMapViewer map, Rectangle viewportBounds)
     {
-        mEntities.add(entity);
-    }
+        int zoom = map.getZoom();
+        Point2D topLeft = new Point2D.Double(viewportBounds.getMinX() - VIEWPORT_PADDING_PIXELS,
+            viewportBounds.getMinY() - VIEWPORT_PADDING_PIXELS);
+        Point2D bottomRight = new Point2D.Double(viewportBounds.getMaxX() + VIEWPORT_PADDING_PIXELS,
+            viewportBounds.getMaxY() + VIEWPORT_PADDING_PIXELS);
 
-    public void removeEntity(PlottableEntityHistory entity)
-    {
-        mEntities.remove(entity);
-    }
+        GeoPosition northWest = map.getTileFactory().pixelToGeo(topLeft, zoom);
+        GeoPosition southEast = map.getTileFactory().pixelToGeo(bottomRight, zoom);
 
-    public void clearEntities()
-    {
-        mEntities.clear();
+        double minLatitude = Math.max(-90.0, Math.min(northWest.getLatitude(), southEast.getLatitude()));
+        double maxLatitude = Math.min(90.0, Math.max(northWest.getLatitude(), southEast.getLatitude()));
+        double minLongitude = northWest.getLongitude();
+        double maxLongitude = southEast.getLongitude();
+
+        //Viewport spans the full width of the world
+        if(maxLongitude - minLongitude >= 360.0)
+        {
+            minLongitude = -180.0;
+            maxLongitude = 180.0;
+        }
+        else
+        {
+            minLongitude = normalize(minLongitude);
+            maxLongitude = normalize(maxLongitude);
+        }
+
+        return mMapService.getEntities(minLatitude, maxLatitude, minLongitude, maxLongitude);
     }
 
-    private Set<PlottableEntityHistory> getEntities()
+    /**
+     * Normalizes the longitude to the range -180 to 180 degrees
+     */
+    private static double normalize(double longitude)
     {
-        return Collections.unmodifiableSet(mEntities);
+        while(longitude < -180.0)
+        {
+            longitude += 360.0;
+        }
+
+        while(longitude > 180.0)
+        {
+            longitude -= 360.0;
+        }
+
+        return longitude;
     }
 
     @Override
@@ -70,7 +108,7 @@ public class PlottableEntityPainter extends AbstractPainter<JXMapViewer>
 
         g.translate(-viewportBounds.getX(), -viewportBounds.getY());
 
-        Set<PlottableEntityHistory> entities = getEntities();
+        Set<PlottableEntityHistory> entities = getEntities(map, viewportBounds);
 
         for(PlottableEntityHistory entity : entities)
         {
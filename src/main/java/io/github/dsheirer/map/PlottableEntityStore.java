@@ -0,0 +1,414 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.map;
+
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.module.decode.event.PlottableDecodeEvent;
+import org.jdesktop.swingx.mapviewer.GeoPosition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded store of plottable entity histories with a spatial grid index.
+ *
+ * Entities are retained in least-recently-updated order.  The least recently updated entity is evicted when the store
+ * reaches its maximum entity count, and entities that have not been updated within the maximum age are removed by
+ * removeExpired().  Each entity's location history is a fixed capacity ring (see PlottableEntityHistory).
+ *
+ * The spatial index is a uniform latitude/longitude grid.  Each entity is indexed in every grid cell overlapped by
+ * the bounding box of its location history, so that a viewport query only touches entities whose track could be
+ * visible.  Entities whose track spans too many grid cells are kept in a separate wide entity set that is included in
+ * every query.
+ *
+ * This class is thread safe.
+ */
+public class PlottableEntityStore
+{
+    public static final int DEFAULT_MAXIMUM_ENTITIES = 2000;
+    public static final long DEFAULT_MAXIMUM_AGE_MILLISECONDS = 60 * 60 * 1000;
+    private static final double GRID_CELL_DEGREES = 0.25;
+    private static final int GRID_LATITUDE_CELLS = (int)(180.0 / GRID_CELL_DEGREES);
+    private static final int GRID_LONGITUDE_CELLS = (int)(360.0 / GRID_CELL_DEGREES);
+    private static final int MAXIMUM_CELLS_PER_ENTITY = 64;
+
+    //Approximate heap sizes used for memory use reporting
+    private static final int ENTITY_OVERHEAD_BYTES = 160;
+    private static final int GEO_POSITION_BYTES = 32;
+    private static final int REFERENCE_BYTES = 8;
+    private static final int INDEX_ENTRY_BYTES = 48;
+
+    private LinkedHashMap<Identifier,PlottableEntityHistory> mEntities = new LinkedHashMap<>(16, 0.75f, true);
+    private Map<Long,Set<PlottableEntityHistory>> mGrid = new HashMap<>();
+    private Map<PlottableEntityHistory,long[]> mEntityCells = new HashMap<>();
+    private Set<PlottableEntityHistory> mWideEntities = new HashSet<>();
+    private int mMaximumEntities;
+    private long mMaximumAge;
+    private int mLocationCapacity;
+    private long mEvictedCount;
+    private long mExpiredCount;
+
+    /**
+     * Constructs an instance
+     * @param maximumEntities to retain before evicting the least recently updated entity
+     * @param maximumAge in milliseconds since the last update before an entity is removed
+     * @param locationCapacity of each entity's location history ring
+     */
+    public PlottableEntityStore(int maximumEntities, long maximumAge, int locationCapacity)
+    {
+        mMaximumEntities = maximumEntities;
+        mMaximumAge = maximumAge;
+        mLocationCapacity = locationCapacity;
+    }
+
+    /**
+     * Constructs an instance with default limits
+     */
+    public PlottableEntityStore()
+    {
+        this(DEFAULT_MAXIMUM_ENTITIES, DEFAULT_MAXIMUM_AGE_MILLISECONDS,
+            PlottableEntityHistory.DEFAULT_LOCATION_HISTORY_CAPACITY);
+    }
+
+    /**
+     * Adds or updates the entity history for the identifier with the decode event.
+     *
+     * @param identifier of the entity
+     * @param event with the entity location
+     * @param evicted list to receive any entities that were evicted to make room for a new entity
+     * @return updated entity history
+     */
+    public synchronized PlottableEntityHistory update(Identifier identifier, PlottableDecodeEvent event,
+                                                      List<PlottableEntityHistory> evicted)
+    {
+        PlottableEntityHistory entity = mEntities.get(identifier);
+
+        if(entity == null)
+        {
+            while(mEntities.size() >= mMaximumEntities && !mEntities.isEmpty())
+            {
+                PlottableEntityHistory eldest = mEntities.values().iterator().next();
+                remove(eldest);
+                evicted.add(eldest);
+                mEvictedCount++;
+            }
+
+            entity = new PlottableEntityHistory(identifier, event, mLocationCapacity);
+            mEntities.put(identifier, entity);
+        }
+        else
+        {
+            entity.add(event);
+        }
+
+        index(entity);
+
+        return entity;
+    }
+
+    /**
+     * Removes entities that have not been updated within the maximum age.
+     *
+     * @param timestamp current system time
+     * @return removed entities
+     */
+    public synchronized List<PlottableEntityHistory> removeExpired(long timestamp)
+    {
+        List<PlottableEntityHistory> expired = new ArrayList<>();
+
+        //Entity map is in least recently updated order, so we can stop at the first entity that hasn't expired
+        Iterator<PlottableEntityHistory> it = mEntities.values().iterator();
+
+        while(it.hasNext())
+        {
+            PlottableEntityHistory entity = it.next();
+
+            if(timestamp - entity.getLastUpdated() <= mMaximumAge)
+            {
+                break;
+            }
+
+            expired.add(entity);
+        }
+
+        for(PlottableEntityHistory entity: expired)
+        {
+            remove(entity);
+            mExpiredCount++;
+        }
+
+        return expired;
+    }
+
+    /**
+     * Entities with a location history that may be visible within the bounding box.  When the minimum longitude is
+     * greater than the maximum longitude, the box is treated as crossing the antimeridian.
+     *
+     * @return entities whose location history bounding box overlaps the grid cells of the bounding box
+     */
+    public synchronized Set<PlottableEntityHistory> getEntities(double minLatitude, double maxLatitude,
+                                                                double minLongitude, double maxLongitude)
+    {
+        Set<PlottableEntityHistory> entities = new HashSet<>(mWideEntities);
+
+        if(minLongitude > maxLongitude)
+        {
+            addEntities(entities, minLatitude, maxLatitude, minLongitude, 180.0);
+            addEntities(entities, minLatitude, maxLatitude, -180.0, maxLongitude);
+        }
+        else
+        {
+            addEntities(entities, minLatitude, maxLatitude, minLongitude, maxLongitude);
+        }
+
+        return entities;
+    }
+
+    /**
+     * All entities in the store
+     */
+    public synchronized List<PlottableEntityHistory> getEntities()
+    {
+        return new ArrayList<>(mEntities.values());
+    }
+
+    /**
+     * Number of entities in the store
+     */
+    public synchronized int size()
+    {
+        return mEntities.size();
+    }
+
+    /**
+     * Number of entities evicted because the store was full
+     */
+    public synchronized long getEvictedCount()
+    {
+        return mEvictedCount;
+    }
+
+    /**
+     * Number of entities removed because they were not updated within the maximum age
+     */
+    public synchronized long getExpiredCount()
+    {
+        return mExpiredCount;
+    }
+
+    /**
+     * Estimated heap memory used by the stored entities, their location histories and the spatial index.
+     *
+     * @return estimated bytes
+     */
+    public synchronized long getEstimatedMemoryUsage()
+    {
+        long bytes = 0;
+
+        for(PlottableEntityHistory entity: mEntities.values())
+        {
+            bytes += ENTITY_OVERHEAD_BYTES + ((long)entity.getLocationCapacity() * REFERENCE_BYTES) +
+                ((long)entity.getLocationCount() * GEO_POSITION_BYTES);
+        }
+
+        for(Set<PlottableEntityHistory> cell: mGrid.values())
+        {
+            bytes += INDEX_ENTRY_BYTES + ((long)cell.size() * INDEX_ENTRY_BYTES);
+        }
+
+        bytes += (long)mEntityCells.size() * INDEX_ENTRY_BYTES;
+
+        return bytes;
+    }
+
+    /**
+     * Removes all entities
+     */
+    public synchronized void clear()
+    {
+        mEntities.clear();
+        mGrid.clear();
+        mEntityCells.clear();
+        mWideEntities.clear();
+    }
+
+    /**
+     * Adds the indexed entities for the grid cells overlapping the bounding box.  Iterates either the grid cells in
+     * the box or the occupied grid cells, whichever is fewer.
+     */
+    private void addEntities(Set<PlottableEntityHistory> entities, double minLatitude, double maxLatitude,
+                             double minLongitude, double maxLongitude)
+    {
+        int minLatitudeCell = getLatitudeCell(minLatitude);
+        int maxLatitudeCell = getLatitudeCell(maxLatitude);
+        int minLongitudeCell = getLongitudeCell(minLongitude);
+        int maxLongitudeCell = getLongitudeCell(maxLongitude);
+
+        long boxCells = (long)(maxLatitudeCell - minLatitudeCell + 1) * (maxLongitudeCell - minLongitudeCell + 1);
+
+        if(boxCells > mGrid.size())
+        {
+            for(Map.Entry<Long,Set<PlottableEntityHistory>> entry: mGrid.entrySet())
+            {
+                int latitudeCell = (int)(entry.getKey() >> 32);
+                int longitudeCell = (int)(long)entry.getKey();
+
+                if(minLatitudeCell <= latitudeCell && latitudeCell <= maxLatitudeCell &&
+                   minLongitudeCell <= longitudeCell && longitudeCell <= maxLongitudeCell)
+                {
+                    entities.addAll(entry.getValue());
+                }
+            }
+        }
+        else
+        {
+            for(int latitudeCell = minLatitudeCell; latitudeCell <= maxLatitudeCell; latitudeCell++)
+            {
+                for(int longitudeCell = minLongitudeCell; longitudeCell <= maxLongitudeCell; longitudeCell++)
+                {
+                    Set<PlottableEntityHistory> cell = mGrid.get(getCellKey(latitudeCell, longitudeCell));
+
+                    if(cell != null)
+                    {
+                        entities.addAll(cell);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the grid index for the entity using the bounding box of its location history
+     */
+    private void index(PlottableEntityHistory entity)
+    {
+        double minLatitude = Double.MAX_VALUE;
+        double maxLatitude = -Double.MAX_VALUE;
+        double minLongitude = Double.MAX_VALUE;
+        double maxLongitude = -Double.MAX_VALUE;
+        boolean hasLocation = false;
+
+        for(GeoPosition location: entity.getLocationHistory())
+        {
+            if(location != null && location.isValid())
+            {
+                minLatitude = Math.min(minLatitude, location.getLatitude());
+                maxLatitude = Math.max(maxLatitude, location.getLatitude());
+                minLongitude = Math.min(minLongitude, location.getLongitude());
+                maxLongitude = Math.max(maxLongitude, location.getLongitude());
+                hasLocation = true;
+            }
+        }
+
+        unindex(entity);
+
+        if(!hasLocation)
+        {
+            return;
+        }
+
+        int minLatitudeCell = getLatitudeCell(minLatitude);
+        int maxLatitudeCell = getLatitudeCell(maxLatitude);
+        int minLongitudeCell = getLongitudeCell(minLongitude);
+        int maxLongitudeCell = getLongitudeCell(maxLongitude);
+
+        int cellCount = (maxLatitudeCell - minLatitudeCell + 1) * (maxLongitudeCell - minLongitudeCell + 1);
+
+        if(cellCount > MAXIMUM_CELLS_PER_ENTITY)
+        {
+            mWideEntities.add(entity);
+            return;
+        }
+
+        long[] cells = new long[cellCount];
+        int pointer = 0;
+
+        for(int latitudeCell = minLatitudeCell; latitudeCell <= maxLatitudeCell; latitudeCell++)
+        {
+            for(int longitudeCell = minLongitudeCell; longitudeCell <= maxLongitudeCell; longitudeCell++)
+            {
+                long key = getCellKey(latitudeCell, longitudeCell);
+                cells[pointer++] = key;
+                mGrid.computeIfAbsent(key, k -> new HashSet<>()).add(entity);
+            }
+        }
+
+        mEntityCells.put(entity, cells);
+    }
+
+    /**
+     * Removes the entity from the grid index
+     */
+    private void unindex(PlottableEntityHistory entity)
+    {
+        mWideEntities.remove(entity);
+
+        long[] cells = mEntityCells.remove(entity);
+
+        if(cells != null)
+        {
+            for(long key: cells)
+            {
+                Set<PlottableEntityHistory> cell = mGrid.get(key);
+
+                if(cell != null)
+                {
+                    cell.remove(entity);
+
+                    if(cell.isEmpty())
+                    {
+                        mGrid.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the entity from the store and the grid index
+     */
+    private void remove(PlottableEntityHistory entity)
+    {
+        mEntities.remove(entity.getIdentifier());
+        unindex(entity);
+    }
+
+    private static int getLatitudeCell(double latitude)
+    {
+        int cell = (int)Math.floor((latitude + 90.0) / GRID_CELL_DEGREES);
+        return Math.max(0, Math.min(GRID_LATITUDE_CELLS - 1, cell));
+    }
+
+    private static int getLongitudeCell(double longitude)
+    {
+        int cell = (int)Math.floor((longitude + 180.0) / GRID_CELL_DEGREES);
+        return Math.max(0, Math.min(GRID_LONGITUDE_CELLS - 1, cell));
+    }
+
+    private static long getCellKey(int latitudeCell, int longitudeCell)
+    {
+        return ((long)latitudeCell << 32) | (longitudeCell & 0xFFFFFFFFL);
+    }
+}
@@ -19,8 +19,8 @@
 
 package io.github.dsheirer.message;
 
-import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.module.HistoryModule;
+import io.github.dsheirer.module.InterModuleEventBus;
 import io.github.dsheirer.sample.Listener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,10 +49,19 @@ public class MessageHistory extends HistoryModule<IMessage> implements IMessageL
         return this;
     }
 
+    /**
+     * Subscribes to message history requests and preload data received over the processing chain event bus.
+     */
+    @Override
+    protected void subscribe(InterModuleEventBus eventBus)
+    {
+        eventBus.subscribe(this, MessageHistoryRequest.class, this::process);
+        eventBus.subscribe(this, MessageHistoryPreloadData.class, this::process);
+    }
+
     /**
      * Process a request for message history and post the response to the module event bus
      */
-    @Subscribe
     public void process(MessageHistoryRequest request)
     {
         getInterModuleEventBus().post(new MessageHistoryResponse(getItems()));
@@ -61,7 +70,6 @@ public class MessageHistory extends HistoryModule<IMessage> implements IMessageL
     /**
      * Processes a request to preload message history
      */
-    @Subscribe
     public void process(MessageHistoryPreloadData preloadData)
     {
         for(IMessage message: preloadData.getData())
@@ -0,0 +1,180 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module;
+
+import io.github.dsheirer.sample.Listener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Type-indexed event bus for inter-module communication of processing chain requests and notifications.
+ *
+ * Subscribers register a typed listener for each message class when the module is added to the processing chain, so
+ * that subscription tables are resolved at wiring time.  Posted messages are dispatched synchronously on the calling
+ * thread to the listeners that are registered for the exact class of the message, without reflection or allocation.
+ * Messages posted from within a listener are dispatched immediately (nested) on the same thread.
+ *
+ * Subscription changes are copy-on-write, so listeners can safely subscribe or unsubscribe while a message is being
+ * dispatched.
+ */
+public class InterModuleEventBus
+{
+    private final static Logger mLog = LoggerFactory.getLogger(InterModuleEventBus.class);
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+    private final Map<Class<?>,Subscription[]> mSubscriptionMap = new ConcurrentHashMap<>();
+    private final String mName;
+
+    /**
+     * Constructs an instance
+     * @param name for the event bus, used for logging
+     */
+    public InterModuleEventBus(String name)
+    {
+        mName = name;
+    }
+
+    /**
+     * Name of this event bus
+     */
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * Registers the listener to receive messages of the specified message class.
+     *
+     * @param subscriber that owns the listener, used to unsubscribe all of the subscriber's listeners
+     * @param messageClass to receive.  Note: messages are dispatched by exact class and subclasses of this message
+     * class are not dispatched to the listener.
+     * @param listener to receive the message
+     */
+    public synchronized <T> void subscribe(Object subscriber, Class<T> messageClass, Listener<T> listener)
+    {
+        Subscription[] current = mSubscriptionMap.getOrDefault(messageClass, NO_SUBSCRIPTIONS);
+        Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new Subscription(subscriber, listener);
+        mSubscriptionMap.put(messageClass, updated);
+    }
+
+    /**
+     * Removes all listeners registered by the subscriber.
+     * @param subscriber to unsubscribe
+     */
+    public synchronized void unsubscribe(Object subscriber)
+    {
+        Iterator<Map.Entry<Class<?>,Subscription[]>> it = mSubscriptionMap.entrySet().iterator();
+
+        while(it.hasNext())
+        {
+            Map.Entry<Class<?>,Subscription[]> entry = it.next();
+            List<Subscription> retained = new ArrayList<>();
+
+            for(Subscription subscription: entry.getValue())
+            {
+                if(subscription.getSubscriber() != subscriber)
+                {
+                    retained.add(subscription);
+                }
+            }
+
+            if(retained.isEmpty())
+            {
+                it.remove();
+            }
+            else if(retained.size() != entry.getValue().length)
+            {
+                entry.setValue(retained.toArray(NO_SUBSCRIPTIONS));
+            }
+        }
+    }
+
+    /**
+     * Indicates if there are any listeners registered for the message class.
+     */
+    public boolean hasSubscribers(Class<?> messageClass)
+    {
+        return mSubscriptionMap.containsKey(messageClass);
+    }
+
+    /**
+     * Dispatches the message to each of the listeners registered for the message class.  Errors thrown by a listener
+     * are logged and do not prevent dispatch to the remaining listeners.
+     *
+     * @param message to dispatch
+     */
+    public void post(Object message)
+    {
+        if(message == null)
+        {
+            return;
+        }
+
+        Subscription[] subscriptions = mSubscriptionMap.get(message.getClass());
+
+        if(subscriptions != null)
+        {
+            for(Subscription subscription: subscriptions)
+            {
+                try
+                {
+                    subscription.dispatch(message);
+                }
+                catch(Exception e)
+                {
+                    mLog.error("Error dispatching [" + message.getClass().getSimpleName() + "] on event bus [" +
+                        mName + "]", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Listener registration for a subscriber
+     */
+    private static class Subscription
+    {
+        private Object mSubscriber;
+        private Listener mListener;
+
+        public Subscription(Object subscriber, Listener<?> listener)
+        {
+            mSubscriber = subscriber;
+            mListener = listener;
+        }
+
+        public Object getSubscriber()
+        {
+            return mSubscriber;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void dispatch(Object message)
+        {
+            mListener.receive(message);
+        }
+    }
+}
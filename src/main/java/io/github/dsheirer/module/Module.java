@@ -18,8 +18,6 @@
 
 package io.github.dsheirer.module;
 
-import com.google.common.eventbus.EventBus;
-
 /**
  * Defines the basic component level class for all processing, demodulation and decoding components that can operate
  * within a processing chain.
@@ -50,7 +48,7 @@ public abstract class Module
 	 * Event bus for inter-module communication of processing chain events.  Note: this is an externally provided
 	 * resource, typically provided by the ProcessingChain parent for each module.
 	 */
-	private EventBus mInterModuleEventBus;
+	private InterModuleEventBus mInterModuleEventBus;
 
 	/**
 	 * Constructs an instance
@@ -63,28 +61,39 @@ public abstract class Module
 	 * Sets the event bus to be used for inter-module event broadcasting and subscribing.
 	 * @param interModuleEventBus to use
 	 */
-	public void setInterModuleEventBus(EventBus interModuleEventBus)
+	public void setInterModuleEventBus(InterModuleEventBus interModuleEventBus)
 	{
-		//Unregister from the current event bus (if one exists)
+		//Unsubscribe from the current event bus (if one exists)
 		if(hasInterModuleEventBus())
 		{
-			getInterModuleEventBus().unregister(this);
+			getInterModuleEventBus().unsubscribe(this);
 		}
 
 		mInterModuleEventBus = interModuleEventBus;
 
-		//Auto-register with the event bus
+		//Auto-subscribe with the event bus
 		if(hasInterModuleEventBus())
 		{
-			getInterModuleEventBus().register(this);
+			subscribe(getInterModuleEventBus());
 		}
 	}
 
+	/**
+	 * Registers listeners with the inter-module event bus for each of the message types that this module processes.
+	 * This method is invoked once when the module is added to a processing chain.  Subclasses that receive
+	 * inter-module messages should override this method and subscribe a listener for each message class.
+	 *
+	 * @param eventBus to subscribe with
+	 */
+	protected void subscribe(InterModuleEventBus eventBus)
+	{
+	}
+
 	/**
 	 * Event bus for inter-module communication.  Note: use hasEventBus() to check that the module is assigned a bus.
 	 * @return event bus or null if one has not been established.
 	 */
-	protected EventBus getInterModuleEventBus()
+	protected InterModuleEventBus getInterModuleEventBus()
 	{
 		return mInterModuleEventBus;
 	}
@@ -126,7 +135,7 @@ public abstract class Module
 	{
 		if(hasInterModuleEventBus())
 		{
-			getInterModuleEventBus().unregister(this);
+			getInterModuleEventBus().unsubscribe(this);
 		}
 	}
 }
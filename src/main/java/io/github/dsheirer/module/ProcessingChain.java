@@ -18,7 +18,6 @@
  */
 package io.github.dsheirer.module;
 
-import com.google.common.eventbus.EventBus;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.audio.AudioSegment;
 import io.github.dsheirer.audio.AudioSegmentBroadcaster;
@@ -29,6 +28,7 @@ import io.github.dsheirer.audio.squelch.ISquelchStateListener;
 import io.github.dsheirer.audio.squelch.ISquelchStateProvider;
 import io.github.dsheirer.audio.squelch.SquelchStateEvent;
 import io.github.dsheirer.channel.state.AbstractChannelState;
+import io.github.dsheirer.channel.state.ChannelHibernationMonitor;
 import io.github.dsheirer.channel.state.DecoderState;
 import io.github.dsheirer.channel.state.DecoderStateEvent;
 import io.github.dsheirer.channel.state.IDecoderStateEventListener;
@@ -47,14 +47,15 @@ import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.IMessageListener;
 import io.github.dsheirer.message.IMessageProvider;
 import io.github.dsheirer.message.MessageHistory;
+import io.github.dsheirer.module.decode.Decoder;
 import io.github.dsheirer.module.decode.event.DecodeEventHistory;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
 import io.github.dsheirer.module.decode.event.IDecodeEventListener;
 import io.github.dsheirer.module.decode.event.IDecodeEventProvider;
 import io.github.dsheirer.module.decode.traffic.TrafficChannelManager;
 import io.github.dsheirer.module.log.EventLogger;
+import io.github.dsheirer.record.AbstractBasebandRecorder;
 import io.github.dsheirer.record.binary.BinaryRecorder;
-import io.github.dsheirer.record.wave.ComplexBufferWaveRecorder;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.IReusableBufferListener;
@@ -75,6 +76,7 @@ import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.heartbeat.Heartbeat;
 import io.github.dsheirer.source.heartbeat.IHeartbeatListener;
 import io.github.dsheirer.source.heartbeat.IHeartbeatProvider;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -122,8 +124,13 @@ public class ProcessingChain implements Listener<ChannelEvent>
     private DecodeEventHistory mDecodeEventHistory = new DecodeEventHistory(500);
     private MessageHistory mMessageHistory = new MessageHistory(500);
     private AbstractChannelState mChannelState;
-    private EventBus mEventBus;
+    private ChannelHibernationMonitor mHibernationMonitor;
+    private List<Listener<ReusableFloatBuffer>> mExternalDemodulatedAudioListeners = new ArrayList<>();
+    private InterModuleEventBus mEventBus;
+    private String mChannelName;
+    private Channel mChannel;
     protected Source mSource;
+    private TunerChannelSource mPausedSource;
 
     /**
      * Creates a processing chain for managing a set of modules
@@ -133,7 +140,9 @@ public class ProcessingChain implements Listener<ChannelEvent>
      */
     public ProcessingChain(Channel channel, AliasModel aliasModel)
     {
-        mEventBus = new EventBus("Processing Chain Event Bus - Channel: " + channel.getName());
+        mChannel = channel;
+        mChannelName = channel.getName();
+        mEventBus = new InterModuleEventBus("Processing Chain Event Bus - Channel: " + channel.getName());
 
         if(channel.getDecodeConfiguration().getTimeslotCount() == 1)
         {
@@ -153,11 +162,19 @@ public class ProcessingChain implements Listener<ChannelEvent>
      * Event bus used for inter-module communication.
      * @return event bus
      */
-    public EventBus getEventBus()
+    public InterModuleEventBus getEventBus()
     {
         return mEventBus;
     }
 
+    /**
+     * Channel configuration that this processing chain was constructed for.
+     */
+    public Channel getChannel()
+    {
+        return mChannel;
+    }
+
     /**
      * Channel state
      */
@@ -212,6 +229,7 @@ public class ProcessingChain implements Listener<ChannelEvent>
     public void dispose()
     {
         stop();
+        releasePausedSource();
 
         List<Module> modules = new ArrayList<>(mModules);
 
@@ -266,11 +284,93 @@ public class ProcessingChain implements Listener<ChannelEvent>
                 "processing chain before applying a new sample source");
         }
 
+        if(source != mPausedSource)
+        {
+            releasePausedSource();
+        }
+
+        mPausedSource = null;
         mSource = source;
 
         addModule(mSource);
     }
 
+    /**
+     * Tuner channel source that was paused when this processing chain was stopped with the pause source option.  A
+     * paused source can be retuned by the source manager and reapplied to this chain with setSource().
+     *
+     * @return paused source or null
+     */
+    public TunerChannelSource getPausedSource()
+    {
+        return mPausedSource;
+    }
+
+    /**
+     * Stops and releases the paused tuner channel source, if there is one.
+     */
+    public void releasePausedSource()
+    {
+        if(mPausedSource != null)
+        {
+            mPausedSource.stop();
+            mPausedSource = null;
+        }
+    }
+
+    /**
+     * Applies an idle channel hibernation monitor to gate complex sample buffers from the source to the modules.
+     * Apply the monitor before starting the processing chain.
+     *
+     * @param hibernationMonitor to gate sample buffers, or null to remove the current monitor
+     */
+    public void setHibernationMonitor(ChannelHibernationMonitor hibernationMonitor)
+    {
+        if(mHibernationMonitor != null)
+        {
+            removeModule(mHibernationMonitor);
+            mHibernationMonitor.setListener(null);
+        }
+
+        mHibernationMonitor = hibernationMonitor;
+
+        if(mHibernationMonitor != null)
+        {
+            mHibernationMonitor.setListener(mBasebandComplexBufferBroadcaster);
+            addModule(mHibernationMonitor);
+        }
+
+        updateHibernationHold();
+    }
+
+    /**
+     * Holds the channel awake while external listeners receive demodulated audio buffers, since a hibernating
+     * channel doesn't produce demodulated audio.
+     */
+    private void updateHibernationHold()
+    {
+        synchronized(mExternalDemodulatedAudioListeners)
+        {
+            if(mHibernationMonitor != null)
+            {
+                mHibernationMonitor.setHeldAwake(!mExternalDemodulatedAudioListeners.isEmpty());
+            }
+        }
+    }
+
+    /**
+     * Listener for complex sample buffers from the source.  Uses the hibernation monitor when one is applied.
+     */
+    private Listener<ReusableComplexBuffer> getComplexBufferListener()
+    {
+        if(mHibernationMonitor != null)
+        {
+            return mHibernationMonitor;
+        }
+
+        return mBasebandComplexBufferBroadcaster;
+    }
+
     /**
      * List of current modules for this processing chain
      */
@@ -326,6 +426,12 @@ public class ProcessingChain implements Listener<ChannelEvent>
     {
         mModules.add(module);
         module.setInterModuleEventBus(getEventBus());
+
+        if(module instanceof Decoder)
+        {
+            ((Decoder)module).setChannelName(mChannelName);
+        }
+
         registerListeners(module);
         registerProviders(module);
     }
@@ -648,7 +754,7 @@ public class ProcessingChain implements Listener<ChannelEvent>
                 switch(mSource.getSampleType())
                 {
                     case COMPLEX:
-                        ((ComplexSource)mSource).setListener(mBasebandComplexBufferBroadcaster);
+                        ((ComplexSource)mSource).setListener(getComplexBufferListener());
                         break;
                     case REAL:
                         ((RealSource)mSource).setListener(mDemodulatedAudioBufferBroadcaster);
@@ -682,6 +788,17 @@ public class ProcessingChain implements Listener<ChannelEvent>
      * Stops processing if the chain is currently processing.  Invocations on an already stopped chain have no effect.
      */
     public void stop()
+    {
+        stop(false);
+    }
+
+    /**
+     * Stops processing if the chain is currently processing.  Invocations on an already stopped chain have no effect.
+     *
+     * @param pauseSource to pause a retunable tuner channel source instead of stopping it, so that the source can be
+     * retuned and reused when this chain is restarted.  See getPausedSource().
+     */
+    public void stop(boolean pauseSource)
     {
         if(mRunning.compareAndSet(true, false))
         {
@@ -689,14 +806,22 @@ public class ProcessingChain implements Listener<ChannelEvent>
             {
                 removeModule(mSource);
 
-                mSource.stop();
+                if(pauseSource && mSource instanceof TunerChannelSource && ((TunerChannelSource)mSource).isRetunable())
+                {
+                    mPausedSource = (TunerChannelSource)mSource;
+                    mPausedSource.pause();
+                }
+                else
+                {
+                    mSource.stop();
+                }
 
                 mSource.setOverflowListener(null);
 
                 switch(mSource.getSampleType())
                 {
                     case COMPLEX:
-                        ((ComplexSource)mSource).removeListener(mBasebandComplexBufferBroadcaster);
+                        ((ComplexSource)mSource).removeListener(getComplexBufferListener());
                         break;
                     case REAL:
                         ((RealSource)mSource).removeListener(mDemodulatedAudioBufferBroadcaster);
@@ -753,7 +878,7 @@ public class ProcessingChain implements Listener<ChannelEvent>
 
         for(Module module : mModules)
         {
-            if(module instanceof ComplexBufferWaveRecorder)
+            if(module instanceof AbstractBasebandRecorder)
             {
                 recordingModules.add(module);
             }
@@ -880,10 +1005,20 @@ public class ProcessingChain implements Listener<ChannelEvent>
     }
 
     /**
-     * Adds listener to receive demodulated audio buffers from an modules that produce demodulated audio.
+     * Adds listener to receive demodulated audio buffers from an modules that produce demodulated audio.  The channel
+     * is held awake (not hibernated) while it has demodulated audio listeners.
      */
     public void addDemodulatedAudioListener(Listener<ReusableFloatBuffer> listener)
     {
+        synchronized(mExternalDemodulatedAudioListeners)
+        {
+            if(!mExternalDemodulatedAudioListeners.contains(listener))
+            {
+                mExternalDemodulatedAudioListeners.add(listener);
+            }
+        }
+
+        updateHibernationHold();
         mDemodulatedAudioBufferBroadcaster.addListener(listener);
     }
 
@@ -893,6 +1028,13 @@ public class ProcessingChain implements Listener<ChannelEvent>
     public void removeDemodulatedAudioListener(Listener<ReusableFloatBuffer> listener)
     {
         mDemodulatedAudioBufferBroadcaster.removeListener(listener);
+
+        synchronized(mExternalDemodulatedAudioListeners)
+        {
+            mExternalDemodulatedAudioListeners.remove(listener);
+        }
+
+        updateHibernationHold();
     }
 
     /**
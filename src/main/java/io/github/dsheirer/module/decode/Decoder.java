@@ -27,6 +27,8 @@ public abstract class Decoder extends Module implements IMessageProvider
     /* This has to be a broadcaster in order for references to persist */
     private Listener<IMessage> mMessageDistributor = new MessageDistributor();
     protected Listener<IMessage> mMessageListener;
+    private String mChannelName;
+    private long mChannelFrequency;
 
     /**
      * Decoder - parent class for all decoders, demodulators and components.
@@ -50,6 +52,41 @@ public abstract class Decoder extends Module implements IMessageProvider
         //no-op
     }
 
+    /**
+     * Sets the name of the channel that this decoder is processing.  Used to label diagnostic (JFR) events.
+     */
+    public void setChannelName(String channelName)
+    {
+        mChannelName = channelName;
+    }
+
+    /**
+     * Name of the channel that this decoder is processing
+     * @return channel name or null if the name hasn't been set
+     */
+    public String getChannelName()
+    {
+        return mChannelName;
+    }
+
+    /**
+     * Sets the frequency of the channel that this decoder is processing.  Sub-class decoders should update this value
+     * from source frequency change notifications.
+     */
+    protected void setChannelFrequency(long frequency)
+    {
+        mChannelFrequency = frequency;
+    }
+
+    /**
+     * Frequency of the channel that this decoder is processing
+     * @return frequency in hertz or 0 if the frequency is not known
+     */
+    public long getChannelFrequency()
+    {
+        return mChannelFrequency;
+    }
+
     /**
      * Identifies the decoder type (ie protocol)
      */
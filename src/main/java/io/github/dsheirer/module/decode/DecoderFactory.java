@@ -29,12 +29,14 @@ import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.controller.channel.Channel.ChannelType;
 import io.github.dsheirer.controller.channel.map.ChannelMap;
 import io.github.dsheirer.controller.channel.map.ChannelMapModel;
+import io.github.dsheirer.dsp.afsk.SharedAFSK1200Decoder;
 import io.github.dsheirer.filter.AllPassFilter;
 import io.github.dsheirer.filter.FilterSet;
 import io.github.dsheirer.filter.IFilter;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.MessageDirection;
 import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.decode.afsk.AFSK1200DemodulatorModule;
 import io.github.dsheirer.module.decode.am.AMDecoder;
 import io.github.dsheirer.module.decode.am.DecodeConfigAM;
 import io.github.dsheirer.module.decode.config.AuxDecodeConfiguration;
@@ -317,6 +319,16 @@ public class DecoderFactory
         modules.add(new NBFMDecoder(decodeConfigNBFM));
         modules.add(new NBFMDecoderState(channel.getName(), decodeConfigNBFM));
         modules.add(new AudioModule(aliasList));
+
+        //Add a channel rotation monitor to scan multiple conventional frequencies while the channel is idle
+        if(channel.getSourceConfiguration() instanceof SourceConfigTunerMultipleFrequency &&
+            ((SourceConfigTunerMultipleFrequency)channel.getSourceConfiguration()).hasMultipleFrequencies())
+        {
+            List<State> activeStates = new ArrayList<>();
+            activeStates.add(State.CALL);
+            modules.add(new ChannelRotationMonitor(activeStates,
+                ((SourceConfigTunerMultipleFrequency)channel.getSourceConfiguration()).getFrequencyRotationDelay()));
+        }
     }
 
     private static void processAM(Channel channel, List<Module> modules, AliasList aliasList, DecodeConfiguration decodeConfig) {
@@ -390,7 +402,11 @@ public class DecoderFactory
     }
 
     /**
-     * Constructs a list of auxiliary decoders, as specified in the configuration
+     * Constructs a list of auxiliary decoders, as specified in the configuration.
+     *
+     * When more than one of the AFSK 1200 auxiliary decoders is specified, a shared AFSK 1200 demodulator module is
+     * added that resamples and correlates the demodulated audio once and distributes the recovered symbol stream to
+     * each of the AFSK auxiliary decoders.
      *
      * @param config - auxiliary configuration
      * @return - list of auxiliary decoders
@@ -401,24 +417,34 @@ public class DecoderFactory
 
         if(config != null)
         {
+            SharedAFSK1200Decoder sharedDecoder = null;
+
+            if(getAFSKDecoderCount(config.getAuxDecoders()) > 1)
+            {
+                sharedDecoder = new SharedAFSK1200Decoder();
+                modules.add(new AFSK1200DemodulatorModule(sharedDecoder));
+            }
+
             for(DecoderType auxDecoder : config.getAuxDecoders())
             {
                 switch(auxDecoder)
                 {
                     case FLEETSYNC2:
-                        modules.add(new Fleetsync2Decoder());
+                        modules.add(sharedDecoder != null ? new Fleetsync2Decoder(sharedDecoder) :
+                            new Fleetsync2Decoder());
                         modules.add(new Fleetsync2DecoderState());
                         break;
                     case MDC1200:
-                        modules.add(new MDCDecoder());
+                        modules.add(sharedDecoder != null ? new MDCDecoder(sharedDecoder) : new MDCDecoder());
                         modules.add(new MDCDecoderState());
                         break;
                     case LJ_1200:
-                        modules.add(new LJ1200Decoder());
+                        modules.add(sharedDecoder != null ? new LJ1200Decoder(sharedDecoder) : new LJ1200Decoder());
                         modules.add(new LJ1200DecoderState());
                         break;
                     case TAIT_1200:
-                        modules.add(new Tait1200Decoder());
+                        modules.add(sharedDecoder != null ? new Tait1200Decoder(sharedDecoder) :
+                            new Tait1200Decoder());
                         modules.add(new Tait1200DecoderState());
                         break;
                     default:
@@ -430,6 +456,31 @@ public class DecoderFactory
         return modules;
     }
 
+    /**
+     * Counts the AFSK 1200 based decoders in the list of auxiliary decoder types
+     */
+    private static int getAFSKDecoderCount(List<DecoderType> decoderTypes)
+    {
+        int count = 0;
+
+        for(DecoderType decoderType: decoderTypes)
+        {
+            switch(decoderType)
+            {
+                case FLEETSYNC2:
+                case MDC1200:
+                case LJ_1200:
+                case TAIT_1200:
+                    count++;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return count;
+    }
+
     /**
      * Assembles a filter set containing filters for the primary channel
      * decoder and each of the auxiliary decoders
@@ -0,0 +1,88 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.module.decode.afsk;
+
+import io.github.dsheirer.dsp.afsk.SharedAFSK1200Decoder;
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.IReusableBufferListener;
+import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
+
+/**
+ * Shared AFSK 1200-baud demodulation stage for a channel that runs several AFSK based auxiliary decoders.  This module
+ * receives the channel's demodulated audio and feeds it once to a shared AFSK 1200 decoder that resamples, correlates
+ * and recovers the symbol stream.  Each auxiliary decoder that is constructed with the shared decoder only frames
+ * the shared symbol stream and does not process the demodulated audio.
+ */
+public class AFSK1200DemodulatorModule extends Module implements IReusableBufferListener, Listener<ReusableFloatBuffer>
+{
+    private SharedAFSK1200Decoder mSharedAFSK1200Decoder;
+
+    /**
+     * Constructs an instance
+     *
+     * @param sharedAFSK1200Decoder to receive the demodulated audio
+     */
+    public AFSK1200DemodulatorModule(SharedAFSK1200Decoder sharedAFSK1200Decoder)
+    {
+        mSharedAFSK1200Decoder = sharedAFSK1200Decoder;
+    }
+
+    /**
+     * Shared AFSK 1200 decoder
+     */
+    public SharedAFSK1200Decoder getSharedAFSK1200Decoder()
+    {
+        return mSharedAFSK1200Decoder;
+    }
+
+    @Override
+    public void receive(ReusableFloatBuffer reusableFloatBuffer)
+    {
+        mSharedAFSK1200Decoder.receive(reusableFloatBuffer);
+    }
+
+    @Override
+    public Listener<ReusableFloatBuffer> getReusableBufferListener()
+    {
+        return this;
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    @Override
+    public void stop()
+    {
+    }
+
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+        mSharedAFSK1200Decoder.dispose();
+    }
+}
@@ -15,7 +15,9 @@
  ******************************************************************************/
 package io.github.dsheirer.module.decode.afsk;
 
+import io.github.dsheirer.bits.IBinarySymbolProcessor;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
+import io.github.dsheirer.dsp.afsk.SharedAFSK1200Decoder;
 import io.github.dsheirer.module.decode.Decoder;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.IReusableBufferListener;
@@ -26,11 +28,19 @@ import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
  *
  * This class handles the AFSK 1200 decoder and incoming sample stream buffer management.
  *
- * Sub-class implementations should invoke getDecoder().setListener() to receive decoded symbol stream.
+ * Sub-class implementations should invoke setSymbolProcessor() to receive decoded symbol stream.
+ *
+ * When constructed with a shared AFSK 1200 decoder, the decoder module only receives the symbol stream from the
+ * shared decoder and discards the demodulated audio buffers, since the shared decoder is fed by a separate
+ * AFSK1200DemodulatorModule.
  */
 public abstract class AbstractAFSKDecoder extends Decoder implements IReusableBufferListener, Listener<ReusableFloatBuffer>
 {
     private AFSK1200Decoder mAFSK1200Decoder;
+    private SharedAFSK1200Decoder mSharedAFSK1200Decoder;
+    private AFSK1200Decoder.Output mOutput;
+    private IBinarySymbolProcessor mSymbolProcessor;
+    private Listener<ReusableFloatBuffer> mDiscardingBufferListener = ReusableFloatBuffer::decrementUserCount;
 
     public AbstractAFSKDecoder(AFSK1200Decoder decoder)
     {
@@ -42,11 +52,49 @@ public abstract class AbstractAFSKDecoder extends Decoder implements IReusableBu
         mAFSK1200Decoder = new AFSK1200Decoder(output);
     }
 
+    /**
+     * Constructs an instance that receives decoded symbols from a shared AFSK 1200 decoder
+     *
+     * @param sharedDecoder that is fed with demodulated audio by an AFSK1200DemodulatorModule
+     * @param output NORMAL or INVERTED symbol output for this decoder
+     */
+    public AbstractAFSKDecoder(SharedAFSK1200Decoder sharedDecoder, AFSK1200Decoder.Output output)
+    {
+        mAFSK1200Decoder = sharedDecoder;
+        mSharedAFSK1200Decoder = sharedDecoder;
+        mOutput = output;
+    }
+
     protected AFSK1200Decoder getDecoder()
     {
         return mAFSK1200Decoder;
     }
 
+    /**
+     * Indicates if this decoder receives symbols from a shared AFSK 1200 decoder
+     */
+    public boolean isShared()
+    {
+        return mSharedAFSK1200Decoder != null;
+    }
+
+    /**
+     * Registers the symbol processor to receive the decoded symbol stream
+     */
+    protected void setSymbolProcessor(IBinarySymbolProcessor symbolProcessor)
+    {
+        mSymbolProcessor = symbolProcessor;
+
+        if(isShared())
+        {
+            mSharedAFSK1200Decoder.addSymbolProcessor(symbolProcessor, mOutput);
+        }
+        else
+        {
+            mAFSK1200Decoder.setSymbolProcessor(symbolProcessor);
+        }
+    }
+
     @Override
     public void receive(ReusableFloatBuffer reusableFloatBuffer)
     {
@@ -56,6 +104,18 @@ public abstract class AbstractAFSKDecoder extends Decoder implements IReusableBu
     @Override
     public Listener<ReusableFloatBuffer> getReusableBufferListener()
     {
-        return this;
+        //The shared decoder receives audio from the demodulator module - release the buffers without processing
+        return isShared() ? mDiscardingBufferListener : this;
+    }
+
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+
+        if(isShared() && mSymbolProcessor != null)
+        {
+            mSharedAFSK1200Decoder.removeSymbolProcessor(mSymbolProcessor);
+        }
     }
 }
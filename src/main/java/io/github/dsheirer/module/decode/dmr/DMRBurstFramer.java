@@ -21,16 +21,14 @@ package io.github.dsheirer.module.decode.dmr;
 
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.dsp.symbol.DibitDelayBuffer;
 import io.github.dsheirer.dsp.symbol.QPSKCarrierLock;
 import io.github.dsheirer.module.decode.dmr.message.CACH;
-import io.github.dsheirer.sample.Listener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Processes a stream of Dibit symbols and performs burst detection and timeslot framing.  This framer
+ * Processes a stream of dibit symbol values and performs burst detection and timeslot framing.  This framer
  * also detects abnormal PLL phase locks and issues PLL phase lock corrections.
  *
  * Timeslot Map:
@@ -38,7 +36,7 @@ import org.slf4j.LoggerFactory;
  *  1. Timeslot 1
  *  2. Timeslot 2
  */
-public class DMRBurstFramer implements Listener<Dibit>
+public class DMRBurstFramer
 {
     private final static Logger mLog = LoggerFactory.getLogger(DMRBurstFramer.class);
 
@@ -127,10 +125,9 @@ public class DMRBurstFramer implements Listener<Dibit>
 
     /**
      * Primary dibit symbol input method
-     * @param dibit to process
+     * @param dibit value (0 - 3) to process
      */
-    @Override
-    public void receive(Dibit dibit)
+    public void receive(int dibit)
     {
         mDibitCounter++;
 
@@ -330,13 +327,7 @@ public class DMRBurstFramer implements Listener<Dibit>
      */
     private void repairPLLMisalignment(int offset, QPSKCarrierLock carrierLock)
     {
-        int end = offset + BURST_DIBIT_LENGTH;
-
-        for(int x = offset; x < end; x++)
-        {
-            Dibit misalignedDibit = mMessageBuffer.get(x);
-            mMessageBuffer.set(x, carrierLock.correct(misalignedDibit));
-        }
+        mMessageBuffer.correct(offset, BURST_DIBIT_LENGTH, carrierLock);
 
         if(mPhaseLockedLoop != null)
         {
@@ -372,17 +363,7 @@ public class DMRBurstFramer implements Listener<Dibit>
      */
     private long getSyncValue(int dibitOffset)
     {
-        Dibit[] syncDibits = mMessageBuffer.getBuffer(dibitOffset, SYNC_DIBIT_LENGTH);
-
-        long value = 0;
-
-        for(Dibit dibit: syncDibits)
-        {
-            value = Long.rotateLeft(value, 2);
-            value += dibit.getValue();
-        }
-
-        return value;
+        return mMessageBuffer.getBits(dibitOffset, SYNC_DIBIT_LENGTH);
     }
 
     /**
@@ -29,8 +29,9 @@ import io.github.dsheirer.dsp.psk.pll.CostasLoop;
 import io.github.dsheirer.dsp.psk.pll.FrequencyCorrectionSyncMonitor;
 import io.github.dsheirer.dsp.psk.pll.PLLBandwidth;
 import io.github.dsheirer.dsp.squelch.PowerMonitor;
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.dsp.symbol.DibitToByteBufferAssembler;
+import io.github.dsheirer.dsp.symbol.PackedDibitBuffer;
+import io.github.dsheirer.log.jfr.DecoderBufferEvent;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.FeedbackDecoder;
 import io.github.dsheirer.sample.Broadcaster;
@@ -58,7 +59,7 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
     protected static final float SAMPLE_COUNTER_GAIN = 0.4f;
     private static final double SYMBOL_RATE = 4800.0;
     private double mSampleRate;
-    private Broadcaster<Dibit> mDibitBroadcaster = new Broadcaster<>();
+    private Broadcaster<PackedDibitBuffer> mDibitBroadcaster = new Broadcaster<>();
     private DibitToByteBufferAssembler mByteBufferAssembler = new DibitToByteBufferAssembler(300);
     private DMRMessageProcessor mMessageProcessor;
     private ComplexFeedForwardGainControl mAGC = new ComplexFeedForwardGainControl(32);
@@ -143,6 +144,10 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
+        DecoderBufferEvent event = new DecoderBufferEvent();
+        event.begin();
+        event.bufferSize = reusableComplexBuffer.getSampleCount();
+
         //User accounting of the incoming buffer is handled by the filter
         ReusableComplexBuffer basebandFiltered = filter(reusableComplexBuffer);
 
@@ -156,6 +161,14 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
 
         //User accounting of the filtered buffer is handled by the demodulator
         mQPSKDemodulator.receive(gainApplied);
+
+        if(event.shouldCommit())
+        {
+            event.decoder = getDecoderType().name();
+            event.channel = getChannelName();
+            event.frequency = getChannelFrequency();
+            event.commit();
+        }
     }
 
     /**
@@ -226,6 +239,9 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
                 //Reset the PLL if/when the tuner PPM changes so that we can re-lock
                 mCostasLoop.reset();
                 break;
+            case NOTIFICATION_FREQUENCY_CHANGE:
+                setChannelFrequency(sourceEvent.getValue().longValue());
+                break;
         }
     }
 
@@ -240,9 +256,9 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
     }
 
     /**
-     * Assembler for packaging Dibit stream into reusable byte buffers.
+     * Broadcaster for packed dibit blocks produced by the demodulator.
      */
-    protected Broadcaster<Dibit> getDibitBroadcaster()
+    protected Broadcaster<PackedDibitBuffer> getDibitBroadcaster()
     {
         return mDibitBroadcaster;
     }
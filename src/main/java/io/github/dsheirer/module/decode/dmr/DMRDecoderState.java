@@ -21,7 +21,6 @@
  */
 package io.github.dsheirer.module.decode.dmr;
 
-import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.channel.state.ChangeChannelTimeoutEvent;
 import io.github.dsheirer.channel.state.DecoderStateEvent;
 import io.github.dsheirer.channel.state.DecoderStateEvent.Event;
@@ -37,6 +36,7 @@ import io.github.dsheirer.identifier.MutableIdentifierCollection;
 import io.github.dsheirer.identifier.Role;
 import io.github.dsheirer.identifier.integer.IntegerIdentifier;
 import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.module.InterModuleEventBus;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.dmr.channel.DMRChannel;
 import io.github.dsheirer.module.decode.dmr.event.DMRDecodeEvent;
@@ -137,6 +137,17 @@ public class DMRDecoderState extends TimeslotDecoderState
         return mTrafficChannelManager != null;
     }
 
+    /**
+     * Subscribes to channel configuration change notifications and network configuration preload data received over the
+     * processing chain event bus.
+     */
+    @Override
+    protected void subscribe(InterModuleEventBus eventBus)
+    {
+        eventBus.subscribe(this, ChannelConfigurationChangeNotification.class, this::channelChanged);
+        eventBus.subscribe(this, DMRNetworkConfigurationPreloadData.class, this::preload);
+    }
+
     /**
      * Processes channel configuration change notifications received over the processing chain event bus.  This is
      * primarily used for Capacity+ systems when the standard channel is converted to a traffic channel.  In response,
@@ -145,7 +156,6 @@ public class DMRDecoderState extends TimeslotDecoderState
      *
      * @param notification of channel configuration change
      */
-    @Subscribe
     public void channelChanged(ChannelConfigurationChangeNotification notification)
     {
         if(notification.getChannel().isTrafficChannel())
@@ -258,11 +268,10 @@ public class DMRDecoderState extends TimeslotDecoderState
      * Note: the monitor is only assigned to the timeslot 1 decoder state since the decoder state passes all received
      * messages (Timeslots 0, 1, and 2) to the monitor.
      *
-     * Note: this method is invoked over the Guava event but by the ChannelProcessingManager.
+     * Note: this method is invoked over the processing chain event bus by the ChannelProcessingManager.
      *
      * @param preloadData containing a DMR network configuration monitor.
      */
-    @Subscribe
     public void preload(DMRNetworkConfigurationPreloadData preloadData)
     {
         if(getTimeslot() == 1 && preloadData.hasData())
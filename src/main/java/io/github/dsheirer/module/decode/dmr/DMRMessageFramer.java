@@ -20,8 +20,8 @@ package io.github.dsheirer.module.decode.dmr;
 
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
+import io.github.dsheirer.dsp.symbol.PackedDibitBuffer;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.SyncLossMessage;
 import io.github.dsheirer.module.decode.dmr.audio.DMRCallSequenceRecorder;
@@ -58,7 +58,7 @@ import java.util.function.Consumer;
  * DMR Sync Detector and Message Framer.  Includes capability to detect PLL out-of-phase lock errors
  * and issue phase corrections.
  */
-public class DMRMessageFramer implements Listener<Dibit>, IDMRBurstDetectListener
+public class DMRMessageFramer implements Listener<PackedDibitBuffer>, IDMRBurstDetectListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(DMRMessageFramer.class);
 
@@ -160,12 +160,15 @@ public class DMRMessageFramer implements Listener<Dibit>, IDMRBurstDetectListene
     /**
      * Primary method for streaming decoded symbol dibits for message framing.
      *
-     * @param dibit to process
+     * @param dibits to process
      */
     @Override
-    public void receive(Dibit dibit)
+    public void receive(PackedDibitBuffer dibits)
     {
-        mBurstFramer.receive(dibit);
+        for(int x = 0; x < dibits.size(); x++)
+        {
+            mBurstFramer.receive(dibits.get(x));
+        }
     }
 
     /**
@@ -180,9 +183,9 @@ public class DMRMessageFramer implements Listener<Dibit>, IDMRBurstDetectListene
 
         for(byte value : buffer.getBytes())
         {
-            for(int x = 0; x <= 3; x++)
+            for(int shift = 6; shift >= 0; shift -= 2)
             {
-                receive(Dibit.parse(value, x));
+                mBurstFramer.receive((value >> shift) & 0x3);
             }
         }
 
@@ -1,6 +1,5 @@
 package io.github.dsheirer.module.decode.dmr;
 
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.dsp.symbol.QPSKCarrierLock;
 import org.apache.commons.lang3.Validate;
 
@@ -95,13 +94,11 @@ public class DMRSyncDetector
     /**
      * Processes the streaming dibit by left shifting the current sync value and adding the dibit onto the end and then
      * test for sync pattern match.
-     * @param dibit to process and test for sync pattern.
+     * @param dibit value (0 - 3) to process and test for sync pattern.
      */
-    public void add(Dibit dibit)
+    public void add(int dibit)
     {
-        mCurrentSyncValue = Long.rotateLeft(mCurrentSyncValue, 2);
-        mCurrentSyncValue &= SYNC_MASK;
-        mCurrentSyncValue += dibit.getValue();
+        mCurrentSyncValue = ((mCurrentSyncValue << 2) | dibit) & SYNC_MASK;
         checkSync(mMaxStreamBitErrors);
     }
 
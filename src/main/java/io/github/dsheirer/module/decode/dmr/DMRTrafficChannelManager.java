@@ -21,7 +21,6 @@
  */
 package io.github.dsheirer.module.decode.dmr;
 
-import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.channel.IChannelDescriptor;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.controller.channel.Channel.ChannelType;
@@ -34,10 +33,12 @@ import io.github.dsheirer.controller.channel.event.ChannelStartProcessingRequest
 import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.log.jfr.TrafficChannelGrantEvent;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.MessageHistoryPreloadData;
 import io.github.dsheirer.message.MessageHistoryRequest;
 import io.github.dsheirer.message.MessageHistoryResponse;
+import io.github.dsheirer.module.InterModuleEventBus;
 import io.github.dsheirer.module.decode.config.DecodeConfiguration;
 import io.github.dsheirer.module.decode.dmr.channel.DMRChannel;
 import io.github.dsheirer.module.decode.dmr.event.DMRChannelGrantEvent;
@@ -63,12 +64,12 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 /**
  * Monitors channel grant and channel grant update messages to allocate traffic channels to capture
@@ -98,7 +99,7 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
     public static final String NO_FREQUENCY = "NO FREQUENCY - CHECK LSN CHANNEL MAP";
     public static final long EVENT_TIME_STALE_THRESHOLD = 5000; //5 seconds
 
-    private Queue<Channel> mAvailableTrafficChannelQueue = new ConcurrentLinkedQueue<>();
+    private Deque<Channel> mAvailableTrafficChannelQueue = new ConcurrentLinkedDeque<>();
     private List<Channel> mManagedTrafficChannels;
 
     private Map<Long,Channel> mAllocatedTrafficChannelFrequencyMap = new ConcurrentHashMap<>();
@@ -185,6 +186,20 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
         }
     }
 
+    /**
+     * Traffic channel configurations managed by this traffic channel manager.
+     */
+    @Override
+    public List<Channel> getManagedTrafficChannels()
+    {
+        if(mManagedTrafficChannels != null)
+        {
+            return mManagedTrafficChannels;
+        }
+
+        return Collections.emptyList();
+    }
+
     /**
      * Used with Capacity Plus systems to convert the existing standard channel to a traffic channel and then recreate
      * the original standard channel with the frequency specified for the new rest channel.
@@ -276,6 +291,16 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
         }
     }
 
+    /**
+     * Subscribes to decode event and message history responses received over the processing chain event bus.
+     */
+    @Override
+    protected void subscribe(InterModuleEventBus eventBus)
+    {
+        eventBus.subscribe(this, DecodeEventHistoryResponse.class, this::process);
+        eventBus.subscribe(this, MessageHistoryResponse.class, this::process);
+    }
+
     /**
      * Processes a decode event history response and temporarily stores the event history.
      *
@@ -283,7 +308,6 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
      *
      * @param response containing the current decode event history.
      */
-    @Subscribe
     public void process(DecodeEventHistoryResponse response)
     {
         mTransientDecodeEventHistory = response.getDecodeEventHistory();
@@ -296,7 +320,6 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
      *
      * @param response containing the current message history.
      */
-    @Subscribe
     public void process(MessageHistoryResponse response)
     {
         mTransientMessageHistory = response.getMessages();
@@ -325,6 +348,18 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
      */
     public void processChannelGrant(DMRChannel channel, IdentifierCollection identifierCollection,
                                     Opcode opcode, long timestamp, boolean encrypted)
+    {
+        TrafficChannelGrantEvent grantEvent = new TrafficChannelGrantEvent();
+        grantEvent.begin();
+        allocateTrafficChannel(channel, identifierCollection, opcode, timestamp, encrypted);
+        commit(grantEvent, channel);
+    }
+
+    /**
+     * Creates or updates the channel grant decode event and allocates a traffic channel for the grant.
+     */
+    private void allocateTrafficChannel(DMRChannel channel, IdentifierCollection identifierCollection,
+                                        Opcode opcode, long timestamp, boolean encrypted)
     {
         int lsn = channel.getLogicalSlotNumber();
 
@@ -440,6 +475,22 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
         }
     }
 
+    /**
+     * Commits the flight recorder grant event when recording is enabled for the event type.
+     */
+    private void commit(TrafficChannelGrantEvent grantEvent, DMRChannel channel)
+    {
+        if(grantEvent.shouldCommit())
+        {
+            grantEvent.channel = mParentChannel.getName();
+            grantEvent.frequency = channel.getDownlinkFrequency();
+            grantEvent.timeslot = channel.getTimeslot();
+            grantEvent.allocatedCount = mAllocatedTrafficChannelFrequencyMap.size();
+            grantEvent.availableCount = mAvailableTrafficChannelQueue.size();
+            grantEvent.commit();
+        }
+    }
+
 
     /**
      * Creates a call event type description for the specified opcode and service options
@@ -735,10 +786,11 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
                             getInterModuleEventBus().post(FrequencyLockChangeRequest.unlock(frequencyToRemove));
                         }
 
-                        //Add the traffic channel back to the queue to be reused
+                        //Add the traffic channel back to the front of the queue to be reused, so that its pooled
+                        //processing chain is reused first
                         if(!mAvailableTrafficChannelQueue.contains(channel))
                         {
-                            mAvailableTrafficChannelQueue.add(channel);
+                            mAvailableTrafficChannelQueue.addFirst(channel);
                         }
                         break;
                     case NOTIFICATION_PROCESSING_START_REJECTED:
@@ -762,10 +814,11 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
                             getInterModuleEventBus().post(FrequencyLockChangeRequest.unlock(frequencyToUpdate));
                         }
 
-                        //Add the traffic channel back to the queue to be reused
+                        //Add the traffic channel back to the front of the queue to be reused, so that its pooled
+                        //processing chain is reused first
                         if(!mAvailableTrafficChannelQueue.contains(channel))
                         {
-                            mAvailableTrafficChannelQueue.add(channel);
+                            mAvailableTrafficChannelQueue.addFirst(channel);
                         }
                         break;
                 }
@@ -19,8 +19,8 @@
 
 package io.github.dsheirer.module.decode.event;
 
-import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.module.HistoryModule;
+import io.github.dsheirer.module.InterModuleEventBus;
 import io.github.dsheirer.sample.Listener;
 
 /**
@@ -45,10 +45,20 @@ public class DecodeEventHistory extends HistoryModule<IDecodeEvent> implements I
         return this;
     }
 
+    /**
+     * Subscribes to decode event history preload data and history requests received over the processing chain event
+     * bus.
+     */
+    @Override
+    protected void subscribe(InterModuleEventBus eventBus)
+    {
+        eventBus.subscribe(this, DecodeEventHistoryPreloadData.class, this::process);
+        eventBus.subscribe(this, DecodeEventHistoryRequest.class, this::process);
+    }
+
     /**
      * Process preload data
      */
-    @Subscribe
     public void process(DecodeEventHistoryPreloadData preloadData)
     {
         for(IDecodeEvent decodeEvent: preloadData.getData())
@@ -66,7 +76,6 @@ public class DecodeEventHistory extends HistoryModule<IDecodeEvent> implements I
      *
      * @param request for decode event history
      */
-    @Subscribe
     public void process(DecodeEventHistoryRequest request)
     {
         getInterModuleEventBus().post(new DecodeEventHistoryResponse(this));
@@ -24,6 +24,7 @@ package io.github.dsheirer.module.decode.event;
 import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.channel.IChannelDescriptor;
 import io.github.dsheirer.eventbus.MyEventBus;
+import io.github.dsheirer.gui.ModelUpdateScheduler;
 import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.preference.PreferenceType;
 import io.github.dsheirer.sample.Listener;
@@ -32,9 +33,19 @@ import org.slf4j.LoggerFactory;
 
 import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Decode event table model.  New and updated events are collected off of the Swing event dispatch thread and applied
+ * in batches at the UI frame rate.  An event that is updated several times within a frame produces a single row
+ * update.  Events are displayed newest first and rows are only inserted at the top and pruned from the bottom, so
+ * the row of an event is derived from its insertion sequence number without searching the event list.
+ */
 public class DecodeEventModel extends AbstractTableModel implements Listener<IDecodeEvent>
 {
     private static final long serialVersionUID = 1L;
@@ -54,6 +65,12 @@ public class DecodeEventModel extends AbstractTableModel implements Listener<IDe
     protected int mMaxMessages = 500;
 
     protected List<IDecodeEvent> mEvents = new ArrayList<>();
+    private Map<IDecodeEvent,Long> mEventSequenceMap = new IdentityHashMap<>();
+    private long mNewestSequence = -1;
+    private final Object mPendingLock = new Object();
+    private List<IDecodeEvent> mPendingEvents = new ArrayList<>();
+    private Set<IDecodeEvent> mPendingEventSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    private ModelUpdateScheduler mModelUpdateScheduler = new ModelUpdateScheduler(this::applyPendingEvents);
 
     protected String[] mHeaders = new String[]{"Time", "Duration", "Event", "From", "Alias", "To", "Alias", "Channel", "Frequency", "Details"};
 
@@ -94,15 +111,34 @@ public class DecodeEventModel extends AbstractTableModel implements Listener<IDe
         return new ArrayList<>(mEvents);
     }
 
+    /**
+     * Event at the specified model row
+     * @param row index
+     * @return event or null if the row index is not valid
+     */
+    public IDecodeEvent getEvent(int row)
+    {
+        if(0 <= row && row < mEvents.size())
+        {
+            return mEvents.get(row);
+        }
+
+        return null;
+    }
+
     public void dispose()
     {
         MyEventBus.getGlobalEventBus().unregister(this);
+        mModelUpdateScheduler.dispose();
+        clearPendingEvents();
         Iterator<IDecodeEvent> it = mEvents.iterator();
 
         while(it.hasNext())
         {
             it.remove();
         }
+
+        mEventSequenceMap.clear();
     }
 
     /**
@@ -110,11 +146,34 @@ public class DecodeEventModel extends AbstractTableModel implements Listener<IDe
      */
     public void clearAndSet(List<IDecodeEvent> events)
     {
+        clearPendingEvents();
         mEvents.clear();
+        mEventSequenceMap.clear();
         mEvents.addAll(events);
+
+        //Assign sequence numbers so that the derived row of each event matches the row in the event list
+        mNewestSequence = mEvents.size() - 1;
+
+        for(int row = 0; row < mEvents.size(); row++)
+        {
+            mEventSequenceMap.put(mEvents.get(row), mNewestSequence - row);
+        }
+
         fireTableDataChanged();
     }
 
+    /**
+     * Discards any pending events that haven't been applied to the model
+     */
+    private void clearPendingEvents()
+    {
+        synchronized(mPendingLock)
+        {
+            mPendingEvents = new ArrayList<>();
+            mPendingEventSet.clear();
+        }
+    }
+
     public void reset()
     {
         dispose();
@@ -139,26 +198,90 @@ public class DecodeEventModel extends AbstractTableModel implements Listener<IDe
      */
     public void receive(final IDecodeEvent event)
     {
-        if(!mEvents.contains(event))
+        synchronized(mPendingLock)
+        {
+            //Queue each event once per frame, in order of arrival
+            if(mPendingEventSet.add(event))
+            {
+                mPendingEvents.add(event);
+            }
+        }
+
+        mModelUpdateScheduler.requestUpdate();
+    }
+
+    /**
+     * Applies the pending new and updated events to the model.  Invoked on the Swing event dispatch thread by the model
+     * update scheduler.
+     */
+    private void applyPendingEvents()
+    {
+        List<IDecodeEvent> pending;
+
+        synchronized(mPendingLock)
+        {
+            pending = mPendingEvents;
+            mPendingEvents = new ArrayList<>();
+            mPendingEventSet.clear();
+        }
+
+        List<IDecodeEvent> added = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+
+        for(IDecodeEvent event: pending)
+        {
+            Long sequence = mEventSequenceMap.get(event);
+
+            if(sequence == null)
+            {
+                mEventSequenceMap.put(event, ++mNewestSequence);
+                added.add(event);
+            }
+            else
+            {
+                updated.add(sequence);
+            }
+        }
+
+        if(!added.isEmpty())
         {
-            mEvents.add(0, event);
-            fireTableRowsInserted(0, 0);
-            prune();
+            //Newest events are displayed first
+            Collections.reverse(added);
+            mEvents.addAll(0, added);
+            fireTableRowsInserted(0, added.size() - 1);
         }
-        else
+
+        if(!updated.isEmpty())
         {
-            int row = mEvents.indexOf(event);
-            fireTableRowsUpdated(row, row);
+            int firstRow = Integer.MAX_VALUE;
+            int lastRow = -1;
+
+            for(Long sequence: updated)
+            {
+                int row = (int)(mNewestSequence - sequence);
+                firstRow = Math.min(firstRow, row);
+                lastRow = Math.max(lastRow, row);
+            }
+
+            fireTableRowsUpdated(firstRow, lastRow);
         }
+
+        prune();
     }
 
     private void prune()
     {
-        while(mEvents.size() > mMaxMessages)
+        if(mEvents.size() > mMaxMessages)
         {
-            int index = mEvents.size() - 1;
-            mEvents.remove(index);
-            fireTableRowsDeleted(index, index);
+            int firstRow = mMaxMessages;
+            int lastRow = mEvents.size() - 1;
+
+            for(int row = lastRow; row >= firstRow; row--)
+            {
+                mEventSequenceMap.remove(mEvents.remove(row));
+            }
+
+            fireTableRowsDeleted(firstRow, lastRow);
         }
     }
 
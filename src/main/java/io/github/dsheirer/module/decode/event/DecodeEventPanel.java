@@ -37,6 +37,7 @@ import io.github.dsheirer.module.ProcessingChain;
 import io.github.dsheirer.preference.PreferenceType;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.swing.JTableColumnWidthMonitor;
+import io.github.dsheirer.record.archive.ArchivedAudioExportRequest;
 import io.github.dsheirer.sample.Listener;
 import net.miginfocom.swing.MigLayout;
 import org.slf4j.Logger;
@@ -44,13 +45,19 @@ import org.slf4j.LoggerFactory;
 
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.EventQueue;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.Collections;
@@ -90,6 +97,7 @@ public class DecodeEventPanel extends JPanel implements Listener<ProcessingChain
         mTable.setAutoCreateRowSorter(true);
         mTable.setAutoResizeMode(JTable.AUTO_RESIZE_LAST_COLUMN);
         mTableColumnWidthMonitor = new JTableColumnWidthMonitor(mUserPreferences, mTable, TABLE_PREFERENCE_KEY);
+        mTable.addMouseListener(new MouseSupport());
         updateCellRenderers();
 
         mEmptyScroller = new JScrollPane(mTable);
@@ -157,6 +165,77 @@ public class DecodeEventPanel extends JPanel implements Listener<ProcessingChain
         });
     }
 
+    /**
+     * Requests export of the archived call audio for the decode event and displays the outcome
+     * @param decodeEvent to export
+     */
+    private void exportArchivedAudio(IDecodeEvent decodeEvent)
+    {
+        long start = decodeEvent.getTimeStart();
+        long end = start + Math.max(decodeEvent.getDuration(), 0);
+
+        MyEventBus.getGlobalEventBus().post(new ArchivedAudioExportRequest(decodeEvent.getIdentifierCollection(),
+            start, end, paths -> EventQueue.invokeLater(() -> {
+                if(paths.isEmpty())
+                {
+                    JOptionPane.showMessageDialog(DecodeEventPanel.this, "No archived call audio was found for " +
+                        "this event", "Export Archived Call Audio", JOptionPane.INFORMATION_MESSAGE);
+                }
+                else
+                {
+                    StringBuilder sb = new StringBuilder();
+                    sb.append("Exported ").append(paths.size()).append(" archived call(s) to:");
+
+                    for(Path path: paths)
+                    {
+                        sb.append("\n").append(path.toString());
+                    }
+
+                    JOptionPane.showMessageDialog(DecodeEventPanel.this, sb.toString(),
+                        "Export Archived Call Audio", JOptionPane.INFORMATION_MESSAGE);
+                }
+            })));
+    }
+
+    /**
+     * Context menu support for the decode event table
+     */
+    public class MouseSupport extends MouseAdapter
+    {
+        @Override
+        public void mouseClicked(MouseEvent e)
+        {
+            if(e.getButton() == MouseEvent.BUTTON3) //Right click for context
+            {
+                JPopupMenu popupMenu = new JPopupMenu();
+
+                boolean populated = false;
+
+                int viewRowIndex = mTable.rowAtPoint(e.getPoint());
+
+                if(viewRowIndex >= 0)
+                {
+                    IDecodeEvent decodeEvent = mEventModel.getEvent(mTable.convertRowIndexToModel(viewRowIndex));
+
+                    if(decodeEvent != null && mUserPreferences.getRecordPreference().isArchiveEnabled())
+                    {
+                        JMenuItem exportItem = new JMenuItem("Export Archived Call Audio");
+                        exportItem.addActionListener(e2 -> exportArchivedAudio(decodeEvent));
+                        popupMenu.add(exportItem);
+                        populated = true;
+                    }
+                }
+
+                if(!populated)
+                {
+                    popupMenu.add(new JMenuItem("No Actions Available"));
+                }
+
+                popupMenu.show(mTable, e.getX(), e.getY());
+            }
+        }
+    }
+
     /**
      * Custom cell renderer for displaying identifiers from an identifier collection
      */
@@ -22,6 +22,7 @@ package io.github.dsheirer.module.decode.fleetsync2;
 import io.github.dsheirer.bits.MessageFramer;
 import io.github.dsheirer.bits.SyncPattern;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
+import io.github.dsheirer.dsp.afsk.SharedAFSK1200Decoder;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.afsk.AbstractAFSKDecoder;
 
@@ -55,13 +56,24 @@ public class Fleetsync2Decoder extends AbstractAFSKDecoder
         init();
     }
 
+    /**
+     * Constructs a decoder that receives symbols from the shared AFSK 1200 decoder.
+     *
+     * @param sharedDecoder that is shared with other AFSK decoders processing the same channel
+     */
+    public Fleetsync2Decoder(SharedAFSK1200Decoder sharedDecoder)
+    {
+        super(sharedDecoder, AFSK1200Decoder.Output.NORMAL);
+        init();
+    }
+
     /**
      * Initializes the decoding chain.
      */
     private void init()
     {
         mMessageFramer = new MessageFramer(SyncPattern.FLEETSYNC2.getPattern(), MESSAGE_LENGTH);
-        getDecoder().setSymbolProcessor(mMessageFramer);
+        setSymbolProcessor(mMessageFramer);
         mMessageProcessor = new Fleetsync2MessageProcessor();
         mMessageFramer.addMessageListener(mMessageProcessor);
         mMessageProcessor.setMessageListener(getMessageListener());
@@ -28,7 +28,7 @@ import io.github.dsheirer.dsp.filter.decimate.IComplexDecimationFilter;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
 import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
-import io.github.dsheirer.dsp.filter.resample.RealResampler;
+import io.github.dsheirer.dsp.filter.resample.PolyphaseResampler;
 import io.github.dsheirer.dsp.fm.SquelchingFMDemodulator;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.PrimaryDecoder;
@@ -60,7 +60,7 @@ public class NBFMDecoder extends PrimaryDecoder implements ISourceEventListener,
 	private IComplexDecimationFilter mDecimationFilter;
 	private SquelchingFMDemodulator mDemodulator = new SquelchingFMDemodulator(POWER_SQUELCH_ALPHA_DECAY,
 			POWER_SQUELCH_THRESHOLD_DB, POWER_SQUELCH_RAMP);
-	private RealResampler mResampler;
+	private PolyphaseResampler mResampler;
 	private SourceEventProcessor mSourceEventProcessor = new SourceEventProcessor();
 	private Listener<ReusableFloatBuffer> mResampledReusableBufferListener;
 	private Listener<DecoderStateEvent> mDecoderStateEventListener;
@@ -340,7 +340,7 @@ public class NBFMDecoder extends PrimaryDecoder implements ISourceEventListener,
 
 				mIQFilter = new ComplexFIRFilter2(filterTaps);
 
-				mResampler = new RealResampler(decimatedSampleRate, mOutputSampleRate, 2000, 1000);
+				mResampler = new PolyphaseResampler(decimatedSampleRate, mOutputSampleRate, 1000);
 
 				mResampler.setListener(reusableFloatBuffer ->
 				{
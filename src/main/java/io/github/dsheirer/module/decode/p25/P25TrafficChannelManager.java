@@ -33,6 +33,7 @@ import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.identifier.MutableIdentifierCollection;
 import io.github.dsheirer.identifier.Role;
 import io.github.dsheirer.identifier.scramble.ScrambleParameterIdentifier;
+import io.github.dsheirer.log.jfr.TrafficChannelGrantEvent;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.IMessageListener;
 import io.github.dsheirer.module.decode.DecoderType;
@@ -61,12 +62,12 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 /**
  * Monitors channel grant and channel grant update messages to allocate traffic channels to capture
@@ -92,9 +93,9 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
     public static final String CHANNEL_START_REJECTED = "CHANNEL START REJECTED";
     public static final String MAX_TRAFFIC_CHANNELS_EXCEEDED = "MAX TRAFFIC CHANNELS EXCEEDED";
 
-    private Queue<Channel> mAvailablePhase1TrafficChannelQueue = new ConcurrentLinkedQueue<>();
+    private Deque<Channel> mAvailablePhase1TrafficChannelQueue = new ConcurrentLinkedDeque<>();
     private List<Channel> mManagedPhase1TrafficChannels;
-    private Queue<Channel> mAvailablePhase2TrafficChannelQueue = new ConcurrentLinkedQueue<>();
+    private Deque<Channel> mAvailablePhase2TrafficChannelQueue = new ConcurrentLinkedDeque<>();
     private List<Channel> mManagedPhase2TrafficChannels;
 
     private Map<Long,Channel> mAllocatedTrafficChannelMap = new ConcurrentHashMap<>();
@@ -206,6 +207,27 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
         }
     }
 
+    /**
+     * Phase 1 and phase 2 traffic channel configurations managed by this traffic channel manager.
+     */
+    @Override
+    public List<Channel> getManagedTrafficChannels()
+    {
+        List<Channel> channels = new ArrayList<>();
+
+        if(mManagedPhase1TrafficChannels != null)
+        {
+            channels.addAll(mManagedPhase1TrafficChannels);
+        }
+
+        if(mManagedPhase2TrafficChannels != null)
+        {
+            channels.addAll(mManagedPhase2TrafficChannels);
+        }
+
+        return channels;
+    }
+
     /**
      * Broadcasts an initial or update decode event to any registered listener.
      */
@@ -228,6 +250,18 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
      */
     public void processChannelGrant(APCO25Channel apco25Channel, ServiceOptions serviceOptions,
                                     IdentifierCollection identifierCollection, Opcode opcode, long timestamp)
+    {
+        TrafficChannelGrantEvent grantEvent = new TrafficChannelGrantEvent();
+        grantEvent.begin();
+        allocateTrafficChannel(apco25Channel, serviceOptions, identifierCollection, opcode, timestamp);
+        commit(grantEvent, apco25Channel);
+    }
+
+    /**
+     * Creates or updates the channel grant decode event and allocates a traffic channel for the grant.
+     */
+    private void allocateTrafficChannel(APCO25Channel apco25Channel, ServiceOptions serviceOptions,
+                                        IdentifierCollection identifierCollection, Opcode opcode, long timestamp)
     {
         if(apco25Channel.isTDMAChannel())
         {
@@ -256,6 +290,23 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
         }
     }
 
+    /**
+     * Commits the flight recorder grant event when recording is enabled for the event type.
+     */
+    private void commit(TrafficChannelGrantEvent grantEvent, APCO25Channel apco25Channel)
+    {
+        if(grantEvent.shouldCommit())
+        {
+            grantEvent.channel = mParentChannel.getName();
+            grantEvent.frequency = apco25Channel.getDownlinkFrequency();
+            grantEvent.timeslot = apco25Channel.getTimeslot();
+            grantEvent.allocatedCount = mAllocatedTrafficChannelMap.size();
+            grantEvent.availableCount = mAvailablePhase1TrafficChannelQueue.size() +
+                mAvailablePhase2TrafficChannelQueue.size();
+            grantEvent.commit();
+        }
+    }
+
     /**
      * Processes Phase 1 channel grants to allocate traffic channels and track overall channel usage.  Generates
      * decode events for each new channel that is allocated.
@@ -755,7 +806,8 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
     public class TrafficChannelTeardownMonitor implements Listener<ChannelEvent>
     {
         /**
-         * Removes an allocated traffic channel and adds it to the available channel queue
+         * Removes an allocated traffic channel and adds it to the front of the available channel queue, so that its
+         * pooled processing chain is reused first
          * @param channel to reset
          * @param frequency of the channel
          * @param isPhase1 true or false if it is a phase 2 channel
@@ -766,11 +818,11 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
 
             if(isPhase1)
             {
-                mAvailablePhase1TrafficChannelQueue.add(channel);
+                mAvailablePhase1TrafficChannelQueue.addFirst(channel);
             }
             else
             {
-                mAvailablePhase2TrafficChannelQueue.add(channel);
+                mAvailablePhase2TrafficChannelQueue.addFirst(channel);
             }
         }
 
@@ -20,9 +20,7 @@
 
 package io.github.dsheirer.module.decode.p25.phase1;
 
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.module.decode.p25.reference.Direction;
-import io.github.dsheirer.sample.Listener;
 
 /**
  * Processes P25 status dibits to determine if the channel being monitored is the output of a repeater or if
@@ -32,21 +30,24 @@ import io.github.dsheirer.sample.Listener;
  * Dibits 01 and 11 are used by the repeater.
  * Dibit 10 is used by both and is ignored by this processor.
  */
-public class P25P1ChannelStatusProcessor implements Listener<Dibit>
+public class P25P1ChannelStatusProcessor
 {
     private int mSubscriberCount = 0;
     private int mRepeaterCount = 0;
     private Direction mDirection = Direction.OUTBOUND;
 
-    public void receive(Dibit status)
+    /**
+     * Processes the status dibit value (0 - 3)
+     */
+    public void receive(int status)
     {
         switch(status)
         {
-            case D00_PLUS_1:
+            case 0x0:
                 mSubscriberCount++;
                 break;
-            case D01_PLUS_3:
-            case D11_MINUS_3:
+            case 0x1:
+            case 0x3:
                 mRepeaterCount++;
                 break;
         }
@@ -22,22 +22,21 @@
 package io.github.dsheirer.module.decode.p25.phase1;
 
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitDelayBuffer;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
 import io.github.dsheirer.edac.BCH_63_16_11;
-import io.github.dsheirer.sample.Listener;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListener
+public class P25P1DataUnitDetector implements ISyncDetectListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(P25P1DataUnitDetector.class);
     private static final int DATA_UNIT_DIBIT_LENGTH = 57; //56 dibits plus 1 status symbol
     private static final int SYNC_DIBIT_LENGTH = 24;
     private static final int MAXIMUM_SYNC_MATCH_BIT_ERRORS = 9;
     private P25P1SyncDetector mSyncDetector;
-    private NIDDelayBuffer mDataUnitBuffer = new NIDDelayBuffer();
+    private static final int NID_STATUS_DIBIT_INDEX = 11;
     private DibitDelayBuffer mSyncDelayBuffer = new DibitDelayBuffer(DATA_UNIT_DIBIT_LENGTH - SYNC_DIBIT_LENGTH);
     private IP25P1DataUnitDetectListener mDataUnitDetectListener;
     private boolean mInitialSyncTestProcessed = false;
@@ -45,6 +44,8 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
     private BCH_63_16_11 mNIDDecoder = new BCH_63_16_11();
     private P25P1DataUnitID mPreviousDataUnitId = P25P1DataUnitID.TERMINATOR_DATA_UNIT;
     private int mNIDDetectionCount;
+    private int[] mNID = new int[63];
+    private int[] mCorrectedNID = new int[63];
 
     public P25P1DataUnitDetector(IP25P1DataUnitDetectListener dataUnitDetectListener, IPhaseLockedLoop phaseLockedLoop)
     {
@@ -87,8 +88,10 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
         }
     }
 
-    @Override
-    public void receive(Dibit dibit)
+    /**
+     * Processes the dibit value (0 - 3)
+     */
+    public void receive(int dibit)
     {
         mDibitsProcessed++;
 
@@ -99,11 +102,8 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
             mDibitsProcessed -= 4800;
         }
 
-        mDataUnitBuffer.put(dibit);
-
-        //Feed the sync detect with a 32 dibit delay from the data unit buffer so that if/when
-        //a sync detect occurs, the data unit buffer is already filled with both the sync dibits
-        //and the NID dibits and we can test for a valid NID
+        //Feed the sync detect with a 33 dibit delay so that if/when a sync detect occurs, the sync
+        //delay buffer is already filled with the NID dibits and we can test for a valid NID
         mSyncDetector.receive(mSyncDelayBuffer.getAndPut(dibit));
 
         //If the sync detector doesn't fire and we've processed enough dibits for a sync/nid sequence
@@ -129,22 +129,22 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
     {
         if(bitErrorCount <= MAXIMUM_SYNC_MATCH_BIT_ERRORS)
         {
-            int[] nid = mSyncDelayBuffer.getNID();
-            int[] correctedNid = new int[63];
+            loadNID();
 
             //If decoder indicates there are no unrecoverable errors ....
-            if(!mNIDDecoder.decode(nid, correctedNid))
+            if(!mNIDDecoder.decode(mNID, mCorrectedNID))
             {
                 mNIDDetectionCount++;
 
-                int nidBitErrorCount = getBitErrorCount(nid, correctedNid);
+                int nidBitErrorCount = getBitErrorCount(mNID, mCorrectedNID);
 
                 if(mDataUnitDetectListener != null)
                 {
-                    mPreviousDataUnitId = getDataUnitID(correctedNid);
+                    mPreviousDataUnitId = getDataUnitID(mCorrectedNID);
 
-                    mDataUnitDetectListener.dataUnitDetected(mPreviousDataUnitId, getNAC(correctedNid),
-                        (bitErrorCount + nidBitErrorCount), (mDibitsProcessed - DATA_UNIT_DIBIT_LENGTH), correctedNid);
+                    mDataUnitDetectListener.dataUnitDetected(mPreviousDataUnitId, getNAC(mCorrectedNID),
+                        (bitErrorCount + nidBitErrorCount), (mDibitsProcessed - DATA_UNIT_DIBIT_LENGTH),
+                        mCorrectedNID.clone());
                 }
             }
             else if(mPreviousDataUnitId == P25P1DataUnitID.LOGICAL_LINK_DATA_UNIT_1)
@@ -170,6 +170,25 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
         }
     }
 
+    /**
+     * Loads the NID from the sync delay buffer into the NID array in the reverse bit order required by the BCH
+     * decoder.  The sync delay buffer holds 33 dibits: 32 NID dibits with a status dibit inserted after the 11th
+     * dibit.  The NID is 63 bits plus a trailing parity bit that is not used by the decoder.
+     */
+    private void loadNID()
+    {
+        long nid = (mSyncDelayBuffer.getBits(0, NID_STATUS_DIBIT_INDEX) << 42) |
+            mSyncDelayBuffer.getBits(NID_STATUS_DIBIT_INDEX + 1, 21);
+
+        //Drop the trailing parity bit so that the first NID bit is at index 62 and the last NID bit is at index 0
+        nid >>>= 1;
+
+        for(int x = 0; x < 63; x++)
+        {
+            mNID[x] = (int)(nid >>> x) & 0x1;
+        }
+    }
+
     /**
      * Determines the data unit ID present in the nid value.
      * @param nid in reverse bit order
@@ -279,240 +298,6 @@ public class P25P1DataUnitDetector implements Listener<Dibit>, ISyncDetectListen
         return mNIDDetectionCount;
     }
 
-    public class NIDDelayBuffer extends DibitDelayBuffer
-    {
-        public NIDDelayBuffer()
-        {
-            super(DATA_UNIT_DIBIT_LENGTH);
-        }
-
-        public int[] getNID()
-        {
-            int[] nid = new int[64];
-
-            int nidPointer = 0;
-            int bufferPointer = mPointer;
-
-            while(nidPointer < 64)
-            {
-                if(mBuffer[bufferPointer].getBit2())
-                {
-                    nid[nidPointer] = 1;
-                }
-
-                nidPointer++;
-
-                if(mBuffer[bufferPointer].getBit1())
-                {
-                    nid[nidPointer] = 1;
-                }
-
-                nidPointer++;
-
-                bufferPointer--;
-
-                if(bufferPointer < 0)
-                {
-                    bufferPointer += mBuffer.length;
-                }
-
-                //Check for the status symbol
-                if(nidPointer == 70)
-                {
-                    nidPointer += 2;
-                }
-            }
-
-            return nid;
-        }
-    }
-
-
-    /**
-     * Circular buffer for storing and accessing dibits.
-     */
-    public class DibitDelayBuffer
-    {
-        protected Dibit[] mBuffer;
-        protected int mPointer;
-
-        /**
-         * Constructs a dibit delay buffer of the specified length
-         */
-        public DibitDelayBuffer(int length)
-        {
-            mBuffer = new Dibit[length];
-
-            //Preload the buffer to avoid null pointers
-            for(int x = 0; x < length; x++)
-            {
-                mBuffer[x] = Dibit.D00_PLUS_1;
-            }
-        }
-
-        /**
-         * Fetches the NID in reverse order format required for the ECC code
-         */
-        public int[] getNID()
-        {
-            int[] nid = new int[63];
-
-            int nidPointer = 0;
-            int bufferPointer = mPointer - 1;
-
-            if(bufferPointer < 0)
-            {
-                bufferPointer += mBuffer.length;
-            }
-
-            //Skip bit 2 of the starting (ie last) dibit ... we only want 63 of the 64 bits from the dibit buffer
-            if(mBuffer[bufferPointer].getBit1())
-            {
-                nid[nidPointer] = 1;
-            }
-
-            nidPointer++;
-
-            bufferPointer--;
-
-            if(bufferPointer < 0)
-            {
-                bufferPointer += mBuffer.length;
-            }
-
-            while(nidPointer < 63)
-            {
-                if(mBuffer[bufferPointer].getBit2())
-                {
-                    nid[nidPointer] = 1;
-                }
-
-                nidPointer++;
-
-                if(mBuffer[bufferPointer].getBit1())
-                {
-                    nid[nidPointer] = 1;
-                }
-
-                nidPointer++;
-
-                bufferPointer--;
-
-                //Check for and skip the status symbol that gets inserted after 70 bits, meaning
-                //it will be located in the buffer after 22 NID bits
-                if(nidPointer == 41)
-                {
-                    bufferPointer--;
-                }
-
-                if(bufferPointer < 0)
-                {
-                    bufferPointer += mBuffer.length;
-                }
-            }
-
-            return nid;
-        }
-
-        public void log()
-        {
-            StringBuilder sb = new StringBuilder();
-
-            int counter = 0;
-            int pointer = mPointer;
-
-            while(counter < mBuffer.length)
-            {
-                sb.append(mBuffer[pointer].getBit1() ? "1" : "0");
-                sb.append(mBuffer[pointer++].getBit2() ? "1" : "0");
-
-                if(pointer >= mBuffer.length)
-                {
-                    pointer = 0;
-                }
-
-                counter++;
-            }
-
-            if(this instanceof NIDDelayBuffer)
-            {
-                mLog.debug("NIDBUF: " + sb + " Length:" + mBuffer.length);
-            }
-            else
-            {
-                mLog.debug("SYNBUF: " + sb + " Length:" + mBuffer.length);
-            }
-        }
-
-        /**
-         * Returns an ordered buffer of the internal circular buffer contents.
-         */
-        public Dibit[] getBuffer()
-        {
-            Dibit[] transferBuffer = new Dibit[mBuffer.length];
-
-            int transferBufferPointer = 0;
-            int bufferPointer = mPointer;
-
-            while(transferBufferPointer < transferBuffer.length)
-            {
-                transferBuffer[transferBufferPointer++] = mBuffer[bufferPointer++];
-
-                if(bufferPointer >= mBuffer.length)
-                {
-                    bufferPointer = 0;
-                }
-            }
-
-            return transferBuffer;
-        }
-
-        public int[] getBufferAsArray()
-        {
-            Dibit[] dibits = getBuffer();
-
-            int[] bits = new int[dibits.length * 2];
-
-            for(int x = 0; x < dibits.length; x++)
-            {
-                if(dibits[x].getBit1())
-                {
-                    bits[x * 2] = 1;
-                }
-                if(dibits[x].getBit2())
-                {
-                    bits[x * 2 + 1] = 1;
-                }
-            }
-
-            return bits;
-        }
-
-        /**
-         * Places the dibit into the internal circular buffer, overwriting the oldest dibit.
-         */
-        public void put(Dibit dibit)
-        {
-            mBuffer[mPointer++] = dibit;
-
-            if(mPointer >= mBuffer.length)
-            {
-                mPointer = 0;
-            }
-        }
-
-        /**
-         * Places the dibit into the internal circular buffer, overwriting and returning the
-         * oldest dibit.
-         */
-        public Dibit getAndPut(Dibit dibit)
-        {
-            Dibit toReturn = mBuffer[mPointer];
-            put(dibit);
-            return toReturn;
-        }
-    }
-
     public static int[] reverse(int[] values)
     {
         int[] reversed = new int[values.length];
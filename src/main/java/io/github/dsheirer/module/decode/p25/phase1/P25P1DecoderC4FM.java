@@ -32,6 +32,7 @@ import io.github.dsheirer.dsp.psk.pll.CostasLoop;
 import io.github.dsheirer.dsp.psk.pll.FrequencyCorrectionSyncMonitor;
 import io.github.dsheirer.dsp.psk.pll.PLLBandwidth;
 import io.github.dsheirer.dsp.squelch.PowerMonitor;
+import io.github.dsheirer.log.jfr.DecoderBufferEvent;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.source.SourceEvent;
@@ -100,6 +101,10 @@ public class P25P1DecoderC4FM extends P25P1Decoder
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
+        DecoderBufferEvent event = new DecoderBufferEvent();
+        event.begin();
+        event.bufferSize = reusableComplexBuffer.getSampleCount();
+
         //User accounting of the incoming buffer is handled by the filter
         ReusableComplexBuffer basebandFiltered = filter(reusableComplexBuffer);
 
@@ -113,6 +118,14 @@ public class P25P1DecoderC4FM extends P25P1Decoder
 
         //User accounting of the filtered buffer is handled by the demodulator
         mQPSKDemodulator.receive(gainApplied);
+
+        if(event.shouldCommit())
+        {
+            event.decoder = getDecoderType().name();
+            event.channel = getChannelName();
+            event.frequency = getChannelFrequency();
+            event.commit();
+        }
     }
 
     /**
@@ -181,6 +194,9 @@ public class P25P1DecoderC4FM extends P25P1Decoder
                 //Reset the PLL if/when the tuner PPM changes so that we can re-lock
                 mCostasLoop.reset();
                 break;
+            case NOTIFICATION_FREQUENCY_CHANGE:
+                setChannelFrequency(sourceEvent.getValue().longValue());
+                break;
         }
     }
 
@@ -27,8 +27,8 @@ import io.github.dsheirer.bits.BitSetFullException;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
+import io.github.dsheirer.dsp.symbol.PackedDibitBuffer;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.Message;
 import io.github.dsheirer.message.MessageProviderModule;
@@ -70,7 +70,7 @@ import java.util.function.Consumer;
  * P25 Sync Detector and Message Framer.  Includes capability to detect PLL out-of-phase lock errors
  * and issue phase corrections.
  */
-public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetectListener
+public class P25P1MessageFramer implements Listener<PackedDibitBuffer>, IP25P1DataUnitDetectListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(P25P1MessageFramer.class);
 
@@ -169,10 +169,23 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
     /**
      * Primary method for streaming decoded symbol dibits for message framing.
      *
-     * @param dibit to process
+     * @param dibits to process
      */
     @Override
-    public void receive(Dibit dibit)
+    public void receive(PackedDibitBuffer dibits)
+    {
+        for(int x = 0; x < dibits.size(); x++)
+        {
+            process(dibits.get(x));
+        }
+    }
+
+    /**
+     * Processes a single dibit value (0 - 3)
+     *
+     * @param dibit to process
+     */
+    private void process(int dibit)
     {
         if(mAssemblingMessage)
         {
@@ -193,9 +206,9 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
 
             try
             {
-                mBinaryMessage.add(dibit.getBit1());
-                mBinaryMessage.add(dibit.getBit2());
-                
+                mBinaryMessage.add((dibit & 0x2) == 0x2);
+                mBinaryMessage.add((dibit & 0x1) == 0x1);
+
                 if(mBinaryMessage.isFull())
                 {
                     //TDU's have a trailing status symbol that has to be removed -- set flag to true to suppress it.
@@ -383,9 +396,9 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
 
         for(byte value : buffer.getBytes())
         {
-            for(int x = 0; x <= 3; x++)
+            for(int shift = 6; shift >= 0; shift -= 2)
             {
-                receive(Dibit.parse(value, x));
+                process((value >> shift) & 0x3);
             }
         }
 
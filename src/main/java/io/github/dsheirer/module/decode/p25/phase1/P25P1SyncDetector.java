@@ -25,13 +25,11 @@ import io.github.dsheirer.bits.MultiSyncPatternMatcher;
 import io.github.dsheirer.bits.SoftSyncDetector;
 import io.github.dsheirer.bits.SyncDetector;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.dsp.symbol.FrameSync;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
-import io.github.dsheirer.sample.Listener;
 import org.apache.commons.math3.util.FastMath;
 
-public class P25P1SyncDetector implements Listener<Dibit>
+public class P25P1SyncDetector
 {
     /* Determines the threshold for sync pattern soft matching */
     private static final int SYNC_MATCH_THRESHOLD = 4;
@@ -89,10 +87,12 @@ public class P25P1SyncDetector implements Listener<Dibit>
         return Long.bitCount(mMatcher.getCurrentValue() ^ FrameSync.P25_PHASE1_NORMAL.getSync());
     }
 
-    @Override
-    public void receive(Dibit dibit)
+    /**
+     * Processes the dibit value (0 - 3) through the sync pattern matcher
+     */
+    public void receive(int dibit)
     {
-        mMatcher.receive(dibit.getBit1(), dibit.getBit2());
+        mMatcher.receive(dibit);
     }
 
     /**
@@ -19,8 +19,8 @@
 package io.github.dsheirer.module.decode.p25.phase2;
 
 import io.github.dsheirer.dsp.squelch.PowerMonitor;
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.dsp.symbol.DibitToByteBufferAssembler;
+import io.github.dsheirer.dsp.symbol.PackedDibitBuffer;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.FeedbackDecoder;
 import io.github.dsheirer.sample.Broadcaster;
@@ -40,7 +40,7 @@ public abstract class P25P2Decoder extends FeedbackDecoder implements ISourceEve
     IReusableComplexBufferListener, Listener<ReusableComplexBuffer>, IReusableByteBufferProvider
 {
     private double mSampleRate;
-    private Broadcaster<Dibit> mDibitBroadcaster = new Broadcaster<>();
+    private Broadcaster<PackedDibitBuffer> mDibitBroadcaster = new Broadcaster<>();
     private DibitToByteBufferAssembler mByteBufferAssembler = new DibitToByteBufferAssembler(300);
     private P25P2MessageProcessor mMessageProcessor;
     private double mSymbolRate;
@@ -69,9 +69,9 @@ public abstract class P25P2Decoder extends FeedbackDecoder implements ISourceEve
     }
 
     /**
-     * Assembler for packaging Dibit stream into reusable byte buffers.
+     * Broadcaster for packed dibit blocks produced by the demodulator.
      */
-    protected Broadcaster<Dibit> getDibitBroadcaster()
+    protected Broadcaster<PackedDibitBuffer> getDibitBroadcaster()
     {
         return mDibitBroadcaster;
     }
@@ -35,6 +35,7 @@ import io.github.dsheirer.dsp.squelch.PowerMonitor;
 import io.github.dsheirer.identifier.Form;
 import io.github.dsheirer.identifier.IdentifierUpdateListener;
 import io.github.dsheirer.identifier.IdentifierUpdateNotification;
+import io.github.dsheirer.log.jfr.DecoderBufferEvent;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.SyncLossMessage;
 import io.github.dsheirer.module.decode.DecoderType;
@@ -118,6 +119,10 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
+        DecoderBufferEvent event = new DecoderBufferEvent();
+        event.begin();
+        event.bufferSize = reusableComplexBuffer.getSampleCount();
+
         //User accounting of the incoming buffer is handled by the filter
         ReusableComplexBuffer basebandFiltered = filter(reusableComplexBuffer);
 
@@ -131,6 +136,14 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
 
         //User accounting of the filtered buffer is handled by the demodulator
         mQPSKDemodulator.receive(gainApplied);
+
+        if(event.shouldCommit())
+        {
+            event.decoder = getDecoderType().name();
+            event.channel = getChannelName();
+            event.frequency = getChannelFrequency();
+            event.commit();
+        }
     }
 
     /**
@@ -199,6 +212,9 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
                 //Reset the PLL if/when the tuner PPM changes so that we can re-lock
                 mCostasLoop.reset();
                 break;
+            case NOTIFICATION_FREQUENCY_CHANGE:
+                setChannelFrequency(sourceEvent.getValue().longValue());
+                break;
         }
     }
 
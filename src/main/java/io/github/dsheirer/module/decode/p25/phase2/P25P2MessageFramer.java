@@ -23,8 +23,8 @@ import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
+import io.github.dsheirer.dsp.symbol.PackedDibitBuffer;
 import io.github.dsheirer.log.ApplicationLog;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.MessageProviderModule;
@@ -54,7 +54,7 @@ import java.util.function.Consumer;
  * P25 Sync Detector and Message Framer.  Includes capability to detect PLL out-of-phase lock errors
  * and issue phase corrections.
  */
-public class P25P2MessageFramer implements Listener<Dibit>
+public class P25P2MessageFramer implements Listener<PackedDibitBuffer>
 {
     private final static Logger mLog = LoggerFactory.getLogger(P25P2MessageFramer.class);
 
@@ -165,12 +165,15 @@ public class P25P2MessageFramer implements Listener<Dibit>
     /**
      * Primary method for streaming decoded symbol dibits for message framing.
      *
-     * @param dibit to process
+     * @param dibits to process
      */
     @Override
-    public void receive(Dibit dibit)
+    public void receive(PackedDibitBuffer dibits)
     {
-        mSuperFrameDetector.receive(dibit);
+        for(int x = 0; x < dibits.size(); x++)
+        {
+            mSuperFrameDetector.receive(dibits.get(x));
+        }
     }
 
     private void reset(int bitsProcessed)
@@ -197,9 +200,9 @@ public class P25P2MessageFramer implements Listener<Dibit>
 
         for(byte value : buffer.getBytes())
         {
-            for(int x = 0; x <= 3; x++)
+            for(int shift = 6; shift >= 0; shift -= 2)
             {
-                receive(Dibit.parse(value, x));
+                mSuperFrameDetector.receive((value >> shift) & 0x3);
             }
         }
 
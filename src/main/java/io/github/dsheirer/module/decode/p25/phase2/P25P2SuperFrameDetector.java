@@ -23,7 +23,7 @@ package io.github.dsheirer.module.decode.p25.phase2;
 
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
-import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.DibitDelayBuffer;
 import io.github.dsheirer.dsp.symbol.ISyncDetectListener;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.SyncLossMessage;
@@ -48,7 +48,7 @@ import java.util.List;
  * dibit buffer to detect sync patterns and correctly frame a 1440-bit super-frame fragment
  * containing 4 timeslots and surrounding ISCH messaging.
  */
-public class P25P2SuperFrameDetector implements Listener<Dibit>, ISyncDetectListener
+public class P25P2SuperFrameDetector implements ISyncDetectListener
 {
     private final static Logger mLog = LoggerFactory.getLogger(P25P2SuperFrameDetector.class);
 
@@ -137,8 +137,10 @@ public class P25P2SuperFrameDetector implements Listener<Dibit>, ISyncDetectList
         return System.currentTimeMillis();
     }
 
-    @Override
-    public void receive(Dibit dibit)
+    /**
+     * Processes the dibit value (0 - 3)
+     */
+    public void receive(int dibit)
     {
         mDibitsProcessed++;
 
@@ -156,8 +158,7 @@ public class P25P2SuperFrameDetector implements Listener<Dibit>, ISyncDetectList
         else
         {
             //Only feed the sync pattern detector if we're not synchronized
-            Dibit delayed = mSyncDetectionDelayBuffer.getAndPut(dibit);
-            mSyncDetector.receive(delayed);
+            mSyncDetector.receive(mSyncDetectionDelayBuffer.getAndPut(dibit));
         }
 
         //Broadcast sync loss message once a second (3000 dibits/6000 bits) when we're not synchronized
@@ -242,13 +243,13 @@ public class P25P2SuperFrameDetector implements Listener<Dibit>, ISyncDetectList
             if(mSynchronized)
             {
                 //If we're synchronized, then this is a counter based trigger and we check both sync locations
-                Dibit[] sync1Dibits = mFragmentBuffer.getBuffer(DIBIT_DELAY_BUFFER_INDEX_SYNC_1, 20);
-                int sync1BitErrorCount = P25P2SyncPattern.getBitErrorCount(sync1Dibits);
+                int sync1BitErrorCount = P25P2SyncPattern.getBitErrorCount(
+                    mFragmentBuffer.getBits(DIBIT_DELAY_BUFFER_INDEX_SYNC_1, 20));
 
                 if(sync1BitErrorCount <= SYNCHRONIZED_SYNC_MATCH_THRESHOLD)
                 {
-                    Dibit[] sync2Dibits = mFragmentBuffer.getBuffer(DIBIT_DELAY_BUFFER_INDEX_SYNC_2, 20);
-                    int sync2BitErrorCount = P25P2SyncPattern.getBitErrorCount(sync2Dibits);
+                    int sync2BitErrorCount = P25P2SyncPattern.getBitErrorCount(
+                        mFragmentBuffer.getBits(DIBIT_DELAY_BUFFER_INDEX_SYNC_2, 20));
 
                     if(sync2BitErrorCount <= SYNCHRONIZED_SYNC_MATCH_THRESHOLD)
                     {
@@ -271,8 +272,8 @@ public class P25P2SuperFrameDetector implements Listener<Dibit>, ISyncDetectList
 
             //If we're not synchronized, this is a sync detector trigger and we only have to check sync 1 for error
             // count because the sync detector has already triggered on sync 2
-            Dibit[] sync1Dibits = mFragmentBuffer.getBuffer(DIBIT_DELAY_BUFFER_INDEX_SYNC_1, 20);
-            int sync1BitErrorCount = P25P2SyncPattern.getBitErrorCount(sync1Dibits);
+            int sync1BitErrorCount = P25P2SyncPattern.getBitErrorCount(
+                mFragmentBuffer.getBits(DIBIT_DELAY_BUFFER_INDEX_SYNC_1, 20));
 
             if(sync1BitErrorCount <= UN_SYNCHRONIZED_SYNC_MATCH_THRESHOLD)
             {
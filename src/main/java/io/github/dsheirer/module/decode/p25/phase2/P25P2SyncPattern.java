@@ -22,43 +22,20 @@
 
 package io.github.dsheirer.module.decode.p25.phase2;
 
-import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.FrameSync;
 
 public class P25P2SyncPattern
 {
-    private static final Dibit[] SYNC_PATTERN = {
-        Dibit.D01_PLUS_3,Dibit.D01_PLUS_3,Dibit.D01_PLUS_3,Dibit.D11_MINUS_3,
-        Dibit.D01_PLUS_3,Dibit.D01_PLUS_3,Dibit.D11_MINUS_3,Dibit.D01_PLUS_3,
-        Dibit.D01_PLUS_3,Dibit.D01_PLUS_3,Dibit.D01_PLUS_3,Dibit.D11_MINUS_3,
-        Dibit.D11_MINUS_3,Dibit.D11_MINUS_3,Dibit.D01_PLUS_3,Dibit.D11_MINUS_3,
-        Dibit.D11_MINUS_3,Dibit.D11_MINUS_3,Dibit.D11_MINUS_3,Dibit.D11_MINUS_3};
-
-    public static int getBitErrorCount(Dibit[] dibits)
+    private static final long SYNC_PATTERN = FrameSync.P25_PHASE2_NORMAL.getSync();
+    private static final long SYNC_MASK = 0xFFFFFFFFFFl;
+
+    /**
+     * Calculates the number of bit errors between the 40-bit (20 dibit) sync value and the sync pattern
+     * @param value containing 20 dibits (40 bits) right-aligned
+     * @return bit error count
+     */
+    public static int getBitErrorCount(long value)
     {
-        if(dibits.length != 20)
-        {
-            throw new IllegalArgumentException("Sync pattern dibit array must be 20 dibits (40 bits) long");
-        }
-
-        int bitErrorCount = 0;
-
-        for(int x = 0; x < 20; x++)
-        {
-            if(SYNC_PATTERN[x] != dibits[x])
-            {
-                int errorMask = SYNC_PATTERN[x].getLowValue() ^ dibits[x].getLowValue();
-
-                if(errorMask == 3)
-                {
-                    bitErrorCount += 2;
-                }
-                else
-                {
-                    bitErrorCount++;
-                }
-            }
-        }
-
-        return bitErrorCount;
+        return Long.bitCount((value ^ SYNC_PATTERN) & SYNC_MASK);
     }
 }
@@ -93,6 +93,25 @@ public class InterSlotSignallingChannel
         mValid = (getMessage().getCorrectedBitCount() < 9) && (getTimeslot() == expectedTimeslot);
     }
 
+    /**
+     * Lookup the transmitted 40-bit codeword for a 9-bit ISCH-I message value.
+     *
+     * @param value of the 9-bit message where the reserved bits and the channel number MSB are zero (0 - 127)
+     * @return codeword with the first transmitted bit in bit position 39
+     */
+    public static long getCodeword(int value)
+    {
+        for(Map.Entry<Long,BinaryMessage> entry: sCodewordMap.entrySet())
+        {
+            if(entry.getValue().getInt(0, 8) == value)
+            {
+                return entry.getKey();
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported ISCH-I message value: " + value);
+    }
+
     /**
      * Decodes the 40-bit message codeword into an error-corrected 9-bit message
      * @param message containing 40 bit codeword
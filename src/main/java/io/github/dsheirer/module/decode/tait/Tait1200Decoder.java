@@ -23,6 +23,7 @@ import io.github.dsheirer.bits.IBinarySymbolProcessor;
 import io.github.dsheirer.bits.MessageFramer;
 import io.github.dsheirer.bits.SyncPattern;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
+import io.github.dsheirer.dsp.afsk.SharedAFSK1200Decoder;
 import io.github.dsheirer.module.decode.DecoderType;
 import io.github.dsheirer.module.decode.afsk.AbstractAFSKDecoder;
 
@@ -50,9 +51,20 @@ public class Tait1200Decoder extends AbstractAFSKDecoder implements IBinarySymbo
         init();
     }
 
+    /**
+     * Constructs a decoder that receives symbols from the shared AFSK 1200 decoder.
+     *
+     * @param sharedDecoder that is shared with other AFSK decoders processing the same channel
+     */
+    public Tait1200Decoder(SharedAFSK1200Decoder sharedDecoder)
+    {
+        super(sharedDecoder, AFSK1200Decoder.Output.NORMAL);
+        init();
+    }
+
     private void init()
     {
-        getDecoder().setSymbolProcessor(this);
+        setSymbolProcessor(this);
 
         mMessageFramerGPS = new MessageFramer(SyncPattern.TAIT_CCDI_GPS_MESSAGE.getPattern(), MESSAGE_LENGTH);
         mMessageFramerANI = new MessageFramer(SyncPattern.TAIT_SELCAL_MESSAGE.getPattern(), MESSAGE_LENGTH);
@@ -19,11 +19,26 @@
 
 package io.github.dsheirer.module.decode.traffic;
 
+import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.module.Module;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Traffic Channel Manager base class
  */
 public abstract class TrafficChannelManager extends Module
 {
+    /**
+     * Traffic channel configurations that are managed by this traffic channel manager.  Managed traffic channels are
+     * reused for each traffic channel allocation, which allows the channel processing manager to pool the stopped
+     * processing chains for these channels.
+     *
+     * @return managed traffic channels or an empty list if this manager doesn't reuse traffic channels.
+     */
+    public List<Channel> getManagedTrafficChannels()
+    {
+        return Collections.emptyList();
+    }
 }
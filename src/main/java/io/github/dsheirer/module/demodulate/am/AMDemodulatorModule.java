@@ -23,7 +23,7 @@ import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
 import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
 import io.github.dsheirer.dsp.filter.fir.real.RealFIRFilter2;
-import io.github.dsheirer.dsp.filter.resample.RealResampler;
+import io.github.dsheirer.dsp.filter.resample.PolyphaseResampler;
 import io.github.dsheirer.dsp.gain.AutomaticGainControl;
 import io.github.dsheirer.module.Module;
 import io.github.dsheirer.sample.Listener;
@@ -54,7 +54,7 @@ public class AMDemodulatorModule extends Module implements ISourceEventListener,
     private AutomaticGainControl mAGC = new AutomaticGainControl();
     private double mChannelBandwidth;
     private double mOutputSampleRate;
-    private RealResampler mResampler;
+    private PolyphaseResampler mResampler;
     private Listener<ReusableFloatBuffer> mResampledReusableBufferListener;
     private SourceEventProcessor mSourceEventProcessor = new SourceEventProcessor();
 
@@ -232,7 +232,7 @@ public class AMDemodulatorModule extends Module implements ISourceEventListener,
 
                 mIQFilter = new ComplexFIRFilter2(filterTaps);
 
-                mResampler = new RealResampler(sampleRate, mOutputSampleRate, 2000, 1000);
+                mResampler = new PolyphaseResampler(sampleRate, mOutputSampleRate, 1000);
 
                 mResampler.setListener(new Listener<ReusableFloatBuffer>()
                 {
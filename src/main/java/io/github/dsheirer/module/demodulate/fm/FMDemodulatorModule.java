@@ -20,7 +20,7 @@ import io.github.dsheirer.dsp.filter.Window;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
 import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
-import io.github.dsheirer.dsp.filter.resample.RealResampler;
+import io.github.dsheirer.dsp.filter.resample.PolyphaseResampler;
 import io.github.dsheirer.dsp.fm.FMDemodulator;
 import io.github.dsheirer.dsp.squelch.PowerMonitor;
 import io.github.dsheirer.module.Module;
@@ -48,7 +48,7 @@ public class FMDemodulatorModule extends Module implements ISourceEventListener,
     private ComplexFIRFilter2 mIQFilter;
     private FMDemodulator mDemodulator = new FMDemodulator();
     private PowerMonitor mPowerMonitor = new PowerMonitor();
-    private RealResampler mResampler;
+    private PolyphaseResampler mResampler;
     private SourceEventProcessor mSourceEventProcessor = new SourceEventProcessor();
     private Listener<ReusableFloatBuffer> mResampledReusableBufferListener;
     private double mChannelBandwidth;
@@ -220,7 +220,7 @@ public class FMDemodulatorModule extends Module implements ISourceEventListener,
 
                 mIQFilter = new ComplexFIRFilter2(filterTaps);
 
-                mResampler = new RealResampler(sampleRate, mOutputSampleRate, 2000, 1000);
+                mResampler = new PolyphaseResampler(sampleRate, mOutputSampleRate, 1000);
 
                 mResampler.setListener(new Listener<ReusableFloatBuffer>()
                 {
@@ -29,6 +29,7 @@ import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import io.github.dsheirer.alias.Alias;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.audio.broadcast.BroadcastModel;
+import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.controller.channel.Channel.ChannelType;
 import io.github.dsheirer.controller.channel.ChannelEvent;
 import io.github.dsheirer.controller.channel.ChannelModel;
@@ -81,6 +82,7 @@ public class PlaylistManager implements Listener<ChannelEvent>
     private AtomicBoolean mPlaylistSavePending = new AtomicBoolean();
     private ScheduledFuture<?> mPlaylistSaveFuture;
     private boolean mPlaylistLoading = false;
+    private PlaylistWriter mPlaylistWriter = new PlaylistWriter();
 
     /**
      * Playlist manager - manages all channel configurations, channel maps, and alias lists and handles loading or
@@ -113,7 +115,21 @@ public class PlaylistManager implements Listener<ChannelEvent>
         //save the playlist when there are any changes
         mChannelModel.addListener(this);
 
-        mAliasModel.aliasList().addListener((ListChangeListener<Alias>)c -> schedulePlaylistSave());
+        mAliasModel.aliasList().addListener((ListChangeListener<Alias>)c -> {
+            //Invalidate modified aliases so that they are serialized on the next save
+            while(c.next())
+            {
+                if(c.wasUpdated())
+                {
+                    for(int x = c.getFrom(); x < c.getTo(); x++)
+                    {
+                        mPlaylistWriter.invalidate(c.getList().get(x));
+                    }
+                }
+            }
+
+            schedulePlaylistSave();
+        });
 
         mChannelMapModel.getChannelMaps().addListener((ListChangeListener<ChannelMap>)c -> schedulePlaylistSave());
 
@@ -337,6 +353,7 @@ public class PlaylistManager implements Listener<ChannelEvent>
         if(playlist != null)
         {
             clearModels();
+            mPlaylistWriter.clear();
 
             mPlaylistLoading = true;
 
@@ -366,8 +383,11 @@ public class PlaylistManager implements Listener<ChannelEvent>
         {
             switch(event.getEvent())
             {
-                case NOTIFICATION_ADD:
                 case NOTIFICATION_CONFIGURATION_CHANGE:
+                    mPlaylistWriter.invalidate(event.getChannel());
+                    schedulePlaylistSave();
+                    break;
+                case NOTIFICATION_ADD:
                 case NOTIFICATION_DELETE:
                     schedulePlaylistSave();
                     break;
@@ -378,7 +398,7 @@ public class PlaylistManager implements Listener<ChannelEvent>
     /**
      * Saves the current playlist
      */
-    private void save()
+    private synchronized void save()
     {
         PlaylistPreference playlistPreference = mUserPreferences.getPlaylistPreference();
 
@@ -419,14 +439,10 @@ public class PlaylistManager implements Listener<ChannelEvent>
             }
         }
 
-        try(OutputStream out = Files.newOutputStream(playlistPreference.getPlaylist()))
+        try
         {
-            JacksonXmlModule xmlModule = new JacksonXmlModule();
-            xmlModule.setDefaultUseWrapper(false);
-            ObjectMapper objectMapper = new XmlMapper(xmlModule);
-            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-            objectMapper.writeValue(out, playlist);
-            out.flush();
+            //Writes the XML file, serializing only modified aliases and channels, and then the playlist snapshot
+            mPlaylistWriter.write(playlist, playlistPreference.getPlaylist(), playlistPreference.getPlaylistSnapshot());
 
             //Remove the playlist lock file to indicate that we successfully saved the file
             if(Files.exists(playlistPreference.getPlaylistLock()))
@@ -479,7 +495,17 @@ public class PlaylistManager implements Listener<ChannelEvent>
             }
         }
 
-        if(Files.exists(files.getPlaylist()))
+        if(Files.exists(files.getPlaylist()) &&
+            (playlist = PlaylistSnapshot.read(files.getPlaylistSnapshot(), files.getPlaylist())) != null)
+        {
+            mLog.info("Loaded playlist [" + files.getPlaylist().toString() + "] from snapshot");
+
+            if(PlaylistUpdater.update(playlist))
+            {
+                schedulePlaylistSave();
+            }
+        }
+        else if(Files.exists(files.getPlaylist()))
         {
             mLog.info("Loading playlist [" + files.getPlaylist().toString() + "]");
 
@@ -492,10 +518,9 @@ public class PlaylistManager implements Listener<ChannelEvent>
             {
                 playlist = objectMapper.readValue(in, PlaylistV2.class);
 
-                if(PlaylistUpdater.update(playlist))
-                {
-                    schedulePlaylistSave();
-                }
+                //Save to update the playlist and/or create the playlist snapshot for a faster startup next time
+                PlaylistUpdater.update(playlist);
+                schedulePlaylistSave();
             }
             catch(IOException ioe)
             {
@@ -557,17 +582,28 @@ public class PlaylistManager implements Listener<ChannelEvent>
     }
 
     /**
-     * Resets the playlist save pending flag to false and proceeds to save the playlist.
+     * Schedules a playlist save for a channel whose configuration was modified without a channel configuration change
+     * notification, so that the channel is serialized on the next save.
+     */
+    public void schedulePlaylistSave(Channel channel)
+    {
+        mPlaylistWriter.invalidate(channel);
+        schedulePlaylistSave();
+    }
+
+    /**
+     * Resets the playlist save pending flag to false and proceeds to save the playlist.  The flag is reset before the
+     * save so that any changes made while the playlist is being saved schedule a subsequent save.
      */
     public class PlaylistSaveTask implements Runnable
     {
         @Override
         public void run()
         {
-            save();
-
             mPlaylistSaveFuture = null;
             mPlaylistSavePending.set(false);
+
+            save();
         }
     }
 }
@@ -0,0 +1,261 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlAnnotationIntrospector;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.map.ChannelMap;
+import io.github.dsheirer.properties.SystemProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Versioned binary snapshot of a parsed playlist.  The snapshot is written each time the playlist XML file is saved
+ * and is read on startup so that the playlist can be loaded without parsing the XML document.
+ *
+ * The snapshot header records the snapshot format version, the playlist version, the application version and the
+ * size and last modified timestamp of the playlist XML file that it was written with.  A snapshot that doesn't match
+ * the current playlist XML file is stale and the playlist is loaded from the XML file instead.
+ *
+ * Each playlist element is stored as a length-prefixed record containing the element serialized as JSON using the
+ * same Jackson XML annotations (property names and type identifiers) as the playlist XML file.
+ */
+public class PlaylistSnapshot
+{
+    private final static Logger mLog = LoggerFactory.getLogger(PlaylistSnapshot.class);
+    private static final int MAGIC = 0x5344504C; //SDPL
+    private static final int FORMAT_VERSION = 1;
+
+    public static final byte RECORD_ALIAS = 1;
+    public static final byte RECORD_CHANNEL = 2;
+    public static final byte RECORD_CHANNEL_MAP = 3;
+    public static final byte RECORD_STREAM = 4;
+
+    /**
+     * Creates the object mapper used to serialize snapshot records
+     */
+    public static ObjectMapper createObjectMapper()
+    {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setAnnotationIntrospector(new JacksonXmlAnnotationIntrospector(false));
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return objectMapper;
+    }
+
+    /**
+     * Reads the playlist from the snapshot file.
+     *
+     * @param snapshot file path
+     * @param playlist XML file path that the snapshot must match
+     * @return playlist or null if the snapshot doesn't exist, is stale, or can't be read
+     */
+    public static PlaylistV2 read(Path snapshot, Path playlist)
+    {
+        if(snapshot == null || !Files.exists(snapshot) || !Files.exists(playlist))
+        {
+            return null;
+        }
+
+        try
+        {
+            //Read into a heap buffer so that the snapshot file isn't held open or mapped once it's loaded
+            byte[] bytes = Files.readAllBytes(snapshot);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+            if(buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION ||
+               buffer.getInt() != PlaylistManager.PLAYLIST_CURRENT_VERSION ||
+               !getApplicationName().equals(readString(buffer)) ||
+               buffer.getLong() != Files.size(playlist) ||
+               buffer.getLong() != Files.getLastModifiedTime(playlist).toMillis())
+            {
+                mLog.info("Playlist snapshot is stale - loading playlist XML");
+                return null;
+            }
+
+            ObjectMapper objectMapper = createObjectMapper();
+            ObjectReader aliasReader = objectMapper.readerFor(Alias.class);
+            ObjectReader channelReader = objectMapper.readerFor(Channel.class);
+            ObjectReader channelMapReader = objectMapper.readerFor(ChannelMap.class);
+            ObjectReader streamReader = objectMapper.readerFor(BroadcastConfiguration.class);
+
+            PlaylistV2 playlistV2 = new PlaylistV2();
+            int count = buffer.getInt();
+
+            for(int x = 0; x < count; x++)
+            {
+                byte type = buffer.get();
+                int length = buffer.getInt();
+                int offset = buffer.position();
+
+                if(length < 0 || length > buffer.remaining())
+                {
+                    mLog.warn("Truncated playlist snapshot record - loading playlist XML");
+                    return null;
+                }
+
+                buffer.position(offset + length);
+
+                switch(type)
+                {
+                    case RECORD_ALIAS:
+                        playlistV2.getAliases().add(aliasReader.readValue(bytes, offset, length));
+                        break;
+                    case RECORD_CHANNEL:
+                        playlistV2.getChannels().add(channelReader.readValue(bytes, offset, length));
+                        break;
+                    case RECORD_CHANNEL_MAP:
+                        playlistV2.getChannelMaps().add(channelMapReader.readValue(bytes, offset, length));
+                        break;
+                    case RECORD_STREAM:
+                        playlistV2.getBroadcastConfigurations().add(streamReader.readValue(bytes, offset, length));
+                        break;
+                    default:
+                        mLog.warn("Unrecognized playlist snapshot record type [" + type + "] - loading playlist XML");
+                        return null;
+                }
+            }
+
+            return playlistV2;
+        }
+        catch(Exception e)
+        {
+            mLog.warn("Unable to read playlist snapshot - loading playlist XML", e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Writes the snapshot records to a temporary file and then replaces the snapshot file.  The playlist XML file must
+     * be completely written before the snapshot is written.
+     *
+     * @param snapshot file path
+     * @param playlist XML file path
+     * @param records to write
+     * @throws IOException if there is an error
+     */
+    public static void write(Path snapshot, Path playlist, List<Record> records) throws IOException
+    {
+        Path temp = Paths.get(snapshot.toString() + ".tmp");
+
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(PlaylistManager.PLAYLIST_CURRENT_VERSION);
+            byte[] application = getApplicationName().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(application.length);
+            out.write(application);
+            out.writeLong(Files.size(playlist));
+            out.writeLong(Files.getLastModifiedTime(playlist).toMillis());
+            out.writeInt(records.size());
+
+            for(Record record: records)
+            {
+                out.writeByte(record.getType());
+                out.writeInt(record.getBytes().length);
+                out.write(record.getBytes());
+            }
+        }
+
+        try
+        {
+            try
+            {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch(AtomicMoveNotSupportedException amnse)
+            {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.info("Unable to replace playlist snapshot [" + snapshot + "] - " + ioe.getMessage());
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Application name and version.  Snapshots are discarded when the application version changes.
+     */
+    private static String getApplicationName()
+    {
+        return SystemProperties.getInstance().getApplicationName();
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string
+     */
+    private static String readString(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+
+        if(length < 0 || length > buffer.remaining())
+        {
+            return "";
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serialized playlist element
+     */
+    public static class Record
+    {
+        private byte mType;
+        private byte[] mBytes;
+
+        public Record(byte type, byte[] bytes)
+        {
+            mType = type;
+            mBytes = bytes;
+        }
+
+        public byte getType()
+        {
+            return mType;
+        }
+
+        public byte[] getBytes()
+        {
+            return mBytes;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlModule;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.map.ChannelMap;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the playlist XML file and the binary playlist snapshot.
+ *
+ * The XML and snapshot serialized forms of each alias and channel are cached between saves, so that a save only
+ * serializes the aliases and channels that were invalidated (modified) or added since the previous save.  The
+ * playlist XML document is then assembled from the cached alias and channel elements.  Channel maps and streaming
+ * configurations are few in number and are serialized on each save.
+ *
+ * Invalidation is thread safe and can be invoked while a save is in progress.
+ */
+public class PlaylistWriter
+{
+    private static final byte[] INDENT = "  ".getBytes(StandardCharsets.UTF_8);
+
+    private ObjectWriter mAliasXmlWriter;
+    private ObjectWriter mChannelXmlWriter;
+    private ObjectWriter mChannelMapXmlWriter;
+    private ObjectWriter mStreamXmlWriter;
+    private ObjectWriter mAliasSnapshotWriter;
+    private ObjectWriter mChannelSnapshotWriter;
+    private ObjectWriter mChannelMapSnapshotWriter;
+    private ObjectWriter mStreamSnapshotWriter;
+
+    private final Object mCacheLock = new Object();
+    private Map<Object,SerializedElement> mCache = new IdentityHashMap<>();
+    private Set<Object> mInvalidated = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Constructs an instance
+     */
+    public PlaylistWriter()
+    {
+        JacksonXmlModule xmlModule = new JacksonXmlModule();
+        xmlModule.setDefaultUseWrapper(false);
+        ObjectMapper xmlMapper = new XmlMapper(xmlModule);
+        xmlMapper.enable(SerializationFeature.INDENT_OUTPUT);
+
+        mAliasXmlWriter = xmlMapper.writerFor(Alias.class).withRootName("alias");
+        mChannelXmlWriter = xmlMapper.writerFor(Channel.class).withRootName("channel");
+        mChannelMapXmlWriter = xmlMapper.writerFor(ChannelMap.class).withRootName("channel_map");
+        mStreamXmlWriter = xmlMapper.writerFor(BroadcastConfiguration.class).withRootName("stream");
+
+        ObjectMapper snapshotMapper = PlaylistSnapshot.createObjectMapper();
+        mAliasSnapshotWriter = snapshotMapper.writerFor(Alias.class);
+        mChannelSnapshotWriter = snapshotMapper.writerFor(Channel.class);
+        mChannelMapSnapshotWriter = snapshotMapper.writerFor(ChannelMap.class);
+        mStreamSnapshotWriter = snapshotMapper.writerFor(BroadcastConfiguration.class);
+    }
+
+    /**
+     * Invalidates the cached serialized form of the alias or channel so that it is serialized on the next save.
+     * @param element that was modified
+     */
+    public void invalidate(Object element)
+    {
+        synchronized(mCacheLock)
+        {
+            mCache.remove(element);
+            mInvalidated.add(element);
+        }
+    }
+
+    /**
+     * Clears all cached serialized elements.
+     */
+    public void clear()
+    {
+        synchronized(mCacheLock)
+        {
+            mCache.clear();
+        }
+    }
+
+    /**
+     * Writes the playlist XML file followed by the playlist snapshot file.
+     *
+     * @param playlist to write
+     * @param playlistPath for the XML file
+     * @param snapshotPath for the binary snapshot file
+     * @throws IOException if there is an error while writing the XML file
+     */
+    public void write(PlaylistV2 playlist, Path playlistPath, Path snapshotPath) throws IOException
+    {
+        synchronized(mCacheLock)
+        {
+            mInvalidated.clear();
+        }
+
+        Map<Object,SerializedElement> cache = new IdentityHashMap<>();
+        List<PlaylistSnapshot.Record> records = new ArrayList<>();
+
+        try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(playlistPath)))
+        {
+            out.write(("<playlist version=\"" + playlist.getVersion() + "\">\n").getBytes(StandardCharsets.UTF_8));
+
+            for(Alias alias: playlist.getAliases())
+            {
+                SerializedElement element = getCached(alias);
+
+                if(element == null)
+                {
+                    element = new SerializedElement(toXml(mAliasXmlWriter, alias),
+                        mAliasSnapshotWriter.writeValueAsBytes(alias));
+                }
+
+                cache.put(alias, element);
+                out.write(element.getXml());
+                records.add(new PlaylistSnapshot.Record(PlaylistSnapshot.RECORD_ALIAS, element.getSnapshot()));
+            }
+
+            for(Channel channel: playlist.getChannels())
+            {
+                SerializedElement element = getCached(channel);
+
+                if(element == null)
+                {
+                    element = new SerializedElement(toXml(mChannelXmlWriter, channel),
+                        mChannelSnapshotWriter.writeValueAsBytes(channel));
+                }
+
+                cache.put(channel, element);
+                out.write(element.getXml());
+                records.add(new PlaylistSnapshot.Record(PlaylistSnapshot.RECORD_CHANNEL, element.getSnapshot()));
+            }
+
+            for(ChannelMap channelMap: playlist.getChannelMaps())
+            {
+                out.write(toXml(mChannelMapXmlWriter, channelMap));
+                records.add(new PlaylistSnapshot.Record(PlaylistSnapshot.RECORD_CHANNEL_MAP,
+                    mChannelMapSnapshotWriter.writeValueAsBytes(channelMap)));
+            }
+
+            for(BroadcastConfiguration configuration: playlist.getBroadcastConfigurations())
+            {
+                out.write(toXml(mStreamXmlWriter, configuration));
+                records.add(new PlaylistSnapshot.Record(PlaylistSnapshot.RECORD_STREAM,
+                    mStreamSnapshotWriter.writeValueAsBytes(configuration)));
+            }
+
+            out.write("</playlist>\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        //Retain serialized elements for the current aliases and channels, except any modified during this save
+        synchronized(mCacheLock)
+        {
+            for(Object invalidated: mInvalidated)
+            {
+                cache.remove(invalidated);
+            }
+
+            mInvalidated.clear();
+            mCache = cache;
+        }
+
+        PlaylistSnapshot.write(snapshotPath, playlistPath, records);
+    }
+
+    /**
+     * Cached serialized element or null
+     */
+    private SerializedElement getCached(Object element)
+    {
+        synchronized(mCacheLock)
+        {
+            return mCache.get(element);
+        }
+    }
+
+    /**
+     * Serializes the element to XML, indented as a child of the playlist element.
+     */
+    private static byte[] toXml(ObjectWriter writer, Object element) throws IOException
+    {
+        byte[] xml = writer.writeValueAsBytes(element);
+        int length = xml.length;
+
+        //Trim trailing whitespace so that each element ends with a single line terminator
+        while(length > 0 && Character.isWhitespace(xml[length - 1]))
+        {
+            length--;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length + 256);
+        out.write(INDENT, 0, INDENT.length);
+
+        for(int x = 0; x < length; x++)
+        {
+            out.write(xml[x]);
+
+            if(xml[x] == '\n')
+            {
+                out.write(INDENT, 0, INDENT.length);
+            }
+        }
+
+        out.write('\n');
+        return out.toByteArray();
+    }
+
+    /**
+     * XML and snapshot serialized forms of a playlist element
+     */
+    private static class SerializedElement
+    {
+        private byte[] mXml;
+        private byte[] mSnapshot;
+
+        public SerializedElement(byte[] xml, byte[] snapshot)
+        {
+            mXml = xml;
+            mSnapshot = snapshot;
+        }
+
+        public byte[] getXml()
+        {
+            return mXml;
+        }
+
+        public byte[] getSnapshot()
+        {
+            return mSnapshot;
+        }
+    }
+}
@@ -41,6 +41,7 @@ public class DirectoryPreference extends Preference
 
     private static final String DIRECTORY_APPLICATION_ROOT = "SDRTrunk";
     private static final String DIRECTORY_APPLICATION_LOG = "logs";
+    private static final String DIRECTORY_ARCHIVE = "archive";
     private static final String DIRECTORY_EVENT_LOG = "event_logs";
     private static final String DIRECTORY_JMBE = "jmbe";
     private static final String DIRECTORY_PLAYLIST = "playlist";
@@ -50,6 +51,7 @@ public class DirectoryPreference extends Preference
 
     private static final String PREFERENCE_KEY_DIRECTORY_APPLICATION_ROOT = "directory.application.root";
     private static final String PREFERENCE_KEY_DIRECTORY_APPLICATION_LOGS = "directory.application.logs";
+    private static final String PREFERENCE_KEY_DIRECTORY_ARCHIVE = "directory.archive";
     private static final String PREFERENCE_KEY_DIRECTORY_EVENT_LOGS = "directory.event.logs";
     private static final String PREFERENCE_KEY_DIRECTORY_JMBE = "directory.jmbe";
     private static final String PREFERENCE_KEY_DIRECTORY_PLAYLIST = "directory.playlist";
@@ -65,6 +67,7 @@ public class DirectoryPreference extends Preference
     private Path mDirectoryRecording;
     private Path mDirectoryScreenCapture;
     private Path mDirectoryStreaming;
+    private Path mDirectoryArchive;
 
     /**
      * Constructs this preference with an update listener
@@ -123,6 +126,7 @@ public class DirectoryPreference extends Preference
         mDirectoryRecording = null;
         mDirectoryScreenCapture = null;
         mDirectoryStreaming = null;
+        mDirectoryArchive = null;
     }
 
     /**
@@ -378,6 +382,40 @@ public class DirectoryPreference extends Preference
         notifyPreferenceUpdated();
     }
 
+    /**
+     * Path to the folder for storing the call audio and decode event archive
+     */
+    public Path getDirectoryArchive()
+    {
+        if(mDirectoryArchive == null)
+        {
+            mDirectoryArchive = getPath(PREFERENCE_KEY_DIRECTORY_ARCHIVE, getDefaultArchiveDirectory());
+            createDirectory(mDirectoryArchive);
+        }
+
+        return mDirectoryArchive;
+    }
+
+    /**
+     * Sets the path to the archive folder
+     */
+    public void setDirectoryArchive(Path path)
+    {
+        mDirectoryArchive = path;
+        mPreferences.put(PREFERENCE_KEY_DIRECTORY_ARCHIVE, path.toString());
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Removes a stored archive directory preference so that the default path can be used again
+     */
+    public void resetDirectoryArchive()
+    {
+        mPreferences.remove(PREFERENCE_KEY_DIRECTORY_ARCHIVE);
+        mDirectoryArchive = null;
+        notifyPreferenceUpdated();
+    }
+
     /**
      * Default application root directory
      */
@@ -394,6 +432,14 @@ public class DirectoryPreference extends Preference
         return getDirectoryApplicationRoot().resolve(DIRECTORY_APPLICATION_LOG);
     }
 
+    /**
+     * Default archive directory
+     */
+    public Path getDefaultArchiveDirectory()
+    {
+        return getDirectoryApplicationRoot().resolve(DIRECTORY_ARCHIVE);
+    }
+
     /**
      * Default event logs directory
      */
@@ -109,6 +109,15 @@ public class PlaylistPreference extends Preference
         return Paths.get(playlist + ".backup");
     }
 
+    /**
+     * Binary snapshot of the parsed playlist for fast startup loading.
+     */
+    public Path getPlaylistSnapshot()
+    {
+        String playlist = getPlaylist().toString();
+        return Paths.get(playlist + ".snapshot");
+    }
+
     /**
      * Sets the path to the playlist
      */
@@ -21,6 +21,7 @@ package io.github.dsheirer.preference.record;
 
 import io.github.dsheirer.preference.Preference;
 import io.github.dsheirer.preference.PreferenceType;
+import io.github.dsheirer.record.BasebandRecordFormat;
 import io.github.dsheirer.record.RecordFormat;
 import io.github.dsheirer.sample.Listener;
 import org.slf4j.Logger;
@@ -35,9 +36,22 @@ public class RecordPreference extends Preference
 {
     private static final String PREFERENCE_KEY_AUDIO_RECORD_FORMAT = "audio.record.format";
     private static final RecordFormat DEFAULT_RECORD_FORMAT = RecordFormat.MP3;
+    private static final String PREFERENCE_KEY_BASEBAND_RECORD_FORMAT = "baseband.record.format";
+    private static final BasebandRecordFormat DEFAULT_BASEBAND_RECORD_FORMAT = BasebandRecordFormat.WAVE;
+    private static final String PREFERENCE_KEY_BASEBAND_COMPRESSION = "baseband.record.compression";
+    private static final String PREFERENCE_KEY_ARCHIVE_ENABLED = "archive.enabled";
+    private static final String PREFERENCE_KEY_ARCHIVE_RETENTION_DAYS = "archive.retention.days";
+    private static final String PREFERENCE_KEY_ARCHIVE_SEGMENT_SIZE_MB = "archive.segment.size.mb";
+    public static final int DEFAULT_ARCHIVE_RETENTION_DAYS = 30;
+    public static final int DEFAULT_ARCHIVE_SEGMENT_SIZE_MB = 64;
     private final static Logger mLog = LoggerFactory.getLogger(RecordPreference.class);
     private Preferences mPreferences = Preferences.userNodeForPackage(RecordPreference.class);
     private RecordFormat mAudioRecordFormat;
+    private BasebandRecordFormat mBasebandRecordFormat;
+    private Boolean mBasebandCompression;
+    private Boolean mArchiveEnabled;
+    private Integer mArchiveRetentionDays;
+    private Integer mArchiveSegmentSizeMB;
 
     /**
      * Constructs this preference with an update listener
@@ -90,4 +104,135 @@ public class RecordPreference extends Preference
         mPreferences.put(PREFERENCE_KEY_AUDIO_RECORD_FORMAT, audioRecordFormat.name());
         notifyPreferenceUpdated();
     }
+
+    /**
+     * Baseband I/Q recording format
+     */
+    public BasebandRecordFormat getBasebandRecordFormat()
+    {
+        if(mBasebandRecordFormat == null)
+        {
+            try
+            {
+                String format = mPreferences.get(PREFERENCE_KEY_BASEBAND_RECORD_FORMAT,
+                    DEFAULT_BASEBAND_RECORD_FORMAT.name());
+                mBasebandRecordFormat = BasebandRecordFormat.valueOf(format);
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error parsing baseband record format preference", e);
+            }
+
+            if(mBasebandRecordFormat == null)
+            {
+                mBasebandRecordFormat = DEFAULT_BASEBAND_RECORD_FORMAT;
+            }
+        }
+
+        return mBasebandRecordFormat;
+    }
+
+    /**
+     * Sets the baseband I/Q recording format
+     */
+    public void setBasebandRecordFormat(BasebandRecordFormat basebandRecordFormat)
+    {
+        mBasebandRecordFormat = basebandRecordFormat;
+        mPreferences.put(PREFERENCE_KEY_BASEBAND_RECORD_FORMAT, basebandRecordFormat.name());
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if baseband recording (.bbr) sample blocks are losslessly compressed.
+     */
+    public boolean isBasebandCompression()
+    {
+        if(mBasebandCompression == null)
+        {
+            mBasebandCompression = mPreferences.getBoolean(PREFERENCE_KEY_BASEBAND_COMPRESSION, true);
+        }
+
+        return mBasebandCompression;
+    }
+
+    /**
+     * Enables or disables lossless compression of baseband recording (.bbr) sample blocks
+     */
+    public void setBasebandCompression(boolean compression)
+    {
+        mBasebandCompression = compression;
+        mPreferences.putBoolean(PREFERENCE_KEY_BASEBAND_COMPRESSION, compression);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if completed call audio and decode events are written to the indexed call archive.
+     */
+    public boolean isArchiveEnabled()
+    {
+        if(mArchiveEnabled == null)
+        {
+            mArchiveEnabled = mPreferences.getBoolean(PREFERENCE_KEY_ARCHIVE_ENABLED, false);
+        }
+
+        return mArchiveEnabled;
+    }
+
+    /**
+     * Enables or disables the indexed call archive
+     */
+    public void setArchiveEnabled(boolean enabled)
+    {
+        mArchiveEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_ARCHIVE_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Number of days to retain call archive segments before the segment is deleted.
+     */
+    public int getArchiveRetentionDays()
+    {
+        if(mArchiveRetentionDays == null)
+        {
+            mArchiveRetentionDays = mPreferences.getInt(PREFERENCE_KEY_ARCHIVE_RETENTION_DAYS,
+                DEFAULT_ARCHIVE_RETENTION_DAYS);
+        }
+
+        return mArchiveRetentionDays;
+    }
+
+    /**
+     * Sets the number of days to retain call archive segments
+     */
+    public void setArchiveRetentionDays(int days)
+    {
+        mArchiveRetentionDays = days;
+        mPreferences.putInt(PREFERENCE_KEY_ARCHIVE_RETENTION_DAYS, days);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Maximum size in megabytes of each call archive segment file.
+     */
+    public int getArchiveSegmentSizeMB()
+    {
+        if(mArchiveSegmentSizeMB == null)
+        {
+            mArchiveSegmentSizeMB = mPreferences.getInt(PREFERENCE_KEY_ARCHIVE_SEGMENT_SIZE_MB,
+                DEFAULT_ARCHIVE_SEGMENT_SIZE_MB);
+        }
+
+        return mArchiveSegmentSizeMB;
+    }
+
+    /**
+     * Sets the maximum size in megabytes of each call archive segment file
+     */
+    public void setArchiveSegmentSizeMB(int size)
+    {
+        mArchiveSegmentSizeMB = size;
+        mPreferences.putInt(PREFERENCE_KEY_ARCHIVE_SEGMENT_SIZE_MB, size);
+        notifyPreferenceUpdated();
+    }
 }
@@ -37,7 +37,12 @@ public class ChannelMultiFrequencyPreference extends Preference
     private Preferences mPreferences = Preferences.userNodeForPackage(ChannelMultiFrequencyPreference.class);
     private static final String PREFERENCE_KEY_ROTATION_DELAY = "rotation.delay";
     private static final long DEFAULT_ROTATION_DELAY = 5000; //5 seconds
+    private static final String PREFERENCE_KEY_ACTIVITY_SCANNER_ENABLED = "activity.scanner.enabled";
+    private static final String PREFERENCE_KEY_ACTIVITY_SCANNER_THRESHOLD = "activity.scanner.threshold";
+    private static final float DEFAULT_ACTIVITY_SCANNER_THRESHOLD = 10.0f; //dB above noise floor
     private Long mRotationDelay;
+    private Boolean mActivityScannerEnabled;
+    private Float mActivityScannerThreshold;
 
     /**
      * Constructs a tuner preference with the update listener
@@ -93,4 +98,55 @@ public class ChannelMultiFrequencyPreference extends Preference
         mRotationDelay = null;
         notifyPreferenceUpdated();
     }
+
+    /**
+     * Indicates if the channel power activity scanner is enabled for multiple frequency conventional channels.
+     */
+    public boolean isActivityScannerEnabled()
+    {
+        if(mActivityScannerEnabled == null)
+        {
+            mActivityScannerEnabled = mPreferences.getBoolean(PREFERENCE_KEY_ACTIVITY_SCANNER_ENABLED, true);
+        }
+
+        return mActivityScannerEnabled;
+    }
+
+    /**
+     * Sets the enabled state of the channel power activity scanner.
+     */
+    public void setActivityScannerEnabled(boolean enabled)
+    {
+        mActivityScannerEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_ACTIVITY_SCANNER_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Activity scanner threshold in dB above the channel noise floor.
+     */
+    public float getActivityScannerThreshold()
+    {
+        if(mActivityScannerThreshold == null)
+        {
+            mActivityScannerThreshold = mPreferences.getFloat(PREFERENCE_KEY_ACTIVITY_SCANNER_THRESHOLD,
+                DEFAULT_ACTIVITY_SCANNER_THRESHOLD);
+        }
+
+        return mActivityScannerThreshold;
+    }
+
+    /**
+     * Sets the activity scanner threshold.
+     * @param threshold in dB above the noise floor (3 - 40)
+     */
+    public void setActivityScannerThreshold(float threshold)
+    {
+        if(3.0f <= threshold && threshold <= 40.0f)
+        {
+            mActivityScannerThreshold = threshold;
+            mPreferences.putFloat(PREFERENCE_KEY_ACTIVITY_SCANNER_THRESHOLD, threshold);
+            notifyPreferenceUpdated();
+        }
+    }
 }
@@ -36,8 +36,16 @@ public class TunerPreference extends Preference
     private final static Logger mLog = LoggerFactory.getLogger(TunerPreference.class);
     private Preferences mPreferences = Preferences.userNodeForPackage(TunerPreference.class);
     private static final String PREFERENCE_KEY_CHANNELIZER_TYPE = "channelizer.type";
+    private static final String PREFERENCE_KEY_HIBERNATION_ENABLED = "channel.hibernation.enabled";
+    private static final String PREFERENCE_KEY_HIBERNATION_DELAY = "channel.hibernation.delay";
+    private static final String PREFERENCE_KEY_HIBERNATION_THRESHOLD = "channel.hibernation.threshold";
+    private static final long DEFAULT_HIBERNATION_DELAY = 30000; //30 seconds
+    private static final float DEFAULT_HIBERNATION_THRESHOLD = 6.0f; //dB above noise floor
 
     private ChannelizerType mChannelizerType;
+    private Boolean mHibernationEnabled;
+    private Long mHibernationDelay;
+    private Float mHibernationThreshold;
 
     /**
      * Constructs a tuner preference with the update listener
@@ -95,4 +103,83 @@ public class TunerPreference extends Preference
         mPreferences.put(PREFERENCE_KEY_CHANNELIZER_TYPE, mChannelizerType.name());
         notifyPreferenceUpdated();
     }
+
+    /**
+     * Indicates if idle conventional channels are allowed to hibernate their decoder modules while a channel power
+     * watcher monitors the channel for activity.
+     */
+    public boolean isHibernationEnabled()
+    {
+        if(mHibernationEnabled == null)
+        {
+            mHibernationEnabled = mPreferences.getBoolean(PREFERENCE_KEY_HIBERNATION_ENABLED, false);
+        }
+
+        return mHibernationEnabled;
+    }
+
+    /**
+     * Sets the enabled state for idle channel hibernation
+     */
+    public void setHibernationEnabled(boolean enabled)
+    {
+        mHibernationEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_HIBERNATION_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Period of channel inactivity in milliseconds before a channel hibernates.
+     */
+    public long getHibernationDelay()
+    {
+        if(mHibernationDelay == null)
+        {
+            mHibernationDelay = mPreferences.getLong(PREFERENCE_KEY_HIBERNATION_DELAY, DEFAULT_HIBERNATION_DELAY);
+        }
+
+        return mHibernationDelay;
+    }
+
+    /**
+     * Sets the hibernation delay.
+     * @param delay in milliseconds (1,000 - 3,600,000)
+     */
+    public void setHibernationDelay(long delay)
+    {
+        if(1000 <= delay && delay <= 3600000)
+        {
+            mHibernationDelay = delay;
+            mPreferences.putLong(PREFERENCE_KEY_HIBERNATION_DELAY, delay);
+            notifyPreferenceUpdated();
+        }
+    }
+
+    /**
+     * Channel power threshold in dB above the channel noise floor that wakes a hibernating channel.
+     */
+    public float getHibernationThreshold()
+    {
+        if(mHibernationThreshold == null)
+        {
+            mHibernationThreshold = mPreferences.getFloat(PREFERENCE_KEY_HIBERNATION_THRESHOLD,
+                DEFAULT_HIBERNATION_THRESHOLD);
+        }
+
+        return mHibernationThreshold;
+    }
+
+    /**
+     * Sets the hibernation wake threshold.
+     * @param threshold in dB above the noise floor (1 - 30)
+     */
+    public void setHibernationThreshold(float threshold)
+    {
+        if(1.0f <= threshold && threshold <= 30.0f)
+        {
+            mHibernationThreshold = threshold;
+            mPreferences.putFloat(PREFERENCE_KEY_HIBERNATION_THRESHOLD, threshold);
+            notifyPreferenceUpdated();
+        }
+    }
 }
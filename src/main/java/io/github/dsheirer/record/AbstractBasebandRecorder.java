@@ -0,0 +1,84 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record;
+
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.IReusableComplexBufferListener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.source.ISourceEventListener;
+import io.github.dsheirer.source.SourceEvent;
+
+import java.nio.file.Path;
+
+/**
+ * Base recorder module for recording complex (I/Q) baseband sample buffers.  Tracks sample rate and frequency change
+ * notifications from the source.
+ */
+public abstract class AbstractBasebandRecorder extends Module implements IReusableComplexBufferListener,
+    Listener<ReusableComplexBuffer>, ISourceEventListener
+{
+    /**
+     * Sets the sample rate of the recorded samples
+     */
+    public abstract void setSampleRate(float sampleRate);
+
+    /**
+     * Sets the tuned center frequency of the recorded samples
+     */
+    public abstract void setFrequency(long frequency);
+
+    /**
+     * Current recording file, or null if the recorder hasn't been started
+     */
+    public abstract Path getFile();
+
+    @Override
+    public Listener<ReusableComplexBuffer> getReusableComplexBufferListener()
+    {
+        return this;
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+
+    @Override
+    public Listener<SourceEvent> getSourceEventListener()
+    {
+        return new Listener<SourceEvent>()
+        {
+            @Override
+            public void receive(SourceEvent sourceEvent)
+            {
+                switch(sourceEvent.getEvent())
+                {
+                    case NOTIFICATION_SAMPLE_RATE_CHANGE:
+                        setSampleRate(sourceEvent.getValue().floatValue());
+                        break;
+                    case NOTIFICATION_FREQUENCY_CHANGE:
+                        setFrequency(sourceEvent.getValue().longValue());
+                        break;
+                }
+            }
+        };
+    }
+}
@@ -43,6 +43,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -54,6 +55,7 @@ public class AudioRecordingManager implements Listener<AudioSegment>
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioRecordingManager.class);
     private LinkedTransferQueue<AudioSegment> mCompletedAudioSegmentQueue = new LinkedTransferQueue<>();
+    private List<AudioSegment> mEncodingAudioSegments = new CopyOnWriteArrayList<>();
     private ScheduledFuture<?> mQueueProcessorHandle;
     private UserPreferences mUserPreferences;
     private int mUnknownAudioRecordingIndex = 1;
@@ -90,6 +92,7 @@ public class AudioRecordingManager implements Listener<AudioSegment>
         {
             mQueueProcessorHandle.cancel(true);
             processAudioSegments();
+            mEncodingAudioSegments.clear();
             mQueueProcessorHandle = null;
         }
     }
@@ -100,9 +103,50 @@ public class AudioRecordingManager implements Listener<AudioSegment>
     @Override
     public void receive(AudioSegment audioSegment)
     {
+        if(mUserPreferences.getRecordPreference().getAudioRecordFormat() == RecordFormat.MP3)
+        {
+            if(audioSegment.recordAudioProperty().get())
+            {
+                startMP3Encoding(audioSegment);
+            }
+            else
+            {
+                audioSegment.recordAudioProperty().addListener(new AudioSegmentRecordMonitor(audioSegment));
+            }
+        }
+
         audioSegment.completeProperty().addListener(new AudioSegmentCompletionMonitor(audioSegment));
     }
 
+    /**
+     * Starts incremental MP3 encoding for the audio segment.  The audio is encoded by the queue processor thread while
+     * the audio segment is in progress.
+     */
+    private void startMP3Encoding(AudioSegment audioSegment)
+    {
+        audioSegment.startMP3Encoding();
+        mEncodingAudioSegments.add(audioSegment);
+    }
+
+    /**
+     * Encodes any newly added audio for in-progress audio segments that are being recorded as MP3.  Completed audio
+     * segments are no longer tracked here and any remaining audio is encoded once the segment is recorded.
+     */
+    private void encodeAudioSegments()
+    {
+        for(AudioSegment audioSegment: mEncodingAudioSegments)
+        {
+            if(audioSegment.completeProperty().get())
+            {
+                mEncodingAudioSegments.remove(audioSegment);
+            }
+            else
+            {
+                audioSegment.encodeMP3();
+            }
+        }
+    }
+
     /**
      * Processes audio segments that have been flagged as complete.
      * @param audioSegment
@@ -345,7 +389,31 @@ public class AudioRecordingManager implements Listener<AudioSegment>
     }
 
     /**
-     * Threaded queue processor to process/record each recordable audio segment
+     * Audio segment record flag monitor.  Starts incremental MP3 encoding once the audio segment is flagged for
+     * recording so that the recording doesn't have to encode the complete call once the call ends.
+     */
+    public class AudioSegmentRecordMonitor implements ChangeListener<Boolean>
+    {
+        private AudioSegment mAudioSegment;
+
+        public AudioSegmentRecordMonitor(AudioSegment audioSegment)
+        {
+            mAudioSegment = audioSegment;
+        }
+
+        @Override
+        public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue)
+        {
+            if(newValue)
+            {
+                mAudioSegment.recordAudioProperty().removeListener(this);
+                startMP3Encoding(mAudioSegment);
+            }
+        }
+    }
+
+    /**
+     * Threaded queue processor to encode in-progress MP3 recordings and to process/record each recordable audio segment
      */
     public class QueueProcessor implements Runnable
     {
@@ -354,6 +422,7 @@ public class AudioRecordingManager implements Listener<AudioSegment>
         {
             try
             {
+                encodeAudioSegments();
                 processAudioSegments();
             }
             catch(Throwable t)
@@ -21,7 +21,6 @@ package io.github.dsheirer.record;
 
 import io.github.dsheirer.audio.AudioFormats;
 import io.github.dsheirer.audio.AudioSegment;
-import io.github.dsheirer.audio.convert.MP3AudioConverter;
 import io.github.dsheirer.record.wave.AudioMetadata;
 import io.github.dsheirer.record.wave.AudioMetadataUtils;
 import io.github.dsheirer.record.wave.WaveWriter;
@@ -43,9 +42,6 @@ public class AudioSegmentRecorder
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioSegmentRecorder.class);
 
-    public static final int MP3_BIT_RATE = 16;
-    public static final boolean CONSTANT_BIT_RATE = false;
-
     /**
      * Records the audio segment to the specified path using the specified recording format
      * @param audioSegment to record
@@ -87,17 +83,8 @@ public class AudioSegmentRecorder
             byte[] id3Bytes = AudioMetadataUtils.getMP3ID3(metadataMap);
             outputStream.write(id3Bytes);
 
-            //Convert audio to MP3 and write to file
-            MP3AudioConverter converter = new MP3AudioConverter(MP3_BIT_RATE, CONSTANT_BIT_RATE);
-            byte[] mp3 = converter.convertAudio(audioSegment.getAudioBuffers());
-            outputStream.write(mp3);
-
-            byte[] lastFrame = converter.flush();
-
-            if(lastFrame != null && lastFrame.length > 0)
-            {
-                outputStream.write(lastFrame);
-            }
+            //Write the segment's MP3 audio to file
+            outputStream.write(audioSegment.getMP3Audio());
 
             outputStream.flush();
             outputStream.close();
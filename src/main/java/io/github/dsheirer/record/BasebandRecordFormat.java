@@ -0,0 +1,65 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record;
+
+import io.github.dsheirer.record.baseband.BasebandSampleFormat;
+
+/**
+ * Baseband I/Q recording file formats
+ */
+public enum BasebandRecordFormat
+{
+    WAVE("Wave 16-bit I/Q (.wav)", ".wav", null),
+    BASEBAND_16("Baseband 16-bit I/Q (.bbr)", ".bbr", BasebandSampleFormat.INT16),
+    BASEBAND_8("Baseband 8-bit I/Q (.bbr)", ".bbr", BasebandSampleFormat.INT8);
+
+    private String mLabel;
+    private String mExtension;
+    private BasebandSampleFormat mSampleFormat;
+
+    BasebandRecordFormat(String label, String extension, BasebandSampleFormat sampleFormat)
+    {
+        mLabel = label;
+        mExtension = extension;
+        mSampleFormat = sampleFormat;
+    }
+
+    /**
+     * File extension
+     */
+    public String getExtension()
+    {
+        return mExtension;
+    }
+
+    /**
+     * Sample format for the baseband container, or null for wave recordings.
+     */
+    public BasebandSampleFormat getSampleFormat()
+    {
+        return mSampleFormat;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mLabel;
+    }
+}
@@ -25,6 +25,8 @@ import io.github.dsheirer.module.decode.dmr.audio.DMRCallSequenceRecorder;
 import io.github.dsheirer.module.decode.p25.audio.P25P1CallSequenceRecorder;
 import io.github.dsheirer.module.decode.p25.audio.P25P2CallSequenceRecorder;
 import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.record.RecordPreference;
+import io.github.dsheirer.record.baseband.BasebandRecorder;
 import io.github.dsheirer.record.binary.BinaryRecorder;
 import io.github.dsheirer.record.wave.ComplexBufferWaveRecorder;
 import io.github.dsheirer.source.config.SourceConfigTuner;
@@ -156,14 +158,24 @@ public class RecorderFactory
     }
 
     /**
-     * Constructs a baseband recorder for use in a processing chain.
+     * Constructs a baseband recorder for use in a processing chain, using the baseband record format from the user
+     * preferences.
      */
-    public static ComplexBufferWaveRecorder getBasebandRecorder(String channelName, UserPreferences userPreferences)
+    public static AbstractBasebandRecorder getBasebandRecorder(String channelName, UserPreferences userPreferences)
     {
         StringBuilder sb = new StringBuilder();
         sb.append(getRecordingBasePath(userPreferences));
         sb.append(File.separator).append(StringUtils.replaceIllegalCharacters(channelName)).append("_baseband");
 
+        RecordPreference recordPreference = userPreferences.getRecordPreference();
+        BasebandRecordFormat format = recordPreference.getBasebandRecordFormat();
+
+        if(format.getSampleFormat() != null)
+        {
+            return new BasebandRecorder(BASEBAND_SAMPLE_RATE, sb.toString(), format.getSampleFormat(),
+                recordPreference.isBasebandCompression(), channelName);
+        }
+
         return new ComplexBufferWaveRecorder(BASEBAND_SAMPLE_RATE, sb.toString());
     }
 }
@@ -37,7 +37,7 @@ public enum RecorderType
     /**
      * Baseband, 16-bit complex inphase/quadrature samples at the channel sample rate.
      */
-    BASEBAND( "Baseband I/Q (.wav)"),
+    BASEBAND( "Baseband I/Q (.wav or .bbr)"),
 
     /**
      * Demodulated bit stream at the baud rate of the decoder
@@ -47,7 +47,7 @@ public enum RecorderType
     /**
      * Traffic channel baseband, 16-bit complex inphase/quadrature samples at the channel sample rate.
      */
-	TRAFFIC_BASEBAND( "Traffic Channel Baseband I/Q (.wav)" ),
+	TRAFFIC_BASEBAND( "Traffic Channel Baseband I/Q (.wav or .bbr)" ),
 
     /**
      * Traffic channel demodulated bit stream at the baud rate of the decoder
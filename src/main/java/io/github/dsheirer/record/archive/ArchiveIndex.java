@@ -0,0 +1,353 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorted secondary indexes for the records contained in a single archive segment.  Each index is sorted by
+ * (key, timestamp) so that a key lookup constrained to a time range is a single binary search followed by a
+ * contiguous scan.
+ *
+ * Indexes: talkgroup, radio, system/site and time.
+ */
+public class ArchiveIndex
+{
+    private static final int MAGIC = 0x53444958; //SDIX
+    private static final int VERSION = 1;
+
+    private SortedIndex mTalkgroupIndex;
+    private SortedIndex mRadioIndex;
+    private SortedIndex mSystemSiteIndex;
+    private SortedIndex mTimeIndex;
+
+    /**
+     * Constructs an instance from the sorted indexes
+     */
+    private ArchiveIndex(SortedIndex talkgroup, SortedIndex radio, SortedIndex systemSite, SortedIndex time)
+    {
+        mTalkgroupIndex = talkgroup;
+        mRadioIndex = radio;
+        mSystemSiteIndex = systemSite;
+        mTimeIndex = time;
+    }
+
+    /**
+     * Number of records indexed
+     */
+    public int size()
+    {
+        return mTimeIndex.size();
+    }
+
+    /**
+     * Earliest record timestamp or Long.MAX_VALUE if the index is empty
+     */
+    public long getMinTimestamp()
+    {
+        return size() > 0 ? mTimeIndex.mKeys[0] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Latest record timestamp or Long.MIN_VALUE if the index is empty
+     */
+    public long getMaxTimestamp()
+    {
+        return size() > 0 ? mTimeIndex.mKeys[size() - 1] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds the record offsets of candidate records for the query to the offsets list, using the most selective
+     * index for the query.  Candidates must be checked against the query since the system/site index is keyed by
+     * string hash values.
+     * @param query with criteria
+     * @param offsets to receive candidate record offsets
+     */
+    public void find(ArchiveQuery query, List<Integer> offsets)
+    {
+        if(query.hasTalkgroup())
+        {
+            mTalkgroupIndex.find(query.getTalkgroup(), query.getTalkgroup(), query.getStart(), query.getEnd(), offsets);
+        }
+        else if(query.hasRadio())
+        {
+            mRadioIndex.find(query.getRadio(), query.getRadio(), query.getStart(), query.getEnd(), offsets);
+        }
+        else if(query.getSystem() != null)
+        {
+            if(query.getSite() != null)
+            {
+                long key = ArchiveRecord.getSystemSiteKey(query.getSystem(), query.getSite());
+                mSystemSiteIndex.find(key, key, query.getStart(), query.getEnd(), offsets);
+            }
+            else
+            {
+                long key = (long)ArchiveRecord.getHash(query.getSystem()) << 32;
+                mSystemSiteIndex.find(key, key | 0xFFFFFFFFl, query.getStart(), query.getEnd(), offsets);
+            }
+        }
+        else
+        {
+            mTimeIndex.find(query.getStart(), query.getEnd(), query.getStart(), query.getEnd(), offsets);
+        }
+    }
+
+    /**
+     * Writes the index to the file, replacing any existing file
+     */
+    public void write(Path path) throws IOException
+    {
+        int length = 12 + (4 * size() * (8 + 8 + 4));
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(size());
+        mTalkgroupIndex.write(buffer);
+        mRadioIndex.write(buffer);
+        mSystemSiteIndex.write(buffer);
+        mTimeIndex.write(buffer);
+        buffer.flip();
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while(buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads an index from the file
+     * @param path to the index file
+     * @return index
+     * @throws IOException if the file can't be read or is not a valid index file
+     */
+    public static ArchiveIndex read(Path path) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if(buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            {
+                throw new IOException("Unrecognized archive index file format [" + path + "]");
+            }
+
+            int size = buffer.getInt();
+
+            if(buffer.remaining() != 4 * size * (8 + 8 + 4))
+            {
+                throw new IOException("Incomplete archive index file [" + path + "]");
+            }
+
+            return new ArchiveIndex(SortedIndex.read(buffer, size), SortedIndex.read(buffer, size),
+                SortedIndex.read(buffer, size), SortedIndex.read(buffer, size));
+        }
+    }
+
+    /**
+     * Index sorted by key and then by timestamp
+     */
+    private static class SortedIndex
+    {
+        private long[] mKeys;
+        private long[] mTimestamps;
+        private int[] mOffsets;
+
+        private SortedIndex(long[] keys, long[] timestamps, int[] offsets)
+        {
+            mKeys = keys;
+            mTimestamps = timestamps;
+            mOffsets = offsets;
+        }
+
+        /**
+         * Creates a sorted index from unsorted entries
+         */
+        private static SortedIndex create(long[] keys, long[] timestamps, int[] offsets, int count)
+        {
+            Integer[] order = new Integer[count];
+
+            for(int x = 0; x < count; x++)
+            {
+                order[x] = x;
+            }
+
+            Arrays.sort(order, Comparator.<Integer>comparingLong(x -> keys[x]).thenComparingLong(x -> timestamps[x]));
+
+            long[] sortedKeys = new long[count];
+            long[] sortedTimestamps = new long[count];
+            int[] sortedOffsets = new int[count];
+
+            for(int x = 0; x < count; x++)
+            {
+                sortedKeys[x] = keys[order[x]];
+                sortedTimestamps[x] = timestamps[order[x]];
+                sortedOffsets[x] = offsets[order[x]];
+            }
+
+            return new SortedIndex(sortedKeys, sortedTimestamps, sortedOffsets);
+        }
+
+        private int size()
+        {
+            return mKeys.length;
+        }
+
+        /**
+         * Finds the offsets for entries with a key in the key range and a timestamp in the time range
+         */
+        private void find(long keyLow, long keyHigh, long start, long end, List<Integer> offsets)
+        {
+            int index = lowerBound(keyLow, start);
+
+            while(index < mKeys.length && mKeys[index] <= keyHigh)
+            {
+                if(mTimestamps[index] <= end)
+                {
+                    if(mTimestamps[index] >= start)
+                    {
+                        offsets.add(mOffsets[index]);
+                    }
+                }
+                else if(keyLow == keyHigh)
+                {
+                    return;
+                }
+
+                index++;
+            }
+        }
+
+        /**
+         * Index of the first entry that is greater than or equal to (key, timestamp)
+         */
+        private int lowerBound(long key, long timestamp)
+        {
+            int low = 0;
+            int high = mKeys.length;
+
+            while(low < high)
+            {
+                int mid = (low + high) >>> 1;
+
+                if(mKeys[mid] < key || (mKeys[mid] == key && mTimestamps[mid] < timestamp))
+                {
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+
+        private void write(ByteBuffer buffer)
+        {
+            buffer.asLongBuffer().put(mKeys);
+            buffer.position(buffer.position() + (mKeys.length * 8));
+            buffer.asLongBuffer().put(mTimestamps);
+            buffer.position(buffer.position() + (mTimestamps.length * 8));
+            buffer.asIntBuffer().put(mOffsets);
+            buffer.position(buffer.position() + (mOffsets.length * 4));
+        }
+
+        private static SortedIndex read(ByteBuffer buffer, int size)
+        {
+            long[] keys = new long[size];
+            long[] timestamps = new long[size];
+            int[] offsets = new int[size];
+            buffer.asLongBuffer().get(keys);
+            buffer.position(buffer.position() + (size * 8));
+            buffer.asLongBuffer().get(timestamps);
+            buffer.position(buffer.position() + (size * 8));
+            buffer.asIntBuffer().get(offsets);
+            buffer.position(buffer.position() + (size * 4));
+            return new SortedIndex(keys, timestamps, offsets);
+        }
+    }
+
+    /**
+     * Accumulates index entries for records as they are appended to a segment and builds the sorted indexes.
+     */
+    public static class Builder
+    {
+        private long[] mTimestamps = new long[1024];
+        private long[] mTalkgroups = new long[1024];
+        private long[] mRadios = new long[1024];
+        private long[] mSystemSites = new long[1024];
+        private int[] mOffsets = new int[1024];
+        private int mCount;
+
+        /**
+         * Adds an index entry for the record
+         * @param record to index
+         * @param offset of the record within the segment
+         */
+        public void add(ArchiveRecord record, int offset)
+        {
+            if(mCount == mOffsets.length)
+            {
+                int length = mCount * 2;
+                mTimestamps = Arrays.copyOf(mTimestamps, length);
+                mTalkgroups = Arrays.copyOf(mTalkgroups, length);
+                mRadios = Arrays.copyOf(mRadios, length);
+                mSystemSites = Arrays.copyOf(mSystemSites, length);
+                mOffsets = Arrays.copyOf(mOffsets, length);
+            }
+
+            mTimestamps[mCount] = record.getTimestamp();
+            mTalkgroups[mCount] = record.getTalkgroup();
+            mRadios[mCount] = record.getRadio();
+            mSystemSites[mCount] = record.getSystemSiteKey();
+            mOffsets[mCount] = offset;
+            mCount++;
+        }
+
+        /**
+         * Number of entries added to this builder
+         */
+        public int size()
+        {
+            return mCount;
+        }
+
+        /**
+         * Builds the sorted indexes from the current entries
+         */
+        public ArchiveIndex build()
+        {
+            return new ArchiveIndex(SortedIndex.create(mTalkgroups, mTimestamps, mOffsets, mCount),
+                SortedIndex.create(mRadios, mTimestamps, mOffsets, mCount),
+                SortedIndex.create(mSystemSites, mTimestamps, mOffsets, mCount),
+                SortedIndex.create(mTimestamps, mTimestamps, mOffsets, mCount));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.archive;
+
+/**
+ * Call archive range query.  The time range is required and each of the remaining criteria are optional.  Records
+ * must match all specified criteria.
+ */
+public class ArchiveQuery
+{
+    public static final int DEFAULT_LIMIT = 1000;
+
+    private long mStart;
+    private long mEnd;
+    private int mTalkgroup = ArchiveRecord.NO_VALUE;
+    private int mRadio = ArchiveRecord.NO_VALUE;
+    private String mSystem;
+    private String mSite;
+    private ArchiveRecordType mType;
+    private boolean mIncludeAudio = true;
+    private int mLimit = DEFAULT_LIMIT;
+
+    /**
+     * Constructs a query for records with a start timestamp in the range.
+     * @param start timestamp inclusive in milliseconds
+     * @param end timestamp inclusive in milliseconds
+     */
+    public ArchiveQuery(long start, long end)
+    {
+        if(end < start)
+        {
+            throw new IllegalArgumentException("Query end timestamp must not be less than the start timestamp");
+        }
+
+        mStart = start;
+        mEnd = end;
+    }
+
+    public long getStart()
+    {
+        return mStart;
+    }
+
+    public long getEnd()
+    {
+        return mEnd;
+    }
+
+    public int getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    /**
+     * Restricts results to the talkgroup (TO) value
+     */
+    public ArchiveQuery setTalkgroup(int talkgroup)
+    {
+        mTalkgroup = talkgroup;
+        return this;
+    }
+
+    public boolean hasTalkgroup()
+    {
+        return mTalkgroup != ArchiveRecord.NO_VALUE;
+    }
+
+    public int getRadio()
+    {
+        return mRadio;
+    }
+
+    /**
+     * Restricts results to the radio (FROM) value
+     */
+    public ArchiveQuery setRadio(int radio)
+    {
+        mRadio = radio;
+        return this;
+    }
+
+    public boolean hasRadio()
+    {
+        return mRadio != ArchiveRecord.NO_VALUE;
+    }
+
+    public String getSystem()
+    {
+        return mSystem;
+    }
+
+    /**
+     * Restricts results to the system configuration value
+     */
+    public ArchiveQuery setSystem(String system)
+    {
+        mSystem = system;
+        return this;
+    }
+
+    public String getSite()
+    {
+        return mSite;
+    }
+
+    /**
+     * Restricts results to the site configuration value.  Requires a system value to use the system/site index.
+     */
+    public ArchiveQuery setSite(String site)
+    {
+        mSite = site;
+        return this;
+    }
+
+    public ArchiveRecordType getType()
+    {
+        return mType;
+    }
+
+    /**
+     * Restricts results to the record type
+     */
+    public ArchiveQuery setType(ArchiveRecordType type)
+    {
+        mType = type;
+        return this;
+    }
+
+    public boolean isIncludeAudio()
+    {
+        return mIncludeAudio;
+    }
+
+    /**
+     * Indicates if results should include the call audio bytes.  Default is true.
+     */
+    public ArchiveQuery setIncludeAudio(boolean includeAudio)
+    {
+        mIncludeAudio = includeAudio;
+        return this;
+    }
+
+    public int getLimit()
+    {
+        return mLimit;
+    }
+
+    /**
+     * Sets the maximum number of results
+     */
+    public ArchiveQuery setLimit(int limit)
+    {
+        mLimit = limit;
+        return this;
+    }
+
+    /**
+     * Indicates if the record matches all of the criteria of this query
+     */
+    public boolean matches(ArchiveRecord record)
+    {
+        if(record == null || record.getTimestamp() < mStart || record.getTimestamp() > mEnd)
+        {
+            return false;
+        }
+
+        if(mType != null && record.getType() != mType)
+        {
+            return false;
+        }
+
+        if(hasTalkgroup() && record.getTalkgroup() != mTalkgroup)
+        {
+            return false;
+        }
+
+        if(hasRadio() && record.getRadio() != mRadio)
+        {
+            return false;
+        }
+
+        if(mSystem != null && !mSystem.equals(record.getSystem()))
+        {
+            return false;
+        }
+
+        return mSite == null || mSite.equals(record.getSite());
+    }
+}
@@ -0,0 +1,437 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.archive;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Call archive record for either a completed call audio segment or a decode event.
+ *
+ * Serialized record layout (big endian) following the 4-byte record length prefix that is managed by the segment:
+ *
+ *   type (1), timestamp (8), duration (8), talkgroup (4), radio (4), system, site, channel, protocol, from, to,
+ *   description, details (each as 2-byte length + UTF-8 bytes), audio length (4) + MP3 audio bytes
+ */
+public class ArchiveRecord
+{
+    /**
+     * Value used for talkgroup or radio when the record does not have that identifier
+     */
+    public static final int NO_VALUE = -1;
+    private static final int FIXED_LENGTH = 1 + 8 + 8 + 4 + 4 + 4;
+    private static final int MAX_STRING_LENGTH = 0xFFFF;
+
+    private ArchiveRecordType mType;
+    private long mTimestamp;
+    private long mDuration;
+    private int mTalkgroup = NO_VALUE;
+    private int mRadio = NO_VALUE;
+    private String mSystem;
+    private String mSite;
+    private String mChannel;
+    private String mProtocol;
+    private String mFrom;
+    private String mTo;
+    private String mDescription;
+    private String mDetails;
+    private byte[] mAudio;
+    private long mSegmentId;
+    private int mOffset;
+
+    /**
+     * Constructs an instance
+     * @param type of record
+     * @param timestamp of the call or event start in milliseconds
+     * @param duration of the call or event in milliseconds
+     */
+    public ArchiveRecord(ArchiveRecordType type, long timestamp, long duration)
+    {
+        mType = type;
+        mTimestamp = timestamp;
+        mDuration = duration;
+    }
+
+    public ArchiveRecordType getType()
+    {
+        return mType;
+    }
+
+    public long getTimestamp()
+    {
+        return mTimestamp;
+    }
+
+    public long getDuration()
+    {
+        return mDuration;
+    }
+
+    /**
+     * Talkgroup (TO) value or NO_VALUE
+     */
+    public int getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    public void setTalkgroup(int talkgroup)
+    {
+        mTalkgroup = talkgroup;
+    }
+
+    /**
+     * Radio (FROM) value or NO_VALUE
+     */
+    public int getRadio()
+    {
+        return mRadio;
+    }
+
+    public void setRadio(int radio)
+    {
+        mRadio = radio;
+    }
+
+    public String getSystem()
+    {
+        return mSystem;
+    }
+
+    public void setSystem(String system)
+    {
+        mSystem = system;
+    }
+
+    public String getSite()
+    {
+        return mSite;
+    }
+
+    public void setSite(String site)
+    {
+        mSite = site;
+    }
+
+    public String getChannel()
+    {
+        return mChannel;
+    }
+
+    public void setChannel(String channel)
+    {
+        mChannel = channel;
+    }
+
+    public String getProtocol()
+    {
+        return mProtocol;
+    }
+
+    public void setProtocol(String protocol)
+    {
+        mProtocol = protocol;
+    }
+
+    /**
+     * Display value of the FROM identifier, including identifiers that are not radio values (e.g. tones)
+     */
+    public String getFrom()
+    {
+        return mFrom;
+    }
+
+    public void setFrom(String from)
+    {
+        mFrom = from;
+    }
+
+    /**
+     * Display value of the TO identifier, including identifiers that are not talkgroup values (e.g. patch groups)
+     */
+    public String getTo()
+    {
+        return mTo;
+    }
+
+    public void setTo(String to)
+    {
+        mTo = to;
+    }
+
+    public String getDescription()
+    {
+        return mDescription;
+    }
+
+    public void setDescription(String description)
+    {
+        mDescription = description;
+    }
+
+    public String getDetails()
+    {
+        return mDetails;
+    }
+
+    public void setDetails(String details)
+    {
+        mDetails = details;
+    }
+
+    /**
+     * MP3 encoded call audio or null if this record does not have audio
+     */
+    public byte[] getAudio()
+    {
+        return mAudio;
+    }
+
+    public void setAudio(byte[] audio)
+    {
+        mAudio = audio;
+    }
+
+    /**
+     * Indicates if this record has call audio
+     */
+    public boolean hasAudio()
+    {
+        return mAudio != null && mAudio.length > 0;
+    }
+
+    /**
+     * Identifier of the archive segment that contains this record
+     */
+    public long getSegmentId()
+    {
+        return mSegmentId;
+    }
+
+    /**
+     * Byte offset of this record within the archive segment
+     */
+    public int getOffset()
+    {
+        return mOffset;
+    }
+
+    /**
+     * Sets the location of this record within the archive
+     */
+    void setLocation(long segmentId, int offset)
+    {
+        mSegmentId = segmentId;
+        mOffset = offset;
+    }
+
+    /**
+     * Index key that combines the system and site values.  The system hash occupies the high 32 bits so that all
+     * sites for a system form a contiguous key range.
+     */
+    public long getSystemSiteKey()
+    {
+        return getSystemSiteKey(mSystem, mSite);
+    }
+
+    /**
+     * Creates a system/site index key
+     * @param system value (optional)
+     * @param site value (optional)
+     * @return key
+     */
+    public static long getSystemSiteKey(String system, String site)
+    {
+        return ((long)getHash(system) << 32) | (getHash(site) & 0xFFFFFFFFl);
+    }
+
+    /**
+     * Hash of the optional string value
+     */
+    static int getHash(String value)
+    {
+        return value != null ? value.hashCode() : 0;
+    }
+
+    /**
+     * Number of bytes required to serialize this record
+     */
+    public int getSerializedLength()
+    {
+        return FIXED_LENGTH + getLength(mSystem) + getLength(mSite) + getLength(mChannel) + getLength(mProtocol) +
+            getLength(mFrom) + getLength(mTo) + getLength(mDescription) + getLength(mDetails) +
+            (mAudio != null ? mAudio.length : 0);
+    }
+
+    /**
+     * Serializes this record to the buffer at the buffer's current position
+     */
+    public void write(ByteBuffer buffer)
+    {
+        buffer.put(mType.getValue());
+        buffer.putLong(mTimestamp);
+        buffer.putLong(mDuration);
+        buffer.putInt(mTalkgroup);
+        buffer.putInt(mRadio);
+        putString(buffer, mSystem);
+        putString(buffer, mSite);
+        putString(buffer, mChannel);
+        putString(buffer, mProtocol);
+        putString(buffer, mFrom);
+        putString(buffer, mTo);
+        putString(buffer, mDescription);
+        putString(buffer, mDetails);
+
+        if(mAudio != null)
+        {
+            buffer.putInt(mAudio.length);
+            buffer.put(mAudio);
+        }
+        else
+        {
+            buffer.putInt(0);
+        }
+    }
+
+    /**
+     * Deserializes a record from the buffer at the buffer's current position.
+     * @param buffer containing the serialized record
+     * @param includeAudio to read the audio bytes, or false to skip over the audio
+     * @return record or null if the record type is not recognized
+     * @throws BufferUnderflowException if the buffer does not contain a complete record
+     */
+    public static ArchiveRecord read(ByteBuffer buffer, boolean includeAudio)
+    {
+        ArchiveRecordType type = ArchiveRecordType.fromValue(buffer.get());
+
+        if(type == null)
+        {
+            return null;
+        }
+
+        ArchiveRecord record = new ArchiveRecord(type, buffer.getLong(), buffer.getLong());
+        record.setTalkgroup(buffer.getInt());
+        record.setRadio(buffer.getInt());
+        record.setSystem(getString(buffer));
+        record.setSite(getString(buffer));
+        record.setChannel(getString(buffer));
+        record.setProtocol(getString(buffer));
+        record.setFrom(getString(buffer));
+        record.setTo(getString(buffer));
+        record.setDescription(getString(buffer));
+        record.setDetails(getString(buffer));
+
+        int audioLength = buffer.getInt();
+
+        if(audioLength > 0)
+        {
+            if(includeAudio)
+            {
+                byte[] audio = new byte[audioLength];
+                buffer.get(audio);
+                record.setAudio(audio);
+            }
+            else
+            {
+                buffer.position(buffer.position() + audioLength);
+            }
+        }
+
+        return record;
+    }
+
+    /**
+     * Serialized length of the optional string value, including the 2-byte length prefix
+     */
+    private static int getLength(String value)
+    {
+        return 2 + (value != null ? Math.min(value.getBytes(StandardCharsets.UTF_8).length, MAX_STRING_LENGTH) : 0);
+    }
+
+    private static void putString(ByteBuffer buffer, String value)
+    {
+        if(value == null)
+        {
+            buffer.putShort((short)0);
+        }
+        else
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(bytes.length, MAX_STRING_LENGTH);
+            buffer.putShort((short)length);
+            buffer.put(bytes, 0, length);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer)
+    {
+        int length = buffer.getShort() & 0xFFFF;
+
+        if(length == 0)
+        {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mType).append(" ").append(new Date(mTimestamp));
+        sb.append(" DURATION:").append(mDuration);
+
+        if(mSystem != null)
+        {
+            sb.append(" SYSTEM:").append(mSystem);
+        }
+
+        if(mSite != null)
+        {
+            sb.append(" SITE:").append(mSite);
+        }
+
+        if(mTo != null)
+        {
+            sb.append(" TO:").append(mTo);
+        }
+
+        if(mFrom != null)
+        {
+            sb.append(" FROM:").append(mFrom);
+        }
+
+        if(mDescription != null)
+        {
+            sb.append(" ").append(mDescription);
+        }
+
+        if(hasAudio())
+        {
+            sb.append(" AUDIO:").append(mAudio.length).append(" bytes");
+        }
+
+        return sb.toString();
+    }
+}
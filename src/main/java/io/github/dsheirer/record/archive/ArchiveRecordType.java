@@ -0,0 +1,64 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.archive;
+
+/**
+ * Types of records stored in the call archive
+ */
+public enum ArchiveRecordType
+{
+    AUDIO("Call Audio"),
+    EVENT("Decode Event");
+
+    private String mLabel;
+
+    ArchiveRecordType(String label)
+    {
+        mLabel = label;
+    }
+
+    /**
+     * Serialized value for the record type
+     */
+    public byte getValue()
+    {
+        return (byte)ordinal();
+    }
+
+    /**
+     * Lookup the record type from the serialized value
+     * @param value to lookup
+     * @return record type or null if the value is not recognized
+     */
+    public static ArchiveRecordType fromValue(byte value)
+    {
+        if(0 <= value && value < values().length)
+        {
+            return values()[value];
+        }
+
+        return null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mLabel;
+    }
+}
@@ -0,0 +1,480 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only call archive segment file.  The active segment is written through a read/write memory mapping of the
+ * full segment capacity.  Each record is prefixed with its length and a zero length marks the end of the records,
+ * so a segment that was not cleanly sealed can be recovered by scanning.  Once sealed, the segment's sorted indexes
+ * are persisted to a companion index file and the segment is only read from that point on.  Sealed segments are not
+ * mapped until they're read and each read maps the segment on demand, so that idle segments don't hold mappings.
+ *
+ * Segment header: magic (4), version (4), segment id (8)
+ */
+public class ArchiveSegment
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ArchiveSegment.class);
+    private static final int MAGIC = 0x53444152; //SDAR
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 16;
+    public static final String SEGMENT_PREFIX = "archive_";
+    public static final String SEGMENT_EXTENSION = ".seg";
+    public static final String INDEX_EXTENSION = ".idx";
+
+    private long mId;
+    private Path mPath;
+    private Path mIndexPath;
+    private MappedByteBuffer mBuffer;
+    private int mPosition;
+    private int mForcedPosition;
+    private boolean mSealed;
+    private ArchiveIndex.Builder mIndexBuilder;
+    private ArchiveIndex mIndex;
+    private long mLastTimestamp;
+
+    /**
+     * Constructs an instance.  Use the static create() or open() methods.
+     */
+    private ArchiveSegment(long id, Path path)
+    {
+        mId = id;
+        mPath = path;
+        mIndexPath = path.resolveSibling(SEGMENT_PREFIX + id + INDEX_EXTENSION);
+    }
+
+    /**
+     * Segment identifier.  Segment identifiers are the segment creation timestamp and increase monotonically.
+     */
+    public long getId()
+    {
+        return mId;
+    }
+
+    /**
+     * Path to the segment file
+     */
+    public Path getPath()
+    {
+        return mPath;
+    }
+
+    /**
+     * Indicates if this segment is sealed and can no longer be appended.
+     */
+    public boolean isSealed()
+    {
+        return mSealed;
+    }
+
+    /**
+     * Latest record timestamp in this segment, or the segment creation timestamp when the segment is empty.
+     */
+    public long getLastTimestamp()
+    {
+        return Math.max(mId, mLastTimestamp);
+    }
+
+    /**
+     * Number of bytes used in the segment, including the header
+     */
+    public long getSize()
+    {
+        return mPosition;
+    }
+
+    /**
+     * Creates a new active segment file in the directory
+     * @param directory for archive segments
+     * @param id for the segment
+     * @param capacity of the segment in bytes
+     * @return segment
+     * @throws IOException if the segment file can't be created
+     */
+    public static ArchiveSegment create(Path directory, long id, int capacity) throws IOException
+    {
+        ArchiveSegment segment = new ArchiveSegment(id, directory.resolve(SEGMENT_PREFIX + id + SEGMENT_EXTENSION));
+
+        try(FileChannel channel = FileChannel.open(segment.mPath, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            segment.mBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+
+        segment.mBuffer.putInt(MAGIC);
+        segment.mBuffer.putInt(VERSION);
+        segment.mBuffer.putLong(id);
+        segment.mPosition = HEADER_LENGTH;
+        segment.mIndexBuilder = new ArchiveIndex.Builder();
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment file as a sealed segment.  Loads the persisted index when available, otherwise
+     * recovers the index by scanning the segment records and persists the recovered index.
+     * @param path to the segment file
+     * @return sealed segment
+     * @throws IOException if the file is not a valid segment file
+     */
+    public static ArchiveSegment open(Path path) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        long size;
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            size = channel.size();
+
+            while(header.hasRemaining() && channel.read(header) > 0)
+            {
+                //Read until the header is full or the end of the file
+            }
+        }
+
+        header.flip();
+
+        if(header.remaining() < HEADER_LENGTH || header.getInt() != MAGIC || header.getInt() != VERSION)
+        {
+            throw new IOException("Unrecognized archive segment file format [" + path + "]");
+        }
+
+        ArchiveSegment segment = new ArchiveSegment(header.getLong(), path);
+        segment.mSealed = true;
+
+        if(Files.exists(segment.mIndexPath))
+        {
+            try
+            {
+                segment.mIndex = ArchiveIndex.read(segment.mIndexPath);
+                segment.mPosition = (int)Math.min(size, Integer.MAX_VALUE);
+                segment.mLastTimestamp = segment.mIndex.getMaxTimestamp();
+                return segment;
+            }
+            catch(IOException ioe)
+            {
+                mLog.warn("Rebuilding archive segment index - " + ioe.getMessage());
+            }
+        }
+
+        segment.mIndexBuilder = new ArchiveIndex.Builder();
+        segment.mPosition = segment.scan(segment.getReadBuffer());
+        segment.mIndex = segment.mIndexBuilder.build();
+        segment.mIndexBuilder = null;
+        segment.writeIndex();
+        return segment;
+    }
+
+    /**
+     * Scans the records in the segment and adds each record to the index builder.
+     * @param buffer containing the segment contents
+     * @return position following the last complete record
+     */
+    private int scan(ByteBuffer buffer)
+    {
+        int position = HEADER_LENGTH;
+
+        while(position + 4 <= buffer.limit())
+        {
+            int length = buffer.getInt(position);
+
+            if(length <= 0 || position + 4 + length > buffer.limit())
+            {
+                break;
+            }
+
+            try
+            {
+                buffer.limit(position + 4 + length).position(position + 4);
+                ArchiveRecord record = ArchiveRecord.read(buffer, false);
+
+                if(record != null)
+                {
+                    mIndexBuilder.add(record, position);
+                    mLastTimestamp = Math.max(mLastTimestamp, record.getTimestamp());
+                }
+            }
+            catch(BufferUnderflowException bue)
+            {
+                mLog.warn("Truncated record in archive segment [" + mPath + "] at offset " + position);
+                break;
+            }
+
+            buffer.limit(buffer.capacity());
+            position += 4 + length;
+        }
+
+        return position;
+    }
+
+    /**
+     * Appends the record to this segment.
+     * @param record to append
+     * @return true if the record was appended or false if the segment doesn't have enough remaining capacity
+     */
+    public boolean append(ArchiveRecord record)
+    {
+        if(mSealed)
+        {
+            throw new IllegalStateException("Can't append to a sealed archive segment");
+        }
+
+        int length = record.getSerializedLength();
+
+        //Reserve room for the record length prefix and the zero length end marker
+        if(mPosition + 4 + length + 4 > mBuffer.capacity())
+        {
+            return false;
+        }
+
+        int offset = mPosition;
+        mBuffer.position(offset + 4);
+        record.write(mBuffer);
+        //Write the length prefix last so that a partially written record is never visible to recovery
+        mBuffer.putInt(offset, length);
+        mPosition = offset + 4 + length;
+        record.setLocation(mId, offset);
+        mIndexBuilder.add(record, offset);
+        mIndex = null;
+        mLastTimestamp = Math.max(mLastTimestamp, record.getTimestamp());
+        return true;
+    }
+
+    /**
+     * Indicates if the segment has any records
+     */
+    public boolean isEmpty()
+    {
+        return mIndex != null ? mIndex.size() == 0 : mIndexBuilder == null || mIndexBuilder.size() == 0;
+    }
+
+    /**
+     * Flushes the records that were appended since the previous flush to disk, so that they survive a crash.  Has no
+     * effect on a sealed segment.
+     */
+    public void force()
+    {
+        if(!mSealed && mBuffer != null && mForcedPosition != mPosition)
+        {
+            mBuffer.force();
+            mForcedPosition = mPosition;
+        }
+    }
+
+    /**
+     * Seals this segment.  Flushes the mapped records to disk, persists the sorted indexes and releases the unused
+     * segment capacity.
+     */
+    public void seal()
+    {
+        if(mSealed)
+        {
+            return;
+        }
+
+        mSealed = true;
+        mBuffer.force();
+        mIndex = mIndexBuilder.build();
+        mIndexBuilder = null;
+        writeIndex();
+
+        //Release the mapping and trim the unused capacity.  The zero length end marker is retained.
+        mBuffer = null;
+        int length = mPosition + 4;
+
+        try(FileChannel channel = FileChannel.open(mPath, StandardOpenOption.WRITE))
+        {
+            channel.truncate(length);
+        }
+        catch(IOException ioe)
+        {
+            //Some platforms do not allow truncating a file that is still mapped - the zero end marker suffices
+            mLog.debug("Unable to trim archive segment [" + mPath + "] - " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * Persists the index for this segment
+     */
+    private void writeIndex()
+    {
+        try
+        {
+            mIndex.write(mIndexPath);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error writing archive segment index [" + mIndexPath + "]", ioe);
+        }
+    }
+
+    /**
+     * Finds the records in this segment that match the query
+     * @param query criteria
+     * @param results to receive matching records
+     * @throws IOException if the segment file can't be read
+     */
+    public void find(ArchiveQuery query, List<ArchiveRecord> results) throws IOException
+    {
+        ArchiveIndex index = getIndex();
+
+        if(index.size() == 0 || query.getEnd() < index.getMinTimestamp() || query.getStart() > index.getMaxTimestamp())
+        {
+            return;
+        }
+
+        List<Integer> offsets = new ArrayList<>();
+        index.find(query, offsets);
+
+        if(offsets.isEmpty())
+        {
+            return;
+        }
+
+        ByteBuffer buffer = getReadBuffer();
+
+        for(int offset: offsets)
+        {
+            ArchiveRecord record = read(buffer, offset, query.isIncludeAudio());
+
+            if(query.matches(record))
+            {
+                results.add(record);
+            }
+        }
+    }
+
+    /**
+     * Reads the record at the offset
+     * @param offset of the record within this segment
+     * @return record
+     * @throws IOException if the segment can't be read or there is not a valid record at the offset
+     */
+    public ArchiveRecord read(int offset) throws IOException
+    {
+        ArchiveRecord record = read(getReadBuffer(), offset, true);
+
+        if(record == null)
+        {
+            throw new IOException("Invalid archive record offset [" + offset + "] in segment [" + mPath + "]");
+        }
+
+        return record;
+    }
+
+    /**
+     * Reads the record at the offset from the buffer
+     */
+    private ArchiveRecord read(ByteBuffer buffer, int offset, boolean includeAudio)
+    {
+        try
+        {
+            int length = buffer.getInt(offset);
+            buffer.limit(offset + 4 + length).position(offset + 4);
+            ArchiveRecord record = ArchiveRecord.read(buffer, includeAudio);
+
+            if(record != null)
+            {
+                record.setLocation(mId, offset);
+            }
+
+            return record;
+        }
+        catch(IndexOutOfBoundsException | IllegalArgumentException | BufferUnderflowException e)
+        {
+            mLog.warn("Invalid archive record offset [" + offset + "] in segment [" + mPath + "]");
+            return null;
+        }
+        finally
+        {
+            buffer.limit(buffer.capacity());
+        }
+    }
+
+    /**
+     * Current index, building the index from the accumulated entries for the active segment as needed.
+     */
+    private ArchiveIndex getIndex()
+    {
+        if(mIndex == null)
+        {
+            mIndex = mIndexBuilder.build();
+        }
+
+        return mIndex;
+    }
+
+    /**
+     * Independent view of the segment contents for reading.  The active segment is read through its write mapping.
+     * Sealed segments are mapped on demand and the mapping is released once the returned buffer is no longer used.
+     */
+    private ByteBuffer getReadBuffer() throws IOException
+    {
+        MappedByteBuffer buffer = mBuffer;
+
+        if(buffer != null)
+        {
+            return buffer.duplicate();
+        }
+
+        try(FileChannel channel = FileChannel.open(mPath, StandardOpenOption.READ))
+        {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Deletes the segment and index files.  The segment must not be used after it is deleted.
+     */
+    public void delete()
+    {
+        mBuffer = null;
+        mIndex = null;
+        mIndexBuilder = null;
+        mSealed = true;
+
+        try
+        {
+            Files.deleteIfExists(mIndexPath);
+            Files.deleteIfExists(mPath);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error deleting archive segment [" + mPath + "]", ioe);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return mPath.getFileName().toString();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.archive;
+
+import io.github.dsheirer.identifier.IdentifierCollection;
+import io.github.dsheirer.sample.Listener;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Request to export the archived call audio for a call (e.g. a decode event) to MP3 files in the recordings
+ * directory.  Post this request to the global event bus.  The call archive queries for the audio records that overlap
+ * the call time range with the call's talkgroup and notifies the result listener with the exported file paths.
+ */
+public class ArchivedAudioExportRequest
+{
+    private IdentifierCollection mIdentifierCollection;
+    private long mStart;
+    private long mEnd;
+    private Listener<List<Path>> mResultListener;
+
+    /**
+     * Constructs an instance
+     * @param identifierCollection for the call
+     * @param start of the call in milliseconds since epoch
+     * @param end of the call in milliseconds since epoch
+     * @param resultListener to receive the exported file paths, invoked on the call archive's export thread
+     */
+    public ArchivedAudioExportRequest(IdentifierCollection identifierCollection, long start, long end,
+                                      Listener<List<Path>> resultListener)
+    {
+        mIdentifierCollection = identifierCollection;
+        mStart = start;
+        mEnd = end;
+        mResultListener = resultListener;
+    }
+
+    /**
+     * Identifiers for the call
+     */
+    public IdentifierCollection getIdentifierCollection()
+    {
+        return mIdentifierCollection;
+    }
+
+    /**
+     * Start of the call in milliseconds since epoch
+     */
+    public long getStart()
+    {
+        return mStart;
+    }
+
+    /**
+     * End of the call in milliseconds since epoch
+     */
+    public long getEnd()
+    {
+        return mEnd;
+    }
+
+    /**
+     * Listener to receive the exported file paths
+     */
+    public Listener<List<Path>> getResultListener()
+    {
+        return mResultListener;
+    }
+}
@@ -0,0 +1,669 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.record.archive;
+
+import com.google.common.eventbus.Subscribe;
+import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.eventbus.MyEventBus;
+import io.github.dsheirer.identifier.Form;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierClass;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.identifier.integer.IntegerIdentifier;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.util.ThreadPool;
+import io.github.dsheirer.util.TimeStamp;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexed call archive.  Archives the MP3 encoded audio for every completed call audio segment along with each
+ * decode event into append-only, memory-mapped segment files.  Each segment maintains sorted secondary indexes on
+ * talkgroup, radio, system/site and time to support range queries via the query() method.  Retention is managed
+ * by deleting whole segments once the newest record in a segment is older than the retention period.
+ *
+ * Decode events are updated (e.g. duration) while the call is in progress and are archived once the event has not
+ * been updated for a short settling period.  The active segment is flushed to disk periodically so that a crash loses
+ * at most a few seconds of archived records.
+ *
+ * Archived call audio is exported to the recordings directory in response to an ArchivedAudioExportRequest posted to
+ * the global event bus.
+ */
+public class CallArchive implements Listener<AudioSegment>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(CallArchive.class);
+    private static final long EVENT_SETTLING_PERIOD_MS = 5000;
+    private static final long RETENTION_CHECK_INTERVAL_MS = 60000;
+    private static final long FORCE_INTERVAL_MS = 5000;
+    private static final long EXPORT_TIME_MARGIN_MS = 5000;
+    private static final long SEGMENT_MAX_AGE_MS = TimeUnit.DAYS.toMillis(1);
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private UserPreferences mUserPreferences;
+    private LinkedTransferQueue<AudioSegment> mCompletedAudioSegmentQueue = new LinkedTransferQueue<>();
+    private List<AudioSegment> mEncodingAudioSegments = new CopyOnWriteArrayList<>();
+    private Map<IDecodeEvent,Long> mPendingEvents = new ConcurrentHashMap<>();
+    private DecodeEventListener mDecodeEventListener = new DecodeEventListener();
+    private final List<ArchiveSegment> mSegments = new ArrayList<>();
+    private ArchiveSegment mActiveSegment;
+    private ScheduledFuture<?> mQueueProcessorHandle;
+    private long mLastRetentionCheck;
+    private long mLastForce;
+
+    /**
+     * Constructs an instance
+     * @param userPreferences for archive directory, retention and duplicate call preferences
+     */
+    public CallArchive(UserPreferences userPreferences)
+    {
+        mUserPreferences = userPreferences;
+    }
+
+    /**
+     * Loads the existing archive segments and starts archiving.
+     */
+    public void start()
+    {
+        if(mQueueProcessorHandle == null)
+        {
+            synchronized(mSegments)
+            {
+                loadSegments();
+            }
+
+            mQueueProcessorHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(new QueueProcessor(),
+                0, 1, TimeUnit.SECONDS);
+            MyEventBus.getGlobalEventBus().register(this);
+        }
+    }
+
+    /**
+     * Stops archiving, archives any queued audio segments and pending decode events and seals the active segment.
+     */
+    public void stop()
+    {
+        if(mQueueProcessorHandle != null)
+        {
+            MyEventBus.getGlobalEventBus().unregister(this);
+            mQueueProcessorHandle.cancel(true);
+            mQueueProcessorHandle = null;
+
+            synchronized(mSegments)
+            {
+                processAudioSegments();
+                processDecodeEvents(true);
+                sealActiveSegment();
+            }
+
+            mEncodingAudioSegments.clear();
+        }
+    }
+
+    /**
+     * Indicates if archiving is enabled in the user preferences
+     */
+    private boolean isEnabled()
+    {
+        return mUserPreferences.getRecordPreference().isArchiveEnabled();
+    }
+
+    /**
+     * Directory for archive segment files
+     */
+    private Path getArchiveDirectory()
+    {
+        return mUserPreferences.getDirectoryPreference().getDirectoryArchive();
+    }
+
+    /**
+     * Primary receive method for incoming audio segments to be archived
+     */
+    @Override
+    public void receive(AudioSegment audioSegment)
+    {
+        if(isEnabled())
+        {
+            audioSegment.startMP3Encoding();
+            mEncodingAudioSegments.add(audioSegment);
+            audioSegment.completeProperty().addListener(new AudioSegmentCompletionMonitor(audioSegment));
+        }
+        else
+        {
+            audioSegment.decrementConsumerCount();
+        }
+    }
+
+    /**
+     * Listener for decode events to be archived
+     */
+    public Listener<IDecodeEvent> getDecodeEventListener()
+    {
+        return mDecodeEventListener;
+    }
+
+    /**
+     * Finds the archived records that match the query.
+     * @param query criteria
+     * @return matching records, ordered by timestamp and limited to the query limit
+     */
+    public List<ArchiveRecord> query(ArchiveQuery query)
+    {
+        List<ArchiveRecord> results = new ArrayList<>();
+
+        synchronized(mSegments)
+        {
+            List<ArchiveSegment> segments = new ArrayList<>(mSegments);
+
+            if(mActiveSegment != null)
+            {
+                segments.add(mActiveSegment);
+            }
+
+            for(ArchiveSegment segment: segments)
+            {
+                try
+                {
+                    segment.find(query, results);
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error querying archive segment [" + segment + "]", ioe);
+                }
+            }
+        }
+
+        results.sort(Comparator.comparingLong(ArchiveRecord::getTimestamp));
+
+        if(results.size() > query.getLimit())
+        {
+            return new ArrayList<>(results.subList(0, query.getLimit()));
+        }
+
+        return results;
+    }
+
+    /**
+     * Processes a request to export archived call audio.  The export runs on the thread pool so that the requester
+     * isn't blocked by the query and file writes.
+     * @param request to export
+     */
+    @Subscribe
+    public void process(ArchivedAudioExportRequest request)
+    {
+        ThreadPool.SCHEDULED.submit(() -> {
+            try
+            {
+                request.getResultListener().receive(export(request));
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error exporting archived call audio", t);
+            }
+        });
+    }
+
+    /**
+     * Queries the archive for the call audio records that overlap the requested call, restricted to the call's
+     * talkgroup when available, and writes the audio for each record to an MP3 file in the recordings directory.
+     * @param request to export
+     * @return paths to the exported files
+     */
+    private List<Path> export(ArchivedAudioExportRequest request)
+    {
+        //Extract the talkgroup using the same identifiers that are indexed for each archived record
+        ArchiveRecord criteria = new ArchiveRecord(ArchiveRecordType.AUDIO, request.getStart(), 0);
+        setIdentifiers(criteria, request.getIdentifierCollection());
+
+        ArchiveQuery query = new ArchiveQuery(request.getStart() - EXPORT_TIME_MARGIN_MS,
+            request.getEnd() + EXPORT_TIME_MARGIN_MS).setType(ArchiveRecordType.AUDIO);
+
+        if(criteria.getTalkgroup() != ArchiveRecord.NO_VALUE)
+        {
+            query.setTalkgroup(criteria.getTalkgroup());
+        }
+
+        List<Path> paths = new ArrayList<>();
+        Path directory = mUserPreferences.getDirectoryPreference().getDirectoryRecording();
+
+        for(ArchiveRecord record: query(query))
+        {
+            if(record.hasAudio())
+            {
+                Path path = directory.resolve(TimeStamp.getTimeStamp(record.getTimestamp(), "_") + "_ARCHIVE_" +
+                    record.getSegmentId() + "_" + record.getOffset() + ".mp3");
+
+                try
+                {
+                    Files.write(path, record.getAudio());
+                    paths.add(path);
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error exporting archived call audio to [" + path + "]", ioe);
+                }
+            }
+        }
+
+        return paths;
+    }
+
+    /**
+     * Processes audio segments that have been flagged as complete.
+     */
+    private void processCompletedAudioSegment(AudioSegment audioSegment)
+    {
+        if(audioSegment.hasAudio() && !(audioSegment.isDuplicate() &&
+            mUserPreferences.getDuplicateCallDetectionPreference().isDuplicateRecordingSuppressionEnabled()))
+        {
+            mCompletedAudioSegmentQueue.add(audioSegment);
+        }
+        else
+        {
+            audioSegment.decrementConsumerCount();
+        }
+    }
+
+    /**
+     * Loads the existing segment files from the archive directory.  Segments that were not sealed (e.g. application
+     * crash) are recovered by scanning.
+     */
+    private void loadSegments()
+    {
+        mSegments.clear();
+
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(getArchiveDirectory(),
+            ArchiveSegment.SEGMENT_PREFIX + "*" + ArchiveSegment.SEGMENT_EXTENSION))
+        {
+            for(Path path: stream)
+            {
+                try
+                {
+                    mSegments.add(ArchiveSegment.open(path));
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Unable to open archive segment [" + path + "] - " + ioe.getMessage());
+                }
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error loading call archive segments", ioe);
+        }
+
+        mSegments.sort(Comparator.comparingLong(ArchiveSegment::getId));
+        mLog.info("Call archive loaded [" + mSegments.size() + "] segments from [" + getArchiveDirectory() + "]");
+    }
+
+    /**
+     * Encodes any newly added audio for in-progress audio segments on the queue processor thread.  Completed audio
+     * segments are no longer tracked here and any remaining audio is encoded once the segment is archived.
+     */
+    private void encodeAudioSegments()
+    {
+        for(AudioSegment audioSegment: mEncodingAudioSegments)
+        {
+            if(audioSegment.completeProperty().get())
+            {
+                mEncodingAudioSegments.remove(audioSegment);
+            }
+            else
+            {
+                audioSegment.encodeMP3();
+            }
+        }
+    }
+
+    /**
+     * Archives any queued audio segments
+     */
+    private void processAudioSegments()
+    {
+        AudioSegment audioSegment = mCompletedAudioSegmentQueue.poll();
+
+        while(audioSegment != null)
+        {
+            try
+            {
+                ArchiveRecord record = new ArchiveRecord(ArchiveRecordType.AUDIO, audioSegment.getStartTimestamp(),
+                    audioSegment.getDuration());
+                setIdentifiers(record, audioSegment.getIdentifierCollection());
+                record.setAudio(audioSegment.getMP3Audio());
+                append(record);
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error archiving audio segment", e);
+            }
+
+            audioSegment.decrementConsumerCount();
+            audioSegment = mCompletedAudioSegmentQueue.poll();
+        }
+    }
+
+    /**
+     * Archives pending decode events that have not been updated within the settling period.
+     * @param flush to archive all pending events regardless of the settling period
+     */
+    private void processDecodeEvents(boolean flush)
+    {
+        long threshold = System.currentTimeMillis() - EVENT_SETTLING_PERIOD_MS;
+        Iterator<Map.Entry<IDecodeEvent,Long>> it = mPendingEvents.entrySet().iterator();
+
+        while(it.hasNext())
+        {
+            Map.Entry<IDecodeEvent,Long> entry = it.next();
+
+            if(flush || entry.getValue() < threshold)
+            {
+                it.remove();
+                IDecodeEvent event = entry.getKey();
+
+                ArchiveRecord record = new ArchiveRecord(ArchiveRecordType.EVENT, event.getTimeStart(),
+                    event.getDuration());
+                setIdentifiers(record, event.getIdentifierCollection());
+
+                if(event.getProtocol() != null)
+                {
+                    record.setProtocol(event.getProtocol().toString());
+                }
+
+                record.setDescription(event.getEventDescription());
+                record.setDetails(event.getDetails());
+                append(record);
+            }
+        }
+    }
+
+    /**
+     * Transfers the identifier values used for indexing and display to the record
+     */
+    private static void setIdentifiers(ArchiveRecord record, IdentifierCollection identifierCollection)
+    {
+        if(identifierCollection == null)
+        {
+            return;
+        }
+
+        Identifier system = identifierCollection.getIdentifier(IdentifierClass.CONFIGURATION, Form.SYSTEM, Role.ANY);
+
+        if(system != null)
+        {
+            record.setSystem(system.toString());
+        }
+
+        Identifier site = identifierCollection.getIdentifier(IdentifierClass.CONFIGURATION, Form.SITE, Role.ANY);
+
+        if(site != null)
+        {
+            record.setSite(site.toString());
+        }
+
+        Identifier channel = identifierCollection.getIdentifier(IdentifierClass.CONFIGURATION, Form.CHANNEL, Role.ANY);
+
+        if(channel != null)
+        {
+            record.setChannel(channel.toString());
+        }
+
+        Identifier talkgroup = identifierCollection.getIdentifier(IdentifierClass.USER, Form.TALKGROUP, Role.TO);
+
+        if(talkgroup instanceof IntegerIdentifier)
+        {
+            record.setTalkgroup(((IntegerIdentifier)talkgroup).getValue());
+        }
+
+        Identifier radio = identifierCollection.getIdentifier(IdentifierClass.USER, Form.RADIO, Role.FROM);
+
+        if(radio instanceof IntegerIdentifier)
+        {
+            record.setRadio(((IntegerIdentifier)radio).getValue());
+        }
+
+        List<Identifier> toIdentifiers = identifierCollection.getIdentifiers(Role.TO);
+
+        if(!toIdentifiers.isEmpty())
+        {
+            Identifier to = toIdentifiers.get(0);
+            record.setTo(to.toString());
+
+            if(to.getProtocol() != null)
+            {
+                record.setProtocol(to.getProtocol().toString());
+            }
+        }
+
+        for(Identifier from: identifierCollection.getIdentifiers(Role.FROM))
+        {
+            if(from.getForm() != Form.TONE)
+            {
+                record.setFrom(from.toString());
+                break;
+            }
+        }
+    }
+
+    /**
+     * Appends the record to the active segment, rolling over to a new segment when the active segment is full or
+     * has reached the maximum segment age.
+     */
+    private void append(ArchiveRecord record)
+    {
+        long now = System.currentTimeMillis();
+
+        if(mActiveSegment != null && now - mActiveSegment.getId() > SEGMENT_MAX_AGE_MS)
+        {
+            sealActiveSegment();
+        }
+
+        try
+        {
+            if(mActiveSegment == null)
+            {
+                mActiveSegment = createSegment(now);
+            }
+
+            if(!mActiveSegment.append(record))
+            {
+                if(mActiveSegment.isEmpty())
+                {
+                    mLog.warn("Call archive record exceeds the segment size and was not archived - " + record);
+                    return;
+                }
+
+                sealActiveSegment();
+                mActiveSegment = createSegment(now);
+
+                if(!mActiveSegment.append(record))
+                {
+                    mLog.warn("Call archive record exceeds the segment size and was not archived - " + record);
+                }
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error creating call archive segment", ioe);
+        }
+    }
+
+    /**
+     * Creates a new active segment with an identifier that is unique and later than any existing segment
+     */
+    private ArchiveSegment createSegment(long timestamp) throws IOException
+    {
+        long id = timestamp;
+
+        if(!mSegments.isEmpty())
+        {
+            id = Math.max(id, mSegments.get(mSegments.size() - 1).getId() + 1);
+        }
+
+        long capacity = mUserPreferences.getRecordPreference().getArchiveSegmentSizeMB() * MEGABYTE;
+        return ArchiveSegment.create(getArchiveDirectory(), id, (int)Math.min(capacity, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Seals the active segment and moves it to the sealed segments list
+     */
+    private void sealActiveSegment()
+    {
+        if(mActiveSegment != null)
+        {
+            mActiveSegment.seal();
+
+            if(mActiveSegment.isEmpty())
+            {
+                mActiveSegment.delete();
+            }
+            else
+            {
+                mSegments.add(mActiveSegment);
+            }
+
+            mActiveSegment = null;
+        }
+    }
+
+    /**
+     * Flushes the active segment's mapped records to disk at the force interval
+     */
+    private void processForce()
+    {
+        long now = System.currentTimeMillis();
+
+        if(mActiveSegment != null && now - mLastForce >= FORCE_INTERVAL_MS)
+        {
+            mLastForce = now;
+            mActiveSegment.force();
+        }
+    }
+
+    /**
+     * Deletes whole segments where the newest record is older than the retention period
+     */
+    private void processRetention()
+    {
+        long now = System.currentTimeMillis();
+
+        if(now - mLastRetentionCheck < RETENTION_CHECK_INTERVAL_MS)
+        {
+            return;
+        }
+
+        mLastRetentionCheck = now;
+        long threshold = now - TimeUnit.DAYS.toMillis(mUserPreferences.getRecordPreference().getArchiveRetentionDays());
+        Iterator<ArchiveSegment> it = mSegments.iterator();
+
+        while(it.hasNext())
+        {
+            ArchiveSegment segment = it.next();
+
+            if(segment.getLastTimestamp() < threshold)
+            {
+                mLog.info("Call archive retention - deleting segment [" + segment + "]");
+                segment.delete();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Receives decode events and tracks the most recent update time for each event
+     */
+    public class DecodeEventListener implements Listener<IDecodeEvent>
+    {
+        @Override
+        public void receive(IDecodeEvent decodeEvent)
+        {
+            if(mQueueProcessorHandle != null && isEnabled())
+            {
+                mPendingEvents.put(decodeEvent, System.currentTimeMillis());
+            }
+        }
+    }
+
+    /**
+     * Audio segment completion monitor.  Listens for the audio segment's complete flag to be set and then
+     * queues the audio segment for archiving.
+     */
+    public class AudioSegmentCompletionMonitor implements ChangeListener<Boolean>
+    {
+        private AudioSegment mAudioSegment;
+
+        public AudioSegmentCompletionMonitor(AudioSegment audioSegment)
+        {
+            mAudioSegment = audioSegment;
+        }
+
+        @Override
+        public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue)
+        {
+            mAudioSegment.completeProperty().removeListener(this);
+            processCompletedAudioSegment(mAudioSegment);
+        }
+    }
+
+    /**
+     * Threaded queue processor to encode in-progress audio segments and to archive completed audio segments and
+     * settled decode events
+     */
+    public class QueueProcessor implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                encodeAudioSegments();
+
+                synchronized(mSegments)
+                {
+                    processAudioSegments();
+                    processDecodeEvents(false);
+                    processForce();
+                    processRetention();
+                }
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while processing queued call archive records", t);
+            }
+        }
+    }
+}
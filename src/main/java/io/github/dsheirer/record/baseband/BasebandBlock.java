@@ -0,0 +1,230 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record.baseband;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Baseband recording sample block descriptor.  Each block of samples in a baseband recording is preceded by a block
+ * header that records the timestamp of the first sample frame, the tuned center frequency and sample rate, the
+ * number of sample frames, and the payload encoding and length.  The block index at the end of the file repeats each
+ * block header with the file offset of the block and the number of frames that precede it in the recording.
+ */
+public class BasebandBlock
+{
+    public static final int MAGIC = 0x4B4C4242; //BBLK little-endian
+    public static final int HEADER_LENGTH = 40;
+    public static final int INDEX_ENTRY_LENGTH = HEADER_LENGTH + 16;
+
+    public static final int ENCODING_RAW = 0;
+    public static final int ENCODING_DEFLATE = 1;
+
+    private long mOffset;
+    private long mFirstFrame;
+    private int mEncoding;
+    private long mTimestamp;
+    private long mCenterFrequency;
+    private double mSampleRate;
+    private int mFrameCount;
+    private int mPayloadLength;
+
+    /**
+     * Constructs an instance
+     * @param offset of the block header in the file
+     * @param firstFrame number of frames in the recording that precede this block
+     * @param encoding of the payload, ENCODING_RAW or ENCODING_DEFLATE
+     * @param timestamp of the first frame in the block in milliseconds
+     * @param centerFrequency of the samples in the block
+     * @param sampleRate of the samples in the block
+     * @param frameCount number of I/Q sample frames in the block
+     * @param payloadLength number of payload bytes that follow the block header
+     */
+    public BasebandBlock(long offset, long firstFrame, int encoding, long timestamp, long centerFrequency,
+                         double sampleRate, int frameCount, int payloadLength)
+    {
+        mOffset = offset;
+        mFirstFrame = firstFrame;
+        mEncoding = encoding;
+        mTimestamp = timestamp;
+        mCenterFrequency = centerFrequency;
+        mSampleRate = sampleRate;
+        mFrameCount = frameCount;
+        mPayloadLength = payloadLength;
+    }
+
+    /**
+     * File offset of the block header
+     */
+    public long getOffset()
+    {
+        return mOffset;
+    }
+
+    /**
+     * File offset of the block payload
+     */
+    public long getPayloadOffset()
+    {
+        return mOffset + HEADER_LENGTH;
+    }
+
+    /**
+     * Number of sample frames in the recording that precede this block
+     */
+    public long getFirstFrame()
+    {
+        return mFirstFrame;
+    }
+
+    /**
+     * Payload encoding, ENCODING_RAW or ENCODING_DEFLATE
+     */
+    public int getEncoding()
+    {
+        return mEncoding;
+    }
+
+    /**
+     * Timestamp of the first sample frame in the block in milliseconds
+     */
+    public long getTimestamp()
+    {
+        return mTimestamp;
+    }
+
+    /**
+     * Timestamp of the sample frame in milliseconds
+     * @param frame location in the recording
+     */
+    public long getTimestamp(long frame)
+    {
+        return mTimestamp + Math.round((frame - mFirstFrame) * 1000.0 / mSampleRate);
+    }
+
+    /**
+     * Tuned center frequency of the samples in the block
+     */
+    public long getCenterFrequency()
+    {
+        return mCenterFrequency;
+    }
+
+    /**
+     * Sample rate of the samples in the block
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Number of I/Q sample frames in the block
+     */
+    public int getFrameCount()
+    {
+        return mFrameCount;
+    }
+
+    /**
+     * Number of payload bytes that follow the block header
+     */
+    public int getPayloadLength()
+    {
+        return mPayloadLength;
+    }
+
+    /**
+     * Indicates if this block contains the frame
+     */
+    public boolean contains(long frame)
+    {
+        return mFirstFrame <= frame && frame < mFirstFrame + mFrameCount;
+    }
+
+    /**
+     * Writes the block header to the little-endian buffer
+     */
+    public void writeHeader(ByteBuffer buffer)
+    {
+        buffer.putInt(MAGIC);
+        buffer.put((byte)mEncoding);
+        buffer.put((byte)0);
+        buffer.putShort((short)0);
+        buffer.putLong(mTimestamp);
+        buffer.putLong(mCenterFrequency);
+        buffer.putDouble(mSampleRate);
+        buffer.putInt(mFrameCount);
+        buffer.putInt(mPayloadLength);
+    }
+
+    /**
+     * Writes the block index entry to the little-endian buffer
+     */
+    public void writeIndexEntry(ByteBuffer buffer)
+    {
+        buffer.putLong(mOffset);
+        buffer.putLong(mFirstFrame);
+        writeHeader(buffer);
+    }
+
+    /**
+     * Reads a block header from the little-endian buffer
+     * @param buffer positioned at the start of the block header
+     * @param offset of the block header in the file
+     * @param firstFrame number of frames in the recording that precede the block
+     * @return block or null if the buffer does not contain a valid block header
+     */
+    public static BasebandBlock readHeader(ByteBuffer buffer, long offset, long firstFrame)
+    {
+        if(buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC)
+        {
+            return null;
+        }
+
+        int encoding = buffer.get();
+        buffer.get();
+        buffer.getShort();
+        long timestamp = buffer.getLong();
+        long centerFrequency = buffer.getLong();
+        double sampleRate = buffer.getDouble();
+        int frameCount = buffer.getInt();
+        int payloadLength = buffer.getInt();
+
+        if(frameCount < 0 || payloadLength < 0 || sampleRate <= 0.0 ||
+            (encoding != ENCODING_RAW && encoding != ENCODING_DEFLATE))
+        {
+            return null;
+        }
+
+        return new BasebandBlock(offset, firstFrame, encoding, timestamp, centerFrequency, sampleRate, frameCount,
+            payloadLength);
+    }
+
+    /**
+     * Reads a block index entry from the little-endian buffer
+     * @return block or null if the index entry is not valid
+     */
+    public static BasebandBlock readIndexEntry(ByteBuffer buffer)
+    {
+        long offset = buffer.getLong();
+        long firstFrame = buffer.getLong();
+        return readHeader(buffer, offset, firstFrame);
+    }
+}
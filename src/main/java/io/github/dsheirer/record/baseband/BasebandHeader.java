@@ -0,0 +1,215 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record.baseband;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Baseband recording file header.  All values are little-endian.
+ *
+ * Magic (4) | Version (2) | Sample Format (1) | Flags (1) | Sample Rate (8) | Start Timestamp (8) |
+ * Index Offset (8) | Metadata Length (4) | Metadata (UTF-8)
+ *
+ * The index offset is zero until the recording is closed and the block index is written to the end of the file.
+ */
+public class BasebandHeader
+{
+    public static final String FILE_EXTENSION = ".bbr";
+    public static final int MAGIC = 0x52424453; //SDBR little-endian
+    public static final int VERSION = 1;
+    public static final int FIXED_LENGTH = 36;
+    public static final int INDEX_OFFSET_POSITION = 24;
+    public static final int INDEX_MAGIC = 0x58444942; //BIDX little-endian
+    private static final int FLAG_COMPRESSED = 0x01;
+    private static final int MAX_METADATA_LENGTH = 65536;
+
+    private BasebandSampleFormat mSampleFormat;
+    private boolean mCompressed;
+    private double mSampleRate;
+    private long mStartTimestamp;
+    private long mIndexOffset;
+    private String mMetadata;
+
+    /**
+     * Constructs an instance
+     * @param sampleFormat of the sample data
+     * @param compressed to indicate that sample blocks may be losslessly compressed
+     * @param sampleRate at the start of the recording
+     * @param startTimestamp of the recording in milliseconds
+     * @param metadata describing the recording, for example the channel configuration
+     */
+    public BasebandHeader(BasebandSampleFormat sampleFormat, boolean compressed, double sampleRate, long startTimestamp,
+                          String metadata)
+    {
+        mSampleFormat = sampleFormat;
+        mCompressed = compressed;
+        mSampleRate = sampleRate;
+        mStartTimestamp = startTimestamp;
+        mMetadata = metadata != null ? metadata : "";
+
+        //Constrain the metadata so that the encoded length (up to 4 bytes per character) doesn't exceed the maximum
+        if(mMetadata.length() > MAX_METADATA_LENGTH / 4)
+        {
+            mMetadata = mMetadata.substring(0, MAX_METADATA_LENGTH / 4);
+        }
+    }
+
+    public BasebandSampleFormat getSampleFormat()
+    {
+        return mSampleFormat;
+    }
+
+    /**
+     * Indicates if sample blocks may be losslessly compressed
+     */
+    public boolean isCompressed()
+    {
+        return mCompressed;
+    }
+
+    /**
+     * Sample rate at the start of the recording
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Recording start timestamp in milliseconds
+     */
+    public long getStartTimestamp()
+    {
+        return mStartTimestamp;
+    }
+
+    /**
+     * File offset of the block index, or zero if the recording was not closed normally
+     */
+    public long getIndexOffset()
+    {
+        return mIndexOffset;
+    }
+
+    /**
+     * Recording metadata
+     */
+    public String getMetadata()
+    {
+        return mMetadata;
+    }
+
+    /**
+     * File offset of the first sample block
+     */
+    public long getFirstBlockOffset()
+    {
+        return FIXED_LENGTH + mMetadata.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Creates a little-endian buffer containing the header, ready for writing
+     */
+    public ByteBuffer toByteBuffer()
+    {
+        byte[] metadata = mMetadata.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_LENGTH + metadata.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putShort((short)VERSION);
+        buffer.put((byte)mSampleFormat.getValue());
+        buffer.put((byte)(mCompressed ? FLAG_COMPRESSED : 0));
+        buffer.putDouble(mSampleRate);
+        buffer.putLong(mStartTimestamp);
+        buffer.putLong(mIndexOffset);
+        buffer.putInt(metadata.length);
+        buffer.put(metadata);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Reads the header from the start of the file channel
+     * @throws IOException if the file is not a baseband recording or the version is not supported
+     */
+    public static BasebandHeader read(FileChannel fileChannel) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+
+        while(buffer.hasRemaining())
+        {
+            if(fileChannel.read(buffer, buffer.position()) < 0)
+            {
+                throw new IOException("Not a baseband recording - file is too short");
+            }
+        }
+
+        buffer.flip();
+
+        if(buffer.getInt() != MAGIC)
+        {
+            throw new IOException("Not a baseband recording");
+        }
+
+        int version = buffer.getShort();
+
+        if(version != VERSION)
+        {
+            throw new IOException("Unsupported baseband recording version [" + version + "]");
+        }
+
+        BasebandSampleFormat sampleFormat = BasebandSampleFormat.fromValue(buffer.get());
+
+        if(sampleFormat == null)
+        {
+            throw new IOException("Unsupported baseband recording sample format");
+        }
+
+        boolean compressed = (buffer.get() & FLAG_COMPRESSED) == FLAG_COMPRESSED;
+        double sampleRate = buffer.getDouble();
+        long startTimestamp = buffer.getLong();
+        long indexOffset = buffer.getLong();
+        int metadataLength = buffer.getInt();
+
+        if(metadataLength < 0 || metadataLength > MAX_METADATA_LENGTH)
+        {
+            throw new IOException("Invalid baseband recording metadata length [" + metadataLength + "]");
+        }
+
+        ByteBuffer metadataBuffer = ByteBuffer.allocate(metadataLength);
+
+        while(metadataBuffer.hasRemaining())
+        {
+            if(fileChannel.read(metadataBuffer, FIXED_LENGTH + metadataBuffer.position()) < 0)
+            {
+                throw new IOException("Baseband recording metadata is truncated");
+            }
+        }
+
+        String metadata = new String(metadataBuffer.array(), StandardCharsets.UTF_8);
+
+        BasebandHeader header = new BasebandHeader(sampleFormat, compressed, sampleRate, startTimestamp, metadata);
+        header.mIndexOffset = indexOffset;
+        return header;
+    }
+}
@@ -0,0 +1,518 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record.baseband;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Baseband recording reader.  Loads the block index from the end of the file, or scans the block headers when the
+ * recording was not closed normally, and provides random access to the sample frames by frame location or by
+ * timestamp.  The most recently decoded block is cached so that sequential reads decode each block once.
+ *
+ * This class is not thread safe.
+ */
+public class BasebandReader implements AutoCloseable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(BasebandReader.class);
+
+    private FileChannel mFileChannel;
+    private File mFile;
+    private BasebandHeader mHeader;
+    private List<BasebandBlock> mBlocks;
+    private long mFrameCount;
+    private Inflater mInflater = new Inflater(true);
+    private ByteBuffer mPayloadBuffer = ByteBuffer.allocateDirect(0);
+    private ByteBuffer mSampleBuffer = ByteBuffer.allocateDirect(0);
+    private float[] mDecodedSamples = new float[0];
+    private BasebandBlock mDecodedBlock;
+
+    /**
+     * Constructs an instance and opens the recording
+     * @param file containing a baseband recording
+     * @throws IOException if the file is not a valid baseband recording
+     */
+    public BasebandReader(File file) throws IOException
+    {
+        mFile = file;
+        mFileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+        try
+        {
+            mHeader = BasebandHeader.read(mFileChannel);
+            mBlocks = readIndex();
+
+            if(mBlocks == null)
+            {
+                mBlocks = scanBlocks();
+            }
+        }
+        catch(IOException ioe)
+        {
+            mFileChannel.close();
+            throw ioe;
+        }
+
+        if(!mBlocks.isEmpty())
+        {
+            BasebandBlock last = mBlocks.get(mBlocks.size() - 1);
+            mFrameCount = last.getFirstFrame() + last.getFrameCount();
+        }
+    }
+
+    /**
+     * Recording file
+     */
+    public File getFile()
+    {
+        return mFile;
+    }
+
+    /**
+     * Recording file header
+     */
+    public BasebandHeader getHeader()
+    {
+        return mHeader;
+    }
+
+    /**
+     * Unmodifiable list of sample blocks in the recording
+     */
+    public List<BasebandBlock> getBlocks()
+    {
+        return Collections.unmodifiableList(mBlocks);
+    }
+
+    /**
+     * Total number of sample frames in the recording
+     */
+    public long getFrameCount()
+    {
+        return mFrameCount;
+    }
+
+    /**
+     * Sample rate of the first block in the recording, or the header sample rate if the recording is empty
+     */
+    public double getSampleRate()
+    {
+        return mBlocks.isEmpty() ? mHeader.getSampleRate() : mBlocks.get(0).getSampleRate();
+    }
+
+    /**
+     * Timestamp of the first sample frame in milliseconds
+     */
+    public long getStartTimestamp()
+    {
+        return mBlocks.isEmpty() ? mHeader.getStartTimestamp() : mBlocks.get(0).getTimestamp();
+    }
+
+    /**
+     * Timestamp of the sample frame in milliseconds
+     */
+    public long getTimestamp(long frame)
+    {
+        BasebandBlock block = getBlock(frame);
+        return block != null ? block.getTimestamp(frame) : mHeader.getStartTimestamp();
+    }
+
+    /**
+     * Tuned center frequency of the sample frame, or zero if unknown
+     */
+    public long getCenterFrequency(long frame)
+    {
+        BasebandBlock block = getBlock(frame);
+        return block != null ? block.getCenterFrequency() : 0;
+    }
+
+    /**
+     * Block that contains the frame.  Frame values outside of the recording are constrained to the first or last
+     * block.
+     * @return block or null if the recording is empty
+     */
+    public BasebandBlock getBlock(long frame)
+    {
+        if(mBlocks.isEmpty())
+        {
+            return null;
+        }
+
+        int low = 0;
+        int high = mBlocks.size() - 1;
+
+        while(low < high)
+        {
+            int mid = (low + high + 1) >>> 1;
+
+            if(mBlocks.get(mid).getFirstFrame() <= frame)
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+
+        return mBlocks.get(low);
+    }
+
+    /**
+     * Frame location that corresponds to the timestamp.  Timestamps that fall in a gap between blocks resolve to the
+     * first frame of the following block.
+     * @param timestamp in milliseconds
+     * @return frame location constrained to the recording
+     */
+    public long getFrame(long timestamp)
+    {
+        if(mBlocks.isEmpty())
+        {
+            return 0;
+        }
+
+        int low = 0;
+        int high = mBlocks.size() - 1;
+
+        while(low < high)
+        {
+            int mid = (low + high + 1) >>> 1;
+
+            if(mBlocks.get(mid).getTimestamp() <= timestamp)
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+
+        BasebandBlock block = mBlocks.get(low);
+        long offset = Math.round((timestamp - block.getTimestamp()) * block.getSampleRate() / 1000.0);
+
+        if(offset < 0)
+        {
+            return block.getFirstFrame();
+        }
+
+        if(offset >= block.getFrameCount())
+        {
+            return block.getFirstFrame() + block.getFrameCount();
+        }
+
+        return block.getFirstFrame() + offset;
+    }
+
+    /**
+     * Reads the sample frames as interleaved I/Q float samples
+     *
+     * @param samples array to receive the samples
+     * @param offset into the samples array
+     * @param frame location of the first frame to read
+     * @param frames to read
+     * @throws IOException if the requested frames are outside of the recording or there is an error reading the file
+     */
+    public void read(float[] samples, int offset, long frame, int frames) throws IOException
+    {
+        if(frame < 0 || frame + frames > mFrameCount)
+        {
+            throw new IOException("Requested frames are outside of the recording");
+        }
+
+        while(frames > 0)
+        {
+            BasebandBlock block = getBlock(frame);
+            decode(block);
+
+            int blockOffset = (int)(frame - block.getFirstFrame());
+            int count = Math.min(frames, block.getFrameCount() - blockOffset);
+            System.arraycopy(mDecodedSamples, blockOffset * 2, samples, offset, count * 2);
+
+            offset += count * 2;
+            frame += count;
+            frames -= count;
+        }
+    }
+
+    /**
+     * Decodes the block samples into the decoded samples array, if the block is not already decoded
+     */
+    private void decode(BasebandBlock block) throws IOException
+    {
+        if(block == mDecodedBlock)
+        {
+            return;
+        }
+
+        mDecodedBlock = null;
+
+        BasebandSampleFormat sampleFormat = mHeader.getSampleFormat();
+        int sampleLength = block.getFrameCount() * sampleFormat.getBytesPerFrame();
+
+        if(mPayloadBuffer.capacity() < block.getPayloadLength())
+        {
+            mPayloadBuffer = ByteBuffer.allocateDirect(block.getPayloadLength()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        if(mSampleBuffer.capacity() < sampleLength)
+        {
+            mSampleBuffer = ByteBuffer.allocateDirect(sampleLength).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        if(mDecodedSamples.length < block.getFrameCount() * 2)
+        {
+            mDecodedSamples = new float[block.getFrameCount() * 2];
+        }
+
+        mPayloadBuffer.clear().limit(block.getPayloadLength());
+        read(mPayloadBuffer, block.getPayloadOffset());
+        mPayloadBuffer.flip();
+
+        ByteBuffer samples;
+
+        if(block.getEncoding() == BasebandBlock.ENCODING_DEFLATE)
+        {
+            mSampleBuffer.clear().limit(sampleLength);
+            inflate(mPayloadBuffer, mSampleBuffer);
+            mSampleBuffer.flip();
+            samples = mSampleBuffer;
+        }
+        else
+        {
+            if(block.getPayloadLength() != sampleLength)
+            {
+                throw new IOException("Invalid baseband block payload length");
+            }
+
+            samples = mPayloadBuffer;
+        }
+
+        float scale = 1.0f / sampleFormat.getScale();
+        int count = block.getFrameCount() * 2;
+
+        if(sampleFormat == BasebandSampleFormat.INT16)
+        {
+            if(block.getEncoding() == BasebandBlock.ENCODING_DEFLATE)
+            {
+                //Compressed 16-bit samples are stored as a plane of low order bytes followed by high order bytes
+                for(int x = 0; x < count; x++)
+                {
+                    mDecodedSamples[x] = (short)((samples.get(x) & 0xFF) | (samples.get(count + x) << 8)) * scale;
+                }
+            }
+            else
+            {
+                for(int x = 0; x < count; x++)
+                {
+                    mDecodedSamples[x] = samples.getShort(x * 2) * scale;
+                }
+            }
+        }
+        else
+        {
+            for(int x = 0; x < count; x++)
+            {
+                mDecodedSamples[x] = samples.get(x) * scale;
+            }
+        }
+
+        mDecodedBlock = block;
+    }
+
+    /**
+     * Decompresses the payload into the samples buffer
+     */
+    private void inflate(ByteBuffer payload, ByteBuffer samples) throws IOException
+    {
+        mInflater.reset();
+        mInflater.setInput(payload);
+
+        try
+        {
+            while(samples.hasRemaining() && !mInflater.finished())
+            {
+                if(mInflater.inflate(samples) == 0 && (mInflater.needsInput() || mInflater.needsDictionary()))
+                {
+                    break;
+                }
+            }
+        }
+        catch(DataFormatException dfe)
+        {
+            throw new IOException("Invalid compressed baseband block", dfe);
+        }
+
+        if(samples.hasRemaining())
+        {
+            throw new IOException("Compressed baseband block is truncated");
+        }
+    }
+
+    /**
+     * Fills the buffer from the file starting at the position
+     */
+    private void read(ByteBuffer buffer, long position) throws IOException
+    {
+        while(buffer.hasRemaining())
+        {
+            int read = mFileChannel.read(buffer, position);
+
+            if(read < 0)
+            {
+                throw new IOException("Unexpected end of baseband recording");
+            }
+
+            position += read;
+        }
+    }
+
+    /**
+     * Reads the block index from the end of the recording
+     * @return blocks or null if the recording doesn't have a valid index
+     */
+    private List<BasebandBlock> readIndex() throws IOException
+    {
+        long indexOffset = mHeader.getIndexOffset();
+
+        if(indexOffset <= 0 || indexOffset + 8 > mFileChannel.size())
+        {
+            return null;
+        }
+
+        ByteBuffer countBuffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        read(countBuffer, indexOffset);
+        countBuffer.flip();
+
+        if(countBuffer.getInt() != BasebandHeader.INDEX_MAGIC)
+        {
+            return null;
+        }
+
+        int count = countBuffer.getInt();
+        long length = (long)count * BasebandBlock.INDEX_ENTRY_LENGTH;
+
+        if(count < 0 || indexOffset + 8 + length > mFileChannel.size())
+        {
+            return null;
+        }
+
+        ByteBuffer index = ByteBuffer.allocate((int)length).order(ByteOrder.LITTLE_ENDIAN);
+        read(index, indexOffset + 8);
+        index.flip();
+
+        List<BasebandBlock> blocks = new ArrayList<>(count);
+
+        for(int x = 0; x < count; x++)
+        {
+            BasebandBlock block = BasebandBlock.readIndexEntry(index);
+
+            if(block == null)
+            {
+                return null;
+            }
+
+            blocks.add(block);
+        }
+
+        return blocks;
+    }
+
+    /**
+     * Scans the block headers from the start of the recording to recover the block index of a recording that was
+     * not closed normally.  Scanning stops at the first invalid or truncated block.
+     */
+    private List<BasebandBlock> scanBlocks() throws IOException
+    {
+        mLog.info("Baseband recording [" + mFile.getName() + "] has no block index - scanning sample blocks");
+
+        List<BasebandBlock> blocks = new ArrayList<>();
+        ByteBuffer headerBuffer = ByteBuffer.allocate(BasebandBlock.HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        long size = mFileChannel.size();
+        long offset = mHeader.getFirstBlockOffset();
+        long firstFrame = 0;
+
+        while(offset + BasebandBlock.HEADER_LENGTH <= size)
+        {
+            headerBuffer.clear();
+            read(headerBuffer, offset);
+            headerBuffer.flip();
+
+            BasebandBlock block = BasebandBlock.readHeader(headerBuffer, offset, firstFrame);
+
+            if(block == null || block.getPayloadOffset() + block.getPayloadLength() > size)
+            {
+                break;
+            }
+
+            blocks.add(block);
+            firstFrame += block.getFrameCount();
+            offset = block.getPayloadOffset() + block.getPayloadLength();
+        }
+
+        return blocks;
+    }
+
+    /**
+     * Closes the recording
+     */
+    @Override
+    public void close() throws IOException
+    {
+        mInflater.end();
+        mDecodedBlock = null;
+        mFileChannel.close();
+    }
+
+    /**
+     * Indicates if the file is a baseband recording
+     */
+    public static boolean supports(File file)
+    {
+        if(file == null || !file.exists())
+        {
+            return false;
+        }
+
+        try(FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            BasebandHeader.read(fileChannel);
+            return true;
+        }
+        catch(Exception e)
+        {
+            //Do nothing, we'll return a default of false
+        }
+
+        return false;
+    }
+}
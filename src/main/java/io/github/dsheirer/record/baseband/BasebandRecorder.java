@@ -0,0 +1,229 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record.baseband;
+
+import io.github.dsheirer.dsp.filter.channelizer.ContinuousReusableBufferProcessor;
+import io.github.dsheirer.record.AbstractBasebandRecorder;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.util.ThreadPool;
+import io.github.dsheirer.util.TimeStamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Baseband recorder module for recording complex (I&Q) samples to a baseband recording (.bbr) file with 8-bit or
+ * 16-bit samples, optional lossless block compression, per-block timestamps and center frequency, and a block index.
+ *
+ * Sample buffers are queued and written on the buffer processor thread.  Sample rate and frequency changes are
+ * applied to the recording on the buffer processor thread ahead of the next queued buffers.
+ */
+public class BasebandRecorder extends AbstractBasebandRecorder
+{
+    private final static Logger mLog = LoggerFactory.getLogger(BasebandRecorder.class);
+
+    private ContinuousReusableBufferProcessor<ReusableComplexBuffer> mBufferProcessor =
+        new ContinuousReusableBufferProcessor<>(500, 50);
+
+    private AtomicBoolean mRunning = new AtomicBoolean();
+    private BufferWriter mWriter;
+    private String mFilePrefix;
+    private BasebandSampleFormat mSampleFormat;
+    private boolean mCompress;
+    private String mMetadata;
+    private Path mFile;
+    private volatile float mSampleRate;
+    private volatile long mFrequency;
+
+    /**
+     * Constructs an instance
+     * @param sampleRate of the samples
+     * @param filePrefix for the recording file, including the directory path
+     * @param sampleFormat for the recorded samples
+     * @param compress to enable lossless block compression
+     * @param metadata to store in the recording header, for example the channel name
+     */
+    public BasebandRecorder(float sampleRate, String filePrefix, BasebandSampleFormat sampleFormat, boolean compress,
+                            String metadata)
+    {
+        mSampleRate = sampleRate;
+        mFilePrefix = filePrefix;
+        mSampleFormat = sampleFormat;
+        mCompress = compress;
+        mMetadata = metadata;
+    }
+
+    @Override
+    public void setSampleRate(float sampleRate)
+    {
+        mSampleRate = sampleRate;
+    }
+
+    @Override
+    public void setFrequency(long frequency)
+    {
+        mFrequency = frequency;
+    }
+
+    @Override
+    public Path getFile()
+    {
+        return mFile;
+    }
+
+    @Override
+    public void start()
+    {
+        if(mRunning.compareAndSet(false, true))
+        {
+            try
+            {
+                StringBuilder sb = new StringBuilder();
+                sb.append(mFilePrefix);
+                sb.append("_");
+                sb.append(TimeStamp.getTimeStamp("_"));
+                sb.append(BasebandHeader.FILE_EXTENSION);
+                mFile = Paths.get(sb.toString());
+
+                mWriter = new BufferWriter(new BasebandWriter(mFile, mSampleFormat, mCompress, mSampleRate,
+                    mFrequency, mMetadata));
+
+                mBufferProcessor.setListener(mWriter);
+                mBufferProcessor.start();
+            }
+            catch(IOException io)
+            {
+                mLog.error("Error starting baseband recorder", io);
+                mRunning.set(false);
+            }
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        if(mRunning.compareAndSet(true, false))
+        {
+            if(mBufferProcessor != null)
+            {
+                mBufferProcessor.stop();
+                mBufferProcessor.setListener(null);
+            }
+
+            if(mWriter != null)
+            {
+                BufferWriter writer = mWriter;
+                mWriter = null;
+
+                //Thread this operation so that it doesn't tie up the calling thread while the block index is written
+                ThreadPool.SCHEDULED.schedule(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        writer.close();
+                    }
+                }, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void receive(ReusableComplexBuffer buffer)
+    {
+        //Queue the buffer with the buffer processor so that recording occurs on the buffer processor thread
+        mBufferProcessor.receive(buffer);
+    }
+
+    /**
+     * Baseband writer adapter for reusable complex buffers delivered from the buffer processor
+     */
+    public class BufferWriter implements Listener<List<ReusableComplexBuffer>>
+    {
+        private BasebandWriter mBasebandWriter;
+        private boolean mError;
+
+        public BufferWriter(BasebandWriter basebandWriter)
+        {
+            mBasebandWriter = basebandWriter;
+        }
+
+        @Override
+        public synchronized void receive(List<ReusableComplexBuffer> reusableComplexBuffers)
+        {
+            if(!mError)
+            {
+                try
+                {
+                    mBasebandWriter.setSampleRate(mSampleRate);
+                    mBasebandWriter.setCenterFrequency(mFrequency);
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("IOException while writing I/Q buffers to baseband recorder - stopping recorder", ioe);
+                    mError = true;
+                    stop();
+                }
+            }
+
+            for(ReusableComplexBuffer reusableComplexBuffer: reusableComplexBuffers)
+            {
+                if(!mError)
+                {
+                    try
+                    {
+                        mBasebandWriter.write(reusableComplexBuffer.getSamples(), reusableComplexBuffer.getTimestamp());
+                    }
+                    catch(IOException ioe)
+                    {
+                        mLog.error("IOException while writing I/Q buffers to baseband recorder - stopping recorder",
+                            ioe);
+                        mError = true;
+                        stop();
+                    }
+                }
+
+                reusableComplexBuffer.decrementUserCount();
+            }
+        }
+
+        /**
+         * Closes the baseband writer
+         */
+        public synchronized void close()
+        {
+            try
+            {
+                mBasebandWriter.close();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing baseband recorder", ioe);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record.baseband;
+
+/**
+ * Sample formats for baseband recording I/Q sample data.  Samples are signed, little-endian, and interleaved I/Q.
+ */
+public enum BasebandSampleFormat
+{
+    INT8(1, 1, Byte.MAX_VALUE),
+    INT16(2, 2, Short.MAX_VALUE);
+
+    private int mValue;
+    private int mBytesPerSample;
+    private float mScale;
+
+    BasebandSampleFormat(int value, int bytesPerSample, float scale)
+    {
+        mValue = value;
+        mBytesPerSample = bytesPerSample;
+        mScale = scale;
+    }
+
+    /**
+     * Value stored in the file header to identify the sample format
+     */
+    public int getValue()
+    {
+        return mValue;
+    }
+
+    /**
+     * Bytes per I or Q sample
+     */
+    public int getBytesPerSample()
+    {
+        return mBytesPerSample;
+    }
+
+    /**
+     * Bytes per I/Q sample frame
+     */
+    public int getBytesPerFrame()
+    {
+        return mBytesPerSample * 2;
+    }
+
+    /**
+     * Scale between float samples (-1.0 to 1.0) and integer samples
+     */
+    public float getScale()
+    {
+        return mScale;
+    }
+
+    /**
+     * Lookup the sample format from the header value
+     * @return format or null if the value is not recognized
+     */
+    public static BasebandSampleFormat fromValue(int value)
+    {
+        for(BasebandSampleFormat format: values())
+        {
+            if(format.getValue() == value)
+            {
+                return format;
+            }
+        }
+
+        return null;
+    }
+}
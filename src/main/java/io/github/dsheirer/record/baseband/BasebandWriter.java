@@ -0,0 +1,425 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record.baseband;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Baseband recording writer.  Converts complex float sample buffers to 8-bit or 16-bit interleaved I/Q samples and
+ * coalesces the samples into blocks of up to MAX_BLOCK_FRAMES frames.  Each block is written with a header that
+ * records the block timestamp, tuned center frequency and sample rate.  A new block is started whenever the center
+ * frequency or sample rate changes or when the sample timestamps are not continuous.  When compression is enabled,
+ * each block is losslessly compressed and the block is stored uncompressed if compression doesn't reduce the size.
+ *
+ * Sample conversion, compression and file writes use direct byte buffers to avoid intermediate array copies.  The
+ * block index is written to the end of the file when the writer is closed.  Recordings that are not closed normally
+ * can still be read by scanning the block headers.
+ *
+ * This class is not thread safe.  Recorders should access the writer from a single buffer processing thread.
+ */
+public class BasebandWriter implements AutoCloseable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(BasebandWriter.class);
+
+    public static final int MAX_BLOCK_FRAMES = 32768;
+    private static final long TIMESTAMP_TOLERANCE_MILLISECONDS = 2;
+
+    private FileChannel mFileChannel;
+    private Path mPath;
+    private BasebandHeader mHeader;
+    private BasebandSampleFormat mSampleFormat;
+    private Deflater mDeflater;
+    private ByteBuffer mBlockHeaderBuffer = ByteBuffer.allocateDirect(BasebandBlock.HEADER_LENGTH)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer mSampleBuffer;
+    private ByteBuffer mShuffleBuffer;
+    private ByteBuffer mCompressedBuffer;
+    private ByteBuffer[] mWriteBuffers = new ByteBuffer[2];
+    private List<BasebandBlock> mBlocks = new ArrayList<>();
+    private long mFilePosition;
+    private long mFrameCount;
+    private long mBlockTimestamp;
+    private int mBlockFrameCount;
+    private long mCenterFrequency;
+    private double mSampleRate;
+    private long mBytesWritten;
+
+    /**
+     * Constructs an instance and creates the recording file.
+     *
+     * @param path for the recording file
+     * @param sampleFormat for the recorded samples
+     * @param compress to enable lossless block compression
+     * @param sampleRate of the samples
+     * @param centerFrequency of the samples, or zero if unknown
+     * @param metadata describing the recording, for example the channel name and configuration
+     * @throws IOException if the file can't be created
+     */
+    public BasebandWriter(Path path, BasebandSampleFormat sampleFormat, boolean compress, double sampleRate,
+                          long centerFrequency, String metadata) throws IOException
+    {
+        mPath = path;
+        mSampleFormat = sampleFormat;
+        mSampleRate = sampleRate;
+        mCenterFrequency = centerFrequency;
+        mHeader = new BasebandHeader(sampleFormat, compress, sampleRate, System.currentTimeMillis(), metadata);
+
+        int blockSize = MAX_BLOCK_FRAMES * sampleFormat.getBytesPerFrame();
+        mSampleBuffer = ByteBuffer.allocateDirect(blockSize).order(ByteOrder.LITTLE_ENDIAN);
+
+        if(compress)
+        {
+            mDeflater = new Deflater(Deflater.BEST_SPEED, true);
+            mShuffleBuffer = ByteBuffer.allocateDirect(blockSize);
+            mCompressedBuffer = ByteBuffer.allocateDirect(blockSize);
+        }
+
+        mFileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+        mFilePosition = write(mHeader.toByteBuffer());
+    }
+
+    /**
+     * Path to the recording file
+     */
+    public Path getPath()
+    {
+        return mPath;
+    }
+
+    /**
+     * Total number of sample frames written or pending in the current block
+     */
+    public long getFrameCount()
+    {
+        return mFrameCount + mBlockFrameCount;
+    }
+
+    /**
+     * Number of sample bytes written to the file, excluding headers and index
+     */
+    public long getBytesWritten()
+    {
+        return mBytesWritten;
+    }
+
+    /**
+     * Sets the tuned center frequency for subsequent samples.  Completes the current block when the frequency changes.
+     */
+    public void setCenterFrequency(long frequency) throws IOException
+    {
+        if(mCenterFrequency != frequency)
+        {
+            flush();
+            mCenterFrequency = frequency;
+        }
+    }
+
+    /**
+     * Sets the sample rate for subsequent samples.  Completes the current block when the sample rate changes.
+     */
+    public void setSampleRate(double sampleRate) throws IOException
+    {
+        if(mSampleRate != sampleRate)
+        {
+            flush();
+            mSampleRate = sampleRate;
+        }
+    }
+
+    /**
+     * Writes the interleaved complex samples to the recording.
+     *
+     * @param samples interleaved I/Q samples in the range -1.0 to 1.0.  Values outside the range are clipped.
+     * @param timestamp of the first sample frame in milliseconds
+     * @throws IOException if there is an error writing to the file
+     */
+    public void write(float[] samples, long timestamp) throws IOException
+    {
+        if(mFileChannel == null)
+        {
+            throw new IOException("Baseband writer is closed");
+        }
+
+        int frames = samples.length / 2;
+
+        //Start a new block if this buffer isn't contiguous with the samples in the current block
+        if(mBlockFrameCount > 0 &&
+            Math.abs(getBlockTimestamp(mBlockFrameCount) - timestamp) > TIMESTAMP_TOLERANCE_MILLISECONDS)
+        {
+            flush();
+        }
+
+        int offset = 0;
+
+        while(offset < frames)
+        {
+            if(mBlockFrameCount == 0)
+            {
+                mBlockTimestamp = timestamp + Math.round(offset * 1000.0 / mSampleRate);
+            }
+
+            int count = Math.min(frames - offset, MAX_BLOCK_FRAMES - mBlockFrameCount);
+            convert(samples, offset * 2, count * 2);
+            mBlockFrameCount += count;
+            offset += count;
+
+            if(mBlockFrameCount == MAX_BLOCK_FRAMES)
+            {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Timestamp of the frame offset in the current block
+     */
+    private long getBlockTimestamp(int frameOffset)
+    {
+        return mBlockTimestamp + Math.round(frameOffset * 1000.0 / mSampleRate);
+    }
+
+    /**
+     * Converts the float samples to integer samples in the sample buffer
+     */
+    private void convert(float[] samples, int offset, int length)
+    {
+        float scale = mSampleFormat.getScale();
+
+        if(mSampleFormat == BasebandSampleFormat.INT16)
+        {
+            for(int x = offset; x < offset + length; x++)
+            {
+                mSampleBuffer.putShort((short)Math.round(clip(samples[x]) * scale));
+            }
+        }
+        else
+        {
+            for(int x = offset; x < offset + length; x++)
+            {
+                mSampleBuffer.put((byte)Math.round(clip(samples[x]) * scale));
+            }
+        }
+    }
+
+    /**
+     * Constrains the sample to the range -1.0 to 1.0
+     */
+    private static float clip(float sample)
+    {
+        if(sample > 1.0f)
+        {
+            return 1.0f;
+        }
+        else if(sample < -1.0f)
+        {
+            return -1.0f;
+        }
+
+        return sample;
+    }
+
+    /**
+     * Writes the current block of samples to the file.
+     */
+    public void flush() throws IOException
+    {
+        if(mBlockFrameCount == 0)
+        {
+            return;
+        }
+
+        mSampleBuffer.flip();
+
+        ByteBuffer payload = mSampleBuffer;
+        int encoding = BasebandBlock.ENCODING_RAW;
+
+        if(mDeflater != null)
+        {
+            ByteBuffer compressed = compress(mSampleBuffer);
+
+            if(compressed != null)
+            {
+                payload = compressed;
+                encoding = BasebandBlock.ENCODING_DEFLATE;
+            }
+        }
+
+        BasebandBlock block = new BasebandBlock(mFilePosition, mFrameCount, encoding, mBlockTimestamp,
+            mCenterFrequency, mSampleRate, mBlockFrameCount, payload.remaining());
+
+        mBlockHeaderBuffer.clear();
+        block.writeHeader(mBlockHeaderBuffer);
+        mBlockHeaderBuffer.flip();
+
+        int payloadLength = payload.remaining();
+        mWriteBuffers[0] = mBlockHeaderBuffer;
+        mWriteBuffers[1] = payload;
+        long length = BasebandBlock.HEADER_LENGTH + payloadLength;
+
+        while(mBlockHeaderBuffer.hasRemaining() || payload.hasRemaining())
+        {
+            mFileChannel.write(mWriteBuffers);
+        }
+
+        mBlocks.add(block);
+        mFilePosition += length;
+        mBytesWritten += payloadLength;
+        mFrameCount += mBlockFrameCount;
+        mBlockFrameCount = 0;
+        mSampleBuffer.clear();
+    }
+
+    /**
+     * Losslessly compresses the samples.  16-bit samples are shuffled into separate planes of low and high order bytes
+     * before compression, since the high order bytes of typical baseband signals compress much better than the noise
+     * dominated low order bytes.
+     *
+     * @param samples to compress
+     * @return compressed samples or null if compression doesn't reduce the size of the samples
+     */
+    private ByteBuffer compress(ByteBuffer samples)
+    {
+        ByteBuffer input = samples;
+
+        if(mSampleFormat == BasebandSampleFormat.INT16)
+        {
+            int count = samples.remaining() / 2;
+            mShuffleBuffer.clear();
+
+            for(int x = 0; x < count; x++)
+            {
+                mShuffleBuffer.put(x, samples.get(x * 2));
+                mShuffleBuffer.put(count + x, samples.get(x * 2 + 1));
+            }
+
+            mShuffleBuffer.limit(count * 2);
+            input = mShuffleBuffer;
+        }
+
+        int length = input.remaining();
+        mDeflater.reset();
+        mDeflater.setInput(input);
+        mDeflater.finish();
+        mCompressedBuffer.clear();
+
+        while(!mDeflater.finished())
+        {
+            if(!mCompressedBuffer.hasRemaining())
+            {
+                //Compressed samples are not smaller than the original samples
+                return null;
+            }
+
+            mDeflater.deflate(mCompressedBuffer);
+        }
+
+        mCompressedBuffer.flip();
+
+        if(mCompressedBuffer.remaining() >= length)
+        {
+            return null;
+        }
+
+        return mCompressedBuffer;
+    }
+
+    /**
+     * Writes the buffer at the current file channel position
+     * @return number of bytes written
+     */
+    private long write(ByteBuffer buffer) throws IOException
+    {
+        long length = buffer.remaining();
+
+        while(buffer.hasRemaining())
+        {
+            mFileChannel.write(buffer);
+        }
+
+        return length;
+    }
+
+    /**
+     * Writes any pending samples and the block index, updates the file header with the location of the block index,
+     * and closes the file.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if(mFileChannel == null)
+        {
+            return;
+        }
+
+        try
+        {
+            flush();
+
+            long indexOffset = mFilePosition;
+            ByteBuffer index = ByteBuffer.allocateDirect(8 + (mBlocks.size() * BasebandBlock.INDEX_ENTRY_LENGTH))
+                .order(ByteOrder.LITTLE_ENDIAN);
+            index.putInt(BasebandHeader.INDEX_MAGIC);
+            index.putInt(mBlocks.size());
+
+            for(BasebandBlock block: mBlocks)
+            {
+                block.writeIndexEntry(index);
+            }
+
+            index.flip();
+            mFilePosition += write(index);
+
+            ByteBuffer indexOffsetBuffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            indexOffsetBuffer.putLong(indexOffset);
+            indexOffsetBuffer.flip();
+
+            while(indexOffsetBuffer.hasRemaining())
+            {
+                mFileChannel.write(indexOffsetBuffer, BasebandHeader.INDEX_OFFSET_POSITION +
+                    indexOffsetBuffer.position());
+            }
+        }
+        finally
+        {
+            mFileChannel.close();
+            mFileChannel = null;
+
+            if(mDeflater != null)
+            {
+                mDeflater.end();
+            }
+
+            mLog.debug("Closed baseband recording [" + mPath + "] blocks [" + mBlocks.size() + "] frames [" +
+                mFrameCount + "]");
+        }
+    }
+}
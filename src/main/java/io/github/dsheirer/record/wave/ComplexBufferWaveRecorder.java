@@ -16,13 +16,10 @@
 package io.github.dsheirer.record.wave;
 
 import io.github.dsheirer.dsp.filter.channelizer.ContinuousReusableBufferProcessor;
-import io.github.dsheirer.module.Module;
+import io.github.dsheirer.record.AbstractBasebandRecorder;
 import io.github.dsheirer.sample.ConversionUtils;
 import io.github.dsheirer.sample.Listener;
-import io.github.dsheirer.sample.buffer.IReusableComplexBufferListener;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
-import io.github.dsheirer.source.ISourceEventListener;
-import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.util.ThreadPool;
 import io.github.dsheirer.util.TimeStamp;
 import org.slf4j.Logger;
@@ -39,8 +36,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 /**
  * WAVE audio recorder module for recording complex (I&Q) samples to a wave file
  */
-public class ComplexBufferWaveRecorder extends Module implements IReusableComplexBufferListener,
-    Listener<ReusableComplexBuffer>, ISourceEventListener
+public class ComplexBufferWaveRecorder extends AbstractBasebandRecorder
 {
     private final static Logger mLog = LoggerFactory.getLogger(ComplexBufferWaveRecorder.class);
 
@@ -59,6 +55,7 @@ public class ComplexBufferWaveRecorder extends Module implements IReusableComple
         setSampleRate(sampleRate);
     }
 
+    @Override
     public void setSampleRate(float sampleRate)
     {
         if(mAudioFormat == null || mAudioFormat.getSampleRate() != sampleRate)
@@ -73,6 +70,15 @@ public class ComplexBufferWaveRecorder extends Module implements IReusableComple
         }
     }
 
+    /**
+     * Not implemented - wave recordings don't record the center frequency
+     */
+    @Override
+    public void setFrequency(long frequency)
+    {
+    }
+
+    @Override
     public Path getFile()
     {
         return mFile;
@@ -143,35 +149,6 @@ public class ComplexBufferWaveRecorder extends Module implements IReusableComple
         mBufferProcessor.receive(buffer);
     }
 
-    @Override
-    public Listener<ReusableComplexBuffer> getReusableComplexBufferListener()
-    {
-        return this;
-    }
-
-    @Override
-    public void reset()
-    {
-    }
-
-    @Override
-    public Listener<SourceEvent> getSourceEventListener()
-    {
-        return new Listener<SourceEvent>()
-        {
-            @Override
-            public void receive(SourceEvent sourceEvent)
-            {
-                switch(sourceEvent.getEvent())
-                {
-                    case NOTIFICATION_SAMPLE_RATE_CHANGE:
-                        setSampleRate(sourceEvent.getValue().floatValue());
-                        break;
-                }
-            }
-        };
-    }
-
     /**
      * Wave writer implementation for reusable complex buffers delivered from buffer processor
      */
@@ -0,0 +1,498 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.source;
+
+import io.github.dsheirer.record.baseband.BasebandReader;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.source.baseband.ComplexBasebandSource;
+import io.github.dsheirer.source.wave.ComplexWaveSource;
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base complex (I/Q) sample file source.  Provides frame addressable reading, constant time seeking, frame location
+ * notifications and automatic replay at real time, at a multiple of real time, or unthrottled.  Subclasses provide
+ * access to the sample frames and timestamps of a specific file format.
+ */
+public abstract class AbstractComplexFileSource extends ComplexSource implements IControllableFileSource, AutoCloseable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(AbstractComplexFileSource.class);
+
+    public static final double REPLAY_SPEED_UNTHROTTLED = 0.0;
+    private static final long REPLAY_INTERVAL_MILLISECONDS = 50; //20 intervals per second
+    private static final int UNTHROTTLED_BUFFERS_PER_INTERVAL = 20;
+
+    private IFrameLocationListener mFrameLocationListener;
+    private long mFrameCounter = 0;
+    private long mFrequency = 0;
+    private Listener<ReusableComplexBuffer> mListener;
+    private File mFile;
+    private ReusableComplexBufferQueue mReusableComplexBufferQueue;
+    private boolean mAutoReplay;
+    private double mReplaySpeed = 1.0;
+    private ScheduledFuture<?> mReplayController;
+
+    /**
+     * Constructs an instance
+     * @param file containing complex I/Q sample data
+     * @param autoReplay to enable continuous looping playback of sample data at the replay speed
+     */
+    public AbstractComplexFileSource(File file, boolean autoReplay)
+    {
+        mFile = file;
+        mAutoReplay = autoReplay;
+        mReusableComplexBufferQueue = new ReusableComplexBufferQueue(getClass().getSimpleName());
+    }
+
+    /**
+     * Creates a complex file source for the file, according to the file format.
+     *
+     * @param file containing a baseband recording or a 16-bit stereo I/Q wave recording
+     * @param autoReplay to enable continuous looping playback
+     * @return source
+     * @throws IOException if the file format is not supported
+     */
+    public static AbstractComplexFileSource getSource(File file, boolean autoReplay) throws IOException
+    {
+        if(file != null && BasebandReader.supports(file))
+        {
+            return new ComplexBasebandSource(file, autoReplay);
+        }
+
+        return new ComplexWaveSource(file, autoReplay);
+    }
+
+    /**
+     * Indicates if the file is a supported complex sample file format
+     */
+    public static boolean supports(File file)
+    {
+        return BasebandReader.supports(file) || ComplexWaveSource.supports(file);
+    }
+
+    /**
+     * Indicates if the file is currently open
+     */
+    protected abstract boolean isOpen();
+
+    /**
+     * Reads and converts the sample frames into the samples array.
+     *
+     * @param samples array to fill with interleaved I/Q float samples
+     * @param frame starting frame location
+     * @param frames count to read
+     * @throws IOException if there is an error reading the file
+     */
+    protected abstract void read(float[] samples, long frame, int frames) throws IOException;
+
+    /**
+     * Timestamp of the frame in milliseconds
+     */
+    protected abstract long getTimestamp(long frame);
+
+    /**
+     * Frame location that corresponds to the timestamp
+     * @param timestamp in milliseconds
+     */
+    protected abstract long getFrame(long timestamp);
+
+    /**
+     * Timestamp of the first frame in the file in milliseconds.
+     */
+    public abstract long getStartTimestamp();
+
+    @Override
+    public void setSourceEventListener(Listener<SourceEvent> listener)
+    {
+        //Not implemented
+    }
+
+    @Override
+    public void removeSourceEventListener()
+    {
+        //Not implemented
+    }
+
+    @Override
+    public Listener<SourceEvent> getSourceEventListener()
+    {
+        //Not implemented
+        return null;
+    }
+
+    @Override
+    public void reset()
+    {
+        stop();
+        mFrameCounter = 0;
+        start();
+    }
+
+    /**
+     * Number of samples per buffer
+     */
+    public int getBufferSampleCount()
+    {
+        return (int)(getSampleRate() / 20.0d);
+    }
+
+    @Override
+    public void start()
+    {
+        if(!isOpen())
+        {
+            try
+            {
+                open();
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error", e);
+            }
+        }
+
+        if(mAutoReplay)
+        {
+            startReplay();
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        try
+        {
+            stopReplay();
+            close();
+        }
+        catch(IOException e)
+        {
+            mLog.error("Error stopping complex file source");
+        }
+    }
+
+    /**
+     * Starts the replay controller to automatically read and broadcast buffers at the current replay speed.
+     */
+    private void startReplay()
+    {
+        if(mReplayController == null)
+        {
+            if(mReplaySpeed == REPLAY_SPEED_UNTHROTTLED)
+            {
+                mReplayController = ThreadPool.SCHEDULED.scheduleWithFixedDelay(new ReplayController(), 0,
+                    1, TimeUnit.MILLISECONDS);
+            }
+            else
+            {
+                mReplayController = ThreadPool.SCHEDULED.scheduleAtFixedRate(new ReplayController(), 0,
+                    REPLAY_INTERVAL_MILLISECONDS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Stops the replay controller.
+     */
+    private void stopReplay()
+    {
+        if(mReplayController != null)
+        {
+            //Don't interrupt - an interrupt during file channel access closes the file channel
+            mReplayController.cancel(false);
+            mReplayController = null;
+        }
+    }
+
+    /**
+     * Replay speed as a multiple of real time, or REPLAY_SPEED_UNTHROTTLED (0.0).
+     */
+    public double getReplaySpeed()
+    {
+        return mReplaySpeed;
+    }
+
+    /**
+     * Sets the auto-replay speed.
+     * @param replaySpeed as a multiple of real time (e.g. 1.0 or 4.0) or REPLAY_SPEED_UNTHROTTLED (0.0) to read and
+     * broadcast buffers as fast as the listener consumes them.
+     */
+    public void setReplaySpeed(double replaySpeed)
+    {
+        if(replaySpeed < 0.0 || Double.isNaN(replaySpeed))
+        {
+            throw new IllegalArgumentException("Replay speed must be a positive multiple of real time or 0.0 for " +
+                "unthrottled replay");
+        }
+
+        mReplaySpeed = replaySpeed;
+
+        if(mReplayController != null)
+        {
+            stopReplay();
+            startReplay();
+        }
+    }
+
+    /**
+     * Current frame location in the file
+     */
+    public long getFrameLocation()
+    {
+        return mFrameCounter;
+    }
+
+    /**
+     * Sets the frame location without notifying the frame location listener
+     */
+    protected void setFrameLocation(long frame)
+    {
+        mFrameCounter = frame;
+    }
+
+    /**
+     * Returns the frequency set for this file.  Normally returns zero, but
+     * the value can be set with setFrequency() method.
+     */
+    public long getFrequency()
+    {
+        return mFrequency;
+    }
+
+    /**
+     * Changes the value returned from getFrequency() for this source.
+     */
+    public void setFrequency(long frequency)
+    {
+        mFrequency = frequency;
+    }
+
+    /**
+     * Moves the read location to the frame that corresponds to the timestamp.
+     * @param timestamp in milliseconds
+     */
+    public void seek(long timestamp)
+    {
+        seekFrame(getFrame(timestamp));
+    }
+
+    /**
+     * Moves the read location to the frame.  Values outside of the file are constrained to the start or end of the
+     * file.
+     * @param frame location
+     */
+    public synchronized void seekFrame(long frame)
+    {
+        try
+        {
+            mFrameCounter = Math.max(0, Math.min(frame, getFrameCount()));
+        }
+        catch(IOException ioe)
+        {
+            mFrameCounter = 0;
+        }
+
+        broadcast(mFrameCounter);
+    }
+
+    /**
+     * Reads the number of frames and sends a buffer to the listener
+     */
+    @Override
+    public void next(int frames) throws IOException
+    {
+        next(frames, true);
+    }
+
+    /**
+     * Reads the number of frames and optionally sends the buffer(s) to the listener.  When the broadcast argument
+     * is false, the read location is advanced without reading the samples.
+     *
+     * @throws IOException if the end of the file is reached or there is an error reading the file
+     */
+    public void next(int frames, boolean broadcast) throws IOException
+    {
+        ReusableComplexBuffer reusableBuffer = null;
+
+        synchronized(this)
+        {
+            if(!isOpen())
+            {
+                return;
+            }
+
+            long available = getFrameCount() - mFrameCounter;
+
+            if(available <= 0)
+            {
+                throw new IOException("End of file reached");
+            }
+
+            int framesToRead = (int)Math.min(frames, available);
+
+            if(broadcast && mListener != null)
+            {
+                reusableBuffer = mReusableComplexBufferQueue.getBuffer(framesToRead * 2);
+
+                try
+                {
+                    read(reusableBuffer.getSamples(), mFrameCounter, framesToRead);
+                }
+                catch(IOException ioe)
+                {
+                    reusableBuffer.decrementUserCount();
+                    throw ioe;
+                }
+
+                reusableBuffer.setTimestamp(getTimestamp(mFrameCounter));
+            }
+
+            mFrameCounter += framesToRead;
+
+            broadcast(mFrameCounter);
+        }
+
+        if(reusableBuffer != null)
+        {
+            Listener<ReusableComplexBuffer> listener = mListener;
+
+            if(listener != null)
+            {
+                listener.receive(reusableBuffer);
+            }
+            else
+            {
+                reusableBuffer.decrementUserCount();
+            }
+        }
+    }
+
+    /**
+     * Moves the read location back to the start of the file for continuous auto-replay.
+     */
+    protected synchronized void rewind()
+    {
+        mFrameCounter = 0;
+
+        if(mFrameLocationListener != null)
+        {
+            mFrameLocationListener.frameLocationReset();
+        }
+    }
+
+    /**
+     * Registers the listener to receive sample buffers as they are read from the file
+     */
+    @Override
+    public void setListener(Listener<ReusableComplexBuffer> listener)
+    {
+        mListener = listener;
+    }
+
+    /**
+     * Unregisters the listener from receiving sample buffers
+     */
+    public void removeListener(Listener<ReusableComplexBuffer> listener)
+    {
+        mListener = null;
+    }
+
+    @Override
+    public File getFile()
+    {
+        return mFile;
+    }
+
+    private void broadcast(long frameLocation)
+    {
+        if(mFrameLocationListener != null)
+        {
+            mFrameLocationListener.frameLocationUpdated((int)frameLocation);
+        }
+    }
+
+    @Override
+    public void setListener(IFrameLocationListener listener)
+    {
+        mFrameLocationListener = listener;
+    }
+
+    @Override
+    public void removeListener(IFrameLocationListener listener)
+    {
+        mFrameLocationListener = null;
+    }
+
+    /**
+     * Replays the file at the replay speed, or unthrottled, and loops back to the start of the file at the end.
+     */
+    public class ReplayController implements Runnable
+    {
+        private long mStartNanos = System.nanoTime();
+        private long mFramesRead;
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                int bufferSampleCount = Math.max(getBufferSampleCount(), 1);
+
+                if(mReplaySpeed == REPLAY_SPEED_UNTHROTTLED)
+                {
+                    for(int x = 0; x < UNTHROTTLED_BUFFERS_PER_INTERVAL; x++)
+                    {
+                        next(bufferSampleCount, true);
+                    }
+                }
+                else
+                {
+                    double elapsed = (System.nanoTime() - mStartNanos) / 1E9;
+                    long framesToRead = (long)(elapsed * getSampleRate() * mReplaySpeed) - mFramesRead;
+
+                    while(framesToRead > 0)
+                    {
+                        int frames = (int)Math.min(framesToRead, bufferSampleCount);
+                        next(frames, true);
+                        mFramesRead += frames;
+                        framesToRead -= frames;
+                    }
+                }
+            }
+            catch(IOException ioe)
+            {
+                mLog.debug("End of Recording - looping [" + ioe.getLocalizedMessage() + "]");
+                rewind();
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error during recording replay", t);
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ public class SourceEvent
     public enum Event
     {
         NOTIFICATION_CHANNEL_COUNT_CHANGE,
+        NOTIFICATION_CHANNEL_ACTIVITY,
         NOTIFICATION_CHANNEL_FREQUENCY_CORRECTION_CHANGE,
         NOTIFICATION_CHANNEL_POWER,
         NOTIFICATION_CHANNEL_SAMPLE_RATE_CHANGE,
@@ -425,6 +426,15 @@ public class SourceEvent
         return new SourceEvent(Event.NOTIFICATION_FREQUENCY_ROTATION_FAILURE, source, frequency);
     }
 
+    /**
+     * Creates a notification that activity was detected on a frequency in a multiple-frequency source list other
+     * than the frequency that the source is currently using.
+     */
+    public static SourceEvent channelActivityNotification(Source source, long frequency)
+    {
+        return new SourceEvent(Event.NOTIFICATION_CHANNEL_ACTIVITY, source, frequency);
+    }
+
 
     /**
      * Creates a notification of current channel power level
@@ -32,16 +32,19 @@ import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
 import io.github.dsheirer.source.tuner.channel.MultiFrequencyTunerChannelSource;
 import io.github.dsheirer.source.tuner.channel.TunerChannel;
 import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+import io.github.dsheirer.source.tuner.channel.rotation.ChannelActivityScanner;
 
 public class SourceManager
 {
     private RecordingSourceManager mRecordingSourceManager;
     private TunerManager mTunerManager;
     private TunerModel mTunerModel;
+    private UserPreferences mUserPreferences;
 
     public SourceManager(TunerModel tunerModel, SettingsManager settingsManager, UserPreferences userPreferences)
     {
         mTunerModel = tunerModel;
+        mUserPreferences = userPreferences;
         mRecordingSourceManager = new RecordingSourceManager(settingsManager);
         mTunerManager = new TunerManager(tunerModel, userPreferences);
 
@@ -73,6 +76,26 @@ public class SourceManager
         return mTunerModel;
     }
 
+    /**
+     * Retunes a paused tuner channel source to the frequency of the tuner source configuration so that the source can
+     * be reused instead of obtaining a new source.
+     *
+     * @param source that was paused
+     * @param config with the new frequency
+     * @param channelSpecification for the channel
+     * @return true if the source was retuned, or false if a new source must be obtained
+     */
+    public boolean retune(Source source, SourceConfiguration config, ChannelSpecification channelSpecification)
+    {
+        if(source instanceof TunerChannelSource && config instanceof SourceConfigTuner)
+        {
+            TunerChannel tunerChannel = ((SourceConfigTuner)config).getTunerChannel(channelSpecification.getBandwidth());
+            return mTunerModel.retune((TunerChannelSource)source, tunerChannel);
+        }
+
+        return false;
+    }
+
     public Source getSource(SourceConfiguration config, ChannelSpecification channelSpecification) throws SourceException
     {
         Source retVal = null;
@@ -102,8 +125,19 @@ public class SourceManager
 
                     if(source instanceof TunerChannelSource)
                     {
-                        retVal = new MultiFrequencyTunerChannelSource(getTunerModel(), (TunerChannelSource)source,
-                            sourceConfigTuner.getFrequencies(), channelSpecification, sourceConfigTuner.getPreferredTuner());
+                        MultiFrequencyTunerChannelSource multiSource = new MultiFrequencyTunerChannelSource(
+                            getTunerModel(), (TunerChannelSource)source, sourceConfigTuner.getFrequencies(),
+                            channelSpecification, sourceConfigTuner.getPreferredTuner());
+
+                        if(sourceConfigTuner.getFrequencies().size() > 1 &&
+                            mUserPreferences.getChannelMultiFrequencyPreference().isActivityScannerEnabled())
+                        {
+                            multiSource.setActivityScanner(new ChannelActivityScanner(getTunerModel(),
+                                sourceConfigTuner.getFrequencies(), channelSpecification.getBandwidth(),
+                                mUserPreferences.getChannelMultiFrequencyPreference().getActivityScannerThreshold()));
+                        }
+
+                        retVal = multiSource;
                     }
                 }
                 break;
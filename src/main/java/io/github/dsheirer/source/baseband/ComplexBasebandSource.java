@@ -0,0 +1,166 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.source.baseband;
+
+import io.github.dsheirer.record.baseband.BasebandReader;
+import io.github.dsheirer.source.AbstractComplexFileSource;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Complex (I/Q) baseband recording (.bbr) file source.  Buffer timestamps and seek timestamps are the recorded block
+ * timestamps.
+ */
+public class ComplexBasebandSource extends AbstractComplexFileSource
+{
+    private BasebandReader mReader;
+    private long mTimestampOffset;
+
+    /**
+     * Constructs an instance
+     * @param file containing a baseband recording
+     * @param autoReplay to enable continuous looping playback of sample data at the replay speed
+     * @throws IOException if the file is not a baseband recording
+     */
+    public ComplexBasebandSource(File file, boolean autoReplay) throws IOException
+    {
+        super(file, autoReplay);
+
+        if(!BasebandReader.supports(file))
+        {
+            throw new IOException("Unsupported file format");
+        }
+    }
+
+    public ComplexBasebandSource(File file) throws IOException
+    {
+        this(file, false);
+    }
+
+    @Override
+    protected boolean isOpen()
+    {
+        return mReader != null;
+    }
+
+    @Override
+    public synchronized void open() throws IOException
+    {
+        if(mReader == null)
+        {
+            mReader = new BasebandReader(getFile());
+            mTimestampOffset = 0;
+
+            /* Broadcast that we're at frame location 0 */
+            seekFrame(0);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        setFrameLocation(0);
+
+        if(mReader != null)
+        {
+            mReader.close();
+            mReader = null;
+        }
+    }
+
+    @Override
+    public long getFrameCount() throws IOException
+    {
+        return mReader != null ? mReader.getFrameCount() : 0;
+    }
+
+    /**
+     * Sample rate of the first block in the recording
+     */
+    @Override
+    public double getSampleRate()
+    {
+        return mReader != null ? mReader.getSampleRate() : 0;
+    }
+
+    /**
+     * Recorded center frequency at the current frame location, or the frequency set for this source if the recording
+     * doesn't specify the center frequency.
+     */
+    @Override
+    public long getFrequency()
+    {
+        BasebandReader reader = mReader;
+
+        if(reader != null)
+        {
+            long frequency = reader.getCenterFrequency(getFrameLocation());
+
+            if(frequency != 0)
+            {
+                return frequency;
+            }
+        }
+
+        return super.getFrequency();
+    }
+
+    @Override
+    public long getStartTimestamp()
+    {
+        return mReader != null ? mReader.getStartTimestamp() : 0;
+    }
+
+    @Override
+    protected long getTimestamp(long frame)
+    {
+        return mReader != null ? mReader.getTimestamp(frame) + mTimestampOffset : 0;
+    }
+
+    @Override
+    protected long getFrame(long timestamp)
+    {
+        return mReader != null ? mReader.getFrame(timestamp - mTimestampOffset) : 0;
+    }
+
+    @Override
+    protected void read(float[] samples, long frame, int frames) throws IOException
+    {
+        mReader.read(samples, 0, frame, frames);
+    }
+
+    /**
+     * Moves the read location back to the start of the file for continuous auto-replay and offsets subsequent buffer
+     * timestamps by the duration of the recording so that buffer timestamps continue to increase.
+     */
+    @Override
+    protected synchronized void rewind()
+    {
+        if(mReader != null)
+        {
+            long frameCount = mReader.getFrameCount();
+            long end = frameCount > 0 ? mReader.getTimestamp(frameCount - 1) + 1 : mReader.getStartTimestamp();
+            mTimestampOffset += end - mReader.getStartTimestamp();
+        }
+
+        super.rewind();
+    }
+}
@@ -19,8 +19,8 @@
 package io.github.dsheirer.source.tuner;
 
 import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.record.AbstractBasebandRecorder;
 import io.github.dsheirer.record.RecorderFactory;
-import io.github.dsheirer.record.wave.ComplexBufferWaveRecorder;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.IReusableComplexBufferProvider;
 import io.github.dsheirer.sample.buffer.ReusableBufferBroadcaster;
@@ -49,7 +49,7 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
     private double mUsableBandwidthPercentage;
     private Listener<SourceEvent> mSourceEventListener;
     private int mMeasuredFrequencyError;
-    private ComplexBufferWaveRecorder mRecorder;
+    private AbstractBasebandRecorder mRecorder;
     private ITunerErrorListener mTunerErrorListener;
 
     /**
@@ -197,6 +197,13 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
     public void setFrequency(long frequency) throws SourceException
     {
         mFrequencyController.setFrequency(frequency);
+
+        AbstractBasebandRecorder recorder = mRecorder;
+
+        if(recorder != null)
+        {
+            recorder.setFrequency(getFrequency());
+        }
     }
 
     /**
@@ -488,6 +495,7 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
         {
             mRecorder = RecorderFactory.getBasebandRecorder("TUNER_" + getFrequency(), userPreferences);
             mRecorder.setSampleRate((float)getSampleRate());
+            mRecorder.setFrequency(getFrequency());
             mRecorder.start();
             addBufferListener(mRecorder);
         }
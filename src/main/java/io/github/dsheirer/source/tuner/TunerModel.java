@@ -31,6 +31,7 @@ import io.github.dsheirer.source.tuner.channel.TunerChannel;
 import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
 import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
 import io.github.dsheirer.source.tuner.configuration.TunerConfigurationModel;
+import io.github.dsheirer.source.tuner.manager.ChannelPlacementOptimizer;
 import io.github.dsheirer.source.tuner.recording.RecordingTuner;
 import io.github.dsheirer.spectrum.SpectralDisplayPanel;
 import io.github.dsheirer.util.ThreadPool;
@@ -41,7 +42,6 @@ import javax.swing.table.AbstractTableModel;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -71,6 +71,7 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
     private DecimalFormat mFrequencyErrorPPMFormat = new DecimalFormat("0.0");
 
     private TunerConfigurationModel mTunerConfigurationModel;
+    private ChannelPlacementOptimizer mChannelPlacementOptimizer = new ChannelPlacementOptimizer();
 
     public TunerModel(TunerConfigurationModel tunerConfigurationModel)
     {
@@ -413,7 +414,16 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
     }
 
     /**
-     * Iterates current tuners to get a tuner channel source for the specified frequency and bandwidth
+     * Channel placement optimizer used to assign channels across the tuners
+     */
+    public ChannelPlacementOptimizer getChannelPlacementOptimizer()
+    {
+        return mChannelPlacementOptimizer;
+    }
+
+    /**
+     * Obtains a tuner channel source for the specified frequency and bandwidth from the preferred tuner when
+     * specified, otherwise from the tuner selected by the channel placement optimizer.
      *
      * Returns null if no tuner can source the channel
      */
@@ -423,26 +433,22 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
 
         if(tunerChannel != null && channelSpecification != null)
         {
-            Tuner tuner;
+            mChannelPlacementOptimizer.record(tunerChannel);
+
+            List<Tuner> tuners = new ArrayList<>(mTuners);
 
             if(preferredTuner != null)
             {
-                tuner = getTuner(preferredTuner);
+                Tuner tuner = getTuner(preferredTuner);
 
                 if(tuner != null)
                 {
-                    try
-                    {
-                        source = tuner.getChannelSourceManager().getSource(tunerChannel, channelSpecification);
+                    source = mChannelPlacementOptimizer.getSource(Collections.singletonList(tuner), tuners,
+                        tunerChannel, channelSpecification);
 
-                        if(source != null)
-                        {
-                            return source;
-                        }
-                    }
-                    catch(Exception e)
+                    if(source != null)
                     {
-                        //Fall through to logger below
+                        return source;
                     }
                 }
 
@@ -450,26 +456,34 @@ public class TunerModel extends AbstractTableModel implements Listener<TunerEven
                     preferredTuner + "] - searching for another tuner");
             }
 
-            Iterator<Tuner> it = mTuners.iterator();
+            source = mChannelPlacementOptimizer.getSource(tuners, tuners, tunerChannel, channelSpecification);
+        }
 
-            while(it.hasNext() && source == null)
-            {
-                tuner = it.next();
+        return source;
+    }
 
-                if(!tuner.hasError())
+    /**
+     * Retunes a paused tuner channel source to the tuner channel using the tuner that provided the source.
+     *
+     * @param source that was paused
+     * @param tunerChannel with the new frequency
+     * @return true if the source was retuned, or false if a new source must be obtained for the tuner channel
+     */
+    public boolean retune(TunerChannelSource source, TunerChannel tunerChannel)
+    {
+        if(source != null && tunerChannel != null)
+        {
+            List<Tuner> tuners = new ArrayList<>(mTuners);
+
+            for(Tuner tuner: tuners)
+            {
+                if(tuner.getChannelSourceManager().retune(source, tunerChannel))
                 {
-                    try
-                    {
-                        source = tuner.getChannelSourceManager().getSource(tunerChannel, channelSpecification);
-                    }
-                    catch(Exception e)
-                    {
-                        mLog.error("Error obtaining channel from tuner [" + tuner.getName() + "]", e);
-                    }
+                    return true;
                 }
             }
         }
 
-        return source;
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -34,6 +34,11 @@ import java.util.List;
  * Complex sample source that provides a frequency-translated and decimated sample buffer stream.  Uses a
  * CIC decimation filter that requires the decimation rate to be an integer multiple.  Sample buffer processing
  * occurs on a scheduled runnable thread.
+ *
+ * A channel source that is constructed with a sub-band decimation rate can also process a sample stream that was
+ * already mixed and decimated by a shared sub-band.  The channel source designs a CIC decimation filter for both the
+ * full rate and the sub-band sample streams, with the same output sample rate, and switches between the two inputs at
+ * the first buffer from the requested input that is newer than the last processed buffer.
  */
 public class CICTunerChannelSource extends TunerChannelSource implements Listener<ReusableComplexBuffer>
 {
@@ -46,13 +51,22 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
     private static final int BUFFER_OVERFLOW_RESET_THRESHOLD = 100;
 
     private OverflowableReusableBufferTransferQueue<ReusableComplexBuffer> mBuffer;
+    private OverflowableReusableBufferTransferQueue<ReusableComplexBuffer> mSubBandBuffer;
     private ReusableComplexBufferQueue mReusableComplexBufferQueue = new ReusableComplexBufferQueue("CICTunerChannelSource");
     private IOscillator mFrequencyCorrectionMixer;
+    private IOscillator mSubBandFrequencyCorrectionMixer;
     private ComplexPrimeCICDecimate mDecimationFilter;
+    private ComplexPrimeCICDecimate mSubBandDecimationFilter;
+    private Listener<ReusableComplexBuffer> mSubBandListener;
     private List<ReusableComplexBuffer> mSampleBuffers = new ArrayList<>();
+    private List<ReusableComplexBuffer> mSubBandSampleBuffers = new ArrayList<>();
     private double mChannelSampleRate;
     private long mChannelFrequencyCorrection = 0;
     private long mTunerFrequency;
+    private long mSubBandFrequencyOffset;
+    private boolean mSubBandInput;
+    private volatile boolean mSubBandInputRequested;
+    private volatile long mLastTimestamp;
 
     /**
      * Constructs a frequency translating and CIC decimating channel source.
@@ -66,22 +80,103 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
      */
     public CICTunerChannelSource(Listener<SourceEvent> producerSourceEventListener, TunerChannel tunerChannel,
                  double sampleRate, ChannelSpecification channelSpecification) throws FilterDesignException
+    {
+        this(producerSourceEventListener, tunerChannel, sampleRate, 1, channelSpecification);
+    }
+
+    /**
+     * Constructs a frequency translating and CIC decimating channel source that can process either the full rate
+     * sample stream or a sub-band sample stream that was decimated by the sub-band decimation rate.
+     *
+     * @param producerSourceEventListener to receive sample stream start/stop requests
+     * @param tunerChannel that details the desired channel frequency and bandwidth
+     * @param sampleRate of the incoming full rate sample stream
+     * @param subBandDecimation rate of the sub-band sample stream, or 1 to only process the full rate sample stream
+     * @param channelSpecification for the requested channel.
+     * @throws FilterDesignException if a final cleanup filter cannot be designed using the remez filter
+     *                               designer and the filter parameters.
+     */
+    public CICTunerChannelSource(Listener<SourceEvent> producerSourceEventListener, TunerChannel tunerChannel,
+                 double sampleRate, int subBandDecimation, ChannelSpecification channelSpecification)
+        throws FilterDesignException
     {
         super(producerSourceEventListener, tunerChannel);
 
-        int decimation = (int)(sampleRate / channelSpecification.getMinimumSampleRate());
+        //The full rate decimation is an integer multiple of the sub-band decimation so that both inputs produce the
+        //same channel sample rate
+        double subBandSampleRate = sampleRate / (double)subBandDecimation;
+        int decimation = (int)(subBandSampleRate / channelSpecification.getMinimumSampleRate());
 
-        mDecimationFilter = new ComplexPrimeCICDecimate(sampleRate, decimation, channelSpecification.getPassFrequency(),
-            channelSpecification.getStopFrequency());
+        mDecimationFilter = new ComplexPrimeCICDecimate(sampleRate, decimation * subBandDecimation,
+            channelSpecification.getPassFrequency(), channelSpecification.getStopFrequency());
 
         mBuffer = new OverflowableReusableBufferTransferQueue<>(BUFFER_MAX_CAPACITY, BUFFER_OVERFLOW_RESET_THRESHOLD);
 
         //Setup the frequency mixer to the current source frequency
-        mChannelSampleRate = sampleRate / (double)decimation;
+        mChannelSampleRate = subBandSampleRate / (double)decimation;
         mTunerFrequency = tunerChannel.getFrequency();
         long frequencyOffset = mTunerFrequency - getTunerChannel().getFrequency();
 
         mFrequencyCorrectionMixer = new LowPhaseNoiseOscillator(frequencyOffset, sampleRate);
+
+        if(subBandDecimation > 1)
+        {
+            mSubBandDecimationFilter = new ComplexPrimeCICDecimate(subBandSampleRate, decimation,
+                channelSpecification.getPassFrequency(), channelSpecification.getStopFrequency());
+            mSubBandBuffer = new OverflowableReusableBufferTransferQueue<>(BUFFER_MAX_CAPACITY,
+                BUFFER_OVERFLOW_RESET_THRESHOLD);
+            mSubBandFrequencyCorrectionMixer = new LowPhaseNoiseOscillator(frequencyOffset, subBandSampleRate);
+            mSubBandListener = buffer -> mSubBandBuffer.offer(buffer);
+        }
+    }
+
+    /**
+     * Indicates if this channel source can process a sub-band sample stream
+     */
+    public boolean hasSubBandInput()
+    {
+        return mSubBandListener != null;
+    }
+
+    /**
+     * Listener to receive the sub-band sample stream.
+     *
+     * @return listener or null if this channel source was not constructed with a sub-band decimation rate
+     */
+    public Listener<ReusableComplexBuffer> getSubBandListener()
+    {
+        return mSubBandListener;
+    }
+
+    /**
+     * Requests that channel processing switch to the sub-band or to the full rate sample stream.  The switch occurs at
+     * the first buffer from the requested input that is newer than the last processed buffer, and any buffers that
+     * arrive from the other input are discarded after that.
+     *
+     * @param subBand true to process the sub-band sample stream or false to process the full rate sample stream
+     */
+    public void requestSubBandInput(boolean subBand)
+    {
+        mSubBandInputRequested = subBand && hasSubBandInput();
+    }
+
+    /**
+     * Timestamp of the most recently processed sample buffer, or 0 if no buffers have been processed.
+     */
+    public long getLastTimestamp()
+    {
+        return mLastTimestamp;
+    }
+
+    /**
+     * Sets the frequency offset of the sub-band center frequency from the tuner center frequency.
+     *
+     * @param offset in hertz
+     */
+    public void setSubBandFrequencyOffset(long offset)
+    {
+        mSubBandFrequencyOffset = offset;
+        updateMixerFrequencyOffset();
     }
 
     /**
@@ -94,6 +189,11 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
     public void setOverflowListener(IOverflowListener listener)
     {
         mBuffer.setOverflowListener(listener);
+
+        if(mSubBandBuffer != null)
+        {
+            mSubBandBuffer.setOverflowListener(listener);
+        }
     }
 
     @Override
@@ -153,6 +253,11 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
     {
         long offset = mTunerFrequency - getTunerChannel().getFrequency() - mChannelFrequencyCorrection;
         mFrequencyCorrectionMixer.setFrequency(offset);
+
+        if(mSubBandFrequencyCorrectionMixer != null)
+        {
+            mSubBandFrequencyCorrectionMixer.setFrequency(offset + mSubBandFrequencyOffset);
+        }
     }
 
     /**
@@ -197,12 +302,22 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
     public void setListener(Listener<ReusableComplexBuffer> complexBufferListener)
     {
         mDecimationFilter.setListener(complexBufferListener);
+
+        if(mSubBandDecimationFilter != null)
+        {
+            mSubBandDecimationFilter.setListener(complexBufferListener);
+        }
     }
 
     @Override
     public void removeListener(Listener<ReusableComplexBuffer> listener)
     {
         mDecimationFilter.removeListener();
+
+        if(mSubBandDecimationFilter != null)
+        {
+            mSubBandDecimationFilter.removeListener();
+        }
     }
 
 
@@ -215,14 +330,56 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
     /**
      * Primary processing method that is invoked on a recurring basis to process any queued complex buffers.
      *
-     * Mixes the target frequency to baseband and then passes the buffer to the CIC decimation filter
+     * Mixes the target frequency to baseband and then passes the buffer to the CIC decimation filter.  Buffers from
+     * the current input are processed first.  Buffers from the other input are only processed when a switch to that
+     * input was requested, starting with the first buffer that is newer than the last processed buffer.
      */
     protected void processSamples()
     {
         mBuffer.drainTo(mSampleBuffers);
 
-        for(ReusableComplexBuffer complexBuffer : mSampleBuffers)
+        if(mSubBandBuffer != null)
         {
+            mSubBandBuffer.drainTo(mSubBandSampleBuffers);
+        }
+
+        if(mSubBandInput)
+        {
+            process(mSubBandSampleBuffers, true);
+            process(mSampleBuffers, false);
+        }
+        else
+        {
+            process(mSampleBuffers, false);
+            process(mSubBandSampleBuffers, true);
+        }
+    }
+
+    /**
+     * Processes the complex buffers from either the full rate or the sub-band input and clears the list.
+     *
+     * @param complexBuffers to process
+     * @param subBand true if the buffers are from the sub-band input
+     */
+    private void process(List<ReusableComplexBuffer> complexBuffers, boolean subBand)
+    {
+        for(ReusableComplexBuffer complexBuffer : complexBuffers)
+        {
+            if(subBand != mSubBandInput)
+            {
+                //Switch inputs at the first buffer from the requested input that follows the last processed buffer
+                if(subBand == mSubBandInputRequested && complexBuffer.getTimestamp() > mLastTimestamp)
+                {
+                    mSubBandInput = subBand;
+                }
+                else
+                {
+                    complexBuffer.decrementUserCount();
+                    continue;
+                }
+            }
+
+            IOscillator mixer = subBand ? mSubBandFrequencyCorrectionMixer : mFrequencyCorrectionMixer;
             float[] samples = complexBuffer.getSamples();
 
             ReusableComplexBuffer translatedComplexBuffer = mReusableComplexBufferQueue.getBuffer(samples.length);
@@ -231,19 +388,28 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
             /* Perform frequency translation */
             for(int x = 0; x < samples.length; x += 2)
             {
-                mFrequencyCorrectionMixer.rotate();
+                mixer.rotate();
 
                 translatedSamples[x] = Complex.multiplyInphase(samples[x], samples[x + 1],
-                    mFrequencyCorrectionMixer.inphase(), mFrequencyCorrectionMixer.quadrature());
+                    mixer.inphase(), mixer.quadrature());
 
                 translatedSamples[x + 1] = Complex.multiplyQuadrature(samples[x], samples[x + 1],
-                    mFrequencyCorrectionMixer.inphase(), mFrequencyCorrectionMixer.quadrature());
+                    mixer.inphase(), mixer.quadrature());
+            }
+
+            if(subBand)
+            {
+                mSubBandDecimationFilter.receive(translatedComplexBuffer);
+            }
+            else
+            {
+                mDecimationFilter.receive(translatedComplexBuffer);
             }
 
-            mDecimationFilter.receive(translatedComplexBuffer);
+            mLastTimestamp = complexBuffer.getTimestamp();
             complexBuffer.decrementUserCount();
         }
 
-        mSampleBuffers.clear();
+        complexBuffers.clear();
     }
 }
@@ -20,7 +20,7 @@
 
 package io.github.dsheirer.source.tuner.channel;
 
-import com.google.common.eventbus.Subscribe;
+import io.github.dsheirer.module.InterModuleEventBus;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.source.Source;
@@ -28,6 +28,7 @@ import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.heartbeat.Heartbeat;
 import io.github.dsheirer.source.tuner.TunerModel;
+import io.github.dsheirer.source.tuner.channel.rotation.ChannelActivityScanner;
 import io.github.dsheirer.source.tuner.channel.rotation.FrequencyLockChangeRequest;
 import io.github.dsheirer.util.ThreadPool;
 import org.slf4j.Logger;
@@ -42,6 +43,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * Multiple-frequency tuner channel source.  Provides a wrapper around a tuner channel source and listens for external
  * source events requests to change frequency.  Maintains an ordered list of frequencies and automatically tears down
  * an existing tuner channel source and obtains a new one with the next frequency from the list, on request.
+ *
+ * An optional activity scanner monitors channel power across all frequencies in the list.  When another frequency
+ * becomes active, this source broadcasts an activity notification so that the consumer can request a rotation, and
+ * the next frequency selection prefers an active frequency over the sequential list order.
  */
 public class MultiFrequencyTunerChannelSource extends TunerChannelSource
 {
@@ -59,6 +64,7 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
     private AtomicBoolean mChangingChannels = new AtomicBoolean();
     private boolean mStarted;
     private ConsumerSourceEventAdapter mConsumerSourceEventAdapter = new ConsumerSourceEventAdapter();
+    private ChannelActivityScanner mActivityScanner;
 
     public MultiFrequencyTunerChannelSource(TunerModel tunerModel, TunerChannelSource tunerChannelSource,
                                             List<Long> frequencies, ChannelSpecification channelSpecification,
@@ -73,6 +79,32 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
         mPreferredTuner = preferredTuner;
     }
 
+    /**
+     * Sets the optional activity scanner that monitors the frequency list for channel activity.  The scanner is
+     * started and stopped with this source.
+     */
+    public void setActivityScanner(ChannelActivityScanner activityScanner)
+    {
+        mActivityScanner = activityScanner;
+
+        if(mActivityScanner != null)
+        {
+            mActivityScanner.setActivityListener(this::activityDetected);
+        }
+    }
+
+    /**
+     * Processes activity notifications from the activity scanner and broadcasts a channel activity notification to
+     * the consumer when the active frequency is not the current frequency and is not locked.
+     */
+    private void activityDetected(Long frequency)
+    {
+        if(mStarted && frequency != getFrequency() && !mLockedFrequencies.contains(frequency))
+        {
+            broadcastConsumerSourceEvent(SourceEvent.channelActivityNotification(this, frequency));
+        }
+    }
+
     /**
      * Cycles this source to use the next frequency in the list.  If no other frequencies are available,
      * because of frequency locking, ignore the rotate request.
@@ -149,6 +181,11 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
         {
             mTunerChannelSource.start();
             mStarted = true;
+
+            if(mActivityScanner != null)
+            {
+                mActivityScanner.start();
+            }
         }
     }
 
@@ -157,6 +194,11 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
     {
         mStarted = false;
 
+        if(mActivityScanner != null)
+        {
+            mActivityScanner.stop();
+        }
+
         if(mTunerChannelSource != null)
         {
             mTunerChannelSource.stop();
@@ -165,13 +207,21 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
         }
     }
 
+    /**
+     * Subscribes to frequency lock change requests received over the processing chain event bus.
+     */
+    @Override
+    protected void subscribe(InterModuleEventBus eventBus)
+    {
+        eventBus.subscribe(this, FrequencyLockChangeRequest.class, this::process);
+    }
+
     /**
      * Processes requests to lock or unlock frequencies for this source that are received over the processing chain
      * event bus.  A locked frequency will not be used in the frequency rotation list until it is unlocked.
      *
      * @param request to lock or unlock a frequency
      */
-    @Subscribe
     public void process(FrequencyLockChangeRequest request)
     {
         if(request.isLockRequest() && !mLockedFrequencies.contains(request.getFrequency()))
@@ -185,7 +235,8 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
     }
 
     /**
-     * Identifies the next frequency in the list to use, while respecting the locked frequencies list.
+     * Identifies the next frequency in the list to use, while respecting the locked frequencies list.  When an
+     * activity scanner is available, the next active frequency is preferred over the sequential list order.
      *
      * @return next frequency or 0 if there currently are no other frequencies than the frequency currently in use.
      */
@@ -196,6 +247,22 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
             return 0;
         }
 
+        if(mActivityScanner != null)
+        {
+            for(int x = 1; x < mFrequencies.size(); x++)
+            {
+                int index = (mFrequencyListPointer + x) % mFrequencies.size();
+                long frequency = mFrequencies.get(index);
+
+                if(frequency != getFrequency() && !mLockedFrequencies.contains(frequency) &&
+                    mActivityScanner.isActive(frequency))
+                {
+                    mFrequencyListPointer = index;
+                    return frequency;
+                }
+            }
+        }
+
         int attempts = 0;
 
         mFrequencyListPointer = ++mFrequencyListPointer % mFrequencies.size();
@@ -139,6 +139,24 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
         mScheduledIntervalProcessor.stop();
     }
 
+    /**
+     * Indicates if this source can be paused and later retuned by the channel source manager that provided it.
+     */
+    public boolean isRetunable()
+    {
+        return false;
+    }
+
+    /**
+     * Stops this tuner channel source from producing a sample stream without disposing it, so that the source can be
+     * retuned by the channel source manager and restarted.  Invoke stop() to release a paused source.
+     */
+    public void pause()
+    {
+        broadcastProducerSourceEvent(SourceEvent.stopSampleStreamRequest(this));
+        mScheduledIntervalProcessor.pause();
+    }
+
     @Override
     public void reset()
     {
@@ -270,6 +288,7 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
     {
         private ScheduledFuture<?> mScheduledFuture;
         private boolean mStopped = false;
+        private boolean mPaused = false;
 
         /**
          * Commands this processor to do a shutdown at the end of this or the next iteration.  Once successfully
@@ -278,6 +297,27 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
         public void stop()
         {
             mStopped = true;
+
+            //A paused processor is no longer scheduled, so run one final iteration to perform the disposal
+            if(mPaused)
+            {
+                mPaused = false;
+                ThreadPool.SCHEDULED.submit(this);
+            }
+        }
+
+        /**
+         * Cancels interval processing without disposing this instance so that processing can be restarted.
+         */
+        public void pause()
+        {
+            if(mScheduledFuture != null && !mStopped)
+            {
+                //Set may-interrupt to false so that we can complete the current iteration
+                mScheduledFuture.cancel(false);
+                mScheduledFuture = null;
+                mPaused = true;
+            }
         }
 
         /**
@@ -285,8 +325,9 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
          */
         public void start()
         {
-            if(mScheduledFuture == null)
+            if(mScheduledFuture == null && !mStopped)
             {
+                mPaused = false;
                 mScheduledFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(this, 0,
                     BUFFER_PROCESSOR_RUN_INTERVAL_MILLISECONDS, TimeUnit.MILLISECONDS);
             }
@@ -298,56 +339,60 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
         @Override
         public void run()
         {
-            try
+            //A paused processor that is restarted can be rescheduled while its prior iteration is still completing
+            synchronized(this)
             {
-                if(!mStopped)
+                try
                 {
-                    try
+                    if(!mStopped)
                     {
-                        getHeartbeatManager().broadcast();
+                        try
+                        {
+                            getHeartbeatManager().broadcast();
+                        }
+                        catch(Throwable t)
+                        {
+                            mLog.error("Error while sending heartbeat", t);
+                        }
                     }
-                    catch(Throwable t)
-                    {
-                        mLog.error("Error while sending heartbeat", t);
-                    }
-                }
 
-                if(!mStopped)
-                {
-                    try
-                    {
-                        processSamples();
-                    }
-                    catch(Throwable t)
+                    if(!mStopped)
                     {
-                        mLog.error("Error while processing samples", t);
+                        try
+                        {
+                            processSamples();
+                        }
+                        catch(Throwable t)
+                        {
+                            mLog.error("Error while processing samples", t);
+                        }
                     }
-                }
 
-                if(mStopped)
-                {
-                    if(mScheduledFuture != null)
+                    if(mStopped)
                     {
-                        //Set may-interrupt to false so that we can complete this iteration
-                        mScheduledFuture.cancel(false);
-                    }
+                        if(mScheduledFuture != null)
+                        {
+                            //Set may-interrupt to false so that we can complete this iteration
+                            mScheduledFuture.cancel(false);
+                        }
 
-                    mScheduledFuture = null;
+                        mScheduledFuture = null;
 
-                    try
-                    {
-                        getHeartbeatManager().broadcast();
-                        performDisposal();
-                    }
-                    catch(Throwable t)
-                    {
-                        mLog.error("Error during final shutdown processing of samples", t);
+                        try
+                        {
+                            getHeartbeatManager().broadcast();
+                            performDisposal();
+                        }
+                        catch(Throwable t)
+                        {
+                            mLog.error("Error during final shutdown processing of samples", t);
+                        }
                     }
                 }
-            }
-            catch(Throwable t)
-            {
-                mLog.error("Error during heartbeat processing", t);
+                catch(Throwable t)
+                {
+                    mLog.error("Error during heartbeat processing", t);
+                }
             }
         }
     }
@@ -0,0 +1,244 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.channel.rotation;
+
+import io.github.dsheirer.buffer.SlidingWindowExtremum;
+import io.github.dsheirer.dsp.filter.channelizer.ChannelPowerMonitor;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.tuner.Tuner;
+import io.github.dsheirer.source.tuner.TunerModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wideband activity scanner for a list of channel frequencies.  Instead of tuning to each frequency in turn and
+ * waiting for the decoder, the scanner registers a channel power monitor with each tuner's polyphase channelizer and
+ * measures the power of every frequency that is within a tuner's spectrum at the same time.
+ *
+ * Each frequency tracks a noise floor that is the minimum of its smoothed power over a long window.  A frequency is
+ * active while its power exceeds the noise floor by the activity threshold, with a small hysteresis for the inactive
+ * transition.  Frequencies that are not within the spectrum of a polyphase channelizer tuner are not monitored.
+ * Frequencies with a continuous carrier are never reported as active.
+ */
+public class ChannelActivityScanner
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ChannelActivityScanner.class);
+    public static final float DEFAULT_ACTIVITY_THRESHOLD = 10.0f;
+    //Power updates per second
+    private static final int UPDATE_RATE = 20;
+    //Noise floor is the minimum smoothed power over this many seconds
+    private static final int NOISE_FLOOR_PERIOD = 60;
+    private static final float HYSTERESIS = 3.0f;
+    private static final float POWER_SMOOTHING = 0.5f;
+    //A frequency is no longer monitored when it has not been updated within this many milliseconds
+    private static final long MONITOR_TIMEOUT = 1000;
+
+    private TunerModel mTunerModel;
+    private long[] mFrequencies;
+    private double mBandwidth;
+    private float mActivityThreshold;
+    private Map<Tuner,ChannelPowerMonitor> mPowerMonitors = new HashMap<>();
+    private Listener<Long> mActivityListener;
+    private float[] mPower;
+    private SlidingWindowExtremum[] mNoiseFloor;
+    private boolean[] mActive;
+    private long[] mLastUpdate;
+
+    /**
+     * Constructs an instance
+     *
+     * @param tunerModel with tuners to monitor
+     * @param frequencies to monitor
+     * @param bandwidth of each channel in hertz
+     * @param activityThreshold in decibels above the noise floor
+     */
+    public ChannelActivityScanner(TunerModel tunerModel, List<Long> frequencies, double bandwidth,
+                                  float activityThreshold)
+    {
+        mTunerModel = tunerModel;
+        mFrequencies = frequencies.stream().mapToLong(Long::longValue).toArray();
+        mBandwidth = bandwidth;
+        mActivityThreshold = activityThreshold;
+        mPower = new float[mFrequencies.length];
+        mNoiseFloor = new SlidingWindowExtremum[mFrequencies.length];
+        mActive = new boolean[mFrequencies.length];
+        mLastUpdate = new long[mFrequencies.length];
+
+        for(int x = 0; x < mFrequencies.length; x++)
+        {
+            mPower[x] = Float.NaN;
+            mNoiseFloor[x] = new SlidingWindowExtremum(UPDATE_RATE * NOISE_FLOOR_PERIOD, false,
+                Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Registers a listener to be notified with the frequency each time that a frequency becomes active.  The listener
+     * is invoked on a channelizer processing thread and should not block.
+     */
+    public void setActivityListener(Listener<Long> listener)
+    {
+        mActivityListener = listener;
+    }
+
+    /**
+     * Starts monitoring the frequencies with each available polyphase channelizer tuner.
+     */
+    public void start()
+    {
+        synchronized(mPowerMonitors)
+        {
+            for(Tuner tuner: mTunerModel.getTuners())
+            {
+                if(!tuner.hasError() && !mPowerMonitors.containsKey(tuner))
+                {
+                    ChannelPowerMonitor powerMonitor = new ChannelPowerMonitor(mFrequencies, mBandwidth, UPDATE_RATE,
+                        this::process);
+
+                    if(tuner.getChannelSourceManager().addPowerMonitor(powerMonitor))
+                    {
+                        mPowerMonitors.put(tuner, powerMonitor);
+                    }
+                }
+            }
+
+            mLog.debug("Started activity scanner for [" + mFrequencies.length + "] frequencies on [" +
+                mPowerMonitors.size() + "] tuners");
+        }
+    }
+
+    /**
+     * Stops monitoring the frequencies
+     */
+    public void stop()
+    {
+        synchronized(mPowerMonitors)
+        {
+            for(Map.Entry<Tuner,ChannelPowerMonitor> entry: mPowerMonitors.entrySet())
+            {
+                entry.getKey().getChannelSourceManager().removePowerMonitor(entry.getValue());
+            }
+
+            mPowerMonitors.clear();
+        }
+    }
+
+    /**
+     * Processes a power update from one of the tuner channel power monitors
+     * @param powers in decibels indexed to match the monitored frequencies, with NaN for unmonitored frequencies
+     */
+    private void process(float[] powers)
+    {
+        List<Long> activated = null;
+
+        synchronized(this)
+        {
+            long now = System.currentTimeMillis();
+
+            for(int x = 0; x < powers.length && x < mFrequencies.length; x++)
+            {
+                if(Float.isNaN(powers[x]))
+                {
+                    continue;
+                }
+
+                float power = Float.isInfinite(powers[x]) ? -200.0f : powers[x];
+                mPower[x] = Float.isNaN(mPower[x]) ? power : mPower[x] + POWER_SMOOTHING * (power - mPower[x]);
+                mLastUpdate[x] = now;
+
+                double noiseFloor = mNoiseFloor[x].put(mPower[x]);
+
+                if(mActive[x])
+                {
+                    mActive[x] = mPower[x] > noiseFloor + mActivityThreshold - HYSTERESIS;
+                }
+                else if(mPower[x] > noiseFloor + mActivityThreshold)
+                {
+                    mActive[x] = true;
+
+                    if(activated == null)
+                    {
+                        activated = new ArrayList<>();
+                    }
+
+                    activated.add(mFrequencies[x]);
+                }
+            }
+        }
+
+        Listener<Long> listener = mActivityListener;
+
+        if(activated != null && listener != null)
+        {
+            for(Long frequency: activated)
+            {
+                listener.receive(frequency);
+            }
+        }
+    }
+
+    /**
+     * Index of the frequency in the monitored frequencies array
+     */
+    private int getIndex(long frequency)
+    {
+        for(int x = 0; x < mFrequencies.length; x++)
+        {
+            if(mFrequencies[x] == frequency)
+            {
+                return x;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Indicates if the frequency is currently monitored by a channelizer
+     */
+    public synchronized boolean isMonitored(long frequency)
+    {
+        int index = getIndex(frequency);
+        return index >= 0 && (System.currentTimeMillis() - mLastUpdate[index]) < MONITOR_TIMEOUT;
+    }
+
+    /**
+     * Indicates if the frequency is currently monitored and active
+     */
+    public synchronized boolean isActive(long frequency)
+    {
+        int index = getIndex(frequency);
+        return index >= 0 && mActive[index] && (System.currentTimeMillis() - mLastUpdate[index]) < MONITOR_TIMEOUT;
+    }
+
+    /**
+     * Current smoothed power of the frequency
+     * @return power in decibels or NaN if the frequency is not monitored
+     */
+    public synchronized float getPower(long frequency)
+    {
+        int index = getIndex(frequency);
+        return index >= 0 ? mPower[index] : Float.NaN;
+    }
+}
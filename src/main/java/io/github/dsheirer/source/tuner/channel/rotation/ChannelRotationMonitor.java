@@ -23,10 +23,12 @@ import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.channel.state.DecoderStateEvent;
 import io.github.dsheirer.channel.state.IDecoderStateEventListener;
 import io.github.dsheirer.channel.state.State;
+import io.github.dsheirer.module.InterModuleEventBus;
 import io.github.dsheirer.module.Module;
 import io.github.dsheirer.preference.PreferenceType;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.ISourceEventListener;
 import io.github.dsheirer.source.ISourceEventProvider;
 import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.util.ThreadPool;
@@ -41,13 +43,18 @@ import java.util.concurrent.TimeUnit;
  * Monitors channel state to detect when a channel is not in an identified active state and issues a request to rotate
  * to the next channel frequency in the list.  This class depends on the ChannelState providing a continuous
  * stream of channel state notification events in the form of DecoderStateEvents.
+ *
+ * When the source has an activity scanner and notifies that another frequency in the list is active, the monitor
+ * issues the rotation request immediately if the channel is not currently in an active state.
  */
-public class ChannelRotationMonitor extends Module implements ISourceEventProvider, IDecoderStateEventListener,
-        Listener<DecoderStateEvent>
+public class ChannelRotationMonitor extends Module implements ISourceEventProvider, ISourceEventListener,
+        IDecoderStateEventListener, Listener<DecoderStateEvent>
 {
     public static final int CHANNEL_ROTATION_DELAY_MINIMUM = 200;
     public static final int CHANNEL_ROTATION_DELAY_DEFAULT = 500;
     public static final int CHANNEL_ROTATION_DELAY_MAXIMUM = 2000;
+    //Channel is considered idle when no active state has been reported within this period (milliseconds)
+    private static final long ACTIVITY_IDLE_PERIOD = 250;
 
     private final static Logger mLog = LoggerFactory.getLogger(ChannelRotationMonitor.class);
     private UserPreferences mUserPreferences;
@@ -98,6 +105,29 @@ public class ChannelRotationMonitor extends Module implements ISourceEventProvid
         return this;
     }
 
+    /**
+     * Listener for source event notifications from the multiple-frequency source
+     */
+    @Override
+    public Listener<SourceEvent> getSourceEventListener()
+    {
+        return this::process;
+    }
+
+    /**
+     * Processes source event notifications to detect activity on other frequencies in the frequency list
+     */
+    private void process(SourceEvent sourceEvent)
+    {
+        if(sourceEvent.getEvent() == SourceEvent.Event.NOTIFICATION_CHANNEL_ACTIVITY && mEnabled &&
+            mSourceEventListener != null &&
+            (mLastActiveTimestamp + ACTIVITY_IDLE_PERIOD) < System.currentTimeMillis())
+        {
+            mSourceEventListener.receive(SourceEvent.frequencyRotationRequest());
+            mLastActiveTimestamp = System.currentTimeMillis();
+        }
+    }
+
     @Override
     public void receive(DecoderStateEvent event)
     {
@@ -112,11 +142,20 @@ public class ChannelRotationMonitor extends Module implements ISourceEventProvid
         }
     }
 
+    /**
+     * Subscribes to channel rotation monitor requests received over the processing chain event bus.
+     */
+    @Override
+    protected void subscribe(InterModuleEventBus eventBus)
+    {
+        eventBus.subscribe(this, DisableChannelRotationMonitorRequest.class, this::disable);
+        eventBus.subscribe(this, AddChannelRotationActiveStateRequest.class, this::addActiveState);
+    }
+
     /**
      * Processes a request to disable this monitor instance.
      * @param request to disable
      */
-    @Subscribe
     public void disable(DisableChannelRotationMonitorRequest request)
     {
         mEnabled = false;
@@ -127,7 +166,6 @@ public class ChannelRotationMonitor extends Module implements ISourceEventProvid
      * Processes a request to add an active state to the list of monitored active states.
      * @param request to add
      */
-    @Subscribe
     public void addActiveState(AddChannelRotationActiveStateRequest request)
     {
         if(!mActiveStates.contains(request.getState()))
@@ -34,6 +34,7 @@ import io.github.dsheirer.source.tuner.hackrf.HackRFTunerConfiguration;
 import io.github.dsheirer.source.tuner.recording.RecordingTunerConfiguration;
 import io.github.dsheirer.source.tuner.rtl.e4k.E4KTunerConfiguration;
 import io.github.dsheirer.source.tuner.rtl.r820t.R820TTunerConfiguration;
+import io.github.dsheirer.source.tuner.test.SyntheticTunerConfiguration;
 
 /**
  * Abstract class to hold a named configuration for a specific type of tuner
@@ -47,6 +48,7 @@ import io.github.dsheirer.source.tuner.rtl.r820t.R820TTunerConfiguration;
     @JsonSubTypes.Type(value=HackRFTunerConfiguration.class, name="hackRFTunerConfiguration"),
     @JsonSubTypes.Type(value= RecordingTunerConfiguration.class, name="recordingTunerConfiguration"),
     @JsonSubTypes.Type(value=R820TTunerConfiguration.class, name="r820TTunerConfiguration"),
+    @JsonSubTypes.Type(value=SyntheticTunerConfiguration.class, name="syntheticTunerConfiguration"),
 })
 @JacksonXmlRootElement( localName = "tuner_configuration" )
 public abstract class TunerConfiguration
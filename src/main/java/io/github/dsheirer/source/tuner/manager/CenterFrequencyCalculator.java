@@ -115,6 +115,61 @@ public class CenterFrequencyCalculator
         return INVALID_FREQUENCY;
     }
 
+    /**
+     * Indicates if the tuner can be tuned to the candidate center frequency and that all of the channels fit within
+     * the tuner's usable bandwidth without overlapping the unusable center (DC spike) region, if one exists.
+     *
+     * @param tunerController that would be tuned
+     * @param channels that must be provided at the candidate center frequency
+     * @param centerFrequency candidate
+     * @return true if the candidate center frequency is valid for the set of channels
+     */
+    public static boolean isValidCenterFrequency(TunerController tunerController, SortedSet<TunerChannel> channels,
+                                                 long centerFrequency)
+    {
+        if(!tunerController.canTune(centerFrequency))
+        {
+            return false;
+        }
+
+        for(TunerChannel channel: channels)
+        {
+            if(!isValidCenterFrequency(tunerController, channel, centerFrequency))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates if the channel fits within the tuner's usable bandwidth at the candidate center frequency without
+     * overlapping the unusable center (DC spike) region, if one exists.
+     *
+     * @param tunerController that would be tuned
+     * @param channel to test
+     * @param centerFrequency candidate
+     * @return true if the channel fits
+     */
+    public static boolean isValidCenterFrequency(TunerController tunerController, TunerChannel channel,
+                                                 long centerFrequency)
+    {
+        if(channel.getMinFrequency() < centerFrequency - tunerController.getUsableHalfBandwidth() ||
+           channel.getMaxFrequency() > centerFrequency + tunerController.getUsableHalfBandwidth())
+        {
+            return false;
+        }
+
+        if(tunerController.hasMiddleUnusableBandwidth())
+        {
+            return !channel.overlaps(centerFrequency - tunerController.getMiddleUnusableHalfBandwidth(),
+                centerFrequency + tunerController.getMiddleUnusableHalfBandwidth());
+        }
+
+        return true;
+    }
+
     /**
      * Indicates if channel along with all of the other currently sourced
      * channels can fit within the tunable bandwidth.
@@ -0,0 +1,205 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * History of tuner channel allocation requests used to place tuner center frequencies so that they cover the
+ * frequencies that have been requested recently and frequently.  Each requested frequency carries a weight that is
+ * incremented on each request and decays exponentially with a configurable half-life.  The history is bounded and
+ * the lowest weight frequency is evicted when the history is full.
+ */
+public class ChannelAllocationHistory
+{
+    public static final int DEFAULT_MAXIMUM_ENTRIES = 128;
+    public static final long DEFAULT_HALF_LIFE_MILLISECONDS = 30 * 60 * 1000;
+
+    private Map<Long,Entry> mEntries = new HashMap<>();
+    private int mMaximumEntries;
+    private long mHalfLife;
+
+    /**
+     * Constructs an instance
+     * @param maximumEntries to retain
+     * @param halfLife in milliseconds for decay of request weights
+     */
+    public ChannelAllocationHistory(int maximumEntries, long halfLife)
+    {
+        mMaximumEntries = maximumEntries;
+        mHalfLife = halfLife;
+    }
+
+    /**
+     * Constructs an instance with default sizing and half-life
+     */
+    public ChannelAllocationHistory()
+    {
+        this(DEFAULT_MAXIMUM_ENTRIES, DEFAULT_HALF_LIFE_MILLISECONDS);
+    }
+
+    /**
+     * Records an allocation request for the tuner channel.
+     * @param tunerChannel that was requested
+     * @param timestamp of the request
+     */
+    public synchronized void add(TunerChannel tunerChannel, long timestamp)
+    {
+        Entry entry = mEntries.get(tunerChannel.getFrequency());
+
+        if(entry == null)
+        {
+            if(mEntries.size() >= mMaximumEntries)
+            {
+                evictLowestWeight(timestamp);
+            }
+
+            entry = new Entry(new TunerChannel(tunerChannel.getFrequency(), tunerChannel.getBandwidth()));
+            mEntries.put(tunerChannel.getFrequency(), entry);
+        }
+        else if(tunerChannel.getBandwidth() > entry.getTunerChannel().getBandwidth())
+        {
+            entry.getTunerChannel().setBandwidth(tunerChannel.getBandwidth());
+        }
+
+        entry.increment(timestamp);
+    }
+
+    /**
+     * Snapshot of the history with each entry's weight decayed to the timestamp.
+     * @param timestamp for weight decay
+     * @return list of entries
+     */
+    public synchronized List<Entry> getEntries(long timestamp)
+    {
+        List<Entry> entries = new ArrayList<>();
+
+        for(Entry entry: mEntries.values())
+        {
+            Entry copy = new Entry(entry.getTunerChannel());
+            copy.mWeight = entry.getWeight(timestamp);
+            copy.mTimestamp = timestamp;
+            entries.add(copy);
+        }
+
+        return entries;
+    }
+
+    /**
+     * Number of frequencies in the history
+     */
+    public synchronized int size()
+    {
+        return mEntries.size();
+    }
+
+    /**
+     * Removes all history
+     */
+    public synchronized void clear()
+    {
+        mEntries.clear();
+    }
+
+    /**
+     * Removes the entry with the lowest decayed weight.
+     */
+    private void evictLowestWeight(long timestamp)
+    {
+        Iterator<Map.Entry<Long,Entry>> it = mEntries.entrySet().iterator();
+        Long lowestKey = null;
+        double lowestWeight = Double.MAX_VALUE;
+
+        while(it.hasNext())
+        {
+            Map.Entry<Long,Entry> mapEntry = it.next();
+            double weight = mapEntry.getValue().getWeight(timestamp);
+
+            if(weight < lowestWeight)
+            {
+                lowestWeight = weight;
+                lowestKey = mapEntry.getKey();
+            }
+        }
+
+        if(lowestKey != null)
+        {
+            mEntries.remove(lowestKey);
+        }
+    }
+
+    /**
+     * Requested tuner channel with decaying request weight
+     */
+    public class Entry
+    {
+        private TunerChannel mTunerChannel;
+        private double mWeight;
+        private long mTimestamp;
+
+        private Entry(TunerChannel tunerChannel)
+        {
+            mTunerChannel = tunerChannel;
+        }
+
+        /**
+         * Requested tuner channel
+         */
+        public TunerChannel getTunerChannel()
+        {
+            return mTunerChannel;
+        }
+
+        /**
+         * Request weight decayed to the specified timestamp
+         */
+        public double getWeight(long timestamp)
+        {
+            if(timestamp <= mTimestamp || mHalfLife <= 0)
+            {
+                return mWeight;
+            }
+
+            return mWeight * Math.pow(0.5, (double)(timestamp - mTimestamp) / mHalfLife);
+        }
+
+        /**
+         * Request weight as of the most recent update
+         */
+        public double getWeight()
+        {
+            return mWeight;
+        }
+
+        /**
+         * Decays the current weight to the timestamp and adds one request
+         */
+        private void increment(long timestamp)
+        {
+            mWeight = getWeight(timestamp) + 1.0;
+            mTimestamp = Math.max(timestamp, mTimestamp);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.source.tuner.Tuner;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Places tuner channels across a set of tuners.  Channel-to-tuner assignment is treated as an interval bin-packing
+ * problem where each tuner is a bin with a usable bandwidth (and optional unusable center region) and each channel
+ * is an interval.
+ *
+ * Placement preference order:
+ * 1. A tuner that is already providing channels and can provide the channel at its current center frequency.
+ * 2. An idle tuner that can provide the channel at its current center frequency.
+ * 3. An idle tuner that must be retuned.
+ * 4. A tuner that must be retuned while providing channels, fewest affected channels first.
+ *
+ * Changing a tuner's center frequency restarts every channel that the tuner is providing, so a tuner is only retuned
+ * when no tuner can provide the channel at its current center frequency.  When a retune is required, the center
+ * frequency is chosen from the allocation history to cover the most heavily requested frequencies that are not
+ * already covered by the other active tuners, which reduces future retunes and spreads the tuners across the
+ * requested spectrum.  Ties are broken in favor of the smallest change from the current center frequency.
+ */
+public class ChannelPlacementOptimizer
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ChannelPlacementOptimizer.class);
+    private ChannelAllocationHistory mAllocationHistory;
+
+    /**
+     * Constructs an instance
+     * @param allocationHistory of channel requests
+     */
+    public ChannelPlacementOptimizer(ChannelAllocationHistory allocationHistory)
+    {
+        mAllocationHistory = allocationHistory;
+    }
+
+    /**
+     * Constructs an instance with a default allocation history
+     */
+    public ChannelPlacementOptimizer()
+    {
+        this(new ChannelAllocationHistory());
+    }
+
+    /**
+     * Allocation history used for center frequency placement
+     */
+    public ChannelAllocationHistory getAllocationHistory()
+    {
+        return mAllocationHistory;
+    }
+
+    /**
+     * Records the channel request in the allocation history.
+     * @param tunerChannel that was requested
+     */
+    public void record(TunerChannel tunerChannel)
+    {
+        mAllocationHistory.add(tunerChannel, System.currentTimeMillis());
+    }
+
+    /**
+     * Obtains a source for the tuner channel from the tuner with the lowest placement cost.
+     *
+     * Only the placement computation is serialized.  Sources are allocated from the tuners outside of the lock so
+     * that a slow allocation or retune on one tuner doesn't block channel requests for the other tuners.  When a
+     * concurrent request changes a tuner after the placements were computed, that tuner's channel source manager
+     * declines the channel and the next placement is attempted.
+     *
+     * @param candidates tuners that may provide the channel
+     * @param allTuners that are currently active, used to determine the frequency coverage of the other tuners
+     * @param tunerChannel requested
+     * @param channelSpecification for the requested channel
+     * @return source or null if none of the candidate tuners can provide the channel
+     */
+    public TunerChannelSource getSource(List<Tuner> candidates, List<Tuner> allTuners, TunerChannel tunerChannel,
+                                        ChannelSpecification channelSpecification)
+    {
+        for(Placement placement: getPlacements(candidates, allTuners, tunerChannel))
+        {
+            try
+            {
+                TunerChannelSource source = placement.getTuner().getChannelSourceManager()
+                    .getSource(tunerChannel, channelSpecification, placement.getPreferredCenterFrequency());
+
+                if(source != null)
+                {
+                    return source;
+                }
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error obtaining channel from tuner [" + placement.getTuner().getName() + "]", e);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Evaluates each candidate tuner and creates a list of feasible placements ordered by placement cost.  Each
+     * placement that requires a retune carries the preferred center frequency for the tuner.  This is an evaluation
+     * only and does not allocate the channel.
+     *
+     * @param candidates tuners that may provide the channel
+     * @param allTuners that are currently active, used to determine the frequency coverage of the other tuners
+     * @param tunerChannel requested
+     * @return placements ordered lowest cost first, or an empty list if no candidate can provide the channel
+     */
+    public synchronized List<Placement> getPlacements(List<Tuner> candidates, List<Tuner> allTuners,
+                                                      TunerChannel tunerChannel)
+    {
+        List<Placement> placements = new ArrayList<>();
+
+        for(Tuner tuner: candidates)
+        {
+            if(tuner == null || tuner.hasError())
+            {
+                continue;
+            }
+
+            ChannelSourceManager channelSourceManager = tuner.getChannelSourceManager();
+
+            try
+            {
+                if(channelSourceManager.canSource(tunerChannel))
+                {
+                    SortedSet<TunerChannel> channels = new TreeSet<>(channelSourceManager.getTunerChannels());
+                    int sourcedCount = channels.size();
+                    channels.add(tunerChannel);
+                    boolean retune = !tuner.getTunerController().isTunedFor(channels);
+                    placements.add(new Placement(tuner, channels, sourcedCount, retune));
+                }
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error evaluating channel placement for tuner [" + tuner.getName() + "]", e);
+            }
+        }
+
+        placements.sort(Comparator.comparingInt(Placement::getAffectedChannelCount)
+            .thenComparing(Placement::isRetuneRequired)
+            .thenComparing(Comparator.comparingInt(Placement::getSourcedChannelCount).reversed()));
+
+        List<ChannelAllocationHistory.Entry> history = null;
+
+        for(Placement placement: placements)
+        {
+            if(placement.isRetuneRequired())
+            {
+                if(history == null)
+                {
+                    history = mAllocationHistory.getEntries(System.currentTimeMillis());
+                }
+
+                placement.setPreferredCenterFrequency(getPreferredCenterFrequency(placement, allTuners, history));
+            }
+        }
+
+        return placements;
+    }
+
+    /**
+     * Determines the center frequency for a placement that requires a retune.  Candidate center frequencies place an
+     * edge of a required or historical channel at an edge of the tuner's usable bandwidth or unusable center region.
+     * The candidate that is valid for all required channels and covers the greatest historical request weight not
+     * already covered by the other active tuners is selected, with ties going to the smallest frequency change.
+     *
+     * @return preferred center frequency or CenterFrequencyCalculator.INVALID_FREQUENCY
+     */
+    private long getPreferredCenterFrequency(Placement placement, List<Tuner> allTuners,
+                                             List<ChannelAllocationHistory.Entry> history)
+    {
+        TunerController controller = placement.getTuner().getTunerController();
+        SortedSet<TunerChannel> required = placement.getChannels();
+
+        //Historical channels that are not covered by another tuner that is currently providing channels
+        List<ChannelAllocationHistory.Entry> uncovered = new ArrayList<>();
+
+        for(ChannelAllocationHistory.Entry entry: history)
+        {
+            if(!isCoveredByOtherTuner(entry.getTunerChannel(), placement.getTuner(), allTuners))
+            {
+                uncovered.add(entry);
+            }
+        }
+
+        List<Long> candidateFrequencies = new ArrayList<>();
+
+        for(TunerChannel channel: required)
+        {
+            addCandidates(candidateFrequencies, channel, controller);
+        }
+
+        for(ChannelAllocationHistory.Entry entry: uncovered)
+        {
+            addCandidates(candidateFrequencies, entry.getTunerChannel(), controller);
+        }
+
+        long currentFrequency = controller.getFrequency();
+        long bestFrequency = CenterFrequencyCalculator.INVALID_FREQUENCY;
+        double bestScore = -1.0;
+        long bestDistance = Long.MAX_VALUE;
+
+        for(long candidate: candidateFrequencies)
+        {
+            if(!CenterFrequencyCalculator.isValidCenterFrequency(controller, required, candidate))
+            {
+                continue;
+            }
+
+            double score = 0.0;
+
+            for(ChannelAllocationHistory.Entry entry: uncovered)
+            {
+                if(CenterFrequencyCalculator.isValidCenterFrequency(controller, entry.getTunerChannel(), candidate))
+                {
+                    score += entry.getWeight();
+                }
+            }
+
+            long distance = Math.abs(candidate - currentFrequency);
+
+            if(score > bestScore + 1e-6 || (Math.abs(score - bestScore) <= 1e-6 && distance < bestDistance))
+            {
+                bestFrequency = candidate;
+                bestScore = score;
+                bestDistance = distance;
+            }
+        }
+
+        return bestFrequency;
+    }
+
+    /**
+     * Adds the candidate center frequencies that place the channel edges at the tuner's usable bandwidth edges or
+     * just outside of the tuner's unusable center region.
+     */
+    private static void addCandidates(List<Long> candidates, TunerChannel channel, TunerController controller)
+    {
+        candidates.add(channel.getMinFrequency() + controller.getUsableHalfBandwidth());
+        candidates.add(channel.getMaxFrequency() - controller.getUsableHalfBandwidth());
+
+        if(controller.hasMiddleUnusableBandwidth())
+        {
+            candidates.add(channel.getMaxFrequency() + controller.getMiddleUnusableHalfBandwidth() + 1);
+            candidates.add(channel.getMinFrequency() - controller.getMiddleUnusableHalfBandwidth() - 1);
+        }
+    }
+
+    /**
+     * Indicates if a tuner other than the specified tuner is providing channels and its current center frequency
+     * covers the channel.
+     */
+    private static boolean isCoveredByOtherTuner(TunerChannel channel, Tuner tuner, List<Tuner> allTuners)
+    {
+        for(Tuner other: allTuners)
+        {
+            if(other != tuner && !other.hasError() && other.getChannelSourceManager().getTunerChannelCount() > 0 &&
+               other.getTunerController().isTunedFor(channel))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Candidate assignment of a channel to a tuner
+     */
+    public static class Placement
+    {
+        private Tuner mTuner;
+        private SortedSet<TunerChannel> mChannels;
+        private int mSourcedChannelCount;
+        private boolean mRetuneRequired;
+        private long mPreferredCenterFrequency = CenterFrequencyCalculator.INVALID_FREQUENCY;
+
+        /**
+         * Constructs an instance
+         * @param tuner for the placement
+         * @param channels currently sourced by the tuner plus the requested channel
+         * @param sourcedChannelCount currently sourced by the tuner
+         * @param retuneRequired to provide the channels
+         */
+        public Placement(Tuner tuner, SortedSet<TunerChannel> channels, int sourcedChannelCount,
+                         boolean retuneRequired)
+        {
+            mTuner = tuner;
+            mChannels = channels;
+            mSourcedChannelCount = sourcedChannelCount;
+            mRetuneRequired = retuneRequired;
+        }
+
+        public Tuner getTuner()
+        {
+            return mTuner;
+        }
+
+        /**
+         * Currently sourced channels plus the requested channel
+         */
+        public SortedSet<TunerChannel> getChannels()
+        {
+            return mChannels;
+        }
+
+        /**
+         * Number of channels currently sourced by the tuner
+         */
+        public int getSourcedChannelCount()
+        {
+            return mSourcedChannelCount;
+        }
+
+        /**
+         * Indicates if the tuner center frequency must change to provide the channel
+         */
+        public boolean isRetuneRequired()
+        {
+            return mRetuneRequired;
+        }
+
+        /**
+         * Center frequency to use when the tuner is retuned, or CenterFrequencyCalculator.INVALID_FREQUENCY for no
+         * preference
+         */
+        public long getPreferredCenterFrequency()
+        {
+            return mPreferredCenterFrequency;
+        }
+
+        /**
+         * Sets the center frequency to use when the tuner is retuned
+         */
+        public void setPreferredCenterFrequency(long preferredCenterFrequency)
+        {
+            mPreferredCenterFrequency = preferredCenterFrequency;
+        }
+
+        /**
+         * Number of currently sourced channels that would be restarted by this placement
+         */
+        public int getAffectedChannelCount()
+        {
+            return mRetuneRequired ? mSourcedChannelCount : 0;
+        }
+    }
+}
@@ -21,6 +21,7 @@
  */
 package io.github.dsheirer.source.tuner.manager;
 
+import io.github.dsheirer.dsp.filter.channelizer.ChannelPowerMonitor;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.ISourceEventProcessor;
@@ -62,6 +63,51 @@ public abstract class ChannelSourceManager implements ISourceEventProcessor
      */
     public abstract TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification);
 
+    /**
+     * Obtains a source for the tuner channel or returns null if the channel cannot be sourced by this tuner.  When the
+     * tuner center frequency must change to provide the channel, the preferred center frequency is used if it is
+     * valid for the full set of sourced channels.
+     *
+     * Note: the default implementation ignores the preferred center frequency.
+     *
+     * @param tunerChannel for requested source
+     * @param channelSpecification for the requested channel
+     * @param preferredCenterFrequency to use if a center frequency change is required, or
+     * CenterFrequencyCalculator.INVALID_FREQUENCY for no preference
+     * @return tuner channel source or null
+     */
+    public TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification,
+                                        long preferredCenterFrequency)
+    {
+        return getSource(tunerChannel, channelSpecification);
+    }
+
+    /**
+     * Retunes a paused tuner channel source that was provided by this source manager to the tuner channel, when the
+     * channel can be provided without changing the tuner center frequency.  A retuned source is restarted by invoking
+     * start() on the source.
+     *
+     * Note: the default implementation does not support retuning.
+     *
+     * @param source that was paused
+     * @param tunerChannel with the new frequency
+     * @return true if the source was retuned, or false if a new source must be obtained for the tuner channel
+     */
+    public boolean retune(TunerChannelSource source, TunerChannel tunerChannel)
+    {
+        return false;
+    }
+
+    /**
+     * Indicates if this source manager can provide the tuner channel along with all of the currently sourced tuner
+     * channels, either at the current tuner center frequency or by changing the tuner center frequency.  This is an
+     * evaluation only and does not allocate the channel.
+     *
+     * @param tunerChannel to evaluate
+     * @return true if the channel can be sourced
+     */
+    public abstract boolean canSource(TunerChannel tunerChannel);
+
     /**
      * Signals that the complex buffer provider has an error and can no long provider buffers.  The subclass should
      * implement procedures to gracefully shutdown any tuner channel sources that have been provisioned.
@@ -69,6 +115,39 @@ public abstract class ChannelSourceManager implements ISourceEventProcessor
      */
     public abstract void setErrorMessage(String errorMessage);
 
+    /**
+     * Registers a listener to receive reduced resolution spectra derived from the channel source manager's existing
+     * channel processing, when supported.  The default implementation does not produce spectra.
+     *
+     * @param listener to receive interleaved complex spectra in forward FFT bin order, or null to stop
+     * @param frameRate spectra per second
+     */
+    public void setSpectrumListener(Listener<float[]> listener, int frameRate)
+    {
+        //no-op
+    }
+
+    /**
+     * Adds a power monitor to measure the power of a set of frequencies from the channel source manager's existing
+     * channel processing, when supported.  The default implementation does not support power monitors.
+     *
+     * @param powerMonitor to add
+     * @return true if the power monitor was added
+     */
+    public boolean addPowerMonitor(ChannelPowerMonitor powerMonitor)
+    {
+        return false;
+    }
+
+    /**
+     * Removes the power monitor
+     * @param powerMonitor to remove
+     */
+    public void removePowerMonitor(ChannelPowerMonitor powerMonitor)
+    {
+        //no-op
+    }
+
     /**
      * Adds a listener to receive source events
      */
@@ -34,13 +34,29 @@ import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * Channel provider for heterodyne and decimate method of channel provisioning.
+ *
+ * Channel sources can share a front-end decimation stage.  The tuner bandwidth is divided into overlapping sub-bands
+ * that are spaced at half of the sub-band sample rate.  A sub-band is only created when at least two streaming channel
+ * sources are located within it, and it mixes and decimates the full tuner rate sample stream once.  Channel sources
+ * in the sub-band then only run their fine mixer and CIC decimator at the reduced sub-band sample rate.  A channel
+ * source that is alone in its sub-band is processed at the full tuner sample rate, and channel sources are moved
+ * between the full rate and the sub-band sample streams as other channels start and stop or when the tuner center
+ * frequency changes.  Channel specifications that can't be accommodated within a sub-band are always processed at the
+ * full tuner sample rate.
  */
 public class HeterodyneChannelSourceManager extends ChannelSourceManager
 {
@@ -48,11 +64,29 @@ public class HeterodyneChannelSourceManager extends ChannelSourceManager
 
     private final static int DELAY_BUFFER_DURATION_MILLISECONDS = 2000;
 
+    //Minimum sample rate for the decimated sub-bands
+    private final static double SUB_BAND_MINIMUM_SAMPLE_RATE = 200000.0;
+
+    //Usable portion of the sub-band bandwidth after half-band decimation filtering
+    private final static double SUB_BAND_USABLE_BANDWIDTH = 0.8;
+
+    //Maximum decimation rate supported by the decimation filter factory
+    private final static int SUB_BAND_MAXIMUM_DECIMATION = 1024;
+
+    //Minimum number of streaming channel sources within a sub-band before the sub-band is used
+    private final static int SUB_BAND_MINIMUM_CHANNEL_COUNT = 2;
+
     private List<CICTunerChannelSource> mChannelSources = new CopyOnWriteArrayList<>();
     private SortedSet<TunerChannel> mTunerChannels = new TreeSet<>();
     private TunerController mTunerController;
     private ChannelSourceEventProcessor mChannelSourceEventProcessor = new ChannelSourceEventProcessor();
     private ReusableComplexDelayBuffer mSampleDelayBuffer;
+    private Set<CICTunerChannelSource> mSubBandChannelSources = new CopyOnWriteArraySet<>();
+    private Map<Integer,HeterodyneSubBand> mSubBands = new HashMap<>();
+    private Map<CICTunerChannelSource,HeterodyneSubBand> mSubBandAssignments = new HashMap<>();
+    private Set<CICTunerChannelSource> mStreamingSubBandChannelSources = new HashSet<>();
+    private Map<CICTunerChannelSource,Long> mPendingStartTimestamps = new HashMap<>();
+    private int mSubBandDecimation;
 
     public HeterodyneChannelSourceManager(TunerController tunerController)
     {
@@ -72,16 +106,37 @@ public class HeterodyneChannelSourceManager extends ChannelSourceManager
         return mTunerChannels.size();
     }
 
+    @Override
+    public boolean canSource(TunerChannel tunerChannel)
+    {
+        return CenterFrequencyCalculator.canTune(tunerChannel, mTunerController, mTunerChannels);
+    }
+
     @Override
     public TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification)
+    {
+        return getSource(tunerChannel, channelSpecification, CenterFrequencyCalculator.INVALID_FREQUENCY);
+    }
+
+    @Override
+    public TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification,
+                                        long preferredCenterFrequency)
     {
         if(CenterFrequencyCalculator.canTune(tunerChannel, mTunerController, mTunerChannels))
         {
             try
             {
+                boolean subBand = canUseSubBand(channelSpecification);
+
                 //Attempt to create the channel source first, in case we get a filter design exception
                 CICTunerChannelSource tunerChannelSource = new CICTunerChannelSource(mChannelSourceEventProcessor,
-                    tunerChannel, mTunerController.getSampleRate(), channelSpecification);
+                    tunerChannel, mTunerController.getSampleRate(), subBand ? mSubBandDecimation : 1,
+                    channelSpecification);
+
+                if(subBand)
+                {
+                    mSubBandChannelSources.add(tunerChannelSource);
+                }
 
                 //Add to the list of channel sources so that it will receive the tuner frequency change
                 mChannelSources.add(tunerChannelSource);
@@ -91,7 +146,7 @@ public class HeterodyneChannelSourceManager extends ChannelSourceManager
 
                 //Add to the channel list and update the tuner center frequency as needed
                 mTunerChannels.add(tunerChannel);
-                updateTunerFrequency();
+                updateTunerFrequency(getTunerChannels(), preferredCenterFrequency);
 
                 //Lock the tuner controller frequency and sample rate
                 mTunerController.setLocked(true);
@@ -119,13 +174,28 @@ public class HeterodyneChannelSourceManager extends ChannelSourceManager
     }
 
     /**
-     * Calculates a new center frequency and updates the tuner center frequency
+     * Calculates a new center frequency and updates the tuner center frequency when the current center frequency
+     * can't provide the channels.
+     *
+     * @param tunerChannels that must be provided
+     * @param preferredCenterFrequency to use when it is valid for the channels, or
+     * CenterFrequencyCalculator.INVALID_FREQUENCY for no preference
      */
-    private void updateTunerFrequency()
+    private void updateTunerFrequency(SortedSet<TunerChannel> tunerChannels, long preferredCenterFrequency)
     {
-        if(!mTunerController.isTunedFor(getTunerChannels()))
+        if(!mTunerController.isTunedFor(tunerChannels))
         {
-            long centerFrequency = CenterFrequencyCalculator.getCenterFrequency(mTunerController, getTunerChannels());
+            long centerFrequency;
+
+            if(preferredCenterFrequency != CenterFrequencyCalculator.INVALID_FREQUENCY &&
+               CenterFrequencyCalculator.isValidCenterFrequency(mTunerController, tunerChannels, preferredCenterFrequency))
+            {
+                centerFrequency = preferredCenterFrequency;
+            }
+            else
+            {
+                centerFrequency = CenterFrequencyCalculator.getCenterFrequency(mTunerController, tunerChannels);
+            }
 
             if(centerFrequency == CenterFrequencyCalculator.INVALID_FREQUENCY)
             {
@@ -156,11 +226,19 @@ public class HeterodyneChannelSourceManager extends ChannelSourceManager
                 //Tuner center frequency has changed - update channels
                 updateTunerFrequency(tunerSourceEvent.getValue().longValue());
 
-                //Clear the delay buffer since any delayed samples will be centered on the previous frequency
+                //Clear the delay buffers since any delayed samples will be centered on the previous frequency
                 if(mSampleDelayBuffer != null)
                 {
                     mSampleDelayBuffer.clear();
                 }
+
+                synchronized(mSubBands)
+                {
+                    for(HeterodyneSubBand subBand: mSubBands.values())
+                    {
+                        subBand.clear();
+                    }
+                }
                 break;
             case NOTIFICATION_FREQUENCY_CORRECTION_CHANGE:
                 //The tuner is self-correcting for PPM error - relay to channels
@@ -205,6 +283,276 @@ public class HeterodyneChannelSourceManager extends ChannelSourceManager
         {
             channelSource.setFrequency(tunerFrequency);
         }
+
+        updateSubBands(tunerFrequency);
+    }
+
+    /**
+     * Determines the sub-band decimation rate for the current tuner sample rate and indicates if a channel with the
+     * specification can be processed from a decimated sub-band.  The sub-band decimation rate is only updated when
+     * there are no sub-band capable channel sources, since the tuner sample rate is locked while channels are
+     * allocated.
+     *
+     * @param channelSpecification for the requested channel
+     * @return true if the channel can be processed from a decimated sub-band
+     */
+    private boolean canUseSubBand(ChannelSpecification channelSpecification)
+    {
+        synchronized(mSubBands)
+        {
+            if(mSubBandChannelSources.isEmpty())
+            {
+                double tunerSampleRate = mTunerController.getSampleRate();
+                int decimation = 1;
+
+                while(decimation < SUB_BAND_MAXIMUM_DECIMATION &&
+                    (tunerSampleRate / (decimation * 2)) >= SUB_BAND_MINIMUM_SAMPLE_RATE &&
+                    mTunerController.getBufferSampleCount() % (decimation * 2) == 0)
+                {
+                    decimation *= 2;
+                }
+
+                mSubBandDecimation = decimation;
+            }
+        }
+
+        if(mSubBandDecimation < 2)
+        {
+            return false;
+        }
+
+        double subBandSampleRate = mTunerController.getSampleRate() / mSubBandDecimation;
+
+        //The channel must be located within the usable bandwidth of the nearest sub-band and the channel source must
+        //be able to decimate the sub-band sample rate to the channel sample rate
+        double maximumOffset = (subBandSampleRate / 4.0) + (channelSpecification.getBandwidth() / 2.0);
+
+        return subBandSampleRate >= (channelSpecification.getMinimumSampleRate() * 2.0) &&
+            maximumOffset <= (subBandSampleRate * SUB_BAND_USABLE_BANDWIDTH / 2.0);
+    }
+
+    /**
+     * Spacing between sub-band center frequencies.  Adjacent sub-bands overlap by half of the sub-band bandwidth.
+     */
+    private double getSubBandSpacing()
+    {
+        return mTunerController.getSampleRate() / mSubBandDecimation / 2.0;
+    }
+
+    /**
+     * Calculates the index of the sub-band nearest to the channel source frequency.
+     * @param channelSource to locate
+     * @param tunerFrequency current tuner center frequency
+     * @return sub-band index relative to the tuner center frequency
+     */
+    private int getSubBandIndex(CICTunerChannelSource channelSource, long tunerFrequency)
+    {
+        long offset = channelSource.getTunerChannel().getFrequency() - tunerFrequency;
+        return (int)Math.round(offset / getSubBandSpacing());
+    }
+
+    /**
+     * Frequency offset of the indexed sub-band center frequency from the tuner center frequency
+     */
+    private long getSubBandOffset(int index)
+    {
+        return Math.round(index * getSubBandSpacing());
+    }
+
+    /**
+     * Assigns each streaming sub-band capable channel source to either a shared sub-band or to the full rate sample
+     * stream.  Sub-bands are created when at least two streaming channel sources are located within the sub-band and
+     * sub-bands are disposed when they no longer have any assigned channel sources.
+     *
+     * @param tunerFrequency current tuner center frequency
+     */
+    private void updateSubBands(long tunerFrequency)
+    {
+        synchronized(mSubBands)
+        {
+            Map<Integer,List<CICTunerChannelSource>> channelSourcesBySubBand = new HashMap<>();
+
+            for(CICTunerChannelSource channelSource: mStreamingSubBandChannelSources)
+            {
+                channelSourcesBySubBand.computeIfAbsent(getSubBandIndex(channelSource, tunerFrequency),
+                    index -> new ArrayList<>()).add(channelSource);
+            }
+
+            for(Map.Entry<Integer,List<CICTunerChannelSource>> entry: channelSourcesBySubBand.entrySet())
+            {
+                if(entry.getValue().size() >= SUB_BAND_MINIMUM_CHANNEL_COUNT)
+                {
+                    HeterodyneSubBand subBand = mSubBands.get(entry.getKey());
+
+                    if(subBand == null)
+                    {
+                        subBand = createSubBand(entry.getKey(), entry.getValue());
+                    }
+
+                    for(CICTunerChannelSource channelSource: entry.getValue())
+                    {
+                        assignSubBand(channelSource, subBand);
+                    }
+                }
+                else
+                {
+                    for(CICTunerChannelSource channelSource: entry.getValue())
+                    {
+                        assignFullRate(channelSource);
+                    }
+                }
+            }
+
+            Iterator<HeterodyneSubBand> it = mSubBands.values().iterator();
+
+            while(it.hasNext())
+            {
+                HeterodyneSubBand subBand = it.next();
+
+                if(!mSubBandAssignments.containsValue(subBand))
+                {
+                    it.remove();
+                    mSampleDelayBuffer.removeListener(subBand);
+                    subBand.dispose();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates and registers a new sub-band.  The sub-band is preloaded with delayed tuner sample buffers starting at
+     * the oldest sample buffer that is needed by any of the channel sources that will be assigned to it.
+     *
+     * @param index of the sub-band relative to the tuner center frequency
+     * @param channelSources that will be assigned to the sub-band
+     * @return sub-band
+     */
+    private HeterodyneSubBand createSubBand(int index, List<CICTunerChannelSource> channelSources)
+    {
+        long timestamp = System.currentTimeMillis();
+
+        for(CICTunerChannelSource channelSource: channelSources)
+        {
+            timestamp = Math.min(timestamp, getStartTimestamp(channelSource));
+        }
+
+        HeterodyneSubBand subBand = new HeterodyneSubBand(index, getSubBandOffset(index),
+            mTunerController.getSampleRate(), mSubBandDecimation, (int)(DELAY_BUFFER_DURATION_MILLISECONDS /
+            mTunerController.getBufferDuration()), mTunerController.getBufferDuration());
+        mSubBands.put(index, subBand);
+        mSampleDelayBuffer.addListener(subBand, timestamp);
+        return subBand;
+    }
+
+    /**
+     * Timestamp of the oldest sample buffer that the channel source needs from a new input.  This is either the
+     * requested start timestamp for a channel source that isn't streaming yet, or the timestamp of the last buffer
+     * that the channel source processed.
+     */
+    private long getStartTimestamp(CICTunerChannelSource channelSource)
+    {
+        Long startTimestamp = mPendingStartTimestamps.get(channelSource);
+
+        if(startTimestamp != null)
+        {
+            return startTimestamp;
+        }
+
+        long lastTimestamp = channelSource.getLastTimestamp();
+        return lastTimestamp > 0 ? lastTimestamp : System.currentTimeMillis();
+    }
+
+    /**
+     * Assigns the channel source to receive the sub-band sample stream.  A channel source that was receiving the full
+     * rate sample stream, or another sub-band's sample stream, is preloaded from its last processed sample buffer and
+     * switches over at the first newer sub-band sample buffer.
+     *
+     * @param channelSource to assign
+     * @param subBand to receive samples from
+     */
+    private void assignSubBand(CICTunerChannelSource channelSource, HeterodyneSubBand subBand)
+    {
+        HeterodyneSubBand current = mSubBandAssignments.get(channelSource);
+
+        if(current == subBand)
+        {
+            return;
+        }
+
+        long timestamp = getStartTimestamp(channelSource);
+        boolean fullRate = current == null && !mPendingStartTimestamps.containsKey(channelSource);
+        mPendingStartTimestamps.remove(channelSource);
+
+        channelSource.setSubBandFrequencyOffset(subBand.getFrequencyOffset());
+        channelSource.requestSubBandInput(true);
+        subBand.addListener(channelSource.getSubBandListener(), timestamp);
+        mSubBandAssignments.put(channelSource, subBand);
+
+        if(current != null)
+        {
+            current.removeListener(channelSource.getSubBandListener());
+        }
+        else if(fullRate)
+        {
+            mSampleDelayBuffer.removeListener(channelSource);
+        }
+    }
+
+    /**
+     * Assigns the channel source to receive the full rate sample stream.  A channel source that was receiving a
+     * sub-band sample stream is preloaded from its last processed sample buffer and switches over at the first newer
+     * full rate sample buffer.
+     *
+     * @param channelSource to assign
+     */
+    private void assignFullRate(CICTunerChannelSource channelSource)
+    {
+        HeterodyneSubBand current = mSubBandAssignments.remove(channelSource);
+        Long startTimestamp = mPendingStartTimestamps.remove(channelSource);
+
+        if(current != null)
+        {
+            channelSource.requestSubBandInput(false);
+            mSampleDelayBuffer.addListener(channelSource, getStartTimestamp(channelSource));
+            current.removeListener(channelSource.getSubBandListener());
+        }
+        else if(startTimestamp != null)
+        {
+            //The start sample stream request contains a start timestamp and the delay buffer will preload the
+            //channel with delayed sample buffers that either contain the timestamp or occur later/newer than the
+            //timestamp.
+            mSampleDelayBuffer.addListener(channelSource, startTimestamp);
+        }
+    }
+
+    /**
+     * Stops the sample stream to the sub-band capable channel source and reassigns the remaining channel sources.
+     *
+     * @param channelSource to stop
+     */
+    private void stopSubBandChannelSource(CICTunerChannelSource channelSource)
+    {
+        synchronized(mSubBands)
+        {
+            if(mStreamingSubBandChannelSources.remove(channelSource))
+            {
+                mPendingStartTimestamps.remove(channelSource);
+                HeterodyneSubBand subBand = mSubBandAssignments.remove(channelSource);
+
+                if(subBand != null)
+                {
+                    subBand.removeListener(channelSource.getSubBandListener());
+                }
+                else if(mSampleDelayBuffer != null)
+                {
+                    mSampleDelayBuffer.removeListener(channelSource);
+                }
+
+                updateSubBands(mTunerController.getFrequency());
+            }
+        }
+
+        stopDelayBuffer();
     }
 
     /**
@@ -251,7 +599,19 @@ public class HeterodyneChannelSourceManager extends ChannelSourceManager
             switch(sourceEvent.getEvent())
             {
                 case REQUEST_START_SAMPLE_STREAM:
-                    if(sourceEvent.getSource() instanceof CICTunerChannelSource)
+                    if(mSubBandChannelSources.contains(sourceEvent.getSource()))
+                    {
+                        startDelayBuffer();
+
+                        synchronized(mSubBands)
+                        {
+                            CICTunerChannelSource channelSource = (CICTunerChannelSource)sourceEvent.getSource();
+                            mStreamingSubBandChannelSources.add(channelSource);
+                            mPendingStartTimestamps.put(channelSource, sourceEvent.getValue().longValue());
+                            updateSubBands(mTunerController.getFrequency());
+                        }
+                    }
+                    else if(sourceEvent.getSource() instanceof CICTunerChannelSource)
                     {
                         startDelayBuffer();
 
@@ -263,7 +623,11 @@ public class HeterodyneChannelSourceManager extends ChannelSourceManager
                     }
                     break;
                 case REQUEST_STOP_SAMPLE_STREAM:
-                    if(sourceEvent.getSource() instanceof CICTunerChannelSource)
+                    if(mSubBandChannelSources.contains(sourceEvent.getSource()))
+                    {
+                        stopSubBandChannelSource((CICTunerChannelSource)sourceEvent.getSource());
+                    }
+                    else if(sourceEvent.getSource() instanceof CICTunerChannelSource)
                     {
                         mSampleDelayBuffer.removeListener((CICTunerChannelSource)sourceEvent.getSource());
                         stopDelayBuffer();
@@ -273,6 +637,8 @@ public class HeterodyneChannelSourceManager extends ChannelSourceManager
                     if(sourceEvent.getSource() instanceof CICTunerChannelSource)
                     {
                         CICTunerChannelSource channelSource = (CICTunerChannelSource)sourceEvent.getSource();
+                        stopSubBandChannelSource(channelSource);
+                        mSubBandChannelSources.remove(channelSource);
                         mChannelSources.remove(channelSource);
                         mTunerChannels.remove(channelSource.getTunerChannel());
                         channelSource.dispose();
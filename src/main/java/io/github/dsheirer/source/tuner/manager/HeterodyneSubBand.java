@@ -0,0 +1,185 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.dsp.filter.decimate.DecimationFilterFactory;
+import io.github.dsheirer.dsp.filter.decimate.IComplexDecimationFilter;
+import io.github.dsheirer.dsp.mixer.IOscillator;
+import io.github.dsheirer.dsp.mixer.LowPhaseNoiseOscillator;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.sample.buffer.ReusableComplexDelayBuffer;
+import io.github.dsheirer.sample.complex.Complex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared front-end sub-band for the heterodyne channel source manager.  Mixes a fixed frequency offset from the tuner
+ * center frequency to baseband and decimates the full tuner rate sample stream by a power of 2 using the half-band
+ * filters from the decimation filter factory.  The reduced rate sub-band sample stream is distributed to each of the
+ * channel sources that are located within the sub-band, so that each channel source only has to run its fine mixer
+ * and CIC decimator at the sub-band sample rate.
+ *
+ * Sub-band output buffers pass through a delay buffer so that channel sources that are added to an already running
+ * sub-band can be pre-loaded with delayed sample buffers, the same as with the tuner sample delay buffer.
+ *
+ * Sample buffers are mixed and decimated on the tuner sample buffer thread as they arrive, so the sub-band doesn't add
+ * a processing interval ahead of the channel sources.
+ */
+public class HeterodyneSubBand implements Listener<ReusableComplexBuffer>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(HeterodyneSubBand.class);
+
+    private ReusableComplexBufferQueue mReusableComplexBufferQueue = new ReusableComplexBufferQueue("HeterodyneSubBand");
+    private ReusableComplexDelayBuffer mDelayBuffer;
+    private IOscillator mMixer;
+    private IComplexDecimationFilter mDecimationFilter;
+    private int mIndex;
+    private long mFrequencyOffset;
+    private double mSampleRate;
+    private boolean mDisposed;
+
+    /**
+     * Constructs an instance
+     *
+     * @param index of this sub-band relative to the tuner center frequency
+     * @param frequencyOffset of this sub-band's center frequency from the tuner center frequency in hertz
+     * @param tunerSampleRate of the incoming sample stream
+     * @param decimation rate for this sub-band as a power of 2
+     * @param delayBufferSize number of sub-band buffers to retain in the delay buffer
+     * @param bufferDuration in milliseconds for each sample buffer
+     */
+    public HeterodyneSubBand(int index, long frequencyOffset, double tunerSampleRate, int decimation,
+                             int delayBufferSize, long bufferDuration)
+    {
+        mIndex = index;
+        mFrequencyOffset = frequencyOffset;
+        mSampleRate = tunerSampleRate / (double)decimation;
+        mMixer = new LowPhaseNoiseOscillator(-frequencyOffset, tunerSampleRate);
+        mDecimationFilter = DecimationFilterFactory.getComplexDecimationFilter(decimation);
+        mDelayBuffer = new ReusableComplexDelayBuffer(delayBufferSize, bufferDuration);
+    }
+
+    /**
+     * Index of this sub-band relative to the tuner center frequency
+     */
+    public int getIndex()
+    {
+        return mIndex;
+    }
+
+    /**
+     * Frequency offset of this sub-band's center frequency from the tuner center frequency
+     */
+    public long getFrequencyOffset()
+    {
+        return mFrequencyOffset;
+    }
+
+    /**
+     * Sample rate of the decimated sub-band sample stream
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Adds the channel listener to receive sub-band sample buffers.  The listener will be preloaded with delayed buffers
+     * that are at or after the specified timestamp.
+     *
+     * @param listener to add
+     * @param timestamp of the oldest sample buffers to preload to the listener
+     */
+    public void addListener(Listener<ReusableComplexBuffer> listener, long timestamp)
+    {
+        mDelayBuffer.addListener(listener, timestamp);
+    }
+
+    /**
+     * Removes the channel listener from receiving sub-band sample buffers
+     */
+    public void removeListener(Listener<ReusableComplexBuffer> listener)
+    {
+        mDelayBuffer.removeListener(listener);
+    }
+
+    /**
+     * Clears the delayed sub-band sample buffers.  This should be invoked when the tuner center frequency changes since
+     * any delayed samples are centered on the previous frequency.
+     */
+    public void clear()
+    {
+        mDelayBuffer.clear();
+    }
+
+    /**
+     * Stops sample processing and releases any delayed sample buffers.
+     */
+    public synchronized void dispose()
+    {
+        mDisposed = true;
+        mDelayBuffer.dispose();
+    }
+
+    /**
+     * Primary interface for receiving incoming tuner sample buffers.  Mixes the sub-band center frequency to baseband,
+     * decimates the samples and sends the decimated buffer to the channel listeners via the delay buffer.
+     */
+    @Override
+    public synchronized void receive(ReusableComplexBuffer complexBuffer)
+    {
+        if(mDisposed)
+        {
+            complexBuffer.decrementUserCount();
+            return;
+        }
+
+        try
+        {
+            float[] samples = complexBuffer.getSamples();
+
+            ReusableComplexBuffer translatedComplexBuffer = mReusableComplexBufferQueue.getBuffer(samples.length);
+            translatedComplexBuffer.setTimestamp(complexBuffer.getTimestamp());
+            float[] translatedSamples = translatedComplexBuffer.getSamples();
+
+            /* Perform frequency translation */
+            for(int x = 0; x < samples.length; x += 2)
+            {
+                mMixer.rotate();
+
+                translatedSamples[x] = Complex.multiplyInphase(samples[x], samples[x + 1],
+                    mMixer.inphase(), mMixer.quadrature());
+
+                translatedSamples[x + 1] = Complex.multiplyQuadrature(samples[x], samples[x + 1],
+                    mMixer.inphase(), mMixer.quadrature());
+            }
+
+            //The decimation filter decrements the user count on the translated buffer
+            mDelayBuffer.receive(mDecimationFilter.decimate(translatedComplexBuffer));
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error while processing sub-band [" + mIndex + "] samples", t);
+        }
+
+        complexBuffer.decrementUserCount();
+    }
+}
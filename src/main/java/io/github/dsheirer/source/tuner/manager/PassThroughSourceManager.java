@@ -66,6 +66,16 @@ public class PassThroughSourceManager extends ChannelSourceManager
         return mTunerChannels.size();
     }
 
+    /**
+     * Pass through channels can't change the tuner center frequency, so the channel must be within the current
+     * tuned bandwidth.
+     */
+    @Override
+    public boolean canSource(TunerChannel tunerChannel)
+    {
+        return mTunerController.isTunedFor(tunerChannel);
+    }
+
     @Override
     public TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification)
     {
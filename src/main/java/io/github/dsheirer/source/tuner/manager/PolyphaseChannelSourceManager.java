@@ -21,7 +21,9 @@
  */
 package io.github.dsheirer.source.tuner.manager;
 
+import io.github.dsheirer.dsp.filter.channelizer.ChannelPowerMonitor;
 import io.github.dsheirer.dsp.filter.channelizer.PolyphaseChannelManager;
+import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.TunerController;
@@ -162,11 +164,14 @@ public class PolyphaseChannelSourceManager extends ChannelSourceManager
      *
      * @param channels that are currently sourced by this source manager
      * @param currentCenterFrequency of the tuner.
+     * @param preferredCenterFrequency to use when the current center frequency can't be reused, or
+     * CenterFrequencyCalculator.INVALID_FREQUENCY for no preference.  The preferred frequency is aligned to the
+     * polyphase channel spacing before use.
      * @return optimal center tuned frequency for the set of currently sourced tuner channels.
      * @throws IllegalArgumentException if a center frequency cannot be determined for the set of tuner channels
      */
-    private long getCenterFrequency(SortedSet<TunerChannel> channels, long currentCenterFrequency)
-        throws IllegalArgumentException
+    private long getCenterFrequency(SortedSet<TunerChannel> channels, long currentCenterFrequency,
+                                    long preferredCenterFrequency) throws IllegalArgumentException
     {
         if(channels.isEmpty())
         {
@@ -189,6 +194,25 @@ public class PolyphaseChannelSourceManager extends ChannelSourceManager
             return currentCenterFrequency;
         }
 
+        //Strategy 1a: use the preferred frequency, aligned to the nearest integral channel spacing
+        if(preferredCenterFrequency != CenterFrequencyCalculator.INVALID_FREQUENCY)
+        {
+            double channelBandwidth = mPolyphaseChannelManager.getChannelBandwidth();
+            double offset = (preferredCenterFrequency - bestIntegralFrequency) / channelBandwidth;
+            long alignedFrequency = bestIntegralFrequency + (long)(FastMath.round(offset) * channelBandwidth);
+
+            if(mTunerController.canTune(alignedFrequency) && isValidCenterFrequency(channels, alignedFrequency))
+            {
+                return alignedFrequency;
+            }
+
+            if(mTunerController.canTune(preferredCenterFrequency) &&
+               isValidCenterFrequency(channels, preferredCenterFrequency))
+            {
+                return preferredCenterFrequency;
+            }
+        }
+
         double usableHalfBandwidth = mTunerController.getUsableHalfBandwidth();
 
         //Strategy 2: start by placing the center frequency exactly one channel width below the first channel frequency
@@ -401,6 +425,38 @@ public class PolyphaseChannelSourceManager extends ChannelSourceManager
         return mPolyphaseChannelManager.getTunerChannelCount();
     }
 
+    /**
+     * Indicates if the tuner channel can be sourced along with the currently sourced channels.
+     *
+     * @param tunerChannel to evaluate
+     * @return true if a valid center frequency exists for the channel set
+     */
+    @Override
+    public boolean canSource(TunerChannel tunerChannel)
+    {
+        if(isTunable(tunerChannel))
+        {
+            SortedSet<TunerChannel> tunerChannels = getTunerChannels();
+            tunerChannels.add(tunerChannel);
+
+            if(canTune(tunerChannels))
+            {
+                try
+                {
+                    getCenterFrequency(tunerChannels, mTunerController.getFrequency(),
+                        CenterFrequencyCalculator.INVALID_FREQUENCY);
+                    return true;
+                }
+                catch(IllegalArgumentException iae)
+                {
+                    //No valid center frequency
+                }
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Allocates a tuner channel source for the tuner channel.
      *
@@ -409,6 +465,22 @@ public class PolyphaseChannelSourceManager extends ChannelSourceManager
      */
     @Override
     public TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification)
+    {
+        return getSource(tunerChannel, channelSpecification, CenterFrequencyCalculator.INVALID_FREQUENCY);
+    }
+
+    /**
+     * Allocates a tuner channel source for the tuner channel, using the preferred center frequency if the tuner
+     * must be retuned to provide the channel.
+     *
+     * @param tunerChannel for requested source
+     * @param channelSpecification for the requested channel
+     * @param preferredCenterFrequency to use for a retune, or CenterFrequencyCalculator.INVALID_FREQUENCY
+     * @return allocated DDC tuner channel source, or null if the channel cannot be provided by this source manager
+     */
+    @Override
+    public TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification,
+                                        long preferredCenterFrequency)
     {
         if(isTunable(tunerChannel))
         {
@@ -426,7 +498,8 @@ public class PolyphaseChannelSourceManager extends ChannelSourceManager
                 //Attempt to adjust the center frequency before we allocate the channel
                 try
                 {
-                    updatedCenterFrequency = getCenterFrequency(tunerChannels, currentCenterFrequency);
+                    updatedCenterFrequency = getCenterFrequency(tunerChannels, currentCenterFrequency,
+                        preferredCenterFrequency);
 
                     if(updatedCenterFrequency != currentCenterFrequency && updatedCenterFrequency != 0)
                     {
@@ -454,6 +527,57 @@ public class PolyphaseChannelSourceManager extends ChannelSourceManager
         return null;
     }
 
+    /**
+     * Retunes a paused polyphase tuner channel source to the tuner channel when the channel fits within the current
+     * tuner center frequency, so that the currently sourced channels are not disturbed.
+     *
+     * @param source that was paused
+     * @param tunerChannel with the new frequency
+     * @return true if the source was retuned
+     */
+    @Override
+    public boolean retune(TunerChannelSource source, TunerChannel tunerChannel)
+    {
+        if(isTunable(tunerChannel))
+        {
+            SortedSet<TunerChannel> tunerChannels = getTunerChannels();
+            tunerChannels.add(tunerChannel);
+
+            if(canTune(tunerChannels) && isValidCenterFrequency(tunerChannels, mTunerController.getFrequency()))
+            {
+                return mPolyphaseChannelManager.retune(source, tunerChannel);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Registers a listener to receive reduced resolution spectra with one bin per polyphase channel, derived from the
+     * polyphase channelizer outputs.
+     */
+    @Override
+    public void setSpectrumListener(Listener<float[]> listener, int frameRate)
+    {
+        mPolyphaseChannelManager.setSpectrumListener(listener, frameRate);
+    }
+
+    /**
+     * Adds the power monitor to the polyphase channel manager to measure power from the polyphase channelizer outputs.
+     */
+    @Override
+    public boolean addPowerMonitor(ChannelPowerMonitor powerMonitor)
+    {
+        mPolyphaseChannelManager.addPowerMonitor(powerMonitor);
+        return true;
+    }
+
+    @Override
+    public void removePowerMonitor(ChannelPowerMonitor powerMonitor)
+    {
+        mPolyphaseChannelManager.removePowerMonitor(powerMonitor);
+    }
+
     /**
      * Processes source events received from the tuner by simply passing them on to the embedded polyphase channel
      * manager
@@ -32,6 +32,7 @@ import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
 public class RecordingTunerConfiguration extends TunerConfiguration
 {
     private String mPath;
+    private double mReplaySpeed = 1.0;
 
     public RecordingTunerConfiguration()
     {
@@ -60,4 +61,18 @@ public class RecordingTunerConfiguration extends TunerConfiguration
     {
         mPath = path;
     }
+
+    /**
+     * Replay speed as a multiple of real time, or 0.0 for unthrottled replay
+     */
+    @JacksonXmlProperty(isAttribute = true, localName = "replay_speed")
+    public double getReplaySpeed()
+    {
+        return mReplaySpeed;
+    }
+
+    public void setReplaySpeed(double replaySpeed)
+    {
+        mReplaySpeed = replaySpeed;
+    }
 }
@@ -21,6 +21,7 @@
  */
 package io.github.dsheirer.source.tuner.recording;
 
+import io.github.dsheirer.source.AbstractComplexFileSource;
 import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
 import io.github.dsheirer.source.tuner.configuration.TunerConfigurationEditor;
@@ -30,6 +31,7 @@ import net.miginfocom.swing.MigLayout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JTextField;
 import java.awt.event.FocusEvent;
@@ -38,11 +40,14 @@ import java.awt.event.FocusListener;
 public class RecordingTunerConfigurationEditor extends TunerConfigurationEditor
 {
     private static final long serialVersionUID = 1L;
+    private static final String[] REPLAY_SPEED_LABELS = {"1x", "2x", "4x", "8x", "16x", "Unthrottled"};
+    private static final double[] REPLAY_SPEEDS = {1.0, 2.0, 4.0, 8.0, 16.0, AbstractComplexFileSource.REPLAY_SPEED_UNTHROTTLED};
 
     private final static Logger mLog = LoggerFactory.getLogger(RecordingTunerConfigurationEditor.class);
 
     private JTextField mConfigurationName;
     private JLabel mRecordingPath;
+    private JComboBox<String> mReplaySpeedCombo;
     private boolean mLoading;
 
     private RecordingTunerController mController;
@@ -100,7 +105,39 @@ public class RecordingTunerConfigurationEditor extends TunerConfigurationEditor
 
         add(new JLabel("File:"));
         mRecordingPath = new JLabel();
-        add(mRecordingPath);
+        add(mRecordingPath, "span, wrap");
+
+        add(new JLabel("Replay Speed:"));
+        mReplaySpeedCombo = new JComboBox<>(REPLAY_SPEED_LABELS);
+        mReplaySpeedCombo.setEnabled(false);
+        mReplaySpeedCombo.addActionListener(e ->
+        {
+            if(!mLoading && hasItem())
+            {
+                double replaySpeed = REPLAY_SPEEDS[Math.max(mReplaySpeedCombo.getSelectedIndex(), 0)];
+                getConfiguration().setReplaySpeed(replaySpeed);
+                mController.setReplaySpeed(replaySpeed);
+                getTunerConfigurationModel().broadcast(
+                    new TunerConfigurationEvent(getConfiguration(), TunerConfigurationEvent.Event.CHANGE));
+            }
+        });
+        add(mReplaySpeedCombo);
+    }
+
+    /**
+     * Index of the replay speed combo box entry that matches the replay speed, defaulting to real time
+     */
+    private static int getReplaySpeedIndex(double replaySpeed)
+    {
+        for(int x = 0; x < REPLAY_SPEEDS.length; x++)
+        {
+            if(REPLAY_SPEEDS[x] == replaySpeed)
+            {
+                return x;
+            }
+        }
+
+        return 0;
     }
 
     /**
@@ -112,6 +149,11 @@ public class RecordingTunerConfigurationEditor extends TunerConfigurationEditor
         {
             mConfigurationName.setEnabled(enabled);
         }
+
+        if(mReplaySpeedCombo.isEnabled() != enabled)
+        {
+            mReplaySpeedCombo.setEnabled(enabled);
+        }
     }
 
     @Override
@@ -129,12 +171,14 @@ public class RecordingTunerConfigurationEditor extends TunerConfigurationEditor
             setControlsEnabled(tunerConfiguration.isAssigned());
             mConfigurationName.setText(config.getName());
             mRecordingPath.setText(config.getPath());
+            mReplaySpeedCombo.setSelectedIndex(getReplaySpeedIndex(config.getReplaySpeed()));
         }
         else
         {
             setControlsEnabled(false);
             mConfigurationName.setText("");
             mRecordingPath.setText("");
+            mReplaySpeedCombo.setSelectedIndex(0);
         }
 
         mLoading = false;
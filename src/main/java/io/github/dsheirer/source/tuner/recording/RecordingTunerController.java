@@ -23,11 +23,11 @@ package io.github.dsheirer.source.tuner.recording;
 
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.source.AbstractComplexFileSource;
 import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.tuner.TunerController;
 import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
-import io.github.dsheirer.source.wave.ComplexWaveSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,9 +41,10 @@ public class RecordingTunerController extends TunerController
 
     public static final int DC_NOISE_BANDWIDTH = 0;
     public static final double USABLE_BANDWIDTH_PERCENTAGE = 1.00;
-    private ComplexWaveSource mComplexWaveSource;
+    private AbstractComplexFileSource mComplexFileSource;
     private long mCenterFrequency;
     private boolean mRunning;
+    private double mReplaySpeed = 1.0;
 
     /**
      * Tuner controller testing implementation.
@@ -61,10 +62,10 @@ public class RecordingTunerController extends TunerController
      */
     private void setRecording(String recordingPath, long centerFrequency) throws IOException
     {
-        if(mComplexWaveSource != null)
+        if(mComplexFileSource != null)
         {
-            mComplexWaveSource.close();
-            mComplexWaveSource = null;
+            mComplexFileSource.close();
+            mComplexFileSource = null;
         }
 
         if(recordingPath == null)
@@ -72,8 +73,9 @@ public class RecordingTunerController extends TunerController
             return;
         }
 
-        mComplexWaveSource = new ComplexWaveSource(new File(recordingPath), true);
-        mComplexWaveSource.setListener(new Listener<ReusableComplexBuffer>()
+        mComplexFileSource = AbstractComplexFileSource.getSource(new File(recordingPath), true);
+        mComplexFileSource.setReplaySpeed(mReplaySpeed);
+        mComplexFileSource.setListener(new Listener<ReusableComplexBuffer>()
         {
             @Override
             public void receive(ReusableComplexBuffer reusableComplexBuffer)
@@ -85,7 +87,7 @@ public class RecordingTunerController extends TunerController
 
         try
         {
-            mComplexWaveSource.open();
+            mComplexFileSource.open();
             mLog.info("Tuner Recording Loaded: " + recordingPath);
         }
         catch(UnsupportedAudioFileException e)
@@ -96,6 +98,12 @@ public class RecordingTunerController extends TunerController
 
         mCenterFrequency = centerFrequency;
 
+        //Use the center frequency recorded in the file when the configuration doesn't specify the frequency
+        if(mCenterFrequency == 0)
+        {
+            mCenterFrequency = mComplexFileSource.getFrequency();
+        }
+
         mLog.debug("Set recording center frequency to: " + mCenterFrequency);
 
         if(mCenterFrequency == 0)
@@ -106,7 +114,7 @@ public class RecordingTunerController extends TunerController
         try
         {
             mFrequencyController.setFrequency(mCenterFrequency);
-            mFrequencyController.setSampleRate((int)mComplexWaveSource.getSampleRate());
+            mFrequencyController.setSampleRate((int)mComplexFileSource.getSampleRate());
             mFrequencyController.broadcast(SourceEvent.recordingFileLoaded());
         }
         catch(SourceException e)
@@ -118,9 +126,9 @@ public class RecordingTunerController extends TunerController
     @Override
     public int getBufferSampleCount()
     {
-        if(mComplexWaveSource != null)
+        if(mComplexFileSource != null)
         {
-            return mComplexWaveSource.getBufferSampleCount();
+            return mComplexFileSource.getBufferSampleCount();
         }
 
         return 0;
@@ -139,11 +147,11 @@ public class RecordingTunerController extends TunerController
     {
         super.addBufferListener(listener);
 
-        if(mComplexWaveSource != null)
+        if(mComplexFileSource != null)
         {
             if(!mRunning)
             {
-                mComplexWaveSource.start();
+                mComplexFileSource.start();
                 mRunning = true;
             }
         }
@@ -154,10 +162,10 @@ public class RecordingTunerController extends TunerController
     {
         super.removeBufferListener(listener);
 
-        if(!mReusableBufferBroadcaster.hasListeners() && mComplexWaveSource != null)
+        if(!mReusableBufferBroadcaster.hasListeners() && mComplexFileSource != null)
         {
-            mComplexWaveSource.setListener((Listener<ReusableComplexBuffer>)null);
-            mComplexWaveSource.stop();
+            mComplexFileSource.setListener((Listener<ReusableComplexBuffer>)null);
+            mComplexFileSource.stop();
             mRunning = false;
         }
     }
@@ -170,6 +178,7 @@ public class RecordingTunerController extends TunerController
             RecordingTunerConfiguration rtc = (RecordingTunerConfiguration)config;
 
             mCenterFrequency = rtc.getFrequency();
+            mReplaySpeed = rtc.getReplaySpeed() >= 0.0 ? rtc.getReplaySpeed() : 1.0;
 
             try
             {
@@ -182,6 +191,45 @@ public class RecordingTunerController extends TunerController
         }
     }
 
+    /**
+     * Sets the recording replay speed.
+     * @param replaySpeed as a multiple of real time, or AbstractComplexFileSource.REPLAY_SPEED_UNTHROTTLED
+     */
+    public void setReplaySpeed(double replaySpeed)
+    {
+        mReplaySpeed = replaySpeed;
+
+        if(mComplexFileSource != null)
+        {
+            mComplexFileSource.setReplaySpeed(replaySpeed);
+        }
+    }
+
+    /**
+     * Moves the recording replay location to the timestamp.
+     * @param timestamp in milliseconds, relative to the recording start timestamp
+     */
+    public void seek(long timestamp)
+    {
+        if(mComplexFileSource != null)
+        {
+            mComplexFileSource.seek(timestamp);
+        }
+    }
+
+    /**
+     * Timestamp of the first sample in the recording, or 0 if no recording is loaded
+     */
+    public long getRecordingStartTimestamp()
+    {
+        if(mComplexFileSource != null)
+        {
+            return mComplexFileSource.getStartTimestamp();
+        }
+
+        return 0;
+    }
+
     @Override
     public void setFrequency(long frequency) throws SourceException
     {
@@ -215,9 +263,9 @@ public class RecordingTunerController extends TunerController
     @Override
     public double getCurrentSampleRate()
     {
-        if(mComplexWaveSource != null)
+        if(mComplexFileSource != null)
         {
-            return mComplexWaveSource.getSampleRate();
+            return mComplexFileSource.getSampleRate();
         }
 
         return 0d;
@@ -0,0 +1,84 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test;
+
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.source.tuner.Tuner;
+import io.github.dsheirer.source.tuner.TunerClass;
+import io.github.dsheirer.source.tuner.TunerType;
+import io.github.dsheirer.source.tuner.test.synthetic.LoadProfile;
+
+/**
+ * Synthetic wideband tuner that mixes scripted P25 Phase 1, P25 Phase 2, DMR and NBFM/MDC-1200 signals at configured
+ * offsets, SNRs and duty cycles for scale testing the channel processing stack without hardware or recordings.
+ */
+public class SyntheticTuner extends Tuner
+{
+    private static int mInstanceCounter = 1;
+    private final int mInstanceID = mInstanceCounter++;
+
+    /**
+     * Constructs a synthetic tuner loaded with the signals from the load profile
+     *
+     * @param userPreferences for the tuner
+     * @param loadProfile with the sample rate, center frequency and signals to generate
+     */
+    public SyntheticTuner(UserPreferences userPreferences, LoadProfile loadProfile)
+    {
+        super("Synthetic Tuner", new SyntheticTunerController(loadProfile), userPreferences);
+    }
+
+    /**
+     * Returns the tuner controller cast as a synthetic tuner controller.
+     */
+    public SyntheticTunerController getTunerController()
+    {
+        return (SyntheticTunerController)super.getTunerController();
+    }
+
+    @Override
+    public String getUniqueID()
+    {
+        return getName() + "-" + mInstanceID;
+    }
+
+    @Override
+    public TunerClass getTunerClass()
+    {
+        return TunerClass.TEST_TUNER;
+    }
+
+    @Override
+    public TunerType getTunerType()
+    {
+        return TunerClass.TEST_TUNER.getTunerType();
+    }
+
+    @Override
+    public double getSampleSize()
+    {
+        return 16.0;
+    }
+
+    @Override
+    public int getMaximumUSBBitsPerSecond()
+    {
+        return 0;
+    }
+}
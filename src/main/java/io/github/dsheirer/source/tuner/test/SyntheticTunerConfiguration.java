@@ -0,0 +1,47 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test;
+
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import io.github.dsheirer.source.tuner.TunerType;
+import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
+
+/**
+ * Tuner configuration for test and synthetic tuners.  These tuners take their sample rate and frequency from the
+ * test setup, so the configuration only carries the tuner identity so that the tuners can be added to a tuner model.
+ */
+public class SyntheticTunerConfiguration extends TunerConfiguration
+{
+    public SyntheticTunerConfiguration()
+    {
+        //Empty jackson constructor
+    }
+
+    public SyntheticTunerConfiguration(String uniqueId, String name)
+    {
+        super(uniqueId, name);
+    }
+
+    @JacksonXmlProperty(isAttribute = true, localName = "type", namespace = "http://www.w3.org/2001/XMLSchema-instance")
+    @Override
+    public TunerType getTunerType()
+    {
+        return TunerType.TEST;
+    }
+}
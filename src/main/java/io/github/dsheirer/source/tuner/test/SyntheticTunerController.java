@@ -0,0 +1,272 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test;
+
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableBufferBroadcaster;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.source.SourceException;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
+import io.github.dsheirer.source.tuner.test.synthetic.LoadProfile;
+import io.github.dsheirer.source.tuner.test.synthetic.SignalConfiguration;
+import io.github.dsheirer.source.tuner.test.synthetic.WidebandSynthesizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Synthetic tuner controller that produces wideband complex sample buffers in real time from a wideband synthesizer
+ * loaded with scripted P25, DMR and analog FM signals.
+ *
+ * Buffers are generated on a dedicated thread, like a USB tuner's transfer thread, so that a synthesizer that can't
+ * keep up with real time doesn't occupy the shared scheduled thread pool that the channel processing modules use.
+ */
+public class SyntheticTunerController extends TunerController
+{
+    private final static Logger mLog = LoggerFactory.getLogger(SyntheticTunerController.class);
+
+    public static final long MINIMUM_FREQUENCY = 1l;
+    public static final long MAXIMUM_FREQUENCY = 6000000000l;
+    public static final int MAXIMUM_SAMPLE_RATE = 10000000;
+    public static final int DC_NOISE_BANDWIDTH = 0;
+    public static final double USABLE_BANDWIDTH_PERCENTAGE = 0.95;
+    public static final int BUFFERS_PER_SECOND = 20;
+    public static final long BUFFER_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / BUFFERS_PER_SECOND;
+    //Generator lag that causes the generator to drop the backlog and resynchronize with the wall clock
+    public static final long MAXIMUM_LAG_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private ReusableBufferBroadcaster mBroadcaster = new ReusableBufferBroadcaster();
+    private ReusableComplexBufferQueue mBufferQueue = new ReusableComplexBufferQueue("SyntheticTunerController");
+    private WidebandSynthesizer mSynthesizer;
+    private Generator mGenerator;
+    private Thread mGeneratorThread;
+
+    /**
+     * Constructs a synthetic tuner controller loaded with the signals from the load profile.
+     *
+     * @param loadProfile with the tuner sample rate, center frequency, noise level and signals
+     */
+    public SyntheticTunerController(LoadProfile loadProfile)
+    {
+        super(MINIMUM_FREQUENCY, MAXIMUM_FREQUENCY, DC_NOISE_BANDWIDTH, USABLE_BANDWIDTH_PERCENTAGE);
+
+        if(loadProfile.getSampleRate() > MAXIMUM_SAMPLE_RATE)
+        {
+            throw new IllegalArgumentException("Sample rate cannot exceed " + MAXIMUM_SAMPLE_RATE);
+        }
+
+        mSynthesizer = new WidebandSynthesizer(loadProfile.getSampleRate(), loadProfile.getCenterFrequency(),
+            loadProfile.getNoiseLevel(), loadProfile.getSeed());
+
+        for(SignalConfiguration signal: loadProfile.getSignals())
+        {
+            mSynthesizer.addSignal(signal);
+        }
+
+        try
+        {
+            mFrequencyController.setFrequency(loadProfile.getCenterFrequency());
+            mFrequencyController.setSampleRate(loadProfile.getSampleRate());
+        }
+        catch(Exception e)
+        {
+            mLog.error("Error setting synthetic tuner frequency and sample rate", e);
+        }
+    }
+
+    /**
+     * Wideband synthesizer for this tuner
+     */
+    public WidebandSynthesizer getSynthesizer()
+    {
+        return mSynthesizer;
+    }
+
+    @Override
+    public int getBufferSampleCount()
+    {
+        return (int)(mSynthesizer.getSampleRate() / BUFFERS_PER_SECOND);
+    }
+
+    @Override
+    public void dispose()
+    {
+        stop();
+    }
+
+    /**
+     * Starts the synthesizer producing sample buffers
+     */
+    private synchronized void start()
+    {
+        if(mGeneratorThread == null)
+        {
+            mGenerator = new Generator();
+            mGeneratorThread = new Thread(mGenerator);
+            mGeneratorThread.setName("Synthetic Tuner Generator");
+            mGeneratorThread.setDaemon(true);
+            mGeneratorThread.start();
+        }
+    }
+
+    /**
+     * Stops the synthesizer from producing sample buffers
+     */
+    private synchronized void stop()
+    {
+        if(mGeneratorThread != null)
+        {
+            mGenerator.stop();
+            mGeneratorThread.interrupt();
+
+            try
+            {
+                mGeneratorThread.join(1000);
+            }
+            catch(InterruptedException ie)
+            {
+                //No action
+            }
+
+            mGenerator = null;
+            mGeneratorThread = null;
+        }
+    }
+
+    @Override
+    public void addBufferListener(Listener<ReusableComplexBuffer> listener)
+    {
+        mBroadcaster.addListener(listener);
+
+        if(mBroadcaster.getListenerCount() == 1)
+        {
+            start();
+        }
+    }
+
+    @Override
+    public void removeBufferListener(Listener<ReusableComplexBuffer> listener)
+    {
+        mBroadcaster.removeListener(listener);
+
+        if(mBroadcaster.getListenerCount() == 0)
+        {
+            stop();
+        }
+    }
+
+    @Override
+    public void apply(TunerConfiguration config) throws SourceException
+    {
+        mLog.info("Request to apply tuner configuration was ignored - synthetic tuner settings are set by the load " +
+            "profile");
+    }
+
+    @Override
+    public long getTunedFrequency() throws SourceException
+    {
+        return mSynthesizer.getCenterFrequency();
+    }
+
+    @Override
+    public void setTunedFrequency(long frequency) throws SourceException
+    {
+        mSynthesizer.setCenterFrequency(frequency);
+    }
+
+    @Override
+    public double getCurrentSampleRate()
+    {
+        return mSynthesizer.getSampleRate();
+    }
+
+    /**
+     * Sets the sample rate for this tuner controller
+     */
+    public void setSampleRate(int sampleRate) throws SourceException
+    {
+        if(sampleRate > MAXIMUM_SAMPLE_RATE)
+        {
+            throw new SourceException("Sample rate cannot exceed " + MAXIMUM_SAMPLE_RATE);
+        }
+
+        mSynthesizer.setSampleRate(sampleRate);
+        mFrequencyController.setSampleRate(sampleRate);
+    }
+
+    /**
+     * Generates wideband complex sample buffers at the buffer interval and distributes them to the registered
+     * listeners until stopped.  When generation falls more than the maximum lag behind the wall clock, the backlog is
+     * dropped so that the generator doesn't burst buffers to catch up.
+     */
+    public class Generator implements Runnable
+    {
+        private volatile boolean mRunning = true;
+
+        /**
+         * Signals the generator to stop after the current buffer
+         */
+        public void stop()
+        {
+            mRunning = false;
+        }
+
+        @Override
+        public void run()
+        {
+            long nextBuffer = System.nanoTime();
+
+            while(mRunning)
+            {
+                try
+                {
+                    if(mBroadcaster.hasListeners())
+                    {
+                        ReusableComplexBuffer buffer = mBufferQueue.getBuffer(getBufferSampleCount() * 2);
+                        buffer.setTimestamp(System.currentTimeMillis());
+                        mSynthesizer.generate(buffer.getSamples());
+                        mBroadcaster.broadcast(buffer);
+                    }
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error generating synthetic sample buffer", t);
+                }
+
+                nextBuffer += BUFFER_INTERVAL_NANOS;
+                long wait = nextBuffer - System.nanoTime();
+
+                if(wait > 0)
+                {
+                    LockSupport.parkNanos(wait);
+                }
+                else if(wait < -MAXIMUM_LAG_NANOS)
+                {
+                    mLog.warn("Synthetic tuner generator is running " + TimeUnit.NANOSECONDS.toMillis(-wait) +
+                        " ms behind real time - dropping the backlog");
+                    nextBuffer = System.nanoTime();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+/**
+ * Base framed symbol script.  Transmits whole frames while keyed and completes the current frame, plus any trailing
+ * frame such as a terminator, after a key down request.
+ */
+public abstract class AbstractFrameScript implements ISymbolScript
+{
+    private int[] mFrame;
+    private int mFramePointer;
+    private boolean mTransmitting;
+    private boolean mKeyDownRequested;
+    private int mFrameCount;
+    private int mPseudoRandomState;
+
+    /**
+     * Constructs an instance
+     *
+     * @param seed for the pseudo-random fill sequence
+     */
+    public AbstractFrameScript(int seed)
+    {
+        mPseudoRandomState = seed != 0 ? seed : 1;
+    }
+
+    /**
+     * Creates the next frame of symbols to transmit.
+     *
+     * @param keyDownRequested indicates that the transmission is ending
+     * @return frame symbols
+     */
+    protected abstract int[] nextFrame(boolean keyDownRequested);
+
+    /**
+     * Indicates if a trailing frame (e.g. terminator) remains to be sent after a key down request.  Default: false
+     */
+    protected boolean hasTrailingFrame()
+    {
+        return false;
+    }
+
+    /**
+     * Invoked at the start of each transmission to reset any script sequence state.
+     */
+    protected void reset()
+    {
+    }
+
+    /**
+     * Next value from a deterministic (xorshift) pseudo-random bit sequence used to fill unscripted frame content.
+     */
+    protected boolean nextPseudoRandomBit()
+    {
+        mPseudoRandomState ^= mPseudoRandomState << 13;
+        mPseudoRandomState ^= mPseudoRandomState >>> 17;
+        mPseudoRandomState ^= mPseudoRandomState << 5;
+        return (mPseudoRandomState & 0x1) == 1;
+    }
+
+    /**
+     * Next value from the deterministic pseudo-random dibit sequence.
+     */
+    protected int nextPseudoRandomDibit()
+    {
+        return (nextPseudoRandomBit() ? 2 : 0) + (nextPseudoRandomBit() ? 1 : 0);
+    }
+
+    /**
+     * Loads the bits of the value, most significant bit first, into the symbol array as dibits.
+     *
+     * @param symbols to load
+     * @param offset in the symbol array
+     * @param value to load
+     * @param bitLength of the value (even)
+     */
+    protected static void loadDibits(int[] symbols, int offset, long value, int bitLength)
+    {
+        for(int x = 0; x < bitLength / 2; x++)
+        {
+            symbols[offset + x] = (int)(value >>> (bitLength - 2 - (2 * x))) & 0x3;
+        }
+    }
+
+    @Override
+    public void keyUp()
+    {
+        mTransmitting = true;
+        mKeyDownRequested = false;
+        mFrame = null;
+        reset();
+    }
+
+    @Override
+    public void keyDown()
+    {
+        mKeyDownRequested = true;
+    }
+
+    @Override
+    public boolean isTransmitting()
+    {
+        return mTransmitting;
+    }
+
+    @Override
+    public int getFrameCount()
+    {
+        return mFrameCount;
+    }
+
+    @Override
+    public int nextSymbol()
+    {
+        if(mFrame == null || mFramePointer >= mFrame.length)
+        {
+            if(mKeyDownRequested && !hasTrailingFrame())
+            {
+                mTransmitting = false;
+                return 0;
+            }
+
+            mFrame = nextFrame(mKeyDownRequested);
+            mFramePointer = 0;
+            mFrameCount++;
+        }
+
+        return mFrame[mFramePointer++];
+    }
+}
@@ -0,0 +1,503 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+import io.github.dsheirer.bits.BinaryMessage;
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.edac.BPTC_196_96;
+import io.github.dsheirer.edac.CRCDMR;
+import io.github.dsheirer.edac.Golay24;
+import io.github.dsheirer.edac.Hamming16;
+import io.github.dsheirer.edac.ReedSolomon_12_9_4_DMR;
+import io.github.dsheirer.module.decode.dmr.DMRSyncPattern;
+import io.github.dsheirer.module.decode.dmr.message.data.csbk.Opcode;
+import io.github.dsheirer.module.decode.dmr.message.type.DataType;
+import io.github.dsheirer.module.decode.dmr.message.type.LCSS;
+import io.github.dsheirer.module.decode.dmr.message.voice.EMB;
+
+/**
+ * Scripted DMR base station (repeater) dibit source.
+ *
+ * Transmits continuous 30 ms bursts while keyed, alternating between timeslots 1 and 2.  Each burst carries a CACH
+ * with the timeslot and a valid TACT checksum.  Data bursts carry a base station data sync, a Golay protected slot
+ * type with the scripted color code and a BPTC(196,96) protected payload.
+ *
+ * Timeslot 1 repeats a group call from the scripted radio to the scripted talkgroup: a CSBK preamble, two voice link
+ * control headers with a Group Voice Channel User full link control, voice superframes and two terminators with link
+ * control, followed by idle bursts.  Each voice superframe starts with a voice frame A carrying the base station voice
+ * sync, and voice frames B - E carry an embedded signalling (EMB) word with the color code and the four fragments of
+ * the embedded Group Voice Channel User link control.  Vocoder frames are filled from a deterministic pseudo-random
+ * sequence.  A key down request during a call ends the call with the terminators.
+ *
+ * Timeslot 2 carries idle bursts.  Idle bursts on either timeslot carry a fixed pseudo-random idle message.
+ */
+public class DMRScript extends AbstractFrameScript
+{
+    private static final int BURST_DIBIT_LENGTH = 144;
+    private static final int PAYLOAD_DIBIT_LENGTH = 49;
+    private static final int VOICE_DIBIT_LENGTH = 54;
+    private static final int[] CACH_INTERLEAVE = new int[]{0, 4, 8, 12, 14, 18, 22, 1, 2, 3, 5, 6, 7, 9, 10, 11, 13,
+        15, 16, 17, 19, 20, 21, 23};
+    private static final int[] CACH_CHECKSUMS = new int[]{5, 7, 6, 3};
+    private static final int VOICE_LINK_CONTROL_CRC_MASK = 0x96;
+    private static final int TERMINATOR_LINK_CONTROL_CRC_MASK = 0x99;
+    private static final int CSBK_CRC_MASK = 0xA5A5;
+    private static final int SUPERFRAME_LENGTH = 6;
+    private static final int PREAMBLE_BURSTS = 1;
+    private static final int HEADER_BURSTS = 2;
+    private static final int CALL_SUPERFRAMES = 3;
+    private static final int TERMINATOR_BURSTS = 2;
+    private static final int IDLE_BURSTS = 6;
+    private static final int HEADER_START = PREAMBLE_BURSTS;
+    private static final int VOICE_START = HEADER_START + HEADER_BURSTS;
+    private static final int TERMINATOR_START = VOICE_START + (CALL_SUPERFRAMES * SUPERFRAME_LENGTH);
+    private static final int IDLE_START = TERMINATOR_START + TERMINATOR_BURSTS;
+    private static final int CALL_CYCLE_LENGTH = IDLE_START + IDLE_BURSTS;
+
+    private int mColorCode;
+    private int mTalkgroup;
+    private int mRadio;
+    private BinaryMessage mPreamble;
+    private BinaryMessage mVoiceHeader;
+    private BinaryMessage mTerminator;
+    private BinaryMessage mIdle;
+    private BinaryMessage mEmbeddedLinkControl;
+    private int mTimeslot;
+    private int mCallBurst;
+
+    /**
+     * Constructs an instance
+     *
+     * @param colorCode (0 - 15) for each burst
+     * @param talkgroup (24 bits) for the timeslot 1 group call
+     * @param radio (24 bits) source for the timeslot 1 group call
+     */
+    public DMRScript(int colorCode, int talkgroup, int radio)
+    {
+        super(0x3C3C0000 ^ (talkgroup << 8) ^ radio ^ colorCode);
+        mColorCode = colorCode & 0xF;
+        mTalkgroup = talkgroup & 0xFFFFFF;
+        mRadio = radio & 0xFFFFFF;
+
+        BinaryMessage linkControl = getGroupVoiceChannelUser(mTalkgroup, mRadio);
+        mPreamble = BPTC_196_96.encode(getPreamble(mTalkgroup, mRadio));
+        mVoiceHeader = BPTC_196_96.encode(getFullLinkControl(linkControl, VOICE_LINK_CONTROL_CRC_MASK));
+        mTerminator = BPTC_196_96.encode(getFullLinkControl(linkControl, TERMINATOR_LINK_CONTROL_CRC_MASK));
+        mEmbeddedLinkControl = getEmbeddedLinkControl(linkControl);
+
+        //Idle message content is not decoded, so fill it from the pseudo-random sequence rather than with zeros that
+        //would transmit a constant phase rotation
+        BinaryMessage idle = new BinaryMessage(96);
+
+        for(int x = 0; x < idle.size(); x++)
+        {
+            idle.set(x, nextPseudoRandomBit());
+        }
+
+        mIdle = BPTC_196_96.encode(idle);
+    }
+
+    /**
+     * Color code for this script
+     */
+    public int getColorCode()
+    {
+        return mColorCode;
+    }
+
+    /**
+     * Talkgroup for the timeslot 1 group call
+     */
+    public int getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    /**
+     * Radio identifier for the timeslot 1 group call
+     */
+    public int getRadio()
+    {
+        return mRadio;
+    }
+
+    @Override
+    protected void reset()
+    {
+        mTimeslot = 0;
+        mCallBurst = 0;
+    }
+
+    /**
+     * Completes the current pair of timeslot bursts and any call in progress on timeslot 1 after a key down request.
+     */
+    @Override
+    protected boolean hasTrailingFrame()
+    {
+        return mTimeslot == 1 || (mCallBurst > 0 && mCallBurst < IDLE_START);
+    }
+
+    @Override
+    protected int[] nextFrame(boolean keyDownRequested)
+    {
+        int[] burst = new int[BURST_DIBIT_LENGTH];
+
+        //CACH - 12 dibits
+        loadDibits(burst, 0, getCACH(mTimeslot), 24);
+
+        if(mTimeslot == 0)
+        {
+            if(keyDownRequested && mCallBurst > 0 && mCallBurst < TERMINATOR_START)
+            {
+                mCallBurst = TERMINATOR_START;
+            }
+
+            if(mCallBurst < HEADER_START)
+            {
+                loadData(burst, DataType.CSBK, mPreamble);
+            }
+            else if(mCallBurst < VOICE_START)
+            {
+                loadData(burst, DataType.VOICE_HEADER, mVoiceHeader);
+            }
+            else if(mCallBurst < TERMINATOR_START)
+            {
+                loadVoice(burst, (mCallBurst - VOICE_START) % SUPERFRAME_LENGTH);
+            }
+            else if(mCallBurst < IDLE_START)
+            {
+                loadData(burst, DataType.TLC, mTerminator);
+            }
+            else
+            {
+                loadData(burst, DataType.SLOT_IDLE, mIdle);
+            }
+
+            mCallBurst = (mCallBurst + 1) % CALL_CYCLE_LENGTH;
+        }
+        else
+        {
+            loadData(burst, DataType.SLOT_IDLE, mIdle);
+        }
+
+        mTimeslot ^= 1;
+
+        return burst;
+    }
+
+    /**
+     * Loads a data burst: payload 1 - 49 dibits, slot type - 5 dibits, sync - 24 dibits, slot type - 5 dibits,
+     * payload 2 - 49 dibits
+     *
+     * @param burst to load
+     * @param dataType for the slot type
+     * @param payload 196-bit BPTC protected payload
+     */
+    private void loadData(int[] burst, DataType dataType, BinaryMessage payload)
+    {
+        for(int x = 0; x < PAYLOAD_DIBIT_LENGTH; x++)
+        {
+            burst[12 + x] = payload.getInt(2 * x, 2 * x + 1);
+            burst[95 + x] = payload.getInt(98 + (2 * x), 99 + (2 * x));
+        }
+
+        int slotType = getSlotType(mColorCode, dataType.getValue());
+        loadDibits(burst, 61, slotType >>> 10, 10);
+        loadDibits(burst, 66, DMRSyncPattern.BASE_STATION_DATA.getPattern(), 48);
+        loadDibits(burst, 90, slotType & 0x3FF, 10);
+    }
+
+    /**
+     * Loads a voice burst: three vocoder frames split around the 24-dibit sync or embedded signalling field.  Voice
+     * frame A carries the base station voice sync.  Voice frames B - E carry the EMB and a fragment of the embedded
+     * link control, and voice frame F carries the EMB with a null embedded signalling fragment.
+     *
+     * @param burst to load
+     * @param frame index of the voice frame in the superframe, 0 (A) - 5 (F)
+     */
+    private void loadVoice(int[] burst, int frame)
+    {
+        for(int x = 0; x < VOICE_DIBIT_LENGTH; x++)
+        {
+            burst[12 + x] = nextPseudoRandomDibit();
+            burst[90 + x] = nextPseudoRandomDibit();
+        }
+
+        if(frame == 0)
+        {
+            loadDibits(burst, 66, DMRSyncPattern.BASE_STATION_VOICE.getPattern(), 48);
+        }
+        else
+        {
+            LCSS lcss;
+            long fragment = 0;
+
+            switch(frame)
+            {
+                case 1:
+                    lcss = LCSS.FIRST_FRAGMENT;
+                    break;
+                case 5:
+                    lcss = LCSS.SINGLE_FRAGMENT;
+                    break;
+                case 4:
+                    lcss = LCSS.LAST_FRAGMENT;
+                    break;
+                default:
+                    lcss = LCSS.CONTINUATION_FRAGMENT;
+                    break;
+            }
+
+            if(frame < 5)
+            {
+                int offset = (frame - 1) * 32;
+                fragment = mEmbeddedLinkControl.getLong(offset, offset + 31);
+            }
+
+            int emb = getEMB(mColorCode, false, lcss);
+            loadDibits(burst, 66, emb >>> 8, 8);
+            loadDibits(burst, 70, fragment, 32);
+            loadDibits(burst, 86, emb & 0xFF, 8);
+        }
+    }
+
+    /**
+     * Creates the interleaved 24-bit Common Announcement CHannel (CACH) with an idle inbound channel, the timeslot
+     * and a valid TACT checksum.
+     *
+     * @param timeslot 0 or 1
+     * @return transmitted CACH bits
+     */
+    public static int getCACH(int timeslot)
+    {
+        int tact = timeslot == 1 ? 0x4 : 0x0; //AT=0, TC=timeslot, LCSS=0
+
+        int checksum = 0;
+
+        for(int x = 0; x < 4; x++)
+        {
+            if(((tact >> (3 - x)) & 0x1) == 1)
+            {
+                checksum ^= CACH_CHECKSUMS[x];
+            }
+        }
+
+        int decoded = (((tact << 3) | checksum) << 17);
+        int transmitted = 0;
+
+        for(int x = 0; x < CACH_INTERLEAVE.length; x++)
+        {
+            if(((decoded >> (23 - x)) & 0x1) == 1)
+            {
+                transmitted |= 1 << (23 - CACH_INTERLEAVE[x]);
+            }
+        }
+
+        return transmitted;
+    }
+
+    /**
+     * Creates the 20-bit Golay(20,8) protected slot type containing the color code and data type.
+     *
+     * @param colorCode 0 - 15
+     * @param dataType 0 - 15
+     * @return slot type bits
+     */
+    public static int getSlotType(int colorCode, int dataType)
+    {
+        int information = ((colorCode & 0xF) << 4) | (dataType & 0xF);
+
+        //Shortened Golay(24,12) - the 4 most significant information bits are always zero
+        int parity = 0;
+
+        for(int x = 4; x < 12; x++)
+        {
+            if(((information >> (11 - x)) & 0x1) == 1)
+            {
+                parity ^= Golay24.CHECKSUMS[x];
+            }
+        }
+
+        int codeword = (information << 11) | parity;
+
+        return ((codeword << 1) | (Integer.bitCount(codeword) & 0x1)) & 0xFFFFF;
+    }
+
+    /**
+     * Creates the 16-bit Quadratic Residue(16,7,6) protected embedded signalling (EMB) word.
+     *
+     * @param colorCode 0 - 15
+     * @param encrypted privacy indicator
+     * @param lcss link control start/stop for the embedded signalling fragment
+     * @return EMB bits
+     */
+    public static int getEMB(int colorCode, boolean encrypted, LCSS lcss)
+    {
+        int information = ((colorCode & 0xF) << 3) | (encrypted ? 0x4 : 0) | lcss.ordinal();
+        int parity = 0;
+
+        for(int x = 0; x < 7; x++)
+        {
+            if(((information >> (6 - x)) & 0x1) == 1)
+            {
+                parity ^= EMB.CRC_CHECKSUMS[x];
+            }
+        }
+
+        return (information << 9) | parity;
+    }
+
+    /**
+     * Creates a 72-bit clear Group Voice Channel User full link control.
+     *
+     * @param talkgroup 24 bits
+     * @param radio 24 bits
+     * @return link control bits
+     */
+    public static BinaryMessage getGroupVoiceChannelUser(int talkgroup, int radio)
+    {
+        //Protect flag, reserved, opcode 0, standard feature set ID and service options are all zero
+        BinaryMessage linkControl = new BinaryMessage(72);
+        linkControl.load(24, 24, talkgroup);
+        linkControl.load(48, 24, radio);
+        return linkControl;
+    }
+
+    /**
+     * Creates a 96-bit full link control with the Reed-Solomon RS(12,9,4) parity masked by the CRC mask for the data
+     * type, as carried in voice link control header and terminator bursts.
+     *
+     * @param linkControl 72 bits
+     * @param crcMask for the data type
+     * @return full link control bits
+     */
+    public static BinaryMessage getFullLinkControl(BinaryMessage linkControl, int crcMask)
+    {
+        int[] codeword = new int[255];
+
+        for(int x = 0; x < 9; x++)
+        {
+            codeword[11 - x] = linkControl.getInt(x * 8, x * 8 + 7);
+        }
+
+        new ReedSolomon_12_9_4_DMR().encode(codeword);
+
+        BinaryMessage message = new BinaryMessage(96);
+
+        for(int x = 0; x < 72; x++)
+        {
+            message.set(x, linkControl.get(x));
+        }
+
+        message.load(72, 8, codeword[2] ^ crcMask);
+        message.load(80, 8, codeword[1] ^ crcMask);
+        message.load(88, 8, codeword[0] ^ crcMask);
+        return message;
+    }
+
+    /**
+     * Creates the 128-bit interleaved embedded link control that is carried in four 32-bit fragments in voice frames
+     * B - E.  The 72-bit link control and its 5-bit checksum are placed in the first seven rows of a 16-column
+     * matrix, each row is protected by a Hamming(16,11,4) checksum and the eighth row carries the column parity.
+     *
+     * @param linkControl 72 bits
+     * @return transmitted embedded link control bits
+     */
+    public static BinaryMessage getEmbeddedLinkControl(BinaryMessage linkControl)
+    {
+        int checksum = 0;
+
+        for(int x = 0; x < 9; x++)
+        {
+            checksum += linkControl.getInt(x * 8, x * 8 + 7);
+        }
+
+        checksum %= 31;
+
+        //Rows 1 and 2 carry 11 link control bits and rows 3 - 7 carry 10 link control bits and 1 checksum bit
+        BinaryMessage matrix = new BinaryMessage(128);
+        int pointer = 0;
+
+        for(int row = 0; row < 7; row++)
+        {
+            int columns = row < 2 ? 11 : 10;
+
+            for(int column = 0; column < columns; column++)
+            {
+                matrix.set(row * 16 + column, linkControl.get(pointer++));
+            }
+
+            if(row >= 2)
+            {
+                matrix.set(row * 16 + 10, ((checksum >> (6 - row)) & 0x1) == 1);
+            }
+
+            matrix.load(row * 16 + 11, 5, Hamming16.calculateChecksum(matrix, row * 16));
+        }
+
+        for(int column = 0; column < 16; column++)
+        {
+            boolean parity = false;
+
+            for(int row = 0; row < 7; row++)
+            {
+                parity ^= matrix.get(row * 16 + column);
+            }
+
+            matrix.set(112 + column, parity);
+        }
+
+        BinaryMessage interleaved = new BinaryMessage(128);
+        interleaved.set(127, matrix.get(127));
+
+        for(int x = 0; x < 127; x++)
+        {
+            interleaved.set((x * 8) % 127, matrix.get(x));
+        }
+
+        return interleaved;
+    }
+
+    /**
+     * Creates a 96-bit CSBK preamble for CSBK content addressed to a talkgroup, with the CRC-CCITT masked for CSBK.
+     *
+     * @param talkgroup target 24 bits
+     * @param radio source 24 bits
+     * @return CSBK bits
+     */
+    public static BinaryMessage getPreamble(int talkgroup, int radio)
+    {
+        CorrectedBinaryMessage csbk = new CorrectedBinaryMessage(96);
+        csbk.set(0); //Last block
+        csbk.load(2, 6, Opcode.STANDARD_PREAMBLE.getValue());
+        csbk.set(17); //Talkgroup target address
+        csbk.load(32, 24, talkgroup);
+        csbk.load(56, 24, radio);
+
+        int crc = CSBK_CRC_MASK;
+
+        for(int x = csbk.nextSetBit(0); x >= 0 && x < 80; x = csbk.nextSetBit(x + 1))
+        {
+            crc ^= CRCDMR.CCITT_80_CHECKSUMS[x];
+        }
+
+        csbk.load(80, 16, crc);
+        return csbk;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+/**
+ * Four level frequency shift keyed (4FSK) signal used for P25 Phase 1 C4FM and DMR.  Dibit symbols are mapped to
+ * frequency deviation levels of +1/+3/-1/-3 times the deviation unit, shaped with a raised cosine pulse and frequency
+ * modulated onto a constant envelope carrier.
+ */
+public class FourLevelFSKSignal extends SyntheticSignal
+{
+    public static final double C4FM_DEVIATION = 600.0;
+    public static final double DMR_DEVIATION = 648.0;
+
+    //Deviation levels indexed by dibit value: 00=+1, 01=+3, 10=-1, 11=-3
+    private static final float[] LEVELS = new float[]{1.0f, 3.0f, -1.0f, -3.0f};
+
+    private float[] mPulse = getRaisedCosinePulse();
+    private float[] mSymbols = new float[PULSE_SPAN_SYMBOLS];
+    private double mSymbolsPerSample;
+    private double mSymbolPhase;
+    private double mRadiansPerHertz;
+    private double mDeviation;
+    private double mPhase;
+
+    /**
+     * Constructs an instance
+     *
+     * @param configuration for the signal
+     * @param sampleRate of the narrowband output
+     * @param deviation unit in hertz for the +/-1 symbol levels
+     */
+    public FourLevelFSKSignal(SignalConfiguration configuration, double sampleRate, double deviation)
+    {
+        super(configuration, sampleRate);
+        mSymbolsPerSample = configuration.getSignalType().getSymbolRate() / sampleRate;
+        mRadiansPerHertz = 2.0 * Math.PI / sampleRate;
+        mDeviation = deviation;
+    }
+
+    @Override
+    protected void reset()
+    {
+        for(int x = 0; x < mSymbols.length; x++)
+        {
+            mSymbols[x] = 0.0f;
+        }
+
+        mSymbolPhase = 0.0;
+    }
+
+    @Override
+    protected int modulate(float[] samples, int offset, int length)
+    {
+        for(int x = 0; x < length; x++)
+        {
+            mSymbolPhase += mSymbolsPerSample;
+
+            if(mSymbolPhase >= 1.0)
+            {
+                mSymbolPhase -= 1.0;
+
+                int dibit = getScript().nextSymbol();
+
+                if(!getScript().isTransmitting())
+                {
+                    return x;
+                }
+
+                System.arraycopy(mSymbols, 1, mSymbols, 0, mSymbols.length - 1);
+                mSymbols[mSymbols.length - 1] = LEVELS[dibit & 0x3];
+            }
+
+            int phaseIndex = (int)(mSymbolPhase * PULSE_RESOLUTION);
+            float level = 0.0f;
+
+            for(int symbol = 0; symbol < PULSE_SPAN_SYMBOLS; symbol++)
+            {
+                level += mSymbols[symbol] * mPulse[((PULSE_SPAN_SYMBOLS - 1 - symbol) * PULSE_RESOLUTION) + phaseIndex];
+            }
+
+            mPhase += level * mDeviation * mRadiansPerHertz;
+
+            if(mPhase > Math.PI)
+            {
+                mPhase -= 2.0 * Math.PI;
+            }
+            else if(mPhase < -Math.PI)
+            {
+                mPhase += 2.0 * Math.PI;
+            }
+
+            int index = 2 * (offset + x);
+            samples[index] = (float)Math.cos(mPhase);
+            samples[index + 1] = (float)Math.sin(mPhase);
+        }
+
+        return length;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+/**
+ * Harmonized differential quadrature phase shift keyed (H-DQPSK) signal used for the P25 Phase 2 TDMA outbound.  Each
+ * dibit symbol advances the carrier phase by +45, +135, -45 or -135 degrees and the complex symbols are shaped with a
+ * raised cosine pulse.
+ */
+public class HDQPSKSignal extends SyntheticSignal
+{
+    //Phase changes indexed by dibit value: 00=+45, 01=+135, 10=-45, 11=-135 degrees
+    private static final double[] PHASE_CHANGES = new double[]{Math.PI / 4.0, 3.0 * Math.PI / 4.0, -Math.PI / 4.0,
+        -3.0 * Math.PI / 4.0};
+
+    private float[] mPulse = getRaisedCosinePulse();
+    private float[] mInphase = new float[PULSE_SPAN_SYMBOLS];
+    private float[] mQuadrature = new float[PULSE_SPAN_SYMBOLS];
+    private double mSymbolsPerSample;
+    private double mSymbolPhase;
+    private double mCarrierPhase;
+
+    /**
+     * Constructs an instance
+     *
+     * @param configuration for the signal
+     * @param sampleRate of the narrowband output
+     */
+    public HDQPSKSignal(SignalConfiguration configuration, double sampleRate)
+    {
+        super(configuration, sampleRate);
+        mSymbolsPerSample = configuration.getSignalType().getSymbolRate() / sampleRate;
+    }
+
+    @Override
+    protected void reset()
+    {
+        for(int x = 0; x < PULSE_SPAN_SYMBOLS; x++)
+        {
+            mInphase[x] = 0.0f;
+            mQuadrature[x] = 0.0f;
+        }
+
+        mSymbolPhase = 0.0;
+    }
+
+    @Override
+    protected int modulate(float[] samples, int offset, int length)
+    {
+        for(int x = 0; x < length; x++)
+        {
+            mSymbolPhase += mSymbolsPerSample;
+
+            if(mSymbolPhase >= 1.0)
+            {
+                mSymbolPhase -= 1.0;
+
+                int dibit = getScript().nextSymbol();
+
+                if(!getScript().isTransmitting())
+                {
+                    return x;
+                }
+
+                mCarrierPhase = (mCarrierPhase + PHASE_CHANGES[dibit & 0x3]) % (2.0 * Math.PI);
+
+                System.arraycopy(mInphase, 1, mInphase, 0, PULSE_SPAN_SYMBOLS - 1);
+                System.arraycopy(mQuadrature, 1, mQuadrature, 0, PULSE_SPAN_SYMBOLS - 1);
+                mInphase[PULSE_SPAN_SYMBOLS - 1] = (float)Math.cos(mCarrierPhase);
+                mQuadrature[PULSE_SPAN_SYMBOLS - 1] = (float)Math.sin(mCarrierPhase);
+            }
+
+            int phaseIndex = (int)(mSymbolPhase * PULSE_RESOLUTION);
+            float inphase = 0.0f;
+            float quadrature = 0.0f;
+
+            for(int symbol = 0; symbol < PULSE_SPAN_SYMBOLS; symbol++)
+            {
+                float tap = mPulse[((PULSE_SPAN_SYMBOLS - 1 - symbol) * PULSE_RESOLUTION) + phaseIndex];
+                inphase += mInphase[symbol] * tap;
+                quadrature += mQuadrature[symbol] * tap;
+            }
+
+            int index = 2 * (offset + x);
+            samples[index] = inphase;
+            samples[index + 1] = quadrature;
+        }
+
+        return length;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+/**
+ * Scripted symbol source that supplies the transmitted symbol sequence for a synthetic signal.  Digital scripts
+ * produce dibit values (0 - 3) and the MDC-1200 script produces AFSK tone symbols (0 = 1200 Hz, 1 = 1800 Hz) or
+ * -1 when there is no signalling and the analog voice audio should be transmitted.
+ *
+ * A script is keyed up at the start of each transmission and keyed down at the end of the duty cycle, after which
+ * it may continue to produce symbols until it has completed the current frame and any terminator.
+ */
+public interface ISymbolScript
+{
+    /**
+     * Starts a new transmission.
+     */
+    void keyUp();
+
+    /**
+     * Requests the end of the current transmission.
+     */
+    void keyDown();
+
+    /**
+     * Indicates if the script is transmitting, including any trailing frame or terminator after a key down request.
+     */
+    boolean isTransmitting();
+
+    /**
+     * Next symbol value to transmit.
+     */
+    int nextSymbol();
+
+    /**
+     * Number of complete frames or messages transmitted by this script, for comparison against decoded results.
+     */
+    int getFrameCount();
+}
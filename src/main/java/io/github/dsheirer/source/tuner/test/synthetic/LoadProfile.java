@@ -0,0 +1,311 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.config.AuxDecodeConfiguration;
+import io.github.dsheirer.module.decode.config.DecodeConfiguration;
+import io.github.dsheirer.module.decode.dmr.DecodeConfigDMR;
+import io.github.dsheirer.module.decode.nbfm.DecodeConfigNBFM;
+import io.github.dsheirer.module.decode.p25.phase1.DecodeConfigP25Phase1;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1Decoder;
+import io.github.dsheirer.module.decode.p25.phase2.DecodeConfigP25Phase2;
+import io.github.dsheirer.source.config.SourceConfigTuner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Load profile describing the tuner sample rate, center frequency, noise floor and the set of scripted signals that
+ * a synthetic tuner generates.  The production profile mirrors a busy site: one P25 Phase 1 control channel with
+ * twenty duty-cycled voice channels, eight DMR repeaters, P25 Phase 2 voice channels and analog FM channels that
+ * carry MDC-1200 PTT identifiers.
+ *
+ * Each signal is placed on a 12.5 kHz channel raster.  Use createChannels() to create the matching channel
+ * configurations for driving the channel processing manager with this profile.
+ */
+public class LoadProfile
+{
+    public static final int CHANNEL_SPACING = 12500;
+    public static final double USABLE_BANDWIDTH = 0.8;
+    public static final int P25_NAC = 0x293;
+    public static final int P25_WACN = 0xBEE00;
+    public static final int P25_SYSTEM = 0x123;
+    public static final int P25_RFSS = 1;
+    public static final int P25_SITE = 1;
+    public static final int P25_IDENTIFIER = 1;
+    public static final int P25_VOICE_CHANNEL_COUNT = 20;
+    public static final int P25_PHASE2_CHANNEL_COUNT = 2;
+    public static final int DMR_REPEATER_COUNT = 8;
+    public static final int ANALOG_CHANNEL_COUNT = 4;
+    public static final int BASE_TALKGROUP = 100;
+    public static final int BASE_RADIO_ID = 1000000;
+    public static final int BASE_MDC_UNIT_ID = 0x1000;
+    private static final String SYSTEM = "Synthetic";
+
+    private int mSampleRate;
+    private long mCenterFrequency;
+    private float mNoiseLevel = WidebandSynthesizer.DEFAULT_NOISE_LEVEL;
+    private long mSeed = 1;
+    private List<SignalConfiguration> mSignals = new ArrayList<>();
+
+    /**
+     * Constructs an empty load profile.
+     *
+     * @param sampleRate of the synthetic tuner
+     * @param centerFrequency of the synthetic tuner
+     */
+    public LoadProfile(int sampleRate, long centerFrequency)
+    {
+        mSampleRate = sampleRate;
+        mCenterFrequency = centerFrequency;
+    }
+
+    /**
+     * Tuner sample rate
+     */
+    public int getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Tuner center frequency
+     */
+    public long getCenterFrequency()
+    {
+        return mCenterFrequency;
+    }
+
+    /**
+     * Noise floor level
+     */
+    public float getNoiseLevel()
+    {
+        return mNoiseLevel;
+    }
+
+    /**
+     * Sets the noise floor level
+     */
+    public void setNoiseLevel(float noiseLevel)
+    {
+        mNoiseLevel = noiseLevel;
+    }
+
+    /**
+     * Seed for the noise generator
+     */
+    public long getSeed()
+    {
+        return mSeed;
+    }
+
+    /**
+     * Sets the seed for the noise generator
+     */
+    public void setSeed(long seed)
+    {
+        mSeed = seed;
+    }
+
+    /**
+     * Adds a signal to this profile
+     */
+    public void addSignal(SignalConfiguration signal)
+    {
+        mSignals.add(signal);
+    }
+
+    /**
+     * Signals in this profile
+     */
+    public List<SignalConfiguration> getSignals()
+    {
+        return Collections.unmodifiableList(mSignals);
+    }
+
+    /**
+     * Frequency of the channel raster slot at the index.  Slots alternate above and below the center frequency so
+     * that no signal is placed on the DC spike.
+     *
+     * @param index of the channel slot
+     * @param spacing between adjacent slots in hertz
+     * @return frequency
+     */
+    private long getSlotFrequency(int index, long spacing)
+    {
+        long offset = (index / 2 + 1) * spacing;
+        return index % 2 == 0 ? mCenterFrequency + offset : mCenterFrequency - offset;
+    }
+
+    /**
+     * Creates channel configurations for each signal in this profile, named after the signal label.  P25 control
+     * channel configurations have the traffic channel pool disabled since each voice channel is created here as a
+     * standard channel, which keeps the decoder load fixed and independent of the grant timing.
+     *
+     * @return channel configurations
+     */
+    public List<Channel> createChannels()
+    {
+        List<Channel> channels = new ArrayList<>();
+
+        for(SignalConfiguration signal: mSignals)
+        {
+            Channel channel = new Channel(signal.getLabel());
+            channel.setSystem(SYSTEM);
+            channel.setSite(signal.getSignalType().toString());
+
+            SourceConfigTuner source = new SourceConfigTuner();
+            source.setFrequency(signal.getFrequency());
+            channel.setSourceConfiguration(source);
+            channel.setDecodeConfiguration(createDecodeConfiguration(signal));
+
+            if(signal.getSignalType() == SignalType.NBFM_MDC1200)
+            {
+                AuxDecodeConfiguration aux = new AuxDecodeConfiguration();
+                aux.addAuxDecoder(DecoderType.MDC1200);
+                channel.setAuxDecodeConfiguration(aux);
+            }
+
+            channels.add(channel);
+        }
+
+        return channels;
+    }
+
+    /**
+     * Creates a decode configuration for the signal
+     */
+    private static DecodeConfiguration createDecodeConfiguration(SignalConfiguration signal)
+    {
+        switch(signal.getSignalType())
+        {
+            case P25_PHASE1_C4FM:
+                DecodeConfigP25Phase1 p25 = new DecodeConfigP25Phase1();
+                p25.setModulation(P25P1Decoder.Modulation.C4FM);
+                p25.setTrafficChannelPoolSize(0);
+                return p25;
+            case P25_PHASE2_HDQPSK:
+                return new DecodeConfigP25Phase2();
+            case DMR:
+                DecodeConfigDMR dmr = new DecodeConfigDMR();
+                dmr.setTrafficChannelPoolSize(0);
+                return dmr;
+            case NBFM_MDC1200:
+            default:
+                DecodeConfigNBFM nbfm = new DecodeConfigNBFM();
+                nbfm.setBandwidth(DecodeConfigNBFM.Bandwidth.BW_12_5);
+                return nbfm;
+        }
+    }
+
+    /**
+     * Creates the production load profile: a P25 Phase 1 control channel that broadcasts identifier update, RFSS and
+     * network status and a group voice grant for each of twenty duty-cycled P25 Phase 1 voice channels, P25 Phase 2
+     * voice channels, eight continuously keyed DMR repeaters and analog FM channels that send MDC-1200 PTT pre and
+     * post identifiers.  Key up times are staggered across the key period so that the active channel count stays
+     * roughly constant.
+     *
+     * @param sampleRate of the synthetic tuner, up to 10 MHz
+     * @param centerFrequency of the synthetic tuner
+     * @return profile
+     * @throws IllegalArgumentException if the sample rate is too small to hold all of the channels
+     */
+    public static LoadProfile production(int sampleRate, long centerFrequency)
+    {
+        LoadProfile profile = new LoadProfile(sampleRate, centerFrequency);
+
+        int signalCount = 1 + P25_VOICE_CHANNEL_COUNT + P25_PHASE2_CHANNEL_COUNT + DMR_REPEATER_COUNT +
+            ANALOG_CHANNEL_COUNT;
+
+        //Spread the channels evenly across the usable bandwidth on the channel raster
+        long slotsPerSignal = (long)(sampleRate * USABLE_BANDWIDTH / CHANNEL_SPACING / (signalCount + 1));
+
+        if(slotsPerSignal < 1)
+        {
+            throw new IllegalArgumentException("Sample rate [" + sampleRate + "] is too small for the production " +
+                "load profile - minimum is " + (int)Math.ceil((signalCount + 1) * CHANNEL_SPACING / USABLE_BANDWIDTH));
+        }
+
+        long spacing = slotsPerSignal * CHANNEL_SPACING;
+        long baseFrequency = ((centerFrequency - sampleRate) / CHANNEL_SPACING) * CHANNEL_SPACING;
+        int slot = 0;
+
+        P25Phase1Script controlScript = new P25Phase1Script(P25_NAC, true);
+        long controlFrequency = profile.getSlotFrequency(slot++, spacing);
+        int controlChannel = (int)((controlFrequency - baseFrequency) / CHANNEL_SPACING);
+        controlScript.addIdentifierUpdate(P25_IDENTIFIER, baseFrequency, CHANNEL_SPACING, CHANNEL_SPACING);
+        controlScript.addRFSSStatusBroadcast(P25_SYSTEM, P25_RFSS, P25_SITE, P25_IDENTIFIER, controlChannel);
+        controlScript.addNetworkStatusBroadcast(P25_WACN, P25_SYSTEM, P25_IDENTIFIER, controlChannel);
+        SignalConfiguration control = new SignalConfiguration(SignalType.P25_PHASE1_C4FM, controlFrequency, 20.0,
+            controlScript);
+        control.setLabel("P25 Control");
+        profile.addSignal(control);
+
+        for(int x = 0; x < P25_VOICE_CHANNEL_COUNT; x++)
+        {
+            long frequency = profile.getSlotFrequency(slot++, spacing);
+            int channel = (int)((frequency - baseFrequency) / CHANNEL_SPACING);
+            controlScript.addGroupVoiceChannelGrant(P25_IDENTIFIER, channel, BASE_TALKGROUP + x, BASE_RADIO_ID + x);
+
+            SignalConfiguration voice = new SignalConfiguration(SignalType.P25_PHASE1_C4FM, frequency,
+                15.0 + (x % 4), new P25Phase1Script(P25_NAC, BASE_TALKGROUP + x, BASE_RADIO_ID + x));
+            voice.setDutyCycle(0.5, SignalConfiguration.DEFAULT_KEY_PERIOD_MILLISECONDS,
+                x * SignalConfiguration.DEFAULT_KEY_PERIOD_MILLISECONDS / P25_VOICE_CHANNEL_COUNT);
+            voice.setLabel("P25 Voice " + (x + 1));
+            profile.addSignal(voice);
+        }
+
+        for(int x = 0; x < P25_PHASE2_CHANNEL_COUNT; x++)
+        {
+            SignalConfiguration phase2 = new SignalConfiguration(SignalType.P25_PHASE2_HDQPSK,
+                profile.getSlotFrequency(slot++, spacing), 18.0, new P25Phase2Script(P25_WACN, P25_SYSTEM, P25_NAC,
+                BASE_TALKGROUP + P25_VOICE_CHANNEL_COUNT + x, BASE_RADIO_ID + P25_VOICE_CHANNEL_COUNT + x));
+            phase2.setDutyCycle(0.5, SignalConfiguration.DEFAULT_KEY_PERIOD_MILLISECONDS,
+                x * SignalConfiguration.DEFAULT_KEY_PERIOD_MILLISECONDS / P25_PHASE2_CHANNEL_COUNT);
+            phase2.setLabel("P25 Phase 2 " + (x + 1));
+            profile.addSignal(phase2);
+        }
+
+        for(int x = 0; x < DMR_REPEATER_COUNT; x++)
+        {
+            SignalConfiguration dmr = new SignalConfiguration(SignalType.DMR, profile.getSlotFrequency(slot++, spacing),
+                18.0, new DMRScript((x + 1) % 16,
+                BASE_TALKGROUP + P25_VOICE_CHANNEL_COUNT + P25_PHASE2_CHANNEL_COUNT + x,
+                BASE_RADIO_ID + P25_VOICE_CHANNEL_COUNT + P25_PHASE2_CHANNEL_COUNT + x));
+            dmr.setLabel("DMR Repeater " + (x + 1));
+            profile.addSignal(dmr);
+        }
+
+        for(int x = 0; x < ANALOG_CHANNEL_COUNT; x++)
+        {
+            SignalConfiguration analog = new SignalConfiguration(SignalType.NBFM_MDC1200,
+                profile.getSlotFrequency(slot++, spacing), 20.0, new MDC1200Script(BASE_MDC_UNIT_ID + x));
+            analog.setDutyCycle(0.3, SignalConfiguration.DEFAULT_KEY_PERIOD_MILLISECONDS,
+                x * SignalConfiguration.DEFAULT_KEY_PERIOD_MILLISECONDS / ANALOG_CHANNEL_COUNT);
+            analog.setLabel("Analog " + (x + 1));
+            profile.addSignal(analog);
+        }
+
+        return profile;
+    }
+}
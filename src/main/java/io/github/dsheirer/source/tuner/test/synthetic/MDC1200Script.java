@@ -0,0 +1,223 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+import io.github.dsheirer.bits.BinaryMessage;
+import io.github.dsheirer.bits.SyncPattern;
+
+/**
+ * Scripted MDC-1200 signalling for an analog FM transmitter.
+ *
+ * Sends a PTT ID (pre) burst at each key up and a PTT ID (post) burst at each key down, with voice audio in between.
+ * Message fields are placed at the bit positions decoded by the MDC-1200 decoder and each message block is
+ * interleaved and repeated with a second sync.  Data bits are differentially encoded onto the 1200/1800 Hz tones.
+ */
+public class MDC1200Script implements ISymbolScript
+{
+    public static final int OPCODE_PTT_ID = 0x01;
+    public static final int ARGUMENT_PTT_PRE = 0x80;
+    public static final int ARGUMENT_PTT_POST = 0x00;
+    private static final int PREAMBLE_BIT_LENGTH = 48;
+    private static final int SYNC_BIT_LENGTH = 40;
+    private static final int BLOCK_BIT_LENGTH = 112;
+    private static final int TRAILING_BIT_LENGTH = 8;
+    private static final int BURST_BIT_LENGTH = PREAMBLE_BIT_LENGTH + 2 * (SYNC_BIT_LENGTH + BLOCK_BIT_LENGTH) +
+        TRAILING_BIT_LENGTH;
+
+    private int mUnitID;
+    private int[] mBurst;
+    private int mBurstPointer;
+    private boolean mTransmitting;
+    private boolean mKeyDownRequested;
+    private boolean mPostSent;
+    private int mFrameCount;
+
+    /**
+     * Constructs an instance
+     *
+     * @param unitID (16-bit) identity transmitted in each PTT ID
+     */
+    public MDC1200Script(int unitID)
+    {
+        mUnitID = unitID & 0xFFFF;
+    }
+
+    /**
+     * Unit identity for this script
+     */
+    public int getUnitID()
+    {
+        return mUnitID;
+    }
+
+    @Override
+    public void keyUp()
+    {
+        mTransmitting = true;
+        mKeyDownRequested = false;
+        mPostSent = false;
+        mBurst = createBurst(OPCODE_PTT_ID, ARGUMENT_PTT_PRE);
+        mBurstPointer = 0;
+    }
+
+    @Override
+    public void keyDown()
+    {
+        mKeyDownRequested = true;
+    }
+
+    @Override
+    public boolean isTransmitting()
+    {
+        return mTransmitting;
+    }
+
+    @Override
+    public int getFrameCount()
+    {
+        return mFrameCount;
+    }
+
+    @Override
+    public int nextSymbol()
+    {
+        if(mBurst != null)
+        {
+            if(mBurstPointer < mBurst.length)
+            {
+                return mBurst[mBurstPointer++];
+            }
+
+            mBurst = null;
+            mFrameCount++;
+        }
+
+        if(mKeyDownRequested)
+        {
+            if(!mPostSent)
+            {
+                mPostSent = true;
+                mBurst = createBurst(OPCODE_PTT_ID, ARGUMENT_PTT_POST);
+                mBurstPointer = 0;
+                return mBurst[mBurstPointer++];
+            }
+
+            mTransmitting = false;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Creates a burst of tone symbols containing a preamble and the message block sent twice.
+     */
+    private int[] createBurst(int opcode, int argument)
+    {
+        BinaryMessage bits = new BinaryMessage(BURST_BIT_LENGTH);
+
+        //Preamble bit pairs (1100...) produce alternating tones for the receiver's symbol timing recovery
+        for(int x = 0; x < PREAMBLE_BIT_LENGTH; x += 4)
+        {
+            bits.set(x);
+            bits.set(x + 1);
+        }
+
+        BinaryMessage block = getInterleavedBlock(opcode, argument, mUnitID);
+        boolean[] sync = SyncPattern.MDC1200.getPattern();
+        int offset = PREAMBLE_BIT_LENGTH;
+
+        for(int repeat = 0; repeat < 2; repeat++)
+        {
+            for(int x = 0; x < SYNC_BIT_LENGTH; x++)
+            {
+                if(sync[x])
+                {
+                    bits.set(offset + x);
+                }
+            }
+
+            offset += SYNC_BIT_LENGTH;
+            bits.load(offset, block);
+            offset += BLOCK_BIT_LENGTH;
+        }
+
+        //Trailing bits are ones so that the burst ends in the same reference state that it starts with
+        for(int x = offset; x < BURST_BIT_LENGTH; x++)
+        {
+            bits.set(x);
+        }
+
+        int[] symbols = new int[BURST_BIT_LENGTH];
+
+        //Reference bit state matches the initial state of the decoder's NRZ-I integrator
+        boolean previousBit = true;
+
+        for(int x = 0; x < BURST_BIT_LENGTH; x++)
+        {
+            //Differential encoding - the 1800 Hz tone indicates a change in the data bit value
+            boolean bit = bits.get(x);
+            symbols[x] = bit ^ previousBit ? 1 : 0;
+            previousBit = bit;
+        }
+
+        return symbols;
+    }
+
+    /**
+     * Creates the interleaved 112-bit message block with the opcode, argument and unit ID bytes transmitted least
+     * significant bit first.
+     *
+     * @param opcode value
+     * @param argument value
+     * @param unitID value
+     * @return interleaved block
+     */
+    public static BinaryMessage getInterleavedBlock(int opcode, int argument, int unitID)
+    {
+        BinaryMessage block = new BinaryMessage(BLOCK_BIT_LENGTH);
+        int[] bytes = new int[]{opcode, argument, (unitID >> 8) & 0xFF, unitID & 0xFF};
+
+        for(int x = 0; x < bytes.length; x++)
+        {
+            for(int bit = 0; bit < 8; bit++)
+            {
+                if(((bytes[x] >> bit) & 0x1) == 1)
+                {
+                    block.set(x * 8 + bit);
+                }
+            }
+        }
+
+        //Interleave as 7 rows by 16 columns
+        BinaryMessage interleaved = new BinaryMessage(BLOCK_BIT_LENGTH);
+
+        for(int column = 0; column < 16; column++)
+        {
+            for(int row = 0; row < 7; row++)
+            {
+                if(block.get(column * 7 + row))
+                {
+                    interleaved.set(row * 16 + column);
+                }
+            }
+        }
+
+        return interleaved;
+    }
+}
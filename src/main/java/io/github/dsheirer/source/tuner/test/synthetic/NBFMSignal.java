@@ -0,0 +1,109 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+/**
+ * Narrowband FM analog signal with MDC-1200 AFSK signalling.  While the MDC-1200 script produces tone symbols, the
+ * signal is modulated with continuous phase 1200/1800 Hz AFSK at 1200 baud, otherwise it is modulated with a two tone
+ * voice substitute audio signal.
+ */
+public class NBFMSignal extends SyntheticSignal
+{
+    public static final double AFSK_DEVIATION = 2000.0;
+    public static final double VOICE_DEVIATION = 1500.0;
+    private static final double MARK_FREQUENCY = 1200.0;
+    private static final double SPACE_FREQUENCY = 1800.0;
+    private static final double[] VOICE_TONE_FREQUENCIES = new double[]{440.0, 1000.0};
+
+    private double mRadiansPerSample;
+    private double mBaudPerSample;
+    private double mBaudPhase = 1.0;
+    private int mToneSymbol = -1;
+    private double mAudioPhase;
+    private double mVoicePhase1;
+    private double mVoicePhase2;
+    private double mCarrierPhase;
+
+    /**
+     * Constructs an instance
+     *
+     * @param configuration for the signal
+     * @param sampleRate of the narrowband output
+     */
+    public NBFMSignal(SignalConfiguration configuration, double sampleRate)
+    {
+        super(configuration, sampleRate);
+        mRadiansPerSample = 2.0 * Math.PI / sampleRate;
+        mBaudPerSample = configuration.getSignalType().getSymbolRate() / sampleRate;
+    }
+
+    @Override
+    protected void reset()
+    {
+        mBaudPhase = 1.0;
+    }
+
+    @Override
+    protected int modulate(float[] samples, int offset, int length)
+    {
+        for(int x = 0; x < length; x++)
+        {
+            mBaudPhase += mBaudPerSample;
+
+            if(mBaudPhase >= 1.0)
+            {
+                mBaudPhase -= 1.0;
+
+                mToneSymbol = getScript().nextSymbol();
+
+                if(!getScript().isTransmitting())
+                {
+                    return x;
+                }
+            }
+
+            double deviation;
+
+            if(mToneSymbol >= 0)
+            {
+                mAudioPhase += (mToneSymbol == 0 ? MARK_FREQUENCY : SPACE_FREQUENCY) * mRadiansPerSample;
+                deviation = Math.sin(mAudioPhase) * AFSK_DEVIATION;
+            }
+            else
+            {
+                mVoicePhase1 += VOICE_TONE_FREQUENCIES[0] * mRadiansPerSample;
+                mVoicePhase2 += VOICE_TONE_FREQUENCIES[1] * mRadiansPerSample;
+                deviation = (Math.sin(mVoicePhase1) + Math.sin(mVoicePhase2)) * 0.5 * VOICE_DEVIATION;
+            }
+
+            mCarrierPhase += deviation * mRadiansPerSample;
+
+            int index = 2 * (offset + x);
+            samples[index] = (float)Math.cos(mCarrierPhase);
+            samples[index + 1] = (float)Math.sin(mCarrierPhase);
+        }
+
+        mAudioPhase %= 2.0 * Math.PI;
+        mVoicePhase1 %= 2.0 * Math.PI;
+        mVoicePhase2 %= 2.0 * Math.PI;
+        mCarrierPhase %= 2.0 * Math.PI;
+
+        return length;
+    }
+}
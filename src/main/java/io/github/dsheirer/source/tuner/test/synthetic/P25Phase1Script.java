@@ -0,0 +1,504 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+import io.github.dsheirer.bits.BinaryMessage;
+import io.github.dsheirer.dsp.symbol.FrameSync;
+import io.github.dsheirer.edac.CRCP25;
+import io.github.dsheirer.edac.Hamming10;
+import io.github.dsheirer.edac.ReedSolomon_24_12_13_P25;
+import io.github.dsheirer.edac.ReedSolomon_24_16_9_P25;
+import io.github.dsheirer.edac.ReedSolomon_63_P25;
+import io.github.dsheirer.edac.trellis.P25_1_2_Node;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1DataUnitID;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1Interleave;
+import io.github.dsheirer.module.decode.p25.phase1.message.lc.LinkControlOpcode;
+import io.github.dsheirer.module.decode.p25.phase1.message.tsbk.Opcode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Scripted APCO25 Phase 1 dibit source.
+ *
+ * Control channel scripts continuously transmit single-block Trunking Signalling Block (TSBK) frames, cycling through
+ * the scripted TSBK messages.  Each TSBK is CRC protected, 1/2 rate trellis encoded and interleaved so that the
+ * decoded message content can be compared to the scripted content.
+ *
+ * Traffic channel scripts transmit alternating LDU1 and LDU2 frames while keyed and a TDU terminator at key down.
+ * Each LDU1 carries a group voice channel user link control word for the scripted talkgroup and radio and each LDU2
+ * carries unencrypted encryption sync parameters, both Reed-Solomon and Hamming(10,6,3) protected.  The IMBE voice
+ * frames and low speed data are filled from a deterministic pseudo-random sequence.
+ */
+public class P25Phase1Script extends AbstractFrameScript
+{
+    /**
+     * BCH(63,16,23) generator polynomial for the Network ID (octal 6331141367235453)
+     */
+    public static final long NID_GENERATOR = 06331141367235453l;
+    private static final int NID_PARITY_LENGTH = 47;
+    private static final int STATUS_SYMBOL_INTERVAL = 35;
+    private static final int STATUS_SYMBOL_INBOUND_IDLE = 1;
+    private static final int TSBK_OPCODE_START = 2;
+    private static final int TSBK_PAYLOAD_START = 16;
+    private static final int TSBK_CRC_START = 80;
+    private static final int TSBK_LENGTH = 96;
+    private static final int TSBK_ENCODED_LENGTH = 196;
+    private static final int VOICE_FRAME_LENGTH = 1568;
+    private static final int TERMINATOR_LENGTH = 28;
+    private static final int LINK_CONTROL_LENGTH = 72;
+    private static final int ENCRYPTION_SYNC_LENGTH = 96;
+    private static final int UNENCRYPTED_ALGORITHM = 0x80;
+
+    /**
+     * Start of each Hamming(10,6,3) protected hexbit word in the LDU1 and LDU2 bodies, information hexbits followed by
+     * the Reed-Solomon parity hexbits
+     */
+    private static final int[] HEX_WORD_STARTS = {288, 298, 308, 318, 472, 482, 492, 502, 656, 666, 676, 686, 840, 850,
+        860, 870, 1024, 1034, 1044, 1054, 1208, 1218, 1228, 1238};
+
+    private int mNAC;
+    private boolean mControlChannel;
+    private List<BinaryMessage> mTSBKMessages = new ArrayList<>();
+    private List<int[]> mTSBKFrames = new ArrayList<>();
+    private int mTSBKPointer;
+    private boolean mTerminatorSent;
+    private boolean mLDU1 = true;
+    private int mTalkgroup;
+    private int mRadio;
+    private BinaryMessage mLinkControl;
+    private BinaryMessage mEncryptionSync;
+
+    /**
+     * Constructs an instance
+     *
+     * @param nac network access code (0 - 4095) transmitted in the NID of each frame
+     * @param controlChannel true to transmit scripted TSBK frames or false to transmit voice (LDU) frames
+     */
+    public P25Phase1Script(int nac, boolean controlChannel)
+    {
+        this(nac, controlChannel, 0, 0);
+    }
+
+    /**
+     * Constructs a traffic channel instance that transmits a group call.
+     *
+     * @param nac network access code (0 - 4095) transmitted in the NID of each frame
+     * @param talkgroup (16-bit) for the link control word
+     * @param radio (24-bit) source of the call
+     */
+    public P25Phase1Script(int nac, int talkgroup, int radio)
+    {
+        this(nac, false, talkgroup, radio);
+    }
+
+    private P25Phase1Script(int nac, boolean controlChannel, int talkgroup, int radio)
+    {
+        super(0x5A5A0000 | nac);
+        mNAC = nac & 0xFFF;
+        mControlChannel = controlChannel;
+        mTalkgroup = talkgroup & 0xFFFF;
+        mRadio = radio & 0xFFFFFF;
+        mLinkControl = getGroupVoiceChannelUser(mTalkgroup, mRadio);
+        mEncryptionSync = getUnencryptedSyncParameters();
+    }
+
+    /**
+     * Network access code for this script
+     */
+    public int getNAC()
+    {
+        return mNAC;
+    }
+
+    /**
+     * Talkgroup for the voice (LDU) link control word
+     */
+    public int getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    /**
+     * Radio identifier for the voice (LDU) link control word
+     */
+    public int getRadio()
+    {
+        return mRadio;
+    }
+
+    /**
+     * Indicates if this is a control channel (TSBK) script
+     */
+    public boolean isControlChannel()
+    {
+        return mControlChannel;
+    }
+
+    /**
+     * Scripted TSBK messages (96 bits including the CRC) in transmit order.
+     */
+    public List<BinaryMessage> getTSBKMessages()
+    {
+        return Collections.unmodifiableList(mTSBKMessages);
+    }
+
+    /**
+     * Adds a standard (MFID 0) outbound TSBK to the control channel script.
+     *
+     * @param opcode of the TSBK
+     * @param payload 64-bit payload for message bits 16 - 79
+     */
+    public void addTSBK(Opcode opcode, long payload)
+    {
+        BinaryMessage message = new BinaryMessage(TSBK_LENGTH);
+        message.set(0); //Last block
+        message.load(TSBK_OPCODE_START, 6, opcode.getCode());
+        message.load(TSBK_PAYLOAD_START, 64, payload);
+
+        int crc = 0xFFFF;
+
+        for(int i = message.nextSetBit(0); i >= 0 && i < TSBK_CRC_START; i = message.nextSetBit(i + 1))
+        {
+            crc ^= CRCP25.CCITT_80_CHECKSUMS[i];
+        }
+
+        message.load(TSBK_CRC_START, 16, crc);
+
+        mTSBKMessages.add(message);
+        mTSBKFrames.add(createFrame(P25P1DataUnitID.TRUNKING_SIGNALING_BLOCK_1, encodeTSBK(message)));
+    }
+
+    /**
+     * Adds an identifier update (IDEN_UP) TSBK for an FDMA frequency band.
+     *
+     * @param identifier for the frequency band (0 - 15)
+     * @param baseFrequency in hertz
+     * @param channelSpacing in hertz
+     * @param bandwidth in hertz
+     */
+    public void addIdentifierUpdate(int identifier, long baseFrequency, int channelSpacing, int bandwidth)
+    {
+        long payload = ((long)(identifier & 0xF) << 60) |
+            ((long)((bandwidth / 125) & 0x1FF) << 51) |
+            (0x80l << 42) | //No transmit offset
+            ((long)((channelSpacing / 125) & 0x3FF) << 32) |
+            ((baseFrequency / 5) & 0xFFFFFFFFl);
+
+        addTSBK(Opcode.OSP_IDENTIFIER_UPDATE, payload);
+    }
+
+    /**
+     * Adds a group voice channel grant TSBK.
+     *
+     * @param identifier of the frequency band
+     * @param channel number within the frequency band
+     * @param group talkgroup
+     * @param source radio identifier
+     */
+    public void addGroupVoiceChannelGrant(int identifier, int channel, int group, int source)
+    {
+        long payload = ((long)(identifier & 0xF) << 52) |
+            ((long)(channel & 0xFFF) << 40) |
+            ((long)(group & 0xFFFF) << 24) |
+            (source & 0xFFFFFFl);
+
+        addTSBK(Opcode.OSP_GROUP_VOICE_CHANNEL_GRANT, payload);
+    }
+
+    /**
+     * Adds an RFSS status broadcast TSBK announcing the control channel.
+     */
+    public void addRFSSStatusBroadcast(int system, int rfss, int site, int identifier, int channel)
+    {
+        long payload = (1l << 52) | //Active network connection
+            ((long)(system & 0xFFF) << 40) |
+            ((long)(rfss & 0xFF) << 32) |
+            ((long)(site & 0xFF) << 24) |
+            ((long)(identifier & 0xF) << 20) |
+            ((long)(channel & 0xFFF) << 8);
+
+        addTSBK(Opcode.OSP_RFSS_STATUS_BROADCAST, payload);
+    }
+
+    /**
+     * Adds a network status broadcast TSBK announcing the control channel.
+     */
+    public void addNetworkStatusBroadcast(int wacn, int system, int identifier, int channel)
+    {
+        long payload = ((long)(wacn & 0xFFFFF) << 36) |
+            ((long)(system & 0xFFF) << 24) |
+            ((long)(identifier & 0xF) << 20) |
+            ((long)(channel & 0xFFF) << 8);
+
+        addTSBK(Opcode.OSP_NETWORK_STATUS_BROADCAST, payload);
+    }
+
+    @Override
+    protected void reset()
+    {
+        mTerminatorSent = false;
+        mLDU1 = true;
+    }
+
+    @Override
+    protected boolean hasTrailingFrame()
+    {
+        return !mControlChannel && !mTerminatorSent;
+    }
+
+    /**
+     * Creates the next frame to transmit
+     */
+    @Override
+    protected int[] nextFrame(boolean keyDownRequested)
+    {
+        if(mControlChannel)
+        {
+            if(mTSBKFrames.isEmpty())
+            {
+                throw new IllegalStateException("Control channel script must contain at least one TSBK");
+            }
+
+            if(mTSBKPointer >= mTSBKFrames.size())
+            {
+                mTSBKPointer = 0;
+            }
+
+            return mTSBKFrames.get(mTSBKPointer++);
+        }
+
+        if(keyDownRequested)
+        {
+            mTerminatorSent = true;
+            return createFrame(P25P1DataUnitID.TERMINATOR_DATA_UNIT, new BinaryMessage(TERMINATOR_LENGTH));
+        }
+
+        P25P1DataUnitID duid = mLDU1 ? P25P1DataUnitID.LOGICAL_LINK_DATA_UNIT_1 :
+            P25P1DataUnitID.LOGICAL_LINK_DATA_UNIT_2;
+
+        BinaryMessage body = new BinaryMessage(VOICE_FRAME_LENGTH);
+
+        for(int x = 0; x < VOICE_FRAME_LENGTH; x++)
+        {
+            if(nextPseudoRandomBit())
+            {
+                body.set(x);
+            }
+        }
+
+        if(mLDU1)
+        {
+            loadHexWords(body, encodeLinkControl(mLinkControl));
+        }
+        else
+        {
+            loadHexWords(body, encodeEncryptionSync(mEncryptionSync));
+        }
+
+        mLDU1 = !mLDU1;
+
+        return createFrame(duid, body);
+    }
+
+    /**
+     * Loads the hexbit words into the LDU body, each followed by its Hamming(10,6,3) checksum.
+     */
+    private static void loadHexWords(BinaryMessage body, int[] hexbits)
+    {
+        for(int x = 0; x < hexbits.length; x++)
+        {
+            int start = HEX_WORD_STARTS[x];
+            body.load(start, 6, hexbits[x]);
+            body.load(start + 6, 4, Hamming10.calculateChecksum(body, start));
+        }
+    }
+
+    /**
+     * Creates the 72-bit group voice channel user link control word.
+     *
+     * @param talkgroup (16-bit)
+     * @param radio (24-bit)
+     * @return link control word
+     */
+    public static BinaryMessage getGroupVoiceChannelUser(int talkgroup, int radio)
+    {
+        BinaryMessage lcw = new BinaryMessage(LINK_CONTROL_LENGTH);
+        lcw.load(2, 6, LinkControlOpcode.GROUP_VOICE_CHANNEL_USER.getCode());
+        lcw.load(32, 16, talkgroup & 0xFFFF);
+        lcw.load(48, 24, radio & 0xFFFFFF);
+        return lcw;
+    }
+
+    /**
+     * Creates the 96-bit encryption sync parameters with a zero message indicator and key ID and the unencrypted
+     * algorithm ID.
+     */
+    public static BinaryMessage getUnencryptedSyncParameters()
+    {
+        BinaryMessage parameters = new BinaryMessage(ENCRYPTION_SYNC_LENGTH);
+        parameters.load(72, 8, UNENCRYPTED_ALGORITHM);
+        return parameters;
+    }
+
+    /**
+     * Reed-Solomon(24,12,13) encodes the link control word.
+     *
+     * @param lcw 72-bit link control word
+     * @return 12 information hexbits followed by 12 parity hexbits
+     */
+    public static int[] encodeLinkControl(BinaryMessage lcw)
+    {
+        return encodeHexWords(lcw, 12, 12, new ReedSolomon_24_12_13_P25());
+    }
+
+    /**
+     * Reed-Solomon(24,16,9) encodes the encryption sync parameters.
+     *
+     * @param parameters 96-bit encryption sync parameters
+     * @return 16 information hexbits followed by 8 parity hexbits
+     */
+    public static int[] encodeEncryptionSync(BinaryMessage parameters)
+    {
+        return encodeHexWords(parameters, 16, 8, new ReedSolomon_24_16_9_P25());
+    }
+
+    /**
+     * Reed-Solomon encodes the message hexbits using a shortened RS(63) code where the parity hexbits occupy the
+     * lowest codeword positions and the information hexbits follow in reverse order.
+     */
+    private static int[] encodeHexWords(BinaryMessage message, int infoSymbols, int paritySymbols,
+                                        ReedSolomon_63_P25 reedSolomon)
+    {
+        int[] codeword = new int[63];
+
+        for(int x = 0; x < infoSymbols; x++)
+        {
+            codeword[paritySymbols + infoSymbols - 1 - x] = message.getInt(x * 6, x * 6 + 5);
+        }
+
+        reedSolomon.encode(codeword);
+
+        int[] hexbits = new int[infoSymbols + paritySymbols];
+
+        for(int x = 0; x < infoSymbols; x++)
+        {
+            hexbits[x] = codeword[paritySymbols + infoSymbols - 1 - x];
+        }
+
+        for(int x = 0; x < paritySymbols; x++)
+        {
+            hexbits[infoSymbols + x] = codeword[paritySymbols - 1 - x];
+        }
+
+        return hexbits;
+    }
+
+    /**
+     * Creates a frame of dibits containing the frame sync, the network ID and the body, with status symbols inserted
+     * after every 35 dibits and padded with null dibits to complete the final status symbol interval.
+     *
+     * @param duid data unit ID
+     * @param body message bits that follow the NID
+     * @return frame dibits
+     */
+    private int[] createFrame(P25P1DataUnitID duid, BinaryMessage body)
+    {
+        int dataDibits = 24 + 32 + (body.size() / 2);
+        int intervals = (dataDibits + STATUS_SYMBOL_INTERVAL - 1) / STATUS_SYMBOL_INTERVAL;
+        int[] frame = new int[intervals * (STATUS_SYMBOL_INTERVAL + 1)];
+
+        int[] data = new int[intervals * STATUS_SYMBOL_INTERVAL];
+        loadDibits(data, 0, FrameSync.P25_PHASE1_NORMAL.getSync(), 48);
+        loadDibits(data, 24, getNID(mNAC, duid.getValue()), 64);
+        int pointer = 56;
+
+        for(int x = 0; x < body.size(); x += 2)
+        {
+            data[pointer++] = (body.get(x) ? 2 : 0) + (body.get(x + 1) ? 1 : 0);
+        }
+
+        int framePointer = 0;
+
+        for(int x = 0; x < data.length; x++)
+        {
+            frame[framePointer++] = data[x];
+
+            if((x + 1) % STATUS_SYMBOL_INTERVAL == 0)
+            {
+                frame[framePointer++] = STATUS_SYMBOL_INBOUND_IDLE;
+            }
+        }
+
+        return frame;
+    }
+
+    /**
+     * Creates the 64-bit network ID containing the NAC and DUID protected by a BCH(63,16,23) code and a trailing
+     * even parity bit.
+     *
+     * @param nac network access code
+     * @param duid data unit ID value
+     * @return NID with the first transmitted bit in the MSB
+     */
+    public static long getNID(int nac, int duid)
+    {
+        long information = ((long)(nac & 0xFFF) << 4) | (duid & 0xF);
+        long remainder = information << NID_PARITY_LENGTH;
+
+        for(int bit = 62; bit >= NID_PARITY_LENGTH; bit--)
+        {
+            if(((remainder >>> bit) & 0x1) == 1)
+            {
+                remainder ^= NID_GENERATOR << (bit - NID_PARITY_LENGTH);
+            }
+        }
+
+        long codeword = (information << NID_PARITY_LENGTH) | remainder;
+
+        return (codeword << 1) | (Long.bitCount(codeword) & 0x1);
+    }
+
+    /**
+     * Applies 1/2 rate trellis encoding and interleaving to a 96-bit TSBK message.
+     *
+     * @param message containing 96 bits
+     * @return 196-bit encoded and interleaved block
+     */
+    public static BinaryMessage encodeTSBK(BinaryMessage message)
+    {
+        BinaryMessage encoded = new BinaryMessage(TSBK_ENCODED_LENGTH);
+
+        int state = 0;
+        int pointer = 0;
+
+        for(int x = 0; x <= TSBK_LENGTH; x += 2)
+        {
+            //Final input of zero flushes the encoder
+            int input = x < TSBK_LENGTH ? (message.get(x) ? 2 : 0) + (message.get(x + 1) ? 1 : 0) : 0;
+            int output = P25_1_2_Node.TRANSITION_MATRIX[state][input];
+            encoded.load(pointer, 4, output);
+            pointer += 4;
+            state = input;
+        }
+
+        return P25P1Interleave.interleaveData(encoded, 0, TSBK_ENCODED_LENGTH);
+    }
+}
@@ -0,0 +1,505 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+import io.github.dsheirer.bits.BinaryMessage;
+import io.github.dsheirer.dsp.symbol.FrameSync;
+import io.github.dsheirer.edac.ReedSolomon_63_35_29_P25;
+import io.github.dsheirer.module.decode.p25.phase2.enumeration.DataUnitID;
+import io.github.dsheirer.module.decode.p25.phase2.message.InterSlotSignallingChannel;
+import io.github.dsheirer.module.decode.p25.phase2.message.mac.MacOpcode;
+import io.github.dsheirer.module.decode.p25.phase2.message.mac.MacPduType;
+import io.github.dsheirer.module.decode.p25.phase2.timeslot.ScramblingSequence;
+
+/**
+ * Scripted APCO25 Phase 2 TDMA outbound dibit source.
+ *
+ * Transmits continuous 720-dibit super-frame fragments while keyed.  Each fragment contains four 160-dibit timeslots
+ * separated by inter-slot signalling channels (ISCH).  The first two ISCH carry I-ISCH codewords with the channel
+ * number, fragment location and superframe location and the third and fourth ISCH carry the S-ISCH sync pattern.
+ * Timeslots alternate between channel 0 and channel 1, with the final two timeslots of each superframe inverted.
+ *
+ * Channel 0 carries a group call from the scripted radio to the scripted talkgroup: an unscrambled FACCH MAC_PTT at
+ * key up, then superframes of four 4V and one 2V voice timeslots followed by an unscrambled SACCH MAC_ACTIVE with a
+ * Group Voice Channel User message, and two unscrambled FACCH MAC_END_PTT at key down.  Voice timeslots carry a valid
+ * Encryption Synchronization Sequence (ESS) for clear voice and are scrambled with the sequence for the scripted
+ * WACN, system and NAC.  Vocoder frames are filled from a deterministic pseudo-random sequence.
+ *
+ * Channel 1 is idle and carries unscrambled FACCH MAC_IDLE PDUs with a Network Status Broadcast that announces the
+ * scripted WACN, system and NAC, which the decoder uses to descramble the voice timeslots.
+ *
+ * MAC PDUs and the ESS are Reed-Solomon encoded.  The MAC PDU CRC-12 is not checked by the decoder and is left zero.
+ */
+public class P25Phase2Script extends AbstractFrameScript
+{
+    private static final int FRAGMENT_BIT_LENGTH = 1440;
+    private static final int ISCH_BIT_LENGTH = 40;
+    private static final int TIMESLOT_BIT_LENGTH = 320;
+    private static final int SLOT_BIT_LENGTH = ISCH_BIT_LENGTH + TIMESLOT_BIT_LENGTH;
+    private static final int[] DATA_UNIT_ID = {0, 1, 74, 75, 244, 245, 318, 319};
+    private static final int FACCH_INFO_SYMBOLS = 26;
+    private static final int FACCH_PARITY_SYMBOLS = 19;
+    private static final int SACCH_INFO_SYMBOLS = 30;
+    private static final int SACCH_PARITY_SYMBOLS = 22;
+    private static final int FACCH_SYNC_START = 138;
+    private static final int FACCH_SYNC_END = 180;
+    private static final int RS_PARITY_SYMBOLS = 28;
+    private static final int MAC_STRUCTURE_START = 8;
+    private static final int VOICE_FRAME_LENGTH = 72;
+    private static final int[] VOICE_4_FRAME_STARTS = {2, 76, 172, 246};
+    private static final int[] VOICE_2_FRAME_STARTS = {2, 76};
+    private static final int ESS_B_START = 148;
+    private static final int ESS_A1_START = 148;
+    private static final int ESS_A1_LENGTH = 96;
+    private static final int ESS_A2_START = 246;
+    private static final int ESS_INFO_SYMBOLS = 16;
+    private static final int ALGORITHM_UNENCRYPTED = 0x80;
+    private static final int SYSTEM_CONTROLLER = 0xFFFFFF;
+    private static final int CALL_TIMESLOTS_PER_SUPERFRAME = 6;
+
+    private int mWACN;
+    private int mSystem;
+    private int mNAC;
+    private int mTalkgroup;
+    private int mRadio;
+    private ScramblingSequence mScramblingSequence = new ScramblingSequence();
+    private ReedSolomon_63_35_29_P25 mReedSolomon = new ReedSolomon_63_35_29_P25();
+    private int[] mESS;
+    private int mFragment;
+    private int mSuperframe;
+    private int mCallTimeslot;
+    private boolean mEndPttSent;
+
+    /**
+     * Constructs an instance
+     *
+     * @param wacn wide area communications network (20 bits) for the network status broadcast and scrambling
+     * @param system (12 bits) for the network status broadcast and scrambling
+     * @param nac network access code (12 bits) for the network status broadcast and scrambling
+     * @param talkgroup (16 bits) for the channel 0 group call
+     * @param radio (24 bits) source for the channel 0 group call
+     */
+    public P25Phase2Script(int wacn, int system, int nac, int talkgroup, int radio)
+    {
+        super(0x69690000 ^ (talkgroup << 8) ^ radio);
+        mWACN = wacn & 0xFFFFF;
+        mSystem = system & 0xFFF;
+        mNAC = nac & 0xFFF;
+        mTalkgroup = talkgroup & 0xFFFF;
+        mRadio = radio & 0xFFFFFF;
+        mScramblingSequence.update(mWACN, mSystem, mNAC);
+        mESS = createESS();
+    }
+
+    /**
+     * Wide area communications network
+     */
+    public int getWACN()
+    {
+        return mWACN;
+    }
+
+    /**
+     * System
+     */
+    public int getSystem()
+    {
+        return mSystem;
+    }
+
+    /**
+     * Network access code
+     */
+    public int getNAC()
+    {
+        return mNAC;
+    }
+
+    /**
+     * Talkgroup for the channel 0 group call
+     */
+    public int getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    /**
+     * Source radio for the channel 0 group call
+     */
+    public int getRadio()
+    {
+        return mRadio;
+    }
+
+    @Override
+    protected void reset()
+    {
+        mCallTimeslot = 0;
+        mEndPttSent = false;
+    }
+
+    @Override
+    protected boolean hasTrailingFrame()
+    {
+        return !mEndPttSent;
+    }
+
+    @Override
+    protected int[] nextFrame(boolean keyDownRequested)
+    {
+        BinaryMessage fragment = new BinaryMessage(FRAGMENT_BIT_LENGTH);
+        boolean finalFragment = mFragment == 2;
+
+        loadISCH(fragment, 0, 0);
+        loadISCH(fragment, SLOT_BIT_LENGTH, 1);
+        fragment.load(2 * SLOT_BIT_LENGTH, ISCH_BIT_LENGTH, FrameSync.P25_PHASE2_NORMAL.getSync());
+        fragment.load(3 * SLOT_BIT_LENGTH, ISCH_BIT_LENGTH, FrameSync.P25_PHASE2_NORMAL.getSync());
+
+        for(int position = 0; position < 4; position++)
+        {
+            //Final two timeslots of the superframe are inverted
+            int channel = (position < 2 || !finalFragment) ? position % 2 : (position + 1) % 2;
+
+            BinaryMessage timeslot;
+
+            if(channel == 0)
+            {
+                timeslot = keyDownRequested ? createEndPushToTalk() : nextCallTimeslot(position);
+            }
+            else
+            {
+                timeslot = createNetworkStatusBroadcast();
+            }
+
+            fragment.load(position * SLOT_BIT_LENGTH + ISCH_BIT_LENGTH, timeslot);
+        }
+
+        if(keyDownRequested)
+        {
+            mEndPttSent = true;
+        }
+
+        if(++mFragment > 2)
+        {
+            mFragment = 0;
+            mSuperframe = (mSuperframe + 1) % 4;
+        }
+
+        int[] dibits = new int[FRAGMENT_BIT_LENGTH / 2];
+
+        for(int x = 0; x < dibits.length; x++)
+        {
+            dibits[x] = (fragment.get(2 * x) ? 2 : 0) + (fragment.get(2 * x + 1) ? 1 : 0);
+        }
+
+        return dibits;
+    }
+
+    /**
+     * Loads the I-ISCH codeword for the channel with the current fragment and superframe location.
+     */
+    private void loadISCH(BinaryMessage fragment, int offset, int channel)
+    {
+        int value = (channel << 5) | (mFragment << 3) | mSuperframe;
+        fragment.load(offset, ISCH_BIT_LENGTH, InterSlotSignallingChannel.getCodeword(value));
+    }
+
+    /**
+     * Creates the next channel 0 call timeslot: push-to-talk, then repeating superframes of voice and SACCH.
+     *
+     * @param position of the timeslot in the fragment (0 - 3) for scrambling
+     */
+    private BinaryMessage nextCallTimeslot(int position)
+    {
+        int callTimeslot = mCallTimeslot++;
+
+        if(callTimeslot == 0)
+        {
+            return createPushToTalk();
+        }
+
+        int index = (callTimeslot - 1) % CALL_TIMESLOTS_PER_SUPERFRAME;
+
+        if(index < 4)
+        {
+            return createVoice4(index, position);
+        }
+        else if(index == 4)
+        {
+            return createVoice2(position);
+        }
+
+        return createGroupVoiceChannelUser();
+    }
+
+    /**
+     * Creates a FACCH MAC_PTT for the group call with clear (unencrypted) voice.
+     */
+    private BinaryMessage createPushToTalk()
+    {
+        BinaryMessage pdu = createPdu(MacPduType.MAC_1_PTT, FACCH_INFO_SYMBOLS);
+        pdu.load(80, 8, ALGORITHM_UNENCRYPTED);
+        pdu.load(104, 24, mRadio);
+        pdu.load(128, 16, mTalkgroup);
+        return createFacch(pdu);
+    }
+
+    /**
+     * Creates a FACCH MAC_END_PTT for the group call.  Group call End PTT uses the system controller source address.
+     */
+    private BinaryMessage createEndPushToTalk()
+    {
+        BinaryMessage pdu = createPdu(MacPduType.MAC_2_END_PTT, FACCH_INFO_SYMBOLS);
+        pdu.load(12, 12, mNAC);
+        pdu.load(104, 24, SYSTEM_CONTROLLER);
+        pdu.load(128, 16, mTalkgroup);
+        return createFacch(pdu);
+    }
+
+    /**
+     * Creates a SACCH MAC_ACTIVE with a Group Voice Channel User Abbreviated message for the group call.
+     */
+    private BinaryMessage createGroupVoiceChannelUser()
+    {
+        BinaryMessage pdu = createPdu(MacPduType.MAC_4_ACTIVE, SACCH_INFO_SYMBOLS);
+        pdu.load(MAC_STRUCTURE_START, 8, MacOpcode.TDMA_1_GROUP_VOICE_CHANNEL_USER_ABBREVIATED.getValue());
+        pdu.load(MAC_STRUCTURE_START + 16, 16, mTalkgroup);
+        pdu.load(MAC_STRUCTURE_START + 32, 24, mRadio);
+        return createSacch(pdu);
+    }
+
+    /**
+     * Creates a FACCH MAC_IDLE with a Network Status Broadcast Abbreviated message.
+     */
+    private BinaryMessage createNetworkStatusBroadcast()
+    {
+        BinaryMessage pdu = createPdu(MacPduType.MAC_3_IDLE, FACCH_INFO_SYMBOLS);
+        pdu.load(MAC_STRUCTURE_START, 8, MacOpcode.PHASE1_123_NETWORK_STATUS_BROADCAST_ABBREVIATED.getValue());
+        pdu.load(MAC_STRUCTURE_START + 16, 20, mWACN);
+        pdu.load(MAC_STRUCTURE_START + 36, 12, mSystem);
+        pdu.load(MAC_STRUCTURE_START + 76, 12, mNAC);
+        return createFacch(pdu);
+    }
+
+    /**
+     * Creates an empty MAC PDU with the PDU type.
+     */
+    private static BinaryMessage createPdu(MacPduType type, int infoSymbols)
+    {
+        BinaryMessage pdu = new BinaryMessage(infoSymbols * 6);
+        pdu.load(0, 3, type.ordinal());
+        return pdu;
+    }
+
+    /**
+     * Creates an unscrambled FACCH timeslot.  The 26 information and 19 parity hexbits fill the timeslot in order,
+     * skipping the data unit ID bits and the reserved region in the middle of the timeslot.
+     */
+    private BinaryMessage createFacch(BinaryMessage pdu)
+    {
+        BinaryMessage timeslot = new BinaryMessage(TIMESLOT_BIT_LENGTH);
+        int[] symbols = encode(pdu, FACCH_INFO_SYMBOLS, FACCH_PARITY_SYMBOLS);
+        loadSymbols(timeslot, symbols, FACCH_SYNC_START, FACCH_SYNC_END);
+        loadDataUnitID(timeslot, DataUnitID.UNSCRAMBLED_FACCH);
+        return timeslot;
+    }
+
+    /**
+     * Creates an unscrambled SACCH timeslot.  The 30 information and 22 parity hexbits fill the timeslot in order,
+     * skipping the data unit ID bits.
+     */
+    private BinaryMessage createSacch(BinaryMessage pdu)
+    {
+        BinaryMessage timeslot = new BinaryMessage(TIMESLOT_BIT_LENGTH);
+        int[] symbols = encode(pdu, SACCH_INFO_SYMBOLS, SACCH_PARITY_SYMBOLS);
+        loadSymbols(timeslot, symbols, 0, 0);
+        loadDataUnitID(timeslot, DataUnitID.UNSCRAMBLED_SACCH);
+        return timeslot;
+    }
+
+    /**
+     * Reed-Solomon encodes the MAC PDU hexbits and returns the transmitted information hexbits followed by the
+     * unpunctured parity hexbits.
+     */
+    private int[] encode(BinaryMessage pdu, int infoSymbols, int paritySymbols)
+    {
+        int[] codeword = new int[63];
+
+        for(int x = 0; x < infoSymbols; x++)
+        {
+            codeword[RS_PARITY_SYMBOLS + infoSymbols - 1 - x] = pdu.getInt(x * 6, x * 6 + 5);
+        }
+
+        mReedSolomon.encode(codeword);
+
+        int[] symbols = new int[infoSymbols + paritySymbols];
+
+        for(int x = 0; x < infoSymbols; x++)
+        {
+            symbols[x] = codeword[RS_PARITY_SYMBOLS + infoSymbols - 1 - x];
+        }
+
+        for(int x = 0; x < paritySymbols; x++)
+        {
+            symbols[infoSymbols + x] = codeword[RS_PARITY_SYMBOLS - 1 - x];
+        }
+
+        return symbols;
+    }
+
+    /**
+     * Loads the hexbits into the timeslot starting at bit 2, skipping the data unit ID bits and the bits from the
+     * skip start (inclusive) to the skip end (exclusive).
+     */
+    private static void loadSymbols(BinaryMessage timeslot, int[] symbols, int skipStart, int skipEnd)
+    {
+        int pointer = 2;
+
+        for(int symbol: symbols)
+        {
+            for(int bit = 5; bit >= 0; bit--)
+            {
+                while(isDataUnitID(pointer) || (skipStart <= pointer && pointer < skipEnd))
+                {
+                    pointer++;
+                }
+
+                if(((symbol >> bit) & 0x1) == 1)
+                {
+                    timeslot.set(pointer);
+                }
+
+                pointer++;
+            }
+        }
+    }
+
+    /**
+     * Indicates if the timeslot bit index is one of the data unit ID bits
+     */
+    private static boolean isDataUnitID(int index)
+    {
+        for(int duidIndex: DATA_UNIT_ID)
+        {
+            if(duidIndex == index)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Loads the 8-bit data unit ID with parity into the timeslot
+     */
+    private static void loadDataUnitID(BinaryMessage timeslot, DataUnitID dataUnitID)
+    {
+        int value = dataUnitID.getValueWithParity();
+
+        for(int x = 0; x < DATA_UNIT_ID.length; x++)
+        {
+            if(((value >> (7 - x)) & 0x1) == 1)
+            {
+                timeslot.set(DATA_UNIT_ID[x]);
+            }
+            else
+            {
+                timeslot.clear(DATA_UNIT_ID[x]);
+            }
+        }
+    }
+
+    /**
+     * Creates the Reed-Solomon encoded clear voice Encryption Synchronization Sequence: 16 information hexbits
+     * (algorithm, key ID and message indicator) and 28 parity hexbits in decoder symbol order.
+     */
+    private int[] createESS()
+    {
+        int[] codeword = new int[63];
+        codeword[RS_PARITY_SYMBOLS + ESS_INFO_SYMBOLS - 1] = ALGORITHM_UNENCRYPTED >> 2;
+        codeword[RS_PARITY_SYMBOLS + ESS_INFO_SYMBOLS - 2] = (ALGORITHM_UNENCRYPTED & 0x3) << 4;
+        mReedSolomon.encode(codeword);
+        return codeword;
+    }
+
+    /**
+     * Creates a scrambled 4V voice timeslot with four vocoder frames and ESS-B segment index (0 - 3).
+     */
+    private BinaryMessage createVoice4(int essIndex, int position)
+    {
+        BinaryMessage timeslot = new BinaryMessage(TIMESLOT_BIT_LENGTH);
+        loadVoiceFrames(timeslot, VOICE_4_FRAME_STARTS);
+
+        //ESS-B segment 1 carries information hexbits 0-3, segment 2 hexbits 4-7, etc.
+        for(int x = 0; x < 4; x++)
+        {
+            int symbol = mESS[RS_PARITY_SYMBOLS + ESS_INFO_SYMBOLS - 1 - (essIndex * 4) - x];
+            timeslot.load(ESS_B_START + x * 6, 6, symbol);
+        }
+
+        return scramble(timeslot, DataUnitID.VOICE_4, position);
+    }
+
+    /**
+     * Creates a scrambled 2V voice timeslot with two vocoder frames and the 28 ESS-A parity hexbits.
+     */
+    private BinaryMessage createVoice2(int position)
+    {
+        BinaryMessage timeslot = new BinaryMessage(TIMESLOT_BIT_LENGTH);
+        loadVoiceFrames(timeslot, VOICE_2_FRAME_STARTS);
+
+        for(int x = 0; x < RS_PARITY_SYMBOLS; x++)
+        {
+            int offset = x * 6;
+            int start = offset < ESS_A1_LENGTH ? ESS_A1_START + offset : ESS_A2_START + offset - ESS_A1_LENGTH;
+            timeslot.load(start, 6, mESS[RS_PARITY_SYMBOLS - 1 - x]);
+        }
+
+        return scramble(timeslot, DataUnitID.VOICE_2, position);
+    }
+
+    /**
+     * Fills the 72-bit vocoder frames from the pseudo-random sequence
+     */
+    private void loadVoiceFrames(BinaryMessage timeslot, int[] frameStarts)
+    {
+        for(int start: frameStarts)
+        {
+            for(int x = start; x < start + VOICE_FRAME_LENGTH; x++)
+            {
+                if(nextPseudoRandomBit())
+                {
+                    timeslot.set(x);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scrambles the timeslot with the sequence for the timeslot's location in the superframe and loads the
+     * (unscrambled) data unit ID.
+     */
+    private BinaryMessage scramble(BinaryMessage timeslot, DataUnitID dataUnitID, int position)
+    {
+        timeslot.xor(mScramblingSequence.getTimeslotSequence(mFragment * 4 + position));
+        loadDataUnitID(timeslot, dataUnitID);
+        return timeslot;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+/**
+ * Configuration for a single synthetic signal generated by the wideband synthesizer.
+ *
+ * Signals are defined at an absolute frequency so that they remain fixed in the simulated RF environment when the
+ * synthetic tuner is retuned.  Signal level is specified as a signal to noise ratio measured within a 12.5 kHz
+ * channel.  A duty cycle of 1.0 produces a continuous carrier, otherwise the signal is keyed for the duty cycle
+ * fraction of each key period.
+ */
+public class SignalConfiguration
+{
+    public static final long DEFAULT_KEY_PERIOD_MILLISECONDS = 10000;
+
+    private SignalType mSignalType;
+    private long mFrequency;
+    private double mSNR;
+    private double mDutyCycle = 1.0;
+    private long mKeyPeriod = DEFAULT_KEY_PERIOD_MILLISECONDS;
+    private long mKeyOffset;
+    private ISymbolScript mScript;
+    private String mLabel;
+
+    /**
+     * Constructs an instance
+     *
+     * @param signalType modulation and protocol
+     * @param frequency of the signal in hertz
+     * @param snr signal to noise ratio in dB within a 12.5 kHz channel
+     * @param script that produces the transmitted symbols
+     */
+    public SignalConfiguration(SignalType signalType, long frequency, double snr, ISymbolScript script)
+    {
+        mSignalType = signalType;
+        mFrequency = frequency;
+        mSNR = snr;
+        mScript = script;
+        mLabel = signalType.toString() + " " + frequency;
+    }
+
+    public SignalType getSignalType()
+    {
+        return mSignalType;
+    }
+
+    /**
+     * Signal frequency in hertz
+     */
+    public long getFrequency()
+    {
+        return mFrequency;
+    }
+
+    /**
+     * Signal to noise ratio in dB within a 12.5 kHz channel
+     */
+    public double getSNR()
+    {
+        return mSNR;
+    }
+
+    /**
+     * Fraction (0.0 - 1.0) of each key period that the signal is keyed
+     */
+    public double getDutyCycle()
+    {
+        return mDutyCycle;
+    }
+
+    /**
+     * Sets the keyed duty cycle for the signal
+     *
+     * @param dutyCycle 0.0 (never keyed) to 1.0 (continuous)
+     * @param keyPeriod duration of one key up/key down cycle in milliseconds
+     * @param keyOffset into the key period in milliseconds at startup, to stagger signals with the same key period
+     */
+    public void setDutyCycle(double dutyCycle, long keyPeriod, long keyOffset)
+    {
+        if(dutyCycle < 0.0 || dutyCycle > 1.0)
+        {
+            throw new IllegalArgumentException("Duty cycle must be in range 0.0 - 1.0");
+        }
+
+        if(keyPeriod <= 0)
+        {
+            throw new IllegalArgumentException("Key period must be greater than zero");
+        }
+
+        mDutyCycle = dutyCycle;
+        mKeyPeriod = keyPeriod;
+        mKeyOffset = keyOffset % keyPeriod;
+    }
+
+    /**
+     * Duration of one key up/key down cycle in milliseconds
+     */
+    public long getKeyPeriod()
+    {
+        return mKeyPeriod;
+    }
+
+    /**
+     * Starting offset into the key period in milliseconds
+     */
+    public long getKeyOffset()
+    {
+        return mKeyOffset;
+    }
+
+    /**
+     * Script that produces the transmitted symbols
+     */
+    public ISymbolScript getScript()
+    {
+        return mScript;
+    }
+
+    public String getLabel()
+    {
+        return mLabel;
+    }
+
+    public void setLabel(String label)
+    {
+        mLabel = label;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mLabel;
+    }
+}
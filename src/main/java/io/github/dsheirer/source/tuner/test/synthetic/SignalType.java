@@ -0,0 +1,53 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+/**
+ * Modulation and protocol types that can be generated by the synthetic wideband tuner.
+ */
+public enum SignalType
+{
+    P25_PHASE1_C4FM("P25 Phase 1 C4FM", 4800.0),
+    P25_PHASE2_HDQPSK("P25 Phase 2 H-DQPSK", 6000.0),
+    DMR("DMR", 4800.0),
+    NBFM_MDC1200("NBFM with MDC-1200", 1200.0);
+
+    private String mLabel;
+    private double mSymbolRate;
+
+    SignalType(String label, double symbolRate)
+    {
+        mLabel = label;
+        mSymbolRate = symbolRate;
+    }
+
+    /**
+     * Symbol rate of the digital signal, or the baud rate of the AFSK signalling for analog signal types.
+     */
+    public double getSymbolRate()
+    {
+        return mSymbolRate;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mLabel;
+    }
+}
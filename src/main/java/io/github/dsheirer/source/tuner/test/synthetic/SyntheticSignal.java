@@ -0,0 +1,262 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+import java.util.Arrays;
+
+/**
+ * Base synthetic narrowband signal.  Produces complex baseband samples at the narrowband sample rate of the wideband
+ * synthesizer, keying the symbol script according to the configured duty cycle and applying the signal amplitude and
+ * any residual frequency offset that remains after the synthesizer places the signal on the nearest FFT bin.
+ */
+public abstract class SyntheticSignal
+{
+    protected static final int PULSE_SPAN_SYMBOLS = 8;
+    protected static final int PULSE_RESOLUTION = 64;
+    private static final double RAISED_COSINE_ALPHA = 0.2;
+
+    private SignalConfiguration mConfiguration;
+    private ISymbolScript mScript;
+    private double mSampleRate;
+    private long mKeyPeriodSamples;
+    private long mKeyedSamples;
+    private long mKeyCounter;
+    private boolean mKeyed;
+    private float mAmplitude = 1.0f;
+    private double mOffsetFrequency;
+    private double mOffsetPhase;
+    private double mOffsetPhaseIncrement;
+
+    /**
+     * Constructs an instance
+     *
+     * @param configuration for the signal
+     * @param sampleRate of the narrowband output
+     */
+    public SyntheticSignal(SignalConfiguration configuration, double sampleRate)
+    {
+        mConfiguration = configuration;
+        mScript = configuration.getScript();
+        mSampleRate = sampleRate;
+        mKeyPeriodSamples = Math.max(1, (long)(configuration.getKeyPeriod() * sampleRate / 1000.0));
+        mKeyedSamples = (long)(mKeyPeriodSamples * configuration.getDutyCycle());
+        mKeyCounter = (long)(configuration.getKeyOffset() * sampleRate / 1000.0) % mKeyPeriodSamples;
+    }
+
+    /**
+     * Creates a synthetic signal for the configuration.
+     *
+     * @param configuration for the signal
+     * @param sampleRate of the narrowband output
+     * @return signal
+     */
+    public static SyntheticSignal create(SignalConfiguration configuration, double sampleRate)
+    {
+        switch(configuration.getSignalType())
+        {
+            case P25_PHASE1_C4FM:
+                return new FourLevelFSKSignal(configuration, sampleRate, FourLevelFSKSignal.C4FM_DEVIATION);
+            case DMR:
+                return new FourLevelFSKSignal(configuration, sampleRate, FourLevelFSKSignal.DMR_DEVIATION);
+            case P25_PHASE2_HDQPSK:
+                return new HDQPSKSignal(configuration, sampleRate);
+            case NBFM_MDC1200:
+                return new NBFMSignal(configuration, sampleRate);
+            default:
+                throw new IllegalArgumentException("Unrecognized signal type: " + configuration.getSignalType());
+        }
+    }
+
+    /**
+     * Produces the unit amplitude modulated signal for the script symbols into the interleaved complex sample array.
+     *
+     * @param samples array of interleaved complex samples
+     * @param offset to the first complex sample to produce
+     * @param length number of complex samples to produce
+     * @return number of complex samples produced before the script stopped transmitting
+     */
+    protected abstract int modulate(float[] samples, int offset, int length);
+
+    /**
+     * Resets modulator state at the start of each transmission.
+     */
+    protected abstract void reset();
+
+    public SignalConfiguration getConfiguration()
+    {
+        return mConfiguration;
+    }
+
+    protected ISymbolScript getScript()
+    {
+        return mScript;
+    }
+
+    /**
+     * Narrowband sample rate
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Sets the amplitude applied to the unit amplitude modulated signal.
+     */
+    public void setAmplitude(float amplitude)
+    {
+        mAmplitude = amplitude;
+    }
+
+    /**
+     * Sets the residual frequency offset that is mixed into the narrowband signal.
+     *
+     * @param frequency in hertz
+     */
+    public void setOffsetFrequency(double frequency)
+    {
+        if(frequency != mOffsetFrequency)
+        {
+            mOffsetFrequency = frequency;
+            mOffsetPhaseIncrement = 2.0 * Math.PI * frequency / mSampleRate;
+        }
+    }
+
+    /**
+     * Indicates if the signal is currently transmitting.
+     */
+    public boolean isTransmitting()
+    {
+        return mScript.isTransmitting();
+    }
+
+    /**
+     * Generates the next block of complex samples.
+     *
+     * @param samples array of interleaved complex samples to fill
+     * @param length number of complex samples to generate
+     * @return true if any of the generated samples are non-zero
+     */
+    public boolean generate(float[] samples, int length)
+    {
+        boolean active = false;
+        int pointer = 0;
+
+        while(pointer < length)
+        {
+            if(mKeyCounter == 0 && mKeyedSamples > 0 && !mScript.isTransmitting())
+            {
+                reset();
+                mScript.keyUp();
+                mKeyed = true;
+            }
+
+            if(mKeyed && mKeyCounter >= mKeyedSamples && mKeyedSamples < mKeyPeriodSamples)
+            {
+                mScript.keyDown();
+                mKeyed = false;
+            }
+
+            long boundary = mKeyCounter < mKeyedSamples ? mKeyedSamples : mKeyPeriodSamples;
+            int segment = (int)Math.min(length - pointer, boundary - mKeyCounter);
+
+            int produced = 0;
+
+            if(mScript.isTransmitting())
+            {
+                produced = modulate(samples, pointer, segment);
+                active = true;
+            }
+
+            Arrays.fill(samples, 2 * (pointer + produced), 2 * (pointer + segment), 0.0f);
+
+            pointer += segment;
+            mKeyCounter += segment;
+
+            if(mKeyCounter >= mKeyPeriodSamples)
+            {
+                mKeyCounter = 0;
+            }
+        }
+
+        if(active)
+        {
+            applyAmplitudeAndOffset(samples, length);
+        }
+
+        return active;
+    }
+
+    /**
+     * Applies the amplitude and residual frequency offset to the generated samples.
+     */
+    private void applyAmplitudeAndOffset(float[] samples, int length)
+    {
+        if(mOffsetPhaseIncrement == 0.0)
+        {
+            for(int x = 0; x < 2 * length; x++)
+            {
+                samples[x] *= mAmplitude;
+            }
+
+            return;
+        }
+
+        for(int x = 0; x < 2 * length; x += 2)
+        {
+            float cos = (float)(Math.cos(mOffsetPhase) * mAmplitude);
+            float sin = (float)(Math.sin(mOffsetPhase) * mAmplitude);
+            float i = samples[x];
+            float q = samples[x + 1];
+            samples[x] = (i * cos) - (q * sin);
+            samples[x + 1] = (i * sin) + (q * cos);
+
+            mOffsetPhase += mOffsetPhaseIncrement;
+        }
+
+        mOffsetPhase %= 2.0 * Math.PI;
+    }
+
+    /**
+     * Creates a raised cosine pulse shaping table spanning PULSE_SPAN_SYMBOLS symbols with PULSE_RESOLUTION entries
+     * per symbol.  Table index zero corresponds to a time of -PULSE_SPAN_SYMBOLS / 2 symbols from the pulse center.
+     */
+    protected static float[] getRaisedCosinePulse()
+    {
+        float[] pulse = new float[PULSE_SPAN_SYMBOLS * PULSE_RESOLUTION];
+
+        for(int x = 0; x < pulse.length; x++)
+        {
+            double t = ((double)x / PULSE_RESOLUTION) - (PULSE_SPAN_SYMBOLS / 2);
+            double sinc = t == 0.0 ? 1.0 : Math.sin(Math.PI * t) / (Math.PI * t);
+            double denominator = 1.0 - Math.pow(2.0 * RAISED_COSINE_ALPHA * t, 2.0);
+            double taper = Math.abs(denominator) < 1e-9 ? Math.PI / 4.0 :
+                Math.cos(Math.PI * RAISED_COSINE_ALPHA * t) / denominator;
+            pulse[x] = (float)(sinc * taper);
+        }
+
+        return pulse;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mConfiguration.toString();
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.test.synthetic;
+
+import org.jtransforms.fft.FloatFFT_1D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Wideband complex sample synthesizer that combines narrowband synthetic signals with white gaussian noise.
+ *
+ * Each signal is generated at a narrowband sample rate near 50 kHz that is an integer decimation (R) of the wideband
+ * sample rate.  The synthesizer uses FFT overlap-add synthesis: for each hop, every active signal's most recent block
+ * of L narrowband samples is Hann windowed (50% overlap) and transformed with an L-point FFT, and the bins are summed
+ * into an N = L * R point wideband spectrum at the FFT bin nearest to the signal's frequency offset from the tuner
+ * center frequency.  A single N-point inverse FFT then produces N / 2 new wideband samples per hop, independent of the
+ * number of signals.  Each signal mixes the residual (sub-bin) frequency offset into its narrowband samples.
+ *
+ * Noise is added from a precomputed gaussian noise table at a random offset for each hop.  Signal levels are set
+ * from each signal's configured SNR relative to the noise power within a 12.5 kHz channel.
+ */
+public class WidebandSynthesizer
+{
+    private final static Logger mLog = LoggerFactory.getLogger(WidebandSynthesizer.class);
+
+    public static final double TARGET_NARROWBAND_SAMPLE_RATE = 50000.0;
+    public static final double CHANNEL_BANDWIDTH = 12500.0;
+    public static final float DEFAULT_NOISE_LEVEL = 0.005f;
+    private static final int NARROWBAND_FFT_SIZE = 256;
+    private static final int NOISE_TABLE_SIZE = 1 << 18;
+
+    private List<SignalConfiguration> mSignalConfigurations = new ArrayList<>();
+    private List<SignalChannel> mSignalChannels = new ArrayList<>();
+    private double mSampleRate;
+    private int mDecimation;
+    private int mFFTSize;
+    private FloatFFT_1D mNarrowbandFFT = new FloatFFT_1D(NARROWBAND_FFT_SIZE);
+    private FloatFFT_1D mWidebandFFT;
+    private float[] mWindow = new float[NARROWBAND_FFT_SIZE];
+    private float[] mNarrowbandSamples = new float[NARROWBAND_FFT_SIZE];
+    private float[] mNarrowbandSpectrum = new float[2 * NARROWBAND_FFT_SIZE];
+    private float[] mSpectrum;
+    private float[] mOverlap;
+    private float[] mOutput;
+    private int mOutputPointer;
+    private float[] mNoise = new float[2 * NOISE_TABLE_SIZE];
+    private float mNoiseLevel;
+    private Random mRandom;
+    private long mCenterFrequency;
+    private long mHopCount;
+
+    /**
+     * Constructs an instance
+     *
+     * @param sampleRate of the wideband complex output
+     * @param centerFrequency of the wideband output
+     * @param noiseLevel RMS amplitude of the wideband complex noise
+     * @param seed for the noise generator
+     */
+    public WidebandSynthesizer(double sampleRate, long centerFrequency, float noiseLevel, long seed)
+    {
+        mCenterFrequency = centerFrequency;
+        mNoiseLevel = noiseLevel;
+        mRandom = new Random(seed);
+
+        //Complex noise with unity power
+        for(int x = 0; x < mNoise.length; x++)
+        {
+            mNoise[x] = (float)(mRandom.nextGaussian() * Math.sqrt(0.5));
+        }
+
+        //Periodic Hann window sums to unity at 50% overlap
+        for(int x = 0; x < NARROWBAND_FFT_SIZE / 2; x++)
+        {
+            mWindow[x] = (float)(0.5 - 0.5 * Math.cos(2.0 * Math.PI * x / NARROWBAND_FFT_SIZE));
+        }
+
+        setSampleRate(sampleRate);
+    }
+
+    /**
+     * Wideband sample rate
+     */
+    public synchronized double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Narrowband sample rate used to generate each signal
+     */
+    public synchronized double getNarrowbandSampleRate()
+    {
+        return mSampleRate / mDecimation;
+    }
+
+    /**
+     * Sets the wideband sample rate and recreates the synthesis structures and signals.
+     *
+     * @param sampleRate of the wideband complex output
+     */
+    public synchronized void setSampleRate(double sampleRate)
+    {
+        mSampleRate = sampleRate;
+        mDecimation = Math.max(1, (int)Math.round(sampleRate / TARGET_NARROWBAND_SAMPLE_RATE));
+        mFFTSize = NARROWBAND_FFT_SIZE * mDecimation;
+        mWidebandFFT = new FloatFFT_1D(mFFTSize);
+        mSpectrum = new float[2 * mFFTSize];
+        mOverlap = new float[mFFTSize];
+        mOutput = new float[mFFTSize];
+        mOutputPointer = mOutput.length;
+        mHopCount = 0;
+
+        mSignalChannels.clear();
+
+        for(SignalConfiguration configuration: mSignalConfigurations)
+        {
+            mSignalChannels.add(new SignalChannel(configuration));
+        }
+
+        mLog.info("Synthesizer sample rate [" + sampleRate + "] narrowband rate [" + getNarrowbandSampleRate() +
+            "] FFT size [" + mFFTSize + "] signals [" + mSignalChannels.size() + "]");
+    }
+
+    /**
+     * Wideband center frequency
+     */
+    public synchronized long getCenterFrequency()
+    {
+        return mCenterFrequency;
+    }
+
+    /**
+     * Sets the wideband center frequency and moves each signal to its offset relative to the new center frequency.
+     */
+    public synchronized void setCenterFrequency(long centerFrequency)
+    {
+        mCenterFrequency = centerFrequency;
+
+        for(SignalChannel signalChannel: mSignalChannels)
+        {
+            signalChannel.updatePlacement();
+        }
+    }
+
+    /**
+     * Adds a signal to the synthesizer
+     */
+    public synchronized void addSignal(SignalConfiguration configuration)
+    {
+        mSignalConfigurations.add(configuration);
+        mSignalChannels.add(new SignalChannel(configuration));
+    }
+
+    /**
+     * Removes all signals from the synthesizer
+     */
+    public synchronized void clearSignals()
+    {
+        mSignalConfigurations.clear();
+        mSignalChannels.clear();
+    }
+
+    /**
+     * Current signal configurations
+     */
+    public synchronized List<SignalConfiguration> getSignalConfigurations()
+    {
+        return new ArrayList<>(mSignalConfigurations);
+    }
+
+    /**
+     * Fills the array with interleaved wideband complex samples.
+     *
+     * @param samples array with a length of twice the number of complex samples to generate
+     */
+    public synchronized void generate(float[] samples)
+    {
+        int pointer = 0;
+
+        while(pointer < samples.length)
+        {
+            if(mOutputPointer >= mOutput.length)
+            {
+                synthesize();
+                mOutputPointer = 0;
+            }
+
+            int count = Math.min(samples.length - pointer, mOutput.length - mOutputPointer);
+            System.arraycopy(mOutput, mOutputPointer, samples, pointer, count);
+            mOutputPointer += count;
+            pointer += count;
+        }
+    }
+
+    /**
+     * Synthesizes the next hop of N / 2 wideband complex samples into the output buffer.
+     */
+    private void synthesize()
+    {
+        Arrays.fill(mSpectrum, 0.0f);
+
+        boolean active = false;
+
+        for(SignalChannel signalChannel: mSignalChannels)
+        {
+            active |= signalChannel.synthesize();
+        }
+
+        if(active)
+        {
+            //Scaled inverse FFT (1 / N)
+            mWidebandFFT.complexInverse(mSpectrum, true);
+
+            for(int x = 0; x < mFFTSize; x++)
+            {
+                mOutput[x] = mSpectrum[x] + mOverlap[x];
+            }
+
+            System.arraycopy(mSpectrum, mFFTSize, mOverlap, 0, mFFTSize);
+        }
+        else
+        {
+            System.arraycopy(mOverlap, 0, mOutput, 0, mFFTSize);
+            Arrays.fill(mOverlap, 0.0f);
+        }
+
+        if(mNoiseLevel > 0.0f)
+        {
+            int noiseOffset = 2 * mRandom.nextInt(NOISE_TABLE_SIZE);
+
+            for(int x = 0; x < mFFTSize; x++)
+            {
+                mOutput[x] += mNoise[noiseOffset++] * mNoiseLevel;
+
+                if(noiseOffset >= mNoise.length)
+                {
+                    noiseOffset = 0;
+                }
+            }
+        }
+
+        mHopCount++;
+    }
+
+    /**
+     * Synthesis state for a single signal
+     */
+    public class SignalChannel
+    {
+        private SyntheticSignal mSignal;
+        private float[] mHistory = new float[2 * NARROWBAND_FFT_SIZE];
+        private int mBin;
+        private boolean mInBand;
+        private boolean mPreviousActive;
+
+        /**
+         * Constructs an instance
+         *
+         * @param configuration for the signal
+         */
+        public SignalChannel(SignalConfiguration configuration)
+        {
+            mSignal = SyntheticSignal.create(configuration, getNarrowbandSampleRate());
+
+            //Signal amplitude from the noise power within a channel bandwidth and the SNR
+            double channelNoisePower = mNoiseLevel * mNoiseLevel * CHANNEL_BANDWIDTH / mSampleRate;
+            double signalPower = channelNoisePower * Math.pow(10.0, configuration.getSNR() / 10.0);
+            mSignal.setAmplitude((float)Math.sqrt(signalPower));
+
+            updatePlacement();
+        }
+
+        /**
+         * Updates the wideband FFT bin and residual frequency offset for the signal relative to the center frequency.
+         */
+        public void updatePlacement()
+        {
+            double offset = mSignal.getConfiguration().getFrequency() - mCenterFrequency;
+            double binSpacing = mSampleRate / mFFTSize;
+            mBin = (int)Math.round(offset / binSpacing);
+            mSignal.setOffsetFrequency(offset - (mBin * binSpacing));
+            mInBand = Math.abs(offset) + CHANNEL_BANDWIDTH < mSampleRate / 2.0;
+        }
+
+        /**
+         * Generates the next half-block of narrowband samples and, when active, sums the windowed narrowband spectrum
+         * into the wideband spectrum.
+         *
+         * @return true if the signal contributed to the wideband spectrum
+         */
+        public boolean synthesize()
+        {
+            int half = NARROWBAND_FFT_SIZE;
+
+            System.arraycopy(mHistory, half, mHistory, 0, half);
+            boolean active = mSignal.generate(mNarrowbandSamples, NARROWBAND_FFT_SIZE / 2);
+            System.arraycopy(mNarrowbandSamples, 0, mHistory, half, half);
+
+            boolean contribute = mInBand && (active || mPreviousActive);
+            mPreviousActive = active;
+
+            if(!contribute)
+            {
+                return false;
+            }
+
+            //Hann window with wideband interpolation gain (R) to offset the 1 / N inverse FFT scaling
+            for(int x = 0; x < NARROWBAND_FFT_SIZE; x++)
+            {
+                float gain = (x < NARROWBAND_FFT_SIZE / 2 ? mWindow[x] : 1.0f - mWindow[x - NARROWBAND_FFT_SIZE / 2]) *
+                    mDecimation;
+                mNarrowbandSpectrum[2 * x] = mHistory[2 * x] * gain;
+                mNarrowbandSpectrum[2 * x + 1] = mHistory[2 * x + 1] * gain;
+            }
+
+            mNarrowbandFFT.complexForward(mNarrowbandSpectrum);
+
+            //Block phase continuity for the bin shift: exp(j * PI * bin * hop) alternates sign for odd bins
+            float sign = ((mBin & 0x1) == 1 && (mHopCount & 0x1) == 1) ? -1.0f : 1.0f;
+
+            for(int x = 0; x < NARROWBAND_FFT_SIZE; x++)
+            {
+                int bin = mBin + (x < NARROWBAND_FFT_SIZE / 2 ? x : x - NARROWBAND_FFT_SIZE);
+                bin = ((bin % mFFTSize) + mFFTSize) % mFFTSize;
+                mSpectrum[2 * bin] += mNarrowbandSpectrum[2 * x] * sign;
+                mSpectrum[2 * bin + 1] += mNarrowbandSpectrum[2 * x + 1] * sign;
+            }
+
+            return true;
+        }
+    }
+}
@@ -21,43 +21,39 @@
  */
 package io.github.dsheirer.source.wave;
 
-import io.github.dsheirer.sample.ConversionUtils;
-import io.github.dsheirer.sample.Listener;
-import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
-import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
-import io.github.dsheirer.source.ComplexSource;
-import io.github.dsheirer.source.IControllableFileSource;
-import io.github.dsheirer.source.IFrameLocationListener;
-import io.github.dsheirer.source.SourceEvent;
-import io.github.dsheirer.util.ThreadPool;
-import org.apache.commons.math3.util.FastMath;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
+import io.github.dsheirer.source.AbstractComplexFileSource;
+
 import javax.sound.sampled.UnsupportedAudioFileException;
 import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-
-public class ComplexWaveSource extends ComplexSource implements IControllableFileSource, AutoCloseable
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Complex (I/Q) baseband wave file source.  Reads 16-bit stereo wave files through memory-mapped file channel windows
+ * and converts the samples in bulk directly into reusable complex buffers.  Supports constant time seeking by frame or
+ * by timestamp and replay at real time, at a multiple of real time, or unthrottled.
+ *
+ * Buffer timestamps are derived from the start timestamp plus the offset of the first frame in the buffer, so that
+ * buffers carry the recording time when replaying faster than real time.  The start timestamp defaults to the time
+ * the file is opened and can be set to the actual recording start time.
+ */
+public class ComplexWaveSource extends AbstractComplexFileSource
 {
-    private final static Logger mLog = LoggerFactory.getLogger(ComplexWaveSource.class);
-
-    private IFrameLocationListener mFrameLocationListener;
-    private int mBytesPerFrame;
-    private int mFrameCounter = 0;
-    private long mFrequency = 0;
-    private Listener<ReusableComplexBuffer> mListener;
-    private AudioInputStream mInputStream;
-    private File mFile;
-    private ReusableComplexBufferQueue mReusableComplexBufferQueue = new ReusableComplexBufferQueue("ComplexWaveSource");
-    private boolean mAutoReplay;
-    private ScheduledFuture<?> mReplayController;
+    private static final long MAPPED_WINDOW_SIZE = 64l * 1024l * 1024l;
+    private static final float SAMPLE_SCALOR = 1.0f / (float)Short.MAX_VALUE;
+
+    private FileChannel mFileChannel;
+    private WaveHeader mHeader;
+    private long mFrameCount;
+    private ShortBuffer mWindow;
+    private long mWindowStartFrame;
+    private long mWindowFrameCount;
+    private short[] mConversionBuffer = new short[0];
+    private long mStartTimestamp;
 
     /**
      * Constructs an instance with optional auto-replay at near real time.
@@ -66,7 +62,9 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
      */
     public ComplexWaveSource(File file, boolean autoReplay) throws IOException
     {
-        if(file == null || !file.exists() || !supports(file))
+        super(file, autoReplay);
+
+        if(file == null || !file.exists())
         {
             throw new IOException("Empty or null file");
         }
@@ -75,9 +73,6 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
         {
             throw new IOException("Unsupported file format");
         }
-
-        mFile = file;
-        mAutoReplay = autoReplay;
     }
 
     public ComplexWaveSource(File file) throws IOException
@@ -86,248 +81,188 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
     }
 
     @Override
-    public void setSourceEventListener(Listener<SourceEvent> listener)
-    {
-        //Not implemented
-    }
-
-    @Override
-    public void removeSourceEventListener()
-    {
-        //Not implemented
-    }
-
-    @Override
-    public Listener<SourceEvent> getSourceEventListener()
-    {
-        //Not implemented
-        return null;
-    }
-
-    @Override
-    public void reset()
+    protected boolean isOpen()
     {
-        stop();
-        mFrameCounter = 0;
-        start();
+        return mFileChannel != null;
     }
 
     /**
-     * Number of samples per buffer
+     * Total number of sample frames in the file, or 0 if the file is not open
      */
-    public int getBufferSampleCount()
-    {
-        return (int)(getSampleRate() / 20.0d);
-    }
-
-    @Override
-    public void start()
-    {
-        if(mInputStream == null)
-        {
-            try
-            {
-                open();
-            }
-            catch(Exception e)
-            {
-                mLog.error("Error", e);
-            }
-        }
-
-        if(mAutoReplay)
-        {
-            long intervalMilliseconds = 50; //20 intervals per second
-            double framesPerInterval = getSampleRate() / 20.0d;
-            mReplayController = ThreadPool.SCHEDULED.scheduleAtFixedRate(new ReplayController(framesPerInterval),
-                    0, intervalMilliseconds, TimeUnit.MILLISECONDS);
-
-
-        }
-    }
-
-    @Override
-    public void stop()
-    {
-        try
-        {
-            if(mReplayController != null)
-            {
-                mReplayController.cancel(true);
-            }
-
-            close();
-        }
-        catch(IOException e)
-        {
-            mLog.error("Error stopping complex wave source");
-        }
-    }
-
     @Override
     public long getFrameCount() throws IOException
     {
-        // TODO Auto-generated method stub
-        return 0;
+        return mFrameCount;
     }
 
     @Override
     public double getSampleRate()
     {
-        if(mInputStream != null)
+        if(mHeader != null)
         {
-            return mInputStream.getFormat().getSampleRate();
+            return mHeader.getSampleRate();
         }
 
         return 0;
     }
 
     /**
-     * Returns the frequency set for this file.  Normally returns zero, but
-     * the value can be set with setFrequency() method.
+     * Timestamp of the first frame in the file in milliseconds.
      */
-    public long getFrequency()
+    @Override
+    public long getStartTimestamp()
     {
-        return mFrequency;
+        return mStartTimestamp;
     }
 
     /**
-     * Changes the value returned from getFrequency() for this source.
+     * Sets the timestamp of the first frame in the file, for example the recording start time.  Buffer timestamps and
+     * seek timestamps are relative to this value.
+     * @param startTimestamp in milliseconds
      */
-    public void setFrequency(long frequency)
+    public void setStartTimestamp(long startTimestamp)
     {
-        mFrequency = frequency;
+        mStartTimestamp = startTimestamp;
+    }
+
+    @Override
+    protected long getTimestamp(long frame)
+    {
+        return mStartTimestamp + (long)(frame * 1000.0 / getSampleRate());
+    }
+
+    @Override
+    protected long getFrame(long timestamp)
+    {
+        return Math.round((timestamp - mStartTimestamp) * getSampleRate() / 1000.0);
     }
 
     /**
      * Closes the source file
      */
-    public void close() throws IOException
+    @Override
+    public synchronized void close() throws IOException
     {
-        if(mInputStream != null)
+        mWindow = null;
+        mFrameCount = 0;
+        setFrameLocation(0);
+
+        if(mFileChannel != null)
         {
-            mInputStream.close();
-            mInputStream = null;
+            mFileChannel.close();
+            mFileChannel = null;
         }
     }
 
     /**
      * Opens the source file for reading
      */
-    public void open() throws IOException, UnsupportedAudioFileException
+    @Override
+    public synchronized void open() throws IOException, UnsupportedAudioFileException
     {
-        if(mInputStream == null)
+        if(mFileChannel == null)
         {
-            mInputStream = AudioSystem.getAudioInputStream(mFile);
+            FileChannel fileChannel = FileChannel.open(getFile().toPath(), StandardOpenOption.READ);
 
-            AudioFormat format = mInputStream.getFormat();
+            try
+            {
+                WaveHeader header = WaveHeader.read(fileChannel);
 
-            mBytesPerFrame = format.getFrameSize();
+                if(header.getChannels() != 2 || header.getBitsPerSample() != 16)
+                {
+                    throw new IOException("Unsupported Wave Format - EXPECTED: 2 channels 16-bit samples FOUND: " +
+                        header.getChannels() + " channels " + header.getBitsPerSample() + "-bit samples");
+                }
 
-            if(format.getChannels() != 2 || format.getSampleSizeInBits() != 16)
+                mHeader = header;
+            }
+            catch(IOException | UnsupportedAudioFileException e)
             {
-                throw new IOException("Unsupported Wave Format - EXPECTED: 2 " +
-                        "channels 16-bit samples FOUND: " +
-                        mInputStream.getFormat().getChannels() + " channels " +
-                        mInputStream.getFormat().getSampleSizeInBits() + "-bit samples");
+                fileChannel.close();
+                throw e;
+            }
+
+            mFileChannel = fileChannel;
+            mFrameCount = mHeader.getDataSize() / mHeader.getBlockAlign();
+            mWindow = null;
+
+            if(mStartTimestamp == 0)
+            {
+                mStartTimestamp = System.currentTimeMillis();
             }
 
             /* Broadcast that we're at frame location 0 */
-            broadcast(0);
+            seekFrame(0);
         }
     }
 
     /**
-     * Reads the number of frames and sends a buffer to the listener
+     * Reads and converts the 16-bit I/Q sample frames from the mapped file windows into the samples array.
+     *
+     * @param samples array to fill with interleaved I/Q float samples
+     * @param frame starting frame location
+     * @param frames count to read
      */
     @Override
-    public void next(int frames) throws IOException
+    protected void read(float[] samples, long frame, int frames) throws IOException
     {
-        next(frames, true);
-    }
+        int offset = 0;
 
-    /**
-     * Reads the number of frames and optionally sends the buffer(s) to the listener
-     */
-    public void next(int frames, boolean broadcast) throws IOException
-    {
-        if(mInputStream != null)
+        while(frames > 0)
         {
-            byte[] buffer = new byte[mBytesPerFrame * frames];
-
-        	/* Fill the buffer with samples from the file */
-            int samplesRead = mInputStream.read(buffer);
+            ShortBuffer window = getWindow(frame);
+            int count = (int)Math.min(frames, mWindowStartFrame + mWindowFrameCount - frame);
+            int length = count * 2;
 
-            mFrameCounter += samplesRead;
-
-            broadcast(mFrameCounter);
-
-            if(broadcast && mListener != null)
+            if(mConversionBuffer.length < length)
             {
-                if(samplesRead < 0)
-                {
-                    throw new IOException("End of file reached");
-                }
-
-                if(samplesRead < buffer.length)
-                {
-                    buffer = Arrays.copyOf(buffer, samplesRead);
-                }
+                mConversionBuffer = new short[length];
+            }
 
-                float[] samples = ConversionUtils.convertFromSigned16BitSamples(buffer);
+            window.position((int)(frame - mWindowStartFrame) * 2);
+            window.get(mConversionBuffer, 0, length);
 
-                ReusableComplexBuffer reusableBuffer = mReusableComplexBufferQueue.getBuffer(samples.length);
-                System.arraycopy(samples, 0, reusableBuffer.getSamples(), 0, samples.length);
-                reusableBuffer.setTimestamp(System.currentTimeMillis());
-                mListener.receive(reusableBuffer);
+            for(int x = 0; x < length; x++)
+            {
+                samples[offset + x] = mConversionBuffer[x] * SAMPLE_SCALOR;
             }
-        }
-    }
 
-    /**
-     * Registers the listener to receive sample buffers as they are read from
-     * the wave file
-     */
-    @Override
-    public void setListener(Listener<ReusableComplexBuffer> listener)
-    {
-        mListener = listener;
+            offset += length;
+            frame += count;
+            frames -= count;
+        }
     }
 
     /**
-     * Unregisters the listener from receiving sample buffers
+     * Provides a mapped file window that contains the frame, mapping a new window as needed.
      */
-    public void removeListener(Listener<ReusableComplexBuffer> listener)
-    {
-        mListener = null;
-    }
-
-    @Override
-    public File getFile()
-    {
-        return mFile;
-    }
-
-    private void broadcast(int byteLocation)
+    private ShortBuffer getWindow(long frame) throws IOException
     {
-        int frameLocation = (int)(byteLocation / mBytesPerFrame);
-
-        if(mFrameLocationListener != null)
+        if(mWindow == null || frame < mWindowStartFrame || frame >= mWindowStartFrame + mWindowFrameCount)
         {
-            mFrameLocationListener.frameLocationUpdated(frameLocation);
+            int blockAlign = mHeader.getBlockAlign();
+            long framesPerWindow = MAPPED_WINDOW_SIZE / blockAlign;
+            long windowFrameCount = Math.min(framesPerWindow, mFrameCount - frame);
+            long position = mHeader.getDataOffset() + (frame * blockAlign);
+
+            ByteBuffer mapped = mFileChannel.map(FileChannel.MapMode.READ_ONLY, position, windowFrameCount * blockAlign);
+            mWindow = mapped.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+            mWindowStartFrame = frame;
+            mWindowFrameCount = windowFrameCount;
         }
-    }
 
-    @Override
-    public void setListener(IFrameLocationListener listener)
-    {
-        mFrameLocationListener = listener;
+        return mWindow;
     }
 
+    /**
+     * Moves the read location back to the start of the file for continuous auto-replay and advances the start
+     * timestamp by the duration of the recording so that buffer timestamps continue to increase.
+     */
     @Override
-    public void removeListener(IFrameLocationListener listener)
+    protected synchronized void rewind()
     {
-        mFrameLocationListener = null;
+        mStartTimestamp = getTimestamp(mFrameCount);
+        super.rewind();
     }
 
     /**
@@ -335,11 +270,11 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
      */
     public static boolean supports(File file)
     {
-        try(AudioInputStream ais = AudioSystem.getAudioInputStream(file))
+        try(FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
         {
-            AudioFormat format = ais.getFormat();
+            WaveHeader header = WaveHeader.read(fileChannel);
 
-            if(format.getChannels() == 2 && format.getSampleSizeInBits() == 16)
+            if(header.getChannels() == 2 && header.getBitsPerSample() == 16)
             {
                 return true;
             }
@@ -351,34 +286,4 @@ public class ComplexWaveSource extends ComplexSource implements IControllableFil
 
         return false;
     }
-
-    public class ReplayController implements Runnable
-    {
-        private double mFramesPerInterval;
-        private int mFramesRead;
-        private int mIntervals;
-
-        public ReplayController(double framesPerInterval)
-        {
-            mFramesPerInterval = framesPerInterval;
-        }
-
-        @Override
-        public void run()
-        {
-            mIntervals++;
-            int framesToRead = (int) FastMath.floor((mIntervals * mFramesPerInterval) - mFramesRead);
-
-            try
-            {
-                next(framesToRead, true);
-                mFramesRead += framesToRead;
-            }
-            catch(IOException ioe)
-            {
-                mLog.debug("End of Recording - looping [" + ioe.getLocalizedMessage() + "]");
-                reset();
-            }
-        }
-    }
 }
@@ -0,0 +1,203 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.source.wave;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * PCM wave file header parser.  Locates the format and data chunks of a RIFF/WAVE file so that the sample data can
+ * be accessed directly through a file channel.
+ *
+ * Files larger than the 32-bit RIFF size limit, or files that were not closed cleanly, can carry an invalid data chunk
+ * size.  In that case the data chunk is assumed to extend to the end of the file.
+ */
+public class WaveHeader
+{
+    private static final String RIFF_ID = "RIFF";
+    private static final String RF64_ID = "RF64";
+    private static final String WAVE_ID = "WAVE";
+    private static final String FORMAT_CHUNK_ID = "fmt ";
+    private static final String DATA_CHUNK_ID = "data";
+    private static final int CHUNK_HEADER_SIZE = 8;
+
+    private int mChannels;
+    private int mSampleRate;
+    private int mBlockAlign;
+    private int mBitsPerSample;
+    private long mDataOffset;
+    private long mDataSize;
+
+    private WaveHeader()
+    {
+    }
+
+    /**
+     * Number of interleaved channels per sample frame
+     */
+    public int getChannels()
+    {
+        return mChannels;
+    }
+
+    /**
+     * Sample frames per second
+     */
+    public int getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Bytes per sample frame
+     */
+    public int getBlockAlign()
+    {
+        return mBlockAlign;
+    }
+
+    /**
+     * Bits per sample
+     */
+    public int getBitsPerSample()
+    {
+        return mBitsPerSample;
+    }
+
+    /**
+     * Byte offset of the first sample in the file
+     */
+    public long getDataOffset()
+    {
+        return mDataOffset;
+    }
+
+    /**
+     * Size of the sample data in bytes
+     */
+    public long getDataSize()
+    {
+        return mDataSize;
+    }
+
+    /**
+     * Reads the wave header from the file channel.
+     *
+     * @param fileChannel to read
+     * @return parsed header
+     * @throws UnsupportedAudioFileException if the file is not a RIFF/WAVE file
+     * @throws IOException if the format or data chunks are missing or there is an error reading the file
+     */
+    public static WaveHeader read(FileChannel fileChannel) throws IOException, UnsupportedAudioFileException
+    {
+        long fileSize = fileChannel.size();
+
+        ByteBuffer riff = read(fileChannel, 0, 12);
+        String riffId = getId(riff, 0);
+
+        if(!(RIFF_ID.equals(riffId) || RF64_ID.equals(riffId)) || !WAVE_ID.equals(getId(riff, 8)))
+        {
+            throw new UnsupportedAudioFileException("File is not a RIFF/WAVE file");
+        }
+
+        WaveHeader header = new WaveHeader();
+        boolean hasFormat = false;
+        long position = 12;
+
+        while(position + CHUNK_HEADER_SIZE <= fileSize)
+        {
+            ByteBuffer chunkHeader = read(fileChannel, position, CHUNK_HEADER_SIZE);
+            String chunkId = getId(chunkHeader, 0);
+            long chunkSize = Integer.toUnsignedLong(chunkHeader.getInt(4));
+
+            if(FORMAT_CHUNK_ID.equals(chunkId))
+            {
+                ByteBuffer format = read(fileChannel, position + CHUNK_HEADER_SIZE, 16);
+                header.mChannels = format.getShort(2);
+                header.mSampleRate = format.getInt(4);
+                header.mBlockAlign = format.getShort(12);
+                header.mBitsPerSample = format.getShort(14);
+                hasFormat = true;
+            }
+            else if(DATA_CHUNK_ID.equals(chunkId))
+            {
+                if(!hasFormat || header.mBlockAlign <= 0)
+                {
+                    throw new IOException("Wave file data chunk precedes a valid format chunk");
+                }
+
+                header.mDataOffset = position + CHUNK_HEADER_SIZE;
+                long available = fileSize - header.mDataOffset;
+
+                if(chunkSize == 0 || chunkSize == 0xFFFFFFFFl || chunkSize > available)
+                {
+                    chunkSize = available;
+                }
+
+                header.mDataSize = chunkSize - (chunkSize % header.mBlockAlign);
+                return header;
+            }
+
+            //Chunks are padded to an even number of bytes
+            position += CHUNK_HEADER_SIZE + chunkSize + (chunkSize & 1);
+        }
+
+        throw new IOException("Wave file does not contain a data chunk");
+    }
+
+    /**
+     * Reads the number of bytes from the file channel at the position into a little-endian buffer
+     */
+    private static ByteBuffer read(FileChannel fileChannel, long position, int length) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        while(buffer.hasRemaining())
+        {
+            if(fileChannel.read(buffer, position + buffer.position()) < 0)
+            {
+                throw new EOFException("Unexpected end of wave file header");
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Four character chunk identifier at the offset
+     */
+    private static String getId(ByteBuffer buffer, int offset)
+    {
+        byte[] id = new byte[4];
+
+        for(int x = 0; x < 4; x++)
+        {
+            id[x] = buffer.get(offset + x);
+        }
+
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+}
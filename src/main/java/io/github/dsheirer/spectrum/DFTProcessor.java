@@ -35,15 +35,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Iterator;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Processes both complex samples or float samples and dispatches a float array of DFT results, using configurable fft
  * size and output dispatch timelines.
+ *
+ * The processor is demand-driven: sample buffers are only accepted while the processor is running and has at least
+ * one registered converter.  When the incoming sample rate exceeds the rate required for the DFT size and frame rate,
+ * whole buffers are discarded on arrival once enough samples are queued for the next frame, instead of queueing every
+ * buffer and flushing the excess samples later.  In reduced resolution mode, spectra derived from the polyphase
+ * channelizer outputs are dispatched in place of calculating a DFT whenever they are available.
  */
 public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEventProcessor, IDFTWidthChangeProcessor
 {
@@ -51,6 +58,8 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
     private static final int BUFFER_QUEUE_MAX_SIZE = 20;
     private static final int BUFFER_QUEUE_OVERFLOW_RESET_THRESHOLD = 6;
     private static final String FRAME_RATE_PROPERTY = "spectral.display.frame.rate";
+    private static final String REDUCED_RESOLUTION_PROPERTY = "spectral.display.reduced.resolution";
+    private static final long CHANNELIZER_SPECTRUM_TIMEOUT_MS = 1000;
 
     //The Cosine and Hann windows seem to offer the best spectral display with minimal bin leakage/smearing
     private WindowType mWindowType = WindowType.HANN;
@@ -71,10 +80,32 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
         BUFFER_QUEUE_OVERFLOW_RESET_THRESHOLD, mDFTSize.getSize());
     private float[] mPreviousSamples;
 
+    //Input decimation - samples still needed for the next frame when discarding surplus buffers on arrival
+    private volatile boolean mDecimating;
+    private AtomicInteger mRequestedSampleCount = new AtomicInteger();
+
+    //Reduced resolution spectra from the polyphase channelizer
+    private boolean mReducedResolution;
+    private boolean mUsingChannelizerSpectrum;
+    private volatile float[] mChannelizerSpectrum;
+    private volatile long mChannelizerSpectrumTimestamp;
+    private Listener<float[]> mChannelizerSpectrumListener = spectrum -> {
+        mChannelizerSpectrum = spectrum;
+        mChannelizerSpectrumTimestamp = System.currentTimeMillis();
+    };
+
+    //Processing statistics
+    private AtomicLong mReceivedBufferCount = new AtomicLong();
+    private AtomicLong mDiscardedBufferCount = new AtomicLong();
+    private long mCalculationCount;
+    private long mCalculationNanos;
+    private long mChannelizerSpectrumCount;
+
     public DFTProcessor(SampleType sampleType)
     {
         setSampleType(sampleType);
         mFrameRate = SystemProperties.getInstance().get(FRAME_RATE_PROPERTY, 20);
+        mReducedResolution = SystemProperties.getInstance().get(REDUCED_RESOLUTION_PROPERTY, false);
         calculateConsumptionRate();
         start();
     }
@@ -167,10 +198,39 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
         restart();
     }
 
+    /**
+     * Indicates if reduced resolution spectra from the polyphase channelizer are used in place of calculating a DFT,
+     * when they are available.
+     */
+    public boolean isReducedResolution()
+    {
+        return mReducedResolution;
+    }
+
+    /**
+     * Sets reduced resolution mode where spectra produced from the polyphase channelizer outputs are dispatched
+     * instead of calculating a DFT from the sample buffers, whenever the channelizer spectra are available.
+     */
+    public void setReducedResolution(boolean reducedResolution)
+    {
+        mReducedResolution = reducedResolution;
+        SystemProperties.getInstance().set(REDUCED_RESOLUTION_PROPERTY, reducedResolution);
+    }
+
+    /**
+     * Listener to receive reduced resolution spectra from a polyphase channelizer.
+     */
+    public Listener<float[]> getChannelizerSpectrumListener()
+    {
+        return mChannelizerSpectrumListener;
+    }
+
     public void start()
     {
         if(mProcessorTaskHandle == null)
         {
+            mRequestedSampleCount.set(mFrameSize);
+
             //Schedule the DFT to run calculations at a fixed rate
             int initialDelay = 0;
             int period = (int) (1000 / mFrameRate);
@@ -187,7 +247,30 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
         {
             mProcessorTaskHandle.cancel(true);
             mProcessorTaskHandle = null;
+
+            logStatistics();
+        }
+    }
+
+    /**
+     * Logs the buffer and calculation statistics since the last time the statistics were logged.
+     */
+    private void logStatistics()
+    {
+        long received = mReceivedBufferCount.getAndSet(0);
+        long discarded = mDiscardedBufferCount.getAndSet(0);
+
+        if(received > 0)
+        {
+            mLog.debug("DFT processor stopped - buffers received [" + received + "] discarded before processing [" +
+                (discarded * 100 / received) + "%] DFT frames calculated [" + mCalculationCount + "] average DFT time [" +
+                (mCalculationCount > 0 ? mCalculationNanos / mCalculationCount / 1000 : 0) +
+                " us] channelizer spectra dispatched [" + mChannelizerSpectrumCount + "]");
         }
+
+        mCalculationCount = 0;
+        mCalculationNanos = 0;
+        mChannelizerSpectrumCount = 0;
     }
 
     public boolean isRunning()
@@ -202,14 +285,60 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
     }
 
     /**
-     * Places the sample into a transfer queue for future processing.
+     * Places the sample into a transfer queue for future processing.  The buffer is discarded when there are no
+     * converters, the processor is not running, channelizer spectra are being used, or when decimating and the
+     * queue already holds enough samples for the next frame.
      */
     @Override
     public void receive(ReusableComplexBuffer sampleBuffer)
     {
+        mReceivedBufferCount.incrementAndGet();
+
+        if(mListeners.isEmpty() || !isRunning() || isChannelizerSpectrumAvailable() ||
+            (mDecimating && mRequestedSampleCount.get() <= 0))
+        {
+            mDiscardedBufferCount.incrementAndGet();
+            sampleBuffer.decrementUserCount();
+            return;
+        }
+
+        if(mDecimating)
+        {
+            mRequestedSampleCount.addAndGet(-sampleBuffer.getSamples().length);
+        }
+
         mOverflowableBufferStream.offer(sampleBuffer);
     }
 
+    /**
+     * Indicates if reduced resolution mode is enabled and a recent channelizer spectrum is available
+     */
+    private boolean isChannelizerSpectrumAvailable()
+    {
+        return mReducedResolution && mSampleType == SampleType.COMPLEX && mChannelizerSpectrum != null &&
+            (System.currentTimeMillis() - mChannelizerSpectrumTimestamp) < CHANNELIZER_SPECTRUM_TIMEOUT_MS;
+    }
+
+    /**
+     * Expands the channelizer spectrum (one bin per polyphase channel) to the current DFT size by assigning each DFT
+     * bin the value of the polyphase channel that contains the bin's frequency, scaled to the DFT size.
+     */
+    private float[] getChannelizerResults(float[] spectrum)
+    {
+        int size = mDFTSize.getSize();
+        int channels = spectrum.length / 2;
+        float scale = (float)size / (float)channels;
+        float[] results = new float[size * 2];
+
+        for(int x = 0; x < size; x++)
+        {
+            int channel = (int)Math.round((double)x * channels / size) % channels;
+            results[2 * x] = spectrum[2 * channel] * scale;
+        }
+
+        return results;
+    }
+
     private void calculate()
     {
         //We always send the previous calculated samples - this should improve the screen rendering since the frame
@@ -217,9 +346,37 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
         //the screen rendering.
         dispatch(mPreviousSamples);
 
+        if(isChannelizerSpectrumAvailable())
+        {
+            if(!mUsingChannelizerSpectrum)
+            {
+                mUsingChannelizerSpectrum = true;
+                mOverflowableBufferStream.clear();
+            }
+
+            mPreviousSamples = getChannelizerResults(mChannelizerSpectrum);
+            mChannelizerSpectrumCount++;
+            return;
+        }
+        else if(mUsingChannelizerSpectrum)
+        {
+            mUsingChannelizerSpectrum = false;
+            mRequestedSampleCount.set(mFrameSize);
+        }
+
+        boolean calculated = false;
+
         try
         {
-            if(mFrameFlushCount > 0)
+            long start = System.nanoTime();
+
+            if(mDecimating)
+            {
+                //Surplus buffers were discarded on arrival - discard the unused remainder of the last buffer so that
+                //the next frame starts with contiguous samples
+                mOverflowableBufferStream.skipCurrentBuffer();
+            }
+            else if(mFrameFlushCount > 0)
             {
                 mOverflowableBufferStream.flush(mFrameFlushCount);
             }
@@ -239,6 +396,9 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
             }
 
             mPreviousSamples = samples;
+            calculated = true;
+            mCalculationCount++;
+            mCalculationNanos += System.nanoTime() - start;
         }
         catch(IOException ioe)
         {
@@ -256,6 +416,14 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
                 mLog.error("Error while calculating FFT results", e);
             }
         }
+        finally
+        {
+            //Request samples for the next frame once this frame is calculated, or when buffers were lost to overflow
+            if(mDecimating && (calculated || mRequestedSampleCount.get() <= 0))
+            {
+                mRequestedSampleCount.set(mFrameSize);
+            }
+        }
     }
 
     /**
@@ -275,6 +443,14 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
         mListeners.add(listener);
     }
 
+    /**
+     * Removes the converter.  Sample buffers are discarded on arrival while there are no converters.
+     */
+    public void removeConverter(DFTResultsConverter listener)
+    {
+        mListeners.remove(listener);
+    }
+
     private class DFTCalculationTask implements Runnable
     {
         @Override
@@ -321,6 +497,7 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
     public void clearBuffer()
     {
         mOverflowableBufferStream.clear();
+        mRequestedSampleCount.set(mFrameSize);
     }
 
     @Override
@@ -383,6 +560,10 @@ public class DFTProcessor implements Listener<ReusableComplexBuffer>, ISourceEve
             mFrameFlushCount++;
         }
 
+        //Discard surplus buffers on arrival instead of queueing and flushing them
+        mDecimating = mFrameFlushCount > 0;
+        mRequestedSampleCount.set(mFrameSize);
+
         //If the overlap size is greater than the frame size, we can't do that.  Automatically decrease the frame rate
         //until we reach a legitimate overlap value.
         if(mFrameOverlapCount >= mFrameSize)
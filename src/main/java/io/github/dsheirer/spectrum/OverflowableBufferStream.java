@@ -174,6 +174,22 @@ public class OverflowableBufferStream extends OverflowableTransferQueue<Reusable
         mFlushCount += sampleCount;
     }
 
+    /**
+     * Discards any remaining samples in the current buffer so that the next get() starts with the next queued
+     * buffer.  Samples already placed in the internal buffer (partial fill or overlap) are retained.
+     */
+    public void skipCurrentBuffer()
+    {
+        if(mCurrentBuffer != null)
+        {
+            mCurrentBuffer.decrementUserCount();
+            mCurrentBuffer = null;
+        }
+
+        mCurrentBufferPointer = 0;
+        mFlushCount = 0;
+    }
+
     /**
      * Fetches the next buffer from the queue.
      *
@@ -0,0 +1,131 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.spectrum;
+
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.JComponent;
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces repaint requests for a component to no more than one repaint per display refresh interval.  Repaint
+ * requests can be made from any thread at any rate.  The first request in a refresh interval schedules a single
+ * repaint at the start of the next interval and subsequent requests are absorbed until that repaint is issued.
+ */
+public class RepaintCoalescer
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RepaintCoalescer.class);
+    private static final int DEFAULT_REFRESH_RATE = 60;
+    private static final int MINIMUM_REFRESH_RATE = 20;
+    private static final int MAXIMUM_REFRESH_RATE = 240;
+    private static int sRefreshRate;
+
+    private JComponent mComponent;
+    private AtomicBoolean mPending = new AtomicBoolean();
+    private long mFrameInterval;
+    private volatile long mLastFrame;
+
+    /**
+     * Constructs an instance using the refresh rate of the default display
+     * @param component to repaint
+     */
+    public RepaintCoalescer(JComponent component)
+    {
+        this(component, getDisplayRefreshRate());
+    }
+
+    /**
+     * Constructs an instance
+     * @param component to repaint
+     * @param refreshRate in frames per second
+     */
+    public RepaintCoalescer(JComponent component, int refreshRate)
+    {
+        mComponent = component;
+        mFrameInterval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, refreshRate);
+        mLastFrame = System.nanoTime() - mFrameInterval;
+    }
+
+    /**
+     * Requests a repaint of the component.  Safe to invoke from any thread.
+     */
+    public void requestRepaint()
+    {
+        if(mPending.compareAndSet(false, true))
+        {
+            long delay = mLastFrame + mFrameInterval - System.nanoTime();
+
+            if(delay <= 0)
+            {
+                repaint();
+            }
+            else
+            {
+                ThreadPool.SCHEDULED.schedule(this::repaint, delay, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Issues the repaint.  Component repaint requests are thread safe and are processed on the Swing event thread.
+     */
+    private void repaint()
+    {
+        mLastFrame = System.nanoTime();
+        mPending.set(false);
+        mComponent.repaint();
+    }
+
+    /**
+     * Refresh rate of the default display or a default refresh rate when it can't be determined.
+     * @return refresh rate in frames per second
+     */
+    public static synchronized int getDisplayRefreshRate()
+    {
+        if(sRefreshRate == 0)
+        {
+            sRefreshRate = DEFAULT_REFRESH_RATE;
+
+            try
+            {
+                if(!GraphicsEnvironment.isHeadless())
+                {
+                    int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                        .getDisplayMode().getRefreshRate();
+
+                    if(refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN)
+                    {
+                        sRefreshRate = Math.max(MINIMUM_REFRESH_RATE, Math.min(MAXIMUM_REFRESH_RATE, refreshRate));
+                    }
+                }
+            }
+            catch(UnsupportedOperationException e)
+            {
+                mLog.debug("Unable to determine display refresh rate - using default [" + DEFAULT_REFRESH_RATE + "]");
+            }
+        }
+
+        return sRefreshRate;
+    }
+}
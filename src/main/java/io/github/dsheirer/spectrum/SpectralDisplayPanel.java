@@ -74,12 +74,16 @@ import javax.swing.event.MouseInputAdapter;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.EventQueue;
+import java.awt.Frame;
+import java.awt.Window;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
+import java.awt.event.HierarchyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.awt.event.WindowStateListener;
 import java.util.ArrayList;
 import java.util.Hashtable;
 
@@ -111,6 +115,9 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ReusableCom
     private SettingsManager mSettingsManager;
     private TunerModel mTunerModel;
     private Tuner mTuner;
+    private boolean mTunerSamplesEnabled;
+    private Window mWindow;
+    private WindowStateListener mWindowStateListener = e -> updateTunerSamples();
 
     /**
      * Spectral Display Panel provides a frequency component display with a
@@ -123,6 +130,9 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ReusableCom
      * Complex sample buffers are processed by a DFTProcessor and the output of
      * the DFT is translated to decibels for display in the spectrum and
      * waterfall components.
+     *
+     * The DFT processor only receives sample buffers from the tuner while this
+     * panel is showing and its window is not minimized.
      */
     public SpectralDisplayPanel(PlaylistManager playlistManager, SettingsManager settingsManager, TunerModel tunerModel)
     {
@@ -173,6 +183,12 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ReusableCom
         /* De-register from receiving samples when the window closes */
         clearTuner();
 
+        if(mWindow != null)
+        {
+            mWindow.removeWindowStateListener(mWindowStateListener);
+            mWindow = null;
+        }
+
         mSettingsManager = null;
 
         mDFTProcessor.dispose();
@@ -403,8 +419,120 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ReusableCom
         mDFTConverter = new ComplexDecibelConverter();
         mDFTProcessor.addConverter(mDFTConverter);
 
+        //The processor is started when a tuner is showing in the display
+        mDFTProcessor.stop();
+
         mDFTConverter.addListener((DFTResultsListener)mSpectrumPanel);
         mDFTConverter.addListener((DFTResultsListener)mWaterfallPanel);
+
+        //Start and stop receiving tuner samples as the panel is shown or hidden
+        addHierarchyListener(e -> {
+            if((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0)
+            {
+                updateWindow();
+                updateTunerSamples();
+            }
+        });
+    }
+
+    /**
+     * Tracks the window that contains this panel so that tuner samples can be stopped while the window is minimized.
+     */
+    private void updateWindow()
+    {
+        Window window = isShowing() ? SwingUtilities.getWindowAncestor(this) : null;
+
+        if(window != mWindow)
+        {
+            if(mWindow != null)
+            {
+                mWindow.removeWindowStateListener(mWindowStateListener);
+            }
+
+            mWindow = window;
+
+            if(mWindow != null)
+            {
+                mWindow.addWindowStateListener(mWindowStateListener);
+            }
+        }
+    }
+
+    /**
+     * Indicates if the spectral display is currently visible to the user
+     */
+    private boolean isDisplayed()
+    {
+        if(!isShowing())
+        {
+            return false;
+        }
+
+        return !(mWindow instanceof Frame) || (((Frame)mWindow).getExtendedState() & Frame.ICONIFIED) == 0;
+    }
+
+    /**
+     * Registers or deregisters the DFT processor to receive samples from the current tuner according to whether the
+     * display is currently visible, so that no DFTs are calculated while nobody is watching.
+     */
+    private void updateTunerSamples()
+    {
+        setTunerSamplesEnabled(mTuner != null && mDFTProcessor != null && isDisplayed());
+    }
+
+    /**
+     * Registers or deregisters the DFT processor to receive samples from the current tuner.
+     */
+    private void setTunerSamplesEnabled(boolean enabled)
+    {
+        if(enabled == mTunerSamplesEnabled)
+        {
+            return;
+        }
+
+        mTunerSamplesEnabled = enabled;
+
+        if(enabled)
+        {
+            mDFTProcessor.clearBuffer();
+            mDFTProcessor.start();
+
+            if(mDFTProcessor.isReducedResolution())
+            {
+                mTuner.getChannelSourceManager().setSpectrumListener(mDFTProcessor.getChannelizerSpectrumListener(),
+                    mDFTProcessor.getFrameRate());
+            }
+
+            //Register the dft processor to receive samples from the tuner
+            mTuner.getTunerController().addBufferListener(mDFTProcessor);
+        }
+        else
+        {
+            if(mTuner != null)
+            {
+                //Deregister the dft processor from receiving samples
+                mTuner.getTunerController().removeBufferListener(mDFTProcessor);
+                mTuner.getChannelSourceManager().setSpectrumListener(null, 0);
+            }
+
+            mDFTProcessor.stop();
+            mDFTProcessor.clearBuffer();
+        }
+    }
+
+    /**
+     * Sets reduced resolution mode where the spectrum is derived from the polyphase channelizer outputs, when
+     * available, instead of calculating a DFT from the tuner samples.
+     */
+    public void setReducedResolution(boolean reducedResolution)
+    {
+        mDFTProcessor.setReducedResolution(reducedResolution);
+
+        if(mTunerSamplesEnabled)
+        {
+            mTuner.getChannelSourceManager().setSpectrumListener(reducedResolution ?
+                mDFTProcessor.getChannelizerSpectrumListener() : null, mDFTProcessor.getFrameRate());
+        }
     }
 
     /**
@@ -433,10 +561,6 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ReusableCom
     {
         clearTuner();
 
-        mDFTProcessor.clearBuffer();
-
-        mDFTProcessor.start();
-
         mTuner = tuner;
 
         if(mTuner != null)
@@ -444,9 +568,6 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ReusableCom
             //Register to receive frequency change events
             mTuner.getTunerController().addListener(this);
 
-            //Register the dft processor to receive samples from the tuner
-            mTuner.getTunerController().addBufferListener(mDFTProcessor);
-
             mSpectrumPanel.setSampleSize(mTuner.getSampleSize());
 
             //Fire frequency and sample rate change events so that the spectrum
@@ -454,6 +575,9 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ReusableCom
             process(SourceEvent.frequencyChange(null, mTuner.getTunerController().getFrequency()));
 
             process(SourceEvent.sampleRateChange(mTuner.getTunerController().getSampleRate()));
+
+            //Register the dft processor to receive samples from the tuner when the display is visible
+            updateTunerSamples();
         }
     }
 
@@ -466,12 +590,12 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ReusableCom
         {
             //Deregister for frequency change events from the tuner
             mTuner.getTunerController().removeListener(this);
-
-            //Deregister the dft processor from receiving samples
-            mTuner.getTunerController().removeBufferListener(mDFTProcessor);
-            mTuner = null;
         }
 
+        //Deregister the dft processor from receiving samples
+        setTunerSamplesEnabled(false);
+        mTuner = null;
+
         mDFTProcessor.stop();
         mDFTProcessor.clearBuffer();
         mSpectrumPanel.clearSpectrum();
@@ -743,6 +867,14 @@ public class SpectralDisplayPanel extends JPanel implements Listener<ReusableCom
                 frameRateMenu.add(new FrameRateItem(mDFTProcessor, 40));
                 frameRateMenu.add(new FrameRateItem(mDFTProcessor, 50));
 
+                /**
+                 * Reduced resolution spectrum from the polyphase channelizer
+                 */
+                JCheckBoxMenuItem reducedResolutionItem = new JCheckBoxMenuItem("Reduced Resolution (Channelizer)");
+                reducedResolutionItem.setSelected(mDFTProcessor.isReducedResolution());
+                reducedResolutionItem.addActionListener(e -> setReducedResolution(reducedResolutionItem.isSelected()));
+                displayMenu.add(reducedResolutionItem);
+
                 /**
                  * FFT Window Type
                  */
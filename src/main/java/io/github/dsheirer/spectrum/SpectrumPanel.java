@@ -71,6 +71,9 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
     //Current DFT output bins in dB
     private float[] mDisplayFFTBins = new float[1];
 
+    //Coalesces repaint requests from the DFT processing thread to the display refresh rate
+    private RepaintCoalescer mRepaintCoalescer = new RepaintCoalescer(this);
+
     //Averaging across multiple DFT result sets
     private int mAveraging = 4;
 
@@ -153,7 +156,7 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
             mDisplayFFTBins = smoothedBins;
         }
 
-        repaint();
+        mRepaintCoalescer.requestRepaint();
     }
 
     @Override
@@ -215,6 +218,11 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
              * and the last bin is rendered at the width */
             float binSize = (float)size.width / ((float)(bins.length));
 
+            //When there are more bins than pixels, decimate the path to one point per pixel column, keeping the
+            //peak (smallest y) value of the bins that fall within each column
+            int column = -1;
+            float columnHeight = insideHeight;
+
             for(int x = 0; x < bins.length; x++)
             {
                 float height;
@@ -233,7 +241,34 @@ public class SpectrumPanel extends JPanel implements DFTResultsListener, Setting
 
                 float xAxis = (float)x * binSize;
 
-                spectrumShape.lineTo(xAxis, height);
+                if(binSize >= 1.0f)
+                {
+                    spectrumShape.lineTo(xAxis, height);
+                }
+                else
+                {
+                    int pixel = (int)xAxis;
+
+                    if(pixel != column)
+                    {
+                        if(column >= 0)
+                        {
+                            spectrumShape.lineTo(column, columnHeight);
+                        }
+
+                        column = pixel;
+                        columnHeight = height;
+                    }
+                    else if(height < columnHeight)
+                    {
+                        columnHeight = height;
+                    }
+                }
+            }
+
+            if(column >= 0)
+            {
+                spectrumShape.lineTo(column, columnHeight);
             }
         }
         //Otherwise show an empty spectrum
@@ -28,14 +28,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.swing.JPanel;
 import java.awt.Color;
-import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Image;
 import java.awt.Point;
 import java.awt.geom.Line2D;
-import java.awt.image.ColorModel;
-import java.awt.image.MemoryImageSource;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
 import java.text.DecimalFormat;
 import java.util.Arrays;
 
@@ -52,14 +51,20 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
     private static final String PAUSED = "PAUSED - Right Click to Unpause";
     private static final String DISABLED = "DISABLED - Right Click to Select a Tuner";
 
-    private byte[] mPixels;
-    private byte[] mPausedPixels;
     private int mDFTSize = 4096;
     private int mImageHeight = 700;
-    private MemoryImageSource mMemoryImageSource;
-    private ColorModel mColorModel = WaterfallColorModel.getDefaultColorModel();
+    private int[] mColorLookup = getColorLookup(WaterfallColorModel.getDefaultColorModel());
     private Color mColorSpectrumCursor;
-    private Image mWaterfallImage;
+
+    //Waterfall image and its backing raster.  Rows are written into the raster as a ring buffer, where mNewestRow
+    //is the raster row containing the latest DFT results, so that scrolling doesn't require copying the image.
+    private final Object mRasterLock = new Object();
+    private BufferedImage mWaterfallImage;
+    private int[] mRaster;
+    private int mNewestRow;
+    private BufferedImage mPausedImage;
+    private int mPausedNewestRow;
+    private RepaintCoalescer mRepaintCoalescer = new RepaintCoalescer(this);
 
     private Point mCursorLocation = new Point(0, 0);
     private boolean mCursorVisible = false;
@@ -76,6 +81,10 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
      * time.  Maps DFT frequency bin decibel values into a 256 bucket color map
      * for display.
      *
+     * DFT results are color mapped and written directly into the image raster on
+     * the thread that delivers the results, and repaints are coalesced to the
+     * display refresh rate, so that the Swing event thread only paints the image.
+     *
      * @param settingsManager
      */
     public WaterfallPanel(SettingsManager settingsManager)
@@ -102,29 +111,37 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
         }
 
         mSettingsManager = null;
-        mMemoryImageSource = null;
     }
 
     /**
-     * Resets the memory image source and byte backing array when the DFT point
-     * size has changed
+     * Creates an RGB lookup table from the indexed color model
      */
-    private void reset()
+    private static int[] getColorLookup(IndexColorModel colorModel)
     {
-        mPixels = new byte[mDFTSize * mImageHeight];
+        int[] lookup = new int[colorModel.getMapSize()];
 
-        mMemoryImageSource = new MemoryImageSource(mDFTSize,
-            mImageHeight,
-            mColorModel,
-            mPixels,
-            0,
-            mDFTSize);
+        for(int x = 0; x < lookup.length; x++)
+        {
+            lookup[x] = colorModel.getRGB(x);
+        }
 
-        mMemoryImageSource.setAnimated(true);
+        return lookup;
+    }
 
-        mWaterfallImage = createImage(mMemoryImageSource);
+    /**
+     * Resets the waterfall image and raster when the DFT point size has changed
+     */
+    private void reset()
+    {
+        synchronized(mRasterLock)
+        {
+            mWaterfallImage = new BufferedImage(mDFTSize, mImageHeight, BufferedImage.TYPE_INT_RGB);
+            mRaster = ((DataBufferInt)mWaterfallImage.getRaster().getDataBuffer()).getData();
+            Arrays.fill(mRaster, mColorLookup[0]);
+            mNewestRow = 0;
+        }
 
-        repaint();
+        mRepaintCoalescer.requestRepaint();
     }
 
     /**
@@ -134,7 +151,13 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
     {
         if(paused)
         {
-            mPausedPixels = mPixels.clone();
+            synchronized(mRasterLock)
+            {
+                mPausedImage = new BufferedImage(mDFTSize, mImageHeight, BufferedImage.TYPE_INT_RGB);
+                int[] pausedRaster = ((DataBufferInt)mPausedImage.getRaster().getDataBuffer()).getData();
+                System.arraycopy(mRaster, 0, pausedRaster, 0, mRaster.length);
+                mPausedNewestRow = mNewestRow;
+            }
         }
 
         mPaused = paused;
@@ -305,13 +328,26 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
         double binPixelWidth = getBinPixelWidth(multiplier);
 
         int offset = (int)(getPixelOffset(multiplier) - binPixelWidth);
+        int width = (getWidth() * multiplier) + (int)binPixelWidth;
 
-        g.drawImage(mWaterfallImage,
-            offset,
-            0,
-            (getWidth() * multiplier) + (int)binPixelWidth,
-            mImageHeight,
-            this);
+        synchronized(mRasterLock)
+        {
+            boolean paused = mPaused && mPausedImage != null;
+            BufferedImage image = paused ? mPausedImage : mWaterfallImage;
+            int newestRow = paused ? mPausedNewestRow : mNewestRow;
+            int imageWidth = image.getWidth();
+            int imageHeight = image.getHeight();
+            int topRows = imageHeight - newestRow;
+
+            //Paint the ring buffer in two slices: newest row through the end of the raster at the top, followed by
+            //the start of the raster through the row before the newest row
+            g.drawImage(image, offset, 0, offset + width, topRows, 0, newestRow, imageWidth, imageHeight, this);
+
+            if(newestRow > 0)
+            {
+                g.drawImage(image, offset, topRows, offset + width, imageHeight, 0, 0, imageWidth, newestRow, this);
+            }
+        }
 
         Graphics2D graphics = (Graphics2D)g;
 
@@ -375,92 +411,87 @@ public class WaterfallPanel extends JPanel implements DFTResultsListener,
 
     /**
      * Implements the DFT results listener interface method.  This is the
-     * primary method for receiving new frequency bin results.
+     * primary method for receiving new frequency bin results.  The results are
+     * color mapped into the next raster row on the calling thread.
      */
     @Override
     public void receive(float[] update)
     {
         mDisabled = false;
 
-        //If our FFT size changes, reset our pixel map and image source
-        if(mDFTSize != update.length)
+        synchronized(mRasterLock)
         {
-            mDFTSize = update.length;
-
-            reset();
-        }
+            //If our FFT size changes, reset our image and raster
+            if(mDFTSize != update.length)
+            {
+                mDFTSize = update.length;
 
-        //Move the pixels down a row to make room for the new results
-        System.arraycopy(mPixels, 0, mPixels, mDFTSize, mPixels.length - mDFTSize);
+                reset();
+            }
 
-        /**
-         * Find the average value and scale the display to it
-         */
-        double sum = 0.0d;
+            //Advance the ring buffer to make room for the new results
+            mNewestRow--;
 
-        for(int x = 0; x < update.length - 1; x++)
-        {
-            sum += update[x];
-        }
+            if(mNewestRow < 0)
+            {
+                mNewestRow = mImageHeight - 1;
+            }
 
-        float average = (float)(sum / (double)update.length - 1);
+            int rowOffset = mNewestRow * mDFTSize;
 
-        float scale = 256.0f / average;
+            /**
+             * Find the average value and scale the display to it
+             */
+            double sum = 0.0d;
 
-        for(int x = 0; x < update.length - 1; x++)
-        {
-            float value = (average - update[x]) * scale;
-
-            if(value < 0)
-            {
-                mPixels[x] = 0;
-            }
-            else if(value > 255)
+            for(int x = 0; x < update.length - 1; x++)
             {
-                mPixels[x] = (byte)255;
+                sum += update[x];
             }
-            else
-            {
-                mPixels[x] = (byte)value;
-            }
-        }
 
-        //Task the swing event thread to update the display
-        EventQueue.invokeLater(new Runnable()
-        {
-            @Override
-            public void run()
+            float average = (float)(sum / (double)update.length - 1);
+
+            float scale = 256.0f / average;
+
+            int color = mColorLookup[0];
+
+            for(int x = 0; x < update.length - 1; x++)
             {
-                if(mMemoryImageSource != null)
+                float value = (average - update[x]) * scale;
+
+                if(value < 0)
                 {
-                    if(mPaused)
-                    {
-                        mMemoryImageSource.newPixels(mPausedPixels, mColorModel, 0, mDFTSize);
-                    }
-                    else
-                    {
-                        mMemoryImageSource.newPixels(mPixels, mColorModel, 0, mDFTSize);
-                    }
+                    color = mColorLookup[0];
                 }
+                else if(value > 255)
+                {
+                    color = mColorLookup[255];
+                }
+                else
+                {
+                    color = mColorLookup[(int)value];
+                }
+
+                mRaster[rowOffset + x] = color;
             }
-        });
+
+            //The last bin is not included in the scaling - repeat the adjacent bin color
+            mRaster[rowOffset + update.length - 1] = color;
+        }
+
+        //Request a coalesced repaint from the swing event thread
+        mRepaintCoalescer.requestRepaint();
     }
 
     public void clearWaterfall()
     {
-        Arrays.fill(mPixels, (byte)0);
+        synchronized(mRasterLock)
+        {
+            Arrays.fill(mRaster, mColorLookup[0]);
+        }
+
         mDisabled = true;
 
-        EventQueue.invokeLater(new Runnable()
-        {
-            @Override
-            public void run()
-            {
-                if(mMemoryImageSource != null)
-                {
-                    mMemoryImageSource.newPixels(mPixels, mColorModel, 0, mDFTSize);
-                }
-            }
-        });
+        mRepaintCoalescer.requestRepaint();
     }
 }
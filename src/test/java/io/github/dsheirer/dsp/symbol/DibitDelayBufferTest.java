@@ -0,0 +1,310 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.symbol;
+
+import io.github.dsheirer.bits.BitSetFullException;
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the packed dibit delay buffer against the previous unpacked Dibit[] circular buffer implementation.  Buffer
+ * lengths that are not a multiple of the 32 dibit word size place the mirrored copy of the buffer at an offset within
+ * a word, and every write position is exercised so that reads wrap from the end of the buffer into the mirrored copy.
+ */
+class DibitDelayBufferTest
+{
+    private static final int[] LENGTHS = {1, 31, 32, 33, 48, 64, 100, 144};
+
+    @Test
+    void getAndGetAndPutMatchUnpackedAtEveryWritePosition()
+    {
+        for(int length: LENGTHS)
+        {
+            Random random = new Random(length);
+            DibitDelayBuffer packed = new DibitDelayBuffer(length);
+            UnpackedDibitDelayBuffer unpacked = new UnpackedDibitDelayBuffer(length);
+
+            for(int x = 0; x < length * 3; x++)
+            {
+                int dibit = random.nextInt(4);
+                assertEquals(unpacked.getAndPut(dibit), packed.getAndPut(dibit), "Oldest dibit - length:" + length +
+                    " put:" + x);
+                assertContentsEqual(unpacked, packed, "Length:" + length + " put:" + x);
+            }
+        }
+    }
+
+    @Test
+    void getBitsStraddlesWordBoundariesAndMirroredRegion()
+    {
+        for(int length: LENGTHS)
+        {
+            Random random = new Random(length);
+            DibitDelayBuffer packed = new DibitDelayBuffer(length);
+            UnpackedDibitDelayBuffer unpacked = new UnpackedDibitDelayBuffer(length);
+
+            //Check every start and run length from every write position, so that runs start at each bit offset within
+            //a word, straddle the boundary between two words and continue from the end of the buffer into the mirror
+            for(int position = 0; position < length; position++)
+            {
+                for(int start = 0; start < length; start++)
+                {
+                    for(int count = 1; count <= Math.min(32, length - start); count++)
+                    {
+                        assertEquals(unpacked.getBits(start, count), packed.getBits(start, count), "Length:" +
+                            length + " pointer:" + position + " start:" + start + " count:" + count);
+                    }
+                }
+
+                int dibit = random.nextInt(4);
+                packed.put(dibit);
+                unpacked.put(dibit);
+            }
+        }
+    }
+
+    @Test
+    void getBitsRejectsRunsOutsideTheBuffer()
+    {
+        DibitDelayBuffer buffer = new DibitDelayBuffer(40);
+
+        assertThrows(IllegalArgumentException.class, () -> buffer.getBits(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> buffer.getBits(0, 33));
+        assertThrows(IllegalArgumentException.class, () -> buffer.getBits(-1, 4));
+        assertThrows(IllegalArgumentException.class, () -> buffer.getBits(37, 4));
+    }
+
+    @Test
+    void getMessageMatchesUnpacked()
+    {
+        for(int length: LENGTHS)
+        {
+            Random random = new Random(length);
+            DibitDelayBuffer packed = new DibitDelayBuffer(length);
+            UnpackedDibitDelayBuffer unpacked = new UnpackedDibitDelayBuffer(length);
+
+            for(int position = 0; position < length; position++)
+            {
+                for(int start = 0; start < length; start += Math.max(1, length / 7))
+                {
+                    int dibitLength = length - start;
+                    CorrectedBinaryMessage expected = unpacked.getMessage(start, dibitLength);
+                    CorrectedBinaryMessage actual = packed.getMessage(start, dibitLength);
+
+                    assertEquals(expected.size(), actual.size(), "Message length");
+                    assertEquals(expected.toString(), actual.toString(), "Length:" + length + " pointer:" +
+                        position + " start:" + start);
+                }
+
+                int dibit = random.nextInt(4);
+                packed.put(dibit);
+                unpacked.put(dibit);
+            }
+        }
+    }
+
+    @Test
+    void correctFirstAndLastDibitMatchesUnpacked()
+    {
+        for(QPSKCarrierLock carrierLock: QPSKCarrierLock.values())
+        {
+            for(int length: LENGTHS)
+            {
+                Random random = new Random(length);
+                DibitDelayBuffer packed = new DibitDelayBuffer(length);
+                UnpackedDibitDelayBuffer unpacked = new UnpackedDibitDelayBuffer(length);
+
+                for(int position = 0; position < length; position++)
+                {
+                    String context = carrierLock + " length:" + length + " pointer:" + position;
+
+                    packed.correct(0, 1, carrierLock);
+                    unpacked.correct(0, 1, carrierLock);
+                    assertContentsEqual(unpacked, packed, context + " first dibit");
+
+                    packed.correct(length - 1, 1, carrierLock);
+                    unpacked.correct(length - 1, 1, carrierLock);
+                    assertContentsEqual(unpacked, packed, context + " last dibit");
+
+                    packed.correct(0, length, carrierLock);
+                    unpacked.correct(0, length, carrierLock);
+                    assertContentsEqual(unpacked, packed, context + " full buffer");
+
+                    int dibit = random.nextInt(4);
+                    packed.put(dibit);
+                    unpacked.put(dibit);
+                }
+
+                //Corrected dibits must also be updated in the mirrored copy, which is read after the pointer advances
+                for(int x = 0; x < length; x++)
+                {
+                    int dibit = random.nextInt(4);
+                    assertEquals(unpacked.getAndPut(dibit), packed.getAndPut(dibit), carrierLock + " length:" +
+                        length + " corrected dibit read back after wraparound:" + x);
+                    assertContentsEqual(unpacked, packed, carrierLock + " length:" + length + " advance:" + x);
+                }
+            }
+        }
+    }
+
+    @Test
+    void setUsesLogicalIndex()
+    {
+        DibitDelayBuffer packed = new DibitDelayBuffer(33);
+        UnpackedDibitDelayBuffer unpacked = new UnpackedDibitDelayBuffer(33);
+
+        for(int x = 0; x < 50; x++)
+        {
+            packed.put(x & 0x3);
+            unpacked.put(x & 0x3);
+        }
+
+        packed.set(0, 3);
+        unpacked.set(0, 3);
+        packed.set(32, 2);
+        unpacked.set(32, 2);
+        assertContentsEqual(unpacked, packed, "After set");
+
+        for(int x = 0; x < 33; x++)
+        {
+            assertEquals(unpacked.getAndPut(1), packed.getAndPut(1), "Set dibit read back after wraparound:" + x);
+        }
+    }
+
+    /**
+     * Compares every dibit and the full buffer message of the packed buffer to the unpacked buffer
+     */
+    private static void assertContentsEqual(UnpackedDibitDelayBuffer expected, DibitDelayBuffer actual, String context)
+    {
+        for(int x = 0; x < expected.length(); x++)
+        {
+            assertEquals(expected.get(x), actual.get(x), context + " index:" + x);
+        }
+
+        assertEquals(expected.getMessage(0, expected.length()).toString(),
+            actual.getMessage(0, actual.length()).toString(), context + " message");
+    }
+
+    /**
+     * Previous unpacked implementation of the dibit delay buffer, with get(), set() and correct() using logical
+     * indexes where 0 is the oldest dibit, as the packed buffer does.
+     */
+    private static class UnpackedDibitDelayBuffer
+    {
+        private Dibit[] mBuffer;
+        private int mPointer;
+
+        private UnpackedDibitDelayBuffer(int length)
+        {
+            mBuffer = new Dibit[length];
+
+            for(int x = 0; x < mBuffer.length; x++)
+            {
+                mBuffer[x] = Dibit.D00_PLUS_1;
+            }
+        }
+
+        private int length()
+        {
+            return mBuffer.length;
+        }
+
+        private int get(int index)
+        {
+            return mBuffer[(mPointer + index) % mBuffer.length].getValue();
+        }
+
+        private void set(int index, int dibit)
+        {
+            mBuffer[(mPointer + index) % mBuffer.length] = Dibit.fromValue(dibit);
+        }
+
+        private void put(int dibit)
+        {
+            mBuffer[mPointer++] = Dibit.fromValue(dibit);
+
+            if(mPointer >= mBuffer.length)
+            {
+                mPointer = 0;
+            }
+        }
+
+        private int getAndPut(int dibit)
+        {
+            int toReturn = mBuffer[mPointer].getValue();
+            put(dibit);
+            return toReturn;
+        }
+
+        private long getBits(int start, int dibitCount)
+        {
+            long value = 0;
+
+            for(int x = 0; x < dibitCount; x++)
+            {
+                value = (value << 2) | get(start + x);
+            }
+
+            return value;
+        }
+
+        private CorrectedBinaryMessage getMessage(int start, int dibitLength)
+        {
+            CorrectedBinaryMessage message = new CorrectedBinaryMessage(dibitLength * 2);
+
+            int dibitCount = 0;
+            int bufferPointer = (mPointer + start) % mBuffer.length;
+
+            try
+            {
+                while(dibitCount < dibitLength)
+                {
+                    Dibit dibit = mBuffer[bufferPointer++];
+                    message.add(dibit.getBit1());
+                    message.add(dibit.getBit2());
+                    dibitCount++;
+
+                    if(bufferPointer >= mBuffer.length)
+                    {
+                        bufferPointer = 0;
+                    }
+                }
+            }
+            catch(BitSetFullException e)
+            {
+                fail("Bit set full");
+            }
+
+            return message;
+        }
+
+        private void correct(int start, int dibitLength, QPSKCarrierLock carrierLock)
+        {
+            for(int x = start; x < start + dibitLength; x++)
+            {
+                int index = (mPointer + x) % mBuffer.length;
+                mBuffer[index] = carrierLock.correct(mBuffer[index]);
+            }
+        }
+    }
+}
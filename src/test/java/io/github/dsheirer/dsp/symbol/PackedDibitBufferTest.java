@@ -0,0 +1,110 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.dsp.symbol;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests packing of dibit symbol blocks into long words.
+ */
+class PackedDibitBufferTest
+{
+    @Test
+    void dibitsReadBackAcrossWordBoundaries()
+    {
+        Random random = new Random(1);
+        int[] dibits = new int[200];
+        PackedDibitBuffer buffer = new PackedDibitBuffer(dibits.length);
+
+        for(int x = 0; x < dibits.length; x++)
+        {
+            dibits[x] = random.nextInt(4);
+            buffer.add(dibits[x]);
+        }
+
+        assertEquals(dibits.length, buffer.size(), "Buffer size");
+
+        for(int x = 0; x < dibits.length; x++)
+        {
+            assertEquals(dibits[x], buffer.get(x), "Dibit index:" + x);
+        }
+    }
+
+    @Test
+    void bufferGrowsBeyondInitialCapacity()
+    {
+        PackedDibitBuffer buffer = new PackedDibitBuffer(1);
+
+        for(int x = 0; x < 100; x++)
+        {
+            buffer.add(x & 0x3);
+        }
+
+        assertEquals(100, buffer.size(), "Buffer size");
+
+        for(int x = 0; x < 100; x++)
+        {
+            assertEquals(x & 0x3, buffer.get(x), "Dibit index:" + x);
+        }
+    }
+
+    @Test
+    void clearedBufferDoesNotRetainStaleDibits()
+    {
+        PackedDibitBuffer buffer = new PackedDibitBuffer(96);
+
+        for(int x = 0; x < 96; x++)
+        {
+            buffer.add(3);
+        }
+
+        buffer.clear();
+        assertEquals(0, buffer.size(), "Cleared buffer size");
+
+        //Reuse ends part way through a word that still holds the previous dibits in its unused positions
+        for(int x = 0; x < 40; x++)
+        {
+            buffer.add(x == 39 ? 1 : 0);
+        }
+
+        for(int x = 0; x < 39; x++)
+        {
+            assertEquals(0, buffer.get(x), "Reused dibit index:" + x);
+        }
+
+        assertEquals(1, buffer.get(39), "Last reused dibit");
+    }
+
+    @Test
+    void onlyTheLowTwoBitsAreStored()
+    {
+        PackedDibitBuffer buffer = new PackedDibitBuffer(32);
+        buffer.add(0x7);
+        buffer.add(0);
+        buffer.add(-1);
+
+        assertEquals(3, buffer.get(0), "Masked dibit");
+        assertEquals(0, buffer.get(1), "Neighbor dibit not overwritten");
+        assertEquals(3, buffer.get(2), "Masked negative dibit");
+    }
+}
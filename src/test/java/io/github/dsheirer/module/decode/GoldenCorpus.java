@@ -0,0 +1,366 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.module.decode;
+
+import io.github.dsheirer.source.tuner.test.synthetic.DMRScript;
+import io.github.dsheirer.source.tuner.test.synthetic.ISymbolScript;
+import io.github.dsheirer.source.tuner.test.synthetic.MDC1200Script;
+import io.github.dsheirer.source.tuner.test.synthetic.P25Phase1Script;
+import io.github.dsheirer.source.tuner.test.synthetic.P25Phase2Script;
+import io.github.dsheirer.source.tuner.test.synthetic.SignalConfiguration;
+import io.github.dsheirer.source.tuner.test.synthetic.SignalType;
+import io.github.dsheirer.source.tuner.test.synthetic.SyntheticSignal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Golden corpus for the decoder regression tests.
+ *
+ * The bit stream corpus (.bits files under src/test/resources/corpus) was produced from the scripted synthetic tuner
+ * signals by the main() method of this class and is checked in, so that any change to the message framers or
+ * processors is measured against fixed input.  Only regenerate the files when the scripts intentionally change and
+ * update the expected counts in golden.properties at the same time.
+ *
+ * Baseband sample streams are synthesized on demand from the same scripts with a seeded noise generator, so they are
+ * identical on every run without checking in large recordings.
+ */
+public class GoldenCorpus
+{
+    private final static Logger mLog = LoggerFactory.getLogger(GoldenCorpus.class);
+
+    public static final String CORPUS_DIRECTORY = "src/test/resources/corpus";
+    public static final String MANIFEST = "/corpus/golden.properties";
+
+    public static final String P25_PHASE1_CONTROL = "p25p1_control";
+    public static final String P25_PHASE1_VOICE = "p25p1_voice";
+    public static final String P25_PHASE2 = "p25p2";
+    public static final String DMR = "dmr";
+    public static final String MDC1200 = "mdc1200";
+
+    public static final int P25_NAC = 0x293;
+    public static final int P25_WACN = 0xBEE00;
+    public static final int P25_SYSTEM = 0x123;
+    public static final int P25_PHASE1_TALKGROUP = 100;
+    public static final int P25_PHASE1_RADIO = 1000000;
+    public static final int P25_PHASE2_TALKGROUP = 200;
+    public static final int P25_PHASE2_RADIO = 2000001;
+    public static final int DMR_COLOR_CODE = 7;
+    public static final int DMR_TALKGROUP = 300;
+    public static final int DMR_RADIO = 3000001;
+    public static final double BASEBAND_SAMPLE_RATE = 50000.0;
+    public static final double AUDIO_SAMPLE_RATE = 8000.0;
+
+    private static final int P25_PHASE1_CONTROL_FRAMES = 120;
+    private static final int P25_PHASE1_VOICE_FRAMES = 36;
+    private static final int P25_PHASE2_FRAMES = 60;
+    private static final int DMR_FRAMES = 240;
+    private static final double MDC_AUDIO_DEVIATION = 0.5;
+    private static final int BASEBAND_DURATION_SECONDS = 10;
+    private static final double BASEBAND_SNR = 20.0;
+    private static final int MDC_TRANSMISSIONS = 10;
+    private static final double MDC_SNR = 30.0;
+
+    /**
+     * Creates the scripted P25 Phase 1 control channel that broadcasts identifier update, RFSS and network status and
+     * group voice channel grants.
+     */
+    public static P25Phase1Script createP25Phase1ControlScript()
+    {
+        P25Phase1Script script = new P25Phase1Script(P25_NAC, true);
+        script.addIdentifierUpdate(1, 851006250l, 12500, 12500);
+        script.addRFSSStatusBroadcast(P25_SYSTEM, 1, 1, 1, 10);
+        script.addNetworkStatusBroadcast(P25_WACN, P25_SYSTEM, 1, 10);
+
+        for(int x = 0; x < 4; x++)
+        {
+            script.addGroupVoiceChannelGrant(1, 17 + x, P25_PHASE1_TALKGROUP + x, P25_PHASE1_RADIO + x);
+        }
+
+        return script;
+    }
+
+    /**
+     * Creates the scripted P25 Phase 1 traffic channel carrying the call granted on channel 17 by the control channel.
+     */
+    public static P25Phase1Script createP25Phase1VoiceScript()
+    {
+        return new P25Phase1Script(P25_NAC, P25_PHASE1_TALKGROUP, P25_PHASE1_RADIO);
+    }
+
+    /**
+     * Creates the scripted P25 Phase 2 channel with a group call on channel 0 and network status broadcasts on the
+     * idle channel 1.
+     */
+    public static P25Phase2Script createP25Phase2Script()
+    {
+        return new P25Phase2Script(P25_WACN, P25_SYSTEM, P25_NAC, P25_PHASE2_TALKGROUP, P25_PHASE2_RADIO);
+    }
+
+    /**
+     * Creates the scripted DMR repeater with a repeating group call on timeslot 1 and an idle timeslot 2.
+     */
+    public static DMRScript createDMRScript()
+    {
+        return new DMRScript(DMR_COLOR_CODE, DMR_TALKGROUP, DMR_RADIO);
+    }
+
+    /**
+     * Creates the dibit sequence for the bit stream corpus entry.
+     *
+     * @param entry name
+     * @return dibits
+     */
+    public static int[] createDibits(String entry)
+    {
+        switch(entry)
+        {
+            case P25_PHASE1_CONTROL:
+                return getSymbols(createP25Phase1ControlScript(), P25_PHASE1_CONTROL_FRAMES);
+            case P25_PHASE1_VOICE:
+                return getSymbols(createP25Phase1VoiceScript(), P25_PHASE1_VOICE_FRAMES);
+            case P25_PHASE2:
+                return getSymbols(createP25Phase2Script(), P25_PHASE2_FRAMES);
+            case DMR:
+                return getSymbols(createDMRScript(), DMR_FRAMES);
+            default:
+                throw new IllegalArgumentException("Unrecognized corpus entry: " + entry);
+        }
+    }
+
+    /**
+     * Keys up the script and collects symbols until the final frame starts, then keys down so that the script
+     * completes the final frame and sends any terminator.
+     */
+    private static int[] getSymbols(ISymbolScript script, int frameCount)
+    {
+        List<Integer> symbols = new ArrayList<>();
+        script.keyUp();
+
+        while(script.getFrameCount() < frameCount)
+        {
+            symbols.add(script.nextSymbol());
+        }
+
+        script.keyDown();
+        int symbol = script.nextSymbol();
+
+        while(script.isTransmitting())
+        {
+            symbols.add(symbol);
+            symbol = script.nextSymbol();
+        }
+
+        return symbols.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Packs the dibits four per byte, most significant dibit first, in the format produced by the binary recorder.
+     */
+    public static byte[] pack(int[] dibits)
+    {
+        byte[] bytes = new byte[(dibits.length + 3) / 4];
+
+        for(int x = 0; x < dibits.length; x++)
+        {
+            bytes[x / 4] |= (dibits[x] & 0x3) << (6 - 2 * (x % 4));
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Sample rate of the baseband corpus entry: complex samples for the digital protocols or demodulated audio samples
+     * for MDC-1200.
+     */
+    public static double getBasebandSampleRate(String entry)
+    {
+        return MDC1200.equals(entry) ? AUDIO_SAMPLE_RATE : BASEBAND_SAMPLE_RATE;
+    }
+
+    /**
+     * Creates the samples for the baseband corpus entry.
+     *
+     * @param entry name
+     * @return interleaved complex samples, or real audio samples for MDC-1200
+     */
+    public static float[] createBaseband(String entry)
+    {
+        int sampleCount = (int)(BASEBAND_SAMPLE_RATE * BASEBAND_DURATION_SECONDS);
+
+        switch(entry)
+        {
+            case P25_PHASE1_CONTROL:
+                return createBaseband(SignalType.P25_PHASE1_C4FM, createP25Phase1ControlScript(), sampleCount,
+                    BASEBAND_SNR, 1);
+            case P25_PHASE2:
+                return createBaseband(SignalType.P25_PHASE2_HDQPSK, createP25Phase2Script(), sampleCount,
+                    BASEBAND_SNR, 2);
+            case DMR:
+                return createBaseband(SignalType.DMR, createDMRScript(), sampleCount, BASEBAND_SNR, 3);
+            case MDC1200:
+                return createMDCAudio(0x1234, MDC_TRANSMISSIONS, (int)AUDIO_SAMPLE_RATE, MDC_SNR, 4);
+            default:
+                throw new IllegalArgumentException("Unrecognized baseband corpus entry: " + entry);
+        }
+    }
+
+    /**
+     * Synthesizes complex baseband samples for the script at the baseband sample rate with seeded gaussian noise.
+     *
+     * @param signalType to modulate
+     * @param script producing the symbols
+     * @param sampleCount number of complex samples
+     * @param snr signal to noise ratio in dB within a 12.5 kHz channel
+     * @param seed for the noise generator
+     * @return interleaved complex samples
+     */
+    public static float[] createBaseband(SignalType signalType, ISymbolScript script, int sampleCount, double snr,
+                                         long seed)
+    {
+        SignalConfiguration configuration = new SignalConfiguration(signalType, 0, snr, script);
+        SyntheticSignal signal = SyntheticSignal.create(configuration, BASEBAND_SAMPLE_RATE);
+        float[] samples = new float[2 * sampleCount];
+        signal.generate(samples, sampleCount);
+
+        double noisePower = Math.pow(10.0, -snr / 10.0) * BASEBAND_SAMPLE_RATE / 12500.0;
+        addNoise(samples, Math.sqrt(noisePower / 2.0), seed);
+        return samples;
+    }
+
+    /**
+     * Synthesizes demodulated FM audio at the audio sample rate for a series of MDC-1200 keyed transmissions, each
+     * with a PTT pre identifier, a voice segment and a PTT post identifier.
+     *
+     * @param unitID for the MDC-1200 script
+     * @param transmissions count
+     * @param voiceSamples number of audio samples of voice in each transmission
+     * @param snr signal to noise ratio in dB
+     * @param seed for the noise generator
+     * @return audio samples
+     */
+    public static float[] createMDCAudio(int unitID, int transmissions, int voiceSamples, double snr, long seed)
+    {
+        MDC1200Script script = new MDC1200Script(unitID);
+        List<Float> audio = new ArrayList<>();
+        double baudPerSample = SignalType.NBFM_MDC1200.getSymbolRate() / AUDIO_SAMPLE_RATE;
+        double phase = 0.0;
+        double voicePhase = 0.0;
+        double symbolTime = 0.0;
+
+        for(int transmission = 0; transmission < transmissions; transmission++)
+        {
+            script.keyUp();
+            int voiceCount = 0;
+            boolean keyDown = false;
+
+            while(script.isTransmitting())
+            {
+                int symbol = script.nextSymbol();
+
+                if(symbol >= 0)
+                {
+                    double frequency = symbol == 0 ? 1200.0 : 1800.0;
+
+                    while(symbolTime < 1.0)
+                    {
+                        phase += 2.0 * Math.PI * frequency / AUDIO_SAMPLE_RATE;
+                        audio.add((float)(Math.sin(phase) * MDC_AUDIO_DEVIATION));
+                        symbolTime += baudPerSample;
+                    }
+
+                    symbolTime -= 1.0;
+                }
+                else if(!keyDown)
+                {
+                    voicePhase += 2.0 * Math.PI * 440.0 / AUDIO_SAMPLE_RATE;
+                    audio.add((float)(Math.sin(voicePhase) * MDC_AUDIO_DEVIATION * 0.5));
+
+                    if(++voiceCount >= voiceSamples)
+                    {
+                        script.keyDown();
+                        keyDown = true;
+                    }
+                }
+            }
+
+            //Unkeyed gap between transmissions
+            for(int x = 0; x < voiceSamples / 4; x++)
+            {
+                audio.add(0.0f);
+            }
+        }
+
+        float[] samples = new float[audio.size()];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = audio.get(x);
+        }
+
+        double noisePower = Math.pow(10.0, -snr / 10.0) * MDC_AUDIO_DEVIATION * MDC_AUDIO_DEVIATION / 2.0;
+        addNoise(samples, Math.sqrt(noisePower), seed);
+        return samples;
+    }
+
+    /**
+     * Adds seeded gaussian noise to the samples.
+     */
+    private static void addNoise(float[] samples, double sigma, long seed)
+    {
+        Random random = new Random(seed);
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] += (float)(random.nextGaussian() * sigma);
+        }
+    }
+
+    /**
+     * Regenerates the checked-in bit stream corpus files.
+     *
+     * @param args optional output directory, otherwise the test resources corpus directory
+     */
+    public static void main(String[] args) throws IOException
+    {
+        Path directory = Paths.get(args.length > 0 ? args[0] : CORPUS_DIRECTORY);
+        Files.createDirectories(directory);
+
+        for(String entry: new String[]{P25_PHASE1_CONTROL, P25_PHASE1_VOICE, P25_PHASE2, DMR})
+        {
+            Path path = directory.resolve(entry + ".bits");
+
+            try(OutputStream outputStream = Files.newOutputStream(path))
+            {
+                outputStream.write(pack(createDibits(entry)));
+            }
+
+            mLog.info("Created: " + path);
+        }
+    }
+}
@@ -0,0 +1,592 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.module.decode;
+
+import io.github.dsheirer.channel.state.DecoderState;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierClass;
+import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.module.InterModuleEventBus;
+import io.github.dsheirer.module.decode.dmr.DMRDecoder;
+import io.github.dsheirer.module.decode.dmr.DMRDecoderState;
+import io.github.dsheirer.module.decode.dmr.DMRMessageFramer;
+import io.github.dsheirer.module.decode.dmr.DMRMessageProcessor;
+import io.github.dsheirer.module.decode.dmr.DecodeConfigDMR;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.module.decode.mdc1200.MDCDecoder;
+import io.github.dsheirer.module.decode.mdc1200.MDCDecoderState;
+import io.github.dsheirer.module.decode.p25.P25TrafficChannelManager;
+import io.github.dsheirer.module.decode.p25.phase1.DecodeConfigP25Phase1;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1DecoderC4FM;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1DecoderState;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1MessageFramer;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1MessageProcessor;
+import io.github.dsheirer.module.decode.p25.phase2.DecodeConfigP25Phase2;
+import io.github.dsheirer.module.decode.p25.phase2.P25P2DecoderHDQPSK;
+import io.github.dsheirer.module.decode.p25.phase2.P25P2DecoderState;
+import io.github.dsheirer.module.decode.p25.phase2.P25P2MessageFramer;
+import io.github.dsheirer.module.decode.p25.phase2.P25P2MessageProcessor;
+import io.github.dsheirer.record.binary.BinaryReader;
+import io.github.dsheirer.sample.Broadcaster;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.IReusableComplexBufferListener;
+import io.github.dsheirer.sample.buffer.ReusableBufferQueue;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Golden corpus decode regression and throughput tests.
+ *
+ * Bit stream corpus: replays the checked-in .bits files through the message framer, message processor and decoder
+ * state for each protocol and asserts the exact message count, valid (CRC/FEC passed) message count, message count per
+ * message type, decode event count per event type and the set of to/from user identifiers carried by the decode events
+ * recorded in golden.properties.
+ *
+ * Baseband corpus: runs synthesized sample streams through the complete decoder and decoder state for each protocol,
+ * asserts that at least the golden count of valid messages and decode events are produced, that the decode events
+ * carry each of the golden to/from user identifiers and measures the wall-clock
+ * samples per second.  Measured rates are written to build/reports/golden-corpus/throughput.properties.  Each decoder
+ * must run at least 2 times real time, a conservative floor for any build machine that can be raised or lowered with
+ * -Dgolden.throughput.minimum=N.  When a previous report is supplied with -Dgolden.throughput.baseline=path each
+ * decoder must also run within the tolerance (-Dgolden.throughput.tolerance, default 0.2 = 20%) of its baseline rate,
+ * so that a change can be checked against a run of the unmodified code on the same machine.
+ */
+public class GoldenCorpusTest
+{
+    private final static Logger mLog = LoggerFactory.getLogger(GoldenCorpusTest.class);
+
+    public static final String THROUGHPUT_MINIMUM_PROPERTY = "golden.throughput.minimum";
+    public static final String THROUGHPUT_BASELINE_PROPERTY = "golden.throughput.baseline";
+    public static final String THROUGHPUT_TOLERANCE_PROPERTY = "golden.throughput.tolerance";
+    private static final Path THROUGHPUT_REPORT = Paths.get("build", "reports", "golden-corpus",
+        "throughput.properties");
+    private static final double DEFAULT_THROUGHPUT_MINIMUM = 2.0;
+    private static final double DEFAULT_THROUGHPUT_TOLERANCE = 0.2;
+    private static final int BINARY_READER_BUFFER_SIZE = 200;
+    private static final int BASEBAND_BUFFER_SIZE = 2500;
+
+    private static Properties sGolden = new Properties();
+    private static Properties sThroughput = new Properties();
+
+    @BeforeAll
+    public static void loadGolden() throws IOException
+    {
+        try(InputStream inputStream = GoldenCorpusTest.class.getResourceAsStream(GoldenCorpus.MANIFEST))
+        {
+            assertNotNull(inputStream, "Golden corpus manifest is missing: " + GoldenCorpus.MANIFEST);
+            sGolden.load(inputStream);
+        }
+    }
+
+    @AfterAll
+    public static void writeThroughputReport() throws IOException
+    {
+        if(!sThroughput.isEmpty())
+        {
+            Files.createDirectories(THROUGHPUT_REPORT.getParent());
+
+            try(OutputStream outputStream = Files.newOutputStream(THROUGHPUT_REPORT))
+            {
+                sThroughput.store(outputStream, "Decoder throughput - samples per second");
+            }
+        }
+    }
+
+    /**
+     * Creates a test for each entry in the bit stream corpus.
+     */
+    @TestFactory
+    public Stream<DynamicTest> bitStreamCorpus()
+    {
+        return getEntries("corpus").map(entry -> DynamicTest.dynamicTest(entry, () -> testBitStream(entry)));
+    }
+
+    /**
+     * Creates a test for each entry in the baseband corpus.
+     */
+    @TestFactory
+    public Stream<DynamicTest> basebandCorpus()
+    {
+        return getEntries("baseband").map(entry -> DynamicTest.dynamicTest(entry, () -> testBaseband(entry)));
+    }
+
+    /**
+     * Entry names from the comma separated manifest property
+     */
+    private static Stream<String> getEntries(String key)
+    {
+        return Arrays.stream(getGolden(key).split(",")).map(String::trim).filter(entry -> !entry.isEmpty());
+    }
+
+    /**
+     * Value of the manifest property, failing the test if it is not defined.
+     */
+    private static String getGolden(String key)
+    {
+        String value = sGolden.getProperty(key);
+        assertNotNull(value, "Golden corpus manifest is missing property: " + key);
+        return value.trim();
+    }
+
+    /**
+     * Replays the bit stream corpus entry and compares the decoded messages to the golden counts.
+     */
+    private static void testBitStream(String entry) throws Exception
+    {
+        DecoderType decoderType = DecoderType.valueOf(getGolden(entry + ".decoder"));
+        URL url = GoldenCorpusTest.class.getResource("/corpus/" + entry + ".bits");
+        assertNotNull(url, "Golden corpus file is missing: " + entry + ".bits");
+
+        MessageTally tally = new MessageTally();
+        Listener<IMessage> messageListener = createMessageListener(decoderType, tally);
+
+        try(BinaryReader reader = new BinaryReader(Paths.get(url.toURI()), BINARY_READER_BUFFER_SIZE))
+        {
+            switch(decoderType)
+            {
+                case P25_PHASE1:
+                    P25P1MessageFramer p25p1Framer = new P25P1MessageFramer(null,
+                        DecoderType.P25_PHASE1.getProtocol().getBitRate());
+                    P25P1MessageProcessor p25p1Processor = new P25P1MessageProcessor();
+                    p25p1Framer.setListener(p25p1Processor);
+                    p25p1Processor.setMessageListener(messageListener);
+
+                    while(reader.hasNext())
+                    {
+                        p25p1Framer.receive(reader.next());
+                    }
+                    break;
+                case P25_PHASE2:
+                    P25P2MessageFramer p25p2Framer = new P25P2MessageFramer(null,
+                        DecoderType.P25_PHASE2.getProtocol().getBitRate());
+                    P25P2MessageProcessor p25p2Processor = new P25P2MessageProcessor();
+                    p25p2Framer.setListener(p25p2Processor);
+                    p25p2Processor.setMessageListener(messageListener);
+
+                    while(reader.hasNext())
+                    {
+                        p25p2Framer.receive(reader.next());
+                    }
+                    break;
+                case DMR:
+                    DMRMessageFramer dmrFramer = new DMRMessageFramer(null);
+                    DMRMessageProcessor dmrProcessor = new DMRMessageProcessor(new DecodeConfigDMR());
+                    dmrFramer.setListener(dmrProcessor);
+                    dmrProcessor.setMessageListener(messageListener);
+
+                    while(reader.hasNext())
+                    {
+                        dmrFramer.receive(reader.next());
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported bit stream corpus decoder: " + decoderType);
+            }
+        }
+
+        mLog.info("Bit stream corpus [" + entry + "] " + tally);
+
+        assertEquals(parseTypeCounts(getGolden(entry + ".types")), tally.getTypeCounts(),
+            "Decoded message types differ from golden corpus [" + entry + "]");
+        assertEquals(Integer.parseInt(getGolden(entry + ".messages")), tally.getMessageCount(),
+            "Decoded message count differs from golden corpus [" + entry + "]");
+        assertEquals(Integer.parseInt(getGolden(entry + ".valid")), tally.getValidCount(),
+            "Valid (CRC passed) message count differs from golden corpus [" + entry + "] - pass rate " +
+                tally.getPassRate());
+        assertEquals(parseTypeCounts(getGolden(entry + ".events")), tally.getEventCounts(),
+            "Decode event types differ from golden corpus [" + entry + "]");
+        assertEquals(parseIdentifiers(getGolden(entry + ".identifiers")), tally.getEventIdentifiers(),
+            "Decode event identifiers differ from golden corpus [" + entry + "]");
+    }
+
+    /**
+     * Runs the baseband corpus entry through the decoder once to warm up and once timed, and compares the decoded
+     * messages and throughput to the golden values.
+     */
+    private static void testBaseband(String entry)
+    {
+        float[] samples = GoldenCorpus.createBaseband(entry);
+        double sampleRate = GoldenCorpus.getBasebandSampleRate(entry);
+        boolean complex = !GoldenCorpus.MDC1200.equals(entry);
+        int sampleCount = complex ? samples.length / 2 : samples.length;
+
+        //Warm up pass so that the timed pass measures compiled code
+        decodeBaseband(entry, samples, sampleRate, complex);
+
+        long start = System.nanoTime();
+        MessageTally tally = decodeBaseband(entry, samples, sampleRate, complex);
+        double elapsed = (System.nanoTime() - start) / 1E9;
+
+        double samplesPerSecond = sampleCount / elapsed;
+        double realTime = samplesPerSecond / sampleRate;
+        sThroughput.setProperty(entry, String.valueOf((long)samplesPerSecond));
+
+        String[] types = getGolden("baseband." + entry + ".types").split(",");
+        int decoded = 0;
+
+        for(String type: types)
+        {
+            decoded += tally.getValidCount(type.trim());
+        }
+
+        mLog.info(String.format("Baseband corpus [%s] %,.0f samples/sec (%.1fx real time) %s", entry,
+            samplesPerSecond, realTime, tally));
+
+        int minimumDecoded = Integer.parseInt(getGolden("baseband." + entry + ".minimum"));
+        assertTrue(decoded >= minimumDecoded, "Decoded [" + decoded + "] valid " + Arrays.toString(types) +
+            " messages from baseband corpus [" + entry + "] - golden minimum is " + minimumDecoded + " " + tally);
+
+        int minimumEvents = Integer.parseInt(getGolden("baseband." + entry + ".events"));
+        assertTrue(tally.getEventCount() >= minimumEvents, "Produced [" + tally.getEventCount() + "] decode " +
+            "events from baseband corpus [" + entry + "] - golden minimum is " + minimumEvents + " " + tally);
+
+        Set<String> identifiers = parseIdentifiers(getGolden("baseband." + entry + ".identifiers"));
+        assertTrue(tally.getEventIdentifiers().containsAll(identifiers), "Decode events from baseband corpus [" +
+            entry + "] carry identifiers " + tally.getEventIdentifiers() + " - golden identifiers are " + identifiers);
+
+        double minimumRealTime = Double.parseDouble(System.getProperty(THROUGHPUT_MINIMUM_PROPERTY,
+            String.valueOf(DEFAULT_THROUGHPUT_MINIMUM)));
+        assertTrue(realTime >= minimumRealTime, String.format("Decoder [%s] throughput %,.0f samples/sec is %.1fx " +
+            "real time - minimum is %.1fx real time", entry, samplesPerSecond, realTime, minimumRealTime));
+
+        String baselinePath = System.getProperty(THROUGHPUT_BASELINE_PROPERTY);
+
+        if(baselinePath != null)
+        {
+            Properties baseline = new Properties();
+
+            try(InputStream inputStream = Files.newInputStream(Paths.get(baselinePath)))
+            {
+                baseline.load(inputStream);
+            }
+            catch(IOException ioe)
+            {
+                throw new IllegalArgumentException("Unable to read throughput baseline: " + baselinePath, ioe);
+            }
+
+            String baselineRate = baseline.getProperty(entry);
+
+            if(baselineRate != null)
+            {
+                double tolerance = Double.parseDouble(System.getProperty(THROUGHPUT_TOLERANCE_PROPERTY,
+                    String.valueOf(DEFAULT_THROUGHPUT_TOLERANCE)));
+                double minimumRate = Long.parseLong(baselineRate) * (1.0 - tolerance);
+                assertTrue(samplesPerSecond >= minimumRate, String.format("Decoder [%s] throughput %,.0f " +
+                    "samples/sec is more than %.0f%% slower than the baseline %,d samples/sec", entry,
+                    samplesPerSecond, tolerance * 100, Long.parseLong(baselineRate)));
+            }
+        }
+    }
+
+    /**
+     * Runs the samples through a new decoder instance for the baseband corpus entry.
+     */
+    private static MessageTally decodeBaseband(String entry, float[] samples, double sampleRate, boolean complex)
+    {
+        MessageTally tally = new MessageTally();
+
+        if(complex)
+        {
+            Decoder decoder = createComplexDecoder(entry, sampleRate);
+            decoder.setMessageListener(createMessageListener(decoder.getDecoderType(), tally));
+            decoder.start();
+
+            Listener<ReusableComplexBuffer> listener =
+                ((IReusableComplexBufferListener)decoder).getReusableComplexBufferListener();
+            ReusableComplexBufferQueue queue = new ReusableComplexBufferQueue("GoldenCorpusTest");
+
+            for(int offset = 0; offset < samples.length; offset += 2 * BASEBAND_BUFFER_SIZE)
+            {
+                int length = Math.min(2 * BASEBAND_BUFFER_SIZE, samples.length - offset);
+                ReusableComplexBuffer buffer = queue.getBuffer(length);
+                System.arraycopy(samples, offset, buffer.getSamples(), 0, length);
+                listener.receive(buffer);
+            }
+
+            decoder.stop();
+        }
+        else
+        {
+            MDCDecoder decoder = new MDCDecoder();
+            decoder.setMessageListener(createMessageListener(DecoderType.MDC1200, tally));
+
+            Listener<ReusableFloatBuffer> listener = decoder.getReusableBufferListener();
+            ReusableBufferQueue queue = new ReusableBufferQueue("GoldenCorpusTest");
+
+            for(int offset = 0; offset < samples.length; offset += BASEBAND_BUFFER_SIZE)
+            {
+                int length = Math.min(BASEBAND_BUFFER_SIZE, samples.length - offset);
+                ReusableFloatBuffer buffer = queue.getBuffer(length);
+                System.arraycopy(samples, offset, buffer.getSamples(), 0, length);
+                listener.receive(buffer);
+            }
+        }
+
+        return tally;
+    }
+
+    /**
+     * Creates a message listener that delivers messages to the tally and to the decoder states for the decoder type,
+     * with the decode events from the decoder states delivered to the tally.  P25 Phase 1 uses a traffic channel
+     * manager with the default traffic channel pool so that control channel grants produce decode events.  Traffic
+     * channel start requests are posted to an event bus without subscribers.
+     */
+    private static Listener<IMessage> createMessageListener(DecoderType decoderType, MessageTally tally)
+    {
+        Channel channel = new Channel(decoderType.name());
+        List<DecoderState> decoderStates = new ArrayList<>();
+
+        switch(decoderType)
+        {
+            case P25_PHASE1:
+                channel.setDecodeConfiguration(new DecodeConfigP25Phase1());
+                P25TrafficChannelManager trafficChannelManager = new P25TrafficChannelManager(channel);
+                trafficChannelManager.setInterModuleEventBus(new InterModuleEventBus(channel.getName()));
+                trafficChannelManager.addDecodeEventListener(tally.getDecodeEventListener());
+                decoderStates.add(new P25P1DecoderState(channel, trafficChannelManager));
+                break;
+            case P25_PHASE2:
+                channel.setDecodeConfiguration(new DecodeConfigP25Phase2());
+                decoderStates.add(new P25P2DecoderState(channel, 0));
+                decoderStates.add(new P25P2DecoderState(channel, 1));
+                break;
+            case DMR:
+                channel.setDecodeConfiguration(new DecodeConfigDMR());
+                decoderStates.add(new DMRDecoderState(channel, 1, null));
+                decoderStates.add(new DMRDecoderState(channel, 2, null));
+                break;
+            case MDC1200:
+                decoderStates.add(new MDCDecoderState());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported golden corpus decoder: " + decoderType);
+        }
+
+        Broadcaster<IMessage> broadcaster = new Broadcaster<>();
+        broadcaster.addListener(tally);
+
+        for(DecoderState decoderState: decoderStates)
+        {
+            decoderState.addDecodeEventListener(tally.getDecodeEventListener());
+            decoderState.start();
+            broadcaster.addListener(decoderState.getMessageListener());
+        }
+
+        return broadcaster;
+    }
+
+    /**
+     * Creates the complex sample decoder for the baseband corpus entry
+     */
+    private static Decoder createComplexDecoder(String entry, double sampleRate)
+    {
+        switch(entry)
+        {
+            case GoldenCorpus.P25_PHASE1_CONTROL:
+                P25P1DecoderC4FM p25p1 = new P25P1DecoderC4FM();
+                p25p1.setSampleRate(sampleRate);
+                return p25p1;
+            case GoldenCorpus.P25_PHASE2:
+                P25P2DecoderHDQPSK p25p2 = new P25P2DecoderHDQPSK(new DecodeConfigP25Phase2());
+                p25p2.setSampleRate(sampleRate);
+                return p25p2;
+            case GoldenCorpus.DMR:
+                DMRDecoder dmr = new DMRDecoder(new DecodeConfigDMR());
+                dmr.setSampleRate(sampleRate);
+                return dmr;
+            default:
+                throw new IllegalArgumentException("Unsupported baseband corpus entry: " + entry);
+        }
+    }
+
+    /**
+     * Parses message type counts formatted as Type:count,Type:count where an empty value has no counts
+     */
+    private static Map<String,Integer> parseTypeCounts(String value)
+    {
+        Map<String,Integer> counts = new TreeMap<>();
+
+        for(String typeCount: value.split(","))
+        {
+            if(typeCount.trim().isEmpty())
+            {
+                continue;
+            }
+
+            String[] parts = typeCount.trim().split(":");
+            counts.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+        }
+
+        return counts;
+    }
+
+    /**
+     * Parses identifiers formatted as ROLE:value,ROLE:value where an empty value has no identifiers
+     */
+    private static Set<String> parseIdentifiers(String value)
+    {
+        Set<String> identifiers = new TreeSet<>();
+
+        for(String identifier: value.split(","))
+        {
+            if(!identifier.trim().isEmpty())
+            {
+                identifiers.add(identifier.trim());
+            }
+        }
+
+        return identifiers;
+    }
+
+    /**
+     * Counts decoded messages by message class and decode events by event description and collects the to/from user
+     * identifiers carried by the decode events
+     */
+    public static class MessageTally implements Listener<IMessage>
+    {
+        private Map<String,Integer> mTypeCounts = new TreeMap<>();
+        private Map<String,Integer> mValidCounts = new TreeMap<>();
+        private Map<String,Integer> mEventCounts = new TreeMap<>();
+        private Set<String> mEventIdentifiers = new TreeSet<>();
+        private int mMessageCount;
+        private int mValidCount;
+        private int mEventCount;
+
+        @Override
+        public void receive(IMessage message)
+        {
+            String type = message.getClass().getSimpleName();
+            mTypeCounts.merge(type, 1, Integer::sum);
+            mMessageCount++;
+
+            if(message.isValid())
+            {
+                mValidCounts.merge(type, 1, Integer::sum);
+                mValidCount++;
+            }
+        }
+
+        public Map<String,Integer> getTypeCounts()
+        {
+            return mTypeCounts;
+        }
+
+        public int getMessageCount()
+        {
+            return mMessageCount;
+        }
+
+        public int getValidCount()
+        {
+            return mValidCount;
+        }
+
+        public int getValidCount(String type)
+        {
+            return mValidCounts.getOrDefault(type, 0);
+        }
+
+        /**
+         * Listener to count decode events
+         */
+        public Listener<IDecodeEvent> getDecodeEventListener()
+        {
+            return decodeEvent -> {
+                mEventCounts.merge(decodeEvent.getEventDescription(), 1, Integer::sum);
+                mEventCount++;
+
+                if(decodeEvent.getIdentifierCollection() != null)
+                {
+                    for(Identifier identifier: decodeEvent.getIdentifierCollection()
+                        .getIdentifiers(IdentifierClass.USER))
+                    {
+                        if(identifier.getRole() == Role.TO || identifier.getRole() == Role.FROM)
+                        {
+                            mEventIdentifiers.add(identifier.getRole() + ":" + identifier.getValue());
+                        }
+                    }
+                }
+            };
+        }
+
+        /**
+         * To/from user identifiers carried by the decode events formatted as ROLE:value
+         */
+        public Set<String> getEventIdentifiers()
+        {
+            return mEventIdentifiers;
+        }
+
+        public Map<String,Integer> getEventCounts()
+        {
+            return mEventCounts;
+        }
+
+        public int getEventCount()
+        {
+            return mEventCount;
+        }
+
+        /**
+         * Percentage of messages that passed CRC/FEC checks
+         */
+        public String getPassRate()
+        {
+            return mMessageCount > 0 ? String.format("%.1f%%", 100.0 * mValidCount / mMessageCount) : "n/a";
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Messages:" + mMessageCount + " Valid:" + mValidCount + " (" + getPassRate() + ") Types:" +
+                mTypeCounts + " Events:" + mEventCounts + " Identifiers:" + mEventIdentifiers;
+        }
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.manager;
+
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.source.SourceException;
+import io.github.dsheirer.source.tuner.Tuner;
+import io.github.dsheirer.source.tuner.TunerClass;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.TunerType;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import io.github.dsheirer.source.tuner.channel.TunerChannel;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
+import io.github.dsheirer.source.tuner.test.TestTunerController;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests channel placement across tuners and the eviction of sourced channels and allocation history.  The test tuners
+ * use the 10 MHz test tuner controller, which has no unusable center region.
+ */
+class ChannelPlacementOptimizerTest
+{
+    private static final int BANDWIDTH = 12500;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private ChannelPlacementOptimizer mOptimizer = new ChannelPlacementOptimizer();
+
+    @Test
+    void activeTunerPreferredWhenTunedForChannel() throws Exception
+    {
+        PlacementTestTuner idle = tuner("Idle", 100_000_000);
+        PlacementTestTuner active = tuner("Active", 100_000_000, 100_500_000);
+
+        List<ChannelPlacementOptimizer.Placement> placements = placements(channel(101_000_000), idle, active);
+
+        assertEquals(2, placements.size(), "Both tuners can provide the channel");
+        assertSame(active, placements.get(0).getTuner(), "Active tuner packs the channel");
+        assertFalse(placements.get(0).isRetuneRequired(), "Active tuner covers the channel");
+        assertSame(idle, placements.get(1).getTuner(), "Idle tuner is the fallback");
+    }
+
+    @Test
+    void idleTunerPreferredOverRetuningActiveTuner() throws Exception
+    {
+        PlacementTestTuner active = tuner("Active", 100_000_000, 97_000_000);
+        PlacementTestTuner idle = tuner("Idle", 106_000_000);
+
+        List<ChannelPlacementOptimizer.Placement> placements = placements(channel(106_000_000), active, idle);
+
+        assertEquals(2, placements.size(), "Both tuners can provide the channel");
+        assertSame(idle, placements.get(0).getTuner(), "Idle tuner covers the channel without a retune");
+        assertFalse(placements.get(0).isRetuneRequired(), "Idle tuner covers the channel");
+        assertEquals(CenterFrequencyCalculator.INVALID_FREQUENCY, placements.get(0).getPreferredCenterFrequency(),
+            "No center frequency preference without a retune");
+        assertSame(active, placements.get(1).getTuner(), "Active tuner must retune");
+        assertTrue(placements.get(1).isRetuneRequired(), "Active tuner must retune");
+    }
+
+    @Test
+    void idleRetunePreferredOverEvictingActiveChannels() throws Exception
+    {
+        PlacementTestTuner active = tuner("Active", 100_000_000, 97_000_000);
+        PlacementTestTuner idle = tuner("Idle", 200_000_000);
+
+        List<ChannelPlacementOptimizer.Placement> placements = placements(channel(106_000_000), active, idle);
+
+        assertEquals(2, placements.size(), "Both tuners can provide the channel");
+        assertSame(idle, placements.get(0).getTuner(), "Retuning the idle tuner restarts no channels");
+        assertTrue(placements.get(0).isRetuneRequired(), "Idle tuner must retune");
+        assertEquals(0, placements.get(0).getAffectedChannelCount(), "No channels restarted");
+        assertSame(active, placements.get(1).getTuner(), "Active tuner retune restarts its channel");
+        assertEquals(1, placements.get(1).getAffectedChannelCount(), "Sourced channel restarted");
+    }
+
+    @Test
+    void fewestEvictedChannelsFirst() throws Exception
+    {
+        PlacementTestTuner busy = tuner("Busy", 100_000_000, 96_000_000, 97_000_000, 98_000_000);
+        PlacementTestTuner quiet = tuner("Quiet", 116_000_000, 112_000_000);
+
+        //Neither tuner covers the channel at its current center frequency, so a retune restarts all sourced channels
+        List<ChannelPlacementOptimizer.Placement> placements = placements(channel(105_000_000), busy, quiet);
+
+        assertEquals(2, placements.size(), "Both tuners can provide the channel");
+        assertSame(quiet, placements.get(0).getTuner(), "Fewest restarted channels first");
+        assertTrue(placements.get(0).isRetuneRequired(), "Quiet tuner must retune");
+        assertEquals(1, placements.get(0).getAffectedChannelCount(), "Quiet tuner channel restarted");
+        assertSame(busy, placements.get(1).getTuner(), "Most restarted channels last");
+        assertEquals(3, placements.get(1).getAffectedChannelCount(), "Busy tuner channels restarted");
+    }
+
+    @Test
+    void unplaceableChannelAndErroredTunerExcluded() throws Exception
+    {
+        PlacementTestTuner active = tuner("Active", 100_000_000, 95_000_000);
+        PlacementTestTuner errored = tuner("Errored", 100_000_000);
+        errored.setErrorMessage("Test error");
+
+        assertTrue(placements(channel(106_000_000), active, errored).isEmpty(),
+            "Channel span exceeds the active tuner bandwidth and the errored tuner is excluded");
+        assertEquals(1, placements(channel(100_000_000), active, errored).size(), "Active tuner only");
+    }
+
+    @Test
+    void retuneCenterFrequencyCoversRequestHistory() throws Exception
+    {
+        PlacementTestTuner idle = tuner("Idle", 200_000_000);
+        TunerChannel historical = channel(104_000_000);
+
+        for(int x = 0; x < 5; x++)
+        {
+            mOptimizer.record(historical);
+        }
+
+        TunerChannel requested = channel(98_000_000);
+        List<ChannelPlacementOptimizer.Placement> placements = placements(requested, idle);
+
+        assertEquals(1, placements.size(), "Idle tuner can provide the channel");
+        long center = placements.get(0).getPreferredCenterFrequency();
+        TunerController controller = idle.getTunerController();
+        assertTrue(CenterFrequencyCalculator.isValidCenterFrequency(controller, requested, center),
+            "Preferred center covers the requested channel");
+        assertTrue(CenterFrequencyCalculator.isValidCenterFrequency(controller, historical, center),
+            "Preferred center covers the requested history");
+    }
+
+    @Test
+    void retuneCenterFrequencyIgnoresHistoryCoveredByOtherTuner() throws Exception
+    {
+        PlacementTestTuner idle = tuner("Idle", 200_000_000);
+        PlacementTestTuner active = tuner("Active", 90_000_000, 90_000_000);
+
+        for(int x = 0; x < 5; x++)
+        {
+            mOptimizer.record(channel(90_000_000));
+        }
+
+        mOptimizer.record(channel(104_000_000));
+
+        TunerChannel requested = channel(98_000_000);
+        List<ChannelPlacementOptimizer.Placement> placements = mOptimizer.getPlacements(
+            Collections.singletonList(idle), Arrays.asList(idle, active), requested);
+
+        assertEquals(1, placements.size(), "Idle tuner can provide the channel");
+        long center = placements.get(0).getPreferredCenterFrequency();
+        TunerController controller = idle.getTunerController();
+        assertTrue(CenterFrequencyCalculator.isValidCenterFrequency(controller, requested, center),
+            "Preferred center covers the requested channel");
+        assertTrue(CenterFrequencyCalculator.isValidCenterFrequency(controller, channel(104_000_000), center),
+            "Preferred center covers the uncovered history instead of the other tuner's frequency");
+    }
+
+    @Test
+    void historyEvictsLowestWeightFrequency()
+    {
+        ChannelAllocationHistory history = new ChannelAllocationHistory(2,
+            ChannelAllocationHistory.DEFAULT_HALF_LIFE_MILLISECONDS);
+        long now = System.currentTimeMillis();
+
+        history.add(channel(100_000_000), now);
+        history.add(channel(100_000_000), now);
+        history.add(channel(101_000_000), now);
+        history.add(channel(102_000_000), now);
+
+        List<Long> frequencies = new ArrayList<>();
+
+        for(ChannelAllocationHistory.Entry entry: history.getEntries(now))
+        {
+            frequencies.add(entry.getTunerChannel().getFrequency());
+        }
+
+        assertEquals(2, history.size(), "History is bounded");
+        assertTrue(frequencies.contains(100_000_000l), "Heaviest frequency retained");
+        assertTrue(frequencies.contains(102_000_000l), "Newest frequency added");
+        assertFalse(frequencies.contains(101_000_000l), "Lowest weight frequency evicted");
+    }
+
+    @Test
+    void declinedPlacementFallsThroughToNextTuner() throws Exception
+    {
+        PlacementTestTuner active = tuner("Active", 100_000_000, 100_500_000);
+        PlacementTestTuner idle = tuner("Idle", 200_000_000);
+        active.getManager().mDecline = true;
+
+        List<Tuner> tuners = Arrays.asList(active, idle);
+        assertNull(mOptimizer.getSource(tuners, tuners, channel(101_000_000), null), "Test managers don't source");
+
+        assertEquals(1, active.getManager().mRequests.size(), "Lowest cost placement attempted first");
+        assertEquals(CenterFrequencyCalculator.INVALID_FREQUENCY, (long)active.getManager().mRequests.get(0),
+            "No retune for the active tuner");
+        assertEquals(1, idle.getManager().mRequests.size(), "Declined placement falls through to the next tuner");
+        assertNotEquals(CenterFrequencyCalculator.INVALID_FREQUENCY, (long)idle.getManager().mRequests.get(0),
+            "Preferred center supplied for the retune");
+    }
+
+    @Test
+    void sourceAllocationDoesNotBlockPlacement() throws Exception
+    {
+        PlacementTestTuner slow = tuner("Slow", 100_000_000);
+        PlacementTestTuner other = tuner("Other", 300_000_000);
+        slow.getManager().mBlock = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try
+        {
+            List<Tuner> tuners = Collections.singletonList(slow);
+            Future<TunerChannelSource> blocked = executor.submit(() ->
+                mOptimizer.getSource(tuners, tuners, channel(100_500_000), null));
+
+            assertTrue(slow.getManager().mBlocked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                "Allocation started on the slow tuner");
+
+            Future<List<ChannelPlacementOptimizer.Placement>> placement =
+                executor.submit(() -> placements(channel(300_500_000), other));
+            assertEquals(1, placement.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).size(),
+                "Placement completes while another tuner is allocating a source");
+
+            slow.getManager().mBlock.countDown();
+            assertNull(blocked.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Test managers don't source");
+        }
+        finally
+        {
+            slow.getManager().mBlock.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private List<ChannelPlacementOptimizer.Placement> placements(TunerChannel channel, Tuner ... tuners)
+    {
+        List<Tuner> list = Arrays.asList(tuners);
+        return mOptimizer.getPlacements(list, list, channel);
+    }
+
+    private static TunerChannel channel(long frequency)
+    {
+        return new TunerChannel(frequency, BANDWIDTH);
+    }
+
+    /**
+     * Creates a test tuner centered at the frequency that is sourcing channels at the channel frequencies.
+     */
+    private static PlacementTestTuner tuner(String name, long centerFrequency, long ... channelFrequencies)
+        throws SourceException
+    {
+        TestTunerController controller = new TestTunerController();
+        controller.setFrequency(centerFrequency);
+        PlacementTestTuner tuner = new PlacementTestTuner(name, controller);
+
+        for(long frequency: channelFrequencies)
+        {
+            tuner.getManager().mChannels.add(channel(frequency));
+        }
+
+        return tuner;
+    }
+
+    /**
+     * Tuner with a channel source manager that tracks sourced channels and source requests without channelizing.
+     */
+    private static class PlacementTestTuner extends Tuner
+    {
+        private PlacementTestTuner(String name, TunerController tunerController)
+        {
+            super(name, tunerController);
+            setChannelSourceManager(new PlacementTestChannelSourceManager(tunerController));
+        }
+
+        private PlacementTestChannelSourceManager getManager()
+        {
+            return (PlacementTestChannelSourceManager)getChannelSourceManager();
+        }
+
+        @Override
+        public String getUniqueID()
+        {
+            return getName();
+        }
+
+        @Override
+        public TunerClass getTunerClass()
+        {
+            return TunerClass.TEST_TUNER;
+        }
+
+        @Override
+        public TunerType getTunerType()
+        {
+            return TunerClass.TEST_TUNER.getTunerType();
+        }
+
+        @Override
+        public double getSampleSize()
+        {
+            return 16.0;
+        }
+
+        @Override
+        public int getMaximumUSBBitsPerSecond()
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * Channel source manager that can provide any channel set that fits within the tuner's usable bandwidth and
+     * records the preferred center frequency of each source request.
+     */
+    private static class PlacementTestChannelSourceManager extends ChannelSourceManager
+    {
+        private TunerController mTunerController;
+        private SortedSet<TunerChannel> mChannels = new TreeSet<>();
+        private List<Long> mRequests = Collections.synchronizedList(new ArrayList<>());
+        private CountDownLatch mBlocked = new CountDownLatch(1);
+        private CountDownLatch mBlock;
+        private boolean mDecline;
+
+        private PlacementTestChannelSourceManager(TunerController tunerController)
+        {
+            mTunerController = tunerController;
+        }
+
+        @Override
+        public SortedSet<TunerChannel> getTunerChannels()
+        {
+            return new TreeSet<>(mChannels);
+        }
+
+        @Override
+        public int getTunerChannelCount()
+        {
+            return mChannels.size();
+        }
+
+        @Override
+        public TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification)
+        {
+            return null;
+        }
+
+        @Override
+        public TunerChannelSource getSource(TunerChannel tunerChannel, ChannelSpecification channelSpecification,
+                                            long preferredCenterFrequency)
+        {
+            mRequests.add(preferredCenterFrequency);
+            mBlocked.countDown();
+
+            if(mBlock != null)
+            {
+                try
+                {
+                    mBlock.await();
+                }
+                catch(InterruptedException ie)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            return mDecline ? null : getSource(tunerChannel, channelSpecification);
+        }
+
+        @Override
+        public boolean canSource(TunerChannel tunerChannel)
+        {
+            SortedSet<TunerChannel> channels = getTunerChannels();
+            channels.add(tunerChannel);
+            return channels.last().getMaxFrequency() - channels.first().getMinFrequency() <=
+                mTunerController.getUsableBandwidth();
+        }
+
+        @Override
+        public void setErrorMessage(String errorMessage)
+        {
+            //no-op
+        }
+
+        @Override
+        public void process(SourceEvent event)
+        {
+            //no-op
+        }
+    }
+}
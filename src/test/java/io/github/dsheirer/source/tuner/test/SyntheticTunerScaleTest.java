@@ -0,0 +1,236 @@
+/*
+ * *****************************************************************************
+ * Copyright (C) 2014-2022 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.source.tuner.test;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.ChannelProcessingManager;
+import io.github.dsheirer.controller.channel.map.ChannelMapModel;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.message.IMessageListener;
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.ProcessingChain;
+import io.github.dsheirer.module.log.EventLogManager;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.settings.SettingsManager;
+import io.github.dsheirer.source.SourceManager;
+import io.github.dsheirer.source.config.SourceConfigTuner;
+import io.github.dsheirer.source.tuner.TunerModel;
+import io.github.dsheirer.source.tuner.configuration.TunerConfigurationModel;
+import io.github.dsheirer.source.tuner.test.synthetic.LoadProfile;
+import javafx.application.Platform;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Scale test that drives the production load profile from a synthetic tuner through the tuner model, source manager
+ * and channel processing manager, the same path that the application uses for hardware tuners.  Each channel in the
+ * profile is started as a standard channel on the synthetic tuner and the test runs in real time for the requested
+ * duration, then reports the messages decoded per channel and the process CPU load.
+ *
+ * The test runs in real time and requires the JavaFX toolkit, so it is disabled unless the duration is supplied with
+ * -Dsynthetic.scale.seconds=N.  The tuner sample rate defaults to 10 MHz (-Dsynthetic.scale.sample.rate) and the CPU
+ * load can be bounded with -Dsynthetic.scale.cpu.maximum=percent of all cores.
+ */
+public class SyntheticTunerScaleTest
+{
+    private final static Logger mLog = LoggerFactory.getLogger(SyntheticTunerScaleTest.class);
+
+    public static final String DURATION_PROPERTY = "synthetic.scale.seconds";
+    public static final String SAMPLE_RATE_PROPERTY = "synthetic.scale.sample.rate";
+    public static final String CPU_MAXIMUM_PROPERTY = "synthetic.scale.cpu.maximum";
+    private static final int DEFAULT_SAMPLE_RATE = SyntheticTunerController.MAXIMUM_SAMPLE_RATE;
+    private static final long CENTER_FREQUENCY = 855000000l;
+    private static final String CONTROL_CHANNEL = "P25 Control";
+    private static final String DMR_REPEATER = "DMR Repeater";
+
+    @Test
+    public void productionLoad() throws Exception
+    {
+        String duration = System.getProperty(DURATION_PROPERTY);
+        assumeTrue(duration != null, "Synthetic tuner scale test is disabled - enable with -D" +
+            DURATION_PROPERTY + "=seconds");
+
+        startPlatform();
+
+        int sampleRate = Integer.parseInt(System.getProperty(SAMPLE_RATE_PROPERTY,
+            String.valueOf(DEFAULT_SAMPLE_RATE)));
+        LoadProfile profile = LoadProfile.production(sampleRate, CENTER_FREQUENCY);
+
+        UserPreferences userPreferences = new UserPreferences();
+        TunerModel tunerModel = new TunerModel(new TunerConfigurationModel());
+
+        //The settings manager gets its own tuner configuration model so that the synthetic tuner configuration is
+        //never saved to the user's settings
+        SourceManager sourceManager = new SourceManager(tunerModel,
+            new SettingsManager(new TunerConfigurationModel()), userPreferences);
+        SyntheticTuner tuner = new SyntheticTuner(userPreferences, profile);
+        tunerModel.addTuner(tuner);
+        assertTrue(tunerModel.getTuners().contains(tuner), "Synthetic tuner was not added to the tuner model");
+
+        AliasModel aliasModel = new AliasModel();
+        ChannelProcessingManager channelProcessingManager = new ChannelProcessingManager(new ChannelMapModel(),
+            new EventLogManager(aliasModel, userPreferences), sourceManager, aliasModel, userPreferences);
+
+        Map<Channel,MessageCounter> counters = new LinkedHashMap<>();
+
+        try
+        {
+            for(Channel channel: profile.createChannels())
+            {
+                ((SourceConfigTuner)channel.getSourceConfiguration()).setPreferredTuner(tuner.getName());
+                channelProcessingManager.start(channel);
+
+                ProcessingChain processingChain = channelProcessingManager.getProcessingChain(channel);
+                assertNotNull(processingChain, "Channel [" + channel.getName() + "] is not processing");
+
+                MessageCounter counter = new MessageCounter();
+                processingChain.addModule(counter);
+                counters.put(channel, counter);
+            }
+
+            com.sun.management.OperatingSystemMXBean operatingSystem =
+                (com.sun.management.OperatingSystemMXBean)ManagementFactory.getOperatingSystemMXBean();
+            long cpuStart = operatingSystem.getProcessCpuTime();
+            long wallStart = System.nanoTime();
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(Long.parseLong(duration)));
+
+            double cpu = (double)(operatingSystem.getProcessCpuTime() - cpuStart) / (System.nanoTime() - wallStart);
+            double cpuPercent = 100.0 * cpu / Runtime.getRuntime().availableProcessors();
+
+            for(Map.Entry<Channel,MessageCounter> entry: counters.entrySet())
+            {
+                mLog.info("Channel [" + entry.getKey().getName() + "] " + entry.getValue());
+            }
+
+            mLog.info(String.format("Synthetic tuner scale test - %d channels at %,d Hz - CPU %.2f cores " +
+                "(%.1f%% of %d)", counters.size(), sampleRate, cpu, cpuPercent,
+                Runtime.getRuntime().availableProcessors()));
+
+            for(Map.Entry<Channel,MessageCounter> entry: counters.entrySet())
+            {
+                String name = entry.getKey().getName();
+
+                if(name.equals(CONTROL_CHANNEL) || name.startsWith(DMR_REPEATER))
+                {
+                    assertTrue(entry.getValue().getValidCount() > 0, "Channel [" + name + "] didn't decode any " +
+                        "valid messages " + entry.getValue());
+                }
+            }
+
+            String cpuMaximum = System.getProperty(CPU_MAXIMUM_PROPERTY);
+
+            if(cpuMaximum != null)
+            {
+                assertTrue(cpuPercent <= Double.parseDouble(cpuMaximum), String.format("CPU load %.1f%% exceeds " +
+                    "maximum %s%%", cpuPercent, cpuMaximum));
+            }
+        }
+        finally
+        {
+            for(Channel channel: counters.keySet())
+            {
+                channelProcessingManager.stop(channel);
+            }
+
+            sourceManager.shutdown();
+        }
+    }
+
+    /**
+     * Starts the JavaFX toolkit, which the channel processing manager uses to update the channel processing state.
+     */
+    private static void startPlatform()
+    {
+        try
+        {
+            Platform.startup(() -> {});
+        }
+        catch(IllegalStateException ise)
+        {
+            //Toolkit is already running
+        }
+    }
+
+    /**
+     * Counts the messages produced by a processing chain
+     */
+    public static class MessageCounter extends Module implements IMessageListener, Listener<IMessage>
+    {
+        private AtomicInteger mMessageCount = new AtomicInteger();
+        private AtomicInteger mValidCount = new AtomicInteger();
+
+        @Override
+        public void receive(IMessage message)
+        {
+            mMessageCount.incrementAndGet();
+
+            if(message.isValid())
+            {
+                mValidCount.incrementAndGet();
+            }
+        }
+
+        @Override
+        public Listener<IMessage> getMessageListener()
+        {
+            return this;
+        }
+
+        public int getValidCount()
+        {
+            return mValidCount.get();
+        }
+
+        @Override
+        public void reset()
+        {
+        }
+
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void stop()
+        {
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Messages:" + mMessageCount.get() + " Valid:" + mValidCount.get();
+        }
+    }
+}